@@ -0,0 +1,68 @@
+package com.evse.simulator.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Configuration de la diffusion STOMP vers le frontend.
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "broadcast")
+public class BroadcastProperties {
+
+    /**
+     * Intervalle entre deux trames de diffusion en millisecondes.
+     * Les mises à jour reçues pendant une trame sont fusionnées (la dernière gagne).
+     */
+    @Positive
+    private int frameIntervalMs = 250;
+
+    /**
+     * Diffuse des deltas par champ au lieu des sessions complètes.
+     */
+    private boolean sessionDeltas = true;
+
+    /**
+     * Nombre de deltas entre deux snapshots complets d'une session (resynchronisation).
+     */
+    @Min(1)
+    private int snapshotEvery = 40;
+
+    /**
+     * Nombre maximum de messages en attente par destination pour les flux
+     * non fusionnables (logs, OCPP, graphiques). Au-delà, les plus anciens sont abandonnés.
+     */
+    @Min(1)
+    private int maxQueuedPerDestination = 200;
+
+    /**
+     * Ignore les destinations sans abonné (aucune sérialisation).
+     */
+    private boolean skipUnsubscribed = true;
+
+    /**
+     * Intervalle de recalcul de la composition des fenêtres de sessions
+     * (/topic/sessions-viewport/{clé}) en millisecondes.
+     */
+    @Positive
+    private int viewportRefreshMs = 2000;
+
+    /**
+     * Autorise l'encodage CBOR : destinations STOMP suffixées {@code .cbor}
+     * (ex: /topic/metrics.cbor, endpoint /ws-native uniquement) et sous-protocole
+     * {@code cbor} sur les WebSockets natifs.
+     */
+    private boolean compactEncoding = true;
+
+    /**
+     * Accepte la compression permessage-deflate proposée par les clients.
+     */
+    private boolean permessageDeflate = true;
+}
@@ -1,5 +1,6 @@
 package com.evse.simulator.config;
 
+import com.evse.simulator.ocpp.capture.CaptureLevel;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -36,4 +37,24 @@ public class LoadTestProperties {
      */
     @Min(1)
     private int minDelayMs = 10;
+
+    /**
+     * Niveau de capture du trafic OCPP des sessions de test de charge.
+     */
+    private CaptureLevel trafficCapture = CaptureLevel.SAMPLED;
+
+    /**
+     * Représentation des sessions simulées (FULL ou LIGHT).
+     */
+    private SessionMode sessionMode = SessionMode.FULL;
+
+    /**
+     * Représentation d'une session de test de charge.
+     */
+    public enum SessionMode {
+        /** Session complète (logs, graphiques, historique OCPP), visible dans l'UI */
+        FULL,
+        /** Session légère : état protocolaire seul, gonflée à la demande pour l'UI */
+        LIGHT
+    }
 }
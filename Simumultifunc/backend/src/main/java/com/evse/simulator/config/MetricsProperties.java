@@ -5,6 +5,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Positive;
 
@@ -28,4 +29,49 @@ public class MetricsProperties {
      */
     @Min(100)
     private int latencySamples = 1000;
+
+    /**
+     * Historique en mémoire des métriques (buffers circulaires).
+     */
+    @Valid
+    private History history = new History();
+
+    @Data
+    public static class History {
+
+        /**
+         * Active l'enregistrement de l'historique.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Résolution fine (s).
+         */
+        @Positive
+        private int fineResolutionSeconds = 1;
+
+        /**
+         * Rétention de la résolution fine (s).
+         */
+        @Positive
+        private int fineRetentionSeconds = 3600;
+
+        /**
+         * Résolution du cumul (s).
+         */
+        @Positive
+        private int coarseResolutionSeconds = 10;
+
+        /**
+         * Rétention du cumul (s).
+         */
+        @Positive
+        private int coarseRetentionSeconds = 86400;
+
+        /**
+         * Nombre maximum de séries (borne la mémoire totale).
+         */
+        @Positive
+        private int maxSeries = 64;
+    }
 }
@@ -0,0 +1,44 @@
+package com.evse.simulator.config;
+
+import com.evse.simulator.performance.csms.MockCsmsBehavior;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+
+/**
+ * Configuration du CSMS simule embarque (cible des benchmarks du simulateur).
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "performance.mock-csms")
+public class MockCsmsProperties {
+
+    /**
+     * Démarrage du CSMS simulé avec l'application.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Port d'écoute WebSocket (0 = port libre choisi par le système).
+     */
+    @Min(0)
+    @Max(65535)
+    private int port = 8887;
+
+    /**
+     * Threads de décodage des trames, un par cœur par défaut.
+     */
+    @Positive
+    private int decoders = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Comportement initial : latence, erreurs injectées, modèles de réponse.
+     */
+    private MockCsmsBehavior behavior = new MockCsmsBehavior();
+}
@@ -1,6 +1,8 @@
 package com.evse.simulator.config;
 
 import com.evse.simulator.websocket.MLWebSocketHandler;
+import com.evse.simulator.websocket.broadcast.CompressionHandshakeHandler;
+import com.evse.simulator.websocket.broadcast.WireFormat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,14 +24,23 @@ import java.util.List;
 public class NativeWebSocketConfig implements WebSocketConfigurer {
 
     private final MLWebSocketHandler mlWebSocketHandler;
+    private final BroadcastProperties broadcastProperties;
 
     @Value("${websocket.allowed-origins:http://localhost:3000,http://localhost:3002}")
     private List<String> allowedOrigins;
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Sous-protocoles proposés : cbor (binaire compact) ou json
+        CompressionHandshakeHandler handshakeHandler =
+                new CompressionHandshakeHandler(broadcastProperties.isPermessageDeflate());
+        if (broadcastProperties.isCompactEncoding()) {
+            handshakeHandler.setSupportedProtocols(WireFormat.CBOR.getProtocol(), WireFormat.JSON.getProtocol());
+        }
+
         // Endpoint pour les notifications ML en temps réel
         registry.addHandler(mlWebSocketHandler, "/ws-ml")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns(allowedOrigins.toArray(new String[0]));
 
         log.info("Native WebSocket handlers registered: /ws-ml");
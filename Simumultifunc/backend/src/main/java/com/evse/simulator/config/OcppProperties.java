@@ -1,5 +1,6 @@
 package com.evse.simulator.config;
 
+import com.evse.simulator.ocpp.capture.CaptureLevel;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -56,6 +57,12 @@ public class OcppProperties {
     @Positive
     private int reconnectDelay = 5000;
 
+    /**
+     * Plafond du délai de reconnexion exponentiel en millisecondes.
+     */
+    @Positive
+    private int maxReconnectDelay = 60000;
+
     /**
      * Nombre maximum de tentatives de reconnexion.
      */
@@ -68,6 +75,11 @@ public class OcppProperties {
      */
     private MessageConfig message = new MessageConfig();
 
+    /**
+     * Capture du trafic OCPP (historique et logs des échanges).
+     */
+    private CaptureConfig capture = new CaptureConfig();
+
     /**
      * Environnements CSMS disponibles.
      */
@@ -87,6 +99,26 @@ public class OcppProperties {
         private int maxSize = 65536;
     }
 
+    @Data
+    public static class CaptureConfig {
+        /**
+         * Niveau par défaut des sessions (les tests de charge utilisent loadtest.traffic-capture).
+         */
+        private CaptureLevel defaultLevel = CaptureLevel.FULL;
+
+        /**
+         * Nombre d'échanges conservés par session.
+         */
+        @Positive
+        private int bufferSize = 500;
+
+        /**
+         * Niveau SAMPLED : un CALL sur N conservé avec son payload.
+         */
+        @Positive
+        private int sampleEvery = 10;
+    }
+
     @Data
     public static class EnvironmentConfig {
         /**
@@ -0,0 +1,44 @@
+package com.evse.simulator.config;
+
+import com.evse.simulator.websocket.OCPPWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * Endpoint OCPP 1.6-J servi par Tomcat (/ocpp/{cpId}).
+ * <p>
+ * Enregistré uniquement avec {@code performance.mock-csms.enabled} : les
+ * trames sont traitées par le même répondeur que le CSMS simulé.
+ * </p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "performance.mock-csms.enabled", havingValue = "true")
+@Slf4j
+@RequiredArgsConstructor
+public class OcppWebSocketConfig implements WebSocketConfigurer {
+
+    private final OCPPWebSocketHandler ocppWebSocketHandler;
+
+    @Value("${websocket.allowed-origins:http://localhost:3000,http://localhost:3002}")
+    private List<String> allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        DefaultHandshakeHandler handshakeHandler = new DefaultHandshakeHandler();
+        handshakeHandler.setSupportedProtocols("ocpp1.6");
+
+        registry.addHandler(ocppWebSocketHandler, "/ocpp/*")
+                .setHandshakeHandler(handshakeHandler)
+                .setAllowedOriginPatterns(allowedOrigins.toArray(new String[0]));
+
+        log.info("OCPP WebSocket handler registered: /ocpp/{cpId}");
+    }
+}
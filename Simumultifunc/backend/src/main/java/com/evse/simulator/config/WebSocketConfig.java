@@ -1,5 +1,6 @@
 package com.evse.simulator.config;
 
+import com.evse.simulator.websocket.broadcast.CompressionHandshakeHandler;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${websocket.message.buffer-size:65536}")
     private int messageBufferSize;
 
+    @Value("${broadcast.permessage-deflate:true}")
+    private boolean permessageDeflate;
+
     /**
      * Configure le broker de messages STOMP.
      * <p>
@@ -68,8 +72,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        // Négociation permessage-deflate (sous-protocoles STOMP laissés au handler)
+        CompressionHandshakeHandler handshakeHandler = new CompressionHandshakeHandler(permessageDeflate);
+
         // Endpoint WebSocket avec SockJS fallback
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns(allowedOrigins.toArray(new String[0]))
                 .withSockJS()
                 .setStreamBytesLimit(messageBufferSize)
@@ -78,9 +86,11 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
         // Endpoint WebSocket natif (sans SockJS)
         registry.addEndpoint("/ws-native")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns(allowedOrigins.toArray(new String[0]));
 
-        log.info("STOMP endpoints registered: /ws (SockJS), /ws-native");
+        log.info("STOMP endpoints registered: /ws (SockJS), /ws-native (permessage-deflate: {})",
+                permessageDeflate);
     }
 
     /**
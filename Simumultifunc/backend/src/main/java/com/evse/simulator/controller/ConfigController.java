@@ -183,6 +183,7 @@ public class ConfigController {
         log.info("TTE credentials updated: clientId={}...", clientId.substring(0, Math.min(8, clientId.length())));
 
         // Essayer de rafraîchir le token avec les nouveaux credentials
+        cognitoTokenService.invalidateToken();
         try {
             cognitoTokenService.refreshToken();
             return ResponseEntity.ok(Map.of(
@@ -0,0 +1,87 @@
+package com.evse.simulator.controller;
+
+import com.evse.simulator.performance.history.MetricsHistoryStore;
+import com.evse.simulator.performance.history.MetricsHistoryStore.Range;
+import com.evse.simulator.performance.history.MetricsHistoryStore.Run;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur REST de l'historique des métriques (courbes complètes d'un test,
+ * reprise du dashboard après reconnexion).
+ */
+@RestController
+@RequestMapping("/api/performance/history")
+@Tag(name = "Performance", description = "Tests de performance et métriques")
+@RequiredArgsConstructor
+@CrossOrigin
+public class MetricsHistoryController {
+
+    private static final long DEFAULT_WINDOW_SECONDS = 3600;
+
+    private final MetricsHistoryStore metricsHistory;
+
+    @GetMapping
+    @Operation(summary = "Liste les métriques historisées et les tests enregistrés")
+    public ResponseEntity<Map<String, Object>> getOverview() {
+        return ResponseEntity.ok(Map.of(
+                "metrics", metricsHistory.getMetricNames(),
+                "runs", metricsHistory.getRuns(),
+                "stats", metricsHistory.getStats()
+        ));
+    }
+
+    @GetMapping("/runs")
+    @Operation(summary = "Liste les tests de performance enregistrés (plus récent d'abord)")
+    public ResponseEntity<List<Run>> getRuns() {
+        return ResponseEntity.ok(metricsHistory.getRuns());
+    }
+
+    @GetMapping("/series")
+    @Operation(summary = "Récupère les points et agrégats de métriques sur une plage ou un test")
+    public ResponseEntity<List<Range>> getSeries(
+            @RequestParam List<String> metrics,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) Long lastSeconds,
+            @RequestParam(required = false) String runId,
+            @RequestParam(required = false) Integer step) {
+
+        if (step != null && step <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (runId != null && metricsHistory.getRun(runId) == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from
+                : end.minusSeconds(lastSeconds != null ? lastSeconds : DEFAULT_WINDOW_SECONDS);
+        if (start.isAfter(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Range> ranges = new ArrayList<>();
+        for (String metric : metrics) {
+            Range range = runId != null
+                    ? metricsHistory.queryRun(metric, runId, step)
+                    : metricsHistory.query(metric, start, end, step);
+            if (range != null) {
+                ranges.add(range);
+            }
+        }
+        if (ranges.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ranges);
+    }
+}
@@ -0,0 +1,48 @@
+package com.evse.simulator.controller;
+
+import com.evse.simulator.http.OAuthTokenManager;
+import com.evse.simulator.http.OutboundHttpClient;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur REST des métriques des appels HTTP sortants (OCPI, TTE, GPM).
+ */
+@RestController
+@RequestMapping("/api/outbound-http")
+@Tag(name = "Performance", description = "Tests de performance et métriques")
+@RequiredArgsConstructor
+@CrossOrigin
+public class OutboundHttpController {
+
+    private final OutboundHttpClient outboundHttpClient;
+    private final OAuthTokenManager tokenManager;
+
+    @GetMapping("/stats")
+    @Operation(summary = "Latences et erreurs par module et partenaire, charge courante par hôte")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(Map.of(
+                "endpoints", outboundHttpClient.getStats(),
+                "hosts", outboundHttpClient.getHostLoads()
+        ));
+    }
+
+    @DeleteMapping("/stats")
+    @Operation(summary = "Remet à zéro les métriques des appels sortants")
+    public ResponseEntity<Void> resetStats() {
+        outboundHttpClient.resetStats();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/tokens")
+    @Operation(summary = "Tokens OAuth2 en cache : expiration, renouvellements, échecs et latences (sans le token)")
+    public ResponseEntity<List<OAuthTokenManager.TokenStats>> getTokens() {
+        return ResponseEntity.ok(tokenManager.getStats());
+    }
+}
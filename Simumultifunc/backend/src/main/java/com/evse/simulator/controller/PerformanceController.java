@@ -6,6 +6,10 @@ import com.evse.simulator.domain.service.LoadTestService.SessionStats;
 import com.evse.simulator.domain.service.MetricsService;
 import com.evse.simulator.model.PerformanceMetrics;
 import com.evse.simulator.model.Session;
+import com.evse.simulator.websocket.MLWebSocketHandler;
+import com.evse.simulator.websocket.broadcast.BroadcastCoalescer;
+import com.evse.simulator.websocket.broadcast.SessionStreamRouter;
+import com.evse.simulator.websocket.broadcast.SubscriptionTracker;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -29,6 +33,10 @@ public class PerformanceController {
 
     private final MetricsService metricsService;
     private final LoadTestService loadTestService;
+    private final BroadcastCoalescer broadcastCoalescer;
+    private final SubscriptionTracker subscriptionTracker;
+    private final SessionStreamRouter sessionStreamRouter;
+    private final MLWebSocketHandler mlWebSocketHandler;
 
     // =========================================================================
     // Metrics Endpoints
@@ -47,6 +55,18 @@ public class PerformanceController {
         return ResponseEntity.ok(Map.of("status", "counters reset"));
     }
 
+    @GetMapping("/broadcast")
+    @Operation(summary = "Compteurs de diffusion WebSocket par topic")
+    public ResponseEntity<Map<String, Object>> getBroadcastStats() {
+        return ResponseEntity.ok(Map.of(
+                "trackedDestinations", broadcastCoalescer.getTrackedDestinations(),
+                "topics", broadcastCoalescer.getTopicStats(),
+                "subscriptions", subscriptionTracker.getStats(),
+                "sessionRoute", sessionStreamRouter.getStats(),
+                "mlStream", mlWebSocketHandler.getBroadcastStats()
+        ));
+    }
+
     // =========================================================================
     // Load Test Endpoints
     // =========================================================================
@@ -57,6 +77,14 @@ public class PerformanceController {
         return ResponseEntity.ok(loadTestService.getSessionStats());
     }
 
+    @GetMapping("/sessions/{sessionId}")
+    @Operation(summary = "Inspecte une session de test de charge (sessions légères reconstruites)")
+    public ResponseEntity<Session> inspectSession(@PathVariable String sessionId) {
+        return loadTestService.inspectSession(sessionId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @PostMapping("/start-load-test")
     @Operation(summary = "Démarre un test de charge")
     public ResponseEntity<Map<String, Object>> startLoadTest(
@@ -6,6 +6,8 @@ import com.evse.simulator.model.Session;
 import com.evse.simulator.model.enums.ChargerType;
 import com.evse.simulator.model.enums.ConnectorStatus;
 import com.evse.simulator.model.enums.SessionState;
+import com.evse.simulator.ocpp.capture.CaptureLevel;
+import com.evse.simulator.ocpp.capture.OcppTrafficCapture;
 import com.evse.simulator.service.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -35,6 +37,7 @@ public class SessionController {
 
     private final SessionService sessionService;
     private final OCPPService ocppService;
+    private final OcppTrafficCapture trafficCapture;
 
     // =========================================================================
     // CRUD Operations
@@ -453,4 +456,37 @@ public class SessionController {
                     .body(Map.of("status", "error", "message", e.getMessage()));
         }
     }
+
+    // =========================================================================
+    // Trafic OCPP capturé
+    // =========================================================================
+
+    @GetMapping("/{id}/traffic")
+    @Operation(summary = "Derniers messages OCPP capturés (matérialisés à la demande)")
+    public ResponseEntity<Map<String, Object>> getTraffic(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(Map.of(
+                "stats", trafficCapture.getStats(id),
+                "messages", trafficCapture.getMessages(id, limit)
+        ));
+    }
+
+    @GetMapping("/{id}/traffic/logs")
+    @Operation(summary = "Lignes de log des derniers échanges OCPP capturés")
+    public ResponseEntity<List<com.evse.simulator.model.LogEntry>> getTrafficLogs(
+            @PathVariable String id,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(trafficCapture.getLogs(id, limit));
+    }
+
+    @PutMapping("/{id}/traffic/level")
+    @Operation(summary = "Niveau de capture du trafic OCPP (OFF, HEADERS, SAMPLED, FULL)")
+    public ResponseEntity<OcppTrafficCapture.Stats> setTrafficLevel(
+            @PathVariable String id,
+            @RequestParam CaptureLevel level) {
+        sessionService.getSession(id);
+        trafficCapture.setLevel(id, level);
+        return ResponseEntity.ok(trafficCapture.getStats(id));
+    }
 }
@@ -0,0 +1,47 @@
+package com.evse.simulator.document;
+
+import com.evse.simulator.performance.model.PerfRunSummary;
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Document MongoDB pour les tests de performance archives.
+ * <p>
+ * Le test est stocke en JSON : les noms d'histogrammes ({@code action.HEARTBEAT})
+ * contiennent des points, refuses comme cles de sous-document.
+ * </p>
+ */
+@Document(collection = "perfRuns")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PerfRunDocument {
+
+    @Id
+    private String id;
+
+    @Indexed
+    private String scenario;
+
+    private String status;
+
+    @Indexed
+    private Instant startTime;
+
+    private Instant archivedAt;
+
+    /**
+     * Ligne de la liste des tests, lue par projection sans le payload.
+     */
+    private PerfRunSummary summary;
+
+    /**
+     * PerfRunRecord serialise en JSON.
+     */
+    private String payload;
+}
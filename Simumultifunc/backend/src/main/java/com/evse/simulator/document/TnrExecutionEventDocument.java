@@ -0,0 +1,37 @@
+package com.evse.simulator.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Document MongoDB pour un evenement d'execution TNR.
+ * <p>
+ * Les evenements sont stockes hors du document d'execution, indexes par
+ * (executionId, sequence), pour permettre une lecture paginee des
+ * enregistrements volumineux.
+ * </p>
+ */
+@Document(collection = "tnrExecutionEvents")
+@CompoundIndex(name = "execution_sequence_idx", def = "{'executionId': 1, 'sequence': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TnrExecutionEventDocument {
+
+    @Id
+    private String id;
+
+    private String executionId;
+
+    private int sequence;
+
+    private Long timestamp;
+    private String sessionId;
+    private String type;
+    private String action;
+    private Object payload;
+    private Long latency;
+}
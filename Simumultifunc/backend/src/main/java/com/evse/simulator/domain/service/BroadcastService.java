@@ -13,6 +13,12 @@ public interface BroadcastService {
     void broadcastSession(Session session);
     void broadcastAllSessions(List<Session> sessions);
 
+    /**
+     * Libère l'état de diffusion d'une session supprimée.
+     */
+    default void forgetSession(String sessionId) {
+    }
+
     // Session Details
     void broadcastLog(String sessionId, LogEntry log);
     void broadcastOcppMessage(String sessionId, OCPPMessage message);
@@ -203,6 +203,15 @@ public interface LoadTestService {
      */
     List<SessionStats> getSessionStats();
 
+    /**
+     * Récupère une session de test de charge pour l'inspection dans l'UI.
+     * Les sessions légères sont reconstruites à la demande.
+     *
+     * @param sessionId identifiant de la session
+     * @return session complète, ou vide si inconnue
+     */
+    java.util.Optional<Session> inspectSession(String sessionId);
+
     /**
      * État d'un test de charge.
      */
@@ -221,6 +230,7 @@ public interface LoadTestService {
         private long messagesReceived;
         private long errors;
         private double progress;
+        private String sessionMode;
     }
 
     /**
@@ -18,6 +18,11 @@ public interface OCPPService {
     int getActiveConnectionsCount();
     void disconnectAll();
 
+    /**
+     * Connexion perdue sans deconnexion volontaire : reconnexion avec backoff.
+     */
+    void handleConnectionLost(String sessionId, int code, boolean remote);
+
     // OCPP Messages - Charge Point to CSMS
     CompletableFuture<Map<String, Object>> sendBootNotification(String sessionId);
     CompletableFuture<Map<String, Object>> sendAuthorize(String sessionId);
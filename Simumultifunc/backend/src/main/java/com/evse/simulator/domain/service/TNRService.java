@@ -18,6 +18,8 @@ public interface TNRService {
     // Executions list and detail
     List<ExecutionMeta> listExecutions();
     ExecutionDetail getExecution(String executionId) throws Exception;
+    ExecutionMeta getExecutionMeta(String executionId);
+    List<TNREvent> getExecutionEvents(String executionId, int offset, int limit);
 
     // Scenario CRUD
     List<TNRScenario> getAllScenarios();
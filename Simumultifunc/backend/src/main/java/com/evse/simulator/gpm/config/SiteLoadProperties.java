@@ -0,0 +1,60 @@
+package com.evse.simulator.gpm.config;
+
+import com.evse.simulator.gpm.loadmanagement.AllocationPolicy;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration du load management local (arbre site → départ → borne → connecteur).
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "gpm.site")
+public class SiteLoadProperties {
+
+    /**
+     * Active l'allocation du budget site sur les sessions simulées.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Identifiant du nœud racine.
+     */
+    private String siteId = "SITE";
+
+    /**
+     * Capacité du site (kW).
+     */
+    private double siteMaxPowerKw = 500;
+
+    /**
+     * Nombre de départs ; les bornes y sont réparties par cpId.
+     */
+    private int feeders = 4;
+
+    /**
+     * Capacité de chaque départ (kW, 0 = illimitée).
+     */
+    private double feederMaxPowerKw = 150;
+
+    /**
+     * Capacité de chaque borne (kW, 0 = illimitée).
+     */
+    private double chargePointMaxPowerKw = 0;
+
+    /**
+     * Politique de partage entre enfants d'un même nœud.
+     */
+    private AllocationPolicy policy = AllocationPolicy.FAIR_SHARE;
+
+    /**
+     * Intervalle entre deux allocations (millisecondes).
+     */
+    private long allocationIntervalMs = 1000;
+
+    /**
+     * Un connecteur sans demande remontée depuis ce délai est retiré (millisecondes).
+     */
+    private long staleAfterMs = 60000;
+}
@@ -0,0 +1,69 @@
+package com.evse.simulator.gpm.controller;
+
+import com.evse.simulator.gpm.dto.SiteLoadResponse;
+import com.evse.simulator.gpm.loadmanagement.AllocationPolicy;
+import com.evse.simulator.gpm.service.SiteLoadManager;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Contrôleur REST du load management local (budget site).
+ */
+@RestController
+@RequestMapping("/api/gpm/site")
+@Tag(name = "GPM Simulator", description = "Simulation GPM avec mode Dry-Run")
+@RequiredArgsConstructor
+public class SiteLoadController {
+
+    private final SiteLoadManager siteLoadManager;
+
+    @GetMapping
+    @Operation(summary = "État du budget site et allocation des départs")
+    public ResponseEntity<SiteLoadResponse> getSite() {
+        return ResponseEntity.ok(siteLoadManager.getStatus(null));
+    }
+
+    @GetMapping("/nodes/{nodeId}")
+    @Operation(summary = "Allocation d'un nœud et de ses enfants directs")
+    public ResponseEntity<SiteLoadResponse> getNode(@PathVariable String nodeId) {
+        SiteLoadResponse status = siteLoadManager.getStatus(nodeId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    @PutMapping("/nodes/{nodeId}/priority")
+    @Operation(summary = "Change la priorité d'un nœud (politique PRIORITY)")
+    public ResponseEntity<?> setPriority(@PathVariable String nodeId, @RequestParam int priority) {
+        if (!siteLoadManager.setPriority(nodeId, priority)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("nodeId", nodeId, "priority", priority));
+    }
+
+    @PutMapping("/nodes/{nodeId}/max-power")
+    @Operation(summary = "Change la capacité d'un nœud (kW, 0 = illimitée)")
+    public ResponseEntity<?> setMaxPower(@PathVariable String nodeId, @RequestParam double maxPowerKw) {
+        if (!siteLoadManager.setMaxPower(nodeId, maxPowerKw)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("nodeId", nodeId, "maxPowerKw", maxPowerKw));
+    }
+
+    @PutMapping("/policy")
+    @Operation(summary = "Change la politique de partage (FAIR_SHARE, PRIORITY)")
+    public ResponseEntity<?> setPolicy(@RequestParam AllocationPolicy policy) {
+        siteLoadManager.setPolicy(policy);
+        return ResponseEntity.ok(Map.of("policy", policy.name()));
+    }
+
+    @PostMapping("/reset")
+    @Operation(summary = "Réinitialise l'arbre de budget")
+    public ResponseEntity<Void> reset() {
+        siteLoadManager.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
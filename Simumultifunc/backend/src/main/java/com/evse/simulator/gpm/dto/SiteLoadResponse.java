@@ -0,0 +1,45 @@
+package com.evse.simulator.gpm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * État du load management local : statistiques d'allocation et nœud demandé.
+ * GET /api/gpm/site
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SiteLoadResponse {
+
+    private boolean enabled;
+    private String policy;
+    private int nodes;
+    private int connectors;
+    private long allocations;
+    private double lastAllocationMs;
+    private int lastRecomputedNodes;
+    private Node root;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Node {
+        private String nodeId;
+        private String type; // SITE, FEEDER, CHARGE_POINT, CONNECTOR
+        private String parentId;
+        private Double maxPowerKw; // null = illimitée
+        private double demandKw;
+        private double allocatedKw;
+        private int priority;
+        private double weight;
+        private int childCount;
+        private List<Node> children;
+    }
+}
@@ -0,0 +1,105 @@
+package com.evse.simulator.gpm.loadmanagement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Politique de partage du budget d'un nœud entre ses enfants.
+ * <p>
+ * Le partage est un remplissage max-min pondéré (water-filling) : un enfant dont
+ * la demande est sous sa part équitable reçoit sa demande, le reliquat est
+ * redistribué aux autres au prorata de leur poids.
+ * </p>
+ */
+public enum AllocationPolicy {
+
+    /**
+     * Partage équitable pondéré entre tous les enfants.
+     */
+    FAIR_SHARE {
+        @Override
+        double[] share(List<PowerNode> children, double availableW) {
+            double[] shares = new double[children.size()];
+            List<Integer> all = new ArrayList<>(children.size());
+            for (int i = 0; i < children.size(); i++) {
+                all.add(i);
+            }
+            waterFill(children, all, availableW, shares);
+            return shares;
+        }
+    },
+
+    /**
+     * Priorités décroissantes servies d'abord, partage équitable au sein d'une même priorité.
+     */
+    PRIORITY {
+        @Override
+        double[] share(List<PowerNode> children, double availableW) {
+            double[] shares = new double[children.size()];
+            TreeMap<Integer, List<Integer>> byPriority = new TreeMap<>(Comparator.reverseOrder());
+            for (int i = 0; i < children.size(); i++) {
+                byPriority.computeIfAbsent(children.get(i).priority, k -> new ArrayList<>()).add(i);
+            }
+            double remaining = availableW;
+            for (List<Integer> members : byPriority.values()) {
+                remaining -= waterFill(children, members, remaining, shares);
+            }
+            return shares;
+        }
+    };
+
+    /**
+     * @return la part de chaque enfant, dans l'ordre de {@code children}
+     */
+    abstract double[] share(List<PowerNode> children, double availableW);
+
+    /**
+     * Remplissage max-min pondéré de {@code members} avec {@code availableW}.
+     *
+     * @return puissance distribuée
+     */
+    static double waterFill(List<PowerNode> children, List<Integer> members, double availableW, double[] shares) {
+        double demand = 0;
+        double weight = 0;
+        for (int i : members) {
+            demand += children.get(i).cappedDemandW();
+            weight += children.get(i).weight;
+        }
+        if (demand <= availableW) {
+            for (int i : members) {
+                shares[i] = children.get(i).cappedDemandW();
+            }
+            return demand;
+        }
+        if (availableW <= 0) {
+            for (int i : members) {
+                shares[i] = 0;
+            }
+            return 0;
+        }
+
+        // Servir d'abord les plus petites demandes (rapportées au poids)
+        List<Integer> order = new ArrayList<>(members);
+        order.sort(Comparator.comparingDouble(i -> children.get(i).cappedDemandW() / children.get(i).weight));
+
+        double remaining = availableW;
+        int k = 0;
+        for (; k < order.size(); k++) {
+            PowerNode child = children.get(order.get(k));
+            if (child.cappedDemandW() > remaining * child.weight / weight) {
+                break;
+            }
+            shares[order.get(k)] = child.cappedDemandW();
+            remaining -= child.cappedDemandW();
+            weight -= child.weight;
+        }
+
+        double level = remaining / weight;
+        for (; k < order.size(); k++) {
+            shares[order.get(k)] = level * children.get(order.get(k)).weight;
+        }
+        return availableW;
+    }
+}
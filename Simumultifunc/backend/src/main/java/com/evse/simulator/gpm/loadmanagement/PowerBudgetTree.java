@@ -0,0 +1,218 @@
+package com.evse.simulator.gpm.loadmanagement;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Arbre hiérarchique de budget de puissance : site → départ → borne → connecteur.
+ * <p>
+ * Chaque allocation répartit la capacité du site de haut en bas selon la
+ * {@link AllocationPolicy}. L'allocation est incrémentale : une modification
+ * (demande, capacité, priorité, poids, structure) marque le chemin jusqu'à la
+ * racine, et seuls les sous-arbres marqués ou dont le budget a changé sont
+ * recalculés. Les autres conservent leur allocation précédente.
+ * </p>
+ * <p>
+ * Non thread-safe : l'appelant synchronise les accès.
+ * </p>
+ */
+public class PowerBudgetTree {
+
+    private final PowerNode root;
+    private final Map<String, PowerNode> nodes = new HashMap<>();
+    private AllocationPolicy policy;
+
+    public PowerBudgetTree(String siteId, double siteMaxPowerW, AllocationPolicy policy) {
+        this.root = new PowerNode(siteId, PowerNode.Type.SITE, siteMaxPowerW);
+        this.policy = policy;
+        nodes.put(siteId, root);
+    }
+
+    // =========================================================================
+    // Structure
+    // =========================================================================
+
+    /**
+     * Ajoute un nœud sous {@code parentId}.
+     *
+     * @param maxPowerW capacité en W, 0 ou négatif = illimitée
+     */
+    public PowerNode addNode(String id, PowerNode.Type type, String parentId, double maxPowerW) {
+        if (nodes.containsKey(id)) {
+            throw new IllegalArgumentException("Node already exists: " + id);
+        }
+        PowerNode parent = nodes.get(parentId);
+        if (parent == null) {
+            throw new IllegalArgumentException("Parent node not found: " + parentId);
+        }
+        PowerNode node = new PowerNode(id, type, maxPowerW);
+        node.parent = parent;
+        parent.children.add(node);
+        nodes.put(id, node);
+        markDirty(parent);
+        return node;
+    }
+
+    /**
+     * Retire un nœud et son sous-arbre.
+     */
+    public boolean removeNode(String id) {
+        PowerNode node = nodes.get(id);
+        if (node == null || node == root) {
+            return false;
+        }
+        node.parent.children.remove(node);
+        if (node.parent.children.isEmpty()) {
+            node.parent.demandW = 0; // Devenu feuille sans demande
+        }
+        markDirty(node.parent);
+        unindex(node);
+        return true;
+    }
+
+    private void unindex(PowerNode node) {
+        nodes.remove(node.getId());
+        for (PowerNode child : node.children) {
+            unindex(child);
+        }
+    }
+
+    // =========================================================================
+    // Paramètres
+    // =========================================================================
+
+    /**
+     * Met à jour la demande d'une feuille. Sans effet si elle est inchangée.
+     */
+    public void setDemand(String id, double demandW) {
+        PowerNode node = require(id);
+        if (!node.children.isEmpty()) {
+            throw new IllegalArgumentException("Demand is aggregated on non-leaf node: " + id);
+        }
+        double demand = Math.max(0, demandW);
+        if (demand != node.demandW) {
+            node.demandW = demand;
+            markDirty(node);
+        }
+    }
+
+    public void setMaxPower(String id, double maxPowerW) {
+        PowerNode node = require(id);
+        node.maxPowerW = maxPowerW > 0 ? maxPowerW : Double.POSITIVE_INFINITY;
+        markDirty(node);
+    }
+
+    public void setPriority(String id, int priority) {
+        PowerNode node = require(id);
+        if (node.priority != priority) {
+            node.priority = priority;
+            markDirty(node);
+        }
+    }
+
+    public void setWeight(String id, double weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be positive: " + weight);
+        }
+        PowerNode node = require(id);
+        node.weight = weight;
+        markDirty(node);
+    }
+
+    /**
+     * Change la politique : toutes les répartitions sont recalculées à la prochaine allocation.
+     */
+    public void setPolicy(AllocationPolicy policy) {
+        this.policy = policy;
+        nodes.values().forEach(node -> node.dirty = true);
+    }
+
+    /**
+     * Marque le nœud et ses ancêtres. Les ancêtres d'un nœud marqué le sont déjà.
+     */
+    private void markDirty(PowerNode node) {
+        for (PowerNode n = node; n != null && !n.dirty; n = n.parent) {
+            n.dirty = true;
+        }
+    }
+
+    private PowerNode require(String id) {
+        PowerNode node = nodes.get(id);
+        if (node == null) {
+            throw new IllegalArgumentException("Node not found: " + id);
+        }
+        return node;
+    }
+
+    // =========================================================================
+    // Allocation
+    // =========================================================================
+
+    /**
+     * Répartit la capacité du site sur les sous-arbres modifiés.
+     *
+     * @return nombre de nœuds recalculés
+     */
+    public int allocate() {
+        refreshDemand(root);
+        return distribute(root, root.maxPowerW);
+    }
+
+    /**
+     * Recalcule les demandes agrégées des seuls chemins marqués.
+     */
+    private void refreshDemand(PowerNode node) {
+        if (!node.dirty || node.children.isEmpty()) {
+            return;
+        }
+        double sum = 0;
+        for (PowerNode child : node.children) {
+            refreshDemand(child);
+            sum += child.cappedDemandW();
+        }
+        node.demandW = sum;
+    }
+
+    private int distribute(PowerNode node, double budgetW) {
+        if (!node.dirty && budgetW == node.budgetW) {
+            return 0; // Sous-arbre inchangé
+        }
+        node.dirty = false;
+        node.budgetW = budgetW;
+        node.allocatedW = Math.min(budgetW, node.cappedDemandW());
+        if (node.children.isEmpty()) {
+            return 1;
+        }
+
+        int visited = 1;
+        double[] shares = policy.share(node.children, Math.min(budgetW, node.maxPowerW));
+        for (int i = 0; i < shares.length; i++) {
+            visited += distribute(node.children.get(i), shares[i]);
+        }
+        return visited;
+    }
+
+    // =========================================================================
+    // Lecture
+    // =========================================================================
+
+    public PowerNode getRoot() {
+        return root;
+    }
+
+    public PowerNode getNode(String id) {
+        return nodes.get(id);
+    }
+
+    public boolean contains(String id) {
+        return nodes.containsKey(id);
+    }
+
+    public AllocationPolicy getPolicy() {
+        return policy;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
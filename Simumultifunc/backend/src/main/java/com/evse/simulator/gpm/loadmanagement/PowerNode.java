@@ -0,0 +1,96 @@
+package com.evse.simulator.gpm.loadmanagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Nœud de l'arbre de budget de puissance (site, départ, borne, connecteur).
+ * <p>
+ * Les feuilles portent la demande des sessions ; un nœud interne porte la somme
+ * des demandes plafonnées de ses enfants. {@code dirty} signale un sous-arbre à
+ * revisiter lors de la prochaine allocation.
+ * </p>
+ */
+public final class PowerNode {
+
+    public enum Type {
+        SITE,
+        FEEDER,
+        CHARGE_POINT,
+        CONNECTOR
+    }
+
+    private final String id;
+    private final Type type;
+    final List<PowerNode> children = new ArrayList<>();
+    PowerNode parent;
+
+    double maxPowerW;
+    int priority;
+    double weight = 1.0;
+
+    double demandW;
+    double budgetW = Double.NaN;
+    double allocatedW;
+    boolean dirty = true;
+
+    PowerNode(String id, Type type, double maxPowerW) {
+        this.id = id;
+        this.type = type;
+        this.maxPowerW = maxPowerW > 0 ? maxPowerW : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Demande retenue par le parent : demande du sous-arbre bornée par la capacité du nœud.
+     */
+    double cappedDemandW() {
+        return Math.min(demandW, maxPowerW);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getParentId() {
+        return parent != null ? parent.id : null;
+    }
+
+    public List<PowerNode> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return capacité en W, {@link Double#POSITIVE_INFINITY} si illimitée
+     */
+    public double getMaxPowerW() {
+        return maxPowerW;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public double getDemandW() {
+        return demandW;
+    }
+
+    public double getAllocatedW() {
+        return allocatedW;
+    }
+
+    /**
+     * @return true tant que le nœud n'a reçu aucune allocation
+     */
+    public boolean isPending() {
+        return Double.isNaN(budgetW);
+    }
+}
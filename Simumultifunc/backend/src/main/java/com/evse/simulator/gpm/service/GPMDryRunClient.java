@@ -2,20 +2,18 @@ package com.evse.simulator.gpm.service;
 
 import com.evse.simulator.gpm.config.GPMProperties;
 import com.evse.simulator.gpm.dto.*;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.evse.simulator.http.OAuthTokenManager;
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
+import com.evse.simulator.http.TokenSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
 import java.util.Collections;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Client pour l'API TTE Dry-Run GPM.
@@ -23,17 +21,20 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GPMDryRunClient {
 
+    private static final String TOKEN_KEY = "gpm";
+    private static final int TOKEN_REFRESH_SKEW_SECONDS = 300;
+
     private final GPMProperties properties;
     private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final OAuthTokenManager tokenManager;
 
-    // Token cache
-    private String cachedToken;
-    private Instant tokenExpiry;
-    private final ReentrantLock tokenLock = new ReentrantLock();
+    public GPMDryRunClient(GPMProperties properties, OutboundHttpClient httpClient, OAuthTokenManager tokenManager) {
+        this.properties = properties;
+        this.restTemplate = httpClient.restTemplate(OutboundModule.GPM);
+        this.tokenManager = tokenManager;
+    }
 
     // ══════════════════════════════════════════════════════════════
     // AUTHENTIFICATION OAUTH2 COGNITO
@@ -41,70 +42,22 @@ public class GPMDryRunClient {
 
     /**
      * Obtient un token OAuth2 Cognito, utilisant le cache si valide.
+     * Renouvelé en arrière-plan 5 min avant expiration.
      */
     public String getAccessToken() {
-        tokenLock.lock();
-        try {
-            // Vérifier si le token en cache est encore valide (avec 5min de marge)
-            if (cachedToken != null && tokenExpiry != null &&
-                Instant.now().plusSeconds(300).isBefore(tokenExpiry)) {
-                return cachedToken;
-            }
-
-            // Sinon, obtenir un nouveau token
-            return refreshToken();
-        } finally {
-            tokenLock.unlock();
-        }
-    }
-
-    private String refreshToken() {
-        log.info("Requesting new OAuth2 token from Cognito: {}", properties.getTokenUrl());
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("grant_type", "client_credentials");
-        body.add("client_id", properties.getClientId());
-        body.add("client_secret", properties.getClientSecret());
-
-        HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
-
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                properties.getTokenUrl(), request, String.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                JsonNode json = objectMapper.readTree(response.getBody());
-                cachedToken = json.get("access_token").asText();
-
-                // Calculer l'expiration (expires_in en secondes)
-                int expiresIn = json.has("expires_in") ? json.get("expires_in").asInt() : 3600;
-                tokenExpiry = Instant.now().plusSeconds(expiresIn);
-
-                log.info("OAuth2 Cognito token obtained, expires in {} seconds", expiresIn);
-                return cachedToken;
-            } else {
-                throw new RuntimeException("Failed to obtain OAuth2 token: " + response.getStatusCode());
-            }
-        } catch (Exception e) {
-            log.error("Error obtaining OAuth2 Cognito token: {}", e.getMessage());
-            throw new RuntimeException("OAuth2 Cognito authentication failed", e);
-        }
+        return tokenManager.getToken(tokenSource());
     }
 
     /**
      * Invalide le token en cache.
      */
     public void invalidateToken() {
-        tokenLock.lock();
-        try {
-            cachedToken = null;
-            tokenExpiry = null;
-        } finally {
-            tokenLock.unlock();
-        }
+        tokenManager.invalidate(TOKEN_KEY);
+    }
+
+    private TokenSource tokenSource() {
+        return new TokenSource(TOKEN_KEY, OutboundModule.GPM, properties.getTokenUrl(),
+                properties.getClientId(), properties.getClientSecret(), 0, TOKEN_REFRESH_SKEW_SECONDS);
     }
 
     // ══════════════════════════════════════════════════════════════
@@ -209,11 +162,13 @@ public class GPMDryRunClient {
 
         while (attempts < properties.getRetryCount()) {
             attempts++;
+            Instant sentAt = Instant.now();
             try {
                 return action.get();
             } catch (HttpClientErrorException.Unauthorized e) {
                 log.warn("{}: Token expired (401), refreshing...", operationName);
-                invalidateToken();
+                // Renouvellement partagé avec les autres appels rejetés
+                tokenManager.onUnauthorized(tokenSource(), sentAt);
                 // Continue to retry with new token
             } catch (HttpClientErrorException.Forbidden e) {
                 log.error("{}: Access denied (403) - {}", operationName, e.getMessage());
@@ -0,0 +1,286 @@
+package com.evse.simulator.gpm.service;
+
+import com.evse.simulator.gpm.config.SiteLoadProperties;
+import com.evse.simulator.gpm.dto.SiteLoadResponse;
+import com.evse.simulator.gpm.loadmanagement.AllocationPolicy;
+import com.evse.simulator.gpm.loadmanagement.PowerBudgetTree;
+import com.evse.simulator.gpm.loadmanagement.PowerNode;
+import com.evse.simulator.model.Session;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Load management local : alloue la capacité d'un site aux sessions simulées,
+ * sans le service GPM distant.
+ * <p>
+ * La boucle de charge remonte la demande de chaque session ({@link #reportDemand})
+ * et lit l'allocation du dernier tick ({@link #getAllocatedKw}), sans verrou :
+ * les demandes s'accumulent dans une table concurrente et chaque tick publie un
+ * instantané immuable des allocations. Seuls le tick, le pilotage et la lecture
+ * d'état sont sérialisés. Le tick d'allocation ne recalcule que les sous-arbres
+ * dont la demande a changé. Les bornes sont rattachées aux départs par cpId ;
+ * un connecteur qui ne remonte plus de demande est retiré après
+ * {@code staleAfterMs}.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SiteLoadManager {
+
+    private static final String FEEDER_PREFIX = "feeder-";
+    private static final String CHARGE_POINT_PREFIX = "cp:";
+
+    private final SiteLoadProperties properties;
+
+    /**
+     * Dernière demande d'un connecteur, en attente du prochain tick.
+     */
+    private record Demand(String cpId, double demandW) {}
+
+    // sessionId -> demande non encore appliquée à l'arbre
+    private final Map<String, Demand> pendingDemands = new ConcurrentHashMap<>();
+
+    // sessionId -> dernière remontée de demande (ms)
+    private final Map<String, Long> lastReport = new ConcurrentHashMap<>();
+
+    // sessionId -> allocation du dernier tick (kW), remplacé en bloc à chaque tick
+    private volatile Map<String, Double> allocatedKw = Map.of();
+
+    // Sous le verrou de l'instance
+    private PowerBudgetTree tree;
+    private long allocations;
+    private double lastAllocationMs;
+    private int lastRecomputedNodes;
+
+    // ══════════════════════════════════════════════════════════════
+    // BOUCLE DE CHARGE
+    // ══════════════════════════════════════════════════════════════
+
+    /**
+     * Remonte la demande d'une session (puissance qu'elle tirerait sans budget site).
+     * Prise en compte au prochain tick d'allocation.
+     */
+    public void reportDemand(Session session, double demandKw) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String cpId = session.getCpId() != null ? session.getCpId() : session.getId();
+        pendingDemands.put(session.getId(), new Demand(cpId, demandKw * 1000));
+        lastReport.put(session.getId(), System.currentTimeMillis());
+    }
+
+    /**
+     * @return l'allocation du dernier tick, vide si le load management est inactif
+     *         ou si la session n'a pas encore été allouée
+     */
+    public OptionalDouble getAllocatedKw(String sessionId) {
+        if (!properties.isEnabled()) {
+            return OptionalDouble.empty();
+        }
+        Double allocated = allocatedKw.get(sessionId);
+        return allocated != null ? OptionalDouble.of(allocated) : OptionalDouble.empty();
+    }
+
+    // ══════════════════════════════════════════════════════════════
+    // ALLOCATION
+    // ══════════════════════════════════════════════════════════════
+
+    @Scheduled(fixedDelayString = "${gpm.site.allocation-interval-ms:1000}")
+    public synchronized void allocate() {
+        if (!properties.isEnabled() || (tree == null && pendingDemands.isEmpty())) {
+            return;
+        }
+        PowerBudgetTree budget = tree();
+        applyDemands(budget);
+        removeStaleConnectors(budget, System.currentTimeMillis());
+
+        long start = System.nanoTime();
+        lastRecomputedNodes = budget.allocate();
+        lastAllocationMs = (System.nanoTime() - start) / 1e6;
+        allocations++;
+        publishAllocations(budget);
+
+        log.debug("[SITE] Allocation: {} nodes recomputed in {} ms, site demand={} kW, allocated={} kW",
+                lastRecomputedNodes, String.format("%.3f", lastAllocationMs),
+                String.format("%.1f", budget.getRoot().getDemandW() / 1000),
+                String.format("%.1f", budget.getRoot().getAllocatedW() / 1000));
+    }
+
+    private void applyDemands(PowerBudgetTree budget) {
+        for (Map.Entry<String, Demand> entry : pendingDemands.entrySet()) {
+            String connectorId = entry.getKey();
+            Demand demand = entry.getValue();
+            if (!budget.contains(connectorId)) {
+                budget.addNode(connectorId, PowerNode.Type.CONNECTOR, chargePointNode(budget, demand.cpId()), 0);
+            }
+            budget.setDemand(connectorId, demand.demandW());
+            // Une remontée arrivée entre-temps reste pour le tick suivant
+            pendingDemands.remove(connectorId, demand);
+        }
+    }
+
+    private void removeStaleConnectors(PowerBudgetTree budget, long now) {
+        for (Map.Entry<String, Long> entry : lastReport.entrySet()) {
+            if (now - entry.getValue() < properties.getStaleAfterMs()
+                    || !lastReport.remove(entry.getKey(), entry.getValue())) {
+                continue;
+            }
+            PowerNode connector = budget.getNode(entry.getKey());
+            if (connector == null) {
+                continue;
+            }
+            String chargePointId = connector.getParentId();
+            budget.removeNode(entry.getKey());
+            PowerNode chargePoint = budget.getNode(chargePointId);
+            if (chargePoint != null && chargePoint.getChildren().isEmpty()) {
+                budget.removeNode(chargePointId);
+            }
+        }
+    }
+
+    private void publishAllocations(PowerBudgetTree budget) {
+        Map<String, Double> snapshot = new HashMap<>(lastReport.size() * 4 / 3 + 1);
+        for (String connectorId : lastReport.keySet()) {
+            PowerNode node = budget.getNode(connectorId);
+            if (node != null && !node.isPending()) {
+                snapshot.put(connectorId, node.getAllocatedW() / 1000.0);
+            }
+        }
+        allocatedKw = Collections.unmodifiableMap(snapshot);
+    }
+
+    private PowerBudgetTree tree() {
+        if (tree == null) {
+            tree = new PowerBudgetTree(properties.getSiteId(), properties.getSiteMaxPowerKw() * 1000,
+                    properties.getPolicy());
+            for (int i = 0; i < properties.getFeeders(); i++) {
+                tree.addNode(FEEDER_PREFIX + i, PowerNode.Type.FEEDER, properties.getSiteId(),
+                        properties.getFeederMaxPowerKw() * 1000);
+            }
+            log.info("[SITE] Power budget tree created: site={} ({} kW), feeders={}, policy={}",
+                    properties.getSiteId(), properties.getSiteMaxPowerKw(), properties.getFeeders(),
+                    properties.getPolicy());
+        }
+        return tree;
+    }
+
+    private String chargePointNode(PowerBudgetTree budget, String cpId) {
+        String nodeId = CHARGE_POINT_PREFIX + cpId;
+        if (!budget.contains(nodeId)) {
+            String feeder = properties.getFeeders() > 0
+                    ? FEEDER_PREFIX + Math.floorMod(cpId.hashCode(), properties.getFeeders())
+                    : properties.getSiteId();
+            budget.addNode(nodeId, PowerNode.Type.CHARGE_POINT, feeder, properties.getChargePointMaxPowerKw() * 1000);
+        }
+        return nodeId;
+    }
+
+    // ══════════════════════════════════════════════════════════════
+    // PILOTAGE
+    // ══════════════════════════════════════════════════════════════
+
+    public synchronized void setPolicy(AllocationPolicy policy) {
+        properties.setPolicy(policy);
+        if (tree != null) {
+            tree.setPolicy(policy);
+        }
+    }
+
+    /**
+     * Change la priorité d'un nœud (politique PRIORITY).
+     *
+     * @return false si le nœud est inconnu
+     */
+    public synchronized boolean setPriority(String nodeId, int priority) {
+        if (tree == null || !tree.contains(nodeId)) {
+            return false;
+        }
+        tree.setPriority(nodeId, priority);
+        return true;
+    }
+
+    /**
+     * Change la capacité d'un nœud (kW, 0 = illimitée).
+     *
+     * @return false si le nœud est inconnu
+     */
+    public synchronized boolean setMaxPower(String nodeId, double maxPowerKw) {
+        if (tree == null || !tree.contains(nodeId)) {
+            return false;
+        }
+        tree.setMaxPower(nodeId, maxPowerKw * 1000);
+        return true;
+    }
+
+    public synchronized void reset() {
+        tree = null;
+        pendingDemands.clear();
+        lastReport.clear();
+        allocatedKw = Map.of();
+        allocations = 0;
+        log.info("[SITE] Power budget tree reset");
+    }
+
+    // ══════════════════════════════════════════════════════════════
+    // LECTURE
+    // ══════════════════════════════════════════════════════════════
+
+    /**
+     * État du load management, avec le nœud demandé et ses enfants directs
+     * (la racine par défaut).
+     *
+     * @return null si le nœud est inconnu
+     */
+    public synchronized SiteLoadResponse getStatus(String nodeId) {
+        // Désactivé : l'arbre n'est pas créé pour une simple lecture
+        PowerBudgetTree budget = properties.isEnabled() ? tree() : tree;
+        if (budget == null) {
+            return nodeId != null ? null : SiteLoadResponse.builder()
+                    .enabled(false)
+                    .policy(properties.getPolicy().name())
+                    .build();
+        }
+        PowerNode node = nodeId != null ? budget.getNode(nodeId) : budget.getRoot();
+        if (node == null) {
+            return null;
+        }
+        return SiteLoadResponse.builder()
+                .enabled(properties.isEnabled())
+                .policy(budget.getPolicy().name())
+                .nodes(budget.size())
+                .connectors(lastReport.size())
+                .allocations(allocations)
+                .lastAllocationMs(lastAllocationMs)
+                .lastRecomputedNodes(lastRecomputedNodes)
+                .root(toResponse(node, true))
+                .build();
+    }
+
+    private SiteLoadResponse.Node toResponse(PowerNode node, boolean withChildren) {
+        List<SiteLoadResponse.Node> children = withChildren
+                ? node.getChildren().stream().map(child -> toResponse(child, false)).toList()
+                : null;
+        return SiteLoadResponse.Node.builder()
+                .nodeId(node.getId())
+                .type(node.getType().name())
+                .parentId(node.getParentId())
+                .maxPowerKw(Double.isInfinite(node.getMaxPowerW()) ? null : node.getMaxPowerW() / 1000)
+                .demandKw(node.getDemandW() / 1000)
+                .allocatedKw(node.getAllocatedW() / 1000)
+                .priority(node.getPriority())
+                .weight(node.getWeight())
+                .childCount(node.getChildren().size())
+                .children(children)
+                .build();
+    }
+}
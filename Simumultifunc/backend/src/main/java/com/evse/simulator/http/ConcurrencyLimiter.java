@@ -0,0 +1,80 @@
+package com.evse.simulator.http;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite le nombre de requêtes simultanées vers un hôte, sans bloquer de thread.
+ * <p>
+ * Un créneau libre est accordé immédiatement ; sinon l'appelant reçoit un future
+ * complété à la libération d'un créneau, dans l'ordre d'arrivée. Un future
+ * expiré ou annulé avant son tour quitte la file et ne consomme pas de créneau.
+ * </p>
+ */
+final class ConcurrencyLimiter {
+
+    private final int maxConcurrent;
+    private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private int inFlight;
+
+    ConcurrencyLimiter(int maxConcurrent) {
+        this.maxConcurrent = maxConcurrent;
+    }
+
+    /**
+     * @param timeoutMs attente maximale d'un créneau
+     * @return future complété quand le créneau est acquis, en erreur
+     *         ({@link java.util.concurrent.TimeoutException}) après {@code timeoutMs}
+     */
+    CompletableFuture<Void> acquire(long timeoutMs) {
+        CompletableFuture<Void> waiter;
+        synchronized (this) {
+            if (inFlight < maxConcurrent) {
+                inFlight++;
+                return CompletableFuture.completedFuture(null);
+            }
+            waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+        }
+        waiter.whenComplete((ignored, error) -> {
+            if (error != null) {
+                dequeue(waiter);
+            }
+        });
+        return waiter.orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void dequeue(CompletableFuture<Void> waiter) {
+        waiters.remove(waiter);
+    }
+
+    /**
+     * Rend un créneau : il passe au premier appelant encore en attente.
+     */
+    void release() {
+        while (true) {
+            CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    inFlight--;
+                    return;
+                }
+            }
+            // Complété hors verrou : les continuations démarrent la requête suivante
+            if (next.complete(null)) {
+                return;
+            }
+        }
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int queued() {
+        return waiters.size();
+    }
+}
@@ -0,0 +1,368 @@
+package com.evse.simulator.http;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache des tokens OAuth2 {@code client_credentials}, un token par {@link TokenSource#key()}.
+ * <p>
+ * La lecture du token courant ne prend aucun verrou. Le token est renouvelé en
+ * arrière-plan {@code refreshSkewSeconds} avant son expiration ; un seul
+ * renouvellement par clé est en cours à un instant donné, les appelants qui
+ * en ont besoin (token absent ou expiré, 401) attendent ce même renouvellement.
+ * </p>
+ * <p>
+ * Une clé qui n'est plus lue depuis son dernier renouvellement n'est plus
+ * renouvelée d'avance : la lecture suivante renouvelle alors le token à la demande.
+ * </p>
+ */
+@Slf4j
+@Component
+public class OAuthTokenManager {
+
+    private static final long MAX_LATENCY_MS = 600_000;
+    private static final long RETRY_DELAY_SECONDS = 30;
+    private static final int DEFAULT_LIFETIME_SECONDS = 3600;
+
+    private final OutboundHttpClient httpClient;
+    private final OutboundHttpProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Token en cache.
+     *
+     * @param refreshAt instant du renouvellement anticipé
+     */
+    public record CachedToken(String value, Instant obtainedAt, Instant expiresAt, Instant refreshAt) {
+
+        public boolean isValid() {
+            return Instant.now().isBefore(expiresAt);
+        }
+
+        /**
+         * Le token lui-même n'apparaît jamais dans les logs.
+         */
+        @Override
+        public String toString() {
+            return "CachedToken[obtainedAt=" + obtainedAt + ", expiresAt=" + expiresAt + "]";
+        }
+    }
+
+    /**
+     * Statistiques d'une clé, sans le token.
+     *
+     * @param unauthorizedRefreshes renouvellements demandés après un 401
+     */
+    public record TokenStats(String key, boolean valid, Instant obtainedAt, Instant expiresAt, Instant refreshAt,
+                             long refreshes, long failures, long unauthorizedRefreshes, String lastError,
+                             long refreshP50Ms, long refreshP99Ms, long refreshMaxMs) {}
+
+    public OAuthTokenManager(OutboundHttpClient httpClient, OutboundHttpProperties properties) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "oauth-token-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // =========================================================================
+    // Lecture
+    // =========================================================================
+
+    /**
+     * Retourne un token valide.
+     * <p>
+     * Sans attente tant que le token courant n'est pas expiré, même pendant son
+     * renouvellement anticipé ; sinon attend le renouvellement en cours.
+     * </p>
+     *
+     * @throws RuntimeException si le renouvellement échoue
+     */
+    public String getToken(TokenSource source) {
+        Entry entry = entry(source);
+        CachedToken token = entry.token;
+        if (token == null || !token.isValid()) {
+            token = await(entry, refreshAsync(entry));
+        } else if (!Instant.now().isBefore(token.refreshAt())) {
+            refreshAsync(entry);
+        }
+        entry.lastUsed = System.nanoTime();
+        return token.value();
+    }
+
+    /**
+     * Token à utiliser après une réponse 401.
+     * <p>
+     * Si le token a déjà été renouvelé depuis l'envoi de la requête rejetée, il est
+     * retourné tel quel ; sinon un renouvellement est lancé (ou rejoint) et attendu.
+     * </p>
+     *
+     * @param requestSentAt instant d'envoi de la requête rejetée
+     */
+    public String onUnauthorized(TokenSource source, Instant requestSentAt) {
+        Entry entry = entry(source);
+        entry.unauthorized.increment();
+        CachedToken token = entry.token;
+        if (token != null && token.obtainedAt().isAfter(requestSentAt) && token.isValid()) {
+            return token.value();
+        }
+        return await(entry, refreshAsync(entry)).value();
+    }
+
+    /**
+     * Force le renouvellement (rejoint celui en cours s'il y en a un).
+     */
+    public CachedToken refresh(TokenSource source) {
+        Entry entry = entry(source);
+        return await(entry, refreshAsync(entry));
+    }
+
+    /**
+     * Oublie le token d'une clé et arrête son renouvellement anticipé.
+     */
+    public void invalidate(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            ScheduledFuture<?> scheduled = entry.scheduled;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            log.info("OAuth token '{}' invalidated - will refresh on next request", key);
+        }
+    }
+
+    public Optional<CachedToken> getCachedToken(String key) {
+        return Optional.ofNullable(entries.get(key)).map(entry -> entry.token);
+    }
+
+    // =========================================================================
+    // Métriques
+    // =========================================================================
+
+    public List<TokenStats> getStats() {
+        return entries.values().stream()
+                .map(Entry::stats)
+                .sorted(Comparator.comparing(TokenStats::key))
+                .toList();
+    }
+
+    public Optional<TokenStats> getStats(String key) {
+        return Optional.ofNullable(entries.get(key)).map(Entry::stats);
+    }
+
+    // =========================================================================
+    // Renouvellement
+    // =========================================================================
+
+    private Entry entry(TokenSource source) {
+        Entry entry = entries.computeIfAbsent(source.key(), Entry::new);
+        // Identifiants éventuellement modifiés depuis (changement de credentials)
+        entry.source = source;
+        return entry;
+    }
+
+    /**
+     * Lance le renouvellement de la clé, ou retourne celui déjà en cours.
+     */
+    private CompletableFuture<CachedToken> refreshAsync(Entry entry) {
+        while (true) {
+            CompletableFuture<CachedToken> current = entry.inFlight.get();
+            if (current != null) {
+                return current;
+            }
+            CompletableFuture<CachedToken> future = new CompletableFuture<>();
+            if (entry.inFlight.compareAndSet(null, future)) {
+                try {
+                    scheduler.execute(() -> fetch(entry, future));
+                } catch (RuntimeException e) {
+                    entry.inFlight.set(null);
+                    future.completeExceptionally(e);
+                }
+                return future;
+            }
+        }
+    }
+
+    private void fetch(Entry entry, CompletableFuture<CachedToken> future) {
+        TokenSource source = entry.source;
+        long start = System.nanoTime();
+        try {
+            CachedToken token = requestToken(source);
+            entry.recordLatency(elapsedMs(start));
+            entry.token = token;
+            entry.refreshedAt = System.nanoTime();
+            entry.refreshes.increment();
+            entry.lastError = null;
+            scheduleRefresh(entry, token.refreshAt());
+            log.info("OAuth token '{}' refreshed in {} ms, expires at {} (refresh #{})",
+                    entry.key, elapsedMs(start), token.expiresAt(), entry.refreshes.sum());
+            entry.inFlight.set(null);
+            future.complete(token);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            entry.recordLatency(elapsedMs(start));
+            entry.failures.increment();
+            entry.lastError = e.getMessage();
+            CachedToken current = entry.token;
+            if (current != null && current.isValid()) {
+                // Token encore utilisable : nouvel essai avant son expiration
+                long remaining = Duration.between(Instant.now(), current.expiresAt()).toSeconds();
+                scheduleRefresh(entry, Instant.now().plusSeconds(Math.max(1, Math.min(RETRY_DELAY_SECONDS, remaining / 2))));
+            }
+            log.error("Failed to refresh OAuth token '{}': {}", entry.key, e.getMessage());
+            entry.inFlight.set(null);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private CachedToken requestToken(TokenSource source) throws IOException, InterruptedException {
+        if (!source.isConfigured()) {
+            throw new IllegalStateException("Token source '" + source.key() + "' is not configured");
+        }
+        String form = "grant_type=client_credentials"
+                + "&client_id=" + URLEncoder.encode(source.clientId(), StandardCharsets.UTF_8)
+                + "&client_secret=" + URLEncoder.encode(source.clientSecret(), StandardCharsets.UTF_8);
+
+        OutboundResponse response = httpClient.send(OutboundRequest.post(source.module(), source.tokenUrl(), form)
+                .partner("oauth:" + source.key())
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "application/json")
+                .build());
+        if (!response.is2xxSuccessful()) {
+            throw new IOException("Token endpoint returned HTTP " + response.statusCode());
+        }
+
+        JsonNode json = objectMapper.readTree(response.body());
+        String accessToken = json.path("access_token").asText(null);
+        if (accessToken == null || accessToken.isBlank()) {
+            throw new IOException("No access_token in token response");
+        }
+        int expiresIn = json.path("expires_in").asInt(DEFAULT_LIFETIME_SECONDS);
+        if (expiresIn <= 0) {
+            expiresIn = DEFAULT_LIFETIME_SECONDS;
+        }
+        int lifetime = source.maxLifetimeSeconds() > 0 ? Math.min(expiresIn, source.maxLifetimeSeconds()) : expiresIn;
+        int skew = source.refreshSkewSeconds() > 0 ? source.refreshSkewSeconds() : properties.getTokenRefreshSkewSeconds();
+        if (skew >= lifetime) {
+            // Token court : renouvelé à mi-vie
+            skew = lifetime / 2;
+        }
+
+        Instant obtainedAt = Instant.now();
+        Instant expiresAt = obtainedAt.plusSeconds(lifetime);
+        return new CachedToken(accessToken, obtainedAt, expiresAt, expiresAt.minusSeconds(skew));
+    }
+
+    private void scheduleRefresh(Entry entry, Instant at) {
+        if (entries.get(entry.key) != entry) {
+            return; // invalidée entre-temps
+        }
+        ScheduledFuture<?> previous = entry.scheduled;
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        long delayMs = Math.max(0, Duration.between(Instant.now(), at).toMillis());
+        try {
+            entry.scheduled = scheduler.schedule(() -> proactiveRefresh(entry), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            log.debug("Token refresh not scheduled for '{}': {}", entry.key, e.getMessage());
+        }
+    }
+
+    private void proactiveRefresh(Entry entry) {
+        CachedToken token = entry.token;
+        if (entries.get(entry.key) != entry || token == null) {
+            return;
+        }
+        if (entry.lastUsed - entry.refreshedAt < 0) {
+            log.debug("OAuth token '{}' unused since last refresh, not refreshed ahead of expiry", entry.key);
+            return;
+        }
+        refreshAsync(entry);
+    }
+
+    private static CachedToken await(Entry entry, CompletableFuture<CachedToken> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to obtain OAuth token '" + entry.key + "'", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for OAuth token '" + entry.key + "'", e);
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static final class Entry {
+        final String key;
+        volatile TokenSource source;
+        volatile CachedToken token;
+        volatile ScheduledFuture<?> scheduled;
+        /** Dernière lecture et dernier renouvellement réussi ({@link System#nanoTime()}). */
+        volatile long lastUsed = System.nanoTime();
+        volatile long refreshedAt;
+        volatile String lastError;
+        final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+        final LongAdder refreshes = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder unauthorized = new LongAdder();
+        final Histogram latency = new Histogram(MAX_LATENCY_MS, 2);
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        synchronized void recordLatency(long latencyMs) {
+            latency.recordValue(Math.min(Math.max(latencyMs, 0), MAX_LATENCY_MS));
+        }
+
+        synchronized TokenStats stats() {
+            CachedToken current = token;
+            return new TokenStats(key, current != null && current.isValid(),
+                    current != null ? current.obtainedAt() : null,
+                    current != null ? current.expiresAt() : null,
+                    current != null ? current.refreshAt() : null,
+                    refreshes.sum(), failures.sum(), unauthorized.sum(), lastError,
+                    latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMaxValue());
+        }
+    }
+}
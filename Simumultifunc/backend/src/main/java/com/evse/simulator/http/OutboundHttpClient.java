@@ -0,0 +1,386 @@
+package com.evse.simulator.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Client HTTP sortant partagé par les modules OCPI, TTE et GPM.
+ * <p>
+ * Un seul {@link HttpClient} JDK pour toute l'application : connexions
+ * conservées et réutilisées par hôte, HTTP/2 négocié quand le serveur le
+ * supporte, E/S non bloquantes. Chaque requête passe par un limiteur de
+ * concurrence propre au couple module / hôte, reçoit le timeout de son module
+ * et alimente les métriques par module et par partenaire.
+ * </p>
+ * <p>
+ * API native asynchrone ({@link #sendAsync}), lecture en flux des grosses
+ * réponses ({@link #exchange}) ; les services encore écrits sur
+ * {@link RestTemplate} obtiennent un template adossé au même client via
+ * {@link #restTemplate(OutboundModule)}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class OutboundHttpClient {
+
+    /** En-têtes gérés par le client JDK, refusés par {@link HttpRequest.Builder#header}. */
+    private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        RESTRICTED_HEADERS.addAll(List.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+    }
+
+    private final OutboundHttpProperties properties;
+    private final RestTemplateBuilder restTemplateBuilder;
+    private final HttpClient httpClient;
+    private final OutboundHttpMetrics metrics = new OutboundHttpMetrics();
+    private final Map<String, ConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    /**
+     * Charge courante vers un hôte.
+     */
+    public record HostLoad(String host, int inFlight, int queued) {}
+
+    public OutboundHttpClient(OutboundHttpProperties properties, RestTemplateBuilder restTemplateBuilder) {
+        this.properties = properties;
+        this.restTemplateBuilder = restTemplateBuilder;
+        this.httpClient = HttpClient.newBuilder()
+                .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        log.info("Outbound HTTP client initialized ({}, connect timeout {} ms)",
+                properties.isHttp2() ? "HTTP/2" : "HTTP/1.1", properties.getConnectTimeoutMs());
+    }
+
+    // =========================================================================
+    // API asynchrone
+    // =========================================================================
+
+    /**
+     * Envoie une requête sans bloquer l'appelant.
+     * <p>
+     * Le timeout (requête ou module) couvre l'attente d'un créneau de concurrence
+     * et l'échange. Le future échoue avec la cause d'origine : {@link HttpTimeoutException}
+     * pour un timeout, {@link IOException} pour une erreur réseau. Une réponse
+     * 4xx/5xx n'est pas une erreur.
+     * </p>
+     */
+    public CompletableFuture<OutboundResponse> sendAsync(OutboundRequest request) {
+        OutboundModule module = request.getModule();
+        String partner = request.partnerLabel();
+        long timeoutMs = request.getTimeoutMs() > 0
+                ? request.getTimeoutMs()
+                : properties.endpoint(module).getRequestTimeoutMs();
+        ConcurrencyLimiter limiter = limiter(module, request.getUri());
+        long queuedAt = System.nanoTime();
+
+        CompletableFuture<OutboundResponse> result = new CompletableFuture<>();
+        limiter.acquire(timeoutMs).whenComplete((ignored, queueError) -> {
+            if (queueError != null) {
+                metrics.recordFailure(module, partner, true, elapsedMs(queuedAt));
+                result.completeExceptionally(slotTimeout(request.getUri(), timeoutMs));
+                return;
+            }
+
+            HttpRequest httpRequest;
+            try {
+                httpRequest = toHttpRequest(request, Math.max(1, timeoutMs - elapsedMs(queuedAt)));
+            } catch (RuntimeException e) {
+                limiter.release();
+                result.completeExceptionally(e);
+                return;
+            }
+
+            long start = System.nanoTime();
+            httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        limiter.release();
+                        long latencyMs = elapsedMs(start);
+                        if (error != null) {
+                            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                    ? error.getCause() : error;
+                            metrics.recordFailure(module, partner, cause instanceof HttpTimeoutException, latencyMs);
+                            log.debug("{} {} {} failed after {} ms: {}",
+                                    module, request.getMethod(), request.getUri(), latencyMs, cause.toString());
+                            result.completeExceptionally(cause);
+                        } else {
+                            metrics.recordResponse(module, partner, response.statusCode(), latencyMs);
+                            result.complete(new OutboundResponse(response.statusCode(),
+                                    response.headers().map(), response.body(), latencyMs));
+                        }
+                    });
+        });
+        return result;
+    }
+
+    /**
+     * Variante bloquante de {@link #sendAsync}, mêmes exceptions que {@link HttpClient#send}.
+     */
+    public OutboundResponse send(OutboundRequest request) throws IOException, InterruptedException {
+        try {
+            return sendAsync(request).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    // =========================================================================
+    // RestTemplate adossé au client partagé
+    // =========================================================================
+
+    /**
+     * RestTemplate pour les services synchrones d'un module : même pool de
+     * connexions, même limiteur et mêmes métriques (partenaire = hôte). Le
+     * créneau est rendu à la fermeture de la réponse, une fois le corps lu ;
+     * la latence mesurée couvre cette lecture.
+     */
+    public RestTemplate restTemplate(OutboundModule module) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(properties.endpoint(module).getRequestTimeoutMs()));
+        return restTemplateBuilder
+                .requestFactory(() -> requestFactory)
+                .additionalInterceptors(limitingInterceptor(module))
+                .build();
+    }
+
+    private ClientHttpRequestInterceptor limitingInterceptor(OutboundModule module) {
+        return (request, body, execution) -> {
+            URI uri = request.getURI();
+            String partner = uri.getHost();
+            ConcurrencyLimiter limiter = limiter(module, uri);
+            awaitSlot(limiter, module, partner, uri, properties.endpoint(module).getRequestTimeoutMs());
+
+            long start = System.nanoTime();
+            try {
+                return new SlotResponse(execution.execute(request, body), limiter, module, partner, start);
+            } catch (IOException e) {
+                limiter.release();
+                metrics.recordFailure(module, partner, isTimeout(e), elapsedMs(start));
+                throw e;
+            } catch (RuntimeException e) {
+                limiter.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Réponse qui garde son créneau de concurrence jusqu'à sa fermeture
+     * (RestTemplate la ferme après extraction du corps).
+     */
+    private final class SlotResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final ConcurrencyLimiter limiter;
+        private final OutboundModule module;
+        private final String partner;
+        private final long start;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        SlotResponse(ClientHttpResponse delegate, ConcurrencyLimiter limiter,
+                     OutboundModule module, String partner, long start) {
+            this.delegate = delegate;
+            this.limiter = limiter;
+            this.module = module;
+            this.partner = partner;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                int status = delegate.getStatusCode().value();
+                delegate.close();
+                metrics.recordResponse(module, partner, status, elapsedMs(start));
+            } catch (IOException e) {
+                delegate.close();
+                metrics.recordFailure(module, partner, isTimeout(e), elapsedMs(start));
+            } finally {
+                limiter.release();
+            }
+        }
+    }
+
+    // =========================================================================
+    // Lecture en flux
+    // =========================================================================
+
+    /**
+     * Lecteur du corps d'une réponse au fil de sa réception.
+     */
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(int statusCode, Map<String, List<String>> headers, InputStream body) throws IOException;
+    }
+
+    /**
+     * Envoie une requête et passe le corps à {@code reader} au fil de sa réception,
+     * dans le thread appelant, sans le charger en mémoire. Le créneau de
+     * concurrence est conservé jusqu'à la fin de la lecture ; la latence mesurée
+     * couvre la lecture complète.
+     */
+    public <T> T exchange(OutboundRequest request, BodyReader<T> reader) throws IOException, InterruptedException {
+        OutboundModule module = request.getModule();
+        String partner = request.partnerLabel();
+        long timeoutMs = request.getTimeoutMs() > 0
+                ? request.getTimeoutMs()
+                : properties.endpoint(module).getRequestTimeoutMs();
+        ConcurrencyLimiter limiter = limiter(module, request.getUri());
+        long queuedAt = System.nanoTime();
+        awaitSlot(limiter, module, partner, request.getUri(), timeoutMs);
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(
+                    toHttpRequest(request, Math.max(1, timeoutMs - elapsedMs(queuedAt))),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            T result;
+            try (InputStream body = response.body()) {
+                result = reader.read(response.statusCode(), response.headers().map(), body);
+            }
+            metrics.recordResponse(module, partner, response.statusCode(), elapsedMs(start));
+            return result;
+        } catch (IOException e) {
+            metrics.recordFailure(module, partner, isTimeout(e), elapsedMs(start));
+            throw e;
+        } finally {
+            limiter.release();
+        }
+    }
+
+    /**
+     * Attend un créneau de concurrence en bloquant le thread appelant.
+     */
+    private void awaitSlot(ConcurrencyLimiter limiter, OutboundModule module, String partner, URI uri, long timeoutMs)
+            throws IOException {
+        long queuedAt = System.nanoTime();
+        CompletableFuture<Void> slot = limiter.acquire(timeoutMs);
+        try {
+            slot.get();
+        } catch (InterruptedException e) {
+            // Le créneau a pu être accordé entre-temps : il faut le rendre
+            if (!slot.cancel(false) && !slot.isCompletedExceptionally()) {
+                limiter.release();
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection slot to " + partner);
+        } catch (ExecutionException e) {
+            metrics.recordFailure(module, partner, true, elapsedMs(queuedAt));
+            throw slotTimeout(uri, timeoutMs);
+        }
+    }
+
+    // =========================================================================
+    // Métriques
+    // =========================================================================
+
+    public List<OutboundHttpMetrics.Snapshot> getStats() {
+        return metrics.snapshot();
+    }
+
+    public List<HostLoad> getHostLoads() {
+        return limiters.entrySet().stream()
+                .map(entry -> new HostLoad(entry.getKey(), entry.getValue().inFlight(), entry.getValue().queued()))
+                .sorted(Comparator.comparing(HostLoad::host))
+                .toList();
+    }
+
+    public void resetStats() {
+        metrics.reset();
+    }
+
+    // =========================================================================
+    // Interne
+    // =========================================================================
+
+    private ConcurrencyLimiter limiter(OutboundModule module, URI uri) {
+        String key = module + " " + uri.getHost() + (uri.getPort() > 0 ? ":" + uri.getPort() : "");
+        return limiters.computeIfAbsent(key,
+                k -> new ConcurrencyLimiter(properties.endpoint(module).getMaxConcurrentPerHost()));
+    }
+
+    private static HttpRequest toHttpRequest(OutboundRequest request, long timeoutMs) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri())
+                .timeout(Duration.ofMillis(timeoutMs))
+                .method(request.getMethod(), request.getBody() != null
+                        ? HttpRequest.BodyPublishers.ofString(request.getBody())
+                        : HttpRequest.BodyPublishers.noBody());
+        request.getHeaders().forEach((name, value) -> {
+            if (!RESTRICTED_HEADERS.contains(name)) {
+                builder.header(name, value);
+            }
+        });
+        return builder.build();
+    }
+
+    private static boolean isTimeout(IOException e) {
+        return e instanceof HttpTimeoutException || e instanceof SocketTimeoutException;
+    }
+
+    private static HttpTimeoutException slotTimeout(URI uri, long timeoutMs) {
+        return new HttpTimeoutException("No free connection slot to " + uri.getHost() + " within " + timeoutMs + " ms");
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
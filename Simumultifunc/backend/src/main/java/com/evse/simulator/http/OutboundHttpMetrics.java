@@ -0,0 +1,92 @@
+package com.evse.simulator.http;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latences et erreurs des appels HTTP sortants, par module et par partenaire.
+ */
+public class OutboundHttpMetrics {
+
+    private static final long MAX_LATENCY_MS = 600_000;
+
+    private final Map<Key, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * Statistiques d'un couple module / partenaire.
+     *
+     * @param httpErrors réponses 4xx et 5xx
+     * @param failures échecs sans réponse (connexion, timeout)
+     * @param timeouts dont timeouts (requête ou attente d'un créneau)
+     */
+    public record Snapshot(OutboundModule module, String partner, long requests, long httpErrors,
+                           long failures, long timeouts, long p50Ms, long p95Ms, long p99Ms, long maxMs) {}
+
+    private record Key(OutboundModule module, String partner) {}
+
+    private static final class EndpointStats {
+        final LongAdder requests = new LongAdder();
+        final LongAdder httpErrors = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final Histogram latency = new Histogram(MAX_LATENCY_MS, 2);
+
+        synchronized void recordLatency(long latencyMs) {
+            latency.recordValue(Math.min(Math.max(latencyMs, 0), MAX_LATENCY_MS));
+        }
+    }
+
+    public void recordResponse(OutboundModule module, String partner, int statusCode, long latencyMs) {
+        EndpointStats endpoint = endpoint(module, partner);
+        endpoint.requests.increment();
+        if (statusCode >= 400) {
+            endpoint.httpErrors.increment();
+        }
+        endpoint.recordLatency(latencyMs);
+    }
+
+    public void recordFailure(OutboundModule module, String partner, boolean timeout, long latencyMs) {
+        EndpointStats endpoint = endpoint(module, partner);
+        endpoint.requests.increment();
+        endpoint.failures.increment();
+        if (timeout) {
+            endpoint.timeouts.increment();
+        }
+        endpoint.recordLatency(latencyMs);
+    }
+
+    public List<Snapshot> snapshot() {
+        return stats.entrySet().stream()
+                .map(entry -> snapshot(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparing(Snapshot::module).thenComparing(Snapshot::partner))
+                .toList();
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private EndpointStats endpoint(OutboundModule module, String partner) {
+        return stats.computeIfAbsent(new Key(module, partner != null ? partner : "unknown"), k -> new EndpointStats());
+    }
+
+    private static Snapshot snapshot(Key key, EndpointStats endpoint) {
+        long p50;
+        long p95;
+        long p99;
+        long max;
+        synchronized (endpoint) {
+            p50 = endpoint.latency.getValueAtPercentile(50);
+            p95 = endpoint.latency.getValueAtPercentile(95);
+            p99 = endpoint.latency.getValueAtPercentile(99);
+            max = endpoint.latency.getMaxValue();
+        }
+        return new Snapshot(key.module(), key.partner(), endpoint.requests.sum(), endpoint.httpErrors.sum(),
+                endpoint.failures.sum(), endpoint.timeouts.sum(), p50, p95, p99, max);
+    }
+}
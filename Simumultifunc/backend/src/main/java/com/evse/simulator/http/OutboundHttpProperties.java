@@ -0,0 +1,67 @@
+package com.evse.simulator.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.Positive;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Configuration du client HTTP sortant partagé (OCPI, TTE, GPM).
+ */
+@Data
+@Component
+@Validated
+@ConfigurationProperties(prefix = "outbound-http")
+public class OutboundHttpProperties {
+
+    /**
+     * Timeout d'établissement de connexion (ms).
+     */
+    @Positive
+    private int connectTimeoutMs = 5000;
+
+    /**
+     * Négocie HTTP/2 (ALPN) quand le serveur le supporte, HTTP/1.1 sinon.
+     */
+    private boolean http2 = true;
+
+    /**
+     * Renouvellement anticipé des tokens OAuth2 avant leur expiration (s),
+     * pour les sources sans valeur propre.
+     */
+    @Positive
+    private int tokenRefreshSkewSeconds = 300;
+
+    /**
+     * Réglages appliqués aux modules sans configuration propre.
+     */
+    private EndpointConfig defaults = new EndpointConfig();
+
+    /**
+     * Réglages par module.
+     */
+    private Map<OutboundModule, EndpointConfig> modules = new EnumMap<>(OutboundModule.class);
+
+    public EndpointConfig endpoint(OutboundModule module) {
+        return modules.getOrDefault(module, defaults);
+    }
+
+    @Data
+    public static class EndpointConfig {
+        /**
+         * Timeout d'une requête, attente d'un créneau de concurrence comprise (ms).
+         */
+        @Positive
+        private int requestTimeoutMs = 30000;
+
+        /**
+         * Requêtes simultanées maximum par hôte ; les suivantes attendent leur tour.
+         */
+        @Positive
+        private int maxConcurrentPerHost = 32;
+    }
+}
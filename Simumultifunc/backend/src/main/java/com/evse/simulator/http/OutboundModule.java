@@ -0,0 +1,15 @@
+package com.evse.simulator.http;
+
+/**
+ * Module applicatif à l'origine d'un appel HTTP sortant.
+ * Sert de clé pour les timeouts, les limites de concurrence et les métriques.
+ */
+public enum OutboundModule {
+    OCPI,
+    TTE,
+    GPM,
+    /** Agents de génération de charge d'un test de performance distribué. */
+    PERF_AGENT,
+    /** Appels divers (smart charging, tâches planifiées). */
+    OTHER
+}
@@ -0,0 +1,49 @@
+package com.evse.simulator.http;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Requête HTTP sortante.
+ * <p>
+ * {@code partner} étiquette les métriques (identifiant de partenaire OCPI,
+ * environnement TTE...) ; à défaut l'hôte de l'URI est utilisé.
+ * </p>
+ */
+@Getter
+@Builder
+public class OutboundRequest {
+
+    private final OutboundModule module;
+    private final String partner;
+
+    @Builder.Default
+    private final String method = "GET";
+
+    private final URI uri;
+
+    @Singular
+    private final Map<String, String> headers;
+
+    /** Corps de la requête, null pour aucun corps. */
+    private final String body;
+
+    /** Timeout propre à la requête (ms), 0 pour celui du module. */
+    private final int timeoutMs;
+
+    public String partnerLabel() {
+        return partner != null ? partner : uri.getHost();
+    }
+
+    public static OutboundRequestBuilder get(OutboundModule module, String url) {
+        return builder().module(module).method("GET").uri(URI.create(url));
+    }
+
+    public static OutboundRequestBuilder post(OutboundModule module, String url, String body) {
+        return builder().module(module).method("POST").uri(URI.create(url)).body(body);
+    }
+}
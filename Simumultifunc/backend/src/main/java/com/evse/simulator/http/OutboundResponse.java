@@ -0,0 +1,19 @@
+package com.evse.simulator.http;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Réponse HTTP sortante, corps lu en entier.
+ *
+ * @param statusCode code HTTP
+ * @param headers en-têtes de réponse
+ * @param body corps de la réponse (vide si absent)
+ * @param latencyMs durée de l'échange, hors attente d'un créneau de concurrence
+ */
+public record OutboundResponse(int statusCode, Map<String, List<String>> headers, String body, long latencyMs) {
+
+    public boolean is2xxSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+}
@@ -0,0 +1,28 @@
+package com.evse.simulator.http;
+
+/**
+ * Source de tokens OAuth2 {@code client_credentials} (Cognito).
+ *
+ * @param key                 clé du cache, un token par clé (ex. {@code tte:default}, {@code gpm})
+ * @param module              module sortant utilisé pour l'appel au endpoint de token
+ * @param tokenUrl            endpoint OAuth2 {@code /oauth2/token}
+ * @param maxLifetimeSeconds  durée de vie retenue au plus, 0 pour celle annoncée par le serveur
+ * @param refreshSkewSeconds  renouvellement anticipé avant expiration, 0 pour la valeur par défaut
+ */
+public record TokenSource(String key, OutboundModule module, String tokenUrl, String clientId,
+                          String clientSecret, int maxLifetimeSeconds, int refreshSkewSeconds) {
+
+    public boolean isConfigured() {
+        return tokenUrl != null && !tokenUrl.isBlank()
+                && clientId != null && !clientId.isBlank()
+                && clientSecret != null && !clientSecret.isBlank();
+    }
+
+    /**
+     * Le secret n'apparaît jamais dans les logs.
+     */
+    @Override
+    public String toString() {
+        return "TokenSource[" + key + ", " + tokenUrl + "]";
+    }
+}
@@ -0,0 +1,165 @@
+package com.evse.simulator.model;
+
+import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.model.enums.SessionState;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Session de test de charge réduite à son état protocolaire.
+ * <p>
+ * Une {@link Session} complète porte logs, graphiques et historique OCPP
+ * (jusqu'à 500 entrées chacun) : plusieurs centaines de Kio par borne une fois
+ * remplie. Celle-ci ne garde que l'identité, l'état, la transaction et le
+ * compteur ; l'énergie est calculée à partir de l'instant de démarrage de la
+ * charge plutôt que stockée. Les valeurs du modèle (profil véhicule, type de
+ * chargeur) sont partagées par référence entre toutes les sessions d'un test.
+ * </p>
+ * <p>
+ * Cible : moins de {@value #HEAP_TARGET_BYTES} octets de heap par session hors
+ * connexion. {@link #toSession(boolean)} reconstruit une {@link Session}
+ * détachée lorsque l'UI l'inspecte.
+ * </p>
+ */
+@Getter
+public class LightSession {
+
+    /**
+     * Heap maximal visé par session, hors connexion WebSocket (228 octets
+     * mesurés sur JDK 17, oops compressés).
+     */
+    public static final int HEAP_TARGET_BYTES = 256;
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final String id;
+    private final String cpId;
+    private final String idTag;
+    private final String url;
+    private final int index;
+    private final ChargerType chargerType;
+    private final String vehicleProfile;
+    private final double soc;
+    private final double targetSoc;
+    private final long createdAtMs;
+
+    // Etat protocolaire, mis à jour par les réponses du CSMS
+    @Setter
+    private volatile SessionState state = SessionState.DISCONNECTED;
+    @Setter
+    private volatile boolean authorized;
+    private volatile int transactionId;
+    private volatile long chargingSinceMs;
+    private volatile long stoppedAtMs;
+    @Setter
+    private volatile String lastError;
+    private volatile int messageCount;
+
+    public LightSession(String id, String cpId, String idTag, String url, int index,
+                        ChargerType chargerType, String vehicleProfile, double soc, double targetSoc) {
+        this.id = id;
+        this.cpId = cpId;
+        this.idTag = idTag;
+        this.url = url;
+        this.index = index;
+        this.chargerType = chargerType != null ? chargerType : ChargerType.AC_TRI;
+        this.vehicleProfile = vehicleProfile;
+        this.soc = soc;
+        this.targetSoc = targetSoc;
+        this.createdAtMs = System.currentTimeMillis();
+    }
+
+    /**
+     * Transaction acceptée par le CSMS : la charge démarre à pleine puissance.
+     */
+    public void startCharging(int transactionId) {
+        this.transactionId = transactionId;
+        this.stoppedAtMs = 0;
+        this.chargingSinceMs = System.currentTimeMillis();
+        this.state = SessionState.CHARGING;
+    }
+
+    /**
+     * Fin de charge : le compteur est figé, l'identifiant de transaction conservé.
+     */
+    public void stopCharging() {
+        if (chargingSinceMs > 0 && stoppedAtMs == 0) {
+            stoppedAtMs = System.currentTimeMillis();
+        }
+        this.state = SessionState.FINISHING;
+    }
+
+    /**
+     * Compte un CALL envoyé ; appelé sous le verrou du client de la session.
+     */
+    public void countMessage() {
+        messageCount++;
+    }
+
+    public boolean hasTransaction() {
+        return transactionId > 0;
+    }
+
+    public boolean isCharging() {
+        return state == SessionState.CHARGING;
+    }
+
+    /**
+     * Compteur d'énergie (Wh) à l'instant donné, à la puissance maximale du chargeur.
+     */
+    public long meterWh(long nowMs) {
+        if (chargingSinceMs == 0) {
+            return 0;
+        }
+        long end = stoppedAtMs > 0 ? stoppedAtMs : nowMs;
+        return (long) (chargerType.getMaxPowerKw() * Math.max(0, end - chargingSinceMs) / 3_600.0);
+    }
+
+    /**
+     * Reconstruit une session complète, détachée, pour l'inspection dans l'UI.
+     * Logs, graphiques et historique OCPP sont vides.
+     *
+     * @param connected état de la connexion WebSocket
+     */
+    public Session toSession(boolean connected) {
+        long meter = meterWh(System.currentTimeMillis());
+        boolean charging = isCharging();
+        return Session.builder()
+                .id(id)
+                .title("Perf #" + index)
+                .url(url)
+                .cpId(cpId)
+                .idTag(idTag)
+                .vehicleProfile(vehicleProfile)
+                .chargerType(chargerType)
+                .activePhases(chargerType.getPhases())
+                .maxPowerKw(chargerType.getMaxPowerKw())
+                .maxCurrentA(chargerType.getMaxCurrentA())
+                .voltage(chargerType.getVoltage())
+                .soc(soc)
+                .targetSoc(targetSoc)
+                .state(state)
+                .connected(connected)
+                .authorized(authorized)
+                .charging(charging)
+                .plugged(hasTransaction())
+                .transactionId(hasTransaction() ? String.valueOf(transactionId) : null)
+                .meterValue((int) meter)
+                .energyDeliveredKwh(meter / 1000.0)
+                .currentPowerKw(charging ? chargerType.getMaxPowerKw() : 0.0)
+                .disconnectReason(lastError)
+                .createdAt(toDateTime(createdAtMs))
+                .updatedAt(LocalDateTime.now())
+                .startTime(chargingSinceMs > 0 ? toDateTime(chargingSinceMs) : null)
+                .stopTime(stoppedAtMs > 0 ? toDateTime(stoppedAtMs) : null)
+                .build();
+    }
+
+    private static LocalDateTime toDateTime(long epochMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMs), ZONE);
+    }
+}
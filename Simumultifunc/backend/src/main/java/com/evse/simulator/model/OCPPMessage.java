@@ -2,6 +2,9 @@ package com.evse.simulator.model;
 
 import com.evse.simulator.model.enums.OCPPAction;
 import com.evse.simulator.model.enums.OCPPMessageType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +26,8 @@ import java.util.UUID;
 @Builder
 public class OCPPMessage {
 
+    private static final ObjectMapper JSON = new ObjectMapper().registerModule(new JavaTimeModule());
+
     /**
      * Identifiant unique du message.
      */
@@ -217,7 +222,7 @@ public class OCPPMessage {
     }
 
     private String payloadToJson() {
-        return payloadToJson(payload);
+        return payloadToJson(getPayload());
     }
 
     private String payloadToJson(Map<String, Object> map) {
@@ -225,15 +230,34 @@ public class OCPPMessage {
             return "{}";
         }
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper =
-                    new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(map);
+            return JSON.writeValueAsString(map);
         } catch (Exception e) {
             return "{}";
         }
     }
 
+    /**
+     * Payload du message. Pour un CALL écrit en streaming (payload absent), relu
+     * depuis la trame brute au premier accès : historique et diffusion uniquement,
+     * jamais sur le chemin d'envoi.
+     */
+    public Map<String, Object> getPayload() {
+        if (payload == null && rawMessage != null && messageType == OCPPMessageType.CALL) {
+            payload = decodeCallPayload(rawMessage);
+        }
+        return payload;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> decodeCallPayload(String frame) {
+        try {
+            JsonNode node = JSON.readTree(frame);
+            return node.size() > 3 ? JSON.convertValue(node.get(3), Map.class) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * Crée un résumé du message.
      */
@@ -1,5 +1,6 @@
 package com.evse.simulator.model;
 
+import com.evse.simulator.tnr.diff.EventEditScript;
 import lombok.Builder;
 import lombok.Data;
 
@@ -45,4 +46,9 @@ public class TnrPlusCompareResult {
      * Liste détaillée des différences.
      */
     private List<TNRDifference> differences;
+
+    /**
+     * Script d'édition compact (suites identiques regroupées, diffs de champs).
+     */
+    private EventEditScript editScript;
 }
\ No newline at end of file
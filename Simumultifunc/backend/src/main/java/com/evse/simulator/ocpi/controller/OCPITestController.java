@@ -1,5 +1,12 @@
 package com.evse.simulator.ocpi.controller;
 
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
+import com.evse.simulator.http.OutboundRequest;
+import com.evse.simulator.http.OutboundResponse;
+import com.evse.simulator.ocpi.crawler.CrawlReport;
+import com.evse.simulator.ocpi.crawler.CrawlRequest;
+import com.evse.simulator.ocpi.crawler.OCPICrawler;
 import com.evse.simulator.ocpi.model.Partner;
 import com.evse.simulator.ocpi.service.OCPIClientService;
 import com.evse.simulator.ocpi.service.PartnerService;
@@ -31,6 +38,8 @@ public class OCPITestController {
     private final OCPIClientService ocpiClient;
     private final OCPITestRunner testRunner;
     private final OCPITestRepository testRepository;
+    private final OutboundHttpClient httpClient;
+    private final OCPICrawler crawler;
 
     // =========================================================================
     // Partners
@@ -310,9 +319,10 @@ public class OCPITestController {
     // =========================================================================
 
     @PostMapping("/quick-test/locations")
-    public ResponseEntity<Map<String, Object>> quickTestLocations(@RequestParam String partnerId) {
+    public ResponseEntity<Map<String, Object>> quickTestLocations(@RequestParam String partnerId,
+                                                                  @RequestParam(defaultValue = "10") int limit) {
         try {
-            var response = ocpiClient.getLocations(partnerId, Map.of("limit", "10"));
+            var response = ocpiClient.getLocations(partnerId, Map.of("limit", String.valueOf(limit)));
             return ResponseEntity.ok(Map.of(
                     "ok", response.isSuccess(),
                     "statusCode", response.getStatusCode(),
@@ -325,9 +335,10 @@ public class OCPITestController {
     }
 
     @PostMapping("/quick-test/sessions")
-    public ResponseEntity<Map<String, Object>> quickTestSessions(@RequestParam String partnerId) {
+    public ResponseEntity<Map<String, Object>> quickTestSessions(@RequestParam String partnerId,
+                                                                 @RequestParam(defaultValue = "10") int limit) {
         try {
-            var response = ocpiClient.getSessions(partnerId, Map.of("limit", "10"));
+            var response = ocpiClient.getSessions(partnerId, Map.of("limit", String.valueOf(limit)));
             return ResponseEntity.ok(Map.of(
                     "ok", response.isSuccess(),
                     "statusCode", response.getStatusCode(),
@@ -340,9 +351,10 @@ public class OCPITestController {
     }
 
     @PostMapping("/quick-test/cdrs")
-    public ResponseEntity<Map<String, Object>> quickTestCdrs(@RequestParam String partnerId) {
+    public ResponseEntity<Map<String, Object>> quickTestCdrs(@RequestParam String partnerId,
+                                                             @RequestParam(defaultValue = "10") int limit) {
         try {
-            var response = ocpiClient.getCdrs(partnerId, Map.of("limit", "10"));
+            var response = ocpiClient.getCdrs(partnerId, Map.of("limit", String.valueOf(limit)));
             return ResponseEntity.ok(Map.of(
                     "ok", response.isSuccess(),
                     "statusCode", response.getStatusCode(),
@@ -355,9 +367,10 @@ public class OCPITestController {
     }
 
     @PostMapping("/quick-test/tokens")
-    public ResponseEntity<Map<String, Object>> quickTestTokens(@RequestParam String partnerId) {
+    public ResponseEntity<Map<String, Object>> quickTestTokens(@RequestParam String partnerId,
+                                                               @RequestParam(defaultValue = "10") int limit) {
         try {
-            var response = ocpiClient.getTokens(partnerId, Map.of("limit", "10"));
+            var response = ocpiClient.getTokens(partnerId, Map.of("limit", String.valueOf(limit)));
             return ResponseEntity.ok(Map.of(
                     "ok", response.isSuccess(),
                     "statusCode", response.getStatusCode(),
@@ -370,9 +383,10 @@ public class OCPITestController {
     }
 
     @PostMapping("/quick-test/tariffs")
-    public ResponseEntity<Map<String, Object>> quickTestTariffs(@RequestParam String partnerId) {
+    public ResponseEntity<Map<String, Object>> quickTestTariffs(@RequestParam String partnerId,
+                                                                @RequestParam(defaultValue = "10") int limit) {
         try {
-            var response = ocpiClient.getTariffs(partnerId, Map.of("limit", "10"));
+            var response = ocpiClient.getTariffs(partnerId, Map.of("limit", String.valueOf(limit)));
             return ResponseEntity.ok(Map.of(
                     "ok", response.isSuccess(),
                     "statusCode", response.getStatusCode(),
@@ -384,6 +398,39 @@ public class OCPITestController {
         }
     }
 
+    // =========================================================================
+    // Crawler (full module listing, all pages)
+    // =========================================================================
+
+    @PostMapping("/crawl")
+    public ResponseEntity<?> startCrawl(@RequestBody CrawlRequest request) {
+        try {
+            return ResponseEntity.ok(crawler.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/crawl")
+    public ResponseEntity<List<CrawlReport>> getCrawls() {
+        return ResponseEntity.ok(crawler.getReports());
+    }
+
+    @GetMapping("/crawl/{id}")
+    public ResponseEntity<CrawlReport> getCrawl(@PathVariable String id) {
+        return crawler.getReport(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/crawl/{id}")
+    public ResponseEntity<Map<String, Object>> cancelCrawl(@PathVariable String id) {
+        if (!crawler.cancel(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("ok", true));
+    }
+
     // =========================================================================
     // Request Builder (Postman-like)
     // =========================================================================
@@ -717,24 +764,15 @@ public class OCPITestController {
             String versionsUrl = baseUrl.endsWith("/") ? baseUrl + "versions" : baseUrl + "/versions";
             long startTime = System.currentTimeMillis();
 
-            java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
-                    .connectTimeout(java.time.Duration.ofSeconds(10))
-                    .build();
-
-            java.net.http.HttpRequest.Builder reqBuilder = java.net.http.HttpRequest.newBuilder()
-                    .uri(java.net.URI.create(versionsUrl))
-                    .GET()
-                    .timeout(java.time.Duration.ofSeconds(15))
+            OutboundRequest.OutboundRequestBuilder reqBuilder = OutboundRequest.get(OutboundModule.OCPI, versionsUrl)
+                    .timeoutMs(15_000)
                     .header("Accept", "application/json");
 
             if (authToken != null && !authToken.isEmpty()) {
                 reqBuilder.header("Authorization", "Token " + authToken);
             }
 
-            java.net.http.HttpResponse<String> response = client.send(
-                    reqBuilder.build(),
-                    java.net.http.HttpResponse.BodyHandlers.ofString()
-            );
+            OutboundResponse response = httpClient.send(reqBuilder.build());
 
             long latencyMs = System.currentTimeMillis() - startTime;
 
@@ -849,26 +887,17 @@ public class OCPITestController {
             throw new IllegalArgumentException("Configuration Cognito incomplete");
         }
 
-        java.net.http.HttpClient client = java.net.http.HttpClient.newBuilder()
-                .connectTimeout(java.time.Duration.ofSeconds(10))
-                .build();
-
         String credentials = java.util.Base64.getEncoder().encodeToString(
                 (clientId + ":" + clientSecret).getBytes(java.nio.charset.StandardCharsets.UTF_8)
         );
 
-        java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                .uri(java.net.URI.create(tokenUrl))
-                .POST(java.net.http.HttpRequest.BodyPublishers.ofString("grant_type=client_credentials"))
+        OutboundRequest request = OutboundRequest.post(OutboundModule.OCPI, tokenUrl, "grant_type=client_credentials")
                 .header("Authorization", "Basic " + credentials)
                 .header("Content-Type", "application/x-www-form-urlencoded")
-                .timeout(java.time.Duration.ofSeconds(15))
+                .timeoutMs(15_000)
                 .build();
 
-        java.net.http.HttpResponse<String> response = client.send(
-                request,
-                java.net.http.HttpResponse.BodyHandlers.ofString()
-        );
+        OutboundResponse response = httpClient.send(request);
 
         if (response.statusCode() != 200) {
             throw new RuntimeException("Cognito auth failed: HTTP " + response.statusCode());
@@ -0,0 +1,56 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.evse.simulator.ocpi.OCPIModule;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress and result of a crawl, refreshed while it runs.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlReport {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    private String id;
+    private String partnerId;
+    private OCPIModule module;
+    private Status status;
+    private Instant startTime;
+    private Instant endTime;
+    private long durationMs;
+
+    private long pages;
+    private long failedPages;
+    private long objects;
+    private long validObjects;
+    private long invalidObjects;
+    private long duplicates;
+    private long bytes;
+    /** Largest X-Total-Count reported by the partner, -1 if never sent. */
+    private long reportedTotal;
+
+    private double objectsPerSecond;
+    private double pagesPerSecond;
+    private double megabytesPerSecond;
+    private long avgPageLatencyMs;
+    private long maxPageLatencyMs;
+
+    /** Number of objects per validation issue. */
+    private Map<String, Long> issueCounts;
+    /** First issues found, with the object identity. */
+    private List<String> sampleIssues;
+    /** Failed pages (HTTP error, OCPI error, transport error). */
+    private List<String> errors;
+}
@@ -0,0 +1,44 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.evse.simulator.ocpi.OCPIModule;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Parameters of a full crawl of one partner module.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CrawlRequest {
+
+    private String partnerId;
+    private OCPIModule module;
+
+    /** Requested page size ({@code limit}); the partner may cap it with X-Limit. */
+    @Builder.Default
+    private int pageSize = 100;
+
+    /** Pages fetched in parallel. */
+    @Builder.Default
+    private int concurrency = 4;
+
+    /** Optional {@code date_from} / {@code date_to} filter. */
+    private Instant dateFrom;
+    private Instant dateTo;
+
+    /**
+     * Number of date windows crawled in parallel (requires dateFrom and dateTo).
+     * Useful for CDRs and sessions on partners without X-Total-Count.
+     */
+    @Builder.Default
+    private int partitions = 1;
+
+    /** Stop after this many objects, 0 for no limit. */
+    private long maxObjects;
+}
@@ -0,0 +1,425 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.evse.simulator.ocpi.OCPIModule;
+import com.evse.simulator.ocpi.service.OCPIClientService;
+import com.evse.simulator.ocpi.service.PartnerService;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Crawls every object of a partner module, following OCPI pagination.
+ * <p>
+ * The first page of each date window tells how to go on: with
+ * {@code X-Total-Count} all remaining offsets are fetched in parallel, otherwise
+ * the {@code Link rel="next"} chain is followed. Several date windows
+ * ({@link CrawlRequest#getPartitions()}) give parallelism to partners that only
+ * send links, typically for CDRs and sessions. At most
+ * {@link CrawlRequest#getConcurrency()} pages are in flight.
+ * </p>
+ * <p>
+ * Pages are parsed as they arrive ({@link PageParser}) and each object is
+ * validated and checked for duplicates immediately, so memory does not grow
+ * with the page size.
+ * </p>
+ */
+@Service
+@Slf4j
+public class OCPICrawler {
+
+    private static final int MAX_CONCURRENCY = 32;
+    private static final int MAX_SAMPLE_ISSUES = 50;
+    private static final int MAX_ERRORS = 50;
+    private static final int MAX_FINISHED_CRAWLS = 20;
+
+    private final OCPIClientService ocpiClient;
+    private final PartnerService partnerService;
+    private final Map<String, Crawl> crawls = new ConcurrentHashMap<>();
+
+    public OCPICrawler(OCPIClientService ocpiClient, PartnerService partnerService) {
+        this.ocpiClient = ocpiClient;
+        this.partnerService = partnerService;
+    }
+
+    /**
+     * Start a crawl in the background.
+     *
+     * @return initial report, progress available through {@link #getReport}
+     */
+    public CrawlReport start(CrawlRequest request) {
+        if (request.getPartnerId() == null || request.getModule() == null) {
+            throw new IllegalArgumentException("partnerId and module are required");
+        }
+        String baseUrl = partnerService.getEndpointUrl(request.getPartnerId(), request.getModule());
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("No endpoint URL for module " + request.getModule()
+                    + " on partner " + request.getPartnerId());
+        }
+
+        Crawl crawl = new Crawl(UUID.randomUUID().toString(), request, baseUrl);
+        crawls.put(crawl.id, crawl);
+        pruneFinished();
+        List<Window> windows = windows(request);
+        log.info("OCPI crawl {} started: {} {} (page size {}, concurrency {}, {} window(s))",
+                crawl.id, request.getPartnerId(), request.getModule(), crawl.pageSize, crawl.concurrency,
+                windows.size());
+
+        // Held until every window is submitted, so a fast first window cannot end the crawl
+        crawl.pending.incrementAndGet();
+        for (Window window : windows) {
+            String url = pageUrl(baseUrl, window, 0, crawl.pageSize);
+            crawl.submit(() -> fetch(crawl, window, url, true));
+        }
+        crawl.taskDone();
+        return crawl.report();
+    }
+
+    /**
+     * Run a crawl and wait for its end.
+     */
+    public CrawlReport crawl(CrawlRequest request) throws InterruptedException {
+        Crawl crawl = crawls.get(start(request).getId());
+        crawl.done.await();
+        return crawl.report();
+    }
+
+    public Optional<CrawlReport> getReport(String crawlId) {
+        return Optional.ofNullable(crawls.get(crawlId)).map(Crawl::report);
+    }
+
+    public List<CrawlReport> getReports() {
+        return crawls.values().stream()
+                .map(Crawl::report)
+                .sorted(Comparator.comparing(CrawlReport::getStartTime).reversed())
+                .toList();
+    }
+
+    public boolean cancel(String crawlId) {
+        Crawl crawl = crawls.get(crawlId);
+        if (crawl == null) {
+            return false;
+        }
+        crawl.cancel();
+        return true;
+    }
+
+    /**
+     * Keep only the last {@value #MAX_FINISHED_CRAWLS} finished crawls; running ones are never dropped.
+     */
+    private void pruneFinished() {
+        List<Crawl> finished = crawls.values().stream()
+                .filter(crawl -> crawl.status != CrawlReport.Status.RUNNING)
+                .sorted(Comparator.comparing((Crawl crawl) -> crawl.startTime).reversed())
+                .toList();
+        for (int i = MAX_FINISHED_CRAWLS; i < finished.size(); i++) {
+            crawls.remove(finished.get(i).id);
+        }
+    }
+
+    // =========================================================================
+    // Pagination
+    // =========================================================================
+
+    private void fetch(Crawl crawl, Window window, String url, boolean firstPage) {
+        if (crawl.stopped) {
+            return;
+        }
+        long start = System.nanoTime();
+        PageResult page;
+        try {
+            page = ocpiClient.stream(crawl.partnerId, url,
+                    (status, headers, body) -> PageParser.parse(status, headers, body, crawl::accept));
+        } catch (IOException e) {
+            crawl.pageFailed(url, e.toString(), elapsedMs(start), 0);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long latencyMs = elapsedMs(start);
+
+        if (!page.isSuccess()) {
+            crawl.pageFailed(url, "HTTP " + page.httpStatus() + ", OCPI " + page.ocpiStatus()
+                    + (page.statusMessage() != null ? " " + page.statusMessage() : ""), latencyMs, page.bytes());
+            return;
+        }
+        crawl.pageDone(page, latencyMs);
+
+        if (firstPage && page.totalCount() >= 0) {
+            // Total known: fetch all remaining offsets in parallel
+            int limit = page.limit() > 0 ? page.limit()
+                    : page.objects() > 0 ? Math.min(page.objects(), crawl.pageSize) : crawl.pageSize;
+            for (long offset = limit; offset < page.totalCount(); offset += limit) {
+                String pageUrl = pageUrl(crawl.baseUrl, window, offset, limit);
+                crawl.submit(() -> fetch(crawl, window, pageUrl, false));
+            }
+        } else if (page.totalCount() < 0 && page.nextUrl() != null) {
+            crawl.submit(() -> fetch(crawl, window, page.nextUrl(), false));
+        }
+    }
+
+    /**
+     * Date window of a crawl, bounds null when not filtered.
+     */
+    private record Window(Instant from, Instant to) {}
+
+    private static List<Window> windows(CrawlRequest request) {
+        Instant from = request.getDateFrom();
+        Instant to = request.getDateTo();
+        int partitions = Math.max(1, request.getPartitions());
+        if (from == null || to == null || partitions == 1 || !from.isBefore(to)) {
+            return List.of(new Window(from, to));
+        }
+        long stepMs = Math.max(1, Duration.between(from, to).toMillis() / partitions);
+        List<Window> windows = new ArrayList<>(partitions);
+        Instant windowStart = from;
+        for (int i = 0; i < partitions && windowStart.isBefore(to); i++) {
+            Instant windowEnd = i == partitions - 1 ? to : windowStart.plusMillis(stepMs);
+            windows.add(new Window(windowStart, windowEnd.isAfter(to) ? to : windowEnd));
+            windowStart = windowEnd;
+        }
+        return windows;
+    }
+
+    private static String pageUrl(String baseUrl, Window window, long offset, int limit) {
+        StringBuilder url = new StringBuilder(baseUrl)
+                .append(baseUrl.contains("?") ? '&' : '?')
+                .append("offset=").append(offset)
+                .append("&limit=").append(limit);
+        if (window.from() != null) {
+            url.append("&date_from=").append(URLEncoder.encode(window.from().toString(), StandardCharsets.UTF_8));
+        }
+        if (window.to() != null) {
+            url.append("&date_to=").append(URLEncoder.encode(window.to().toString(), StandardCharsets.UTF_8));
+        }
+        return url.toString();
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    // =========================================================================
+    // Crawl state
+    // =========================================================================
+
+    private static final class Crawl {
+        final String id;
+        final String partnerId;
+        final OCPIModule module;
+        final String baseUrl;
+        final int pageSize;
+        final int concurrency;
+        final long maxObjects;
+        final Instant startTime = Instant.now();
+        final long startNanos = System.nanoTime();
+
+        final ExecutorService executor;
+        final AtomicInteger pending = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean stopped;
+        volatile CrawlReport.Status status = CrawlReport.Status.RUNNING;
+        volatile Instant endTime;
+        volatile long durationNanos;
+
+        final LongAdder pages = new LongAdder();
+        final LongAdder failedPages = new LongAdder();
+        final AtomicLong objects = new AtomicLong();
+        final LongAdder invalid = new LongAdder();
+        final LongAdder duplicates = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder pageLatencyTotal = new LongAdder();
+        final AtomicLong pageLatencyMax = new AtomicLong();
+        final AtomicLong reportedTotal = new AtomicLong(-1);
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final Map<String, LongAdder> issueCounts = new ConcurrentHashMap<>();
+        final List<String> sampleIssues = Collections.synchronizedList(new ArrayList<>());
+        final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+
+        Crawl(String id, CrawlRequest request, String baseUrl) {
+            this.id = id;
+            this.partnerId = request.getPartnerId();
+            this.module = request.getModule();
+            this.baseUrl = baseUrl;
+            this.pageSize = Math.max(1, request.getPageSize());
+            this.concurrency = Math.min(Math.max(1, request.getConcurrency()), MAX_CONCURRENCY);
+            this.maxObjects = request.getMaxObjects();
+            AtomicInteger threads = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(concurrency, r -> {
+                Thread t = new Thread(r, "ocpi-crawl-" + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        void submit(Runnable task) {
+            pending.incrementAndGet();
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        pageFailed("-", e.toString(), 0, 0);
+                    } finally {
+                        taskDone();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                taskDone();
+            }
+        }
+
+        void taskDone() {
+            if (pending.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        void accept(JsonNode object) {
+            if (status != CrawlReport.Status.RUNNING) {
+                // Page still parsing after a cancel: the report is final
+                return;
+            }
+            long count = objects.incrementAndGet();
+            if (maxObjects > 0 && count > maxObjects) {
+                objects.decrementAndGet();
+                stopped = true;
+                return;
+            }
+
+            List<String> issues = new ArrayList<>(OCPIObjectValidator.validate(module, object));
+            String identity = object.isObject() ? OCPIObjectValidator.identity(module, object) : null;
+            if (identity != null && !seen.add(identity)) {
+                duplicates.increment();
+                issues.add("duplicate");
+            }
+            if (issues.isEmpty()) {
+                return;
+            }
+            invalid.increment();
+            for (String issue : issues) {
+                issueCounts.computeIfAbsent(issue, k -> new LongAdder()).increment();
+            }
+            if (sampleIssues.size() < MAX_SAMPLE_ISSUES) {
+                sampleIssues.add((identity != null ? identity : "?") + ": " + String.join(", ", issues));
+            }
+        }
+
+        void pageDone(PageResult page, long latencyMs) {
+            pages.increment();
+            bytes.add(page.bytes());
+            pageLatencyTotal.add(latencyMs);
+            pageLatencyMax.accumulateAndGet(latencyMs, Math::max);
+            if (page.totalCount() >= 0) {
+                reportedTotal.accumulateAndGet(page.totalCount(), Math::max);
+            }
+        }
+
+        void pageFailed(String url, String error, long latencyMs, long pageBytes) {
+            failedPages.increment();
+            bytes.add(pageBytes);
+            pageLatencyMax.accumulateAndGet(latencyMs, Math::max);
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(url + " -> " + error);
+            }
+            log.warn("OCPI crawl {}: page failed {} -> {}", id, url, error);
+        }
+
+        void cancel() {
+            stopped = true;
+            executor.shutdownNow();
+            finish(CrawlReport.Status.CANCELLED);
+        }
+
+        void finish() {
+            finish(pages.sum() == 0 && failedPages.sum() > 0
+                    ? CrawlReport.Status.FAILED
+                    : CrawlReport.Status.COMPLETED);
+        }
+
+        synchronized void finish(CrawlReport.Status finalStatus) {
+            if (status != CrawlReport.Status.RUNNING) {
+                return;
+            }
+            durationNanos = System.nanoTime() - startNanos;
+            endTime = Instant.now();
+            status = finalStatus;
+            executor.shutdown();
+            // Only the report is kept once finished, not one identity per object crawled
+            seen.clear();
+            done.countDown();
+            CrawlReport report = report();
+            log.info("OCPI crawl {} {}: {} objects ({} invalid, {} duplicates) in {} pages, {} ms, {} objects/s",
+                    id, finalStatus, report.getObjects(), report.getInvalidObjects(), report.getDuplicates(),
+                    report.getPages(), report.getDurationMs(), Math.round(report.getObjectsPerSecond()));
+        }
+
+        CrawlReport report() {
+            long elapsedNanos = status == CrawlReport.Status.RUNNING ? System.nanoTime() - startNanos : durationNanos;
+            double seconds = Math.max(elapsedNanos / 1e9, 1e-3);
+            long objectCount = objects.get();
+            long invalidCount = invalid.sum();
+            long pageCount = pages.sum();
+            long byteCount = bytes.sum();
+
+            Map<String, Long> issues = new TreeMap<>();
+            issueCounts.forEach((issue, count) -> issues.put(issue, count.sum()));
+
+            return CrawlReport.builder()
+                    .id(id)
+                    .partnerId(partnerId)
+                    .module(module)
+                    .status(status)
+                    .startTime(startTime)
+                    .endTime(endTime)
+                    .durationMs(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                    .pages(pageCount)
+                    .failedPages(failedPages.sum())
+                    .objects(objectCount)
+                    .validObjects(objectCount - invalidCount)
+                    .invalidObjects(invalidCount)
+                    .duplicates(duplicates.sum())
+                    .bytes(byteCount)
+                    .reportedTotal(reportedTotal.get())
+                    .objectsPerSecond(objectCount / seconds)
+                    .pagesPerSecond(pageCount / seconds)
+                    .megabytesPerSecond(byteCount / 1_048_576.0 / seconds)
+                    .avgPageLatencyMs(pageCount > 0 ? pageLatencyTotal.sum() / pageCount : 0)
+                    .maxPageLatencyMs(pageLatencyMax.get())
+                    .issueCounts(issues)
+                    .sampleIssues(copy(sampleIssues))
+                    .errors(copy(errors))
+                    .build();
+        }
+
+        private static List<String> copy(List<String> synchronizedList) {
+            synchronized (synchronizedList) {
+                return List.copyOf(synchronizedList);
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.evse.simulator.ocpi.OCPIModule;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural validation of OCPI 2.2.1 objects read by the crawler:
+ * required fields present and non-null, {@code last_updated} in RFC 3339 format.
+ */
+public final class OCPIObjectValidator {
+
+    private static final Map<OCPIModule, List<String>> REQUIRED_FIELDS = new EnumMap<>(OCPIModule.class);
+
+    static {
+        REQUIRED_FIELDS.put(OCPIModule.LOCATIONS, List.of(
+                "country_code", "party_id", "id", "publish", "address", "city", "country", "coordinates",
+                "time_zone", "last_updated"));
+        REQUIRED_FIELDS.put(OCPIModule.SESSIONS, List.of(
+                "country_code", "party_id", "id", "start_date_time", "kwh", "cdr_token", "auth_method",
+                "location_id", "evse_uid", "connector_id", "currency", "status", "last_updated"));
+        REQUIRED_FIELDS.put(OCPIModule.CDRS, List.of(
+                "country_code", "party_id", "id", "start_date_time", "end_date_time", "cdr_token", "auth_method",
+                "cdr_location", "currency", "charging_periods", "total_cost", "total_energy", "total_time",
+                "last_updated"));
+        REQUIRED_FIELDS.put(OCPIModule.TOKENS, List.of(
+                "country_code", "party_id", "uid", "type", "contract_id", "issuer", "valid", "whitelist",
+                "last_updated"));
+        REQUIRED_FIELDS.put(OCPIModule.TARIFFS, List.of(
+                "country_code", "party_id", "id", "currency", "elements", "last_updated"));
+    }
+
+    private OCPIObjectValidator() {
+    }
+
+    /**
+     * @return issues found, empty if the object is valid
+     */
+    public static List<String> validate(OCPIModule module, JsonNode object) {
+        if (object == null || !object.isObject()) {
+            return List.of("not a JSON object");
+        }
+        List<String> issues = new ArrayList<>(0);
+        for (String field : REQUIRED_FIELDS.getOrDefault(module, List.of())) {
+            JsonNode value = object.get(field);
+            if (value == null || value.isNull()) {
+                issues.add("missing " + field);
+            }
+        }
+        JsonNode lastUpdated = object.get("last_updated");
+        if (lastUpdated != null && lastUpdated.isTextual() && !isDateTime(lastUpdated.asText())) {
+            issues.add("invalid last_updated");
+        }
+        return issues;
+    }
+
+    /**
+     * Identity used for duplicate detection: country code, party id and id (uid for tokens).
+     */
+    public static String identity(OCPIModule module, JsonNode object) {
+        String id = module == OCPIModule.TOKENS ? object.path("uid").asText(null) : object.path("id").asText(null);
+        if (id == null) {
+            return null;
+        }
+        return object.path("country_code").asText("") + "/" + object.path("party_id").asText("") + "/" + id;
+    }
+
+    private static boolean isDateTime(String value) {
+        try {
+            Instant.parse(value);
+            return true;
+        } catch (DateTimeParseException e) {
+            // OCPI 2.1.1 allows timestamps without offset (implicit UTC)
+            try {
+                LocalDateTime.parse(value);
+                return true;
+            } catch (DateTimeParseException ignored) {
+                return false;
+            }
+        }
+    }
+}
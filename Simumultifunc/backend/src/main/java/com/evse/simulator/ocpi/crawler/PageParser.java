@@ -0,0 +1,127 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental parser of OCPI list responses.
+ * <p>
+ * Each element of the {@code data} array is materialized on its own and handed
+ * to the consumer as soon as it is read, so a page is never held in memory.
+ * Pagination comes from the {@code Link}, {@code X-Total-Count} and
+ * {@code X-Limit} headers.
+ * </p>
+ */
+final class PageParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Pattern NEXT_LINK = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"?next\"?", Pattern.CASE_INSENSITIVE);
+
+    private PageParser() {
+    }
+
+    static PageResult parse(int httpStatus, Map<String, List<String>> headers, InputStream body,
+                            Consumer<JsonNode> onObject) throws IOException {
+        CountingInputStream counting = new CountingInputStream(body);
+        int ocpiStatus = 0;
+        String statusMessage = null;
+        int objects = 0;
+
+        try (JsonParser parser = MAPPER.createParser(counting)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("OCPI response is not a JSON object (HTTP " + httpStatus + ")");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "status_code" -> ocpiStatus = parser.getValueAsInt();
+                    case "status_message" -> statusMessage = parser.getValueAsString();
+                    case "data" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                                onObject.accept(parser.readValueAsTree());
+                                objects++;
+                            }
+                        } else if (value == JsonToken.START_OBJECT) {
+                            onObject.accept(parser.readValueAsTree());
+                            objects++;
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new PageResult(httpStatus, ocpiStatus, statusMessage, objects, counting.count,
+                longHeader(headers, "X-Total-Count"), (int) longHeader(headers, "X-Limit"), nextLink(headers));
+    }
+
+    static String nextLink(Map<String, List<String>> headers) {
+        for (String link : header(headers, "Link")) {
+            Matcher matcher = NEXT_LINK.matcher(link);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    private static long longHeader(Map<String, List<String>> headers, String name) {
+        List<String> values = header(headers, name);
+        if (values.isEmpty()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(values.get(0).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static List<String> header(Map<String, List<String>> headers, String name) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        return List.of();
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
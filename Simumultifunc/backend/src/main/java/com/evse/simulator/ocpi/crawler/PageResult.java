@@ -0,0 +1,21 @@
+package com.evse.simulator.ocpi.crawler;
+
+/**
+ * Outcome of one streamed OCPI list page.
+ *
+ * @param httpStatus HTTP status code
+ * @param ocpiStatus OCPI {@code status_code}, 0 if absent
+ * @param statusMessage OCPI {@code status_message}, null if absent
+ * @param objects objects read from {@code data}
+ * @param bytes response body size
+ * @param totalCount {@code X-Total-Count}, -1 if absent
+ * @param limit {@code X-Limit}, -1 if absent
+ * @param nextUrl URL of the {@code Link rel="next"} header, null on the last page
+ */
+record PageResult(int httpStatus, int ocpiStatus, String statusMessage, int objects, long bytes,
+                  long totalCount, int limit, String nextUrl) {
+
+    boolean isSuccess() {
+        return httpStatus >= 200 && httpStatus < 300 && ocpiStatus >= 1000 && ocpiStatus < 2000;
+    }
+}
@@ -1,5 +1,9 @@
 package com.evse.simulator.ocpi.service;
 
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
+import com.evse.simulator.http.OutboundRequest;
+import com.evse.simulator.http.OutboundResponse;
 import com.evse.simulator.ocpi.OCPIModule;
 import com.evse.simulator.ocpi.model.*;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -8,27 +12,39 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * HTTP Client service for OCPI API calls.
  * Handles authentication, request building, and response parsing.
+ * <p>
+ * Requests go through the shared {@link OutboundHttpClient} (pooled connections,
+ * per-host concurrency limit, OCPI timeouts, metrics per partner). The
+ * {@code *Async} variants never block the caller; the synchronous methods wait
+ * for them.
+ * </p>
  */
 @Service
 @Slf4j
 public class OCPIClientService {
 
-    private final RestTemplate restTemplate;
+    private final OutboundHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    // Same request body serialization as the RestTemplate Jackson converter (ISO dates)
+    private final ObjectMapper bodyMapper = Jackson2ObjectMapperBuilder.json().build();
     private final PartnerService partnerService;
 
-    public OCPIClientService(PartnerService partnerService) {
+    public OCPIClientService(PartnerService partnerService, OutboundHttpClient httpClient) {
         this.partnerService = partnerService;
-        this.restTemplate = new RestTemplate();
+        this.httpClient = httpClient;
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
     }
@@ -317,6 +333,19 @@ public class OCPIClientService {
         return get(partnerId, url, ChargingProfile.ActiveChargingProfile.class);
     }
 
+    // =========================================================================
+    // Streaming
+    // =========================================================================
+
+    /**
+     * Execute a GET request and hand the response body to {@code reader} as it
+     * arrives, without loading it in memory (large paginated lists).
+     */
+    public <T> T stream(String partnerId, String url, OutboundHttpClient.BodyReader<T> reader)
+            throws IOException, InterruptedException {
+        return httpClient.exchange(buildRequest(partnerId, "GET", url, buildHeaders(partnerId), null), reader);
+    }
+
     // =========================================================================
     // Raw Request Builder (Postman-like)
     // =========================================================================
@@ -343,17 +372,10 @@ public class OCPIClientService {
                 customHeaders.forEach(headers::set);
             }
 
-            // Build request entity
-            HttpEntity<?> entity = body != null ? new HttpEntity<>(body, headers) : new HttpEntity<>(headers);
-
-            // Resolve HTTP method
-            HttpMethod httpMethod = HttpMethod.valueOf(method.toUpperCase());
-
             log.info("Executing raw OCPI request: {} {}", method, finalUrl);
 
-            long startTime = System.currentTimeMillis();
-            ResponseEntity<String> response = restTemplate.exchange(finalUrl, httpMethod, entity, String.class);
-            long latency = System.currentTimeMillis() - startTime;
+            OutboundResponse response = httpClient.send(
+                    buildRequest(partnerId, method.toUpperCase(), finalUrl, headers, body));
 
             // Parse OCPI envelope
             JsonNode root = null;
@@ -361,9 +383,9 @@ public class OCPIClientService {
             String ocpiStatusMessage = "";
             Object data = null;
 
-            if (response.getBody() != null && !response.getBody().isEmpty()) {
+            if (response.body() != null && !response.body().isEmpty()) {
                 try {
-                    root = objectMapper.readTree(response.getBody());
+                    root = objectMapper.readTree(response.body());
                     if (root.has("status_code")) {
                         ocpiStatusCode = root.get("status_code").asInt();
                     }
@@ -378,46 +400,38 @@ public class OCPIClientService {
                 }
             }
 
-            boolean success = response.getStatusCode().is2xxSuccessful()
+            if (!response.is2xxSuccessful()) {
+                // HTTP error (4xx, 5xx)
+                log.error("HTTP error on raw request: {} {} - {}", method, url, response.statusCode());
+                if (ocpiStatusMessage.isEmpty()) {
+                    ocpiStatusMessage = "HTTP " + response.statusCode();
+                }
+            }
+
+            boolean success = response.is2xxSuccessful()
                     && ocpiStatusCode >= 1000 && ocpiStatusCode < 2000;
 
             // Extract response headers
             Map<String, String> responseHeaders = new HashMap<>();
-            response.getHeaders().forEach((key, values) ->
+            response.headers().forEach((key, values) ->
                     responseHeaders.put(key, String.join(", ", values)));
 
             return RawOCPIResponse.builder()
                     .success(success)
-                    .httpStatus(response.getStatusCode().value())
+                    .httpStatus(response.statusCode())
                     .statusCode(ocpiStatusCode)
                     .statusMessage(ocpiStatusMessage)
                     .data(data)
-                    .rawBody(response.getBody())
-                    .responseHeaders(responseHeaders)
-                    .latencyMs(latency)
-                    .timestamp(Instant.now())
-                    .build();
-
-        } catch (org.springframework.web.client.HttpStatusCodeException e) {
-            // HTTP error (4xx, 5xx)
-            log.error("HTTP error on raw request: {} {} - {}", method, url, e.getStatusCode());
-
-            Map<String, String> responseHeaders = new HashMap<>();
-            e.getResponseHeaders().forEach((key, values) ->
-                    responseHeaders.put(key, String.join(", ", values)));
-
-            return RawOCPIResponse.builder()
-                    .success(false)
-                    .httpStatus(e.getStatusCode().value())
-                    .statusCode(0)
-                    .statusMessage(e.getStatusText())
-                    .rawBody(e.getResponseBodyAsString())
+                    .rawBody(response.body())
                     .responseHeaders(responseHeaders)
-                    .latencyMs(0)
+                    .latencyMs(response.latencyMs())
                     .timestamp(Instant.now())
                     .build();
 
         } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
             log.error("Raw OCPI request failed: {} {} - {}", method, url, e.getMessage());
             return RawOCPIResponse.builder()
                     .success(false)
@@ -453,45 +467,81 @@ public class OCPIClientService {
     // =========================================================================
 
     private <T> OCPIResponse<T> execute(String partnerId, HttpMethod method, String url, Object body, Class<T> responseType) {
-        try {
-            HttpHeaders headers = buildHeaders(partnerId);
-            HttpEntity<?> entity = body != null ? new HttpEntity<>(body, headers) : new HttpEntity<>(headers);
+        return executeAsync(partnerId, method, url, body, responseType).join();
+    }
 
-            long startTime = System.currentTimeMillis();
-            ResponseEntity<String> response = restTemplate.exchange(url, method, entity, String.class);
-            long latency = System.currentTimeMillis() - startTime;
+    private <T> OCPIResponse<T> execute(String partnerId, HttpMethod method, String url, Object body, TypeReference<T> typeRef) {
+        return executeAsync(partnerId, method, url, body, typeRef).join();
+    }
 
-            return parseResponse(response, responseType, latency);
-        } catch (Exception e) {
-            log.error("OCPI request failed: {} {} - {}", method, url, e.getMessage());
-            return OCPIResponse.<T>builder()
-                    .success(false)
-                    .statusCode(0)
-                    .statusMessage(e.getMessage())
-                    .timestamp(Instant.now())
-                    .build();
-        }
+    /**
+     * Execute a request without blocking the caller.
+     * The future always completes normally; failures are reported in the response.
+     */
+    public <T> CompletableFuture<OCPIResponse<T>> executeAsync(
+            String partnerId, HttpMethod method, String url, Object body, Class<T> responseType) {
+        return executeAsync(partnerId, method, url, body,
+                data -> responseType == Void.class ? null : objectMapper.treeToValue(data, responseType));
     }
 
-    private <T> OCPIResponse<T> execute(String partnerId, HttpMethod method, String url, Object body, TypeReference<T> typeRef) {
-        try {
-            HttpHeaders headers = buildHeaders(partnerId);
-            HttpEntity<?> entity = body != null ? new HttpEntity<>(body, headers) : new HttpEntity<>(headers);
+    /**
+     * Execute a request without blocking the caller, generic response type.
+     */
+    public <T> CompletableFuture<OCPIResponse<T>> executeAsync(
+            String partnerId, HttpMethod method, String url, Object body, TypeReference<T> typeRef) {
+        return executeAsync(partnerId, method, url, body,
+                data -> objectMapper.readValue(objectMapper.treeAsTokens(data), typeRef));
+    }
 
-            long startTime = System.currentTimeMillis();
-            ResponseEntity<String> response = restTemplate.exchange(url, method, entity, String.class);
-            long latency = System.currentTimeMillis() - startTime;
+    /**
+     * Reads the {@code data} field of an OCPI envelope.
+     */
+    @FunctionalInterface
+    private interface DataReader<T> {
+        T read(JsonNode data) throws IOException;
+    }
 
-            return parseResponse(response, typeRef, latency);
+    private <T> CompletableFuture<OCPIResponse<T>> executeAsync(
+            String partnerId, HttpMethod method, String url, Object body, DataReader<T> reader) {
+        OutboundRequest request;
+        try {
+            request = buildRequest(partnerId, method.name(), url, buildHeaders(partnerId), body);
         } catch (Exception e) {
             log.error("OCPI request failed: {} {} - {}", method, url, e.getMessage());
-            return OCPIResponse.<T>builder()
-                    .success(false)
-                    .statusCode(0)
-                    .statusMessage(e.getMessage())
-                    .timestamp(Instant.now())
-                    .build();
+            return CompletableFuture.completedFuture(failure(e));
         }
+        return httpClient.sendAsync(request)
+                .thenApply(response -> parseResponse(response, reader))
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    log.error("OCPI request failed: {} {} - {}", method, url, cause.getMessage());
+                    return failure(cause);
+                });
+    }
+
+    private OutboundRequest buildRequest(String partnerId, String method, String url, HttpHeaders headers, Object body)
+            throws IOException {
+        String payload = body == null || body instanceof String
+                ? (String) body
+                : bodyMapper.writeValueAsString(body);
+        return OutboundRequest.builder()
+                .module(OutboundModule.OCPI)
+                .partner(partnerId)
+                .method(method)
+                .uri(URI.create(url))
+                .headers(headers.toSingleValueMap())
+                .body(payload)
+                .build();
+    }
+
+    private static <T> OCPIResponse<T> failure(Throwable error) {
+        return OCPIResponse.<T>builder()
+                .success(false)
+                .statusCode(0)
+                .statusMessage(error.getMessage())
+                .timestamp(Instant.now())
+                .build();
     }
 
     private HttpHeaders buildHeaders(String partnerId) {
@@ -524,13 +574,13 @@ public class OCPIClientService {
         return headers;
     }
 
-    private <T> OCPIResponse<T> parseResponse(ResponseEntity<String> response, Class<T> type, long latency) {
+    private <T> OCPIResponse<T> parseResponse(OutboundResponse response, DataReader<T> reader) {
         try {
-            JsonNode root = objectMapper.readTree(response.getBody());
+            JsonNode root = objectMapper.readTree(response.body());
 
             OCPIResponse.OCPIResponseBuilder<T> builder = OCPIResponse.<T>builder()
-                    .httpStatusCode(response.getStatusCode().value())
-                    .latencyMs(latency)
+                    .httpStatusCode(response.statusCode())
+                    .latencyMs(response.latencyMs())
                     .timestamp(Instant.now());
 
             if (root.has("status_code")) {
@@ -538,56 +588,19 @@ public class OCPIClientService {
             }
             if (root.has("status_message")) {
                 builder.statusMessage(root.get("status_message").asText());
+            } else if (!response.is2xxSuccessful()) {
+                builder.statusMessage("HTTP " + response.statusCode());
             }
             if (root.has("timestamp")) {
                 builder.ocpiTimestamp(root.get("timestamp").asText());
             }
 
-            boolean success = response.getStatusCode().is2xxSuccessful()
-                    && (root.has("status_code") && root.get("status_code").asInt() >= 1000 && root.get("status_code").asInt() < 2000);
-            builder.success(success);
-
-            if (root.has("data") && type != Void.class) {
-                T data = objectMapper.treeToValue(root.get("data"), type);
-                builder.data(data);
-            }
-
-            return builder.build();
-        } catch (Exception e) {
-            log.error("Failed to parse OCPI response: {}", e.getMessage());
-            return OCPIResponse.<T>builder()
-                    .success(false)
-                    .httpStatusCode(response.getStatusCode().value())
-                    .statusMessage("Failed to parse response: " + e.getMessage())
-                    .latencyMs(latency)
-                    .timestamp(Instant.now())
-                    .build();
-        }
-    }
-
-    private <T> OCPIResponse<T> parseResponse(ResponseEntity<String> response, TypeReference<T> typeRef, long latency) {
-        try {
-            JsonNode root = objectMapper.readTree(response.getBody());
-
-            OCPIResponse.OCPIResponseBuilder<T> builder = OCPIResponse.<T>builder()
-                    .httpStatusCode(response.getStatusCode().value())
-                    .latencyMs(latency)
-                    .timestamp(Instant.now());
-
-            if (root.has("status_code")) {
-                builder.statusCode(root.get("status_code").asInt());
-            }
-            if (root.has("status_message")) {
-                builder.statusMessage(root.get("status_message").asText());
-            }
-
-            boolean success = response.getStatusCode().is2xxSuccessful()
+            boolean success = response.is2xxSuccessful()
                     && (root.has("status_code") && root.get("status_code").asInt() >= 1000 && root.get("status_code").asInt() < 2000);
             builder.success(success);
 
             if (root.has("data")) {
-                T data = objectMapper.readValue(objectMapper.treeAsTokens(root.get("data")), typeRef);
-                builder.data(data);
+                builder.data(reader.read(root.get("data")));
             }
 
             return builder.build();
@@ -595,9 +608,11 @@ public class OCPIClientService {
             log.error("Failed to parse OCPI response: {}", e.getMessage());
             return OCPIResponse.<T>builder()
                     .success(false)
-                    .httpStatusCode(response.getStatusCode().value())
-                    .statusMessage("Failed to parse response: " + e.getMessage())
-                    .latencyMs(latency)
+                    .httpStatusCode(response.statusCode())
+                    .statusMessage(response.is2xxSuccessful()
+                            ? "Failed to parse response: " + e.getMessage()
+                            : "HTTP " + response.statusCode())
+                    .latencyMs(response.latencyMs())
                     .timestamp(Instant.now())
                     .build();
         }
@@ -1,5 +1,7 @@
 package com.evse.simulator.ocpi.test;
 
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
 import com.evse.simulator.ocpi.OCPIModule;
 import com.evse.simulator.ocpi.model.Partner;
 import com.evse.simulator.ocpi.service.OCPIClientService;
@@ -35,11 +37,12 @@ public class OCPITestRunner {
     // Active test executions
     private final Map<String, OCPITestResult> activeTests = new ConcurrentHashMap<>();
 
-    public OCPITestRunner(PartnerService partnerService, OCPIClientService ocpiClient, OCPITestRepository testRepository) {
+    public OCPITestRunner(PartnerService partnerService, OCPIClientService ocpiClient, OCPITestRepository testRepository,
+                          OutboundHttpClient httpClient) {
         this.partnerService = partnerService;
         this.ocpiClient = ocpiClient;
         this.testRepository = testRepository;
-        this.restTemplate = new RestTemplate();
+        this.restTemplate = httpClient.restTemplate(OutboundModule.OCPI);
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
     }
@@ -0,0 +1,28 @@
+package com.evse.simulator.ocpp.capture;
+
+/**
+ * Niveau de capture du trafic OCPP d'une session.
+ */
+public enum CaptureLevel {
+
+    /**
+     * Aucune capture.
+     */
+    OFF,
+
+    /**
+     * En-têtes seulement (action, messageId, horodatage), sans payload.
+     */
+    HEADERS,
+
+    /**
+     * En-têtes de tous les échanges, payload d'un CALL sur N (et de sa réponse),
+     * erreurs et timeouts toujours complets. Défaut des tests de charge.
+     */
+    SAMPLED,
+
+    /**
+     * Tout est conservé, historique de session et diffusion temps réel compris.
+     */
+    FULL
+}
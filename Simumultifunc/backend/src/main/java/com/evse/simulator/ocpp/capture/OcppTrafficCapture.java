@@ -0,0 +1,223 @@
+package com.evse.simulator.ocpp.capture;
+
+import com.evse.simulator.config.OcppProperties;
+import com.evse.simulator.model.LogEntry;
+import com.evse.simulator.model.OCPPMessage;
+import com.evse.simulator.model.enums.OCPPAction;
+import com.evse.simulator.model.enums.OCPPMessageType;
+import com.evse.simulator.ocpp.codec.EncodedCall;
+import com.evse.simulator.ocpp.codec.OcppFrameEncoder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Capture différée du trafic OCPP, avec un niveau de verbosité par session.
+ * <p>
+ * Chaque échange est conservé dans un tampon circulaire sous forme de
+ * {@link TrafficRecord} (références vers la trame déjà encodée ou le payload
+ * reçu). Les {@link OCPPMessage} et {@link LogEntry} ne sont construits qu'à la
+ * lecture, par l'API. Seul le niveau {@link CaptureLevel#FULL} alimente en plus
+ * l'historique de session et la diffusion temps réel ({@link #isLive}).
+ * </p>
+ * <p>
+ * Seuls {@link #setLevel} et {@link #recordCall} créent l'entrée d'une
+ * session ; réponses, erreurs, délais dépassés et lectures n'en créent pas,
+ * pour qu'un échange tardif ne ressuscite pas une session supprimée.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OcppTrafficCapture {
+
+    private static final String CATEGORY = "OCPP";
+
+    private final OcppProperties properties;
+    private final OcppFrameEncoder frameEncoder;
+
+    private final Map<String, SessionTraffic> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Statistiques de capture d'une session.
+     */
+    public record Stats(String sessionId, CaptureLevel level, long captured, int retained, int capacity) {}
+
+    // =========================================================================
+    // Niveau
+    // =========================================================================
+
+    public CaptureLevel getLevel(String sessionId) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        return traffic != null ? traffic.level : properties.getCapture().getDefaultLevel();
+    }
+
+    public void setLevel(String sessionId, CaptureLevel level) {
+        traffic(sessionId).level = Objects.requireNonNull(level, "level");
+        log.debug("[{}] OCPP traffic capture level: {}", sessionId, level);
+    }
+
+    /**
+     * @return true si les échanges doivent aussi alimenter l'historique de session
+     *         et la diffusion temps réel (niveau FULL)
+     */
+    public boolean isLive(String sessionId) {
+        return getLevel(sessionId) == CaptureLevel.FULL;
+    }
+
+    public void remove(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    // =========================================================================
+    // Enregistrement
+    // =========================================================================
+
+    public void recordCall(String sessionId, EncodedCall call) {
+        SessionTraffic traffic = traffic(sessionId);
+        CaptureLevel level = traffic.level;
+        if (level == CaptureLevel.OFF) {
+            return;
+        }
+        boolean withBody = level == CaptureLevel.FULL
+                || (level == CaptureLevel.SAMPLED
+                    && traffic.sampleCall(call.messageId(), properties.getCapture().getSampleEvery()));
+        traffic.add(new TrafficRecord(System.currentTimeMillis(), TrafficRecord.Kind.CALL,
+                call.messageId(), call.action(), withBody ? call : null, null, null, null));
+    }
+
+    public void recordResult(String sessionId, String messageId, Map<String, Object> payload) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        if (traffic == null) {
+            return;
+        }
+        CaptureLevel level = traffic.level;
+        if (level == CaptureLevel.OFF) {
+            return;
+        }
+        boolean withBody = level == CaptureLevel.FULL
+                || (level == CaptureLevel.SAMPLED && traffic.takeSampled(messageId));
+        traffic.add(new TrafficRecord(System.currentTimeMillis(), TrafficRecord.Kind.RESULT,
+                messageId, null, null, withBody ? payload : null, null, null));
+    }
+
+    /**
+     * Les erreurs sont toujours conservées complètes, sauf au niveau OFF.
+     */
+    public void recordError(String sessionId, String messageId, String errorCode, String errorDescription) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        if (traffic == null || traffic.level == CaptureLevel.OFF) {
+            return;
+        }
+        traffic.takeSampled(messageId);
+        traffic.add(new TrafficRecord(System.currentTimeMillis(), TrafficRecord.Kind.ERROR,
+                messageId, null, null, null, errorCode, errorDescription));
+    }
+
+    public void recordTimeout(String sessionId, String messageId, String action) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        if (traffic == null || traffic.level == CaptureLevel.OFF) {
+            return;
+        }
+        traffic.takeSampled(messageId);
+        traffic.add(new TrafficRecord(System.currentTimeMillis(), TrafficRecord.Kind.TIMEOUT,
+                messageId, action, null, null, null, null));
+    }
+
+    private SessionTraffic traffic(String sessionId) {
+        return sessions.computeIfAbsent(sessionId, id -> new SessionTraffic(
+                properties.getCapture().getDefaultLevel(), properties.getCapture().getBufferSize()));
+    }
+
+    // =========================================================================
+    // Lecture (matérialisation à la demande)
+    // =========================================================================
+
+    /**
+     * @return les derniers messages OCPP capturés, du plus ancien au plus récent
+     */
+    public List<OCPPMessage> getMessages(String sessionId, int limit) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        if (traffic == null) {
+            return List.of();
+        }
+        return traffic.latest(limit).stream()
+                .filter(record -> record.kind() != TrafficRecord.Kind.TIMEOUT)
+                .map(record -> toOcppMessage(sessionId, record))
+                .toList();
+    }
+
+    /**
+     * @return les lignes de log des derniers échanges, du plus ancien au plus récent
+     */
+    public List<LogEntry> getLogs(String sessionId, int limit) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        if (traffic == null) {
+            return List.of();
+        }
+        return traffic.latest(limit).stream().map(this::toLogEntry).toList();
+    }
+
+    public Stats getStats(String sessionId) {
+        SessionTraffic traffic = sessions.get(sessionId);
+        int capacity = properties.getCapture().getBufferSize();
+        if (traffic == null) {
+            return new Stats(sessionId, getLevel(sessionId), 0, 0, capacity);
+        }
+        return new Stats(sessionId, traffic.level, traffic.total(), traffic.retained(), capacity);
+    }
+
+    private OCPPMessage toOcppMessage(String sessionId, TrafficRecord record) {
+        OCPPMessage.OCPPMessageBuilder message = OCPPMessage.builder()
+                .messageId(record.messageId())
+                .sessionId(sessionId)
+                .timestamp(toLocalDateTime(record.timestampMs()));
+        switch (record.kind()) {
+            case CALL -> message
+                    .messageType(OCPPMessageType.CALL)
+                    .action(OCPPAction.fromValue(record.action()))
+                    .actionName(record.action())
+                    .rawMessage(record.call() != null ? record.call().frame() : null)
+                    .direction(OCPPMessage.Direction.OUTGOING)
+                    .responseStatus(OCPPMessage.ResponseStatus.PENDING);
+            case RESULT -> message
+                    .messageType(OCPPMessageType.CALL_RESULT)
+                    .payload(record.payload())
+                    .direction(OCPPMessage.Direction.INCOMING)
+                    .responseStatus(OCPPMessage.ResponseStatus.ACCEPTED);
+            default -> message
+                    .messageType(OCPPMessageType.CALL_ERROR)
+                    .errorCode(record.errorCode())
+                    .errorDescription(record.errorDescription())
+                    .direction(OCPPMessage.Direction.INCOMING)
+                    .responseStatus(OCPPMessage.ResponseStatus.ERROR);
+        }
+        return message.build();
+    }
+
+    private LogEntry toLogEntry(TrafficRecord record) {
+        LogEntry entry = switch (record.kind()) {
+            case CALL -> LogEntry.info(CATEGORY, ">> Sent " + record.action()
+                    + (record.call() != null ? " " + record.call().payloadJson() : ""));
+            case RESULT -> LogEntry.success(CATEGORY, "<< RESULT "
+                    + (record.payload() != null ? frameEncoder.toJson(record.payload()) : "[" + record.messageId() + "]"));
+            case ERROR -> LogEntry.error(CATEGORY,
+                    "<< ERROR [" + record.errorCode() + "] " + record.errorDescription());
+            case TIMEOUT -> LogEntry.warn(CATEGORY, "!! Timeout waiting for " + record.action() + " response");
+        };
+        entry.setTimestamp(toLocalDateTime(record.timestampMs()));
+        return entry;
+    }
+
+    private static LocalDateTime toLocalDateTime(long timestampMs) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestampMs), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,69 @@
+package com.evse.simulator.ocpp.capture;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tampon circulaire des échanges d'une session.
+ */
+final class SessionTraffic {
+
+    private final TrafficRecord[] ring;
+    private int next;
+    private long total;
+    private long calls;
+
+    // CALLs échantillonnés en attente de réponse : leur réponse est conservée complète
+    private final Set<String> sampledPending = new HashSet<>();
+
+    volatile CaptureLevel level;
+
+    SessionTraffic(CaptureLevel level, int capacity) {
+        this.level = level;
+        this.ring = new TrafficRecord[capacity];
+    }
+
+    synchronized void add(TrafficRecord record) {
+        ring[next] = record;
+        next = (next + 1) % ring.length;
+        total++;
+    }
+
+    /**
+     * @return true pour un CALL sur {@code every}
+     */
+    synchronized boolean sampleCall(String messageId, int every) {
+        boolean sampled = calls++ % every == 0;
+        if (sampled) {
+            sampledPending.add(messageId);
+        }
+        return sampled;
+    }
+
+    synchronized boolean takeSampled(String messageId) {
+        return sampledPending.remove(messageId);
+    }
+
+    /**
+     * @return les {@code limit} derniers échanges, du plus ancien au plus récent
+     */
+    synchronized List<TrafficRecord> latest(int limit) {
+        int size = (int) Math.min(total, ring.length);
+        int count = Math.min(size, Math.max(limit, 0));
+        List<TrafficRecord> records = new ArrayList<>(count);
+        for (int i = count; i > 0; i--) {
+            records.add(ring[Math.floorMod(next - i, ring.length)]);
+        }
+        return records;
+    }
+
+    synchronized long total() {
+        return total;
+    }
+
+    synchronized int retained() {
+        return (int) Math.min(total, ring.length);
+    }
+}
@@ -0,0 +1,34 @@
+package com.evse.simulator.ocpp.capture;
+
+import com.evse.simulator.ocpp.codec.EncodedCall;
+
+import java.util.Map;
+
+/**
+ * Échange OCPP capturé : références vers la trame encodée ou le payload reçu,
+ * sans construction de {@code OCPPMessage} ni de {@code LogEntry}.
+ *
+ * @param timestampMs horodatage (ms)
+ * @param kind        nature de l'échange
+ * @param messageId   identifiant du message
+ * @param action      action OCPP (CALL et timeout), null pour les réponses
+ * @param call        trame du CALL sortant, null si seuls les en-têtes sont conservés
+ * @param payload     payload de la réponse reçue, null si seuls les en-têtes sont conservés
+ * @param errorCode   code d'erreur (CALLERROR)
+ * @param errorDescription description de l'erreur (CALLERROR)
+ */
+public record TrafficRecord(long timestampMs, Kind kind, String messageId, String action,
+                            EncodedCall call, Map<String, Object> payload,
+                            String errorCode, String errorDescription) {
+
+    public enum Kind {
+        CALL,
+        RESULT,
+        ERROR,
+        TIMEOUT
+    }
+
+    public boolean hasBody() {
+        return call != null || payload != null;
+    }
+}
@@ -0,0 +1,40 @@
+package com.evse.simulator.ocpp.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Trame CALL OCPP-J encodée une seule fois, partagée par l'envoi, les logs et le TNR.
+ * <p>
+ * La trame est conservée en octets UTF-8 et envoyée telle quelle ; les chaînes
+ * ({@link #frame()}, {@link #payloadJson()}) ne sont décodées qu'à la lecture.
+ * </p>
+ *
+ * @param messageId    identifiant du message
+ * @param action       nom de l'action
+ * @param bytes        trame complète {@code [2,"messageId","Action",{...}]} en UTF-8, non modifiée après encodage
+ * @param payloadStart position en octets du payload dans la trame
+ */
+public record EncodedCall(String messageId, String action, byte[] bytes, int payloadStart) {
+
+    /**
+     * @return la trame à envoyer, sans copie
+     */
+    public ByteBuffer buffer() {
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * @return la trame décodée (logs, historique)
+     */
+    public String frame() {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return le JSON du payload, extrait de la trame sans resérialisation
+     */
+    public String payloadJson() {
+        return new String(bytes, payloadStart, bytes.length - 1 - payloadStart, StandardCharsets.UTF_8);
+    }
+}
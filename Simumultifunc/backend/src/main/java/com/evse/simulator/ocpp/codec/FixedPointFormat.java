@@ -0,0 +1,85 @@
+package com.evse.simulator.ocpp.codec;
+
+import java.util.Locale;
+
+/**
+ * Formatage décimal à virgule fixe des valeurs OCPP, sans {@link String#format}.
+ * <p>
+ * Même rendu que {@code String.format(Locale.ROOT, "%.Nf", value)} : point décimal
+ * quelle que soit la locale, arrondi au plus proche (demi vers le haut en valeur
+ * absolue), signe conservé pour les valeurs négatives arrondies à zéro. Seule
+ * différence : l'arrondi porte sur la valeur binaire, si bien qu'une égalité
+ * décimale non représentable (0.015) peut s'arrondir vers le bas là où
+ * {@code Formatter} arrondit sa représentation décimale vers le haut. Les valeurs
+ * non finies ou trop grandes pour un {@code long} retombent sur {@link String#format}.
+ * </p>
+ */
+public final class FixedPointFormat {
+
+    /**
+     * Taille de buffer suffisante pour toute valeur formatée par {@link #format(double, int, char[])}
+     * (signe, 309 chiffres de {@link Double#MAX_VALUE}, point, 6 décimales).
+     */
+    public static final int MAX_LENGTH = 320;
+
+    private static final int MAX_DECIMALS = 6;
+    private static final long[] POW10 = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final double MAX_SCALED = 1e15;
+
+    private FixedPointFormat() {
+    }
+
+    /**
+     * Écrit {@code value} avec {@code decimals} chiffres après le point dans {@code buf}.
+     *
+     * @param buf buffer d'au moins {@link #MAX_LENGTH} caractères
+     * @return nombre de caractères écrits
+     */
+    public static int format(double value, int decimals, char[] buf) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Unsupported decimals: " + decimals);
+        }
+        double scaledAbs = Math.abs(value) * POW10[decimals];
+        if (!(scaledAbs < MAX_SCALED)) {
+            String fallback = String.format(Locale.ROOT, "%." + decimals + "f", value);
+            fallback.getChars(0, fallback.length(), buf, 0);
+            return fallback.length();
+        }
+
+        long scaled = Math.round(scaledAbs);
+        long integerPart = scaled / POW10[decimals];
+        long fraction = scaled % POW10[decimals];
+
+        int pos = 0;
+        if (Double.doubleToRawLongBits(value) < 0) {
+            buf[pos++] = '-';
+        }
+        pos = writeDigits(integerPart, buf, pos);
+        if (decimals > 0) {
+            buf[pos++] = '.';
+            for (int i = decimals - 1; i >= 0; i--) {
+                buf[pos + i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            pos += decimals;
+        }
+        return pos;
+    }
+
+    public static String format(double value, int decimals) {
+        char[] buf = new char[MAX_LENGTH];
+        return new String(buf, 0, format(value, decimals, buf));
+    }
+
+    private static int writeDigits(long value, char[] buf, int pos) {
+        int length = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            length++;
+        }
+        for (int i = pos + length - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + length;
+    }
+}
@@ -0,0 +1,105 @@
+package com.evse.simulator.ocpp.codec;
+
+import com.evse.simulator.exception.OCPPException;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Encode les CALL OCPP-J sortants en streaming, dans un buffer d'octets réutilisé
+ * par thread.
+ * <p>
+ * Le payload est écrit directement dans le générateur de la trame : soit par un
+ * {@link PayloadWriter} typé (MeterValues), soit par sérialisation de la map du
+ * handler. La trame n'est produite qu'une fois, en octets UTF-8 envoyés sans
+ * passer par une chaîne ; le log et le TNR en extraient le payload via
+ * {@link EncodedCall#payloadJson()}.
+ * </p>
+ */
+@Component
+public class OcppFrameEncoder {
+
+    private static final int CALL = 2;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    // Au-delà, le buffer n'est pas conservé pour ne pas retenir une trame exceptionnelle
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final ObjectWriter mapWriter;
+    private final ThreadLocal<ByteArrayOutputStream> buffers =
+            ThreadLocal.withInitial(() -> new ByteArrayOutputStream(INITIAL_BUFFER_SIZE));
+
+    public OcppFrameEncoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.mapWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Encode un CALL dont le payload est écrit par {@code payloadWriter}.
+     */
+    public EncodedCall encodeCall(String messageId, String action, PayloadWriter payloadWriter) {
+        ByteArrayOutputStream buffer = buffers.get();
+        buffer.reset();
+        int payloadStart;
+        try (JsonGenerator gen = jsonFactory.createGenerator(buffer)) {
+            gen.writeStartArray();
+            gen.writeNumber(CALL);
+            gen.writeString(messageId);
+            gen.writeString(action);
+            gen.flush();
+            // Position en octets, appliquée aux octets : +1 pour la virgule écrite avant le payload
+            payloadStart = buffer.size() + 1;
+            payloadWriter.write(gen);
+            gen.writeEndArray();
+        } catch (IOException e) {
+            throw new OCPPException("Failed to encode " + action + " frame", e);
+        }
+
+        byte[] frame = buffer.toByteArray();
+        if (frame.length > MAX_RETAINED_BUFFER_SIZE) {
+            buffers.remove();
+        }
+        return new EncodedCall(messageId, action, frame, payloadStart);
+    }
+
+    /**
+     * Encode un CALL dont le payload est une map construite par un handler.
+     */
+    public EncodedCall encodeCall(String messageId, String action, Map<String, Object> payload) {
+        Map<String, Object> body = payload != null ? payload : Map.of();
+        return encodeCall(messageId, action, gen -> mapWriter.writeValue(gen, body));
+    }
+
+    /**
+     * Relit le payload d'une trame encodée (TNR, historique), hors chemin d'envoi.
+     */
+    public Map<String, Object> decodePayload(EncodedCall call) {
+        try {
+            return objectMapper.readValue(call.payloadJson(), MAP_TYPE);
+        } catch (IOException e) {
+            throw new OCPPException("Failed to decode " + call.action() + " payload", e);
+        }
+    }
+
+    /**
+     * Sérialise une map en JSON compact (logs).
+     */
+    public String toJson(Map<String, Object> map) {
+        try {
+            return mapWriter.writeValueAsString(map);
+        } catch (IOException e) {
+            return "{}";
+        }
+    }
+}
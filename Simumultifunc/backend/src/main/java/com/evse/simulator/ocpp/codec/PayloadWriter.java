@@ -0,0 +1,14 @@
+package com.evse.simulator.ocpp.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Écrit un payload OCPP (objet JSON complet) directement dans le générateur de la trame.
+ */
+@FunctionalInterface
+public interface PayloadWriter {
+
+    void write(JsonGenerator gen) throws IOException;
+}
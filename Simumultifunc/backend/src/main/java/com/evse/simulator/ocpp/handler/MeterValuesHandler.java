@@ -2,8 +2,11 @@ package com.evse.simulator.ocpp.handler;
 
 import com.evse.simulator.model.Session;
 import com.evse.simulator.model.enums.OCPPAction;
+import com.evse.simulator.ocpp.codec.FixedPointFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -13,14 +16,23 @@ import java.util.concurrent.CompletableFuture;
  * Handler pour le message MeterValues.
  * Envoie les valeurs de compteur pendant une charge.
  * Format simplifié: Energy, Current/Voltage par phase, Temperature, Power.Offered
+ * <p>
+ * Les valeurs sont calculées une fois puis écrites soit en map ({@link #buildPayload}),
+ * soit directement dans la trame ({@link #writePayload}).
+ * </p>
  */
 @Component
-public class MeterValuesHandler extends AbstractOcppHandler {
+public class MeterValuesHandler extends AbstractOcppHandler implements StreamingPayloadHandler {
 
     private static final String CONTEXT_PERIODIC = "Sample.Periodic";
     private static final String CONTEXT_CLOCK_ALIGNED = "Sample.Clock";
     private static final String LOCATION_INLET = "Inlet";
     private static final String LOCATION_BODY = "Body";
+    private static final String[] PHASE_NAMES = {"L1", "L2", "L3"};
+    private static final double[] VOLTAGE_VARIATIONS = {0, -3, 1};
+    // Buffer de formatage des valeurs, un par thread d'envoi
+    private static final ThreadLocal<char[]> VALUE_BUFFER =
+            ThreadLocal.withInitial(() -> new char[FixedPointFormat.MAX_LENGTH]);
 
     @Override
     public OCPPAction getAction() {
@@ -32,8 +44,14 @@ public class MeterValuesHandler extends AbstractOcppHandler {
         int connectorId = context.getConnectorId() > 0 ? context.getConnectorId() : 1;
         Integer transactionId = context.getTransactionId();
 
+        List<Map<String, Object>> sampledValues = new ArrayList<>();
+        emitSamples(context, sampledValues, readingContext(context), this::addSampledValue);
+
         List<Map<String, Object>> meterValue = new ArrayList<>();
-        meterValue.add(buildMeterValueSample(context));
+        meterValue.add(createPayload(
+            "timestamp", formatTimestamp(),
+            "sampledValue", sampledValues
+        ));
 
         Map<String, Object> payload = createPayload(
             "connectorId", connectorId,
@@ -48,29 +66,73 @@ public class MeterValuesHandler extends AbstractOcppHandler {
     }
 
     /**
-     * Construit un échantillon de valeurs de compteur simplifié.
-     * Format: Energy totale, Current par phase, Voltage par phase, Temperature, Power.Offered
+     * Écrit le même payload que {@link #buildPayload} directement dans la trame,
+     * valeurs formatées en virgule fixe sans chaîne intermédiaire ni liste
+     * d'échantillons.
      */
-    private Map<String, Object> buildMeterValueSample(OcppMessageContext context) {
-        List<Map<String, Object>> sampledValues = new ArrayList<>();
+    @Override
+    public void writePayload(OcppMessageContext context, JsonGenerator gen) throws IOException {
+        int connectorId = context.getConnectorId() > 0 ? context.getConnectorId() : 1;
 
+        gen.writeStartObject();
+        gen.writeNumberField("connectorId", connectorId);
+        gen.writeArrayFieldStart("meterValue");
+        gen.writeStartObject();
+        gen.writeStringField("timestamp", formatTimestamp());
+        gen.writeArrayFieldStart("sampledValue");
+        emitSamples(context, gen, readingContext(context), MeterValuesHandler::writeSampledValue);
+        gen.writeEndArray();
+        gen.writeEndObject();
+        gen.writeEndArray();
+        if (context.getTransactionId() != null) {
+            gen.writeNumberField("transactionId", context.getTransactionId());
+        }
+        gen.writeEndObject();
+    }
+
+    /**
+     * Reçoit chaque valeur échantillonnée avant formatage.
+     *
+     * @param <T> destination (générateur JSON ou liste de maps)
+     * @param <E> exception levée par l'écriture
+     */
+    @FunctionalInterface
+    private interface SampleSink<T, E extends Exception> {
+
+        /**
+         * @param target         destination de l'échantillon
+         * @param readingContext contexte de lecture (Sample.Periodic ou Sample.Clock)
+         * @param value          valeur mesurée
+         * @param decimals       chiffres après la virgule
+         * @param measurand      type de mesure
+         * @param unit           unité de mesure
+         * @param location       emplacement (Inlet, Body, etc.) ou null
+         * @param phase          phase (L1, L2, L3) ou null
+         */
+        void accept(T target, String readingContext, double value, int decimals, String measurand,
+                    String unit, String location, String phase) throws E;
+    }
+
+    /**
+     * Déterminer le contexte de lecture (Sample.Periodic ou Sample.Clock).
+     */
+    private String readingContext(OcppMessageContext context) {
+        return context.getReadingContext() != null ? context.getReadingContext() : CONTEXT_PERIODIC;
+    }
+
+    /**
+     * Produit un échantillon de valeurs de compteur simplifié, valeur par valeur.
+     * Format: Energy totale, Current par phase, Voltage par phase, Temperature, Power.Offered
+     */
+    private static <T, E extends Exception> void emitSamples(OcppMessageContext context, T target,
+                                                             String readingContext,
+                                                             SampleSink<T, E> sink) throws E {
         Session session = context.getSession();
         int phases = session != null ? session.getEffectivePhases() : 3;
 
-        // Déterminer le contexte de lecture (Sample.Periodic ou Sample.Clock)
-        String readingContext = context.getReadingContext() != null ?
-            context.getReadingContext() : CONTEXT_PERIODIC;
-
         // 1. Énergie active importée totale (Wh)
         long energyWh = context.getMeterValue() != null ? context.getMeterValue() : 0L;
-        sampledValues.add(createSampledValue(
-            String.valueOf(energyWh),
-            "Energy.Active.Import.Register",
-            "Wh",
-            LOCATION_INLET,
-            null,
-            readingContext
-        ));
+        sink.accept(target, readingContext, energyWh, 0, "Energy.Active.Import.Register", "Wh", LOCATION_INLET, null);
 
         if (session != null) {
             double voltageV = session.getVoltage();
@@ -94,46 +156,23 @@ public class MeterValuesHandler extends AbstractOcppHandler {
 
             // 2. Courant par phase (L1, L2, L3) - calculé depuis puissance réelle
             //    AC: currentImport = MIN(setpoint, CNL, physLim)
-            String[] phaseNames = {"L1", "L2", "L3"};
             for (int i = 0; i < Math.min(phases, 3); i++) {
-                sampledValues.add(createSampledValue(
-                    String.format("%.2f", currentA),
-                    "Current.Import",
-                    "A",
-                    LOCATION_INLET,
-                    phaseNames[i],
-                    readingContext
-                ));
+                sink.accept(target, readingContext, currentA, 2, "Current.Import", "A", LOCATION_INLET, PHASE_NAMES[i]);
             }
 
             // 2b. Current.Offered par phase (AC uniquement)
             //     AC: currentOffered = MIN(setpoint, physLim) - sans CNL véhicule
             if (!isDC && offeredCurrentA > 0) {
                 for (int i = 0; i < Math.min(phases, 3); i++) {
-                    sampledValues.add(createSampledValue(
-                        String.format("%.2f", offeredCurrentA),
-                        "Current.Offered",
-                        "A",
-                        LOCATION_INLET,
-                        phaseNames[i],
-                        readingContext
-                    ));
+                    sink.accept(target, readingContext, offeredCurrentA, 2, "Current.Offered", "A", LOCATION_INLET, PHASE_NAMES[i]);
                 }
             }
 
             // 3. Tension par phase (L1, L2, L3)
             // Légère variation réaliste entre phases
-            double[] voltageVariations = {0, -3, 1};
             for (int i = 0; i < Math.min(phases, 3); i++) {
-                int voltage = (int) Math.round(phaseVoltage + voltageVariations[i]);
-                sampledValues.add(createSampledValue(
-                    String.valueOf(voltage),
-                    "Voltage",
-                    "V",
-                    LOCATION_INLET,
-                    phaseNames[i],
-                    readingContext
-                ));
+                int voltage = (int) Math.round(phaseVoltage + VOLTAGE_VARIATIONS[i]);
+                sink.accept(target, readingContext, voltage, 0, "Voltage", "V", LOCATION_INLET, PHASE_NAMES[i]);
             }
 
             // 4. Température
@@ -141,58 +180,46 @@ public class MeterValuesHandler extends AbstractOcppHandler {
             if (temperature <= 0 || temperature == 25.0) {
                 temperature = 12; // Valeur par défaut réaliste
             }
-            sampledValues.add(createSampledValue(
-                String.valueOf((int) temperature),
-                "Temperature",
-                "Celsius",
-                LOCATION_BODY,
-                null,
-                readingContext
-            ));
+            sink.accept(target, readingContext, (int) temperature, 0, "Temperature", "Celsius", LOCATION_BODY, null);
 
             // 5. Power.Active.Import (puissance actuelle consommée)
-            sampledValues.add(createSampledValue(
-                String.valueOf((int) powerActiveW),
-                "Power.Active.Import",
-                "W",
-                null,
-                null,
-                readingContext
-            ));
+            sink.accept(target, readingContext, (int) powerActiveW, 0, "Power.Active.Import", "W", null, null);
 
             // 6. Power.Offered (puissance maximale offerte)
-            sampledValues.add(createSampledValue(
-                String.valueOf((int) powerOfferedW),
-                "Power.Offered",
-                "W",
-                null,
-                null,
-                readingContext
-            ));
+            sink.accept(target, readingContext, (int) powerOfferedW, 0, "Power.Offered", "W", null, null);
         }
+    }
 
-        return createPayload(
-            "timestamp", formatTimestamp(),
-            "sampledValue", sampledValues
-        );
+    /**
+     * Écrit une valeur échantillonnée dans la trame, formatée dans le buffer du thread.
+     */
+    private static void writeSampledValue(JsonGenerator gen, String readingContext, double value, int decimals,
+                                          String measurand, String unit, String location, String phase)
+            throws IOException {
+        char[] valueBuffer = VALUE_BUFFER.get();
+        gen.writeStartObject();
+        gen.writeFieldName("value");
+        gen.writeString(valueBuffer, 0, FixedPointFormat.format(value, decimals, valueBuffer));
+        gen.writeStringField("context", readingContext);
+        gen.writeStringField("measurand", measurand);
+        gen.writeStringField("unit", unit);
+        if (location != null) {
+            gen.writeStringField("location", location);
+        }
+        if (phase != null) {
+            gen.writeStringField("phase", phase);
+        }
+        gen.writeEndObject();
     }
 
     /**
-     * Crée une valeur échantillonnée avec le contexte spécifié.
-     *
-     * @param value valeur mesurée
-     * @param measurand type de mesure
-     * @param unit unité de mesure
-     * @param location emplacement (Inlet, Body, etc.)
-     * @param phase phase (L1, L2, L3) ou null
-     * @param context contexte de lecture (Sample.Periodic ou Sample.Clock)
-     * @return SampledValue au format OCPP
+     * Ajoute une valeur échantillonnée au format OCPP.
      */
-    private Map<String, Object> createSampledValue(String value, String measurand, String unit,
-                                                    String location, String phase, String context) {
+    private void addSampledValue(List<Map<String, Object>> sampledValues, String readingContext, double value,
+                                 int decimals, String measurand, String unit, String location, String phase) {
         Map<String, Object> sv = createPayload(
-            "value", value,
-            "context", context,
+            "value", FixedPointFormat.format(value, decimals),
+            "context", readingContext,
             "measurand", measurand,
             "unit", unit
         );
@@ -205,7 +232,7 @@ public class MeterValuesHandler extends AbstractOcppHandler {
             sv.put("phase", phase);
         }
 
-        return sv;
+        sampledValues.add(sv);
     }
 
     @Override
@@ -0,0 +1,23 @@
+package com.evse.simulator.ocpp.handler;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Handler capable d'écrire son payload directement dans la trame sortante,
+ * sans construire de map intermédiaire.
+ * <p>
+ * {@link #buildPayload} reste disponible et doit produire le même JSON.
+ * </p>
+ */
+public interface StreamingPayloadHandler extends OcppMessageHandler {
+
+    /**
+     * Écrit le payload (objet JSON complet) dans le générateur.
+     *
+     * @param context Contexte contenant les données nécessaires
+     * @param gen générateur positionné sur la valeur du payload
+     */
+    void writePayload(OcppMessageContext context, JsonGenerator gen) throws IOException;
+}
@@ -0,0 +1,42 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.model.PerfConfig;
+
+import java.util.Random;
+
+/**
+ * Instants d'arrivee d'un flux a debit cible (modele ouvert).
+ * <p>
+ * Les instants sont calcules sur une echelle absolue depuis le demarrage : un
+ * retard d'execution ne decale pas les arrivees suivantes, elles sont rattrapees.
+ * </p>
+ */
+final class ArrivalSchedule {
+
+    private final PerfConfig.ArrivalMode mode;
+    private final double meanIntervalNanos;
+    private final Random random;
+    private double nextNanos;
+
+    ArrivalSchedule(PerfConfig.ArrivalMode mode, double ratePerSecond, long startNanos, Random random) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("ratePerSecond must be > 0");
+        }
+        this.mode = mode;
+        this.meanIntervalNanos = 1_000_000_000d / ratePerSecond;
+        this.random = random;
+        this.nextNanos = startNanos;
+    }
+
+    /**
+     * @return instant (System.nanoTime) de la prochaine arrivee
+     */
+    long next() {
+        long due = (long) nextNanos;
+        nextNanos += mode == PerfConfig.ArrivalMode.POISSON
+                // Intervalles exponentiels : arrivees de Poisson
+                ? -Math.log(1.0 - random.nextDouble()) * meanIntervalNanos
+                : meanIntervalNanos;
+        return due;
+    }
+}
@@ -0,0 +1,291 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.model.CapacityReport;
+import com.evse.simulator.performance.model.CapacitySearchConfig;
+import com.evse.simulator.performance.model.CapacityStep;
+import com.evse.simulator.performance.model.LoadRate;
+import com.evse.simulator.performance.model.PerfConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Recherche de capacite du scenario CAPACITY.
+ * <p>
+ * Monte en charge par paliers (connexions ou debit de transactions), maintient
+ * chaque palier et evalue les SLO sur les histogrammes de la fenetre du palier
+ * (P99 boot et messages, taux d'erreur et de timeout). Au premier palier en
+ * echec, le niveau soutenable le plus haut est cherche par dichotomie entre le
+ * dernier palier valide et ce palier.
+ * </p>
+ */
+@Slf4j
+class CapacitySearchRunner {
+
+    private final String testId;
+    private final ConnectionPool pool;
+    private final MetricsCollector metrics;
+    private final PerfConfig config;
+    private final CapacitySearchConfig search;
+    private final BooleanSupplier active;
+    private final ScheduledExecutorService executor;
+    private final List<CapacityStep> steps = new ArrayList<>();
+
+    CapacitySearchRunner(String testId, ConnectionPool pool, MetricsCollector metrics, PerfConfig config,
+                         BooleanSupplier active) {
+        this.testId = testId;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.config = config;
+        this.search = config.getCapacitySearch() != null ? config.getCapacitySearch() : new CapacitySearchConfig();
+        this.active = active;
+        this.executor = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(0);
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "perf-capacity-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Lance la recherche ; le rapport est partiel si le test est arrete.
+     */
+    CompletableFuture<CapacityReport> start() {
+        return CompletableFuture.supplyAsync(this::run, executor)
+                .whenComplete((report, ex) -> executor.shutdownNow());
+    }
+
+    private CapacityReport run() {
+        Instant startTime = Instant.now();
+        int maxLevel = maxLevel();
+        log.info("Recherche de capacite {}: {} -> {} par {}, SLO boot P99 {}ms, message P99 {}ms, erreurs {}%, timeouts {}%",
+                search.getDimension(), search.getStartLevel(), maxLevel, search.getStepSize(),
+                search.getMaxBootP99Ms(), search.getMaxMessageP99Ms(),
+                search.getMaxErrorRatePercent(), search.getMaxTimeoutRatePercent());
+
+        ScheduledFuture<?> heartbeats = null;
+        if (search.getDimension() == CapacitySearchConfig.Dimension.CONNECTIONS) {
+            heartbeats = startHeartbeats();
+        } else {
+            pool.scaleTo(config.getTargetConnections()).join();
+        }
+
+        int lastPassed = 0;
+        int firstFailing = -1;
+        List<String> limitingFactors = List.of();
+        try {
+            // Paliers croissants jusqu'au premier echec
+            int level = Math.min(search.getStartLevel(), maxLevel);
+            while (active.getAsBoolean()) {
+                CapacityStep step = runStep("RAMP", level);
+                if (!step.isPassed()) {
+                    firstFailing = level;
+                    limitingFactors = step.getViolations();
+                    break;
+                }
+                lastPassed = level;
+                if (level >= maxLevel) {
+                    break;
+                }
+                level = Math.min(level + search.getStepSize(), maxLevel);
+            }
+
+            // Dichotomie entre le dernier palier valide et le premier en echec
+            while (firstFailing > 0 && firstFailing - lastPassed > search.getResolution() && active.getAsBoolean()) {
+                int mid = lastPassed + (firstFailing - lastPassed) / 2;
+                CapacityStep step = runStep("SEARCH", mid);
+                if (step.isPassed()) {
+                    lastPassed = mid;
+                } else {
+                    firstFailing = mid;
+                    limitingFactors = step.getViolations();
+                }
+            }
+        } finally {
+            if (heartbeats != null) {
+                heartbeats.cancel(false);
+            }
+        }
+
+        boolean aborted = !active.getAsBoolean();
+        boolean converged = !aborted && (firstFailing < 0 || firstFailing - lastPassed <= search.getResolution());
+        log.info("Capacite {}: coude={}, premier echec={}, limites={}",
+                search.getDimension(), lastPassed, firstFailing, limitingFactors);
+
+        return CapacityReport.builder()
+                .testId(testId)
+                .label(search.getLabel())
+                .csmsUrl(config.getOcppUrl())
+                .dimension(search.getDimension().name())
+                .search(search)
+                .startTime(startTime)
+                .endTime(Instant.now())
+                .kneeLevel(lastPassed)
+                .firstFailingLevel(firstFailing)
+                .limitingFactors(limitingFactors)
+                .converged(converged)
+                .aborted(aborted)
+                .steps(List.copyOf(steps))
+                .build();
+    }
+
+    private int maxLevel() {
+        if (search.getMaxLevel() > 0) {
+            return search.getMaxLevel();
+        }
+        return search.getDimension() == CapacitySearchConfig.Dimension.CONNECTIONS
+                ? Math.max(config.getTargetConnections(), search.getStartLevel())
+                : search.getStepSize() * 100;
+    }
+
+    /**
+     * Applique un niveau, le maintient, puis evalue les SLO sur la fenetre.
+     */
+    private CapacityStep runStep(String phase, int level) {
+        MetricsCollector.Snapshot before = metrics.snapshot();
+        int successBefore = pool.getSuccessCount();
+        int failedBefore = pool.getFailedCount();
+        OpenLoadGenerator generator = null;
+
+        if (search.getDimension() == CapacitySearchConfig.Dimension.CONNECTIONS) {
+            pool.scaleTo(level).join();
+        } else {
+            generator = new OpenLoadGenerator(pool, metrics, config, level,
+                    (double) level * config.getMeterValuesCount());
+            generator.start();
+        }
+        hold(search.getHoldSeconds() * 1000L);
+        if (generator != null) {
+            generator.stop();
+        }
+
+        MetricsCollector.Snapshot window = metrics.snapshot().since(before);
+        long connectionFailures = pool.getFailedCount() - failedBefore;
+        long connectionAttempts = pool.getSuccessCount() - successBefore + connectionFailures;
+        double seconds = Math.max(window.takenAtNanos(), 1) / 1e9;
+        double achievedPerSec = generator != null
+                ? generator.getLoadRates().stream().findFirst().map(LoadRate::getAchievedPerSec).orElse(0.0)
+                : window.messagesSent() / seconds;
+
+        long failures = window.callErrors() + window.errors() + connectionFailures;
+        double errorRate = 100.0 * failures / Math.max(1, window.messagesSent() + connectionAttempts);
+        long answered = window.responses() + window.timeouts() + window.callErrors();
+        double timeoutRate = answered > 0 ? 100.0 * window.timeouts() / answered : 0;
+        Histogram boot = window.bootLatency();
+        Histogram message = window.messageLatency();
+
+        List<String> violations = new ArrayList<>();
+        if (boot.getTotalCount() > 0 && millis(boot.getValueAtPercentile(99)) > search.getMaxBootP99Ms()) {
+            violations.add("bootP99");
+        }
+        if (message.getTotalCount() > 0 && millis(message.getValueAtPercentile(99)) > search.getMaxMessageP99Ms()) {
+            violations.add("messageP99");
+        }
+        if (errorRate > search.getMaxErrorRatePercent()) {
+            violations.add("errorRate");
+        }
+        if (timeoutRate > search.getMaxTimeoutRatePercent()) {
+            violations.add("timeoutRate");
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        CapacityStep step = CapacityStep.builder()
+                .index(steps.size() + 1)
+                .phase(phase)
+                .level(level)
+                .passed(violations.isEmpty())
+                .violations(violations)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(window.takenAtNanos()))
+                .activeConnections(pool.getActiveCount())
+                .connectionFailures(connectionFailures)
+                .messagesSent(window.messagesSent())
+                .responses(window.responses())
+                .timeouts(window.timeouts())
+                .callErrors(window.callErrors())
+                .errors(window.errors())
+                .achievedPerSec(achievedPerSec)
+                .errorRatePercent(errorRate)
+                .timeoutRatePercent(timeoutRate)
+                .bootP50Ms(millis(boot.getValueAtPercentile(50)))
+                .bootP95Ms(millis(boot.getValueAtPercentile(95)))
+                .bootP99Ms(millis(boot.getValueAtPercentile(99)))
+                .messageP50Ms(millis(message.getValueAtPercentile(50)))
+                .messageP95Ms(millis(message.getValueAtPercentile(95)))
+                .messageP99Ms(millis(message.getValueAtPercentile(99)))
+                .messageMaxMs(millis(message.getMaxValue()))
+                .heapUsedMb((runtime.totalMemory() - runtime.freeMemory()) / (1024 * 1024))
+                .threadCount(Thread.activeCount())
+                .processCpuPercent(processCpuPercent())
+                .build();
+        steps.add(step);
+        log.info("Palier {} {} {}: {} (boot P99 {}ms, message P99 {}ms, erreurs {}%, timeouts {}%)",
+                step.getIndex(), phase, level, step.isPassed() ? "OK" : "ECHEC " + violations,
+                step.getBootP99Ms(), step.getMessageP99Ms(),
+                String.format("%.2f", errorRate), String.format("%.2f", timeoutRate));
+        return step;
+    }
+
+    /**
+     * Heartbeats des connexions ouvertes, etales sur l'intervalle : chaque
+     * seconde, une tranche des connexions envoie le sien.
+     */
+    private ScheduledFuture<?> startHeartbeats() {
+        int interval = search.getHeartbeatIntervalSeconds();
+        AtomicLong tick = new AtomicLong();
+        return executor.scheduleAtFixedRate(() -> {
+            long slice = tick.getAndIncrement() % interval;
+            for (PerfWebSocketClient client : pool.getConnections().values()) {
+                if (Math.floorMod(client.getCpId().hashCode(), interval) == slice && client.isOpen()) {
+                    try {
+                        client.sendCall(OcppFrames.HEARTBEAT);
+                        metrics.incrementMessagesSent();
+                    } catch (RuntimeException e) {
+                        metrics.incrementErrors();
+                    }
+                }
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private void hold(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (active.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.min(500, Math.max(1, deadline - System.currentTimeMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static double processCpuPercent() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs.getProcessCpuLoad() * 100;
+        }
+        return -1;
+    }
+}
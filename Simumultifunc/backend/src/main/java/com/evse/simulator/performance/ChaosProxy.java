@@ -0,0 +1,225 @@
+package com.evse.simulator.performance;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshake;
+import org.java_websocket.handshake.ServerHandshakeBuilder;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Proxy WebSocket local du scenario CHAOS, entre le pool et le CSMS.
+ * <p>
+ * Chaque connexion entrante ouvre sa propre connexion vers le CSMS avant de
+ * terminer la poignee de main : un CSMS injoignable fait echouer l'ouverture
+ * cote point de charge, comme une vraie panne. Les trames sont relayees dans
+ * les deux sens avec un retard et un taux de perte reglables a chaud ; la
+ * perte s'applique aux trames WebSocket (TCP ne perd pas d'octets), ce qui
+ * reproduit l'effet applicatif d'un lien degrade : requetes sans reponse.
+ * La fermeture d'un cote ferme l'autre.
+ * </p>
+ */
+@Slf4j
+class ChaosProxy extends WebSocketServer {
+
+    private final String upstreamBaseUrl;
+    // Un seul thread : les trames retardees d'une meme duree restent ordonnees
+    private final ScheduledExecutorService delayed;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder delayedFrames = new LongAdder();
+    private volatile double delayMs;
+    private volatile double lossPercent;
+    private volatile Exception startError;
+
+    ChaosProxy(String upstreamBaseUrl) {
+        super(new InetSocketAddress("localhost", 0), Math.max(2, Runtime.getRuntime().availableProcessors()));
+        this.upstreamBaseUrl = upstreamBaseUrl.endsWith("/")
+                ? upstreamBaseUrl.substring(0, upstreamBaseUrl.length() - 1) : upstreamBaseUrl;
+        this.delayed = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "perf-chaos-proxy");
+            t.setDaemon(true);
+            return t;
+        });
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+        setConnectionLostTimeout(0);
+    }
+
+    /**
+     * Demarre le proxy et retourne son URL de base (a la place de l'URL du CSMS).
+     */
+    String startAndGetUrl() {
+        start();
+        try {
+            if (!started.await(5, TimeUnit.SECONDS) || startError != null) {
+                throw new IllegalStateException("Chaos proxy failed to start"
+                        + (startError != null ? ": " + startError.getMessage() : ""));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the chaos proxy", e);
+        }
+        return "ws://localhost:" + getPort();
+    }
+
+    void shutdown() {
+        delayed.shutdownNow();
+        try {
+            stop(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Degrade le lien : retard par trame et pourcentage de trames perdues.
+     */
+    void setFault(double delayMs, double lossPercent) {
+        this.delayMs = Math.max(0, delayMs);
+        this.lossPercent = Math.max(0, Math.min(100, lossPercent));
+        log.info("Proxy chaos: retard {}ms, perte {}%", this.delayMs, this.lossPercent);
+    }
+
+    void clearFault() {
+        setFault(0, 0);
+    }
+
+    long getDroppedFrames() {
+        return dropped.sum();
+    }
+
+    long getDelayedFrames() {
+        return delayedFrames.sum();
+    }
+
+    @Override
+    public ServerHandshakeBuilder onWebsocketHandshakeReceivedAsServer(WebSocket conn, Draft draft,
+                                                                      ClientHandshake request)
+            throws InvalidDataException {
+        ServerHandshakeBuilder response = super.onWebsocketHandshakeReceivedAsServer(conn, draft, request);
+        Upstream upstream = new Upstream(URI.create(upstreamBaseUrl + request.getResourceDescriptor()), conn);
+        boolean connected;
+        try {
+            connected = upstream.connectBlocking(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            connected = false;
+        }
+        if (!connected) {
+            upstream.close();
+            throw new InvalidDataException(CloseFrame.TRY_AGAIN_LATER, "CSMS unreachable");
+        }
+        conn.setAttachment(upstream);
+        return response;
+    }
+
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        // Connexion amont deja ouverte pendant la poignee de main
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        Upstream upstream = conn.getAttachment();
+        if (upstream != null) {
+            relay(upstream, message);
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        Upstream upstream = conn.getAttachment();
+        if (upstream != null) {
+            upstream.close();
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        if (conn == null) {
+            startError = ex;
+            started.countDown();
+        }
+    }
+
+    private void relay(WebSocket target, String frame) {
+        if (lossPercent > 0 && ThreadLocalRandom.current().nextDouble(100) < lossPercent) {
+            dropped.increment();
+            return;
+        }
+        double delay = delayMs;
+        if (delay <= 0) {
+            send(target, frame);
+            return;
+        }
+        delayedFrames.increment();
+        try {
+            delayed.schedule(() -> send(target, frame), (long) (delay * 1000), TimeUnit.MICROSECONDS);
+        } catch (RuntimeException e) {
+            dropped.increment();
+        }
+    }
+
+    private static void send(WebSocket target, String frame) {
+        if (target.isOpen()) {
+            try {
+                target.send(frame);
+            } catch (RuntimeException e) {
+                log.trace("Trame non relayee: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Connexion du proxy vers le CSMS pour une connexion entrante.
+     */
+    private final class Upstream extends WebSocketClient {
+
+        private final WebSocket downstream;
+
+        Upstream(URI uri, WebSocket downstream) {
+            super(uri);
+            this.downstream = downstream;
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshake) {
+        }
+
+        @Override
+        public void onMessage(String message) {
+            relay(downstream, message);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            if (downstream.isOpen()) {
+                downstream.close(code == CloseFrame.NORMAL ? CloseFrame.NORMAL : CloseFrame.GOING_AWAY, reason);
+            }
+        }
+
+        @Override
+        public void onError(Exception ex) {
+            log.trace("Erreur amont proxy chaos: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import com.evse.simulator.performance.csms.MockCsmsStatus;
+import com.evse.simulator.performance.model.ChaosAction;
+import com.evse.simulator.performance.model.ChaosConfig;
+import com.evse.simulator.performance.model.ChaosEvent;
+import com.evse.simulator.performance.model.ChaosReport;
+import com.evse.simulator.performance.model.ChaosSample;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.ReconnectPolicy;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.java_websocket.framing.CloseFrame;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Perturbations du scenario CHAOS et mesure de la reprise.
+ * <p>
+ * Une fois les connexions ouvertes, applique les perturbations a leur
+ * instant (coupure massive, redemarrage du CSMS simule, lien degrade sur le
+ * proxy local) pendant que les connexions envoient leurs Heartbeats. Chaque
+ * seconde, releve les connexions actives, la taille de la vague de
+ * reconnexion et les pertes ; une perturbation est reprise quand la part
+ * configuree de ses connexions d'avant est revenue.
+ * </p>
+ */
+@Slf4j
+class ChaosRunner {
+
+    private final String testId;
+    private final ConnectionPool pool;
+    private final MetricsCollector metrics;
+    private final PerfConfig config;
+    private final ChaosConfig chaos;
+    private final ChaosProxy proxy;
+    private final MockCsmsService mockCsms;
+    private final BooleanSupplier active;
+    private final ScheduledExecutorService executor;
+    private final List<ChaosEvent> events = new CopyOnWriteArrayList<>();
+    private final List<ChaosSample> timeline = Collections.synchronizedList(new ArrayList<>());
+    private long startNanos;
+    // Port du CSMS simule arrete, a redemarrer si le test s'arrete pendant la coupure
+    private volatile Integer pendingRestartPort;
+
+    ChaosRunner(String testId, ConnectionPool pool, MetricsCollector metrics, PerfConfig config,
+                ChaosProxy proxy, MockCsmsService mockCsms, BooleanSupplier active) {
+        this.testId = testId;
+        this.pool = pool;
+        this.metrics = metrics;
+        this.config = config;
+        this.chaos = config.getChaos() != null ? config.getChaos() : new ChaosConfig();
+        this.proxy = proxy;
+        this.mockCsms = mockCsms;
+        this.active = active;
+        this.executor = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(0);
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "perf-chaos-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Lance les perturbations ; le rapport est partiel si le test est arrete.
+     */
+    CompletableFuture<ChaosReport> start() {
+        return CompletableFuture.supplyAsync(this::run, executor)
+                .whenComplete((report, ex) -> executor.shutdownNow());
+    }
+
+    private ChaosReport run() {
+        Instant startTime = Instant.now();
+        startNanos = System.nanoTime();
+        long lastEndMs = 0;
+        List<ScheduledFuture<?>> scheduled = new ArrayList<>();
+        scheduled.add(startHeartbeats());
+        scheduled.add(executor.scheduleAtFixedRate(sampler(), 1, 1, TimeUnit.SECONDS));
+
+        int index = 0;
+        for (ChaosAction action : chaos.getActions()) {
+            for (int r = 0; r < Math.max(1, action.getRepeat()); r++) {
+                long atMs = (action.getAtSeconds() + (long) r * action.getIntervalSeconds()) * 1000L;
+                long durationMs = action.getType() == ChaosAction.Type.MASS_DISCONNECT
+                        ? 0 : action.getDurationSeconds() * 1000L;
+                lastEndMs = Math.max(lastEndMs, atMs + durationMs);
+                int eventIndex = ++index;
+                scheduled.add(executor.schedule(() -> apply(eventIndex, action), atMs, TimeUnit.MILLISECONDS));
+            }
+        }
+        log.info("Scenario CHAOS: {} perturbations, observation jusqu'a {}s",
+                index, (lastEndMs / 1000) + chaos.getObserveSeconds());
+
+        hold(lastEndMs + chaos.getObserveSeconds() * 1000L);
+        scheduled.forEach(task -> task.cancel(false));
+        if (proxy != null) {
+            proxy.clearFault();
+        }
+        restartCsms();
+        return report(startTime);
+    }
+
+    /**
+     * Applique une perturbation et l'enregistre.
+     */
+    private void apply(int index, ChaosAction action) {
+        if (!active.getAsBoolean()) {
+            return;
+        }
+        ChaosEvent event = ChaosEvent.builder()
+                .index(index)
+                .type(action.getType())
+                .startedAtMs(elapsedMs())
+                .activeBefore(pool.getActiveCount())
+                .recoveredAfterMs(-1)
+                .build();
+        switch (action.getType()) {
+            case MASS_DISCONNECT -> {
+                List<PerfWebSocketClient> open = new ArrayList<>(pool.getConnections().values());
+                Collections.shuffle(open);
+                int count = (int) Math.round(open.size() * action.getPercent() / 100.0);
+                for (PerfWebSocketClient client : open.subList(0, count)) {
+                    // Coupure sans close handshake, comme une perte de lien
+                    client.getConnection().closeConnection(CloseFrame.ABNORMAL_CLOSE, "chaos");
+                }
+                event.setAffectedConnections(count);
+                event.setEndedAtMs(elapsedMs());
+                event.setDetail(String.format("%.1f%% des connexions coupees", action.getPercent()));
+            }
+            case CSMS_RESTART -> {
+                if (mockCsms == null || !mockCsms.isRunning()) {
+                    skip(event, "CSMS simule non demarre");
+                    break;
+                }
+                MockCsmsStatus before = mockCsms.stop();
+                pendingRestartPort = before.getPort();
+                event.setAffectedConnections(event.getActiveBefore());
+                event.setDetail("CSMS simule arrete " + action.getDurationSeconds() + "s");
+                executor.schedule(() -> {
+                    String error = restartCsms();
+                    if (error != null) {
+                        event.setDetail(event.getDetail() + ", redemarrage en echec: " + error);
+                    }
+                    event.setEndedAtMs(elapsedMs());
+                }, action.getDurationSeconds(), TimeUnit.SECONDS);
+            }
+            case NETWORK_FAULT -> {
+                if (proxy == null) {
+                    skip(event, "proxy chaos desactive (chaos.proxy=false)");
+                    break;
+                }
+                proxy.setFault(action.getDelayMs(), action.getLossPercent());
+                event.setAffectedConnections(event.getActiveBefore());
+                event.setDetail(String.format("retard %.0fms, perte %.1f%% pendant %ds",
+                        action.getDelayMs(), action.getLossPercent(), action.getDurationSeconds()));
+                executor.schedule(() -> {
+                    proxy.clearFault();
+                    event.setEndedAtMs(elapsedMs());
+                }, action.getDurationSeconds(), TimeUnit.SECONDS);
+            }
+        }
+        events.add(event);
+        log.info("Perturbation {} {}: {}", index, action.getType(), event.getDetail());
+    }
+
+    /**
+     * Redemarre le CSMS simule s'il a ete arrete par une perturbation.
+     *
+     * @return message d'erreur, null si redemarre ou rien a faire
+     */
+    private synchronized String restartCsms() {
+        Integer port = pendingRestartPort;
+        if (port == null) {
+            return null;
+        }
+        pendingRestartPort = null;
+        try {
+            mockCsms.start(port);
+            return null;
+        } catch (IllegalStateException e) {
+            log.warn("Redemarrage du CSMS simule impossible: {}", e.getMessage());
+            return e.getMessage();
+        }
+    }
+
+    private void skip(ChaosEvent event, String reason) {
+        event.setSkipped(true);
+        event.setDetail(reason);
+        event.setEndedAtMs(event.getStartedAtMs());
+    }
+
+    /**
+     * Releve par seconde et detection de la reprise des perturbations.
+     */
+    private Runnable sampler() {
+        AtomicLong lastAttempts = new AtomicLong(pool.getReconnectAttempts());
+        AtomicLong lastReconnects = new AtomicLong(pool.getReconnectCount());
+        AtomicLong lastLost = new AtomicLong(pool.getLostOnClose());
+        AtomicLong lastDropped = new AtomicLong(proxy != null ? proxy.getDroppedFrames() : 0);
+        AtomicInteger second = new AtomicInteger();
+        return () -> {
+            int activeCount = pool.getActiveCount();
+            long attempts = pool.getReconnectAttempts();
+            long reconnects = pool.getReconnectCount();
+            long lost = pool.getLostOnClose();
+            long droppedFrames = proxy != null ? proxy.getDroppedFrames() : 0;
+            timeline.add(ChaosSample.builder()
+                    .second(second.incrementAndGet())
+                    .activeConnections(activeCount)
+                    .reconnectAttempts(attempts - lastAttempts.getAndSet(attempts))
+                    .reconnects(reconnects - lastReconnects.getAndSet(reconnects))
+                    .lostOnDisconnect(lost - lastLost.getAndSet(lost))
+                    .proxyFramesDropped(droppedFrames - lastDropped.getAndSet(droppedFrames))
+                    .build());
+
+            long now = elapsedMs();
+            for (ChaosEvent event : events) {
+                if (!event.isSkipped() && event.getRecoveredAfterMs() < 0 && event.getEndedAtMs() > 0
+                        && activeCount >= event.getActiveBefore() * chaos.getRecoveryPercent() / 100.0) {
+                    event.setRecoveredAfterMs(now - event.getEndedAtMs());
+                }
+            }
+        };
+    }
+
+    /**
+     * Heartbeats des connexions ouvertes, etales sur l'intervalle.
+     */
+    private ScheduledFuture<?> startHeartbeats() {
+        int interval = Math.max(1, chaos.getHeartbeatIntervalSeconds());
+        AtomicLong tick = new AtomicLong();
+        return executor.scheduleAtFixedRate(() -> {
+            long slice = tick.getAndIncrement() % interval;
+            for (PerfWebSocketClient client : pool.getConnections().values()) {
+                if (Math.floorMod(client.getCpId().hashCode(), interval) == slice && client.isOpen()) {
+                    try {
+                        client.sendCall(OcppFrames.HEARTBEAT);
+                        metrics.incrementMessagesSent();
+                    } catch (RuntimeException e) {
+                        metrics.incrementErrors();
+                    }
+                }
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private ChaosReport report(Instant startTime) {
+        Histogram downtime = metrics.getReconnectLatency();
+        long peak;
+        synchronized (timeline) {
+            peak = timeline.stream().mapToLong(ChaosSample::getReconnectAttempts).max().orElse(0);
+        }
+        ReconnectPolicy policy = config.getReconnect();
+        return ChaosReport.builder()
+                .testId(testId)
+                .csmsUrl(config.getOcppUrl())
+                .reconnectPolicy(policy)
+                .startTime(startTime)
+                .endTime(Instant.now())
+                .events(List.copyOf(events))
+                .timeline(List.copyOf(timeline))
+                .peakHerdPerSecond(peak)
+                .reconnectAttempts(pool.getReconnectAttempts())
+                .reconnects(pool.getReconnectCount())
+                .reconnectGiveUps(pool.getReconnectGiveUps())
+                .reconnectP50Ms(millis(downtime.getValueAtPercentile(50)))
+                .reconnectP95Ms(millis(downtime.getValueAtPercentile(95)))
+                .reconnectP99Ms(millis(downtime.getValueAtPercentile(99)))
+                .reconnectMaxMs(millis(downtime.getMaxValue()))
+                .lostOnDisconnect(pool.getLostOnClose())
+                .proxyFramesDropped(proxy != null ? proxy.getDroppedFrames() : 0)
+                .proxyFramesDelayed(proxy != null ? proxy.getDelayedFrames() : 0)
+                .aborted(!active.getAsBoolean())
+                .build();
+    }
+
+    private long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void hold(long millis) {
+        long deadline = System.currentTimeMillis() + millis;
+        while (active.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.min(500, Math.max(1, deadline - System.currentTimeMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -1,15 +1,24 @@
 package com.evse.simulator.performance;
 
 import com.evse.simulator.performance.model.ConnectionResult;
+import com.evse.simulator.performance.model.ReconnectPolicy;
+import com.evse.simulator.websocket.ReconnectBackoff;
 import com.google.common.util.concurrent.RateLimiter;
 import lombok.extern.slf4j.Slf4j;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.framing.TextFrame;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 
 /**
@@ -28,14 +37,26 @@ public class ConnectionPool {
     private final AtomicInteger activeCount = new AtomicInteger(0);
     private final AtomicInteger successCount = new AtomicInteger(0);
     private final AtomicInteger failedCount = new AtomicInteger(0);
+    private final AtomicInteger reconnectCount = new AtomicInteger(0);
+    private final LongAdder reconnectAttempts = new LongAdder();
+    private final LongAdder reconnectGiveUps = new LongAdder();
+    private final LongAdder lostOnClose = new LongAdder();
+    private final Set<Integer> pendingIndexes = ConcurrentHashMap.newKeySet();
+    private volatile int highestIndex = -1;
+    private volatile int indexOffset = 0;
 
     private final ExecutorService connectionExecutor;
     private final ScheduledExecutorService scheduler;
 
     private Consumer<ConnectionResult> connectionCallback;
     private Consumer<MessageEvent> messageCallback;
+    private Consumer<ReconnectEvent> reconnectCallback;
+    private volatile ReconnectPolicy reconnectPolicy;
+    private volatile ReconnectBackoff backoff;
 
     private volatile boolean running = false;
+    private volatile long responseTimeoutNanos = TimeUnit.SECONDS.toNanos(30);
+    private ScheduledFuture<?> expiryTask;
 
     public ConnectionPool(String baseUrl, String cpIdPrefix, int targetConnections, double connectionsPerSecond) {
         this.baseUrl = baseUrl;
@@ -77,6 +98,33 @@ public class ConnectionPool {
         this.messageCallback = callback;
     }
 
+    public void setReconnectCallback(Consumer<ReconnectEvent> callback) {
+        this.reconnectCallback = callback;
+    }
+
+    /**
+     * Reconnexion automatique des connexions fermees par le serveur ou le
+     * reseau ; null ou desactivee pour les laisser fermees.
+     */
+    public void setReconnectPolicy(ReconnectPolicy policy) {
+        this.reconnectPolicy = policy;
+        this.backoff = policy != null ? policy.toBackoff() : null;
+    }
+
+    /**
+     * Premier index des identifiants de points de charge (tranche d'un test distribue).
+     */
+    public void setIndexOffset(int offset) {
+        this.indexOffset = offset;
+    }
+
+    /**
+     * Delai au-dela duquel une requete sans reponse est comptee en timeout.
+     */
+    public void setResponseTimeoutMs(long timeoutMs) {
+        this.responseTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    }
+
     /**
      * Demarre la creation des connexions avec rate limiting.
      */
@@ -85,6 +133,9 @@ public class ConnectionPool {
         log.info("Demarrage pool connexions: target={}, rate={}/s",
                 targetConnections, rateLimiter.getRate());
 
+        startExpiry();
+        highestIndex = Math.max(highestIndex, targetConnections - 1);
+
         return CompletableFuture.runAsync(() -> {
             for (int i = 0; i < targetConnections && running; i++) {
                 rateLimiter.acquire();
@@ -96,8 +147,57 @@ public class ConnectionPool {
         }, connectionExecutor);
     }
 
+    /**
+     * Ajuste le pool a {@code count} connexions : ouvre les index manquants au
+     * debit configure, ferme les index superieurs.
+     *
+     * @return termine quand toutes les ouvertures demandees ont abouti ou echoue
+     */
+    public CompletableFuture<Void> scaleTo(int count) {
+        running = true;
+        startExpiry();
+
+        for (int i = count; i <= highestIndex; i++) {
+            PerfWebSocketClient client = connections.get(cpIdFor(i));
+            if (client != null) {
+                client.retire();
+            }
+        }
+        highestIndex = count - 1;
+
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<Void>> opening = new ArrayList<>();
+            for (int i = 0; i < count && running; i++) {
+                if (connections.containsKey(cpIdFor(i)) || !pendingIndexes.add(i)) {
+                    continue;
+                }
+                rateLimiter.acquire();
+                final int index = i;
+                opening.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        createConnection(index);
+                    } finally {
+                        pendingIndexes.remove(index);
+                    }
+                }, connectionExecutor));
+            }
+            return opening;
+        }, connectionExecutor).thenCompose(opening ->
+                CompletableFuture.allOf(opening.toArray(CompletableFuture[]::new)));
+    }
+
+    private synchronized void startExpiry() {
+        if (expiryTask == null) {
+            expiryTask = scheduler.scheduleAtFixedRate(this::expireRequests, 1, 1, TimeUnit.SECONDS);
+        }
+    }
+
+    private String cpIdFor(int index) {
+        return String.format("%s-%06d", cpIdPrefix, indexOffset + index);
+    }
+
     private void createConnection(int index) {
-        String cpId = String.format("%s-%06d", cpIdPrefix, index);
+        String cpId = cpIdFor(index);
         String wsUrl = baseUrl + "/" + cpId;
 
         long startTime = System.nanoTime();
@@ -134,6 +234,24 @@ public class ConnectionPool {
         }
     }
 
+    /**
+     * Compte en timeout les requetes restees sans reponse.
+     */
+    private void expireRequests() {
+        long now = System.nanoTime();
+        long timeout = responseTimeoutNanos;
+        for (PerfWebSocketClient client : connections.values()) {
+            client.inFlight.expire(now, timeout, action -> emit(MessageEvent.timeout(client.cpId, action)));
+        }
+    }
+
+    private void emit(MessageEvent event) {
+        Consumer<MessageEvent> callback = messageCallback;
+        if (callback != null) {
+            callback.accept(event);
+        }
+    }
+
     /**
      * Envoie un message a toutes les connexions actives.
      */
@@ -187,6 +305,96 @@ public class ConnectionPool {
         }, connectionExecutor);
     }
 
+    /**
+     * Ferme puis rouvre la connexion d'un client, sur le pool de connexion.
+     * Le client renvoie son BootNotification a la reouverture.
+     */
+    public CompletableFuture<Boolean> reconnect(PerfWebSocketClient client) {
+        return CompletableFuture.supplyAsync(() -> {
+            // Reconnexion automatique deja programmee : elle s'en charge
+            if (!running || !client.reconnectScheduled.compareAndSet(false, true)) {
+                return false;
+            }
+            try {
+                if (client.reconnectBlocking()) {
+                    connections.put(client.getCpId(), client);
+                    activeCount.incrementAndGet();
+                    reconnectCount.incrementAndGet();
+                    return true;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                client.reconnectScheduled.set(false);
+            }
+            log.debug("Echec reconnexion {}", client.getCpId());
+            return false;
+        }, connectionExecutor);
+    }
+
+    /**
+     * Programme la prochaine tentative de reconnexion d'un client ferme,
+     * apres le delai de la politique de reconnexion.
+     */
+    private void scheduleReconnect(PerfWebSocketClient client) {
+        ReconnectPolicy policy = reconnectPolicy;
+        ReconnectBackoff currentBackoff = backoff;
+        if (policy == null || !policy.isEnabled() || currentBackoff == null || !running || client.retired) {
+            return;
+        }
+        if (!client.reconnectScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        int attempt = ++client.reconnectAttempt;
+        if (policy.getMaxAttempts() > 0 && attempt > policy.getMaxAttempts()) {
+            client.reconnectScheduled.set(false);
+            reconnectGiveUps.increment();
+            emitReconnect(new ReconnectEvent(client.cpId, ReconnectEvent.Kind.GAVE_UP, attempt - 1, -1));
+            return;
+        }
+        try {
+            scheduler.schedule(() -> attemptReconnect(client, attempt),
+                    currentBackoff.delayMs(attempt), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            client.reconnectScheduled.set(false);
+        }
+    }
+
+    private void attemptReconnect(PerfWebSocketClient client, int attempt) {
+        if (!running || client.retired) {
+            client.reconnectScheduled.set(false);
+            return;
+        }
+        reconnectAttempts.increment();
+        emitReconnect(new ReconnectEvent(client.cpId, ReconnectEvent.Kind.ATTEMPT, attempt, -1));
+        boolean connected = false;
+        try {
+            connected = client.reconnectBlocking();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IllegalStateException e) {
+            log.debug("Reconnexion {} impossible: {}", client.cpId, e.getMessage());
+        }
+        client.reconnectScheduled.set(false);
+        if (connected) {
+            connections.put(client.cpId, client);
+            activeCount.incrementAndGet();
+            reconnectCount.incrementAndGet();
+            long downtimeMicros = (System.nanoTime() - client.disconnectedAt) / 1_000;
+            client.reconnectAttempt = 0;
+            emitReconnect(new ReconnectEvent(client.cpId, ReconnectEvent.Kind.RECONNECTED, attempt, downtimeMicros));
+        } else if (!client.isOpen()) {
+            scheduleReconnect(client);
+        }
+    }
+
+    private void emitReconnect(ReconnectEvent event) {
+        Consumer<ReconnectEvent> callback = reconnectCallback;
+        if (callback != null) {
+            callback.accept(event);
+        }
+    }
+
     /**
      * Ferme toutes les connexions.
      */
@@ -204,7 +412,11 @@ public class ConnectionPool {
             });
             connections.clear();
             activeCount.set(0);
-        }, connectionExecutor).thenRun(() -> {
+        }, connectionExecutor).thenRunAsync(() -> {
+            // Hors de connectionExecutor : attendre sa terminaison depuis l'un de ses threads bloquerait 30 s
+            if (expiryTask != null) {
+                expiryTask.cancel(false);
+            }
             connectionExecutor.shutdown();
             scheduler.shutdown();
             try {
@@ -227,6 +439,28 @@ public class ConnectionPool {
         return failedCount.get();
     }
 
+    public int getReconnectCount() {
+        return reconnectCount.get();
+    }
+
+    /**
+     * Tentatives de reconnexion automatique lancees (reussies ou non).
+     */
+    public long getReconnectAttempts() {
+        return reconnectAttempts.sum();
+    }
+
+    public long getReconnectGiveUps() {
+        return reconnectGiveUps.sum();
+    }
+
+    /**
+     * Requetes en vol perdues par la fermeture de leur connexion.
+     */
+    public long getLostOnClose() {
+        return lostOnClose.sum();
+    }
+
     public Map<String, PerfWebSocketClient> getConnections() {
         return connections;
     }
@@ -241,13 +475,31 @@ public class ConnectionPool {
 
     /**
      * Client WebSocket pour les tests de performance.
+     * <p>
+     * Chaque requete envoyee par {@link #sendCall} est suivie dans une table
+     * en vol (identifiant, instant d'envoi, action) : la latence d'une reponse
+     * est mesuree depuis l'envoi de sa propre requete, en ne lisant que
+     * l'enveloppe OCPP-J de la reponse. Le {@code transactionId} d'un
+     * {@code StartTransaction.conf} est retenu pour les MeterValues et le
+     * StopTransaction suivants.
+     * </p>
      */
     public class PerfWebSocketClient extends WebSocketClient {
 
+        private static final int IN_FLIGHT_CAPACITY = 32;
+
         private final String cpId;
         private final long startTime;
-        private long bootNotificationSentTime;
+        private final InFlightTable inFlight = new InFlightTable(IN_FLIGHT_CAPACITY);
         private volatile boolean bootAccepted = false;
+        private volatile BiFunction<String, String, String> callHandler;
+        private final AtomicBoolean reconnectScheduled = new AtomicBoolean();
+        private volatile boolean opened;
+        private volatile boolean retired;
+        private volatile long disconnectedAt;
+        private volatile int reconnectAttempt;
+        // Dernier transactionId accorde par le CSMS, 0 avant le premier StartTransaction.conf
+        private volatile long transactionId;
 
         public PerfWebSocketClient(URI serverUri, String cpId, long startTime) {
             super(serverUri);
@@ -256,38 +508,142 @@ public class ConnectionPool {
             this.setConnectionLostTimeout(30);
         }
 
+        /**
+         * Envoie un CALL precompile et le suit jusqu'a sa reponse : la trame est
+         * ecrite octet par octet, sans chaine intermediaire.
+         *
+         * @param idTag badge de l'emplacement {@code ${idTag}}
+         * @param meter valeur de l'emplacement {@code ${meter}}
+         *              ({@code ${transactionId}} vient de la derniere transaction acceptee)
+         */
+        void sendCall(FrameTemplate template, String idTag, long meter) {
+            long id = inFlight.register(template.action(), System.nanoTime(),
+                    evicted -> emit(MessageEvent.timeout(cpId, evicted)));
+            try {
+                TextFrame frame = new TextFrame();
+                // Copiee (et masquee) dans la trame sortante avant le retour de sendFrame
+                frame.setPayload(template.render(id, idTag, meter, transactionId));
+                sendFrame(frame);
+            } catch (RuntimeException e) {
+                inFlight.complete(id, System.nanoTime());
+                throw e;
+            }
+        }
+
+        void sendCall(FrameTemplate template) {
+            sendCall(template, null, 0);
+        }
+
+        /**
+         * Envoie un CALL OCPP et le suit jusqu'a sa reponse.
+         *
+         * @param payloadJson payload JSON deja serialise
+         */
+        public void sendCall(PerfAction action, String payloadJson) {
+            long id = inFlight.register(action, System.nanoTime(),
+                    evicted -> emit(MessageEvent.timeout(cpId, evicted)));
+            try {
+                send("[2,\"" + id + "\",\"" + action.getOcppName() + "\"," + payloadJson + "]");
+            } catch (RuntimeException e) {
+                inFlight.complete(id, System.nanoTime());
+                throw e;
+            }
+        }
+
+        /**
+         * Traitement des CALL recus du CSMS : (action, trame) vers le payload
+         * du CALLRESULT, null pour ne pas repondre.
+         */
+        public void setCallHandler(BiFunction<String, String, String> handler) {
+            this.callHandler = handler;
+        }
+
         @Override
         public void onOpen(ServerHandshake handshake) {
             log.trace("WebSocket ouvert: {}", cpId);
-            // Envoyer BootNotification
-            bootNotificationSentTime = System.nanoTime();
-            String bootMsg = String.format(
-                "[2,\"%s\",\"BootNotification\",{\"chargePointVendor\":\"PerfTest\",\"chargePointModel\":\"Perf25K\"}]",
-                java.util.UUID.randomUUID().toString()
-            );
-            send(bootMsg);
+            opened = true;
+            bootAccepted = false;
+            sendCall(OcppFrames.BOOT_NOTIFICATION);
         }
 
         @Override
         public void onMessage(String message) {
-            if (messageCallback != null) {
-                long latency = (System.nanoTime() - bootNotificationSentTime) / 1_000_000;
-                messageCallback.accept(new MessageEvent(cpId, message, latency, System.currentTimeMillis()));
+            long receivedAt = System.nanoTime();
+            OcppEnvelope envelope = OcppEnvelope.parse(message);
+            if (envelope == null || envelope.messageType() == OcppEnvelope.CALL) {
+                // Requete du CSMS ou trame invalide : pas de latence a mesurer
+                emit(MessageEvent.unsolicited(cpId, message));
+                if (envelope != null) {
+                    answerCall(envelope, message);
+                }
+                return;
+            }
+
+            InFlightTable.Completed completed = inFlight.complete(envelope.numericId(), receivedAt);
+            if (completed == null) {
+                // Reponse tardive (deja comptee en timeout) ou inconnue
+                emit(MessageEvent.unsolicited(cpId, message));
+                return;
             }
 
-            // Detecter BootNotification accepted
-            if (message.contains("\"Accepted\"") && !bootAccepted) {
+            long latencyMicros = completed.latencyNanos() / 1_000;
+            if (envelope.messageType() == OcppEnvelope.CALL_ERROR) {
+                emit(MessageEvent.callError(cpId, message, completed.action(), latencyMicros,
+                        envelope.errorCode(message)));
+                return;
+            }
+
+            if (completed.action() == PerfAction.BOOT_NOTIFICATION && !bootAccepted && envelope.isAccepted(message)) {
                 bootAccepted = true;
-                long bootLatency = (System.nanoTime() - bootNotificationSentTime) / 1_000_000;
-                log.trace("BootNotification accepte: {} ({}ms)", cpId, bootLatency);
+                log.trace("BootNotification accepte: {} ({}us)", cpId, latencyMicros);
+            }
+            if (completed.action() == PerfAction.START_TRANSACTION) {
+                long granted = envelope.transactionId(message);
+                if (granted >= 0) {
+                    transactionId = granted;
+                }
+            }
+            emit(MessageEvent.response(cpId, message, completed.action(), latencyMicros));
+        }
+
+        private void answerCall(OcppEnvelope envelope, String message) {
+            BiFunction<String, String, String> handler = callHandler;
+            if (handler == null) {
+                return;
+            }
+            String payload = handler.apply(envelope.action(message), message);
+            if (payload != null && isOpen()) {
+                send("[3,\"" + envelope.messageId() + "\"," + payload + "]");
             }
         }
 
         @Override
         public void onClose(int code, String reason, boolean remote) {
             log.trace("WebSocket ferme: {} (code={}, reason={})", cpId, code, reason);
-            connections.remove(cpId);
-            activeCount.decrementAndGet();
+            // Un echec d'ouverture n'a jamais ete compte actif
+            if (connections.remove(cpId, this)) {
+                activeCount.decrementAndGet();
+            }
+            // Requetes restees sans reponse a la fermeture
+            inFlight.expire(System.nanoTime(), 0, action -> {
+                lostOnClose.increment();
+                emit(MessageEvent.timeout(cpId, action));
+            });
+            if (opened && reconnectAttempt == 0) {
+                disconnectedAt = System.nanoTime();
+            }
+            // Seules les connexions deja etablies une fois sont reconnectees
+            if (opened) {
+                scheduleReconnect(this);
+            }
+        }
+
+        /**
+         * Fermeture voulue par le test : pas de reconnexion automatique.
+         */
+        public void retire() {
+            retired = true;
+            close();
         }
 
         @Override
@@ -302,22 +658,97 @@ public class ConnectionPool {
         public boolean isBootAccepted() {
             return bootAccepted;
         }
+
+        public int getPendingRequests() {
+            return inFlight.size();
+        }
+
+        public long getTransactionId() {
+            return transactionId;
+        }
+    }
+
+    /**
+     * Evenement de la reconnexion automatique.
+     */
+    public static class ReconnectEvent {
+
+        public enum Kind {
+            /** Tentative lancee apres le delai de backoff */
+            ATTEMPT,
+            /** Connexion retablie ; downtimeMicros depuis la coupure */
+            RECONNECTED,
+            /** Nombre maximal de tentatives atteint */
+            GAVE_UP
+        }
+
+        public final String cpId;
+        public final Kind kind;
+        public final int attempt;
+        public final long downtimeMicros;
+
+        public ReconnectEvent(String cpId, Kind kind, int attempt, long downtimeMicros) {
+            this.cpId = cpId;
+            this.kind = kind;
+            this.attempt = attempt;
+            this.downtimeMicros = downtimeMicros;
+        }
     }
 
     /**
      * Evenement de message recu.
      */
     public static class MessageEvent {
+
+        public enum Kind {
+            /** CALLRESULT correle a une requete */
+            RESPONSE,
+            /** CALLERROR correle a une requete */
+            CALL_ERROR,
+            /** Requete sans reponse dans le delai (ou connexion fermee) */
+            TIMEOUT,
+            /** CALL du CSMS, reponse tardive ou trame non reconnue */
+            UNSOLICITED
+        }
+
         public final String cpId;
         public final String message;
+        public final Kind kind;
+        public final PerfAction action;
+        public final long latencyMicros;
         public final long latencyMs;
+        public final String errorCode;
         public final long timestamp;
 
-        public MessageEvent(String cpId, String message, long latencyMs, long timestamp) {
+        public MessageEvent(String cpId, String message, Kind kind, PerfAction action,
+                            long latencyMicros, String errorCode, long timestamp) {
             this.cpId = cpId;
             this.message = message;
-            this.latencyMs = latencyMs;
+            this.kind = kind;
+            this.action = action;
+            this.latencyMicros = latencyMicros;
+            this.latencyMs = latencyMicros / 1_000;
+            this.errorCode = errorCode;
             this.timestamp = timestamp;
         }
+
+        static MessageEvent response(String cpId, String message, PerfAction action, long latencyMicros) {
+            return new MessageEvent(cpId, message, Kind.RESPONSE, action, latencyMicros, null,
+                    System.currentTimeMillis());
+        }
+
+        static MessageEvent callError(String cpId, String message, PerfAction action, long latencyMicros,
+                                      String errorCode) {
+            return new MessageEvent(cpId, message, Kind.CALL_ERROR, action, latencyMicros, errorCode,
+                    System.currentTimeMillis());
+        }
+
+        static MessageEvent timeout(String cpId, PerfAction action) {
+            return new MessageEvent(cpId, null, Kind.TIMEOUT, action, -1, null, System.currentTimeMillis());
+        }
+
+        static MessageEvent unsolicited(String cpId, String message) {
+            return new MessageEvent(cpId, message, Kind.UNSOLICITED, null, -1, null, System.currentTimeMillis());
+        }
     }
 }
@@ -0,0 +1,203 @@
+package com.evse.simulator.performance;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trame CALL OCPP-J precompilee : segments d'octets fixes separes par des
+ * emplacements remplis a l'envoi.
+ * <p>
+ * Le gabarit est decoupe une seule fois. Un envoi copie les segments et ecrit
+ * l'identifiant, le badge, le compteur, la transaction et l'horodatage directement dans un
+ * tampon propre au thread : ni {@code String.format}, ni {@code UUID}, ni
+ * encodage UTF-8 de la trame complete. L'horodatage est celui de la seconde
+ * courante, formate une fois par seconde pour tous les threads.
+ * </p>
+ */
+final class FrameTemplate {
+
+    /**
+     * Emplacement d'un gabarit, ecrit {@code ${nom}} dans le payload.
+     */
+    enum Slot {
+        ID("id"),
+        ID_TAG("idTag"),
+        METER("meter"),
+        TRANSACTION_ID("transactionId"),
+        TIMESTAMP("timestamp");
+
+        private final String name;
+
+        Slot(String name) {
+            this.name = name;
+        }
+
+        static Slot of(String name) {
+            for (Slot slot : values()) {
+                if (slot.name.equals(name)) {
+                    return slot;
+                }
+            }
+            throw new IllegalArgumentException("Unknown template slot: " + name);
+        }
+    }
+
+    // Assez pour la plupart des trames ; agrandi a la demande
+    private static final int INITIAL_BUFFER = 1024;
+    // Chiffres d'un long, signe compris
+    private static final int MAX_LONG_LENGTH = 20;
+    private static final ThreadLocal<byte[][]> BUFFER =
+            ThreadLocal.withInitial(() -> new byte[][] {new byte[INITIAL_BUFFER]});
+
+    private static volatile Timestamp timestamp = Timestamp.of(Instant.now().getEpochSecond());
+
+    private final PerfAction action;
+    private final byte[][] segments;
+    private final Slot[] slots;
+    private final int fixedLength;
+
+    private FrameTemplate(PerfAction action, byte[][] segments, Slot[] slots) {
+        this.action = action;
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        for (byte[] segment : segments) {
+            length += segment.length;
+        }
+        this.fixedLength = length;
+    }
+
+    /**
+     * Gabarit d'un CALL : l'enveloppe porte l'emplacement de l'identifiant.
+     *
+     * @param payloadTemplate payload JSON avec des emplacements {@code ${idTag}},
+     *                        {@code ${meter}}, {@code ${transactionId}}, {@code ${timestamp}}
+     */
+    static FrameTemplate call(PerfAction action, String payloadTemplate) {
+        return compile(action, "[2,\"${id}\",\"" + action.getOcppName() + "\"," + payloadTemplate + "]");
+    }
+
+    static FrameTemplate compile(PerfAction action, String template) {
+        List<byte[]> segments = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        int from = 0;
+        int start;
+        while ((start = template.indexOf("${", from)) >= 0) {
+            int end = template.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unterminated slot at " + start + ": " + template);
+            }
+            segments.add(template.substring(from, start).getBytes(StandardCharsets.UTF_8));
+            slots.add(Slot.of(template.substring(start + 2, end)));
+            from = end + 1;
+        }
+        segments.add(template.substring(from).getBytes(StandardCharsets.UTF_8));
+        return new FrameTemplate(action, segments.toArray(new byte[0][]), slots.toArray(new Slot[0]));
+    }
+
+    PerfAction action() {
+        return action;
+    }
+
+    /**
+     * Ecrit la trame dans le tampon du thread courant.
+     *
+     * @return vue sur le tampon, valable jusqu'au prochain rendu du meme thread
+     */
+    ByteBuffer render(long id, String idTag, long meter, long transactionId) {
+        byte[] now = timestampBytes();
+        int maxLength = fixedLength + slots.length * Math.max(MAX_LONG_LENGTH, now.length)
+                + (idTag != null ? idTag.length() * 3 : 0);
+        byte[] out = buffer(maxLength);
+        int pos = 0;
+        for (int i = 0; i < slots.length; i++) {
+            pos = copy(segments[i], out, pos);
+            pos = switch (slots[i]) {
+                case ID -> writeLong(id, out, pos);
+                case METER -> writeLong(meter, out, pos);
+                case TRANSACTION_ID -> writeLong(transactionId, out, pos);
+                case ID_TAG -> writeString(idTag, out, pos);
+                case TIMESTAMP -> copy(now, out, pos);
+            };
+        }
+        pos = copy(segments[slots.length], out, pos);
+        return ByteBuffer.wrap(out, 0, pos);
+    }
+
+    /**
+     * Trame rendue sous forme de chaine (tests, journaux).
+     */
+    String toString(long id, String idTag, long meter, long transactionId) {
+        ByteBuffer frame = render(id, idTag, meter, transactionId);
+        return new String(frame.array(), 0, frame.limit(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Horodatage ISO-8601 a la seconde, partage par tous les threads.
+     */
+    static byte[] timestampBytes() {
+        long second = Math.floorDiv(System.currentTimeMillis(), 1000);
+        Timestamp current = timestamp;
+        if (current.epochSecond != second) {
+            // Course benigne : deux threads peuvent formater la meme seconde
+            current = Timestamp.of(second);
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    private static byte[] buffer(int minLength) {
+        byte[][] holder = BUFFER.get();
+        if (holder[0].length < minLength) {
+            holder[0] = new byte[Math.max(minLength, holder[0].length * 2)];
+        }
+        return holder[0];
+    }
+
+    private static int copy(byte[] source, byte[] out, int pos) {
+        System.arraycopy(source, 0, out, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static int writeLong(long value, byte[] out, int pos) {
+        if (value < 0) {
+            return copy(Long.toString(value).getBytes(StandardCharsets.US_ASCII), out, pos);
+        }
+        int digits = 1;
+        for (long v = value / 10; v > 0; v /= 10) {
+            digits++;
+        }
+        int end = pos + digits;
+        for (int i = end - 1; i >= pos; i--) {
+            out[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static int writeString(String value, byte[] out, int pos) {
+        if (value == null) {
+            return pos;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                // Hors ASCII : encodage complet, rare pour un badge
+                return copy(value.getBytes(StandardCharsets.UTF_8), out, pos);
+            }
+            out[pos + i] = (byte) c;
+        }
+        return pos + value.length();
+    }
+
+    private record Timestamp(long epochSecond, byte[] bytes) {
+
+        static Timestamp of(long epochSecond) {
+            return new Timestamp(epochSecond,
+                    Instant.ofEpochSecond(epochSecond).toString().getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
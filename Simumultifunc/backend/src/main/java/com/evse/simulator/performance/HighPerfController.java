@@ -1,5 +1,7 @@
 package com.evse.simulator.performance;
 
+import com.evse.simulator.performance.archive.PerfRunArchive;
+import com.evse.simulator.performance.archive.PerfRunHtmlReport;
 import com.evse.simulator.performance.model.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -9,7 +11,9 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -25,6 +29,8 @@ import java.util.concurrent.CopyOnWriteArrayList;
 public class HighPerfController {
 
     private final PerformanceEngine engine;
+    private final PerfRunArchive runArchive;
+    private final PerfRunHtmlReport htmlReport;
     private final CopyOnWriteArrayList<SseEmitter> sseEmitters = new CopyOnWriteArrayList<>();
 
     /**
@@ -118,6 +124,93 @@ public class HighPerfController {
         return ResponseEntity.ok(engine.getCurrentMetrics());
     }
 
+    /**
+     * Retourne le rapport de la derniere recherche de capacite (scenario CAPACITY).
+     * GET /api/highperf/capacity/report
+     */
+    @GetMapping("/capacity/report")
+    public ResponseEntity<CapacityReport> getCapacityReport() {
+        CapacityReport report = engine.getLastCapacityReport();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Retourne le rapport du dernier scenario CHAOS (perturbations, vagues de reconnexion).
+     * GET /api/highperf/chaos/report
+     */
+    @GetMapping("/chaos/report")
+    public ResponseEntity<ChaosReport> getChaosReport() {
+        ChaosReport report = engine.getLastChaosReport();
+        if (report == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * Liste les tests archives, du plus recent au plus ancien.
+     * GET /api/highperf/runs
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<PerfRunSummary>> listRuns() {
+        return ResponseEntity.ok(runArchive.list());
+    }
+
+    /**
+     * Retourne un test archive complet (configuration, histogrammes, series, environnement).
+     * GET /api/highperf/runs/{id}
+     */
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<PerfRunRecord> getRun(@PathVariable String id) {
+        return runArchive.find(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Supprime un test archive.
+     * DELETE /api/highperf/runs/{id}
+     */
+    @DeleteMapping("/runs/{id}")
+    public ResponseEntity<Void> deleteRun(@PathVariable String id) {
+        return runArchive.delete(id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Compare deux tests archives percentile par percentile.
+     * GET /api/highperf/runs/compare?baseline=..&candidate=..[&minDeltaPercent=5]
+     */
+    @GetMapping("/runs/compare")
+    public ResponseEntity<?> compareRuns(@RequestParam String baseline,
+                                         @RequestParam String candidate,
+                                         @RequestParam(required = false) Double minDeltaPercent) {
+        try {
+            return ResponseEntity.ok(runArchive.compare(baseline, candidate, minDeltaPercent));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Rapport HTML de la comparaison de deux tests archives.
+     * GET /api/highperf/runs/compare/report?baseline=..&candidate=..
+     */
+    @GetMapping(value = "/runs/compare/report", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> compareRunsReport(@RequestParam String baseline,
+                                                    @RequestParam String candidate,
+                                                    @RequestParam(required = false) Double minDeltaPercent) {
+        try {
+            return ResponseEntity.ok(htmlReport.render(runArchive.compare(baseline, candidate, minDeltaPercent)));
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        }
+    }
+
     /**
      * Retourne le resultat actuel ou final.
      * GET /api/perf/result
@@ -0,0 +1,95 @@
+package com.evse.simulator.performance;
+
+import java.util.function.Consumer;
+
+/**
+ * Table compacte des requetes en attente de reponse d'un client.
+ * <p>
+ * Les identifiants de message sont des numeros de sequence propres au client ;
+ * l'emplacement d'une requete est {@code id & (capacite - 1)}, sans allocation a
+ * l'envoi. Une requete ecrasee par une plus recente (plus de {@code capacite}
+ * requetes en attente) est comptee comme expiree.
+ * </p>
+ */
+final class InFlightTable {
+
+    private static final PerfAction[] ACTIONS = PerfAction.values();
+
+    /**
+     * Requete acquittee.
+     */
+    record Completed(PerfAction action, long latencyNanos) {}
+
+    private final long[] ids;
+    private final long[] sentAt;
+    private final byte[] actions;
+    private final int mask;
+    private long lastId;
+    private int size;
+
+    InFlightTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.ids = new long[slots];
+        this.sentAt = new long[slots];
+        this.actions = new byte[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Enregistre une requete envoyee a {@code now}.
+     *
+     * @param onEvicted recoit l'action d'une requete ecrasee sans reponse
+     * @return identifiant de message a utiliser
+     */
+    synchronized long register(PerfAction action, long now, Consumer<PerfAction> onEvicted) {
+        long id = ++lastId;
+        int slot = (int) (id & mask);
+        if (ids[slot] != 0) {
+            onEvicted.accept(ACTIONS[actions[slot]]);
+        } else {
+            size++;
+        }
+        ids[slot] = id;
+        sentAt[slot] = now;
+        actions[slot] = (byte) action.ordinal();
+        return id;
+    }
+
+    /**
+     * Retire la requete {@code id} a reception de sa reponse.
+     *
+     * @return null si la requete est inconnue, deja acquittee ou expiree
+     */
+    synchronized Completed complete(long id, long now) {
+        if (id <= 0) {
+            return null;
+        }
+        int slot = (int) (id & mask);
+        if (ids[slot] != id) {
+            return null;
+        }
+        ids[slot] = 0;
+        size--;
+        return new Completed(ACTIONS[actions[slot]], now - sentAt[slot]);
+    }
+
+    /**
+     * Expire les requetes envoyees depuis au moins {@code timeoutNanos}.
+     */
+    synchronized void expire(long now, long timeoutNanos, Consumer<PerfAction> onTimeout) {
+        if (size == 0) {
+            return;
+        }
+        for (int slot = 0; slot < ids.length; slot++) {
+            if (ids[slot] != 0 && now - sentAt[slot] >= timeoutNanos) {
+                ids[slot] = 0;
+                size--;
+                onTimeout.accept(ACTIONS[actions[slot]]);
+            }
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
@@ -1,15 +1,36 @@
 package com.evse.simulator.performance;
 
+import com.evse.simulator.performance.model.ActionLatency;
+import com.evse.simulator.performance.model.MetricsExport;
 import com.evse.simulator.performance.model.PerfMetrics;
+import com.evse.simulator.performance.model.PersonaMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
 import org.HdrHistogram.Histogram;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Collecteur de metriques haute precision avec HdrHistogram.
  * Calcule les percentiles P50, P95, P99 en temps reel.
+ * <p>
+ * Les latences de messages sont celles des reponses correlees a leur requete
+ * (voir {@link ConnectionPool.PerfWebSocketClient}), globalement et par action ;
+ * timeouts et CALLERROR sont comptes a part.
+ * </p>
  */
 @Slf4j
 public class MetricsCollector {
@@ -18,6 +39,15 @@ public class MetricsCollector {
     private final Histogram connectionLatencyHisto;
     private final Histogram bootLatencyHisto;
     private final Histogram messageLatencyHisto;
+    // Duree de coupure des connexions reconnectees automatiquement
+    private final Histogram reconnectLatencyHisto;
+    private final LongAdder reconnectAttempts = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder reconnectGiveUps = new LongAdder();
+    private final Map<PerfAction, ActionMetrics> actionMetrics = new EnumMap<>(PerfAction.class);
+    private final Map<String, LongAdder> callErrorCodes = new ConcurrentHashMap<>();
+    // Latences par profil (persona.<nom>) recues par merge(), pour la fusion d'un test distribue
+    private final Map<String, Histogram> mergedPersonaLatency = new ConcurrentHashMap<>();
 
     // Compteurs atomiques
     private final AtomicLong messagesSent = new AtomicLong(0);
@@ -40,9 +70,25 @@ public class MetricsCollector {
         this.targetConnections = targetConnections;
 
         // Histogrammes: plage 1us a 60s, 3 chiffres significatifs
-        this.connectionLatencyHisto = new Histogram(1, 60_000_000, 3);
-        this.bootLatencyHisto = new Histogram(1, 60_000_000, 3);
-        this.messageLatencyHisto = new Histogram(1, 60_000_000, 3);
+        // (enregistrements concurrents depuis les threads WebSocket)
+        this.connectionLatencyHisto = new ConcurrentHistogram(1, 60_000_000, 3);
+        this.bootLatencyHisto = new ConcurrentHistogram(1, 60_000_000, 3);
+        this.messageLatencyHisto = new ConcurrentHistogram(1, 60_000_000, 3);
+        // Coupures jusqu'a 1h (panne regionale, backoff plafonne)
+        this.reconnectLatencyHisto = new ConcurrentHistogram(1, 3_600_000_000L, 3);
+        for (PerfAction action : PerfAction.values()) {
+            actionMetrics.put(action, new ActionMetrics());
+        }
+    }
+
+    /**
+     * Compteurs et latences d'une action.
+     */
+    private static final class ActionMetrics {
+        final Histogram latency = new ConcurrentHistogram(1, 60_000_000, 3);
+        final LongAdder responses = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder callErrors = new LongAdder();
     }
 
     /**
@@ -78,6 +124,62 @@ public class MetricsCollector {
         }
     }
 
+    /**
+     * Enregistre la reponse (CALLRESULT) a une requete, latence en microsecondes.
+     */
+    public void recordResponse(PerfAction action, long latencyMicros) {
+        ActionMetrics metrics = actionMetrics.get(action);
+        metrics.responses.increment();
+        recordMicros(metrics.latency, latencyMicros);
+        recordMicros(messageLatencyHisto, latencyMicros);
+        if (action == PerfAction.BOOT_NOTIFICATION) {
+            recordMicros(bootLatencyHisto, latencyMicros);
+        }
+    }
+
+    /**
+     * Enregistre un CALLERROR recu en reponse a une requete.
+     */
+    public void recordCallError(PerfAction action, String errorCode, long latencyMicros) {
+        ActionMetrics metrics = actionMetrics.get(action);
+        metrics.callErrors.increment();
+        recordMicros(metrics.latency, latencyMicros);
+        callErrorCodes.computeIfAbsent(errorCode != null ? errorCode : "Unknown", k -> new LongAdder()).increment();
+    }
+
+    /**
+     * Enregistre une tentative de reconnexion automatique.
+     */
+    public void recordReconnectAttempt() {
+        reconnectAttempts.increment();
+    }
+
+    /**
+     * Enregistre une connexion retablie, duree de coupure en microsecondes.
+     */
+    public void recordReconnect(long downtimeMicros) {
+        reconnects.increment();
+        recordMicros(reconnectLatencyHisto, downtimeMicros);
+    }
+
+    /**
+     * Enregistre une connexion abandonnee apres le nombre maximal de tentatives.
+     */
+    public void recordReconnectGiveUp() {
+        reconnectGiveUps.increment();
+    }
+
+    /**
+     * Enregistre une requete restee sans reponse.
+     */
+    public void recordTimeout(PerfAction action) {
+        actionMetrics.get(action).timeouts.increment();
+    }
+
+    private static void recordMicros(Histogram histogram, long latencyMicros) {
+        histogram.recordValue(Math.min(Math.max(latencyMicros, 1), histogram.getHighestTrackableValue()));
+    }
+
     public void incrementMessagesSent() {
         messagesSent.incrementAndGet();
     }
@@ -157,6 +259,17 @@ public class MetricsCollector {
                 .messageLatencyP50Ms(microToMilli(messageLatencyHisto.getValueAtPercentile(50)))
                 .messageLatencyP95Ms(microToMilli(messageLatencyHisto.getValueAtPercentile(95)))
                 .messageLatencyP99Ms(microToMilli(messageLatencyHisto.getValueAtPercentile(99)))
+                .actionLatencies(getActionLatencies())
+                .responseTimeouts(getResponseTimeouts())
+                .callErrors(getCallErrors())
+                .errorCounts(getCallErrorCounts())
+                // Reconnexion automatique
+                .reconnectAttempts(reconnectAttempts.sum())
+                .reconnects(reconnects.sum())
+                .reconnectGiveUps(reconnectGiveUps.sum())
+                .reconnectLatencyP50Ms(microToMilli(reconnectLatencyHisto.getValueAtPercentile(50)))
+                .reconnectLatencyP99Ms(microToMilli(reconnectLatencyHisto.getValueAtPercentile(99)))
+                .reconnectLatencyMaxMs(microToMilli(reconnectLatencyHisto.getMaxValue()))
                 // Throughput
                 .throughputMsgPerSec(currentThroughput)
                 .connectionsPerSec(currentConnectionsPerSec)
@@ -177,6 +290,17 @@ public class MetricsCollector {
         connectionLatencyHisto.reset();
         bootLatencyHisto.reset();
         messageLatencyHisto.reset();
+        reconnectLatencyHisto.reset();
+        reconnectAttempts.reset();
+        reconnects.reset();
+        reconnectGiveUps.reset();
+        actionMetrics.values().forEach(metrics -> {
+            metrics.latency.reset();
+            metrics.responses.reset();
+            metrics.timeouts.reset();
+            metrics.callErrors.reset();
+        });
+        callErrorCodes.clear();
         messagesSent.set(0);
         messagesReceived.set(0);
         errors.set(0);
@@ -207,6 +331,12 @@ public class MetricsCollector {
         sb.append(String.format("  P50: %.2f\n", microToMilli(messageLatencyHisto.getValueAtPercentile(50))));
         sb.append(String.format("  P95: %.2f\n", microToMilli(messageLatencyHisto.getValueAtPercentile(95))));
         sb.append(String.format("  P99: %.2f\n", microToMilli(messageLatencyHisto.getValueAtPercentile(99))));
+        sb.append("\n--- Latences par action (ms) ---\n");
+        for (ActionLatency action : getActionLatencies()) {
+            sb.append(String.format("  %s: n=%d P50=%.2f P95=%.2f P99=%.2f timeouts=%d callErrors=%d\n",
+                    action.getAction(), action.getResponses(), action.getP50Ms(), action.getP95Ms(),
+                    action.getP99Ms(), action.getTimeouts(), action.getCallErrors()));
+        }
         return sb.toString();
     }
 
@@ -219,6 +349,164 @@ public class MetricsCollector {
     }
 
     // Getters
+    /**
+     * Etat cumule a un instant ; la difference de deux etats donne les
+     * metriques d'une fenetre (palier de recherche de capacite).
+     */
+    public record Snapshot(long takenAtNanos, long messagesSent, long responses, long timeouts,
+                           long callErrors, long errors, Histogram bootLatency, Histogram messageLatency) {
+
+        /**
+         * Metriques entre {@code earlier} et cet etat.
+         */
+        public Snapshot since(Snapshot earlier) {
+            Histogram boot = bootLatency.copy();
+            boot.subtract(earlier.bootLatency);
+            Histogram message = messageLatency.copy();
+            message.subtract(earlier.messageLatency);
+            return new Snapshot(takenAtNanos - earlier.takenAtNanos,
+                    messagesSent - earlier.messagesSent,
+                    responses - earlier.responses,
+                    timeouts - earlier.timeouts,
+                    callErrors - earlier.callErrors,
+                    errors - earlier.errors,
+                    boot, message);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long responses = actionMetrics.values().stream().mapToLong(metrics -> metrics.responses.sum()).sum();
+        return new Snapshot(System.nanoTime(), messagesSent.get(), responses, getResponseTimeouts(),
+                getCallErrors(), errors.get(), bootLatencyHisto.copy(), messageLatencyHisto.copy());
+    }
+
+    /**
+     * Exporte compteurs et histogrammes pour une fusion sur une autre instance
+     * (coordinateur d'un test distribue).
+     */
+    public MetricsExport export() {
+        Map<String, String> histograms = new LinkedHashMap<>();
+        histograms.put("connection", encode(connectionLatencyHisto));
+        histograms.put("boot", encode(bootLatencyHisto));
+        histograms.put("message", encode(messageLatencyHisto));
+        histograms.put("reconnect", encode(reconnectLatencyHisto));
+        Map<String, Long> responses = new LinkedHashMap<>();
+        Map<String, Long> timeouts = new LinkedHashMap<>();
+        Map<String, Long> callErrors = new LinkedHashMap<>();
+        actionMetrics.forEach((action, metrics) -> {
+            histograms.put("action." + action.name(), encode(metrics.latency));
+            responses.put(action.name(), metrics.responses.sum());
+            timeouts.put(action.name(), metrics.timeouts.sum());
+            callErrors.put(action.name(), metrics.callErrors.sum());
+        });
+        mergedPersonaLatency.forEach((name, latency) -> histograms.put(name, encode(latency)));
+        return MetricsExport.builder()
+                .messagesSent(messagesSent.get())
+                .messagesReceived(messagesReceived.get())
+                .errors(errors.get())
+                .throughputMsgPerSec(currentThroughput)
+                .connectionsPerSec(currentConnectionsPerSec)
+                .histograms(histograms)
+                .actionResponses(responses)
+                .actionTimeouts(timeouts)
+                .actionCallErrors(callErrors)
+                .callErrorCodes(getCallErrorCounts())
+                .build();
+    }
+
+    /**
+     * Ajoute les compteurs et histogrammes d'une autre instance a ce collecteur.
+     */
+    public void merge(MetricsExport export) {
+        messagesSent.addAndGet(export.getMessagesSent());
+        messagesReceived.addAndGet(export.getMessagesReceived());
+        errors.addAndGet(export.getErrors());
+        Map<String, String> histograms = export.getHistograms() != null ? export.getHistograms() : Map.of();
+        addEncoded(connectionLatencyHisto, histograms.get("connection"));
+        addEncoded(bootLatencyHisto, histograms.get("boot"));
+        addEncoded(messageLatencyHisto, histograms.get("message"));
+        addEncoded(reconnectLatencyHisto, histograms.get("reconnect"));
+        actionMetrics.forEach((action, metrics) -> {
+            addEncoded(metrics.latency, histograms.get("action." + action.name()));
+            metrics.responses.add(count(export.getActionResponses(), action.name()));
+            metrics.timeouts.add(count(export.getActionTimeouts(), action.name()));
+            metrics.callErrors.add(count(export.getActionCallErrors(), action.name()));
+        });
+        histograms.forEach((name, encoded) -> {
+            if (name.startsWith("persona.")) {
+                addEncoded(mergedPersonaLatency.computeIfAbsent(name,
+                        k -> new ConcurrentHistogram(1, 60_000_000, 3)), encoded);
+            }
+        });
+        if (export.getCallErrorCodes() != null) {
+            export.getCallErrorCodes().forEach((code, count) ->
+                    callErrorCodes.computeIfAbsent(code, k -> new LongAdder()).add(count));
+        }
+    }
+
+    /**
+     * Fusionne les metriques par profil de plusieurs instances : compteurs
+     * additionnes par nom de profil, latences recalculees sur l'histogramme
+     * fusionne (une moyenne de percentiles serait fausse).
+     */
+    public static List<PersonaMetrics> mergePersonaMetrics(Collection<MetricsExport> exports) {
+        Map<String, PersonaMetrics> merged = new LinkedHashMap<>();
+        Map<String, Histogram> latencies = new LinkedHashMap<>();
+        for (MetricsExport export : exports) {
+            if (export == null || export.getPersonaMetrics() == null) {
+                continue;
+            }
+            Map<String, String> histograms = export.getHistograms() != null ? export.getHistograms() : Map.of();
+            for (PersonaMetrics persona : export.getPersonaMetrics()) {
+                PersonaMetrics total = merged.computeIfAbsent(persona.getPersona(), name -> PersonaMetrics.builder()
+                        .persona(name)
+                        .behavior(persona.getBehavior())
+                        .build());
+                total.setChargePoints(total.getChargePoints() + persona.getChargePoints());
+                total.setMessagesSent(total.getMessagesSent() + persona.getMessagesSent());
+                total.setResponses(total.getResponses() + persona.getResponses());
+                total.setTimeouts(total.getTimeouts() + persona.getTimeouts());
+                total.setCallErrors(total.getCallErrors() + persona.getCallErrors());
+                total.setSessionsStarted(total.getSessionsStarted() + persona.getSessionsStarted());
+                total.setSessionsCompleted(total.getSessionsCompleted() + persona.getSessionsCompleted());
+                total.setRemoteStarts(total.getRemoteStarts() + persona.getRemoteStarts());
+                total.setReconnects(total.getReconnects() + persona.getReconnects());
+                addEncoded(latencies.computeIfAbsent(persona.getPersona(), name -> new Histogram(1, 60_000_000, 3)),
+                        histograms.get("persona." + persona.getPersona()));
+            }
+        }
+        merged.forEach((name, total) -> {
+            Histogram latency = latencies.get(name);
+            total.setLatencyAvgMs(latency.getMean() / 1000.0);
+            total.setLatencyP95Ms(latency.getValueAtPercentile(95) / 1000.0);
+            total.setLatencyP99Ms(latency.getValueAtPercentile(99) / 1000.0);
+        });
+        return new ArrayList<>(merged.values());
+    }
+
+    static String encode(Histogram histogram) {
+        Histogram copy = histogram.copy();
+        ByteBuffer buffer = ByteBuffer.allocate(copy.getNeededByteBufferCapacity());
+        int length = copy.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static void addEncoded(Histogram target, String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+            target.add(Histogram.decodeFromCompressedByteBuffer(buffer, target.getHighestTrackableValue()));
+        } catch (Exception e) {
+            log.warn("Histogramme importe illisible: {}", e.getMessage());
+        }
+    }
+
+    private static long count(Map<String, Long> counts, String key) {
+        return counts != null ? counts.getOrDefault(key, 0L) : 0L;
+    }
+
     public long getMessagesSent() {
         return messagesSent.get();
     }
@@ -231,7 +519,59 @@ public class MetricsCollector {
         return errors.get();
     }
 
+    /**
+     * Copie de l'histogramme des durees de coupure (microsecondes).
+     */
+    public Histogram getReconnectLatency() {
+        return reconnectLatencyHisto.copy();
+    }
+
     public double getThroughput() {
         return currentThroughput;
     }
+
+    /**
+     * Latences des actions ayant au moins une requete acquittee, en erreur ou expiree.
+     */
+    public List<ActionLatency> getActionLatencies() {
+        List<ActionLatency> latencies = new ArrayList<>();
+        actionMetrics.forEach((action, metrics) -> {
+            long responses = metrics.responses.sum();
+            long timeouts = metrics.timeouts.sum();
+            long callErrors = metrics.callErrors.sum();
+            if (responses + timeouts + callErrors == 0) {
+                return;
+            }
+            Histogram latency = metrics.latency;
+            latencies.add(ActionLatency.builder()
+                    .action(action.getOcppName())
+                    .responses(responses)
+                    .timeouts(timeouts)
+                    .callErrors(callErrors)
+                    .avgMs(microToMilli(latency.getMean()))
+                    .p50Ms(microToMilli(latency.getValueAtPercentile(50)))
+                    .p95Ms(microToMilli(latency.getValueAtPercentile(95)))
+                    .p99Ms(microToMilli(latency.getValueAtPercentile(99)))
+                    .maxMs(microToMilli(latency.getMaxValue()))
+                    .build());
+        });
+        return latencies;
+    }
+
+    public long getResponseTimeouts() {
+        return actionMetrics.values().stream().mapToLong(metrics -> metrics.timeouts.sum()).sum();
+    }
+
+    public long getCallErrors() {
+        return actionMetrics.values().stream().mapToLong(metrics -> metrics.callErrors.sum()).sum();
+    }
+
+    /**
+     * Nombre de CALLERROR par code d'erreur OCPP.
+     */
+    public Map<String, Long> getCallErrorCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        callErrorCodes.forEach((code, count) -> counts.put(code, count.sum()));
+        return counts;
+    }
 }
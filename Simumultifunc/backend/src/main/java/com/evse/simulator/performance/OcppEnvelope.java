@@ -0,0 +1,151 @@
+package com.evse.simulator.performance;
+
+/**
+ * Lecture de l'enveloppe d'une trame OCPP-J ({@code [type,"id",...]}) sans
+ * parser le payload JSON.
+ *
+ * @param messageType  2 CALL, 3 CALLRESULT, 4 CALLERROR
+ * @param messageId    identifiant du message
+ * @param payloadStart position qui suit l'identifiant dans la trame
+ */
+public record OcppEnvelope(int messageType, String messageId, int payloadStart) {
+
+    public static final int CALL = 2;
+    public static final int CALL_RESULT = 3;
+    public static final int CALL_ERROR = 4;
+
+    /**
+     * @return null si la trame n'est pas une enveloppe OCPP-J
+     */
+    public static OcppEnvelope parse(String frame) {
+        int i = skipWhitespace(frame, 0);
+        if (i >= frame.length() || frame.charAt(i) != '[') {
+            return null;
+        }
+        i = skipWhitespace(frame, i + 1);
+        if (i >= frame.length() || !Character.isDigit(frame.charAt(i))) {
+            return null;
+        }
+        int type = frame.charAt(i++) - '0';
+        i = skipWhitespace(frame, i);
+        if (i >= frame.length() || frame.charAt(i) != ',') {
+            return null;
+        }
+        i = skipWhitespace(frame, i + 1);
+        int end = endOfString(frame, i);
+        if (end < 0) {
+            return null;
+        }
+        return new OcppEnvelope(type, frame.substring(i + 1, end), end + 1);
+    }
+
+    /**
+     * Identifiant numerique (sequence du client), -1 s'il ne l'est pas.
+     */
+    long numericId() {
+        if (messageId.isEmpty() || messageId.length() > 18) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < messageId.length(); i++) {
+            char c = messageId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Code d'erreur d'un CALLERROR ({@code [4,"id","ErrorCode",...]}).
+     */
+    String errorCode(String frame) {
+        String code = stringAfterId(frame);
+        return code != null ? code : "Unknown";
+    }
+
+    /**
+     * Action d'un CALL ({@code [2,"id","Action",{...}]}), null si absente.
+     */
+    public String action(String frame) {
+        return stringAfterId(frame);
+    }
+
+    private String stringAfterId(String frame) {
+        int i = skipWhitespace(frame, payloadStart);
+        if (i >= frame.length() || frame.charAt(i) != ',') {
+            return null;
+        }
+        i = skipWhitespace(frame, i + 1);
+        int end = endOfString(frame, i);
+        return end < 0 ? null : frame.substring(i + 1, end);
+    }
+
+    /**
+     * Vrai si le payload d'un CALLRESULT porte {@code "status":"Accepted"}.
+     */
+    boolean isAccepted(String frame) {
+        int key = frame.indexOf("\"status\"", payloadStart);
+        if (key < 0) {
+            return false;
+        }
+        int i = skipWhitespace(frame, key + 8);
+        if (i >= frame.length() || frame.charAt(i) != ':') {
+            return false;
+        }
+        i = skipWhitespace(frame, i + 1);
+        return frame.startsWith("\"Accepted\"", i);
+    }
+
+    /**
+     * {@code "transactionId"} entier du payload d'un CALLRESULT
+     * ({@code StartTransaction.conf}), -1 s'il est absent.
+     */
+    long transactionId(String frame) {
+        int key = frame.indexOf("\"transactionId\"", payloadStart);
+        if (key < 0) {
+            return -1;
+        }
+        int i = skipWhitespace(frame, key + 15);
+        if (i >= frame.length() || frame.charAt(i) != ':') {
+            return -1;
+        }
+        i = skipWhitespace(frame, i + 1);
+        long value = 0;
+        int digits = 0;
+        for (; i < frame.length() && digits < 18; i++, digits++) {
+            char c = frame.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return digits == 0 ? -1 : value;
+    }
+
+    private static int skipWhitespace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Position du guillemet fermant de la chaine qui commence en {@code start}, -1 sinon.
+     */
+    private static int endOfString(String s, int start) {
+        if (start >= s.length() || s.charAt(start) != '"') {
+            return -1;
+        }
+        for (int i = start + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
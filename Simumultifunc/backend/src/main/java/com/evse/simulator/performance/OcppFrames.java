@@ -0,0 +1,72 @@
+package com.evse.simulator.performance;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Gabarits des CALL OCPP 1.6 des scenarios de performance, envoyes par
+ * {@link ConnectionPool.PerfWebSocketClient#sendCall(FrameTemplate, String, long)}.
+ */
+final class OcppFrames {
+
+    /**
+     * Mesurandes ajoutees apres l'energie, dans l'ordre, pour grossir les MeterValues.
+     */
+    private static final String[][] EXTRA_MEASURANDS = {
+        {"Power.Active.Import", "W", "7400"},
+        {"Current.Import", "A", "32"},
+        {"Voltage", "V", "230"},
+        {"SoC", "Percent", "50"},
+        {"Temperature", "Celsius", "25"},
+        {"Power.Offered", "W", "22000"},
+        {"Frequency", "Hertz", "50"}
+    };
+
+    static final FrameTemplate BOOT_NOTIFICATION = FrameTemplate.call(PerfAction.BOOT_NOTIFICATION,
+            "{\"chargePointVendor\":\"PerfTest\",\"chargePointModel\":\"Perf25K\"}");
+
+    static final FrameTemplate HEARTBEAT = FrameTemplate.call(PerfAction.HEARTBEAT, "{}");
+
+    static final FrameTemplate AUTHORIZE = FrameTemplate.call(PerfAction.AUTHORIZE,
+            "{\"idTag\":\"${idTag}\"}");
+
+    static final FrameTemplate START_TRANSACTION = FrameTemplate.call(PerfAction.START_TRANSACTION,
+            "{\"connectorId\":1,\"idTag\":\"${idTag}\",\"meterStart\":0,\"timestamp\":\"${timestamp}\"}");
+
+    static final FrameTemplate STOP_TRANSACTION = FrameTemplate.call(PerfAction.STOP_TRANSACTION,
+            "{\"idTag\":\"${idTag}\",\"meterStop\":${meter},\"timestamp\":\"${timestamp}\",\"transactionId\":${transactionId}}");
+
+    private static final ConcurrentMap<Integer, FrameTemplate> METER_VALUES_BY_SIZE = new ConcurrentHashMap<>();
+
+    static final FrameTemplate METER_VALUES = meterValues(1);
+
+    private OcppFrames() {
+    }
+
+    /**
+     * MeterValues a {@code sampledValues} valeurs (energie comprise), compile
+     * une fois par taille.
+     */
+    static FrameTemplate meterValues(int sampledValues) {
+        return METER_VALUES_BY_SIZE.computeIfAbsent(Math.max(1, sampledValues), OcppFrames::compileMeterValues);
+    }
+
+    private static FrameTemplate compileMeterValues(int sampledValues) {
+        StringBuilder sb = new StringBuilder(160 + sampledValues * 80);
+        sb.append("{\"connectorId\":1,\"transactionId\":${transactionId},\"meterValue\":[{\"timestamp\":\"${timestamp}\"")
+          .append(",\"sampledValue\":[{\"value\":\"${meter}\"")
+          .append(",\"measurand\":\"Energy.Active.Import.Register\",\"unit\":\"Wh\"}");
+        for (int i = 1; i < sampledValues; i++) {
+            String[] measurand = EXTRA_MEASURANDS[(i - 1) % EXTRA_MEASURANDS.length];
+            sb.append(",{\"value\":\"").append(measurand[2])
+              .append("\",\"measurand\":\"").append(measurand[0])
+              .append("\",\"unit\":\"").append(measurand[1]);
+            if (i > EXTRA_MEASURANDS.length) {
+                // Au-dela, une mesure par phase
+                sb.append("\",\"phase\":\"L").append((i - 1) / EXTRA_MEASURANDS.length);
+            }
+            sb.append("\"}");
+        }
+        return FrameTemplate.call(PerfAction.METER_VALUES, sb.append("]}]}").toString());
+    }
+}
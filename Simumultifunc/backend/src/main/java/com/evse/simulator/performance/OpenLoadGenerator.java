@@ -0,0 +1,298 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.model.LoadRate;
+import com.evse.simulator.performance.model.PerfConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Generateur de charge en modele ouvert pour le scenario OPEN_LOAD.
+ * <p>
+ * Les transactions et les MeterValues arrivent a un debit cible (constant ou
+ * Poisson), independamment du temps de reponse du CSMS : chaque arrivee est
+ * affectee a un point de charge virtuel libre (transaction) ou en charge
+ * (MeterValues), et la fin de chaque transaction est un minuteur, sans thread
+ * bloque. Une arrivee sans point de charge disponible est comptee comme perdue ;
+ * le retard entre l'instant prevu et l'envoi effectif est mesure par flux.
+ * </p>
+ */
+@Slf4j
+class OpenLoadGenerator {
+
+    private static final long MAX_LAG_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final long METER_STEP_WH = 1000;
+
+    private final ConnectionPool pool;
+    private final MetricsCollector metrics;
+    private final PerfConfig config;
+    private final ScheduledExecutorService timers;
+
+    private final Set<String> known = ConcurrentHashMap.newKeySet();
+    private final Queue<PerfWebSocketClient> idle = new ConcurrentLinkedQueue<>();
+    private final Queue<VirtualTransaction> charging = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedTransactions = new AtomicInteger();
+    private final List<Stream> streams = new ArrayList<>();
+
+    private volatile boolean running;
+    private volatile long startNanos;
+    private volatile long stopNanos;
+
+    OpenLoadGenerator(ConnectionPool pool, MetricsCollector metrics, PerfConfig config) {
+        this(pool, metrics, config, config.getTransactionsPerSecond(), config.getMeterValuesPerSecond());
+    }
+
+    /**
+     * @param transactionsPerSecond debit cible des transactions, a la place de celui de la config
+     * @param meterValuesPerSecond  debit cible des MeterValues, 0 pour aucun
+     */
+    OpenLoadGenerator(ConnectionPool pool, MetricsCollector metrics, PerfConfig config,
+                      double transactionsPerSecond, double meterValuesPerSecond) {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.config = config;
+        this.timers = Executors.newScheduledThreadPool(2, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(0);
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "perf-load-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        streams.add(new Stream("transactions", transactionsPerSecond, this::startTransaction));
+        if (meterValuesPerSecond > 0) {
+            streams.add(new Stream("meterValues", meterValuesPerSecond, this::sendMeterValues));
+        }
+    }
+
+    /**
+     * Demarre les flux d'arrivees.
+     */
+    void start() {
+        running = true;
+        discoverConnections();
+        // Les connexions etablies apres le demarrage rejoignent les points de charge libres
+        timers.scheduleAtFixedRate(this::discoverConnections, 1, 1, TimeUnit.SECONDS);
+
+        startNanos = System.nanoTime();
+        streams.forEach(stream -> stream.start(startNanos));
+        log.info("Charge ouverte demarree: {} ({})", streams.stream()
+                .map(stream -> stream.name + "=" + stream.ratePerSecond + "/s").toList(), config.getArrivalMode());
+    }
+
+    /**
+     * Arrete les arrivees et termine les transactions en cours.
+     */
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        stopNanos = System.nanoTime();
+        timers.shutdownNow();
+
+        VirtualTransaction tx;
+        while ((tx = charging.poll()) != null) {
+            stopTransaction(tx);
+        }
+        log.info("Charge ouverte arretee: {} transactions terminees", completedTransactions.get());
+    }
+
+    int getCompletedTransactions() {
+        return completedTransactions.get();
+    }
+
+    /**
+     * Debit cible et obtenu de chaque flux.
+     */
+    List<LoadRate> getLoadRates() {
+        long end = running ? System.nanoTime() : stopNanos;
+        double elapsedSeconds = Math.max(end - startNanos, 1) / 1e9;
+        return streams.stream().map(stream -> stream.snapshot(elapsedSeconds)).toList();
+    }
+
+    private void discoverConnections() {
+        for (PerfWebSocketClient client : pool.getConnections().values()) {
+            if (client.isOpen() && known.add(client.getCpId())) {
+                idle.add(client);
+            }
+        }
+    }
+
+    private boolean startTransaction() {
+        PerfWebSocketClient client = nextIdleClient();
+        if (client == null) {
+            return false;
+        }
+        client.sendCall(OcppFrames.AUTHORIZE, config.getIdTag(), 0);
+        metrics.incrementMessagesSent();
+        client.sendCall(OcppFrames.START_TRANSACTION, config.getIdTag(), 0);
+        metrics.incrementMessagesSent();
+
+        VirtualTransaction tx = new VirtualTransaction(client);
+        charging.add(tx);
+        long holdMs = (long) config.getMeterValuesCount() * config.getMeterValueIntervalMs();
+        timers.schedule(() -> stopTransaction(tx), holdMs, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private PerfWebSocketClient nextIdleClient() {
+        PerfWebSocketClient client;
+        while ((client = idle.poll()) != null) {
+            if (client.isOpen()) {
+                return client;
+            }
+            // Connexion perdue : redecouverte si elle revient
+            known.remove(client.getCpId());
+        }
+        return null;
+    }
+
+    /**
+     * MeterValues pour la transaction en cours suivante (tourniquet).
+     */
+    private boolean sendMeterValues() {
+        VirtualTransaction tx;
+        while ((tx = charging.poll()) != null) {
+            synchronized (tx) {
+                if (tx.stopped || !tx.client.isOpen()) {
+                    continue;
+                }
+                tx.meterWh += METER_STEP_WH;
+                tx.client.sendCall(OcppFrames.METER_VALUES, null, tx.meterWh);
+            }
+            metrics.incrementMessagesSent();
+            charging.add(tx);
+            return true;
+        }
+        return false;
+    }
+
+    private void stopTransaction(VirtualTransaction tx) {
+        long meterStop;
+        synchronized (tx) {
+            if (tx.stopped) {
+                return;
+            }
+            tx.stopped = true;
+            meterStop = tx.meterWh;
+        }
+        PerfWebSocketClient client = tx.client;
+        if (!client.isOpen()) {
+            known.remove(client.getCpId());
+            return;
+        }
+        try {
+            client.sendCall(OcppFrames.STOP_TRANSACTION, config.getIdTag(), meterStop);
+            metrics.incrementMessagesSent();
+            completedTransactions.incrementAndGet();
+            if (running) {
+                idle.add(client);
+            }
+        } catch (RuntimeException e) {
+            metrics.incrementErrors();
+            known.remove(client.getCpId());
+            log.debug("Erreur StopTransaction {}: {}", client.getCpId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Transaction en cours sur un point de charge virtuel.
+     */
+    private static final class VirtualTransaction {
+        final PerfWebSocketClient client;
+        long meterWh;
+        boolean stopped;
+
+        VirtualTransaction(PerfWebSocketClient client) {
+            this.client = client;
+        }
+    }
+
+    /**
+     * Flux d'arrivees : un seul minuteur arme a la fois, les arrivees en retard
+     * sont envoyees des que possible sans decaler la suite.
+     */
+    private final class Stream {
+        final String name;
+        final double ratePerSecond;
+        final BooleanSupplier dispatch;
+        final LongAdder scheduled = new LongAdder();
+        final LongAdder sent = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final Histogram lag = new ConcurrentHistogram(1, MAX_LAG_MICROS, 2);
+        ArrivalSchedule schedule;
+        long due;
+
+        Stream(String name, double ratePerSecond, BooleanSupplier dispatch) {
+            this.name = name;
+            this.ratePerSecond = ratePerSecond;
+            this.dispatch = dispatch;
+        }
+
+        void start(long startNanos) {
+            schedule = new ArrivalSchedule(config.getArrivalMode(), ratePerSecond, startNanos, new Random());
+            due = schedule.next();
+            arm();
+        }
+
+        void arm() {
+            timers.schedule(this::fire, Math.max(0, due - System.nanoTime()), TimeUnit.NANOSECONDS);
+        }
+
+        void fire() {
+            long now = System.nanoTime();
+            while (running && due - now <= 0) {
+                lag.recordValue(Math.min(Math.max((now - due) / 1000, 1), MAX_LAG_MICROS));
+                scheduled.increment();
+                boolean ok;
+                try {
+                    ok = dispatch.getAsBoolean();
+                } catch (RuntimeException e) {
+                    metrics.incrementErrors();
+                    log.debug("Erreur envoi {}: {}", name, e.getMessage());
+                    ok = false;
+                }
+                (ok ? sent : dropped).increment();
+                due = schedule.next();
+                now = System.nanoTime();
+            }
+            if (running) {
+                arm();
+            }
+        }
+
+        LoadRate snapshot(double elapsedSeconds) {
+            return LoadRate.builder()
+                    .stream(name)
+                    .arrivalMode(config.getArrivalMode().name())
+                    .targetPerSec(ratePerSecond)
+                    .achievedPerSec(sent.sum() / elapsedSeconds)
+                    .scheduled(scheduled.sum())
+                    .sent(sent.sum())
+                    .dropped(dropped.sum())
+                    .lagAvgMs(lag.getMean() / 1000.0)
+                    .lagP99Ms(lag.getValueAtPercentile(99) / 1000.0)
+                    .lagMaxMs(lag.getMaxValue() / 1000.0)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.evse.simulator.performance;
+
+/**
+ * Actions OCPP 1.6 envoyees par les clients de performance, suivies individuellement.
+ */
+public enum PerfAction {
+    BOOT_NOTIFICATION("BootNotification"),
+    AUTHORIZE("Authorize"),
+    START_TRANSACTION("StartTransaction"),
+    METER_VALUES("MeterValues"),
+    STOP_TRANSACTION("StopTransaction"),
+    HEARTBEAT("Heartbeat");
+
+    private final String ocppName;
+
+    PerfAction(String ocppName) {
+        this.ocppName = ocppName;
+    }
+
+    public String getOcppName() {
+        return ocppName;
+    }
+}
@@ -1,27 +1,47 @@
 package com.evse.simulator.performance;
 
+import com.evse.simulator.performance.archive.PerfRunArchive;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import com.evse.simulator.performance.history.MetricsHistoryStore;
 import com.evse.simulator.performance.model.*;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 
 /**
  * Moteur de tests de performance haute capacite.
- * Supporte 25K+ connexions simultanees avec 4 scenarios.
+ * Supporte 25K+ connexions simultanees ; un scenario par {@link PerfConfig.ScenarioType}.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PerformanceEngine {
 
+    public static final String HISTORY_PREFIX = "perf";
+    private static final long WAIT_CHECK_MS = 100;
+
+    private final MetricsHistoryStore metricsHistory;
+    private final MockCsmsService mockCsms;
+    private final PerfRunArchive runArchive;
+
     private ConnectionPool connectionPool;
     private MetricsCollector metricsCollector;
+    private volatile OpenLoadGenerator loadGenerator;
+    private volatile WorkloadMixRunner workloadRunner;
+    private volatile CapacityReport lastCapacityReport;
+    private volatile ChaosReport lastChaosReport;
+    private volatile ChaosProxy chaosProxy;
     private ScheduledExecutorService metricsScheduler;
 
     private final AtomicReference<PerfStatus> status = new AtomicReference<>(PerfStatus.IDLE);
@@ -43,36 +63,91 @@ public class PerformanceEngine {
             throw new IllegalStateException("Un test est deja en cours");
         }
 
+        if (config.getScenarioType() == PerfConfig.ScenarioType.OPEN_LOAD && config.getTransactionsPerSecond() <= 0) {
+            throw new IllegalStateException("Le scenario OPEN_LOAD requiert transactionsPerSecond > 0");
+        }
+        if (config.getScenarioType() == PerfConfig.ScenarioType.WORKLOAD
+                && (config.getPersonas() == null || config.getPersonas().stream().mapToDouble(PerfPersona::getWeight).sum() <= 0)) {
+            throw new IllegalStateException("Le scenario WORKLOAD requiert des profils de poids positif");
+        }
+
         currentTestId = UUID.randomUUID().toString().substring(0, 8);
+        loadGenerator = null;
+        workloadRunner = null;
         currentConfig = config;
         status.set(PerfStatus.INITIALIZING);
 
         log.info("Demarrage test {} - scenario={}, target={}, rampUp={}s",
                 currentTestId, config.getScenario(), config.getTargetConnections(), config.getRampUpSeconds());
 
+        // Scenario CHAOS : connexions relayees par le proxy local si demande
+        String targetUrl = config.getOcppUrl();
+        chaosProxy = null;
+        if (config.getScenarioType() == PerfConfig.ScenarioType.CHAOS
+                && config.getChaos() != null && config.getChaos().isProxy()) {
+            chaosProxy = new ChaosProxy(targetUrl);
+            targetUrl = chaosProxy.startAndGetUrl();
+        }
+
         // Initialisation
         double connectionsPerSecond = config.getTargetConnections() / (double) config.getRampUpSeconds();
         connectionPool = new ConnectionPool(
-                config.getOcppUrl(),
+                targetUrl,
                 config.getCpIdPrefix(),
                 config.getTargetConnections(),
                 connectionsPerSecond
         );
+        connectionPool.setResponseTimeoutMs(config.getResponseTimeoutMs());
+        connectionPool.setIndexOffset(config.getCpIndexOffset());
         metricsCollector = new MetricsCollector(config.getTargetConnections());
+        if (config.getReconnect() == null
+                && (config.isAutoReconnect() || config.getScenarioType() == PerfConfig.ScenarioType.CHAOS)) {
+            config.setReconnect(ReconnectPolicy.builder().build());
+        }
+        connectionPool.setReconnectPolicy(config.getReconnect());
+        if (config.getScenarioType() == PerfConfig.ScenarioType.WORKLOAD) {
+            // Graine tiree si absente, conservee dans la config pour rejouer le test
+            if (config.getSeed() == null) {
+                config.setSeed(ThreadLocalRandom.current().nextLong());
+            }
+            workloadRunner = new WorkloadMixRunner(connectionPool, metricsCollector, config, config.getSeed());
+        }
 
         // Callbacks pour metriques
         connectionPool.setConnectionCallback(result -> {
             if (result.isSuccess()) {
+                // Latence du BootNotification mesuree par la correlation des reponses
                 metricsCollector.recordConnectionLatency(result.getConnectionLatencyMs());
-                metricsCollector.recordBootLatency(result.getBootLatencyMs());
             } else {
                 metricsCollector.incrementErrors();
             }
         });
 
+        connectionPool.setReconnectCallback(event -> {
+            switch (event.kind) {
+                case ATTEMPT -> metricsCollector.recordReconnectAttempt();
+                case RECONNECTED -> metricsCollector.recordReconnect(event.downtimeMicros);
+                case GAVE_UP -> metricsCollector.recordReconnectGiveUp();
+            }
+        });
+
         connectionPool.setMessageCallback(event -> {
-            metricsCollector.recordMessageLatency(event.latencyMs);
-            metricsCollector.incrementMessagesReceived();
+            switch (event.kind) {
+                case RESPONSE -> {
+                    metricsCollector.recordResponse(event.action, event.latencyMicros);
+                    metricsCollector.incrementMessagesReceived();
+                }
+                case CALL_ERROR -> {
+                    metricsCollector.recordCallError(event.action, event.errorCode, event.latencyMicros);
+                    metricsCollector.incrementMessagesReceived();
+                }
+                case TIMEOUT -> metricsCollector.recordTimeout(event.action);
+                case UNSOLICITED -> metricsCollector.incrementMessagesReceived();
+            }
+            WorkloadMixRunner runner = workloadRunner;
+            if (runner != null) {
+                runner.onMessage(event);
+            }
         });
 
         // Resultat initial
@@ -83,6 +158,7 @@ public class PerformanceEngine {
                 .startTime(Instant.now())
                 .build();
         currentResult.set(result);
+        metricsHistory.startRun(currentTestId, config.getScenario());
 
         // Demarrage metriques temps reel
         startMetricsReporting();
@@ -108,6 +184,10 @@ public class PerformanceEngine {
             case CHARGING -> runChargingScenario(config);
             case STRESS -> runStressScenario(config);
             case ENDURANCE -> runEnduranceScenario(config);
+            case OPEN_LOAD -> runOpenLoadScenario(config);
+            case WORKLOAD -> runWorkloadScenario(config);
+            case CAPACITY -> runCapacityScenario(config);
+            case CHAOS -> runChaosScenario(config);
         };
     }
 
@@ -147,22 +227,21 @@ public class PerformanceEngine {
                     // Demarrer les transactions
                     return connectionPool.forEachConnection(client -> {
                         try {
-                            // StartTransaction
-                            String startTxMsg = buildStartTransactionMessage(client.getCpId(), config.getIdTag());
-                            client.send(startTxMsg);
+                            // Authorize puis StartTransaction
+                            client.sendCall(OcppFrames.AUTHORIZE, config.getIdTag(), 0);
+                            metricsCollector.incrementMessagesSent();
+                            client.sendCall(OcppFrames.START_TRANSACTION, config.getIdTag(), 0);
                             metricsCollector.incrementMessagesSent();
 
                             // MeterValues
                             for (int i = 0; i < config.getMeterValuesCount(); i++) {
                                 Thread.sleep(config.getMeterValueIntervalMs());
-                                String mvMsg = buildMeterValuesMessage(client.getCpId(), i * 1000);
-                                client.send(mvMsg);
+                                client.sendCall(OcppFrames.METER_VALUES, null, i * 1000L);
                                 metricsCollector.incrementMessagesSent();
                             }
 
                             // StopTransaction
-                            String stopTxMsg = buildStopTransactionMessage(client.getCpId(), config.getIdTag());
-                            client.send(stopTxMsg);
+                            client.sendCall(OcppFrames.STOP_TRANSACTION, config.getIdTag(), 10000);
                             metricsCollector.incrementMessagesSent();
 
                             completedTransactions.incrementAndGet();
@@ -184,6 +263,129 @@ public class PerformanceEngine {
                 });
     }
 
+    /**
+     * Scenario OPEN_LOAD: Transactions et MeterValues a debit cible (modele ouvert),
+     * independant du nombre de connexions et du temps de reponse du CSMS.
+     */
+    private CompletableFuture<Void> runOpenLoadScenario(PerfConfig config) {
+        log.info("Execution scenario OPEN_LOAD - {} tx/s, {} MeterValues/s, {}",
+                config.getTransactionsPerSecond(), config.getMeterValuesPerSecond(), config.getArrivalMode());
+        long durationMs = runDurationMs(config);
+
+        return connectionPool.startConnections()
+                .thenCompose(v -> waitForConnections(config.getTargetConnections() / 2, config.getRampUpSeconds()))
+                .thenCompose(v -> {
+                    OpenLoadGenerator generator = new OpenLoadGenerator(connectionPool, metricsCollector, config);
+                    loadGenerator = generator;
+                    generator.start();
+                    return delay(Math.max(durationMs, 1000L)).whenComplete((r, ex) -> generator.stop());
+                })
+                .thenCompose(v -> delay(5000)) // Attendre reponses
+                .thenRun(() -> {
+                    if (status.get() != PerfStatus.RUNNING) {
+                        return;
+                    }
+                    PerfResult result = currentResult.get();
+                    result.setCompletedTransactions(loadGenerator.getCompletedTransactions());
+                    completeTest();
+                })
+                .exceptionally(ex -> {
+                    failTest(ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Scenario WORKLOAD: Melange pondere de profils de points de charge
+     * (inactifs, sessions AC/DC, demarrages a distance, tempetes de reconnexion).
+     */
+    private CompletableFuture<Void> runWorkloadScenario(PerfConfig config) {
+        log.info("Execution scenario WORKLOAD - {} profils, graine {}",
+                config.getPersonas().size(), workloadRunner.getSeed());
+        WorkloadMixRunner runner = workloadRunner;
+
+        return connectionPool.startConnections()
+                .thenCompose(v -> waitForConnections(config.getTargetConnections() / 2, config.getRampUpSeconds()))
+                .thenCompose(v -> {
+                    runner.start();
+                    return delay(Math.max(runDurationMs(config), 1000L)).whenComplete((r, ex) -> runner.stop());
+                })
+                .thenCompose(v -> delay(5000)) // Attendre reponses
+                .thenRun(() -> {
+                    if (status.get() != PerfStatus.RUNNING) {
+                        return;
+                    }
+                    PerfResult result = currentResult.get();
+                    result.setCompletedTransactions(runner.getCompletedSessions());
+                    completeTest();
+                })
+                .exceptionally(ex -> {
+                    failTest(ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Scenario CAPACITY: Recherche du niveau soutenable le plus haut sous SLO.
+     */
+    private CompletableFuture<Void> runCapacityScenario(PerfConfig config) {
+        log.info("Execution scenario CAPACITY");
+        CapacitySearchRunner runner = new CapacitySearchRunner(currentTestId, connectionPool, metricsCollector, config,
+                () -> status.get() == PerfStatus.RUNNING);
+
+        return runner.start()
+                .thenAccept(report -> {
+                    lastCapacityReport = report;
+                    PerfResult result = currentResult.get();
+                    result.setCapacityReport(report);
+                    if (status.get() == PerfStatus.RUNNING) {
+                        completeTest();
+                    }
+                })
+                .exceptionally(ex -> {
+                    failTest(ex.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Scenario CHAOS: perturbations (coupures, redemarrages du CSMS simule,
+     * lien degrade) une fois les connexions ouvertes, et mesure de la reprise.
+     */
+    private CompletableFuture<Void> runChaosScenario(PerfConfig config) {
+        log.info("Execution scenario CHAOS");
+        ChaosProxy proxy = chaosProxy;
+        ChaosRunner runner = new ChaosRunner(currentTestId, connectionPool, metricsCollector, config, proxy, mockCsms,
+                () -> status.get() == PerfStatus.RUNNING);
+
+        return connectionPool.startConnections()
+                .thenCompose(v -> waitForConnections(config.getTargetConnections(), config.getRampUpSeconds() + 30))
+                .thenCompose(v -> runner.start())
+                .thenAccept(report -> {
+                    lastChaosReport = report;
+                    PerfResult result = currentResult.get();
+                    result.setChaosReport(report);
+                    if (status.get() == PerfStatus.RUNNING) {
+                        completeTest();
+                    }
+                })
+                .exceptionally(ex -> {
+                    failTest(ex.getMessage());
+                    return null;
+                })
+                .whenComplete((v, ex) -> {
+                    if (proxy != null) {
+                        proxy.shutdown();
+                    }
+                });
+    }
+
+    private static long runDurationMs(PerfConfig config) {
+        return config.getDurationSeconds() > 0
+                ? config.getDurationSeconds() * 1000L
+                : config.getDurationMinutes() * 60_000L;
+    }
+
     /**
      * Scenario STRESS: Augmente progressivement jusqu'a la limite.
      */
@@ -255,8 +457,7 @@ public class PerformanceEngine {
                             connectionPool.getConnections().values().forEach(client -> {
                                 try {
                                     if (client.isOpen()) {
-                                        String hbMsg = buildHeartbeatMessage();
-                                        client.send(hbMsg);
+                                        client.sendCall(OcppFrames.HEARTBEAT);
                                         metricsCollector.incrementMessagesSent();
                                     }
                                 } catch (Exception e) {
@@ -290,8 +491,15 @@ public class PerformanceEngine {
         int active = connectionPool.getActiveCount();
         int target = config.getTargetConnections();
         if (active < target * 0.9) { // Moins de 90% des connexions
-            log.info("Reconnexion: {} actives sur {} cibles", active, target);
-            // Logique de reconnexion
+            ReconnectPolicy policy = config.getReconnect();
+            if (policy != null && policy.isEnabled()) {
+                // Coupures reprises connexion par connexion avec backoff gigue
+                log.info("Reconnexion automatique en cours: {} actives sur {} cibles, {} abandons",
+                        active, target, connectionPool.getReconnectGiveUps());
+            } else {
+                log.info("Reconnexion: {} actives sur {} cibles", active, target);
+                connectionPool.scaleTo(target);
+            }
         }
     }
 
@@ -299,47 +507,54 @@ public class PerformanceEngine {
      * Attend que le nombre de connexions cible soit atteint.
      */
     private CompletableFuture<Void> waitForConnections(int target, int timeoutSeconds) {
-        return CompletableFuture.runAsync(() -> {
-            long deadline = System.currentTimeMillis() + (timeoutSeconds * 1000L);
-            while (connectionPool.getSuccessCount() < target && System.currentTimeMillis() < deadline) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            log.info("Connexions atteintes: {}/{}", connectionPool.getSuccessCount(), target);
-        });
+        return awaitUntil(timeoutSeconds * 1000L, () -> connectionPool.getSuccessCount() >= target)
+                .thenRun(() -> log.info("Connexions atteintes: {}/{}", connectionPool.getSuccessCount(), target));
     }
 
     private CompletableFuture<Void> delay(long millis) {
-        return CompletableFuture.runAsync(() -> {
+        return awaitUntil(millis, () -> false);
+    }
+
+    /**
+     * Attente sans thread bloque, verifiee periodiquement sur le planificateur
+     * du test : se termine quand la condition est remplie, a l'echeance, ou
+     * des que le test n'est plus RUNNING (arret).
+     */
+    private CompletableFuture<Void> awaitUntil(long timeoutMs, BooleanSupplier condition) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ScheduledFuture<?> check = metricsScheduler.scheduleWithFixedDelay(() -> {
             try {
-                Thread.sleep(millis);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+                if (status.get() != PerfStatus.RUNNING || condition.getAsBoolean()
+                        || System.nanoTime() - deadline >= 0) {
+                    done.complete(null);
+                }
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
             }
-        });
+        }, 0, WAIT_CHECK_MS, TimeUnit.MILLISECONDS);
+        done.whenComplete((v, ex) -> check.cancel(false));
+        return done;
     }
 
     /**
      * Demarre le reporting des metriques.
      */
     private void startMetricsReporting() {
-        metricsScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
             Thread t = new Thread(r, "metrics-reporter");
             t.setDaemon(true);
             return t;
         });
+        // Attentes du scenario (awaitUntil) conservees a l'arret : elles voient STOPPED et se terminent
+        scheduler.setContinueExistingPeriodicTasksAfterShutdownPolicy(true);
+        scheduler.setRemoveOnCancelPolicy(true);
+        metricsScheduler = scheduler;
 
         metricsTask = metricsScheduler.scheduleAtFixedRate(() -> {
             try {
-                PerfMetrics metrics = metricsCollector.getMetrics(
-                        connectionPool.getActiveCount(),
-                        connectionPool.getSuccessCount(),
-                        connectionPool.getFailedCount()
-                );
+                PerfMetrics metrics = snapshotMetrics();
+                metricsHistory.recordAll(HISTORY_PREFIX, Instant.now(), historyValues(metrics));
 
                 if (metricsCallback != null) {
                     metricsCallback.accept(metrics);
@@ -360,10 +575,13 @@ public class PerformanceEngine {
     }
 
     /**
-     * Complete le test avec succes.
+     * Complete le test avec succes ; sans effet si le test a deja ete arrete
+     * ou a echoue (la chaine du scenario peut se terminer apres l'arret).
      */
     private void completeTest() {
-        status.set(PerfStatus.COMPLETED);
+        if (!status.compareAndSet(PerfStatus.RUNNING, PerfStatus.COMPLETED)) {
+            return;
+        }
         stopMetricsReporting();
 
         PerfResult result = currentResult.get();
@@ -375,11 +593,7 @@ public class PerformanceEngine {
         result.setTotalMessagesSent(metricsCollector.getMessagesSent());
         result.setTotalMessagesReceived(metricsCollector.getMessagesReceived());
         result.setTotalErrors(metricsCollector.getErrors());
-        result.setFinalMetrics(metricsCollector.getMetrics(
-                connectionPool.getActiveCount(),
-                connectionPool.getSuccessCount(),
-                connectionPool.getFailedCount()
-        ));
+        result.setFinalMetrics(snapshotMetrics());
 
         log.info("Test {} termine: success={}, failed={}, duration={}s",
                 currentTestId,
@@ -387,6 +601,8 @@ public class PerformanceEngine {
                 result.getFailedConnections(),
                 result.getDuration().getSeconds());
 
+        runArchive.archive(result, metricsCollector.export(), HISTORY_PREFIX);
+
         // Fermer le pool
         if (connectionPool != null) {
             connectionPool.closeAll();
@@ -398,10 +614,12 @@ public class PerformanceEngine {
     }
 
     /**
-     * Echoue le test.
+     * Echoue le test ; sans effet si le test est deja termine.
      */
     private void failTest(String error) {
-        status.set(PerfStatus.FAILED);
+        if (!status.compareAndSet(PerfStatus.RUNNING, PerfStatus.FAILED)) {
+            return;
+        }
         stopMetricsReporting();
 
         PerfResult result = currentResult.get();
@@ -417,6 +635,9 @@ public class PerformanceEngine {
         }
 
         log.error("Test {} echoue: {}", currentTestId, error);
+        if (metricsCollector != null) {
+            runArchive.archive(result, metricsCollector.export(), HISTORY_PREFIX);
+        }
 
         if (connectionPool != null) {
             connectionPool.closeAll();
@@ -431,13 +652,18 @@ public class PerformanceEngine {
      * Arrete le test en cours.
      */
     public synchronized PerfResult stopTest() {
-        if (status.get() != PerfStatus.RUNNING) {
+        if (!status.compareAndSet(PerfStatus.RUNNING, PerfStatus.STOPPED)) {
             return currentResult.get();
         }
 
         log.info("Arret demande pour test {}", currentTestId);
-        status.set(PerfStatus.STOPPED);
 
+        if (loadGenerator != null) {
+            loadGenerator.stop();
+        }
+        if (workloadRunner != null) {
+            workloadRunner.stop();
+        }
         if (connectionPool != null) {
             connectionPool.stop();
         }
@@ -456,11 +682,8 @@ public class PerformanceEngine {
             }
             result.setTotalMessagesSent(metricsCollector.getMessagesSent());
             result.setTotalMessagesReceived(metricsCollector.getMessagesReceived());
-            result.setFinalMetrics(metricsCollector.getMetrics(
-                    connectionPool.getActiveCount(),
-                    connectionPool.getSuccessCount(),
-                    connectionPool.getFailedCount()
-            ));
+            result.setFinalMetrics(snapshotMetrics());
+            runArchive.archive(result, metricsCollector.export(), HISTORY_PREFIX);
         }
 
         if (connectionPool != null) {
@@ -477,6 +700,35 @@ public class PerformanceEngine {
         if (metricsScheduler != null) {
             metricsScheduler.shutdown();
         }
+        if (currentTestId != null) {
+            metricsHistory.endRun(currentTestId);
+        }
+    }
+
+    /**
+     * Valeurs conservees dans l'historique (prefixe perf).
+     */
+    private static Map<String, Number> historyValues(PerfMetrics metrics) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("activeConnections", metrics.getActiveConnections());
+        values.put("successfulConnections", metrics.getSuccessfulConnections());
+        values.put("failedConnections", metrics.getFailedConnections());
+        values.put("totalMessagesSent", metrics.getTotalMessagesSent());
+        values.put("totalMessagesReceived", metrics.getTotalMessagesReceived());
+        values.put("totalErrors", metrics.getTotalErrors());
+        values.put("responseTimeouts", metrics.getResponseTimeouts());
+        values.put("callErrors", metrics.getCallErrors());
+        values.put("reconnectAttempts", metrics.getReconnectAttempts());
+        values.put("reconnects", metrics.getReconnects());
+        values.put("throughputMsgPerSec", metrics.getThroughputMsgPerSec());
+        values.put("connectionsPerSec", metrics.getConnectionsPerSec());
+        values.put("connectionLatencyP95Ms", metrics.getConnectionLatencyP95Ms());
+        values.put("messageLatencyAvgMs", metrics.getMessageLatencyAvgMs());
+        values.put("messageLatencyP95Ms", metrics.getMessageLatencyP95Ms());
+        values.put("messageLatencyP99Ms", metrics.getMessageLatencyP99Ms());
+        values.put("memoryUsedMb", metrics.getMemoryUsedMb());
+        values.put("threadCount", metrics.getThreadCount());
+        return values;
     }
 
     /**
@@ -488,11 +740,29 @@ public class PerformanceEngine {
                     .timestamp(Instant.now())
                     .build();
         }
-        return metricsCollector.getMetrics(
+        return snapshotMetrics();
+    }
+
+    /**
+     * Metriques du collecteur, completees des debits du modele ouvert et des
+     * metriques par profil.
+     */
+    private PerfMetrics snapshotMetrics() {
+        PerfMetrics metrics = metricsCollector.getMetrics(
                 connectionPool.getActiveCount(),
                 connectionPool.getSuccessCount(),
                 connectionPool.getFailedCount()
         );
+        OpenLoadGenerator generator = loadGenerator;
+        if (generator != null) {
+            metrics.setLoadRates(generator.getLoadRates());
+        }
+        WorkloadMixRunner runner = workloadRunner;
+        if (runner != null) {
+            metrics.setPersonaMetrics(runner.getPersonaMetrics());
+        }
+        metrics.setLostOnDisconnect(connectionPool.getLostOnClose());
+        return metrics;
     }
 
     /**
@@ -502,6 +772,37 @@ public class PerformanceEngine {
         return currentResult.get();
     }
 
+    /**
+     * Exporte les compteurs et histogrammes du test courant ou du dernier test,
+     * null si aucun test n'a ete lance.
+     */
+    public MetricsExport exportMetrics() {
+        MetricsCollector collector = metricsCollector;
+        if (collector == null) {
+            return null;
+        }
+        MetricsExport export = collector.export();
+        WorkloadMixRunner runner = workloadRunner;
+        if (runner != null) {
+            runner.exportTo(export);
+        }
+        return export;
+    }
+
+    /**
+     * Retourne le rapport de la derniere recherche de capacite.
+     */
+    public CapacityReport getLastCapacityReport() {
+        return lastCapacityReport;
+    }
+
+    /**
+     * Retourne le rapport du dernier scenario CHAOS.
+     */
+    public ChaosReport getLastChaosReport() {
+        return lastChaosReport;
+    }
+
     /**
      * Retourne le statut actuel.
      */
@@ -516,31 +817,4 @@ public class PerformanceEngine {
     public void setCompletionCallback(Consumer<PerfResult> callback) {
         this.completionCallback = callback;
     }
-
-    // Builders de messages OCPP
-
-    private String buildStartTransactionMessage(String cpId, String idTag) {
-        return String.format(
-            "[2,\"%s\",\"StartTransaction\",{\"connectorId\":1,\"idTag\":\"%s\",\"meterStart\":0,\"timestamp\":\"%s\"}]",
-            UUID.randomUUID().toString(), idTag, Instant.now().toString()
-        );
-    }
-
-    private String buildMeterValuesMessage(String cpId, int meterValue) {
-        return String.format(
-            "[2,\"%s\",\"MeterValues\",{\"connectorId\":1,\"meterValue\":[{\"timestamp\":\"%s\",\"sampledValue\":[{\"value\":\"%d\",\"measurand\":\"Energy.Active.Import.Register\",\"unit\":\"Wh\"}]}]}]",
-            UUID.randomUUID().toString(), Instant.now().toString(), meterValue
-        );
-    }
-
-    private String buildStopTransactionMessage(String cpId, String idTag) {
-        return String.format(
-            "[2,\"%s\",\"StopTransaction\",{\"idTag\":\"%s\",\"meterStop\":10000,\"timestamp\":\"%s\",\"transactionId\":1}]",
-            UUID.randomUUID().toString(), idTag, Instant.now().toString()
-        );
-    }
-
-    private String buildHeartbeatMessage() {
-        return String.format("[2,\"%s\",\"Heartbeat\",{}]", UUID.randomUUID().toString());
-    }
 }
@@ -0,0 +1,65 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.model.PerfPersona;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Repartition ponderee des points de charge entre les profils du scenario WORKLOAD.
+ * <p>
+ * Chaque point de charge a son propre generateur, derive de la graine du test et
+ * de son identifiant : le profil attribue et tous ses tirages sont reproductibles,
+ * quel que soit l'ordre d'etablissement des connexions.
+ * </p>
+ */
+final class PersonaMix {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final double[] cumulative;
+    private final long seed;
+
+    PersonaMix(List<PerfPersona> personas, long seed) {
+        if (personas == null || personas.isEmpty()) {
+            throw new IllegalArgumentException("At least one persona is required");
+        }
+        this.cumulative = new double[personas.size()];
+        double total = 0;
+        for (int i = 0; i < personas.size(); i++) {
+            total += Math.max(0, personas.get(i).getWeight());
+            cumulative[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Persona weights must sum to a positive value");
+        }
+        this.seed = seed;
+    }
+
+    /**
+     * Generateur propre a un point de charge ; son premier tirage choisit le profil.
+     */
+    SplittableRandom randomFor(String cpId) {
+        return new SplittableRandom(seed + cpId.hashCode() * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Profil correspondant a un tirage uniforme dans [0, 1).
+     */
+    int pick(double draw) {
+        double target = draw * cumulative[cumulative.length - 1];
+        for (int i = 0; i < cumulative.length; i++) {
+            if (target < cumulative[i]) {
+                return i;
+            }
+        }
+        return cumulative.length - 1;
+    }
+
+    /**
+     * Profil attribue a un point de charge.
+     */
+    int assign(String cpId) {
+        return pick(randomFor(cpId).nextDouble());
+    }
+}
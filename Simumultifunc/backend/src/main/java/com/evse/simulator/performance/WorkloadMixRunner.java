@@ -0,0 +1,375 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.ConnectionPool.MessageEvent;
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.PerfPersona;
+import com.evse.simulator.performance.model.PersonaMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution du scenario WORKLOAD : un melange pondere de profils de points de charge.
+ * <p>
+ * Chaque connexion du pool recoit un profil ({@link PersonaMix}) et un automate
+ * pilote par minuteurs : heartbeats, sessions locales ou declenchees par
+ * RemoteStartTransaction, tempetes de reconnexion. Les metriques sont tenues par
+ * profil ; les tirages aleatoires sont reproductibles a graine egale.
+ * </p>
+ */
+@Slf4j
+class WorkloadMixRunner {
+
+    private static final String ACCEPTED = "{\"status\":\"Accepted\"}";
+    private static final String REJECTED = "{\"status\":\"Rejected\"}";
+    /** Puissance simulee pour l'index d'energie des MeterValues */
+    private static final long CHARGING_POWER_W = 7400;
+
+    private final ConnectionPool pool;
+    private final MetricsCollector metrics;
+    private final PerfConfig config;
+    private final long seed;
+    private final PersonaMix mix;
+    private final List<PersonaState> personas;
+    private final ScheduledExecutorService timers;
+    private final Map<String, VirtualChargePoint> chargePoints = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile long startNanos;
+
+    WorkloadMixRunner(ConnectionPool pool, MetricsCollector metrics, PerfConfig config, long seed) {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.config = config;
+        this.seed = seed;
+        this.mix = new PersonaMix(config.getPersonas(), seed);
+        this.personas = config.getPersonas().stream().map(PersonaState::new).toList();
+        this.timers = Executors.newScheduledThreadPool(4, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger(0);
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "perf-workload-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /**
+     * Attache un automate a chaque connexion etablie, puis aux suivantes.
+     */
+    void start() {
+        running = true;
+        startNanos = System.nanoTime();
+        discoverConnections();
+        timers.scheduleAtFixedRate(this::discoverConnections, 1, 1, TimeUnit.SECONDS);
+        log.info("Workload demarre: {} profils, graine {}", personas.size(), seed);
+    }
+
+    /**
+     * Arrete les automates et termine les sessions en cours.
+     */
+    void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        timers.shutdownNow();
+        chargePoints.values().forEach(VirtualChargePoint::endSession);
+        log.info("Workload arrete: {} points de charge", chargePoints.size());
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    int getCompletedSessions() {
+        return (int) personas.stream().mapToLong(persona -> persona.sessionsCompleted.sum()).sum();
+    }
+
+    /**
+     * Attribue les reponses, erreurs et timeouts au profil du point de charge.
+     * Avant sa decouverte (BootNotification), le profil est recalcule : c'est
+     * le premier tirage de son generateur, celui que prendra le point de charge.
+     */
+    void onMessage(MessageEvent event) {
+        VirtualChargePoint chargePoint = chargePoints.get(event.cpId);
+        PersonaState persona = chargePoint != null ? chargePoint.persona : personas.get(mix.assign(event.cpId));
+        switch (event.kind) {
+            case RESPONSE -> {
+                persona.responses.increment();
+                persona.latency.recordValue(Math.min(Math.max(event.latencyMicros, 1),
+                        persona.latency.getHighestTrackableValue()));
+            }
+            case CALL_ERROR -> persona.callErrors.increment();
+            case TIMEOUT -> persona.timeouts.increment();
+            case UNSOLICITED -> { }
+        }
+    }
+
+    List<PersonaMetrics> getPersonaMetrics() {
+        return personas.stream().map(PersonaState::snapshot).toList();
+    }
+
+    /**
+     * Ajoute les metriques par profil et leurs histogrammes de latence
+     * (persona.&lt;nom&gt;) a un export, pour la fusion d'un test distribue.
+     */
+    void exportTo(MetricsExport export) {
+        export.setPersonaMetrics(getPersonaMetrics());
+        for (PersonaState persona : personas) {
+            export.getHistograms().put("persona." + persona.definition.getName(),
+                    MetricsCollector.encode(persona.latency));
+        }
+    }
+
+    private void discoverConnections() {
+        for (PerfWebSocketClient client : pool.getConnections().values()) {
+            if (!chargePoints.containsKey(client.getCpId())) {
+                VirtualChargePoint chargePoint = new VirtualChargePoint(client);
+                if (chargePoints.putIfAbsent(client.getCpId(), chargePoint) == null) {
+                    chargePoint.attach();
+                }
+            }
+        }
+    }
+
+    /**
+     * Profil et ses compteurs.
+     */
+    private static final class PersonaState {
+        final PerfPersona definition;
+        final AtomicInteger chargePoints = new AtomicInteger();
+        final LongAdder messagesSent = new LongAdder();
+        final LongAdder responses = new LongAdder();
+        final LongAdder timeouts = new LongAdder();
+        final LongAdder callErrors = new LongAdder();
+        final LongAdder sessionsStarted = new LongAdder();
+        final LongAdder sessionsCompleted = new LongAdder();
+        final LongAdder remoteStarts = new LongAdder();
+        final LongAdder reconnects = new LongAdder();
+        final Histogram latency = new ConcurrentHistogram(1, 60_000_000, 3);
+
+        PersonaState(PerfPersona definition) {
+            this.definition = definition;
+        }
+
+        PersonaMetrics snapshot() {
+            return PersonaMetrics.builder()
+                    .persona(definition.getName())
+                    .behavior(definition.getBehavior().name())
+                    .chargePoints(chargePoints.get())
+                    .messagesSent(messagesSent.sum())
+                    .responses(responses.sum())
+                    .timeouts(timeouts.sum())
+                    .callErrors(callErrors.sum())
+                    .sessionsStarted(sessionsStarted.sum())
+                    .sessionsCompleted(sessionsCompleted.sum())
+                    .remoteStarts(remoteStarts.sum())
+                    .reconnects(reconnects.sum())
+                    .latencyAvgMs(latency.getMean() / 1000.0)
+                    .latencyP95Ms(latency.getValueAtPercentile(95) / 1000.0)
+                    .latencyP99Ms(latency.getValueAtPercentile(99) / 1000.0)
+                    .build();
+        }
+    }
+
+    /**
+     * Automate d'un point de charge ; les transitions sont serialisees sur l'instance.
+     */
+    private final class VirtualChargePoint {
+        final PerfWebSocketClient client;
+        final SplittableRandom random;
+        final PersonaState persona;
+        final PerfPersona definition;
+        boolean charging;
+        long meterWh;
+        ScheduledFuture<?> meterTask;
+        ScheduledFuture<?> stopTask;
+
+        VirtualChargePoint(PerfWebSocketClient client) {
+            this.client = client;
+            this.random = mix.randomFor(client.getCpId());
+            this.persona = personas.get(mix.pick(random.nextDouble()));
+            this.definition = persona.definition;
+        }
+
+        synchronized void attach() {
+            persona.chargePoints.incrementAndGet();
+            client.setCallHandler(this::onCall);
+
+            // Decalage initial aleatoire : pas de rafale de heartbeats synchronisee
+            long heartbeatMs = definition.getHeartbeatIntervalSeconds() * 1000L;
+            timers.scheduleAtFixedRate(this::heartbeat, random.nextLong(heartbeatMs), heartbeatMs,
+                    TimeUnit.MILLISECONDS);
+
+            switch (definition.getBehavior()) {
+                case SESSION -> scheduleNextSession();
+                case RECONNECT_STORM -> scheduleReconnect();
+                case IDLE, REMOTE_START -> { }
+            }
+        }
+
+        private boolean send(FrameTemplate template, long meter) {
+            if (!client.isOpen()) {
+                return false;
+            }
+            try {
+                client.sendCall(template, config.getIdTag(), meter);
+                metrics.incrementMessagesSent();
+                persona.messagesSent.increment();
+                return true;
+            } catch (RuntimeException e) {
+                metrics.incrementErrors();
+                log.debug("Erreur envoi {} {}: {}", template.action().getOcppName(), client.getCpId(), e.getMessage());
+                return false;
+            }
+        }
+
+        private void heartbeat() {
+            if (running) {
+                send(OcppFrames.HEARTBEAT, 0);
+            }
+        }
+
+        private void scheduleNextSession() {
+            if (running) {
+                timers.schedule(() -> startSession(true),
+                        randomMs(definition.getIdleMinSeconds(), definition.getIdleMaxSeconds()), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void startSession(boolean authorize) {
+            if (!running || charging || !client.isOpen()) {
+                if (definition.getBehavior() == PerfPersona.Behavior.SESSION) {
+                    scheduleNextSession();
+                }
+                return;
+            }
+            if (authorize) {
+                send(OcppFrames.AUTHORIZE, 0);
+            }
+            if (!send(OcppFrames.START_TRANSACTION, 0)) {
+                scheduleNextSession();
+                return;
+            }
+            charging = true;
+            meterWh = 0;
+            persona.sessionsStarted.increment();
+
+            long meterMs = definition.getMeterValueIntervalSeconds() * 1000L;
+            meterTask = timers.scheduleAtFixedRate(this::meterValues, meterMs, meterMs, TimeUnit.MILLISECONDS);
+            stopTask = timers.schedule(this::endSession,
+                    randomMs(definition.getSessionMinSeconds(), definition.getSessionMaxSeconds()), TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void meterValues() {
+            if (!charging) {
+                return;
+            }
+            meterWh += CHARGING_POWER_W * definition.getMeterValueIntervalSeconds() / 3600;
+            send(OcppFrames.meterValues(definition.getSampledValues()), meterWh);
+        }
+
+        synchronized void endSession() {
+            if (!charging) {
+                return;
+            }
+            charging = false;
+            if (meterTask != null) {
+                meterTask.cancel(false);
+            }
+            if (stopTask != null) {
+                stopTask.cancel(false);
+            }
+            if (send(OcppFrames.STOP_TRANSACTION, meterWh)) {
+                persona.sessionsCompleted.increment();
+            }
+            if (definition.getBehavior() == PerfPersona.Behavior.SESSION) {
+                scheduleNextSession();
+            }
+        }
+
+        /**
+         * CALL du CSMS ; la session demarre ou s'arrete apres l'envoi de la reponse.
+         */
+        private String onCall(String action, String frame) {
+            if (!running || action == null) {
+                return null;
+            }
+            switch (action) {
+                case "RemoteStartTransaction": {
+                    synchronized (this) {
+                        if (definition.getBehavior() != PerfPersona.Behavior.REMOTE_START || charging) {
+                            return REJECTED;
+                        }
+                    }
+                    persona.remoteStarts.increment();
+                    timers.execute(() -> startSession(false));
+                    return ACCEPTED;
+                }
+                case "RemoteStopTransaction": {
+                    synchronized (this) {
+                        if (!charging) {
+                            return REJECTED;
+                        }
+                    }
+                    timers.execute(this::endSession);
+                    return ACCEPTED;
+                }
+                default:
+                    return null;
+            }
+        }
+
+        /**
+         * Les points de charge du profil se reconnectent ensemble, a chaque
+         * multiple de l'intervalle, etales sur {@code reconnectJitterMs}.
+         */
+        private void scheduleReconnect() {
+            if (!running) {
+                return;
+            }
+            long intervalMs = definition.getReconnectIntervalSeconds() * 1000L;
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            long nextStormMs = (elapsedMs / intervalMs + 1) * intervalMs;
+            long jitterMs;
+            synchronized (this) {
+                jitterMs = random.nextLong(definition.getReconnectJitterMs());
+            }
+            timers.schedule(this::reconnect, nextStormMs + jitterMs - elapsedMs, TimeUnit.MILLISECONDS);
+        }
+
+        private void reconnect() {
+            if (!running) {
+                return;
+            }
+            pool.reconnect(client).thenAccept(reconnected -> {
+                if (reconnected) {
+                    persona.reconnects.increment();
+                }
+            });
+            scheduleReconnect();
+        }
+
+        private long randomMs(int minSeconds, int maxSeconds) {
+            synchronized (this) {
+                return minSeconds * 1000L + random.nextLong((maxSeconds - minSeconds) * 1000L + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.evse.simulator.performance.archive;
+
+import com.evse.simulator.performance.csms.MockCsmsService;
+import com.evse.simulator.performance.history.MetricsHistoryStore;
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.PerfEnvironment;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfRunComparison;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import com.evse.simulator.performance.model.PerfRunSummary;
+import com.evse.simulator.repository.DataRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Archive durable des tests de performance, via le {@link DataRepository}
+ * (fichier JSON ou MongoDB).
+ * <p>
+ * Chaque test termine, arrete ou en echec est archive avec sa configuration,
+ * ses histogrammes HdrHistogram complets (percentiles recalculables), ses
+ * series par seconde et son environnement d'execution. Deux tests archives se
+ * comparent percentile par percentile ({@link PerfRunComparator}).
+ * </p>
+ * <p>
+ * L'ecriture se fait sur un thread dedie : le fichier JSON est reecrit en
+ * entier a chaque archivage, ce qui ne doit pas bloquer l'arret du test.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PerfRunArchive {
+
+    // Valeurs masquees dans les options JVM archivees (-Dspring.data.mongodb.uri=..., -Dx.password=...)
+    private static final Pattern SENSITIVE_OPTION = Pattern.compile(
+            "(?i)^(-D[^=]*(password|secret|token|credential|uri)[^=]*=).*");
+
+    private final DataRepository repository;
+    private final MetricsHistoryStore metricsHistory;
+    private final MockCsmsService mockCsms;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "perf-archive");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Value("${performance.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${performance.archive.max-runs:200}")
+    private int maxRuns;
+
+    @Value("${performance.archive.min-delta-percent:5}")
+    private double defaultMinDeltaPercent;
+
+    /**
+     * Archive un test. Sans effet si l'archive est desactivee ; les series sont
+     * relues immediatement, le stockage se fait en arriere-plan et une erreur
+     * de stockage est journalisee sans faire echouer le test.
+     *
+     * @param metrics       compteurs et histogrammes du collecteur
+     * @param historyPrefix prefixe des series du test dans l'historique
+     * @return le test a archiver, null si non archive
+     */
+    public PerfRunRecord archive(PerfResult result, MetricsExport metrics, String historyPrefix) {
+        if (!enabled || result == null || result.getTestId() == null) {
+            return null;
+        }
+        try {
+            PerfRunRecord run = PerfRunRecord.builder()
+                    .id(result.getTestId())
+                    .archivedAt(Instant.now())
+                    .result(result)
+                    .metrics(metrics)
+                    .environment(environment(result.getConfig()))
+                    .build();
+            fillSeries(run, historyPrefix);
+            writer.execute(() -> store(run));
+            return run;
+        } catch (RuntimeException e) {
+            log.error("Archivage du test {} impossible: {}", result.getTestId(), e.getMessage(), e);
+            return null;
+        }
+    }
+
+    private void store(PerfRunRecord run) {
+        try {
+            repository.savePerfRun(run);
+            prune();
+            log.info("Test {} archive ({} series)", run.getId(), run.getSeries() != null ? run.getSeries().size() : 0);
+        } catch (RuntimeException e) {
+            log.error("Archivage du test {} impossible: {}", run.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tests archives, du plus recent au plus ancien.
+     */
+    public List<PerfRunSummary> list() {
+        return repository.findAllPerfRunSummaries();
+    }
+
+    public Optional<PerfRunRecord> find(String id) {
+        return repository.findPerfRunById(id);
+    }
+
+    public boolean delete(String id) {
+        if (repository.findPerfRunById(id).isEmpty()) {
+            return false;
+        }
+        repository.deletePerfRun(id);
+        return true;
+    }
+
+    /**
+     * Compare un test candidat a un test de reference.
+     *
+     * @param minDeltaPercent ecart relatif minimal signale, null pour la configuration
+     * @throws NoSuchElementException test inconnu
+     */
+    public PerfRunComparison compare(String baselineId, String candidateId, Double minDeltaPercent) {
+        PerfRunRecord baseline = repository.findPerfRunById(baselineId)
+                .orElseThrow(() -> new NoSuchElementException("Unknown perf run: " + baselineId));
+        PerfRunRecord candidate = repository.findPerfRunById(candidateId)
+                .orElseThrow(() -> new NoSuchElementException("Unknown perf run: " + candidateId));
+        return PerfRunComparator.compare(baseline, candidate,
+                minDeltaPercent != null ? minDeltaPercent : defaultMinDeltaPercent);
+    }
+
+    /**
+     * Series par seconde du test, relues dans l'historique avant leur eviction.
+     */
+    private void fillSeries(PerfRunRecord run, String historyPrefix) {
+        MetricsHistoryStore.Run historyRun = metricsHistory.getRun(run.getId());
+        if (historyRun == null) {
+            return;
+        }
+        long start = historyRun.start().getEpochSecond();
+        String prefix = historyPrefix + ".";
+        Map<String, List<Double>> series = new LinkedHashMap<>();
+        int step = 1;
+        for (String metric : metricsHistory.getMetricNames()) {
+            if (!metric.startsWith(prefix)) {
+                continue;
+            }
+            MetricsHistoryStore.Range range = metricsHistory.queryRun(metric, run.getId(), null);
+            if (range == null || range.points().isEmpty()) {
+                continue;
+            }
+            // Resolution cumulee si le test depasse la fenetre fine
+            step = Math.max(step, range.resolutionSeconds());
+            series.put(metric.substring(prefix.length()), toValues(range, start, step));
+        }
+        run.setSeriesStart(Instant.ofEpochSecond(start));
+        run.setSeriesStepSeconds(step);
+        run.setSeries(series);
+    }
+
+    private static List<Double> toValues(MetricsHistoryStore.Range range, long start, int step) {
+        List<Double> values = new ArrayList<>();
+        for (MetricsHistoryStore.Point point : range.points()) {
+            int index = (int) Math.max(0, (point.timestamp().getEpochSecond() - start) / step);
+            while (values.size() <= index) {
+                values.add(null);
+            }
+            values.set(index, point.avg());
+        }
+        return values;
+    }
+
+    private PerfEnvironment environment(PerfConfig config) {
+        Runtime runtime = Runtime.getRuntime();
+        String targetUrl = config != null ? config.getOcppUrl() : null;
+        String csmsVersion = config != null ? config.getCsmsVersion() : null;
+        if (csmsVersion == null && targetUrl != null && mockCsms.isRunning()
+                && targetUrl.contains(":" + mockCsms.getPort() + "/")) {
+            csmsVersion = "mock-csms";
+        }
+        return PerfEnvironment.builder()
+                .hostName(hostName())
+                .osName(System.getProperty("os.name"))
+                .osArch(System.getProperty("os.arch"))
+                .availableProcessors(runtime.availableProcessors())
+                .javaVersion(System.getProperty("java.version"))
+                .jvmName(System.getProperty("java.vm.name"))
+                .jvmArguments(ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                        .map(argument -> SENSITIVE_OPTION.matcher(argument).replaceFirst("$1***"))
+                        .toList())
+                .maxHeapMb(runtime.maxMemory() / (1024 * 1024))
+                .targetUrl(targetUrl)
+                .csmsVersion(csmsVersion)
+                .build();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Ne garde que les {@code max-runs} tests les plus recents.
+     */
+    private void prune() {
+        if (maxRuns <= 0) {
+            return;
+        }
+        List<PerfRunSummary> runs = repository.findAllPerfRunSummaries();
+        if (runs.size() <= maxRuns) {
+            return;
+        }
+        runs.subList(maxRuns, runs.size()).forEach(run -> repository.deletePerfRun(run.getId()));
+    }
+
+    /**
+     * Laisse finir l'archivage en cours a l'arret de l'application.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,294 @@
+package com.evse.simulator.performance.archive;
+
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfEnvironment;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfRunComparison;
+import com.evse.simulator.performance.model.PerfRunComparison.PercentileDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.RateDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.Verdict;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import com.evse.simulator.performance.model.PerfRunSummary;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Comparaison de deux tests archives a partir de leurs histogrammes complets.
+ * <p>
+ * Pour chaque percentile, l'intervalle de confiance a 95 % est lu dans
+ * l'histogramme aux rangs {@code n*q +/- 1.96*sqrt(n*q*(1-q))} (statistiques
+ * d'ordre, sans hypothese sur la distribution). L'ecart est significatif si
+ * les intervalles des deux tests sont disjoints et qu'au moins
+ * {@value #MIN_TAIL_SAMPLES} echantillons depassent le percentile. Les debits
+ * sont compares par un test sur des taux de Poisson, les taux d'erreur par un
+ * test sur deux proportions.
+ * </p>
+ */
+@Slf4j
+final class PerfRunComparator {
+
+    static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+    private static final double Z_95 = 1.96;
+    private static final int MIN_TAIL_SAMPLES = 5;
+
+    private PerfRunComparator() {
+    }
+
+    static PerfRunComparison compare(PerfRunRecord baseline, PerfRunRecord candidate, double minDeltaPercent) {
+        List<PercentileDiff> percentiles = comparePercentiles(histograms(baseline), histograms(candidate),
+                minDeltaPercent);
+        List<RateDiff> rates = compareRates(baseline.getResult(), candidate.getResult(), minDeltaPercent);
+
+        int regressions = 0;
+        int improvements = 0;
+        for (PercentileDiff diff : percentiles) {
+            regressions += diff.getVerdict() == Verdict.REGRESSED ? 1 : 0;
+            improvements += diff.getVerdict() == Verdict.IMPROVED ? 1 : 0;
+        }
+        for (RateDiff diff : rates) {
+            regressions += diff.getVerdict() == Verdict.REGRESSED ? 1 : 0;
+            improvements += diff.getVerdict() == Verdict.IMPROVED ? 1 : 0;
+        }
+
+        return PerfRunComparison.builder()
+                .baseline(PerfRunSummary.of(baseline))
+                .candidate(PerfRunSummary.of(candidate))
+                .generatedAt(Instant.now())
+                .minDeltaPercent(minDeltaPercent)
+                .percentiles(percentiles)
+                .rates(rates)
+                .regressions(regressions)
+                .improvements(improvements)
+                .regressed(regressions > 0)
+                .environmentWarnings(environmentWarnings(baseline, candidate))
+                .build();
+    }
+
+    static List<PercentileDiff> comparePercentiles(Map<String, Histogram> baseline, Map<String, Histogram> candidate,
+                                                   double minDeltaPercent) {
+        List<PercentileDiff> diffs = new ArrayList<>();
+        baseline.forEach((name, base) -> {
+            Histogram cand = candidate.get(name);
+            if (cand == null || base.getTotalCount() == 0 || cand.getTotalCount() == 0) {
+                return;
+            }
+            for (double percentile : PERCENTILES) {
+                diffs.add(comparePercentile(name, percentile, base, cand, minDeltaPercent));
+            }
+        });
+        return diffs;
+    }
+
+    private static PercentileDiff comparePercentile(String name, double percentile, Histogram base, Histogram cand,
+                                                    double minDeltaPercent) {
+        double baseMs = base.getValueAtPercentile(percentile) / 1000.0;
+        double candMs = cand.getValueAtPercentile(percentile) / 1000.0;
+        double[] baseInterval = interval(base, percentile);
+        double[] candInterval = interval(cand, percentile);
+        boolean significant = enoughSamples(base, percentile) && enoughSamples(cand, percentile)
+                && (candInterval[0] > baseInterval[1] || candInterval[1] < baseInterval[0]);
+        double delta = deltaPercent(baseMs, candMs);
+
+        return PercentileDiff.builder()
+                .histogram(name)
+                .percentile(percentile)
+                .baselineCount(base.getTotalCount())
+                .candidateCount(cand.getTotalCount())
+                .baselineMs(baseMs)
+                .candidateMs(candMs)
+                .deltaPercent(delta)
+                .baselineLowMs(baseInterval[0])
+                .baselineHighMs(baseInterval[1])
+                .candidateLowMs(candInterval[0])
+                .candidateHighMs(candInterval[1])
+                .significant(significant)
+                // Latence : une hausse est une regression
+                .verdict(verdict(significant, delta, minDeltaPercent, false))
+                .build();
+    }
+
+    /**
+     * Approximation normale des rangs valable avec assez d'echantillons de
+     * part et d'autre du percentile ; sinon l'intervalle se colle au maximum.
+     */
+    private static boolean enoughSamples(Histogram histogram, double percentile) {
+        double q = percentile / 100.0;
+        return histogram.getTotalCount() * Math.min(q, 1 - q) >= MIN_TAIL_SAMPLES;
+    }
+
+    /**
+     * Intervalle de confiance a 95 % du percentile, en ms.
+     */
+    static double[] interval(Histogram histogram, double percentile) {
+        double q = percentile / 100.0;
+        double half = Z_95 * Math.sqrt(q * (1 - q) / histogram.getTotalCount());
+        double low = Math.max(0, q - half) * 100;
+        double high = Math.min(1, q + half) * 100;
+        return new double[] {
+                histogram.getValueAtPercentile(low) / 1000.0,
+                histogram.getValueAtPercentile(high) / 1000.0
+        };
+    }
+
+    static List<RateDiff> compareRates(PerfResult baseline, PerfResult candidate, double minDeltaPercent) {
+        List<RateDiff> diffs = new ArrayList<>();
+        if (baseline == null || candidate == null) {
+            return diffs;
+        }
+        double baseSeconds = seconds(baseline);
+        double candSeconds = seconds(candidate);
+        if (baseSeconds > 0 && candSeconds > 0) {
+            diffs.add(poissonRate("throughputMsgPerSec",
+                    baseline.getTotalMessagesReceived(), baseSeconds,
+                    candidate.getTotalMessagesReceived(), candSeconds, minDeltaPercent));
+        }
+        diffs.add(proportion("errorRate",
+                baseline.getTotalErrors(), baseline.getTotalMessagesSent(),
+                candidate.getTotalErrors(), candidate.getTotalMessagesSent(), minDeltaPercent));
+        diffs.add(proportion("connectionFailureRate",
+                baseline.getFailedConnections(),
+                baseline.getSuccessfulConnections() + baseline.getFailedConnections(),
+                candidate.getFailedConnections(),
+                candidate.getSuccessfulConnections() + candidate.getFailedConnections(), minDeltaPercent));
+        return diffs;
+    }
+
+    /**
+     * Debits compares comme des taux de Poisson : z = (r2 - r1) / sqrt(c1/t1^2 + c2/t2^2).
+     */
+    static RateDiff poissonRate(String metric, long baseCount, double baseSeconds, long candCount, double candSeconds,
+                                double minDeltaPercent) {
+        double baseRate = baseCount / baseSeconds;
+        double candRate = candCount / candSeconds;
+        double variance = baseCount / (baseSeconds * baseSeconds) + candCount / (candSeconds * candSeconds);
+        double z = variance > 0 ? (candRate - baseRate) / Math.sqrt(variance) : 0;
+        boolean significant = Math.abs(z) > Z_95;
+        double delta = deltaPercent(baseRate, candRate);
+        return RateDiff.builder()
+                .metric(metric)
+                .baseline(baseRate)
+                .candidate(candRate)
+                .deltaPercent(delta)
+                .zScore(z)
+                .significant(significant)
+                // Debit : une baisse est une regression
+                .verdict(verdict(significant, delta, minDeltaPercent, true))
+                .build();
+    }
+
+    /**
+     * Taux d'echec compares par un test z sur deux proportions.
+     */
+    static RateDiff proportion(String metric, long baseFailures, long baseTotal, long candFailures, long candTotal,
+                               double minDeltaPercent) {
+        double baseRate = baseTotal > 0 ? (double) baseFailures / baseTotal : 0;
+        double candRate = candTotal > 0 ? (double) candFailures / candTotal : 0;
+        double z = 0;
+        if (baseTotal > 0 && candTotal > 0) {
+            double pooled = (double) (baseFailures + candFailures) / (baseTotal + candTotal);
+            double se = Math.sqrt(pooled * (1 - pooled) * (1.0 / baseTotal + 1.0 / candTotal));
+            z = se > 0 ? (candRate - baseRate) / se : 0;
+        }
+        boolean significant = Math.abs(z) > Z_95;
+        // Ecart relatif sans objet a partir de zero : un taux qui apparait est un ecart entier
+        double delta = baseRate > 0 ? deltaPercent(baseRate, candRate) : (candRate > 0 ? 100 : 0);
+        return RateDiff.builder()
+                .metric(metric)
+                .baseline(baseRate * 100)
+                .candidate(candRate * 100)
+                .deltaPercent(delta)
+                .zScore(z)
+                .significant(significant)
+                .verdict(verdict(significant, delta, minDeltaPercent, false))
+                .build();
+    }
+
+    private static Verdict verdict(boolean significant, double deltaPercent, double minDeltaPercent,
+                                   boolean higherIsBetter) {
+        if (!significant || Math.abs(deltaPercent) < minDeltaPercent) {
+            return Verdict.UNCHANGED;
+        }
+        boolean increased = deltaPercent > 0;
+        return increased == higherIsBetter ? Verdict.IMPROVED : Verdict.REGRESSED;
+    }
+
+    private static double deltaPercent(double baseline, double candidate) {
+        return baseline != 0 ? (candidate - baseline) / baseline * 100 : 0;
+    }
+
+    private static double seconds(PerfResult result) {
+        if (result.getDuration() != null) {
+            return result.getDuration().toMillis() / 1000.0;
+        }
+        if (result.getStartTime() != null && result.getEndTime() != null) {
+            return Duration.between(result.getStartTime(), result.getEndTime()).toMillis() / 1000.0;
+        }
+        return 0;
+    }
+
+    static Map<String, Histogram> histograms(PerfRunRecord run) {
+        Map<String, Histogram> histograms = new TreeMap<>();
+        MetricsExport export = run.getMetrics();
+        if (export == null || export.getHistograms() == null) {
+            return histograms;
+        }
+        export.getHistograms().forEach((name, encoded) -> {
+            Histogram histogram = decode(encoded);
+            if (histogram != null) {
+                histograms.put(name, histogram);
+            }
+        });
+        return histograms;
+    }
+
+    private static Histogram decode(String encoded) {
+        if (encoded == null || encoded.isEmpty()) {
+            return null;
+        }
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(
+                    ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (Exception e) {
+            log.warn("Histogramme archive illisible: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static List<String> environmentWarnings(PerfRunRecord baseline, PerfRunRecord candidate) {
+        List<String> warnings = new ArrayList<>();
+        PerfEnvironment base = baseline.getEnvironment();
+        PerfEnvironment cand = candidate.getEnvironment();
+        if (base == null || cand == null) {
+            warnings.add("Environnement inconnu pour l'un des tests");
+        } else {
+            warnIfDifferent(warnings, "Coeurs", base.getAvailableProcessors(), cand.getAvailableProcessors());
+            warnIfDifferent(warnings, "Java", base.getJavaVersion(), cand.getJavaVersion());
+            warnIfDifferent(warnings, "Options JVM", base.getJvmArguments(), cand.getJvmArguments());
+            warnIfDifferent(warnings, "Hote", base.getHostName(), cand.getHostName());
+            warnIfDifferent(warnings, "CSMS", base.getTargetUrl(), cand.getTargetUrl());
+            warnIfDifferent(warnings, "Version CSMS", base.getCsmsVersion(), cand.getCsmsVersion());
+        }
+        PerfRunSummary baseSummary = PerfRunSummary.of(baseline);
+        PerfRunSummary candSummary = PerfRunSummary.of(candidate);
+        warnIfDifferent(warnings, "Scenario", baseSummary.getScenarioType(), candSummary.getScenarioType());
+        warnIfDifferent(warnings, "Connexions cibles", baseSummary.getTargetConnections(),
+                candSummary.getTargetConnections());
+        return warnings;
+    }
+
+    private static void warnIfDifferent(List<String> warnings, String label, Object baseline, Object candidate) {
+        if (!Objects.equals(baseline, candidate)) {
+            warnings.add(label + " : " + baseline + " -> " + candidate);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.evse.simulator.performance.archive;
+
+import com.evse.simulator.performance.model.PerfRunComparison;
+import com.evse.simulator.performance.model.PerfRunComparison.PercentileDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.RateDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.Verdict;
+import com.evse.simulator.performance.model.PerfRunSummary;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Rapport HTML autonome d'une comparaison de tests de performance, dans le
+ * style des rapports TNR : vert = amelioration, rouge = regression.
+ */
+@Component
+public class PerfRunHtmlReport {
+
+    private static final DateTimeFormatter TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    public String render(PerfRunComparison comparison) {
+        StringBuilder html = new StringBuilder();
+        PerfRunSummary baseline = comparison.getBaseline();
+        PerfRunSummary candidate = comparison.getCandidate();
+
+        html.append(header(baseline.getId() + " vs " + candidate.getId()));
+        html.append("<h1>Comparaison ").append(escapeHtml(baseline.getId()))
+            .append(" &rarr; ").append(escapeHtml(candidate.getId())).append("</h1>");
+
+        html.append("<div class=\"summary-cards\">");
+        html.append(card("Verdict", comparison.isRegressed() ? "REGRESSION" : "OK",
+                comparison.isRegressed() ? "regressed" : "improved"));
+        html.append(card("Regressions", String.valueOf(comparison.getRegressions()),
+                comparison.getRegressions() > 0 ? "regressed" : ""));
+        html.append(card("Ameliorations", String.valueOf(comparison.getImprovements()),
+                comparison.getImprovements() > 0 ? "improved" : ""));
+        html.append(card("Seuil", format("%.1f%%", comparison.getMinDeltaPercent()), ""));
+        html.append("</div>");
+
+        html.append("<h2>Tests</h2>");
+        html.append("<table><tr><th></th><th>Reference</th><th>Candidat</th></tr>");
+        runRow(html, "ID", baseline.getId(), candidate.getId());
+        runRow(html, "Scenario", baseline.getScenario(), candidate.getScenario());
+        runRow(html, "Demarrage", formatTime(baseline.getStartTime()), formatTime(candidate.getStartTime()));
+        runRow(html, "Duree", format("%.1fs", baseline.getDurationMs() / 1000.0),
+                format("%.1fs", candidate.getDurationMs() / 1000.0));
+        runRow(html, "Connexions cibles", String.valueOf(baseline.getTargetConnections()),
+                String.valueOf(candidate.getTargetConnections()));
+        runRow(html, "Messages envoyes", String.valueOf(baseline.getTotalMessagesSent()),
+                String.valueOf(candidate.getTotalMessagesSent()));
+        runRow(html, "Version CSMS", baseline.getCsmsVersion(), candidate.getCsmsVersion());
+        html.append("</table>");
+
+        if (comparison.getEnvironmentWarnings() != null && !comparison.getEnvironmentWarnings().isEmpty()) {
+            html.append("<div class=\"warnings\"><strong>Environnements differents</strong><ul>");
+            comparison.getEnvironmentWarnings().forEach(warning ->
+                    html.append("<li>").append(escapeHtml(warning)).append("</li>"));
+            html.append("</ul></div>");
+        }
+
+        html.append("<h2>Debits et taux d'erreur</h2>");
+        html.append("<table><tr><th>Metrique</th><th>Reference</th><th>Candidat</th>"
+                + "<th>Ecart</th><th>z</th><th>Verdict</th></tr>");
+        if (comparison.getRates() != null) {
+            for (RateDiff rate : comparison.getRates()) {
+                html.append("<tr class=\"").append(rowClass(rate.getVerdict())).append("\">")
+                    .append("<td>").append(escapeHtml(rate.getMetric())).append("</td>")
+                    .append(cell(format("%.3f", rate.getBaseline())))
+                    .append(cell(format("%.3f", rate.getCandidate())))
+                    .append(cell(format("%+.1f%%", rate.getDeltaPercent())))
+                    .append(cell(format("%.2f", rate.getZScore())))
+                    .append(badge(rate.getVerdict()))
+                    .append("</tr>");
+            }
+        }
+        html.append("</table>");
+
+        html.append("<h2>Percentiles de latence (ms, IC 95 %)</h2>");
+        html.append("<table><tr><th>Histogramme</th><th>Percentile</th><th>Reference</th><th>Candidat</th>"
+                + "<th>Ecart</th><th>Echantillons</th><th>Verdict</th></tr>");
+        if (comparison.getPercentiles() != null) {
+            for (PercentileDiff diff : comparison.getPercentiles()) {
+                html.append("<tr class=\"").append(rowClass(diff.getVerdict())).append("\">")
+                    .append("<td>").append(escapeHtml(diff.getHistogram())).append("</td>")
+                    .append(cell("p" + trimPercentile(diff.getPercentile())))
+                    .append(cell(format("%.2f <span class=\"ci\">[%.2f ; %.2f]</span>",
+                            diff.getBaselineMs(), diff.getBaselineLowMs(), diff.getBaselineHighMs())))
+                    .append(cell(format("%.2f <span class=\"ci\">[%.2f ; %.2f]</span>",
+                            diff.getCandidateMs(), diff.getCandidateLowMs(), diff.getCandidateHighMs())))
+                    .append(cell(format("%+.1f%%", diff.getDeltaPercent())))
+                    .append(cell(diff.getBaselineCount() + " / " + diff.getCandidateCount()))
+                    .append(badge(diff.getVerdict()))
+                    .append("</tr>");
+            }
+        }
+        html.append("</table>");
+
+        html.append("<p class=\"footer\">Genere le ").append(formatTime(comparison.getGeneratedAt()))
+            .append("</p></div></body></html>");
+        return html.toString();
+    }
+
+    private String header(String title) {
+        return """
+            <!DOCTYPE html>
+            <html lang="fr">
+            <head>
+                <meta charset="UTF-8">
+                <meta name="viewport" content="width=device-width, initial-scale=1.0">
+                <title>%s - Performance Report</title>
+                <style>
+                    :root {
+                        --color-improved: #28a745;
+                        --color-regressed: #dc3545;
+                        --color-unchanged: #6c757d;
+                    }
+                    * { box-sizing: border-box; margin: 0; padding: 0; }
+                    body {
+                        font-family: -apple-system, BlinkMacSystemFont, 'Segoe UI', Roboto, Oxygen, Ubuntu, sans-serif;
+                        line-height: 1.6;
+                        color: #333;
+                        background: #f5f5f5;
+                        padding: 20px;
+                    }
+                    .container { max-width: 1200px; margin: 0 auto; }
+                    h1 { color: #2c3e50; margin-bottom: 20px; }
+                    h2 { color: #34495e; margin: 20px 0 10px; border-bottom: 2px solid #3498db; padding-bottom: 5px; }
+                    .summary-cards {
+                        display: grid;
+                        grid-template-columns: repeat(auto-fit, minmax(150px, 1fr));
+                        gap: 15px;
+                        margin-bottom: 30px;
+                    }
+                    .card {
+                        background: white;
+                        border-radius: 8px;
+                        padding: 20px;
+                        text-align: center;
+                        box-shadow: 0 2px 4px rgba(0,0,0,0.1);
+                    }
+                    .card-value { font-size: 2em; font-weight: bold; }
+                    .card-label { color: #666; font-size: 0.9em; }
+                    .card.improved .card-value { color: var(--color-improved); }
+                    .card.regressed .card-value { color: var(--color-regressed); }
+                    table {
+                        width: 100%%;
+                        border-collapse: collapse;
+                        background: white;
+                        box-shadow: 0 2px 4px rgba(0,0,0,0.1);
+                        margin-bottom: 20px;
+                    }
+                    th, td { padding: 8px 12px; text-align: left; border-bottom: 1px solid #eee; }
+                    th { background: #f8f9fa; color: #666; font-size: 0.9em; }
+                    tr.regressed { background: #fff8f8; }
+                    tr.improved { background: #f8fff8; }
+                    .ci { color: #999; font-size: 0.85em; }
+                    .status-badge {
+                        padding: 4px 12px;
+                        border-radius: 12px;
+                        font-size: 0.85em;
+                        font-weight: 600;
+                        text-transform: uppercase;
+                        color: white;
+                    }
+                    .status-badge.improved { background: var(--color-improved); }
+                    .status-badge.regressed { background: var(--color-regressed); }
+                    .status-badge.unchanged { background: var(--color-unchanged); }
+                    .warnings {
+                        background: #fff3e0;
+                        border: 1px solid #ffe0b2;
+                        border-radius: 4px;
+                        padding: 10px 15px;
+                        margin-bottom: 20px;
+                    }
+                    .warnings ul { margin-left: 20px; }
+                    .footer { color: #999; font-size: 0.85em; }
+                </style>
+            </head>
+            <body>
+                <div class="container">
+            """.formatted(escapeHtml(title));
+    }
+
+    private String card(String label, String value, String cssClass) {
+        return String.format("""
+            <div class="card %s">
+                <div class="card-value">%s</div>
+                <div class="card-label">%s</div>
+            </div>
+            """, cssClass, escapeHtml(value), label);
+    }
+
+    private void runRow(StringBuilder html, String label, String baseline, String candidate) {
+        html.append("<tr><th>").append(label).append("</th>")
+            .append("<td>").append(baseline != null ? escapeHtml(baseline) : "-").append("</td>")
+            .append("<td>").append(candidate != null ? escapeHtml(candidate) : "-").append("</td></tr>");
+    }
+
+    private String cell(String content) {
+        return "<td>" + content + "</td>";
+    }
+
+    private String badge(Verdict verdict) {
+        String css = rowClass(verdict);
+        return "<td><span class=\"status-badge " + css + "\">" + css + "</span></td>";
+    }
+
+    private String rowClass(Verdict verdict) {
+        return verdict != null ? verdict.name().toLowerCase(Locale.ROOT) : "unchanged";
+    }
+
+    private String trimPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    private String format(String pattern, Object... args) {
+        return String.format(Locale.ROOT, pattern, args);
+    }
+
+    private String formatTime(Instant instant) {
+        if (instant == null) return "-";
+        return TIME_FORMATTER.format(instant);
+    }
+
+    private String escapeHtml(String text) {
+        if (text == null) return "";
+        return text.replace("&", "&amp;")
+                   .replace("<", "&lt;")
+                   .replace(">", "&gt;")
+                   .replace("\"", "&quot;")
+                   .replace("'", "&#39;");
+    }
+}
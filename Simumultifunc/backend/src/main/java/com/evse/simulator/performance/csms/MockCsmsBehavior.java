@@ -0,0 +1,85 @@
+package com.evse.simulator.performance.csms;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Comportement du CSMS simule : latence, erreurs injectees et reponses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MockCsmsBehavior {
+
+    /**
+     * Latency distribution applied before each answer.
+     */
+    @Builder.Default
+    private LatencyMode latencyMode = LatencyMode.NONE;
+
+    /**
+     * Fixed latency, lower bound (UNIFORM) or mean (EXPONENTIAL), in ms.
+     */
+    private double latencyMs;
+
+    /**
+     * Upper bound (UNIFORM) or cap (EXPONENTIAL) of the latency, in ms; 0 = no cap.
+     */
+    private double latencyMaxMs;
+
+    /**
+     * Percentage of CALLs answered with a CALLERROR.
+     */
+    private double errorRatePercent;
+
+    /**
+     * OCPP error code of injected CALLERRORs.
+     */
+    @Builder.Default
+    private String errorCode = "InternalError";
+
+    /**
+     * Heartbeat interval returned in BootNotification responses, in seconds.
+     */
+    @Builder.Default
+    private int heartbeatIntervalSeconds = 300;
+
+    /**
+     * Status returned by BootNotification (Accepted, Pending, Rejected).
+     */
+    @Builder.Default
+    private String bootStatus = "Accepted";
+
+    /**
+     * Status returned in idTagInfo (Authorize, StartTransaction, StopTransaction).
+     */
+    @Builder.Default
+    private String idTagStatus = "Accepted";
+
+    /**
+     * CALLRESULT payload templates by action, overriding the canned responses.
+     * Placeholders: {{now}}, {{transactionId}}, {{cpId}}, {{messageId}}.
+     */
+    @Builder.Default
+    private Map<String, String> responses = new HashMap<>();
+
+    /**
+     * Distribution de la latence de reponse.
+     */
+    public enum LatencyMode {
+        /** Reponse immediate */
+        NONE,
+        /** latencyMs */
+        FIXED,
+        /** Uniforme entre latencyMs et latencyMaxMs */
+        UNIFORM,
+        /** Exponentielle de moyenne latencyMs, plafonnee a latencyMaxMs */
+        EXPONENTIAL
+    }
+}
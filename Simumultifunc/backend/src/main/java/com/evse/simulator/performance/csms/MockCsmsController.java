@@ -0,0 +1,81 @@
+package com.evse.simulator.performance.csms;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * Controleur REST du CSMS simule.
+ * <p>
+ * Une fois demarre, pointer les tests de performance sur l'URL renvoyee
+ * ({@code ws://localhost:8887/ocpp} par defaut).
+ * </p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/mock-csms")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class MockCsmsController {
+
+    private final MockCsmsService service;
+
+    /**
+     * Etat et compteurs.
+     * GET /api/mock-csms
+     */
+    @GetMapping
+    public ResponseEntity<MockCsmsStatus> status() {
+        return ResponseEntity.ok(service.status());
+    }
+
+    /**
+     * Demarre le CSMS simule.
+     * POST /api/mock-csms/start?port=8887
+     */
+    @PostMapping("/start")
+    public ResponseEntity<?> start(@RequestParam(required = false) Integer port) {
+        try {
+            return ResponseEntity.ok(service.start(port));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Arrete le CSMS simule.
+     * POST /api/mock-csms/stop
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<MockCsmsStatus> stop() {
+        return ResponseEntity.ok(service.stop());
+    }
+
+    /**
+     * Remplace latence, taux d'erreur et modeles de reponse.
+     * PUT /api/mock-csms/behavior
+     */
+    @PutMapping("/behavior")
+    public ResponseEntity<MockCsmsBehavior> updateBehavior(@RequestBody MockCsmsBehavior behavior) {
+        return ResponseEntity.ok(service.updateBehavior(behavior));
+    }
+
+    /**
+     * Envoie un CALL du CSMS a un point de charge ou a tous.
+     * POST /api/mock-csms/calls/SetChargingProfile?cpId=PERF-000001
+     */
+    @PostMapping("/calls/{action}")
+    public ResponseEntity<Map<String, Object>> sendCall(@PathVariable String action,
+                                                        @RequestParam(required = false) String cpId,
+                                                        @RequestBody(required = false) String payload) {
+        try {
+            int sent = service.sendCall(cpId, action, payload != null && !payload.isBlank() ? payload : null);
+            return ResponseEntity.ok(Map.of("action", action, "sent", sent));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.evse.simulator.performance.csms;
+
+import com.evse.simulator.model.enums.OCPPAction;
+import com.evse.simulator.performance.OcppEnvelope;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reponses du CSMS simule aux trames OCPP 1.6-J.
+ * <p>
+ * Seule l'enveloppe des trames est lue ({@link OcppEnvelope}) et les reponses
+ * sont assemblees par concatenation, sans passer par Jackson : le cout par
+ * message reste de l'ordre de la microseconde. Les reponses par defaut
+ * acceptent tout ; le {@link MockCsmsBehavior} permet de les remplacer par
+ * des modeles, d'injecter des CALLERROR et de retarder les reponses.
+ * </p>
+ */
+public final class MockCsmsResponder {
+
+    static final String REMOTE_START_PAYLOAD = "{\"connectorId\":1,\"idTag\":\"MOCK-CSMS\"}";
+    static final String SET_CHARGING_PROFILE_PAYLOAD = "{\"connectorId\":1,\"csChargingProfiles\":"
+            + "{\"chargingProfileId\":1,\"stackLevel\":0,\"chargingProfilePurpose\":\"TxDefaultProfile\","
+            + "\"chargingProfileKind\":\"Absolute\",\"chargingSchedule\":{\"chargingRateUnit\":\"A\","
+            + "\"chargingSchedulePeriod\":[{\"startPeriod\":0,\"limit\":16.0}]}}}";
+
+    /**
+     * Compteur des actions hors OCPP 1.6 : le nom d'action vient du client,
+     * seules les actions connues ont leur propre compteur.
+     */
+    static final String OTHER_ACTION = "Other";
+
+    private volatile MockCsmsBehavior behavior;
+    private volatile Clock clock = new Clock(-1, "");
+
+    private final AtomicLong transactionIds = new AtomicLong();
+    private final AtomicLong callIds = new AtomicLong();
+    private final Map<String, LongAdder> callsByAction = actionCounters();
+    private final LongAdder otherCalls = callsByAction.get(OTHER_ACTION);
+    private final LongAdder received = new LongAdder();
+    private final LongAdder answered = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder callsSent = new LongAdder();
+    private final LongAdder callReplies = new LongAdder();
+    private final LongAdder invalidFrames = new LongAdder();
+
+    /**
+     * Horodatage ISO-8601 a la seconde, recalcule une fois par seconde.
+     */
+    private record Clock(long epochSecond, String text) {
+    }
+
+    public MockCsmsResponder(MockCsmsBehavior behavior) {
+        this.behavior = behavior != null ? behavior : new MockCsmsBehavior();
+    }
+
+    public MockCsmsBehavior getBehavior() {
+        return behavior;
+    }
+
+    public void setBehavior(MockCsmsBehavior behavior) {
+        this.behavior = behavior != null ? behavior : new MockCsmsBehavior();
+    }
+
+    /**
+     * Reponse a une trame recue d'un point de charge.
+     *
+     * @return trame CALLRESULT ou CALLERROR, null si la trame n'appelle pas de reponse
+     *         (reponse a un CALL du CSMS, trame invalide)
+     */
+    public String answer(String cpId, String frame) {
+        received.increment();
+        OcppEnvelope envelope = OcppEnvelope.parse(frame);
+        if (envelope == null) {
+            invalidFrames.increment();
+            return null;
+        }
+        if (envelope.messageType() != OcppEnvelope.CALL) {
+            callReplies.increment();
+            return null;
+        }
+        String action = envelope.action(frame);
+        if (action == null) {
+            invalidFrames.increment();
+            return "[4,\"" + envelope.messageId() + "\",\"FormationViolation\",\"Missing action\",{}]";
+        }
+        callsByAction.getOrDefault(action, otherCalls).increment();
+        answered.increment();
+
+        MockCsmsBehavior current = behavior;
+        if (current.getErrorRatePercent() > 0
+                && ThreadLocalRandom.current().nextDouble(100) < current.getErrorRatePercent()) {
+            injectedErrors.increment();
+            return "[4,\"" + envelope.messageId() + "\",\"" + current.getErrorCode() + "\",\"Injected error\",{}]";
+        }
+        return "[3,\"" + envelope.messageId() + "\"," + payload(current, action, cpId, envelope.messageId()) + "]";
+    }
+
+    private String payload(MockCsmsBehavior current, String action, String cpId, String messageId) {
+        String template = current.getResponses() != null ? current.getResponses().get(action) : null;
+        if (template != null) {
+            return render(template, cpId, messageId);
+        }
+        return switch (action) {
+            case "BootNotification" -> "{\"status\":\"" + current.getBootStatus() + "\",\"currentTime\":\"" + now()
+                    + "\",\"interval\":" + current.getHeartbeatIntervalSeconds() + "}";
+            case "Heartbeat" -> "{\"currentTime\":\"" + now() + "\"}";
+            case "Authorize", "StopTransaction" -> "{\"idTagInfo\":{\"status\":\"" + current.getIdTagStatus() + "\"}}";
+            case "StartTransaction" -> "{\"transactionId\":" + transactionIds.incrementAndGet()
+                    + ",\"idTagInfo\":{\"status\":\"" + current.getIdTagStatus() + "\"}}";
+            case "DataTransfer" -> "{\"status\":\"Accepted\"}";
+            default -> "{}";
+        };
+    }
+
+    private String render(String template, String cpId, String messageId) {
+        if (template.indexOf("{{") < 0) {
+            return template;
+        }
+        String rendered = template.replace("{{cpId}}", cpId).replace("{{messageId}}", messageId);
+        if (rendered.contains("{{now}}")) {
+            rendered = rendered.replace("{{now}}", now());
+        }
+        if (rendered.contains("{{transactionId}}")) {
+            rendered = rendered.replace("{{transactionId}}", Long.toString(transactionIds.incrementAndGet()));
+        }
+        return rendered;
+    }
+
+    /**
+     * Tire le delai a appliquer avant d'envoyer une reponse.
+     */
+    public long sampleDelayNanos() {
+        MockCsmsBehavior current = behavior;
+        double ms = switch (current.getLatencyMode()) {
+            case NONE -> 0;
+            case FIXED -> current.getLatencyMs();
+            case UNIFORM -> current.getLatencyMaxMs() > current.getLatencyMs()
+                    ? ThreadLocalRandom.current().nextDouble(current.getLatencyMs(), current.getLatencyMaxMs())
+                    : current.getLatencyMs();
+            case EXPONENTIAL -> {
+                double sample = -current.getLatencyMs() * Math.log(1 - ThreadLocalRandom.current().nextDouble());
+                yield current.getLatencyMaxMs() > 0 ? Math.min(sample, current.getLatencyMaxMs()) : sample;
+            }
+        };
+        return ms > 0 ? (long) (ms * TimeUnit.MILLISECONDS.toNanos(1)) : 0;
+    }
+
+    /**
+     * Trame CALL initiee par le CSMS.
+     *
+     * @param payload payload JSON, ou null pour le payload par defaut de l'action
+     * @throws IllegalArgumentException action sans payload par defaut
+     */
+    public String call(String action, String payload) {
+        String body = payload != null ? payload : switch (action) {
+            case "RemoteStartTransaction" -> REMOTE_START_PAYLOAD;
+            case "SetChargingProfile" -> SET_CHARGING_PROFILE_PAYLOAD;
+            case "TriggerMessage" -> "{\"requestedMessage\":\"StatusNotification\"}";
+            case "GetConfiguration", "ClearCache" -> "{}";
+            default -> throw new IllegalArgumentException("No default payload for " + action);
+        };
+        return "[2,\"csms-" + callIds.incrementAndGet() + "\",\"" + action + "\"," + body + "]";
+    }
+
+    void recordCallSent() {
+        callsSent.increment();
+    }
+
+    private String now() {
+        long second = System.currentTimeMillis() / 1000;
+        Clock current = clock;
+        if (current.epochSecond() != second) {
+            current = new Clock(second, Instant.ofEpochSecond(second).toString());
+            clock = current;
+        }
+        return current.text();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getAnswered() {
+        return answered.sum();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    public long getCallsSent() {
+        return callsSent.sum();
+    }
+
+    public long getCallReplies() {
+        return callReplies.sum();
+    }
+
+    public long getInvalidFrames() {
+        return invalidFrames.sum();
+    }
+
+    public Map<String, Long> getCallsByAction() {
+        Map<String, Long> counts = new TreeMap<>();
+        callsByAction.forEach((action, count) -> {
+            long sum = count.sum();
+            if (sum > 0) {
+                counts.put(action, sum);
+            }
+        });
+        return counts;
+    }
+
+    private static Map<String, LongAdder> actionCounters() {
+        Map<String, LongAdder> counters = new HashMap<>();
+        for (OCPPAction action : OCPPAction.values()) {
+            counters.put(action.getValue(), new LongAdder());
+        }
+        counters.put(OTHER_ACTION, new LongAdder());
+        return Map.copyOf(counters);
+    }
+}
@@ -0,0 +1,190 @@
+package com.evse.simulator.performance.csms;
+
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.protocols.IProtocol;
+import org.java_websocket.protocols.Protocol;
+import org.java_websocket.server.WebSocketServer;
+
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur WebSocket du CSMS simule.
+ * <p>
+ * Base sur le serveur NIO de Java-WebSocket plutot que sur Tomcat : pas de
+ * session Spring ni de filtre par message, et {@code decoders} threads de
+ * decodage qui repondent directement sur le thread de lecture quand aucune
+ * latence n'est configuree. Les reponses retardees passent par un
+ * ordonnanceur dedie. L'identifiant du point de charge est le dernier segment
+ * de l'URL ({@code ws://host:port/ocpp/CP-000001}).
+ * </p>
+ */
+@Slf4j
+class MockCsmsServer extends WebSocketServer {
+
+    private final MockCsmsResponder responder;
+    private final Map<String, WebSocket> chargePoints = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService delayed;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final LongAdder totalConnections = new LongAdder();
+    private volatile Exception startError;
+
+    MockCsmsServer(int port, int decoders, MockCsmsResponder responder) {
+        super(new InetSocketAddress(port), Math.max(1, decoders), ocppDrafts());
+        this.responder = responder;
+        AtomicInteger counter = new AtomicInteger();
+        this.delayed = Executors.newScheduledThreadPool(Math.max(1, decoders / 2), r -> {
+            Thread t = new Thread(r, "mock-csms-delay-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+        setConnectionLostTimeout(0);
+    }
+
+    /**
+     * Sous-protocoles OCPP acceptes ; le protocole vide accepte les clients qui n'en demandent pas.
+     */
+    private static List<Draft> ocppDrafts() {
+        List<IProtocol> protocols = List.of(new Protocol("ocpp1.6"), new Protocol("ocpp2.0.1"), new Protocol(""));
+        return List.of(new Draft_6455(Collections.emptyList(), protocols));
+    }
+
+    /**
+     * Demarre le serveur et attend qu'il ecoute.
+     *
+     * @throws IllegalStateException port indisponible ou delai depasse
+     */
+    void startAndWait(long timeoutMs) {
+        start();
+        try {
+            if (!started.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("Mock CSMS did not start within " + timeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the mock CSMS", e);
+        }
+        if (startError != null) {
+            throw new IllegalStateException("Mock CSMS failed to start: " + startError.getMessage(), startError);
+        }
+    }
+
+    void shutdown() {
+        delayed.shutdownNow();
+        try {
+            stop(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void onStart() {
+        log.info("CSMS simule a l'ecoute sur le port {}", getPort());
+        started.countDown();
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        String resource = handshake.getResourceDescriptor();
+        int slash = resource.lastIndexOf('/');
+        String cpId = slash >= 0 ? resource.substring(slash + 1) : resource;
+        conn.setAttachment(cpId);
+        chargePoints.put(cpId, conn);
+        totalConnections.increment();
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        String cpId = conn.getAttachment();
+        String reply = responder.answer(cpId, message);
+        if (reply == null) {
+            return;
+        }
+        long delayNanos = responder.sampleDelayNanos();
+        if (delayNanos <= 0) {
+            send(conn, reply);
+        } else {
+            delayed.schedule(() -> send(conn, reply), delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void send(WebSocket conn, String frame) {
+        if (conn.isOpen()) {
+            try {
+                conn.send(frame);
+            } catch (RuntimeException e) {
+                log.trace("Reponse non envoyee: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+        String cpId = conn.getAttachment();
+        if (cpId != null) {
+            chargePoints.remove(cpId, conn);
+        }
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+        if (conn == null) {
+            // Erreur du serveur lui-meme (port occupe...)
+            startError = ex;
+            started.countDown();
+            log.error("Erreur du CSMS simule: {}", ex.getMessage());
+        } else {
+            log.debug("Erreur WebSocket CSMS simule {}: {}", conn.<String>getAttachment(), ex.getMessage());
+        }
+    }
+
+    /**
+     * Envoie un CALL du CSMS a un point de charge, ou a tous si {@code cpId} est null.
+     *
+     * @return nombre de points de charge destinataires
+     */
+    int sendCall(String cpId, String action, String payload) {
+        if (cpId != null) {
+            WebSocket conn = chargePoints.get(cpId);
+            if (conn == null || !conn.isOpen()) {
+                return 0;
+            }
+            send(conn, responder.call(action, payload));
+            responder.recordCallSent();
+            return 1;
+        }
+        int sent = 0;
+        for (WebSocket conn : chargePoints.values()) {
+            if (conn.isOpen()) {
+                send(conn, responder.call(action, payload));
+                responder.recordCallSent();
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    int getActiveConnections() {
+        return chargePoints.size();
+    }
+
+    long getTotalConnections() {
+        return totalConnections.sum();
+    }
+}
@@ -0,0 +1,146 @@
+package com.evse.simulator.performance.csms;
+
+import com.evse.simulator.config.MockCsmsProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+/**
+ * CSMS simule embarque : cible locale des tests de performance, sans backend
+ * distant. Demarre avec l'application si {@code performance.mock-csms.enabled},
+ * sinon a la demande via {@link MockCsmsController}.
+ */
+@Slf4j
+@Service
+public class MockCsmsService {
+
+    private final MockCsmsProperties properties;
+    private volatile MockCsmsResponder responder;
+    private MockCsmsServer server;
+    private int port;
+    private Instant startedAt;
+    private long lastSampleNanos;
+    private long lastSampleReceived;
+
+    public MockCsmsService(MockCsmsProperties properties) {
+        this.properties = properties;
+        this.responder = new MockCsmsResponder(properties.getBehavior());
+        this.port = properties.getPort();
+    }
+
+    @PostConstruct
+    void init() {
+        if (properties.isEnabled()) {
+            start(null);
+        }
+    }
+
+    /**
+     * Demarre le serveur ; les compteurs repartent de zero.
+     *
+     * @param port port d'ecoute, null pour celui de la configuration
+     * @throws IllegalStateException deja demarre ou port indisponible
+     */
+    public synchronized MockCsmsStatus start(Integer port) {
+        if (server != null) {
+            throw new IllegalStateException("Mock CSMS already running on port " + server.getPort());
+        }
+        MockCsmsResponder fresh = new MockCsmsResponder(responder.getBehavior());
+        MockCsmsServer candidate = new MockCsmsServer(port != null ? port : properties.getPort(),
+                properties.getDecoders(), fresh);
+        try {
+            candidate.startAndWait(5000);
+        } catch (IllegalStateException e) {
+            candidate.shutdown();
+            throw e;
+        }
+        responder = fresh;
+        server = candidate;
+        this.port = candidate.getPort();
+        startedAt = Instant.now();
+        lastSampleNanos = System.nanoTime();
+        lastSampleReceived = 0;
+        return status();
+    }
+
+    @PreDestroy
+    public synchronized MockCsmsStatus stop() {
+        if (server != null) {
+            server.shutdown();
+            log.info("CSMS simule arrete ({} trames recues)", responder.getReceived());
+            server = null;
+        }
+        return status();
+    }
+
+    /**
+     * Remplace le comportement (latence, erreurs, modeles), a chaud.
+     */
+    public MockCsmsBehavior updateBehavior(MockCsmsBehavior behavior) {
+        responder.setBehavior(behavior);
+        return responder.getBehavior();
+    }
+
+    /**
+     * Envoie un CALL initie par le CSMS (RemoteStartTransaction, SetChargingProfile...).
+     *
+     * @param cpId    point de charge cible, null pour tous
+     * @param payload payload JSON, null pour le payload par defaut de l'action
+     * @return nombre de points de charge destinataires
+     */
+    public synchronized int sendCall(String cpId, String action, String payload) {
+        if (server == null) {
+            throw new IllegalStateException("Mock CSMS is not running");
+        }
+        return server.sendCall(cpId, action, payload);
+    }
+
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Port d'ecoute, conserve apres l'arret.
+     */
+    public synchronized int getPort() {
+        return port;
+    }
+
+    /**
+     * Traitement partage avec les handlers WebSocket Spring.
+     */
+    public MockCsmsResponder getResponder() {
+        return responder;
+    }
+
+    public synchronized MockCsmsStatus status() {
+        MockCsmsResponder current = responder;
+        long now = System.nanoTime();
+        long received = current.getReceived();
+        double seconds = (now - lastSampleNanos) / 1e9;
+        double rate = server != null && seconds > 0 ? (received - lastSampleReceived) / seconds : 0;
+        lastSampleNanos = now;
+        lastSampleReceived = received;
+
+        return MockCsmsStatus.builder()
+                .running(server != null)
+                .port(port)
+                .url("ws://localhost:" + port + "/ocpp")
+                .startedAt(startedAt)
+                .activeConnections(server != null ? server.getActiveConnections() : 0)
+                .totalConnections(server != null ? server.getTotalConnections() : 0)
+                .framesReceived(received)
+                .callsAnswered(current.getAnswered())
+                .injectedErrors(current.getInjectedErrors())
+                .invalidFrames(current.getInvalidFrames())
+                .serverCallsSent(current.getCallsSent())
+                .serverCallReplies(current.getCallReplies())
+                .framesPerSecond(rate)
+                .callsByAction(current.getCallsByAction())
+                .behavior(current.getBehavior())
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.evse.simulator.performance.csms;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Etat et compteurs du CSMS simule.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MockCsmsStatus {
+    private boolean running;
+    private int port;
+    private String url;
+    private Instant startedAt;
+    private int activeConnections;
+    private long totalConnections;
+    private long framesReceived;
+    private long callsAnswered;
+    private long injectedErrors;
+    private long invalidFrames;
+    private long serverCallsSent;
+    private long serverCallReplies;
+    // Frames received per second since the previous sample
+    private double framesPerSecond;
+    private Map<String, Long> callsByAction;
+    private MockCsmsBehavior behavior;
+}
@@ -0,0 +1,29 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Etat et metriques d'un agent pour sa tranche.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentReport {
+    private String runId;
+    private int shardIndex;
+    /** PENDING before the shared start instant, then the engine status */
+    private PerfStatus status;
+    private String testId;
+    private String error;
+    private int activeConnections;
+    private int successfulConnections;
+    private int failedConnections;
+    private int completedTransactions;
+    private MetricsExport metrics;
+}
@@ -0,0 +1,23 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.PerfConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tranche d'un test distribue confiee a un agent.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AgentShard {
+    private String runId;
+    private int shardIndex;
+    private int shardCount;
+    /** Start instant shared by every agent (epoch ms) */
+    private long startAtEpochMs;
+    private PerfConfig config;
+}
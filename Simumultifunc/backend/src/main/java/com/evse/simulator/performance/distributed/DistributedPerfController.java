@@ -0,0 +1,122 @@
+package com.evse.simulator.performance.distributed;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controleur REST des tests de performance distribues.
+ * <p>
+ * Chaque instance du simulateur est a la fois coordinateur et agent : pour
+ * depasser les limites d'une seule JVM, lancer plusieurs instances (sur des
+ * {@code server.port} differents ou sur d'autres hotes) et soumettre le test
+ * a l'une d'elles avec la liste des URL des agents, elle-meme incluse si elle
+ * doit generer de la charge.
+ * </p>
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/highperf/distributed")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class DistributedPerfController {
+
+    private final DistributedPerfCoordinator coordinator;
+    private final PerfAgentService agentService;
+
+    // =========================================================================
+    // Coordinateur
+    // =========================================================================
+
+    /**
+     * Decoupe le test et le lance sur les agents.
+     * POST /api/highperf/distributed/runs
+     */
+    @PostMapping("/runs")
+    public ResponseEntity<?> startRun(@RequestBody DistributedRunRequest request) {
+        try {
+            return ResponseEntity.ok(coordinator.start(request));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Test distribue refuse: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Liste les tests distribues recents.
+     * GET /api/highperf/distributed/runs
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<DistributedRun>> listRuns() {
+        return ResponseEntity.ok(coordinator.list());
+    }
+
+    /**
+     * Etat et resultat fusionne d'un test distribue.
+     * GET /api/highperf/distributed/runs/{runId}
+     */
+    @GetMapping("/runs/{runId}")
+    public ResponseEntity<DistributedRun> getRun(@PathVariable String runId) {
+        return coordinator.get(runId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Arrete le test sur tous les agents.
+     * POST /api/highperf/distributed/runs/{runId}/stop
+     */
+    @PostMapping("/runs/{runId}/stop")
+    public ResponseEntity<DistributedRun> stopRun(@PathVariable String runId) {
+        return coordinator.stop(runId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // =========================================================================
+    // Agent
+    // =========================================================================
+
+    /**
+     * Accepte une tranche ; 409 si un test tourne deja sur cette instance.
+     * POST /api/highperf/distributed/agent/shards
+     */
+    @PostMapping("/agent/shards")
+    public ResponseEntity<?> acceptShard(@RequestBody AgentShard shard) {
+        try {
+            agentService.accept(shard);
+            return ResponseEntity.accepted().body(Map.of("runId", shard.getRunId(), "shardIndex", shard.getShardIndex()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Etat et metriques exportees de la tranche.
+     * GET /api/highperf/distributed/agent/shards/{runId}
+     */
+    @GetMapping("/agent/shards/{runId}")
+    public ResponseEntity<AgentReport> shardReport(@PathVariable String runId) {
+        return agentService.report(runId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Arrete la tranche.
+     * POST /api/highperf/distributed/agent/shards/{runId}/stop
+     */
+    @PostMapping("/agent/shards/{runId}/stop")
+    public ResponseEntity<Void> stopShard(@PathVariable String runId) {
+        return agentService.stop(runId)
+                ? ResponseEntity.ok().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,376 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
+import com.evse.simulator.http.OutboundRequest;
+import com.evse.simulator.http.OutboundResponse;
+import com.evse.simulator.performance.MetricsCollector;
+import com.evse.simulator.performance.PerformanceEngine;
+import com.evse.simulator.performance.archive.PerfRunArchive;
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.PerfMetrics;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role coordinateur d'un test distribue.
+ * <p>
+ * Decoupe la configuration en tranches ({@link ShardPlanner}), les confie aux
+ * agents avec un instant de depart commun, puis interroge periodiquement les
+ * agents et fusionne leurs compteurs et histogrammes HdrHistogram en un seul
+ * {@link PerfResult}. Les agents sont d'autres instances du simulateur, sur la
+ * meme machine (ports differents) ou sur d'autres hotes ; le protocole est du
+ * JSON sur HTTP via le client sortant partage. Le resultat fusionne est
+ * archive ({@link PerfRunArchive}) a la fin du test, comme un test local.
+ * </p>
+ */
+@Slf4j
+@Service
+public class DistributedPerfCoordinator {
+
+    static final String AGENT_PATH = "/api/highperf/distributed/agent/shards";
+
+    private static final int MAX_RUNS = 20;
+    private static final long POLL_INTERVAL_MS = 2000;
+    private static final Set<PerfStatus> TERMINAL =
+            Set.of(PerfStatus.COMPLETED, PerfStatus.STOPPED, PerfStatus.FAILED, PerfStatus.CANCELLED);
+
+    private final OutboundHttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final PerfRunArchive runArchive;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "perf-coordinator");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Map<String, RunState> runs = new LinkedHashMap<>();
+
+    public DistributedPerfCoordinator(OutboundHttpClient httpClient, ObjectMapper objectMapper,
+                                      PerfRunArchive runArchive) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.runArchive = runArchive;
+    }
+
+    /**
+     * Etat d'un test distribue cote coordinateur.
+     */
+    private static final class RunState {
+        final String runId;
+        final PerfConfig config;
+        final Instant startAt;
+        final Instant deadline;
+        final List<String> agentUrls;
+        final List<PerfConfig> shards;
+        final AgentReport[] reports;
+        final DistributedRun.Agent[] agents;
+        volatile PerfResult result;
+        volatile PerfStatus status = PerfStatus.PENDING;
+        volatile Instant endTime;
+        volatile ScheduledFuture<?> pollTask;
+
+        RunState(String runId, PerfConfig config, Instant startAt, Instant deadline, List<String> agentUrls,
+                 List<PerfConfig> shards) {
+            this.runId = runId;
+            this.config = config;
+            this.startAt = startAt;
+            this.deadline = deadline;
+            this.agentUrls = agentUrls;
+            this.shards = shards;
+            this.reports = new AgentReport[shards.size()];
+            this.agents = new DistributedRun.Agent[shards.size()];
+        }
+    }
+
+    /**
+     * Confie une tranche a chaque agent et demarre le suivi du test.
+     *
+     * @throws IllegalArgumentException configuration ou liste d'agents invalide
+     * @throws IllegalStateException    un agent a refuse sa tranche (les autres sont arretes)
+     */
+    public DistributedRun start(DistributedRunRequest request) {
+        if (request.getConfig() == null || request.getAgents() == null || request.getAgents().isEmpty()) {
+            throw new IllegalArgumentException("config and at least one agent are required");
+        }
+        List<String> agentUrls = request.getAgents().stream().map(DistributedPerfCoordinator::baseUrl).toList();
+        List<PerfConfig> shards = ShardPlanner.split(request.getConfig(), agentUrls.size());
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        Instant startAt = Instant.now().plusMillis(request.getStartDelayMs());
+        Instant deadline = startAt.plusMillis(expectedDurationMs(request.getConfig()) + request.getGraceMs());
+        RunState state = new RunState(runId, request.getConfig(), startAt, deadline, agentUrls, shards);
+
+        for (int i = 0; i < shards.size(); i++) {
+            PerfConfig shard = shards.get(i);
+            state.agents[i] = DistributedRun.Agent.builder()
+                    .url(agentUrls.get(i))
+                    .shardIndex(i)
+                    .firstCpId(cpId(shard, 0))
+                    .lastCpId(cpId(shard, shard.getTargetConnections() - 1))
+                    .connections(shard.getTargetConnections())
+                    .status(PerfStatus.PENDING)
+                    .build();
+        }
+
+        for (int i = 0; i < shards.size(); i++) {
+            AgentShard assignment = AgentShard.builder()
+                    .runId(runId)
+                    .shardIndex(i)
+                    .shardCount(shards.size())
+                    .startAtEpochMs(startAt.toEpochMilli())
+                    .config(shards.get(i))
+                    .build();
+            try {
+                OutboundResponse response = httpClient.send(
+                        OutboundRequest.post(OutboundModule.PERF_AGENT, agentUrls.get(i) + AGENT_PATH,
+                                        objectMapper.writeValueAsString(assignment))
+                                .header("Content-Type", "application/json")
+                                .build());
+                if (!response.is2xxSuccessful()) {
+                    throw new IOException("HTTP " + response.statusCode() + " " + response.body());
+                }
+            } catch (IOException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                stopAgents(state, i);
+                throw new IllegalStateException("Agent " + agentUrls.get(i) + " a refuse sa tranche: " + e.getMessage(), e);
+            }
+        }
+
+        state.status = PerfStatus.INITIALIZING;
+        state.pollTask = poller.scheduleWithFixedDelay(() -> poll(state), POLL_INTERVAL_MS, POLL_INTERVAL_MS,
+                TimeUnit.MILLISECONDS);
+        synchronized (runs) {
+            runs.put(runId, state);
+            while (runs.size() > MAX_RUNS) {
+                RunState evicted = runs.remove(runs.keySet().iterator().next());
+                // Plus consultable : inutile de continuer a interroger ses agents
+                evicted.pollTask.cancel(false);
+            }
+        }
+        log.info("Test distribue {} lance sur {} agents, depart a {}, echeance {}",
+                runId, agentUrls.size(), startAt, deadline);
+        return view(state);
+    }
+
+    public Optional<DistributedRun> get(String runId) {
+        synchronized (runs) {
+            return Optional.ofNullable(runs.get(runId)).map(this::view);
+        }
+    }
+
+    public List<DistributedRun> list() {
+        synchronized (runs) {
+            return runs.values().stream().map(this::view).toList();
+        }
+    }
+
+    /**
+     * Arrete la tranche de chaque agent ; le resultat final arrive au prochain releve.
+     */
+    public Optional<DistributedRun> stop(String runId) {
+        RunState state;
+        synchronized (runs) {
+            state = runs.get(runId);
+        }
+        if (state == null) {
+            return Optional.empty();
+        }
+        stopAgents(state, state.agentUrls.size());
+        return Optional.of(view(state));
+    }
+
+    private void stopAgents(RunState state, int count) {
+        for (int i = 0; i < count; i++) {
+            String url = state.agentUrls.get(i) + AGENT_PATH + "/" + state.runId + "/stop";
+            try {
+                httpClient.send(OutboundRequest.post(OutboundModule.PERF_AGENT, url, "").build());
+            } catch (IOException | RuntimeException e) {
+                log.warn("Arret de l'agent {} impossible: {}", state.agentUrls.get(i), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releve l'etat de chaque agent et recalcule le resultat fusionne.
+     */
+    private void poll(RunState state) {
+        for (int i = 0; i < state.agentUrls.size(); i++) {
+            DistributedRun.Agent agent = state.agents[i];
+            String url = state.agentUrls.get(i) + AGENT_PATH + "/" + state.runId;
+            try {
+                OutboundResponse response = httpClient.send(OutboundRequest.get(OutboundModule.PERF_AGENT, url).build());
+                if (response.statusCode() == 404) {
+                    agent.setStatus(PerfStatus.FAILED);
+                    agent.setError("Tranche inconnue de l'agent");
+                    continue;
+                }
+                if (!response.is2xxSuccessful()) {
+                    agent.setError("HTTP " + response.statusCode());
+                    continue;
+                }
+                AgentReport report = objectMapper.readValue(response.body(), AgentReport.class);
+                state.reports[i] = report;
+                agent.setStatus(report.getStatus());
+                agent.setError(report.getError());
+                agent.setLastReportAt(Instant.now());
+            } catch (IOException | RuntimeException e) {
+                // Agent momentanement injoignable : derniere valeur conservee
+                agent.setError(e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        Instant now = Instant.now();
+        if (now.isAfter(state.deadline)) {
+            // Agent arrete, partitionne ou bloque : sans cela le test resterait RUNNING indefiniment
+            for (DistributedRun.Agent agent : state.agents) {
+                if (!TERMINAL.contains(agent.getStatus())) {
+                    agent.setStatus(PerfStatus.FAILED);
+                    agent.setError("Pas de resultat final a l'echeance " + state.deadline
+                            + (agent.getLastReportAt() != null ? ", dernier releve " + agent.getLastReportAt()
+                            : ", aucun releve"));
+                }
+            }
+        }
+
+        boolean finished = true;
+        boolean failed = false;
+        boolean stopped = false;
+        for (DistributedRun.Agent agent : state.agents) {
+            finished &= TERMINAL.contains(agent.getStatus());
+            failed |= agent.getStatus() == PerfStatus.FAILED;
+            stopped |= agent.getStatus() == PerfStatus.STOPPED;
+        }
+        if (finished) {
+            state.status = failed ? PerfStatus.FAILED : stopped ? PerfStatus.STOPPED : PerfStatus.COMPLETED;
+            state.endTime = now;
+            state.pollTask.cancel(false);
+            log.info("Test distribue {} termine: {}", state.runId, state.status);
+        } else if (now.isAfter(state.startAt)) {
+            state.status = PerfStatus.RUNNING;
+        }
+        MetricsCollector merged = new MetricsCollector(state.config.getTargetConnections());
+        PerfResult result = merge(state, merged);
+        state.result = result;
+        if (finished) {
+            MetricsExport export = merged.export();
+            export.setPersonaMetrics(result.getFinalMetrics().getPersonaMetrics());
+            runArchive.archive(result, export, PerformanceEngine.HISTORY_PREFIX);
+        }
+    }
+
+    /**
+     * Fusionne compteurs et histogrammes des agents dans un collecteur vierge.
+     */
+    private PerfResult merge(RunState state, MetricsCollector merged) {
+        int active = 0;
+        int successful = 0;
+        int failed = 0;
+        int completedTransactions = 0;
+        double throughput = 0;
+        double connectionsPerSec = 0;
+        List<String> errors = new ArrayList<>();
+        List<MetricsExport> exports = new ArrayList<>();
+        for (AgentReport report : state.reports) {
+            if (report == null) {
+                continue;
+            }
+            active += report.getActiveConnections();
+            successful += report.getSuccessfulConnections();
+            failed += report.getFailedConnections();
+            completedTransactions += report.getCompletedTransactions();
+            if (report.getError() != null) {
+                errors.add("shard " + report.getShardIndex() + ": " + report.getError());
+            }
+            if (report.getMetrics() != null) {
+                merged.merge(report.getMetrics());
+                exports.add(report.getMetrics());
+                throughput += report.getMetrics().getThroughputMsgPerSec();
+                connectionsPerSec += report.getMetrics().getConnectionsPerSec();
+            }
+        }
+
+        PerfMetrics metrics = merged.getMetrics(active, successful, failed);
+        metrics.setPersonaMetrics(MetricsCollector.mergePersonaMetrics(exports));
+        metrics.setThroughputMsgPerSec(throughput);
+        metrics.setConnectionsPerSec(connectionsPerSec);
+        Instant endTime = state.endTime;
+        return PerfResult.builder()
+                .testId(state.runId)
+                .config(state.config)
+                .status(state.status)
+                .startTime(state.startAt)
+                .endTime(endTime)
+                .duration(endTime != null ? Duration.between(state.startAt, endTime) : null)
+                .successfulConnections(successful)
+                .failedConnections(failed)
+                .completedTransactions(completedTransactions)
+                .totalMessagesSent(merged.getMessagesSent())
+                .totalMessagesReceived(merged.getMessagesReceived())
+                .totalErrors(merged.getErrors())
+                .finalMetrics(metrics)
+                .error(errors.isEmpty() ? null : String.join("; ", errors))
+                .summary(state.agentUrls.size() + " agents")
+                .build();
+    }
+
+    private DistributedRun view(RunState state) {
+        return DistributedRun.builder()
+                .runId(state.runId)
+                .status(state.status)
+                .startAt(state.startAt)
+                .deadline(state.deadline)
+                .agents(List.of(state.agents))
+                .result(state.result)
+                .build();
+    }
+
+    /**
+     * Duree attendue d'une tranche depuis le depart commun : montee en charge
+     * puis duree du test (ou palier de maintien si aucune duree n'est fixee).
+     */
+    static long expectedDurationMs(PerfConfig config) {
+        long runSeconds = config.getDurationSeconds() > 0 ? config.getDurationSeconds()
+                : config.getDurationMinutes() * 60L;
+        return (config.getRampUpSeconds() + Math.max(runSeconds, config.getHoldSeconds())) * 1000L;
+    }
+
+    private static String cpId(PerfConfig shard, int index) {
+        return String.format("%s-%06d", shard.getCpIdPrefix(), shard.getCpIndexOffset() + index);
+    }
+
+    private static String baseUrl(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        poller.shutdownNow();
+    }
+}
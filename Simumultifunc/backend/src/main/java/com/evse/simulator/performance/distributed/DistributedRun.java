@@ -0,0 +1,46 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Test distribue vu du coordinateur : tranches, etat des agents et resultat fusionne.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributedRun {
+    private String runId;
+    private PerfStatus status;
+    private Instant startAt;
+    /** Au-dela, les agents sans resultat final sont marques FAILED */
+    private Instant deadline;
+    private List<Agent> agents;
+    private PerfResult result;
+
+    /**
+     * Agent et sa tranche.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Agent {
+        private String url;
+        private int shardIndex;
+        private String firstCpId;
+        private String lastCpId;
+        private int connections;
+        private PerfStatus status;
+        private String error;
+        private Instant lastReportAt;
+    }
+}
@@ -0,0 +1,40 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.PerfConfig;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Demande de test distribue : configuration globale et URL de base des agents
+ * (ex. {@code http://127.0.0.1:8081}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistributedRunRequest {
+    private PerfConfig config;
+    private List<String> agents;
+    /** Delay between shard assignment and the common start (ms) */
+    private long startDelayMs;
+    /** Time allowed past the expected end before silent agents are marked FAILED (ms) */
+    private long graceMs;
+
+    /**
+     * Gets the start delay, 3 s by default.
+     */
+    public long getStartDelayMs() {
+        return startDelayMs > 0 ? startDelayMs : 3000;
+    }
+
+    /**
+     * Gets the grace period, 60 s by default.
+     */
+    public long getGraceMs() {
+        return graceMs > 0 ? graceMs : 60_000;
+    }
+}
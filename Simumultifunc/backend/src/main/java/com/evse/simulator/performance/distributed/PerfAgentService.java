@@ -0,0 +1,126 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.PerformanceEngine;
+import com.evse.simulator.performance.model.PerfMetrics;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfStatus;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Role agent d'un test distribue : execute sur le moteur local la tranche
+ * recue du coordinateur, a l'instant de depart commun, et expose son etat et
+ * ses metriques exportees.
+ */
+@Slf4j
+@Service
+public class PerfAgentService {
+
+    private final PerformanceEngine engine;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "perf-agent");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile AgentShard shard;
+    private volatile ScheduledFuture<?> pendingStart;
+    private volatile String startError;
+
+    public PerfAgentService(PerformanceEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Programme le demarrage de la tranche a son instant de depart.
+     *
+     * @throws IllegalStateException si un test est deja en cours ou programme
+     */
+    public synchronized void accept(AgentShard newShard) {
+        if (engine.getStatus() == PerfStatus.RUNNING || isPending()) {
+            throw new IllegalStateException("Agent occupe par un autre test");
+        }
+        shard = newShard;
+        startError = null;
+        long delayMs = Math.max(0, newShard.getStartAtEpochMs() - System.currentTimeMillis());
+        pendingStart = scheduler.schedule(() -> start(newShard), delayMs, TimeUnit.MILLISECONDS);
+        log.info("Tranche {}/{} du test distribue {} acceptee: {} connexions a partir de l'index {}, depart dans {}ms",
+                newShard.getShardIndex() + 1, newShard.getShardCount(), newShard.getRunId(),
+                newShard.getConfig().getTargetConnections(), newShard.getConfig().getCpIndexOffset(), delayMs);
+    }
+
+    private void start(AgentShard started) {
+        try {
+            engine.startTest(started.getConfig());
+        } catch (RuntimeException e) {
+            startError = e.getMessage();
+            log.warn("Echec demarrage tranche {} du test {}: {}", started.getShardIndex(), started.getRunId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Etat et metriques de la tranche, vide si ce test n'est pas celui de l'agent.
+     */
+    public Optional<AgentReport> report(String runId) {
+        AgentShard current = shard;
+        if (current == null || !current.getRunId().equals(runId)) {
+            return Optional.empty();
+        }
+        AgentReport.AgentReportBuilder report = AgentReport.builder()
+                .runId(runId)
+                .shardIndex(current.getShardIndex());
+        if (isPending()) {
+            return Optional.of(report.status(PerfStatus.PENDING).build());
+        }
+        if (startError != null) {
+            return Optional.of(report.status(PerfStatus.FAILED).error(startError).build());
+        }
+
+        PerfResult result = engine.getCurrentResult();
+        PerfMetrics metrics = engine.getCurrentMetrics();
+        return Optional.of(report
+                .status(engine.getStatus())
+                .testId(result != null ? result.getTestId() : null)
+                .error(result != null ? result.getError() : null)
+                .activeConnections(metrics.getActiveConnections())
+                .successfulConnections(metrics.getSuccessfulConnections())
+                .failedConnections(metrics.getFailedConnections())
+                .completedTransactions(result != null ? result.getCompletedTransactions() : 0)
+                .metrics(engine.exportMetrics())
+                .build());
+    }
+
+    /**
+     * Annule le depart programme ou arrete le test de la tranche.
+     */
+    public synchronized boolean stop(String runId) {
+        AgentShard current = shard;
+        if (current == null || !current.getRunId().equals(runId)) {
+            return false;
+        }
+        if (isPending()) {
+            pendingStart.cancel(false);
+            startError = "Arrete avant le depart";
+        } else {
+            engine.stopTest();
+        }
+        return true;
+    }
+
+    private boolean isPending() {
+        ScheduledFuture<?> pending = pendingStart;
+        return pending != null && !pending.isDone();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,53 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.PerfConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decoupe d'une configuration de test en tranches, une par agent.
+ * <p>
+ * Chaque tranche recoit une plage contigue d'index de points de charge et la
+ * part correspondante des debits cibles ; la duree de montee en charge est
+ * conservee, le debit de connexion global est donc inchange. Toutes les tranches
+ * partagent la graine : les tirages par point de charge restent ceux d'un test
+ * sur une seule instance.
+ * </p>
+ */
+final class ShardPlanner {
+
+    private ShardPlanner() {
+    }
+
+    static List<PerfConfig> split(PerfConfig config, int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one agent is required");
+        }
+        if (config.getScenarioType() == PerfConfig.ScenarioType.CAPACITY) {
+            throw new IllegalArgumentException("The CAPACITY scenario evaluates its SLOs locally and cannot be distributed");
+        }
+        int total = config.getTargetConnections();
+        if (total < shardCount) {
+            throw new IllegalArgumentException("targetConnections (" + total + ") is lower than the number of agents");
+        }
+        Long seed = config.getSeed() != null ? config.getSeed() : ThreadLocalRandom.current().nextLong();
+
+        List<PerfConfig> shards = new ArrayList<>(shardCount);
+        int offset = config.getCpIndexOffset();
+        for (int i = 0; i < shardCount; i++) {
+            int connections = total / shardCount + (i < total % shardCount ? 1 : 0);
+            double share = (double) connections / total;
+            shards.add(config.toBuilder()
+                    .targetConnections(connections)
+                    .cpIndexOffset(offset)
+                    .transactionsPerSecond(config.getTransactionsPerSecond() * share)
+                    .meterValuesPerSecond(config.getMeterValuesPerSecond() * share)
+                    .seed(seed)
+                    .build());
+            offset += connections;
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,119 @@
+package com.evse.simulator.performance.history;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Buffer circulaire de taille fixe agrégeant une métrique par intervalle de temps.
+ * <p>
+ * Chaque case couvre {@code resolutionSeconds} secondes alignées sur l'epoch et
+ * conserve count/somme/min/max/dernière valeur. Une case est réutilisée quand le
+ * temps fait le tour du buffer : la mémoire ne dépend que de la capacité.
+ * </p>
+ */
+public final class MetricRing {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int resolutionSeconds;
+    private final int capacity;
+
+    private final long[] bucketStart;
+    private final long[] count;
+    private final double[] sum;
+    private final double[] min;
+    private final double[] max;
+    private final double[] last;
+
+    /** Dernière case écrite (epoch s), pour ignorer les valeurs trop anciennes. */
+    private long newestBucket = EMPTY;
+
+    public MetricRing(int resolutionSeconds, int retentionSeconds) {
+        if (resolutionSeconds <= 0 || retentionSeconds < resolutionSeconds) {
+            throw new IllegalArgumentException("Résolution ou rétention invalide: "
+                    + resolutionSeconds + "s / " + retentionSeconds + "s");
+        }
+        this.resolutionSeconds = resolutionSeconds;
+        this.capacity = retentionSeconds / resolutionSeconds;
+        this.bucketStart = new long[capacity];
+        this.count = new long[capacity];
+        this.sum = new double[capacity];
+        this.min = new double[capacity];
+        this.max = new double[capacity];
+        this.last = new double[capacity];
+        Arrays.fill(bucketStart, EMPTY);
+    }
+
+    /**
+     * Ajoute une valeur dans la case couvrant {@code epochSecond}.
+     * Les valeurs plus anciennes que la rétention sont ignorées.
+     */
+    public synchronized void record(long epochSecond, double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        long start = Math.floorDiv(epochSecond, resolutionSeconds) * resolutionSeconds;
+        if (newestBucket != EMPTY && start <= newestBucket - (long) capacity * resolutionSeconds) {
+            return;
+        }
+        int index = index(start);
+        if (bucketStart[index] != start) {
+            bucketStart[index] = start;
+            count[index] = 0;
+            sum[index] = 0;
+            min[index] = value;
+            max[index] = value;
+        }
+        count[index]++;
+        sum[index] += value;
+        min[index] = Math.min(min[index], value);
+        max[index] = Math.max(max[index], value);
+        last[index] = value;
+        newestBucket = newestBucket == EMPTY ? start : Math.max(newestBucket, start);
+    }
+
+    /**
+     * @return les cases non vides dont le début est dans [from, to], par ordre chronologique
+     */
+    public synchronized List<MetricsHistoryStore.Point> query(long fromEpochSecond, long toEpochSecond) {
+        List<MetricsHistoryStore.Point> points = new ArrayList<>();
+        if (newestBucket == EMPTY || toEpochSecond < fromEpochSecond) {
+            return points;
+        }
+        long oldest = newestBucket - (long) (capacity - 1) * resolutionSeconds;
+        long first = Math.max(Math.floorDiv(fromEpochSecond, resolutionSeconds) * resolutionSeconds, oldest);
+        long end = Math.min(toEpochSecond, newestBucket);
+        for (long start = first; start <= end; start += resolutionSeconds) {
+            int index = index(start);
+            if (bucketStart[index] == start && count[index] > 0) {
+                points.add(new MetricsHistoryStore.Point(Instant.ofEpochSecond(start), count[index],
+                        min[index], max[index], sum[index] / count[index], last[index]));
+            }
+        }
+        return points;
+    }
+
+    /**
+     * @return début de la plus ancienne case encore couverte, ou {@code null} si vide
+     */
+    public synchronized Instant getOldest() {
+        if (newestBucket == EMPTY) {
+            return null;
+        }
+        return Instant.ofEpochSecond(newestBucket - (long) (capacity - 1) * resolutionSeconds);
+    }
+
+    public int getResolutionSeconds() {
+        return resolutionSeconds;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private int index(long start) {
+        return (int) Math.floorMod(start / resolutionSeconds, (long) capacity);
+    }
+}
@@ -0,0 +1,255 @@
+package com.evse.simulator.performance.history;
+
+import com.evse.simulator.config.MetricsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Historique en mémoire des métriques de performance, à empreinte fixe.
+ * <p>
+ * Chaque métrique ({@code sim.activeSessions}, {@code perf.p95LatencyMs}...) est
+ * agrégée dans deux {@link MetricRing} : une résolution fine (1 s sur 1 h par
+ * défaut) et un cumul grossier (10 s sur 24 h). Le nombre de séries est borné,
+ * la mémoire totale est donc connue au démarrage. Les tests de performance sont
+ * repérés par leurs bornes de temps pour pouvoir relire une courbe complète
+ * (reconnexion du dashboard en cours de test, analyse après coup).
+ * </p>
+ */
+@Component
+@Slf4j
+public class MetricsHistoryStore {
+
+    private static final int MAX_RUNS = 100;
+    /** Octets par case : 6 tableaux de 8 octets. */
+    private static final int BYTES_PER_BUCKET = 6 * Long.BYTES;
+
+    private final MetricsProperties.History config;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+    private final Map<String, Run> runs = new LinkedHashMap<>();
+    private final AtomicBoolean seriesLimitLogged = new AtomicBoolean();
+
+    private record Series(MetricRing fine, MetricRing coarse) {}
+
+    /**
+     * Agrégat d'une case ou d'une plage.
+     *
+     * @param timestamp début de la case
+     * @param count     nombre d'échantillons
+     * @param min       minimum
+     * @param max       maximum
+     * @param avg       moyenne
+     * @param last      dernière valeur
+     */
+    public record Point(Instant timestamp, long count, double min, double max, double avg, double last) {}
+
+    /**
+     * Résultat d'une requête sur une métrique.
+     *
+     * @param metric            nom de la métrique
+     * @param resolutionSeconds largeur des points retournés
+     * @param from              début demandé
+     * @param to                fin demandée
+     * @param points            points chronologiques (cases vides omises)
+     * @param aggregate         agrégat de toute la plage, {@code null} si aucun point
+     */
+    public record Range(String metric, int resolutionSeconds, Instant from, Instant to,
+                        List<Point> points, Point aggregate) {}
+
+    /**
+     * Bornes d'un test de performance ; {@code end} est {@code null} tant qu'il tourne.
+     */
+    public record Run(String runId, String label, Instant start, Instant end) {}
+
+    /**
+     * @param series        séries actives
+     * @param maxSeries     séries maximum
+     * @param bytesPerSeries mémoire réservée par série
+     * @param runs          tests mémorisés
+     */
+    public record Stats(int series, int maxSeries, long bytesPerSeries, int runs) {}
+
+    public MetricsHistoryStore(MetricsProperties metricsProperties) {
+        this.config = metricsProperties.getHistory();
+    }
+
+    // =========================================================================
+    // Enregistrement
+    // =========================================================================
+
+    /**
+     * Enregistre une valeur. Sans effet si l'historique est désactivé ou si la
+     * limite de séries est atteinte pour une nouvelle métrique.
+     */
+    public void record(String metric, Instant timestamp, double value) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Series target = series.get(metric);
+        if (target == null) {
+            if (series.size() >= config.getMaxSeries()) {
+                if (seriesLimitLogged.compareAndSet(false, true)) {
+                    log.warn("Metrics history full ({} series), ignoring new metric {}",
+                            config.getMaxSeries(), metric);
+                }
+                return;
+            }
+            target = series.computeIfAbsent(metric, k -> newSeries());
+        }
+        long epochSecond = timestamp.getEpochSecond();
+        target.fine().record(epochSecond, value);
+        target.coarse().record(epochSecond, value);
+    }
+
+    /**
+     * Enregistre un instantané : une valeur par métrique, préfixée ({@code prefix.nom}).
+     */
+    public void recordAll(String prefix, Instant timestamp, Map<String, ? extends Number> values) {
+        values.forEach((name, value) -> {
+            if (value != null) {
+                record(prefix + "." + name, timestamp, value.doubleValue());
+            }
+        });
+    }
+
+    public synchronized void startRun(String runId, String label) {
+        runs.remove(runId);
+        runs.put(runId, new Run(runId, label, Instant.now(), null));
+        while (runs.size() > MAX_RUNS) {
+            runs.remove(runs.keySet().iterator().next());
+        }
+    }
+
+    public synchronized void endRun(String runId) {
+        Run run = runs.get(runId);
+        if (run != null && run.end() == null) {
+            runs.put(runId, new Run(runId, run.label(), run.start(), Instant.now()));
+        }
+    }
+
+    // =========================================================================
+    // Requêtes
+    // =========================================================================
+
+    /**
+     * Lit une métrique sur une plage.
+     * <p>
+     * La résolution fine est utilisée si elle couvre {@code from}, le cumul sinon.
+     * Un {@code stepSeconds} supérieur à la résolution ré-agrège les points
+     * (courbe allégée pour de longues plages).
+     * </p>
+     *
+     * @return la plage, ou {@code null} si la métrique est inconnue
+     */
+    public Range query(String metric, Instant from, Instant to, Integer stepSeconds) {
+        Series target = series.get(metric);
+        if (target == null) {
+            return null;
+        }
+        Instant fineOldest = target.fine().getOldest();
+        boolean useFine = fineOldest != null && !from.isBefore(fineOldest)
+                && (stepSeconds == null || stepSeconds < target.coarse().getResolutionSeconds());
+        MetricRing ring = useFine ? target.fine() : target.coarse();
+
+        List<Point> points = ring.query(from.getEpochSecond(), to.getEpochSecond());
+        int resolution = ring.getResolutionSeconds();
+        if (stepSeconds != null && stepSeconds > resolution) {
+            points = downsample(points, stepSeconds);
+            resolution = stepSeconds;
+        }
+        return new Range(metric, resolution, from, to, points, aggregate(points));
+    }
+
+    /**
+     * Lit une métrique sur la durée d'un test.
+     *
+     * @return la plage, ou {@code null} si le test ou la métrique est inconnu
+     */
+    public Range queryRun(String metric, String runId, Integer stepSeconds) {
+        Run run;
+        synchronized (this) {
+            run = runs.get(runId);
+        }
+        if (run == null) {
+            return null;
+        }
+        return query(metric, run.start(), run.end() != null ? run.end() : Instant.now(), stepSeconds);
+    }
+
+    public Set<String> getMetricNames() {
+        return new TreeSet<>(series.keySet());
+    }
+
+    public synchronized List<Run> getRuns() {
+        List<Run> list = new ArrayList<>(runs.values());
+        Collections.reverse(list);
+        return list;
+    }
+
+    public synchronized Run getRun(String runId) {
+        return runs.get(runId);
+    }
+
+    public Stats getStats() {
+        long buckets = (long) config.getFineRetentionSeconds() / config.getFineResolutionSeconds()
+                + (long) config.getCoarseRetentionSeconds() / config.getCoarseResolutionSeconds();
+        int runCount;
+        synchronized (this) {
+            runCount = runs.size();
+        }
+        return new Stats(series.size(), config.getMaxSeries(), buckets * BYTES_PER_BUCKET, runCount);
+    }
+
+    // =========================================================================
+    // Private Methods
+    // =========================================================================
+
+    private Series newSeries() {
+        return new Series(
+                new MetricRing(config.getFineResolutionSeconds(), config.getFineRetentionSeconds()),
+                new MetricRing(config.getCoarseResolutionSeconds(), config.getCoarseRetentionSeconds()));
+    }
+
+    static List<Point> downsample(List<Point> points, int stepSeconds) {
+        Map<Long, List<Point>> byStep = new LinkedHashMap<>();
+        for (Point point : points) {
+            long step = Math.floorDiv(point.timestamp().getEpochSecond(), stepSeconds) * stepSeconds;
+            byStep.computeIfAbsent(step, k -> new ArrayList<>()).add(point);
+        }
+        List<Point> result = new ArrayList<>(byStep.size());
+        byStep.forEach((step, group) -> {
+            Point merged = aggregate(group);
+            result.add(new Point(Instant.ofEpochSecond(step), merged.count(), merged.min(),
+                    merged.max(), merged.avg(), merged.last()));
+        });
+        return result;
+    }
+
+    static Point aggregate(List<Point> points) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        long count = 0;
+        double sum = 0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (Point point : points) {
+            count += point.count();
+            sum += point.avg() * point.count();
+            min = Math.min(min, point.min());
+            max = Math.max(max, point.max());
+        }
+        Point lastPoint = points.get(points.size() - 1);
+        return new Point(points.get(0).timestamp(), count, min, max, sum / count, lastPoint.last());
+    }
+}
@@ -0,0 +1,25 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latences requete/reponse d'une action OCPP dans un test de performance.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActionLatency {
+    private String action;
+    private long responses;
+    private long timeouts;
+    private long callErrors;
+    private double avgMs;
+    private double p50Ms;
+    private double p95Ms;
+    private double p99Ms;
+    private double maxMs;
+}
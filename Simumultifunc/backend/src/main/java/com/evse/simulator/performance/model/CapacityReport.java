@@ -0,0 +1,35 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rapport d'une recherche de capacite : niveau soutenable le plus haut (coude),
+ * premier niveau en echec et detail des paliers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityReport {
+    private String testId;
+    private String label;
+    private String csmsUrl;
+    private String dimension;
+    private CapacitySearchConfig search;
+    private Instant startTime;
+    private Instant endTime;
+    /** Highest level meeting every SLO, 0 if none */
+    private int kneeLevel;
+    /** Lowest level violating an SLO, -1 if maxLevel was sustained */
+    private int firstFailingLevel;
+    private List<String> limitingFactors;
+    private boolean converged;
+    private boolean aborted;
+    private List<CapacityStep> steps;
+}
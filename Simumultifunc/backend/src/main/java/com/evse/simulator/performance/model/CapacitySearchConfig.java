@@ -0,0 +1,110 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parametres du scenario CAPACITY : paliers, recherche dichotomique et SLO.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacitySearchConfig {
+    private Dimension dimension;
+    private int startLevel;
+    private int stepSize;
+    private int maxLevel;
+    private int holdSeconds;
+    private int resolution;
+    /** Heartbeat interval of each connection during a CONNECTIONS step */
+    private int heartbeatIntervalSeconds;
+    private double maxBootP99Ms;
+    private double maxMessageP99Ms;
+    private double maxErrorRatePercent;
+    private double maxTimeoutRatePercent;
+    /** Free label of the tested CSMS build, copied into the report */
+    private String label;
+
+    /**
+     * Gets the searched dimension, CONNECTIONS by default.
+     */
+    public Dimension getDimension() {
+        return dimension != null ? dimension : Dimension.CONNECTIONS;
+    }
+
+    /**
+     * Gets the first step level.
+     */
+    public int getStartLevel() {
+        return startLevel > 0 ? startLevel : getStepSize();
+    }
+
+    /**
+     * Gets the step increment of the ramp phase.
+     */
+    public int getStepSize() {
+        return stepSize > 0 ? stepSize : (getDimension() == Dimension.CONNECTIONS ? 500 : 10);
+    }
+
+    /**
+     * Gets hold time of each step in seconds.
+     */
+    public int getHoldSeconds() {
+        return holdSeconds > 0 ? holdSeconds : 30;
+    }
+
+    /**
+     * Gets the level gap under which the binary search stops.
+     */
+    public int getResolution() {
+        return resolution > 0 ? resolution : Math.max(1, getStepSize() / 10);
+    }
+
+    /**
+     * Gets heartbeat interval in seconds.
+     */
+    public int getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds > 0 ? heartbeatIntervalSeconds : 10;
+    }
+
+    /**
+     * Gets the P99 boot latency SLO in milliseconds.
+     */
+    public double getMaxBootP99Ms() {
+        return maxBootP99Ms > 0 ? maxBootP99Ms : 2000;
+    }
+
+    /**
+     * Gets the P99 message latency SLO in milliseconds.
+     */
+    public double getMaxMessageP99Ms() {
+        return maxMessageP99Ms > 0 ? maxMessageP99Ms : 1000;
+    }
+
+    /**
+     * Gets the error rate SLO in percent.
+     */
+    public double getMaxErrorRatePercent() {
+        return maxErrorRatePercent > 0 ? maxErrorRatePercent : 1.0;
+    }
+
+    /**
+     * Gets the timeout rate SLO in percent.
+     */
+    public double getMaxTimeoutRatePercent() {
+        return maxTimeoutRatePercent > 0 ? maxTimeoutRatePercent : 1.0;
+    }
+
+    /**
+     * Searched load dimension.
+     */
+    public enum Dimension {
+        /** Number of open connections, each sending heartbeats */
+        CONNECTIONS,
+        /** Open-model transaction rate (transactions/s) on the configured connections */
+        MESSAGE_RATE
+    }
+}
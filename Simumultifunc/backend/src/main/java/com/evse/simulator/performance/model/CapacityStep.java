@@ -0,0 +1,45 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Palier d'une recherche de capacite : niveau, percentiles de la fenetre,
+ * taux d'erreur et ressources consommees.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CapacityStep {
+    private int index;
+    private String phase;
+    private int level;
+    private boolean passed;
+    private List<String> violations;
+    private long durationMs;
+    private int activeConnections;
+    private long connectionFailures;
+    private long messagesSent;
+    private long responses;
+    private long timeouts;
+    private long callErrors;
+    private long errors;
+    private double achievedPerSec;
+    private double errorRatePercent;
+    private double timeoutRatePercent;
+    private double bootP50Ms;
+    private double bootP95Ms;
+    private double bootP99Ms;
+    private double messageP50Ms;
+    private double messageP95Ms;
+    private double messageP99Ms;
+    private double messageMaxMs;
+    private long heapUsedMb;
+    private int threadCount;
+    private double processCpuPercent;
+}
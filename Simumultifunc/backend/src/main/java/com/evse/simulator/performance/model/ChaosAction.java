@@ -0,0 +1,72 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Perturbation injectee pendant un scenario CHAOS.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosAction {
+
+    /**
+     * Kind of perturbation.
+     */
+    private Type type;
+
+    /**
+     * First occurrence, in seconds after all connections are open.
+     */
+    private int atSeconds;
+
+    /**
+     * Share of open connections cut by MASS_DISCONNECT.
+     */
+    @Builder.Default
+    private double percent = 10;
+
+    /**
+     * CSMS downtime (CSMS_RESTART) or fault duration (NETWORK_FAULT), in seconds.
+     */
+    @Builder.Default
+    private int durationSeconds = 10;
+
+    /**
+     * Delay added to each frame by NETWORK_FAULT, in ms.
+     */
+    private double delayMs;
+
+    /**
+     * Share of frames dropped by NETWORK_FAULT.
+     */
+    private double lossPercent;
+
+    /**
+     * Number of occurrences (rolling restarts, repeated cuts).
+     */
+    @Builder.Default
+    private int repeat = 1;
+
+    /**
+     * Interval between occurrences, in seconds.
+     */
+    @Builder.Default
+    private int intervalSeconds = 60;
+
+    /**
+     * Perturbations disponibles.
+     */
+    public enum Type {
+        /** Coupure brutale (sans close handshake) d'un pourcentage des connexions */
+        MASS_DISCONNECT,
+        /** Arret puis redemarrage du CSMS simule embarque */
+        CSMS_RESTART,
+        /** Retard et perte de trames sur le proxy local */
+        NETWORK_FAULT
+    }
+}
@@ -0,0 +1,48 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration du scenario CHAOS : perturbations et observation de la reprise.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosConfig {
+
+    /**
+     * Perturbations, each with its own schedule.
+     */
+    @Builder.Default
+    private List<ChaosAction> actions = new ArrayList<>();
+
+    /**
+     * Route connections through a local proxy (required by NETWORK_FAULT).
+     */
+    private boolean proxy;
+
+    /**
+     * Heartbeat interval of open connections during the run, in seconds.
+     */
+    @Builder.Default
+    private int heartbeatIntervalSeconds = 30;
+
+    /**
+     * Observation time after the last perturbation ends, in seconds.
+     */
+    @Builder.Default
+    private int observeSeconds = 60;
+
+    /**
+     * A perturbation is recovered once this share of its pre-event connections is back.
+     */
+    @Builder.Default
+    private double recoveryPercent = 99;
+}
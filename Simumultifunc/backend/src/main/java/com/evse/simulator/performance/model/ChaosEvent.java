@@ -0,0 +1,27 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Perturbation appliquee pendant un scenario CHAOS et temps de reprise.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosEvent {
+    private int index;
+    private ChaosAction.Type type;
+    // Offset from the start of the chaos phase
+    private long startedAtMs;
+    private long endedAtMs;
+    private int activeBefore;
+    private int affectedConnections;
+    // Time from the end of the perturbation until recovery, -1 if never recovered
+    private long recoveredAfterMs;
+    private boolean skipped;
+    private String detail;
+}
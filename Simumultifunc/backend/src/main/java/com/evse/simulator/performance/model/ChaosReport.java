@@ -0,0 +1,40 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Rapport d'un scenario CHAOS : perturbations, vagues de reconnexion et pertes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosReport {
+    private String testId;
+    private String csmsUrl;
+    private ReconnectPolicy reconnectPolicy;
+    private Instant startTime;
+    private Instant endTime;
+    private List<ChaosEvent> events;
+    private List<ChaosSample> timeline;
+    // Largest number of reconnection attempts in one second
+    private long peakHerdPerSecond;
+    private long reconnectAttempts;
+    private long reconnects;
+    private long reconnectGiveUps;
+    // Downtime of reconnected connections, from cut to reopened socket
+    private double reconnectP50Ms;
+    private double reconnectP95Ms;
+    private double reconnectP99Ms;
+    private double reconnectMaxMs;
+    private long lostOnDisconnect;
+    private long proxyFramesDropped;
+    private long proxyFramesDelayed;
+    private boolean aborted;
+}
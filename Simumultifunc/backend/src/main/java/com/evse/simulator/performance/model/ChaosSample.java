@@ -0,0 +1,23 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Releve d'une seconde du scenario CHAOS.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaosSample {
+    private int second;
+    private int activeConnections;
+    // Reconnection attempts started during this second (herd size)
+    private long reconnectAttempts;
+    private long reconnects;
+    private long lostOnDisconnect;
+    private long proxyFramesDropped;
+}
@@ -0,0 +1,26 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Debit cible et debit obtenu d'un flux du scenario OPEN_LOAD.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoadRate {
+    private String stream;
+    private String arrivalMode;
+    private double targetPerSec;
+    private double achievedPerSec;
+    private long scheduled;
+    private long sent;
+    private long dropped;
+    private double lagAvgMs;
+    private double lagP99Ms;
+    private double lagMaxMs;
+}
@@ -0,0 +1,33 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compteurs et histogrammes HdrHistogram (compresses, Base64) d'un collecteur
+ * de metriques, fusionnables avec ceux d'autres instances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsExport {
+    private long messagesSent;
+    private long messagesReceived;
+    private long errors;
+    private double throughputMsgPerSec;
+    private double connectionsPerSec;
+    /** Histogram name (connection, boot, message, action.&lt;ACTION&gt;, persona.&lt;name&gt;) to encoded histogram */
+    private Map<String, String> histograms;
+    private Map<String, Long> actionResponses;
+    private Map<String, Long> actionTimeouts;
+    private Map<String, Long> actionCallErrors;
+    private Map<String, Long> callErrorCodes;
+    /** Per-persona counters of a WORKLOAD run; latencies are rebuilt from the persona.&lt;name&gt; histograms */
+    private List<PersonaMetrics> personaMetrics;
+}
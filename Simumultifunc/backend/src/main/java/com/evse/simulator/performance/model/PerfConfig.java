@@ -2,11 +2,13 @@ package com.evse.simulator.performance.model;
 
 import lombok.*;
 
+import java.util.List;
+
 /**
  * Configuration pour un test de performance.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class PerfConfig {
@@ -22,6 +24,8 @@ public class PerfConfig {
     private int meterValuesCount;
     private String chargerType;
     private String cpIdPrefix;
+    /** First charge point index of this run (shard of a distributed run) */
+    private int cpIndexOffset;
     private String idTagPrefix;
     private String idTag;
     private boolean sendMeterValues;
@@ -31,6 +35,22 @@ public class PerfConfig {
     private String scenario;
     private ScenarioType scenarioType;
     private boolean autoReconnect;
+    // Reconnexion automatique : backoff exponentiel gigue (defaut si autoReconnect)
+    private ReconnectPolicy reconnect;
+    private int responseTimeoutMs;
+    // Scenario OPEN_LOAD : debits cibles, independants du temps de reponse du CSMS
+    private double transactionsPerSecond;
+    private double meterValuesPerSecond;
+    private ArrivalMode arrivalMode;
+    // Scenario WORKLOAD : melange pondere de profils, tirages reproductibles
+    private List<PerfPersona> personas;
+    private Long seed;
+    // Scenario CAPACITY : paliers et SLO
+    private CapacitySearchConfig capacitySearch;
+    // Scenario CHAOS : perturbations et mesure de la reprise
+    private ChaosConfig chaos;
+    // Archive des tests : version du CSMS cible, reportee dans l'environnement du test
+    private String csmsVersion;
 
     /**
      * Returns the scenario name or a default value.
@@ -88,6 +108,28 @@ public class PerfConfig {
         return meterValuesCount > 0 ? meterValuesCount : 10;
     }
 
+    /**
+     * Gets the delay after which an unanswered request counts as a timeout.
+     */
+    public int getResponseTimeoutMs() {
+        return responseTimeoutMs > 0 ? responseTimeoutMs : 30000;
+    }
+
+    /**
+     * Gets the MeterValues target rate, by default the rate a closed-loop
+     * transaction would produce (meterValuesCount per transaction).
+     */
+    public double getMeterValuesPerSecond() {
+        return meterValuesPerSecond > 0 ? meterValuesPerSecond : transactionsPerSecond * getMeterValuesCount();
+    }
+
+    /**
+     * Gets the arrival process, constant by default.
+     */
+    public ArrivalMode getArrivalMode() {
+        return arrivalMode != null ? arrivalMode : ArrivalMode.CONSTANT;
+    }
+
     /**
      * Enum for scenario types.
      */
@@ -95,6 +137,18 @@ public class PerfConfig {
         CONNECTION,
         CHARGING,
         STRESS,
-        ENDURANCE
+        ENDURANCE,
+        OPEN_LOAD,
+        WORKLOAD,
+        CAPACITY,
+        CHAOS
+    }
+
+    /**
+     * Arrival process of the OPEN_LOAD scenario.
+     */
+    public enum ArrivalMode {
+        CONSTANT,
+        POISSON
     }
 }
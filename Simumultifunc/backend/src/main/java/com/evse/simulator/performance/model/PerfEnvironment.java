@@ -0,0 +1,32 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Environnement d'execution d'un test archive : deux tests ne se comparent
+ * qu'a environnement equivalent.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfEnvironment {
+    private String hostName;
+    private String osName;
+    private String osArch;
+    private int availableProcessors;
+    private String javaVersion;
+    private String jvmName;
+    /** JVM input arguments (-Xmx, -XX:...) */
+    private List<String> jvmArguments;
+    private long maxHeapMb;
+    /** CSMS targeted by the run */
+    private String targetUrl;
+    /** CSMS version declared in the test configuration, "mock-csms" for the embedded one */
+    private String csmsVersion;
+}
@@ -3,6 +3,7 @@ package com.evse.simulator.performance.model;
 import lombok.*;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -42,6 +43,23 @@ public class PerfMetrics {
     private double messageLatencyP50Ms;
     private double messageLatencyP95Ms;
     private double messageLatencyP99Ms;
+    // Request/response latency per OCPP action
+    private List<ActionLatency> actionLatencies;
+    private long responseTimeouts;
+    private long callErrors;
+    // Automatic reconnection: attempts, restored connections and downtime
+    private long reconnectAttempts;
+    private long reconnects;
+    private long reconnectGiveUps;
+    private double reconnectLatencyP50Ms;
+    private double reconnectLatencyP99Ms;
+    private double reconnectLatencyMaxMs;
+    // In-flight requests lost when their connection closed
+    private long lostOnDisconnect;
+    // Open-model load: target vs achieved rate per stream
+    private List<LoadRate> loadRates;
+    // Workload mix: metrics per charge point persona
+    private List<PersonaMetrics> personaMetrics;
     // Resource metrics
     private long memoryUsedMb;
     private long memoryMaxMb;
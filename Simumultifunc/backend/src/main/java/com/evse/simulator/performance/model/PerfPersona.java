@@ -0,0 +1,120 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Profil de point de charge du scenario WORKLOAD : part du parc, comportement,
+ * intervalles et taille des messages.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfPersona {
+    private String name;
+    private double weight;
+    private Behavior behavior;
+    private int heartbeatIntervalSeconds;
+    private int sessionMinSeconds;
+    private int sessionMaxSeconds;
+    private int idleMinSeconds;
+    private int idleMaxSeconds;
+    private int meterValueIntervalSeconds;
+    private int sampledValues;
+    private int reconnectIntervalSeconds;
+    private int reconnectJitterMs;
+
+    /**
+     * Gets the persona name, falling back to the behavior.
+     */
+    public String getName() {
+        return name != null ? name : getBehavior().name();
+    }
+
+    /**
+     * Gets the behavior, IDLE by default.
+     */
+    public Behavior getBehavior() {
+        return behavior != null ? behavior : Behavior.IDLE;
+    }
+
+    /**
+     * Gets heartbeat interval in seconds.
+     */
+    public int getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds > 0 ? heartbeatIntervalSeconds : 300;
+    }
+
+    /**
+     * Gets minimum session duration in seconds.
+     */
+    public int getSessionMinSeconds() {
+        return sessionMinSeconds > 0 ? sessionMinSeconds : 600;
+    }
+
+    /**
+     * Gets maximum session duration in seconds.
+     */
+    public int getSessionMaxSeconds() {
+        return Math.max(sessionMaxSeconds, getSessionMinSeconds());
+    }
+
+    /**
+     * Gets minimum pause between two sessions in seconds.
+     */
+    public int getIdleMinSeconds() {
+        return idleMinSeconds > 0 ? idleMinSeconds : 60;
+    }
+
+    /**
+     * Gets maximum pause between two sessions in seconds.
+     */
+    public int getIdleMaxSeconds() {
+        return Math.max(idleMaxSeconds, getIdleMinSeconds());
+    }
+
+    /**
+     * Gets meter value interval in seconds.
+     */
+    public int getMeterValueIntervalSeconds() {
+        return meterValueIntervalSeconds > 0 ? meterValueIntervalSeconds : 60;
+    }
+
+    /**
+     * Gets the number of sampled values per MeterValues (message size).
+     */
+    public int getSampledValues() {
+        return sampledValues > 0 ? sampledValues : 1;
+    }
+
+    /**
+     * Gets the interval between two reconnect storms in seconds.
+     */
+    public int getReconnectIntervalSeconds() {
+        return reconnectIntervalSeconds > 0 ? reconnectIntervalSeconds : 60;
+    }
+
+    /**
+     * Gets the spread of a reconnect storm in milliseconds.
+     */
+    public int getReconnectJitterMs() {
+        return reconnectJitterMs > 0 ? reconnectJitterMs : 1000;
+    }
+
+    /**
+     * Charge point behavior.
+     */
+    public enum Behavior {
+        /** Heartbeats only */
+        IDLE,
+        /** Locally authorized sessions separated by idle pauses */
+        SESSION,
+        /** Sessions started by a RemoteStartTransaction from the CSMS */
+        REMOTE_START,
+        /** Heartbeats, and fleet-wide disconnect/reconnect at a fixed interval */
+        RECONNECT_STORM
+    }
+}
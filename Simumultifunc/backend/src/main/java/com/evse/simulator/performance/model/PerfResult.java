@@ -33,6 +33,8 @@ public class PerfResult {
     private long totalMessagesSent;
     private long totalMessagesReceived;
     private long totalErrors;
+    private CapacityReport capacityReport;
+    private ChaosReport chaosReport;
 
     /**
      * Creates an error result.
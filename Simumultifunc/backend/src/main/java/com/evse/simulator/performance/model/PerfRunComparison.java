@@ -0,0 +1,86 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Ecart entre deux tests archives, percentile par percentile.
+ * <p>
+ * Une regression n'est signalee que si elle est a la fois significative
+ * (intervalles de confiance a 95 % disjoints) et materielle (ecart relatif
+ * au-dela du seuil).
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfRunComparison {
+    private PerfRunSummary baseline;
+    private PerfRunSummary candidate;
+    private Instant generatedAt;
+    /** Minimum relative change, in percent, for a significant difference to be flagged */
+    private double minDeltaPercent;
+    private List<PercentileDiff> percentiles;
+    private List<RateDiff> rates;
+    private int regressions;
+    private int improvements;
+    /** True if at least one regression was flagged */
+    private boolean regressed;
+    /** Environment differences (cores, JVM, CSMS version...) that weaken the comparison */
+    private List<String> environmentWarnings;
+
+    /**
+     * Latency percentile of one histogram in both runs.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PercentileDiff {
+        /** Histogram name: connection, boot, message, reconnect, action.&lt;ACTION&gt; */
+        private String histogram;
+        private double percentile;
+        private long baselineCount;
+        private long candidateCount;
+        private double baselineMs;
+        private double candidateMs;
+        private double deltaPercent;
+        /** 95% confidence interval of the percentile, from the order statistics */
+        private double baselineLowMs;
+        private double baselineHighMs;
+        private double candidateLowMs;
+        private double candidateHighMs;
+        private boolean significant;
+        private Verdict verdict;
+    }
+
+    /**
+     * Throughput or error rate of both runs.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RateDiff {
+        private String metric;
+        private double baseline;
+        private double candidate;
+        private double deltaPercent;
+        /** Two-proportion z statistic, 0 when not applicable */
+        private double zScore;
+        private boolean significant;
+        private Verdict verdict;
+    }
+
+    public enum Verdict {
+        UNCHANGED,
+        IMPROVED,
+        REGRESSED
+    }
+}
@@ -0,0 +1,34 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test de performance archive : resultat, histogrammes HdrHistogram complets,
+ * series par seconde et environnement.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfRunRecord {
+    /** Test id (PerfResult.testId) */
+    private String id;
+    private Instant archivedAt;
+    private PerfResult result;
+    /** Counters and encoded histograms, as exported by MetricsCollector */
+    private MetricsExport metrics;
+    private PerfEnvironment environment;
+    /** Start of the per-second series */
+    private Instant seriesStart;
+    @Builder.Default
+    private int seriesStepSeconds = 1;
+    /** Metric name to one value per step (average), null where no sample was recorded */
+    private Map<String, List<Double>> series;
+}
@@ -0,0 +1,55 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Ligne de la liste des tests archives.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PerfRunSummary {
+    private String id;
+    private String scenario;
+    private PerfConfig.ScenarioType scenarioType;
+    private PerfStatus status;
+    private Instant startTime;
+    private long durationMs;
+    private int targetConnections;
+    private int successfulConnections;
+    private long totalMessagesSent;
+    private long totalErrors;
+    private double throughputMsgPerSec;
+    private double messageLatencyP99Ms;
+    private String csmsVersion;
+
+    public static PerfRunSummary of(PerfRunRecord run) {
+        PerfResult result = run.getResult();
+        PerfRunSummaryBuilder builder = PerfRunSummary.builder().id(run.getId());
+        if (result == null) {
+            return builder.build();
+        }
+        PerfConfig config = result.getConfig();
+        PerfMetrics metrics = result.getFinalMetrics();
+        return builder
+                .scenario(config != null ? config.getScenario() : null)
+                .scenarioType(config != null ? config.getScenarioType() : null)
+                .status(result.getStatus())
+                .startTime(result.getStartTime())
+                .durationMs(result.getDuration() != null ? result.getDuration().toMillis() : result.getDurationMs())
+                .targetConnections(config != null ? config.getTargetConnections() : 0)
+                .successfulConnections(result.getSuccessfulConnections())
+                .totalMessagesSent(result.getTotalMessagesSent())
+                .totalErrors(result.getTotalErrors())
+                .throughputMsgPerSec(metrics != null ? metrics.getThroughputMsgPerSec() : 0)
+                .messageLatencyP99Ms(metrics != null ? metrics.getMessageLatencyP99Ms() : 0)
+                .csmsVersion(run.getEnvironment() != null ? run.getEnvironment().getCsmsVersion() : null)
+                .build();
+    }
+}
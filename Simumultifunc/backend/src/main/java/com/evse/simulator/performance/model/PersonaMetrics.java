@@ -0,0 +1,30 @@
+package com.evse.simulator.performance.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Metriques d'un profil de point de charge du scenario WORKLOAD.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonaMetrics {
+    private String persona;
+    private String behavior;
+    private int chargePoints;
+    private long messagesSent;
+    private long responses;
+    private long timeouts;
+    private long callErrors;
+    private long sessionsStarted;
+    private long sessionsCompleted;
+    private long remoteStarts;
+    private long reconnects;
+    private double latencyAvgMs;
+    private double latencyP95Ms;
+    private double latencyP99Ms;
+}
@@ -0,0 +1,56 @@
+package com.evse.simulator.performance.model;
+
+import com.evse.simulator.websocket.ReconnectBackoff;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Strategie de reconnexion automatique des connexions d'un test.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconnectPolicy {
+
+    /**
+     * Reconnect connections closed by the server or the network.
+     */
+    @Builder.Default
+    private boolean enabled = true;
+
+    /**
+     * Delay ceiling of the first attempt, in ms.
+     */
+    @Builder.Default
+    private long initialDelayMs = 1000;
+
+    /**
+     * Cap of the exponential delay, in ms.
+     */
+    @Builder.Default
+    private long maxDelayMs = 60000;
+
+    /**
+     * Growth factor of the delay between attempts.
+     */
+    @Builder.Default
+    private double multiplier = 2.0;
+
+    /**
+     * Jitter applied to the exponential delay.
+     */
+    @Builder.Default
+    private ReconnectBackoff.Jitter jitter = ReconnectBackoff.Jitter.FULL;
+
+    /**
+     * Attempts before giving up on a connection, 0 = unlimited.
+     */
+    private int maxAttempts;
+
+    public ReconnectBackoff toBackoff() {
+        return new ReconnectBackoff(initialDelayMs, maxDelayMs, multiplier, jitter);
+    }
+}
@@ -2,8 +2,11 @@ package com.evse.simulator.repository;
 
 import com.evse.simulator.model.ExecutionDetail;
 import com.evse.simulator.model.Session;
+import com.evse.simulator.model.TNREvent;
 import com.evse.simulator.model.TNRScenario;
 import com.evse.simulator.model.VehicleProfile;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import com.evse.simulator.performance.model.PerfRunSummary;
 
 import java.util.List;
 import java.util.Optional;
@@ -61,8 +64,30 @@ public interface DataRepository {
 
     ExecutionDetail saveTNRExecution(ExecutionDetail execution);
 
+    List<TNREvent> findTNRExecutionEvents(String executionId, int offset, int limit);
+
+    long countTNRExecutionEvents(String executionId);
+
     void deleteTNRExecution(String id);
 
+    // =========================================================================
+    // Performance Runs
+    // =========================================================================
+
+    List<PerfRunRecord> findAllPerfRuns();
+
+    /**
+     * Résumés des tests archivés, du plus récent au plus ancien, sans
+     * histogrammes ni séries.
+     */
+    List<PerfRunSummary> findAllPerfRunSummaries();
+
+    Optional<PerfRunRecord> findPerfRunById(String id);
+
+    PerfRunRecord savePerfRun(PerfRunRecord run);
+
+    void deletePerfRun(String id);
+
     // =========================================================================
     // Utility
     // =========================================================================
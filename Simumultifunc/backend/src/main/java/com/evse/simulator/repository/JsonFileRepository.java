@@ -2,8 +2,11 @@ package com.evse.simulator.repository;
 
 import com.evse.simulator.model.ExecutionDetail;
 import com.evse.simulator.model.Session;
+import com.evse.simulator.model.TNREvent;
 import com.evse.simulator.model.TNRScenario;
 import com.evse.simulator.model.VehicleProfile;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import com.evse.simulator.performance.model.PerfRunSummary;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
@@ -20,6 +23,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -28,8 +32,9 @@ import java.util.concurrent.ConcurrentHashMap;
 /**
  * Repository pour la persistance JSON des données.
  * <p>
- * Gère le stockage et la récupération des sessions, véhicules et scénarios TNR
- * dans des fichiers JSON avec sauvegarde automatique.
+ * Gère le stockage et la récupération des sessions, véhicules, scénarios TNR
+ * et tests de performance archivés dans des fichiers JSON avec sauvegarde
+ * automatique.
  * </p>
  */
 @Repository("jsonDataRepository")
@@ -56,17 +61,22 @@ public class JsonFileRepository implements DataRepository {
     @Value("${data.tnr-executions-file:./data/tnr-executions.json}")
     private String tnrExecutionsFile;
 
+    @Value("${data.perf-runs-file:./data/perf-runs.json}")
+    private String perfRunsFile;
+
     // Caches en mémoire
     private final Map<String, Session> sessionsCache = new ConcurrentHashMap<>();
     private final Map<String, VehicleProfile> vehiclesCache = new ConcurrentHashMap<>();
     private final Map<String, TNRScenario> tnrScenariosCache = new ConcurrentHashMap<>();
     private final Map<String, ExecutionDetail> tnrExecutionsCache = new ConcurrentHashMap<>();
+    private final Map<String, PerfRunRecord> perfRunsCache = new ConcurrentHashMap<>();
 
     // Flags de modification
     private volatile boolean sessionsDirty = false;
     private volatile boolean vehiclesDirty = false;
     private volatile boolean tnrScenariosDirty = false;
     private volatile boolean tnrExecutionsDirty = false;
+    private volatile boolean perfRunsDirty = false;
 
     /**
      * Initialise le repository au démarrage.
@@ -79,8 +89,10 @@ public class JsonFileRepository implements DataRepository {
             loadSessions();
             loadTNRScenarios();
             loadTNRExecutions();
-            log.info("JsonFileRepository initialized: {} vehicles, {} sessions, {} TNR scenarios, {} TNR executions",
-                    vehiclesCache.size(), sessionsCache.size(), tnrScenariosCache.size(), tnrExecutionsCache.size());
+            loadPerfRuns();
+            log.info("JsonFileRepository initialized: {} vehicles, {} sessions, {} TNR scenarios, {} TNR executions, {} perf runs",
+                    vehiclesCache.size(), sessionsCache.size(), tnrScenariosCache.size(), tnrExecutionsCache.size(),
+                    perfRunsCache.size());
         } catch (Exception e) {
             log.error("Failed to initialize JsonFileRepository", e);
         }
@@ -381,6 +393,25 @@ public class JsonFileRepository implements DataRepository {
         return execution;
     }
 
+    /**
+     * Récupère une page d'événements d'une exécution TNR.
+     */
+    public List<TNREvent> findTNRExecutionEvents(String executionId, int offset, int limit) {
+        ExecutionDetail execution = tnrExecutionsCache.get(executionId);
+        if (execution == null || execution.events == null || offset >= execution.events.size()) {
+            return List.of();
+        }
+        return execution.events.subList(offset, Math.min(execution.events.size(), offset + limit));
+    }
+
+    /**
+     * Compte les événements d'une exécution TNR.
+     */
+    public long countTNRExecutionEvents(String executionId) {
+        ExecutionDetail execution = tnrExecutionsCache.get(executionId);
+        return execution != null && execution.events != null ? execution.events.size() : 0;
+    }
+
     /**
      * Supprime une exécution TNR.
      */
@@ -389,6 +420,89 @@ public class JsonFileRepository implements DataRepository {
         tnrExecutionsDirty = true;
     }
 
+    // =========================================================================
+    // Performance Runs
+    // =========================================================================
+
+    /**
+     * Charge les tests de performance archivés depuis le fichier JSON.
+     */
+    private void loadPerfRuns() {
+        File file = new File(perfRunsFile);
+        if (file.exists()) {
+            try {
+                List<PerfRunRecord> runs = objectMapper.readValue(file,
+                        new TypeReference<List<PerfRunRecord>>() {});
+                runs.forEach(r -> perfRunsCache.put(r.getId(), r));
+                log.info("Loaded {} perf runs from {}", runs.size(), perfRunsFile);
+            } catch (Exception e) {
+                log.error("Failed to load perf runs from {}", perfRunsFile, e);
+            }
+        }
+    }
+
+    /**
+     * Sauvegarde les tests de performance archivés dans le fichier JSON.
+     */
+    public synchronized void savePerfRuns() {
+        if (!perfRunsDirty) {
+            return;
+        }
+        try {
+            List<PerfRunRecord> runs = new ArrayList<>(perfRunsCache.values());
+            // Histogrammes encodés et séries : fichier compact, sans indentation
+            objectMapper.writeValue(new File(perfRunsFile), runs);
+            perfRunsDirty = false;
+            log.debug("Saved {} perf runs to {}", runs.size(), perfRunsFile);
+        } catch (Exception e) {
+            log.error("Failed to save perf runs to {}", perfRunsFile, e);
+        }
+    }
+
+    /**
+     * Récupère tous les tests de performance archivés.
+     */
+    public List<PerfRunRecord> findAllPerfRuns() {
+        return new ArrayList<>(perfRunsCache.values());
+    }
+
+    /**
+     * Résumés des tests de performance archivés, du plus récent au plus ancien.
+     */
+    public List<PerfRunSummary> findAllPerfRunSummaries() {
+        return perfRunsCache.values().stream()
+                .map(PerfRunSummary::of)
+                .sorted(Comparator.comparing(PerfRunSummary::getStartTime,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+    }
+
+    /**
+     * Récupère un test de performance archivé par ID.
+     */
+    public Optional<PerfRunRecord> findPerfRunById(String id) {
+        return Optional.ofNullable(perfRunsCache.get(id));
+    }
+
+    /**
+     * Archive un test de performance ; écrit immédiatement, un test n'est
+     * archivé qu'une fois terminé.
+     */
+    public PerfRunRecord savePerfRun(PerfRunRecord run) {
+        perfRunsCache.put(run.getId(), run);
+        perfRunsDirty = true;
+        savePerfRuns();
+        return run;
+    }
+
+    /**
+     * Supprime un test de performance archivé.
+     */
+    public void deletePerfRun(String id) {
+        perfRunsCache.remove(id);
+        perfRunsDirty = true;
+    }
+
     // =========================================================================
     // Auto-save
     // =========================================================================
@@ -402,6 +516,7 @@ public class JsonFileRepository implements DataRepository {
         saveVehicles();
         saveTNRScenarios();
         saveTNRExecutions();
+        savePerfRuns();
     }
 
     /**
@@ -412,6 +527,7 @@ public class JsonFileRepository implements DataRepository {
         vehiclesDirty = true;
         tnrScenariosDirty = true;
         tnrExecutionsDirty = true;
+        perfRunsDirty = true;
         autoSave();
         log.info("Forced save of all data");
     }
@@ -424,10 +540,12 @@ public class JsonFileRepository implements DataRepository {
         vehiclesCache.clear();
         tnrScenariosCache.clear();
         tnrExecutionsCache.clear();
+        perfRunsCache.clear();
         loadSessions();
         loadVehicles();
         loadTNRScenarios();
         loadTNRExecutions();
+        loadPerfRuns();
         log.info("Reloaded all data from files");
     }
 }
\ No newline at end of file
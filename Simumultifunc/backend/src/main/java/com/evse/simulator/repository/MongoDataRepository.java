@@ -4,12 +4,18 @@ import com.evse.simulator.document.*;
 import com.evse.simulator.document.mapper.SessionDocumentMapper;
 import com.evse.simulator.model.*;
 import com.evse.simulator.model.TNRScenario.*;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import com.evse.simulator.performance.model.PerfRunSummary;
+import com.evse.simulator.performance.model.PerfStatus;
 import com.evse.simulator.repository.mongo.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -30,7 +36,10 @@ public class MongoDataRepository implements DataRepository {
     private final VehicleProfileMongoRepository vehicleRepo;
     private final TnrScenarioMongoRepository scenarioRepo;
     private final TnrExecutionMongoRepository executionRepo;
+    private final TnrExecutionEventMongoRepository executionEventRepo;
+    private final PerfRunMongoRepository perfRunRepo;
     private final SessionDocumentMapper sessionMapper;
+    private final ObjectMapper objectMapper;
 
     @PostConstruct
     public void init() {
@@ -159,16 +168,83 @@ public class MongoDataRepository implements DataRepository {
     public ExecutionDetail saveTNRExecution(ExecutionDetail execution) {
         TnrExecutionDocument doc = executionToDocument(execution);
         TnrExecutionDocument saved = executionRepo.save(doc);
+        if (execution.events != null && !execution.events.isEmpty()) {
+            executionEventRepo.deleteByExecutionId(execution.id);
+            List<TnrExecutionEventDocument> events = new ArrayList<>(execution.events.size());
+            for (int i = 0; i < execution.events.size(); i++) {
+                events.add(eventToDocument(execution.id, i, execution.events.get(i)));
+            }
+            executionEventRepo.saveAll(events);
+        }
         log.debug("Saved TNR execution to MongoDB: {}", saved.getId());
         return documentToExecution(saved);
     }
 
+    @Override
+    public List<TNREvent> findTNRExecutionEvents(String executionId, int offset, int limit) {
+        return executionEventRepo
+                .findByExecutionIdAndSequenceGreaterThanEqualOrderBySequenceAsc(executionId, offset, Limit.of(limit))
+                .stream()
+                .map(this::documentToEvent)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countTNRExecutionEvents(String executionId) {
+        return executionEventRepo.countByExecutionId(executionId);
+    }
+
     @Override
     public void deleteTNRExecution(String id) {
         executionRepo.deleteById(id);
+        executionEventRepo.deleteByExecutionId(id);
         log.debug("Deleted TNR execution from MongoDB: {}", id);
     }
 
+    // =========================================================================
+    // Performance Runs
+    // =========================================================================
+
+    @Override
+    public List<PerfRunRecord> findAllPerfRuns() {
+        return perfRunRepo.findAllByOrderByStartTimeDesc().stream()
+                .map(this::documentToPerfRun)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<PerfRunSummary> findAllPerfRunSummaries() {
+        // Projection : le payload (histogrammes, séries) n'est ni lu ni désérialisé
+        return perfRunRepo.findSummariesByOrderByStartTimeDesc().stream()
+                .map(doc -> doc.getSummary() != null ? doc.getSummary() : PerfRunSummary.builder()
+                        .id(doc.getId())
+                        .scenario(doc.getScenario())
+                        .status(doc.getStatus() != null ? PerfStatus.valueOf(doc.getStatus()) : null)
+                        .startTime(doc.getStartTime())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<PerfRunRecord> findPerfRunById(String id) {
+        return perfRunRepo.findById(id)
+                .map(this::documentToPerfRun);
+    }
+
+    @Override
+    public PerfRunRecord savePerfRun(PerfRunRecord run) {
+        perfRunRepo.save(perfRunToDocument(run));
+        log.debug("Saved perf run to MongoDB: {}", run.getId());
+        return run;
+    }
+
+    @Override
+    public void deletePerfRun(String id) {
+        perfRunRepo.deleteById(id);
+        log.debug("Deleted perf run from MongoDB: {}", id);
+    }
+
     // =========================================================================
     // Vehicle Mapping
     // =========================================================================
@@ -402,6 +478,38 @@ public class MongoDataRepository implements DataRepository {
                 .build();
     }
 
+    // =========================================================================
+    // Performance Run Mapping
+    // =========================================================================
+
+    private PerfRunRecord documentToPerfRun(PerfRunDocument doc) {
+        if (doc == null || doc.getPayload() == null) return null;
+        try {
+            return objectMapper.readValue(doc.getPayload(), PerfRunRecord.class);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to read perf run {} from MongoDB", doc.getId(), e);
+            return null;
+        }
+    }
+
+    private PerfRunDocument perfRunToDocument(PerfRunRecord run) {
+        try {
+            return PerfRunDocument.builder()
+                    .id(run.getId())
+                    .scenario(run.getResult() != null && run.getResult().getConfig() != null
+                            ? run.getResult().getConfig().getScenario() : null)
+                    .status(run.getResult() != null && run.getResult().getStatus() != null
+                            ? run.getResult().getStatus().name() : null)
+                    .startTime(run.getResult() != null ? run.getResult().getStartTime() : null)
+                    .archivedAt(run.getArchivedAt())
+                    .summary(PerfRunSummary.of(run))
+                    .payload(objectMapper.writeValueAsString(run))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize perf run " + run.getId(), e);
+        }
+    }
+
     // =========================================================================
     // TNR Execution Mapping
     // =========================================================================
@@ -431,6 +539,31 @@ public class MongoDataRepository implements DataRepository {
                 .build();
     }
 
+    private TnrExecutionEventDocument eventToDocument(String executionId, int sequence, TNREvent event) {
+        return TnrExecutionEventDocument.builder()
+                .id(executionId + ":" + sequence)
+                .executionId(executionId)
+                .sequence(sequence)
+                .timestamp(event.getTimestamp())
+                .sessionId(event.getSessionId())
+                .type(event.getType())
+                .action(event.getAction())
+                .payload(event.getPayload())
+                .latency(event.getLatency())
+                .build();
+    }
+
+    private TNREvent documentToEvent(TnrExecutionEventDocument doc) {
+        TNREvent event = new TNREvent();
+        event.setTimestamp(doc.getTimestamp());
+        event.setSessionId(doc.getSessionId());
+        event.setType(doc.getType());
+        event.setAction(doc.getAction());
+        event.setPayload(doc.getPayload());
+        event.setLatency(doc.getLatency());
+        return event;
+    }
+
     // =========================================================================
     // Global Operations
     // =========================================================================
@@ -0,0 +1,24 @@
+package com.evse.simulator.repository.mongo;
+
+import com.evse.simulator.document.PerfRunDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * MongoDB repository for archived performance runs.
+ */
+@Repository
+public interface PerfRunMongoRepository extends MongoRepository<PerfRunDocument, String> {
+
+    List<PerfRunDocument> findAllByOrderByStartTimeDesc();
+
+    /**
+     * Archived runs without their payload, newest first.
+     */
+    @Query(value = "{}", fields = "{ 'scenario': 1, 'status': 1, 'startTime': 1, 'summary': 1 }",
+            sort = "{ 'startTime': -1 }")
+    List<PerfRunDocument> findSummariesByOrderByStartTimeDesc();
+}
@@ -0,0 +1,30 @@
+package com.evse.simulator.repository.mongo;
+
+import com.evse.simulator.document.TnrExecutionEventDocument;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * MongoDB repository for TNR execution events (paged by sequence).
+ */
+@Repository
+public interface TnrExecutionEventMongoRepository extends MongoRepository<TnrExecutionEventDocument, String> {
+
+    // =========================================================================
+    // Paged reads (keyset on sequence)
+    // =========================================================================
+
+    List<TnrExecutionEventDocument> findByExecutionIdAndSequenceGreaterThanEqualOrderBySequenceAsc(
+            String executionId, int sequence, Limit limit);
+
+    // =========================================================================
+    // Count / cleanup
+    // =========================================================================
+
+    long countByExecutionId(String executionId);
+
+    void deleteByExecutionId(String executionId);
+}
@@ -2,10 +2,15 @@ package com.evse.simulator.service;
 
 import com.evse.simulator.model.ChargingProfile;
 import com.evse.simulator.model.ChargingProfile.*;
+import com.evse.simulator.service.ChargingProfileValidityEvent.Transition;
+import com.evse.simulator.service.SmartChargingEngine.CompositeSchedule;
+import com.evse.simulator.service.SmartChargingEngine.EffectiveLimit;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -14,19 +19,31 @@ import java.util.stream.Collectors;
 /**
  * Gestionnaire centralisé des profils de charge OCPP 1.6.
  * <p>
- * Gère le stockage, la priorité et le calcul des limites effectives
- * selon la spécification OCPP 1.6 Smart Charging.
+ * Stockage unique des profils (par session = charge point, puis par connecteur),
+ * partagé par les handlers OCPP, {@link SmartChargingService} et le client WebSocket.
+ * Les limites effectives et schedules composites sont calculés par le
+ * {@link SmartChargingEngine}, dont la timeline est invalidée à chaque modification.
+ * </p>
+ * <p>
+ * Les activations (validFrom) et expirations (validTo, fin de schedule) sont
+ * indexées par échéance ({@link ProfileValidityIndex}) : chaque profil est traité
+ * à son échéance, seule la timeline du connecteur concerné est invalidée, et un
+ * {@link ChargingProfileValidityEvent} est publié.
  * </p>
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class ChargingProfileManager {
 
+    private final ApplicationEventPublisher eventPublisher;
+    private final SmartChargingEngine engine;
+
     // Stockage: sessionId -> connectorId -> List<ChargingProfile>
     private final Map<String, Map<Integer, List<ChargingProfile>>> profiles = new ConcurrentHashMap<>();
 
-    // Cache des limites effectives pour éviter les recalculs
-    private final Map<String, EffectiveLimit> effectiveLimitsCache = new ConcurrentHashMap<>();
+    // Échéances d'activation / expiration des profils
+    private final ProfileValidityIndex validityIndex = new ProfileValidityIndex();
 
     // =========================================================================
     // CRUD Operations
@@ -34,7 +51,7 @@ public class ChargingProfileManager {
 
     /**
      * Ajoute ou met à jour un profil de charge.
-     * Si un profil avec le même ID existe, il est remplacé.
+     * Un profil de même ID, ou de même purpose et stackLevel sur le connecteur, est remplacé.
      *
      * @param sessionId   ID de la session
      * @param connectorId ID du connecteur (0 = tous)
@@ -46,8 +63,17 @@ public class ChargingProfileManager {
 
         List<ChargingProfile> connectorProfiles = profiles.get(sessionId).get(connectorId);
 
-        // Supprimer le profil existant avec le même ID
-        connectorProfiles.removeIf(p -> p.getChargingProfileId() == profile.getChargingProfileId());
+        // Supprimer le profil remplacé (même ID, ou même purpose et stackLevel)
+        connectorProfiles.removeIf(p -> {
+            boolean sameId = p.getChargingProfileId() == profile.getChargingProfileId();
+            boolean sameSlot = p.getChargingProfilePurpose() == profile.getChargingProfilePurpose()
+                    && p.getStackLevel() == profile.getStackLevel();
+            if (!sameId && !sameSlot) {
+                return false;
+            }
+            validityIndex.unregister(p);
+            return true;
+        });
 
         // Ajouter le nouveau profil
         profile.setSessionId(sessionId);
@@ -60,9 +86,10 @@ public class ChargingProfileManager {
         }
 
         connectorProfiles.add(profile);
+        validityIndex.register(sessionId, connectorId, profile,
+                activationTime(profile, profile.getAppliedAt()), expiryTime(profile));
 
-        // Invalider le cache
-        effectiveLimitsCache.remove(sessionId + ":" + connectorId);
+        engine.invalidate(sessionId, connectorId);
 
         log.info("[SCP] SetChargingProfile: session={}, connector={}, id={}, purpose={}, stackLevel={}, periods={}",
                 sessionId, connectorId, profile.getChargingProfileId(),
@@ -86,7 +113,7 @@ public class ChargingProfileManager {
     /**
      * Supprime des profils selon les critères OCPP 1.6.
      *
-     * @param sessionId   ID de la session
+     * @param sessionId   ID de la session ({@code null} = toutes les sessions)
      * @param id          ID du profil (optionnel)
      * @param connectorId ID du connecteur (optionnel)
      * @param purpose     Purpose du profil (optionnel)
@@ -95,6 +122,13 @@ public class ChargingProfileManager {
      */
     public boolean clearChargingProfile(String sessionId, Integer id, Integer connectorId,
                                         String purpose, Integer stackLevel) {
+        if (sessionId == null) {
+            boolean removed = false;
+            for (String session : new ArrayList<>(profiles.keySet())) {
+                removed |= clearChargingProfile(session, id, connectorId, purpose, stackLevel);
+            }
+            return removed;
+        }
         if (!profiles.containsKey(sessionId)) {
             return false;
         }
@@ -124,11 +158,10 @@ public class ChargingProfileManager {
 
             if (!toRemove.isEmpty()) {
                 entry.getValue().removeAll(toRemove);
+                toRemove.forEach(validityIndex::unregister);
+                engine.invalidate(sessionId, currentConnectorId);
                 removed = true;
 
-                // Invalider le cache
-                effectiveLimitsCache.remove(sessionId + ":" + currentConnectorId);
-
                 log.info("[SCP] ClearChargingProfile: session={}, connector={}, removed {} profiles",
                         sessionId, currentConnectorId, toRemove.size());
             }
@@ -157,15 +190,31 @@ public class ChargingProfileManager {
             result.addAll(profiles.get(sessionId).get(0));
         }
 
-        // Filtrer par validité
-        LocalDateTime now = LocalDateTime.now();
+        // Les profils expirés sont retirés par l'index ; écarter ceux qui attendent leur validFrom
         return result.stream()
-                .filter(p -> isProfileValid(p, now))
+                .filter(p -> !validityIndex.isPending(p))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Profils d'un purpose sur toutes les sessions, actifs ou non.
+     */
+    public List<ChargingProfile> getProfilesByPurpose(ChargingProfilePurpose purpose) {
+        List<ChargingProfile> result = new ArrayList<>();
+        for (Map<Integer, List<ChargingProfile>> sessionProfiles : profiles.values()) {
+            for (List<ChargingProfile> connectorProfiles : sessionProfiles.values()) {
+                for (ChargingProfile profile : connectorProfiles) {
+                    if (profile.getChargingProfilePurpose() == purpose) {
+                        result.add(profile);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
     // =========================================================================
-    // Calcul de la limite effective
+    // Calcul de la limite effective (délégué au moteur partagé)
     // =========================================================================
 
     /**
@@ -179,244 +228,10 @@ public class ChargingProfileManager {
      */
     public EffectiveLimit getEffectiveLimit(String sessionId, int connectorId,
                                             String phaseType, double voltageV) {
-        String cacheKey = sessionId + ":" + connectorId;
-
-        // Vérifier le cache (invalidé à chaque mise à jour de profil)
-        // Note: Pour la production, ajouter une TTL au cache
-
-        List<ChargingProfile> activeProfiles = getActiveProfiles(sessionId, connectorId);
-
-        if (activeProfiles.isEmpty()) {
-            return EffectiveLimit.noLimit();
-        }
-
-        LocalDateTime now = LocalDateTime.now();
-
-        // Grouper par purpose et prendre le stackLevel le plus élevé pour chaque
-        Map<ChargingProfilePurpose, ChargingProfile> highestByPurpose = new EnumMap<>(ChargingProfilePurpose.class);
-
-        for (ChargingProfile profile : activeProfiles) {
-            ChargingProfilePurpose purpose = profile.getChargingProfilePurpose();
-            ChargingProfile existing = highestByPurpose.get(purpose);
-
-            if (existing == null || profile.getStackLevel() > existing.getStackLevel()) {
-                highestByPurpose.put(purpose, profile);
-            }
-        }
-
-        // Calculer la limite pour chaque profil actif
-        double minLimitW = Double.MAX_VALUE;
-        ChargingProfile limitingProfile = null;
-        ChargingSchedulePeriod activePeriod = null;
-
-        for (ChargingProfile profile : highestByPurpose.values()) {
-            ChargingSchedulePeriod period = getActivePeriod(profile, now);
-            if (period == null) continue;
-
-            double limitW = convertToWatts(period.getLimit(),
-                    profile.getChargingSchedule().getChargingRateUnit(),
-                    period.getNumberPhases(),
-                    phaseType,
-                    voltageV);
-
-            if (limitW < minLimitW) {
-                minLimitW = limitW;
-                limitingProfile = profile;
-                activePeriod = period;
-            }
-        }
-
-        if (limitingProfile == null) {
-            return EffectiveLimit.noLimit();
-        }
-
-        EffectiveLimit result = new EffectiveLimit(
-                minLimitW,
-                activePeriod.getLimit(),
-                limitingProfile.getChargingSchedule().getChargingRateUnit(),
-                limitingProfile.getChargingProfilePurpose(),
-                limitingProfile.getChargingProfileId(),
-                limitingProfile.getStackLevel(),
-                activePeriod.getStartPeriod(),
-                getNextPeriodInfo(limitingProfile, now)
-        );
-
-        effectiveLimitsCache.put(cacheKey, result);
-
-        log.debug("[SCP] EffectiveLimit: session={}, connector={}, limit={} W ({} {}), source={}",
-                sessionId, connectorId, minLimitW,
-                activePeriod.getLimit(),
-                limitingProfile.getChargingSchedule().getChargingRateUnit().getValue(),
-                limitingProfile.getChargingProfilePurpose().getValue());
-
-        return result;
-    }
-
-    /**
-     * Récupère la période active d'un profil.
-     */
-    private ChargingSchedulePeriod getActivePeriod(ChargingProfile profile, LocalDateTime now) {
-        if (profile.getChargingSchedule() == null ||
-                profile.getChargingSchedule().getChargingSchedulePeriod() == null ||
-                profile.getChargingSchedule().getChargingSchedulePeriod().isEmpty()) {
-            return null;
-        }
-
-        LocalDateTime scheduleStart = getScheduleStartTime(profile);
-        long elapsedSeconds = Duration.between(scheduleStart, now).getSeconds();
-
-        if (elapsedSeconds < 0) {
-            return null; // Schedule pas encore démarré
-        }
-
-        // Vérifier la durée du schedule
-        Integer duration = profile.getChargingSchedule().getDuration();
-        if (duration != null && elapsedSeconds > duration) {
-            return null; // Schedule terminé
-        }
-
-        // Trouver la période active (la dernière dont startPeriod <= elapsedSeconds)
-        ChargingSchedulePeriod activePeriod = null;
-        for (ChargingSchedulePeriod period : profile.getChargingSchedule().getChargingSchedulePeriod()) {
-            if (period.getStartPeriod() <= elapsedSeconds) {
-                activePeriod = period;
-            } else {
-                break;
-            }
-        }
-
-        return activePeriod;
-    }
-
-    /**
-     * Détermine le temps de début du schedule.
-     */
-    private LocalDateTime getScheduleStartTime(ChargingProfile profile) {
-        // Pour les profils Relative, utiliser le temps effectif
-        if (profile.getChargingProfileKind() == ChargingProfileKind.RELATIVE) {
-            return profile.getEffectiveStartTime() != null ?
-                    profile.getEffectiveStartTime() : profile.getAppliedAt();
-        }
-
-        // Pour les profils Absolute, utiliser startSchedule
-        if (profile.getChargingSchedule().getStartSchedule() != null) {
-            return profile.getChargingSchedule().getStartSchedule();
-        }
-
-        // Par défaut, utiliser le moment d'application
-        return profile.getAppliedAt();
-    }
-
-    /**
-     * Convertit une limite en Watts selon le type de phase.
-     */
-    private double convertToWatts(double limit, ChargingRateUnit unit,
-                                  Integer numberPhases, String phaseType, double voltageV) {
-        if (unit == ChargingRateUnit.W) {
-            return limit;
-        }
-
-        // Conversion A -> W
-        int phases = numberPhases != null ? numberPhases : getDefaultPhases(phaseType);
-
-        switch (phaseType.toUpperCase()) {
-            case "AC_MONO":
-            case "AC_1":
-                // P = V × I × cos(φ), cos(φ) ≈ 1
-                return voltageV * limit;
-
-            case "AC_TRI":
-            case "AC_3":
-                // P = √3 × V × I × cos(φ), V = tension phase-phase (400V)
-                // Si voltageV = 230V (phase-neutre), utiliser 400V pour triphasé
-                double vPhasePhase = voltageV < 300 ? voltageV * Math.sqrt(3) : voltageV;
-                return Math.sqrt(3) * vPhasePhase * limit;
-
-            case "DC":
-                // P = V × I (tension variable selon SoC)
-                return voltageV * limit;
-
-            default:
-                // Par défaut, triphasé
-                return Math.sqrt(3) * 400 * limit;
-        }
-    }
-
-    private int getDefaultPhases(String phaseType) {
-        if (phaseType == null) return 3;
-        return switch (phaseType.toUpperCase()) {
-            case "AC_MONO", "AC_1" -> 1;
-            case "DC" -> 1;
-            default -> 3;
-        };
-    }
-
-    /**
-     * Vérifie si un profil est valide (dans sa période de validité).
-     */
-    private boolean isProfileValid(ChargingProfile profile, LocalDateTime now) {
-        // Vérifier validFrom
-        if (profile.getValidFrom() != null && now.isBefore(profile.getValidFrom())) {
-            return false;
-        }
-
-        // Vérifier validTo
-        if (profile.getValidTo() != null && now.isAfter(profile.getValidTo())) {
-            log.debug("[SCP] Profil #{} expiré (validTo={})", profile.getChargingProfileId(), profile.getValidTo());
-            return false;
-        }
-
-        // Vérifier duration pour les profils Absolute
-        if (profile.getChargingProfileKind() == ChargingProfileKind.ABSOLUTE) {
-            ChargingSchedule schedule = profile.getChargingSchedule();
-            if (schedule != null && schedule.getDuration() != null) {
-                LocalDateTime scheduleStart = schedule.getStartSchedule() != null
-                        ? schedule.getStartSchedule()
-                        : profile.getAppliedAt();
-                if (scheduleStart != null) {
-                    LocalDateTime scheduleEnd = scheduleStart.plusSeconds(schedule.getDuration());
-                    if (now.isAfter(scheduleEnd)) {
-                        log.debug("[SCP] Profil #{} expiré (duration terminée)", profile.getChargingProfileId());
-                        return false;
-                    }
-                }
-            }
-        }
-
-        return true;
+        return engine.getEffectiveLimit(sessionId, connectorId,
+                () -> getConnectorProfiles(sessionId, connectorId), phaseType, voltageV);
     }
 
-    /**
-     * Récupère les infos sur la prochaine période.
-     */
-    private NextPeriodInfo getNextPeriodInfo(ChargingProfile profile, LocalDateTime now) {
-        if (profile.getChargingSchedule() == null ||
-                profile.getChargingSchedule().getChargingSchedulePeriod() == null) {
-            return null;
-        }
-
-        LocalDateTime scheduleStart = getScheduleStartTime(profile);
-        long elapsedSeconds = Duration.between(scheduleStart, now).getSeconds();
-
-        List<ChargingSchedulePeriod> periods = profile.getChargingSchedule().getChargingSchedulePeriod();
-
-        for (ChargingSchedulePeriod period : periods) {
-            if (period.getStartPeriod() > elapsedSeconds) {
-                return new NextPeriodInfo(
-                        period.getStartPeriod(),
-                        period.getLimit(),
-                        (int) (period.getStartPeriod() - elapsedSeconds)
-                );
-            }
-        }
-
-        return null;
-    }
-
-    // =========================================================================
-    // GetCompositeSchedule
-    // =========================================================================
-
     /**
      * Calcule le schedule composite (fusionné) pour un connecteur.
      *
@@ -426,113 +241,56 @@ public class ChargingProfileManager {
      * @param chargingRateUnit Unité de sortie (A ou W)
      * @param phaseType        Type de phase
      * @param voltageV         Tension
-     * @return Schedule composite
+     * @return Schedule composite, ou {@code null} sans profil applicable
      */
     public CompositeSchedule getCompositeSchedule(String sessionId, int connectorId,
                                                    int duration, String chargingRateUnit,
                                                    String phaseType, double voltageV) {
-        List<ChargingProfile> activeProfiles = getActiveProfiles(sessionId, connectorId);
+        return engine.getCompositeSchedule(sessionId, connectorId,
+                () -> getConnectorProfiles(sessionId, connectorId),
+                duration, ChargingRateUnit.fromValue(chargingRateUnit), phaseType, voltageV);
+    }
 
-        if (activeProfiles.isEmpty()) {
-            return null;
+    /**
+     * Profils stockés pour le connecteur et le connecteur 0, sans filtre de validité.
+     */
+    private List<ChargingProfile> getConnectorProfiles(String sessionId, int connectorId) {
+        List<ChargingProfile> result = new ArrayList<>();
+        Map<Integer, List<ChargingProfile>> sessionProfiles = profiles.get(sessionId);
+        if (sessionProfiles == null) {
+            return result;
         }
-
-        LocalDateTime now = LocalDateTime.now();
-        ChargingRateUnit outputUnit = ChargingRateUnit.fromValue(chargingRateUnit);
-
-        // Calculer les points de changement de limite
-        Set<Integer> changePoints = new TreeSet<>();
-        changePoints.add(0);
-
-        for (ChargingProfile profile : activeProfiles) {
-            if (profile.getChargingSchedule() == null) continue;
-
-            LocalDateTime scheduleStart = getScheduleStartTime(profile);
-            long offsetSeconds = Duration.between(scheduleStart, now).getSeconds();
-
-            for (ChargingSchedulePeriod period : profile.getChargingSchedule().getChargingSchedulePeriod()) {
-                int effectiveStart = (int) (period.getStartPeriod() - offsetSeconds);
-                if (effectiveStart >= 0 && effectiveStart <= duration) {
-                    changePoints.add(effectiveStart);
-                }
-            }
+        List<ChargingProfile> own = sessionProfiles.get(connectorId);
+        if (own != null) {
+            result.addAll(own);
         }
-
-        // Construire le schedule composite
-        List<CompositeSchedulePeriod> compositePeriods = new ArrayList<>();
-
-        for (int startOffset : changePoints) {
-            if (startOffset > duration) break;
-
-            // Calculer la limite effective à ce point
-            LocalDateTime pointTime = now.plusSeconds(startOffset);
-
-            double minLimitW = Double.MAX_VALUE;
-            for (ChargingProfile profile : activeProfiles) {
-                ChargingSchedulePeriod period = getActivePeriodAtTime(profile, pointTime);
-                if (period == null) continue;
-
-                double limitW = convertToWatts(period.getLimit(),
-                        profile.getChargingSchedule().getChargingRateUnit(),
-                        period.getNumberPhases(),
-                        phaseType,
-                        voltageV);
-
-                minLimitW = Math.min(minLimitW, limitW);
-            }
-
-            if (minLimitW < Double.MAX_VALUE) {
-                double outputLimit = outputUnit == ChargingRateUnit.W ?
-                        minLimitW :
-                        convertWattsToAmps(minLimitW, phaseType, voltageV);
-
-                compositePeriods.add(new CompositeSchedulePeriod(startOffset, outputLimit));
+        if (connectorId != 0) {
+            List<ChargingProfile> shared = sessionProfiles.get(0);
+            if (shared != null) {
+                result.addAll(shared);
             }
         }
-
-        if (compositePeriods.isEmpty()) {
-            return null;
-        }
-
-        return new CompositeSchedule(
-                connectorId,
-                now,
-                duration,
-                outputUnit,
-                compositePeriods
-        );
+        return result;
     }
 
-    private ChargingSchedulePeriod getActivePeriodAtTime(ChargingProfile profile, LocalDateTime time) {
-        if (profile.getChargingSchedule() == null ||
-                profile.getChargingSchedule().getChargingSchedulePeriod() == null) {
-            return null;
-        }
-
-        LocalDateTime scheduleStart = getScheduleStartTime(profile);
-        long elapsedSeconds = Duration.between(scheduleStart, time).getSeconds();
-
-        if (elapsedSeconds < 0) return null;
-
-        ChargingSchedulePeriod activePeriod = null;
-        for (ChargingSchedulePeriod period : profile.getChargingSchedule().getChargingSchedulePeriod()) {
-            if (period.getStartPeriod() <= elapsedSeconds) {
-                activePeriod = period;
-            } else {
-                break;
-            }
-        }
-
-        return activePeriod;
+    /**
+     * Échéance d'activation : validFrom s'il est dans le futur.
+     */
+    private LocalDateTime activationTime(ChargingProfile profile, LocalDateTime now) {
+        LocalDateTime validFrom = profile.getValidFrom();
+        return validFrom != null && validFrom.isAfter(now) ? validFrom : null;
     }
 
-    private double convertWattsToAmps(double watts, String phaseType, double voltageV) {
-        return switch (phaseType.toUpperCase()) {
-            case "AC_MONO", "AC_1" -> watts / voltageV;
-            case "AC_TRI", "AC_3" -> watts / (Math.sqrt(3) * (voltageV < 300 ? voltageV * Math.sqrt(3) : voltageV));
-            case "DC" -> watts / voltageV;
-            default -> watts / (Math.sqrt(3) * 400);
-        };
+    /**
+     * Échéance d'expiration : premier instant où le profil n'est plus valide pour le moteur.
+     */
+    private LocalDateTime expiryTime(ChargingProfile profile) {
+        LocalDateTime expiry = profile.getValidTo() != null ? profile.getValidTo().plusNanos(1) : null;
+        LocalDateTime scheduleEnd = engine.getScheduleEndTime(profile);
+        if (scheduleEnd != null && (expiry == null || scheduleEnd.plusNanos(1).isBefore(expiry))) {
+            expiry = scheduleEnd.plusNanos(1);
+        }
+        return expiry;
     }
 
     // =========================================================================
@@ -544,7 +302,8 @@ public class ChargingProfileManager {
      */
     public void clearAllProfiles(String sessionId) {
         profiles.remove(sessionId);
-        effectiveLimitsCache.entrySet().removeIf(e -> e.getKey().startsWith(sessionId + ":"));
+        engine.invalidate(sessionId, 0);
+        validityIndex.unregisterSession(sessionId);
         log.info("[SCP] Cleared all profiles for session: {}", sessionId);
     }
 
@@ -553,109 +312,55 @@ public class ChargingProfileManager {
      */
     public void reset() {
         profiles.clear();
-        effectiveLimitsCache.clear();
+        engine.invalidateAll();
+        validityIndex.clear();
         log.info("[SCP] ChargingProfileManager reset");
     }
 
     /**
-     * Nettoie les profils expirés de toutes les sessions.
-     * Appelé périodiquement par le scheduler.
+     * Traite les activations et expirations arrivées à échéance.
+     * Ne lit que la tête de l'index : le coût ne dépend pas du nombre total de profils.
      *
-     * @return Nombre de profils nettoyés
+     * @return Nombre de transitions traitées
      */
-    @org.springframework.scheduling.annotation.Scheduled(fixedRate = 30000)
-    public int cleanupExpiredProfiles() {
-        LocalDateTime now = LocalDateTime.now();
-        int cleanedCount = 0;
-
-        for (Map.Entry<String, Map<Integer, List<ChargingProfile>>> sessionEntry : profiles.entrySet()) {
-            String sessionId = sessionEntry.getKey();
-
-            for (Map.Entry<Integer, List<ChargingProfile>> connectorEntry : sessionEntry.getValue().entrySet()) {
-                int connectorId = connectorEntry.getKey();
-                List<ChargingProfile> profileList = connectorEntry.getValue();
-
-                // Identifier les profils expirés
-                List<ChargingProfile> expiredProfiles = profileList.stream()
-                        .filter(p -> !isProfileValid(p, now))
-                        .collect(Collectors.toList());
-
-                if (!expiredProfiles.isEmpty()) {
-                    for (ChargingProfile expired : expiredProfiles) {
-                        log.info("[SCP] 🗑️ Nettoyage profil expiré #{} (session={}, connector={})",
-                                expired.getChargingProfileId(), sessionId, connectorId);
-                    }
-                    profileList.removeAll(expiredProfiles);
-                    cleanedCount += expiredProfiles.size();
-
-                    // Invalider le cache pour ce connecteur
-                    effectiveLimitsCache.remove(sessionId + ":" + connectorId);
+    @Scheduled(fixedDelay = 500)
+    public int processValidityDeadlines() {
+        List<ProfileValidityIndex.Deadline> due = validityIndex.pollDue(LocalDateTime.now());
+        int processed = 0;
+
+        for (ProfileValidityIndex.Deadline deadline : due) {
+            ChargingProfile profile = deadline.profile();
+            if (deadline.transition() == Transition.EXPIRED) {
+                if (!removeProfile(deadline.sessionId(), deadline.connectorId(), profile)) {
+                    continue;
                 }
+                log.info("[SCP] 🗑️ Profil expiré #{} (session={}, connector={})",
+                        profile.getChargingProfileId(), deadline.sessionId(), deadline.connectorId());
+            } else {
+                log.info("[SCP] Profil activé #{} (session={}, connector={})",
+                        profile.getChargingProfileId(), deadline.sessionId(), deadline.connectorId());
             }
-        }
 
-        if (cleanedCount > 0) {
-            log.info("[SCP] ✅ {} profil(s) expiré(s) nettoyé(s)", cleanedCount);
+            engine.invalidate(deadline.sessionId(), deadline.connectorId());
+            eventPublisher.publishEvent(new ChargingProfileValidityEvent(
+                    deadline.sessionId(),
+                    deadline.connectorId(),
+                    profile.getChargingProfileId(),
+                    profile.getChargingProfilePurpose(),
+                    deadline.transition(),
+                    deadline.due()));
+            processed++;
         }
 
-        return cleanedCount;
+        return processed;
     }
 
-    // =========================================================================
-    // DTOs
-    // =========================================================================
-
-    /**
-     * Représente la limite effective calculée.
-     */
-    public record EffectiveLimit(
-            double limitW,
-            double limitRaw,
-            ChargingRateUnit unit,
-            ChargingProfilePurpose source,
-            int profileId,
-            int stackLevel,
-            int currentPeriodStart,
-            NextPeriodInfo nextPeriod
-    ) {
-        public static EffectiveLimit noLimit() {
-            return new EffectiveLimit(Double.MAX_VALUE, 0, ChargingRateUnit.W, null, -1, -1, 0, null);
-        }
-
-        public boolean hasLimit() {
-            return limitW < Double.MAX_VALUE;
-        }
-
-        public double getLimitKw() {
-            return limitW / 1000.0;
+    private boolean removeProfile(String sessionId, int connectorId, ChargingProfile profile) {
+        Map<Integer, List<ChargingProfile>> sessionProfiles = profiles.get(sessionId);
+        if (sessionProfiles == null) {
+            return false;
         }
+        List<ChargingProfile> connectorProfiles = sessionProfiles.get(connectorId);
+        return connectorProfiles != null && connectorProfiles.removeIf(p -> p == profile);
     }
-
-    /**
-     * Info sur la prochaine période.
-     */
-    public record NextPeriodInfo(
-            int startPeriod,
-            double limit,
-            int secondsUntilStart
-    ) {}
-
-    /**
-     * Schedule composite.
-     */
-    public record CompositeSchedule(
-            int connectorId,
-            LocalDateTime scheduleStart,
-            int duration,
-            ChargingRateUnit chargingRateUnit,
-            List<CompositeSchedulePeriod> chargingSchedulePeriod
-    ) {}
-
-    /**
-     * Période dans le schedule composite.
-     */
-    public record CompositeSchedulePeriod(
-            int startPeriod,
-            double limit
-    ) {}
 }
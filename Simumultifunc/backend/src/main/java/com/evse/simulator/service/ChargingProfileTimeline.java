@@ -0,0 +1,125 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.model.ChargingProfile.ChargingSchedulePeriod;
+import com.evse.simulator.service.SmartChargingEngine.EffectiveLimit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Timeline précompilée des profils empilés d'un connecteur.
+ * <p>
+ * Découpe le temps en segments constants entre deux points de rupture (début de
+ * période, validFrom/validTo, fin de schedule). Chaque segment porte les profils
+ * retenus (plus haut stackLevel par purpose) et leur période active. La timeline
+ * est reconstruite par {@link SmartChargingEngine} à chaque modification de
+ * profil ; la limite résolue est mise en cache jusqu'à la fin de son segment.
+ * Avec des profils récurrents, la timeline ne couvre que jusqu'à {@code horizon}
+ * et est recompilée au-delà.
+ * </p>
+ */
+final class ChargingProfileTimeline {
+
+    /**
+     * Profil retenu et sa période active sur un segment.
+     */
+    record Candidate(ChargingProfile profile, ChargingSchedulePeriod period) {}
+
+    /**
+     * Intervalle [from, to[ sans changement de limite ; {@code to == null} : sans fin.
+     */
+    record Segment(LocalDateTime from, LocalDateTime to, List<Candidate> candidates) {
+
+        boolean contains(LocalDateTime time) {
+            return !time.isBefore(from) && (to == null || time.isBefore(to));
+        }
+    }
+
+    /**
+     * Limite calculée pour un contexte électrique, valide sur {@code segment}.
+     */
+    record Resolved(String phaseType, double voltageV, Segment segment,
+                    EffectiveLimit limit, ChargingProfile limitingProfile) {}
+
+    private final List<Segment> segments;
+    private final LocalDateTime horizon;
+    private volatile Resolved resolved;
+
+    /**
+     * @param horizon fin de validité de la compilation, ou {@code null} si illimitée
+     */
+    ChargingProfileTimeline(List<Segment> segments, LocalDateTime horizon) {
+        this.segments = segments;
+        this.horizon = horizon;
+    }
+
+    boolean isExpired(LocalDateTime time) {
+        return horizon != null && !time.isBefore(horizon);
+    }
+
+    /**
+     * @return le segment couvrant {@code time}, ou {@code null} si la timeline est vide
+     */
+    Segment segmentAt(LocalDateTime time) {
+        if (segments.isEmpty()) {
+            return null;
+        }
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).from().isAfter(time)) {
+                high = mid - 1;
+            } else {
+                low = mid;
+            }
+        }
+        return segments.get(low);
+    }
+
+    /**
+     * @return les segments qui recoupent [from, to], dans l'ordre
+     */
+    List<Segment> slice(LocalDateTime from, LocalDateTime to) {
+        List<Segment> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            if (segment.to() != null && !segment.to().isAfter(from)) {
+                continue;
+            }
+            if (segment.from().isAfter(to)) {
+                break;
+            }
+            result.add(segment);
+        }
+        return result;
+    }
+
+    /**
+     * @return la limite en cache si elle vaut pour ce contexte et cet instant
+     */
+    Resolved cached(String phaseType, double voltageV, LocalDateTime time) {
+        Resolved current = resolved;
+        if (current != null
+                && current.voltageV() == voltageV
+                && Objects.equals(current.phaseType(), phaseType)
+                && current.segment().contains(time)) {
+            return current;
+        }
+        return null;
+    }
+
+    void cache(Resolved value) {
+        this.resolved = value;
+    }
+
+    boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    int size() {
+        return segments.size();
+    }
+}
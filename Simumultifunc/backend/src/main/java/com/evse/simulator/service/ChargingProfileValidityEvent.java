@@ -0,0 +1,30 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile.ChargingProfilePurpose;
+
+import java.time.LocalDateTime;
+
+/**
+ * Publié par {@link ChargingProfileManager} quand un profil de charge devient
+ * actif (validFrom atteint) ou expire (validTo ou fin de schedule).
+ *
+ * @param sessionId         session concernée
+ * @param connectorId       connecteur du profil (0 = tous)
+ * @param chargingProfileId identifiant du profil
+ * @param purpose           purpose du profil
+ * @param transition        activation ou expiration
+ * @param dueAt             instant prévu de la transition
+ */
+public record ChargingProfileValidityEvent(
+        String sessionId,
+        int connectorId,
+        int chargingProfileId,
+        ChargingProfilePurpose purpose,
+        Transition transition,
+        LocalDateTime dueAt
+) {
+    public enum Transition {
+        ACTIVATED,
+        EXPIRED
+    }
+}
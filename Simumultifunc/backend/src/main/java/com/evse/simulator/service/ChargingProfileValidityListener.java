@@ -0,0 +1,60 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.domain.service.BroadcastService;
+import com.evse.simulator.model.LogEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Réapplique la limite SCP dès qu'un profil devient actif ou expire,
+ * sans attendre le prochain SetChargingProfile / ClearChargingProfile.
+ * <p>
+ * Composant distinct de {@link OCPPService} : ce dernier est exposé par un
+ * proxy JDK (@Async) qui ne porte que les méthodes de son interface.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class ChargingProfileValidityListener {
+
+    private final SessionService sessionService;
+    private final ChargingProfileManager chargingProfileManager;
+    private final BroadcastService broadcaster;
+
+    @EventListener
+    public void onChargingProfileValidityChanged(ChargingProfileValidityEvent event) {
+        sessionService.findSession(event.sessionId()).ifPresent(session -> {
+            SmartChargingEngine.EffectiveLimit effectiveLimit = chargingProfileManager.getEffectiveLimit(
+                    session.getId(), session.getConnectorId(), session.getPhaseType(), session.getVoltage());
+
+            if (effectiveLimit.hasLimit()) {
+                session.setScpLimitKw(effectiveLimit.getLimitKw());
+                session.setScpLimitA(effectiveLimit.limitRaw());
+                session.setScpProfileId(effectiveLimit.profileId());
+                session.setScpPurpose(effectiveLimit.source() != null ? effectiveLimit.source().getValue() : null);
+                session.setScpStackLevel(effectiveLimit.stackLevel());
+                if (effectiveLimit.nextPeriod() != null) {
+                    session.setScpNextPeriodSeconds(effectiveLimit.nextPeriod().secondsUntilStart());
+                    session.setScpNextLimitKw(effectiveLimit.nextPeriod().limit() / 1000.0);
+                } else {
+                    session.setScpNextPeriodSeconds(null);
+                    session.setScpNextLimitKw(null);
+                }
+            } else {
+                session.setScpLimitKw(0);
+                session.setScpLimitA(0);
+                session.setScpProfileId(null);
+                session.setScpPurpose(null);
+                session.setScpStackLevel(0);
+                session.setScpNextPeriodSeconds(null);
+                session.setScpNextLimitKw(null);
+            }
+
+            session.addLog(LogEntry.info("SCP", String.format("Profil #%d %s",
+                    event.chargingProfileId(),
+                    event.transition() == ChargingProfileValidityEvent.Transition.EXPIRED ? "expiré" : "activé")));
+            broadcaster.broadcastSession(session);
+        });
+    }
+}
@@ -143,18 +143,17 @@ public class ChargingSimulator {
         // Appliquer la limite Smart Charging si présente
         double scpLimitKw = 0;
         try {
-            log.info("[SIM] Session {}: Calling getCurrentLimit...", session.getId());
             double scpLimit = smartChargingService.getCurrentLimit(session.getId());
-            log.info("[SIM] Session {}: SCP limit returned = {} kW, current effectivePower = {} kW",
+            log.debug("[SIM] Session {}: SCP limit returned = {} kW, current effectivePower = {} kW",
                     session.getId(), scpLimit, effectivePower);
             if (scpLimit < effectivePower) {
-                log.info("[SIM] Session {}: APPLYING SCP limit {} kW (was {} kW)",
+                log.debug("[SIM] Session {}: APPLYING SCP limit {} kW (was {} kW)",
                         session.getId(), scpLimit, effectivePower);
                 effectivePower = scpLimit;
                 limitedBy = "scp";
                 scpLimitKw = scpLimit;
             } else {
-                log.info("[SIM] Session {}: SCP limit {} kW NOT applied (effectivePower {} kW is lower or equal)",
+                log.debug("[SIM] Session {}: SCP limit {} kW NOT applied (effectivePower {} kW is lower or equal)",
                         session.getId(), scpLimit, effectivePower);
             }
         } catch (Exception e) {
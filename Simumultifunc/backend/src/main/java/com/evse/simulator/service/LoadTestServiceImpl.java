@@ -4,12 +4,16 @@ import com.evse.simulator.config.LoadTestProperties;
 import com.evse.simulator.domain.service.LoadTestService;
 import com.evse.simulator.domain.service.MetricsService;
 import com.evse.simulator.domain.service.OCPPService;
+import com.evse.simulator.model.LightSession;
 import com.evse.simulator.model.Session;
 import com.evse.simulator.model.enums.ChargerType;
 import com.evse.simulator.model.enums.ConnectorStatus;
+import com.evse.simulator.ocpp.capture.OcppTrafficCapture;
+import com.evse.simulator.websocket.LightOcppClient;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.net.URISyntaxException;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -24,15 +28,25 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * - Nettoyage automatique
  * - Métriques temps réel
  * </p>
+ * <p>
+ * En mode {@code loadtest.session-mode=LIGHT}, chaque borne est une
+ * {@link LightSession} pilotée par un {@link LightOcppClient} au lieu d'une
+ * {@link Session} complète enregistrée dans le {@link SessionService} :
+ * elle n'apparaît pas dans la liste des sessions et n'est gonflée qu'à
+ * l'inspection ({@link #inspectSession(String)}).
+ * </p>
  */
 @Service
 @Slf4j
 public class LoadTestServiceImpl implements LoadTestService {
 
+    private static final long LIGHT_CALL_TIMEOUT_MS = 10_000;
+
     private final SessionService sessionService;
     private final OCPPService ocppService;
     private final MetricsService metricsService;
     private final LoadTestProperties loadTestProperties;
+    private final OcppTrafficCapture trafficCapture;
 
     // Compteurs thread-safe pour 25k connexions
     private final AtomicBoolean loadTestRunning = new AtomicBoolean(false);
@@ -47,6 +61,8 @@ public class LoadTestServiceImpl implements LoadTestService {
 
     private ScheduledFuture<?> loadTestTask;
     private final List<String> createdSessionIds = Collections.synchronizedList(new ArrayList<>());
+    private final Map<String, LightOcppClient> lightClients = new ConcurrentHashMap<>();
+    private volatile boolean lightMode;
 
     // Pool optimisé pour 25k connexions
     private final ExecutorService connectionExecutor;
@@ -55,11 +71,13 @@ public class LoadTestServiceImpl implements LoadTestService {
     public LoadTestServiceImpl(SessionService sessionService,
                                OCPPService ocppService,
                                MetricsService metricsService,
-                               LoadTestProperties loadTestProperties) {
+                               LoadTestProperties loadTestProperties,
+                               OcppTrafficCapture trafficCapture) {
         this.sessionService = sessionService;
         this.ocppService = ocppService;
         this.metricsService = metricsService;
         this.loadTestProperties = loadTestProperties;
+        this.trafficCapture = trafficCapture;
 
         // Thread pool optimisé pour connexions massives
         int poolSize = Math.min(loadTestProperties.getThreadPoolSize(),
@@ -133,6 +151,7 @@ public class LoadTestServiceImpl implements LoadTestService {
         // IMPORTANT: Initialiser TOUTES les valeurs AVANT de marquer comme running
         // pour éviter les race conditions avec les polls de status
         resetCounters();
+        lightMode = loadTestProperties.getSessionMode() == LoadTestProperties.SessionMode.LIGHT;
         loadTestTarget = targetSessions;
         loadTestStartTime = System.currentTimeMillis();
         currentRunId = "run-" + loadTestStartTime;
@@ -142,7 +161,8 @@ public class LoadTestServiceImpl implements LoadTestService {
         loadTestRunning.set(true);
 
         log.info("═══════════════════════════════════════════════════════════");
-        log.info("STARTING LOAD TEST: target={}, rampUp={}s, hold={}s", targetSessions, rampUpSeconds, holdSeconds);
+        log.info("STARTING LOAD TEST: target={}, rampUp={}s, hold={}s, mode={}", targetSessions, rampUpSeconds, holdSeconds,
+                lightMode ? "LIGHT" : "FULL");
         log.info("Template URL: {}", sessionTemplate != null ? sessionTemplate.getUrl() : "NULL (no template!)");
         log.info("═══════════════════════════════════════════════════════════");
 
@@ -320,6 +340,11 @@ public class LoadTestServiceImpl implements LoadTestService {
 
         // Arrêter proprement chaque session en parallèle
         toDelete.parallelStream().forEach(id -> {
+            LightOcppClient light = lightClients.remove(id);
+            if (light != null) {
+                closeLightSession(light);
+                return;
+            }
             try {
                 Session session = sessionService.getSession(id);
                 if (session != null && session.getTransactionId() != null && !session.getTransactionId().toString().isEmpty()) {
@@ -345,6 +370,22 @@ public class LoadTestServiceImpl implements LoadTestService {
         log.info("Cleanup complete. Active connections: {}", activeConnections.get());
     }
 
+    /**
+     * Arrête la transaction en cours d'une session légère puis ferme sa connexion.
+     */
+    private void closeLightSession(LightOcppClient client) {
+        try {
+            if (client.isOpen() && client.getSession().isCharging()) {
+                client.sendStopTransaction().get(5, TimeUnit.SECONDS);
+                metricsService.incrementMessagesSent();
+            }
+        } catch (Exception e) {
+            log.debug("StopTransaction failed for {}: {}", client.getSession().getId(), e.getMessage());
+        }
+        client.close();
+        activeConnections.decrementAndGet();
+    }
+
     @Override
     public boolean isLoadTestRunning() {
         return loadTestRunning.get();
@@ -381,14 +422,25 @@ public class LoadTestServiceImpl implements LoadTestService {
                 .messagesReceived(metricsService.getMessagesReceived())
                 .errors(failedConnections.get() + metricsService.getErrorsCount())
                 .progress(progress)
+                .sessionMode(lightMode ? "LIGHT" : "FULL")
                 .build();
     }
 
     @Override
     public List<SessionStats> getSessionStats() {
-        return sessionService.getAllSessions().stream()
-                .map(this::toSessionStats)
-                .toList();
+        List<SessionStats> stats = new ArrayList<>();
+        sessionService.getAllSessions().forEach(session -> stats.add(toSessionStats(session)));
+        lightClients.values().forEach(client -> stats.add(toSessionStats(client)));
+        return stats;
+    }
+
+    @Override
+    public Optional<Session> inspectSession(String sessionId) {
+        LightOcppClient light = lightClients.get(sessionId);
+        if (light != null) {
+            return Optional.of(light.getSession().toSession(light.isOpen()));
+        }
+        return sessionService.findSession(sessionId);
     }
 
     // =========================================================================
@@ -401,6 +453,9 @@ public class LoadTestServiceImpl implements LoadTestService {
         failedConnections.set(0);
         maxAchieved = 0;
         createdSessionIds.clear();
+        // Sessions légères du test précédent : fermées, elles ne sont pas dans le SessionService
+        lightClients.values().forEach(LightOcppClient::close);
+        lightClients.clear();
         sessionConfigList = null; // Clear la liste des configs pour le prochain test
     }
 
@@ -427,7 +482,7 @@ public class LoadTestServiceImpl implements LoadTestService {
                 futures.add(CompletableFuture.runAsync(() -> {
                     try {
                         long start = System.nanoTime();
-                        ocppService.sendMeterValues(sessionId).get(5, TimeUnit.SECONDS);
+                        sendMeterValues(sessionId).get(5, TimeUnit.SECONDS);
                         metricsService.incrementMessagesSent();
                         metricsService.recordLatency((System.nanoTime() - start) / 1_000_000);
                         sent.incrementAndGet();
@@ -466,15 +521,15 @@ public class LoadTestServiceImpl implements LoadTestService {
             .map(sessionId -> CompletableFuture.runAsync(() -> {
                 try {
                     // StatusNotification (Finishing)
-                    ocppService.sendStatusNotification(sessionId, ConnectorStatus.FINISHING).get(5, TimeUnit.SECONDS);
+                    sendStatusNotification(sessionId, ConnectorStatus.FINISHING).get(5, TimeUnit.SECONDS);
                     metricsService.incrementMessagesSent();
 
                     // StopTransaction
-                    ocppService.sendStopTransaction(sessionId).get(10, TimeUnit.SECONDS);
+                    sendStopTransaction(sessionId).get(10, TimeUnit.SECONDS);
                     metricsService.incrementMessagesSent();
 
                     // StatusNotification (Available)
-                    ocppService.sendStatusNotification(sessionId, ConnectorStatus.AVAILABLE).get(5, TimeUnit.SECONDS);
+                    sendStatusNotification(sessionId, ConnectorStatus.AVAILABLE).get(5, TimeUnit.SECONDS);
                     metricsService.incrementMessagesSent();
 
                     stopped.incrementAndGet();
@@ -494,6 +549,21 @@ public class LoadTestServiceImpl implements LoadTestService {
         log.info("Stopped {} transactions", stopped.get());
     }
 
+    private CompletableFuture<?> sendMeterValues(String sessionId) {
+        LightOcppClient light = lightClients.get(sessionId);
+        return light != null ? light.sendMeterValues() : ocppService.sendMeterValues(sessionId);
+    }
+
+    private CompletableFuture<?> sendStatusNotification(String sessionId, ConnectorStatus status) {
+        LightOcppClient light = lightClients.get(sessionId);
+        return light != null ? light.sendStatusNotification(status) : ocppService.sendStatusNotification(sessionId, status);
+    }
+
+    private CompletableFuture<?> sendStopTransaction(String sessionId) {
+        LightOcppClient light = lightClients.get(sessionId);
+        return light != null ? light.sendStopTransaction() : ocppService.sendStopTransaction(sessionId);
+    }
+
     /**
      * Crée et connecte une session de manière optimisée pour les tests massifs.
      * Démarre le flux complet de charge: Boot → StatusNotification → Authorize → StartTransaction → Charging
@@ -524,6 +594,11 @@ public class LoadTestServiceImpl implements LoadTestService {
             url = template != null ? template.getUrl() : null;
         }
 
+        if (lightMode) {
+            connectLightSession(template, index, sessionId, cpId, idTag, url);
+            return;
+        }
+
         Session session = Session.builder()
                 .id(sessionId)
                 .title("Perf #" + index)
@@ -539,6 +614,7 @@ public class LoadTestServiceImpl implements LoadTestService {
 
         Session created = sessionService.createSession(session);
         createdSessionIds.add(created.getId());
+        trafficCapture.setLevel(created.getId(), loadTestProperties.getTrafficCapture());
 
         // Connecter et démarrer le flux complet de charge OCPP
         try {
@@ -590,6 +666,70 @@ public class LoadTestServiceImpl implements LoadTestService {
         }
     }
 
+    /**
+     * Variante légère de {@link #createAndConnectSessionOptimized} : même flux
+     * OCPP, sans {@link Session} ni passage par le {@link SessionService}.
+     */
+    private void connectLightSession(Session template, int index, String sessionId,
+                                     String cpId, String idTag, String url) {
+        LightSession session = new LightSession(sessionId, cpId, idTag, url, index,
+                template != null ? template.getChargerType() : ChargerType.AC_TRI,
+                template != null ? template.getVehicleProfile() : "PERF_TEST",
+                template != null ? template.getSoc() : 50.0,
+                template != null ? template.getTargetSoc() : 80.0);
+        LightOcppClient client;
+        try {
+            client = new LightOcppClient(session, template != null ? template.getBearerToken() : null,
+                    LIGHT_CALL_TIMEOUT_MS);
+        } catch (URISyntaxException e) {
+            throw new RuntimeException("Session creation failed: " + e.getMessage(), e);
+        }
+        lightClients.put(sessionId, client);
+        createdSessionIds.add(sessionId);
+
+        try {
+            if (!client.open(10_000)) {
+                throw new RuntimeException("Connection failed");
+            }
+            long start = System.nanoTime();
+
+            client.sendBootNotification().get(10, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+            client.sendStatusNotification(ConnectorStatus.AVAILABLE).get(5, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+            client.sendAuthorize().get(5, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+            client.sendStatusNotification(ConnectorStatus.PREPARING).get(5, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+            client.sendStartTransaction().get(10, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+            client.sendStatusNotification(ConnectorStatus.CHARGING).get(5, TimeUnit.SECONDS);
+            metricsService.incrementMessagesSent();
+
+            metricsService.recordLatency((System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            client.close();
+            lightClients.remove(sessionId);
+            createdSessionIds.remove(sessionId);
+            throw new RuntimeException("Session creation failed: " + e.getMessage(), e);
+        }
+    }
+
+    private SessionStats toSessionStats(LightOcppClient client) {
+        LightSession session = client.getSession();
+        return SessionStats.builder()
+                .sessionId(session.getId())
+                .cpId(session.getCpId())
+                .state(session.getState().name())
+                .connected(client.isOpen())
+                .charging(session.isCharging())
+                .soc(session.getSoc())
+                .powerKw(session.isCharging() ? session.getChargerType().getMaxPowerKw() : 0.0)
+                .energyKwh(session.meterWh(System.currentTimeMillis()) / 1000.0)
+                .messageCount(session.getMessageCount())
+                .build();
+    }
+
     private SessionStats toSessionStats(Session session) {
         return SessionStats.builder()
                 .sessionId(session.getId())
@@ -600,7 +740,7 @@ public class LoadTestServiceImpl implements LoadTestService {
                 .soc(session.getSoc())
                 .powerKw(session.getCurrentPowerKw())
                 .energyKwh(session.getEnergyDeliveredKwh())
-                .messageCount(session.getOcppMessages() != null ? session.getOcppMessages().size() : 0)
+                .messageCount((int) trafficCapture.getStats(session.getId()).captured())
                 .build();
     }
 }
@@ -7,14 +7,18 @@ import com.evse.simulator.domain.service.OCPPService;
 import com.evse.simulator.model.PerformanceMetrics;
 import com.evse.simulator.model.Session;
 import com.evse.simulator.model.enums.SessionState;
+import com.evse.simulator.performance.history.MetricsHistoryStore;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,17 +26,21 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * Implémentation du service de métriques.
  * <p>
- * Collecte les métriques en temps réel et les diffuse via WebSocket.
+ * Collecte les métriques en temps réel, les diffuse via WebSocket et les
+ * conserve dans l'historique ({@link MetricsHistoryStore}, préfixe {@code sim}).
  * </p>
  */
 @Service
 @Slf4j
 public class MetricsServiceImpl implements MetricsService {
 
+    static final String HISTORY_PREFIX = "sim";
+
     private final SessionService sessionService;
     private final OCPPService ocppService;
     private final BroadcastService broadcaster;
     private final MetricsProperties metricsProperties;
+    private final MetricsHistoryStore metricsHistory;
 
     // Compteurs de messages
     private final AtomicLong messagesSent = new AtomicLong(0);
@@ -48,17 +56,20 @@ public class MetricsServiceImpl implements MetricsService {
     public MetricsServiceImpl(SessionService sessionService,
                               OCPPService ocppService,
                               BroadcastService broadcaster,
-                              MetricsProperties metricsProperties) {
+                              MetricsProperties metricsProperties,
+                              MetricsHistoryStore metricsHistory) {
         this.sessionService = sessionService;
         this.ocppService = ocppService;
         this.broadcaster = broadcaster;
         this.metricsProperties = metricsProperties;
+        this.metricsHistory = metricsHistory;
     }
 
     @Override
     @Scheduled(fixedDelayString = "${metrics.broadcast-interval:1000}")
     public void collectAndBroadcastMetrics() {
         PerformanceMetrics metrics = collectMetrics();
+        metricsHistory.recordAll(HISTORY_PREFIX, Instant.now(), historyValues(metrics));
         broadcaster.broadcastMetrics(metrics);
     }
 
@@ -195,6 +206,27 @@ public class MetricsServiceImpl implements MetricsService {
         return new LatencyStats(avg, min, max, p95, p99);
     }
 
+    private static Map<String, Number> historyValues(PerformanceMetrics metrics) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("totalSessions", metrics.getTotalSessions());
+        values.put("activeSessions", metrics.getActiveSessions());
+        values.put("chargingSessions", metrics.getChargingSessions());
+        values.put("errorSessions", metrics.getErrorSessions());
+        values.put("messagesSent", metrics.getMessagesSent());
+        values.put("messagesReceived", metrics.getMessagesReceived());
+        values.put("averageLatencyMs", metrics.getAverageLatencyMs());
+        values.put("p95LatencyMs", metrics.getP95LatencyMs());
+        values.put("p99LatencyMs", metrics.getP99LatencyMs());
+        values.put("totalPowerKw", metrics.getTotalPowerKw());
+        values.put("totalEnergyKwh", metrics.getTotalEnergyKwh());
+        values.put("cpuUsage", metrics.getCpuUsage());
+        values.put("memoryUsedMb", metrics.getMemoryUsedMb());
+        values.put("activeWebSockets", metrics.getActiveWebSockets());
+        values.put("errorRate", metrics.getErrorRate());
+        values.put("throughput", metrics.getThroughput());
+        return values;
+    }
+
     private double getProcessCpuUsage() {
         try {
             java.lang.management.OperatingSystemMXBean os =
@@ -4,13 +4,19 @@ import com.evse.simulator.domain.service.BroadcastService;
 import com.evse.simulator.exception.OCPPException;
 import com.evse.simulator.exception.SessionNotFoundException;
 import com.evse.simulator.data.VehicleDatabase;
+import com.evse.simulator.gpm.service.SiteLoadManager;
 import com.evse.simulator.model.*;
 import com.evse.simulator.model.enums.*;
 import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.ocpp.capture.OcppTrafficCapture;
+import com.evse.simulator.ocpp.codec.EncodedCall;
+import com.evse.simulator.ocpp.codec.OcppFrameEncoder;
 import com.evse.simulator.ocpp.handler.*;
 import com.evse.simulator.ocpp.v16.Ocpp16MessageRouter;
 import com.evse.simulator.websocket.OCPPWebSocketClient;
+import com.evse.simulator.websocket.ReconnectBackoff;
 import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.framing.CloseFrame;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Async;
@@ -21,6 +27,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.Function;
 
 /**
  * Service OCPP 1.6 pour la communication avec le CSMS.
@@ -40,6 +47,11 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
     private final Ocpp16MessageRouter messageRouter;
     private final com.evse.simulator.domain.service.TNRService tnrService;
     private final com.evse.simulator.domain.service.SmartChargingService smartChargingService;
+    private final SiteLoadManager siteLoadManager;
+    private final OcppFrameEncoder frameEncoder;
+    private final OcppTrafficCapture trafficCapture;
+    // Proxy de ce service : les reconnexions passent par @Async("ocppExecutor")
+    private final com.evse.simulator.domain.service.OCPPService self;
 
     public OCPPService(SessionService sessionService,
                        BroadcastService broadcaster,
@@ -47,7 +59,11 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
                        ChargingProfileManager chargingProfileManager,
                        Ocpp16MessageRouter messageRouter,
                        @Lazy com.evse.simulator.domain.service.TNRService tnrService,
-                       com.evse.simulator.domain.service.SmartChargingService smartChargingService) {
+                       com.evse.simulator.domain.service.SmartChargingService smartChargingService,
+                       SiteLoadManager siteLoadManager,
+                       OcppFrameEncoder frameEncoder,
+                       OcppTrafficCapture trafficCapture,
+                       @Lazy com.evse.simulator.domain.service.OCPPService self) {
         this.sessionService = sessionService;
         this.broadcaster = broadcaster;
         this.handlerRegistry = handlerRegistry;
@@ -55,6 +71,10 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
         this.messageRouter = messageRouter;
         this.tnrService = tnrService;
         this.smartChargingService = smartChargingService;
+        this.siteLoadManager = siteLoadManager;
+        this.frameEncoder = frameEncoder;
+        this.trafficCapture = trafficCapture;
+        this.self = self;
     }
 
     @Value("${ocpp.heartbeat-interval:30000}")
@@ -66,9 +86,21 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
     @Value("${ocpp.connection-timeout:10000}")
     private int connectionTimeout;
 
+    @Value("${ocpp.reconnect-delay:5000}")
+    private int reconnectDelay;
+
+    @Value("${ocpp.max-reconnect-delay:60000}")
+    private int maxReconnectDelay;
+
+    @Value("${ocpp.max-reconnect-attempts:5}")
+    private int maxReconnectAttempts;
+
     // Clients WebSocket par session
     private final Map<String, OCPPWebSocketClient> clients = new ConcurrentHashMap<>();
 
+    // Sessions dont une chaîne de reconnexion est en cours (une seule par session)
+    private final Set<String> reconnecting = ConcurrentHashMap.newKeySet();
+
     // Pending requests (messageId -> CompletableFuture)
     private final Map<String, CompletableFuture<Map<String, Object>>> pendingRequests =
             new ConcurrentHashMap<>();
@@ -173,7 +205,8 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
         stopMeterValues(sessionId);
         stopClockAlignedData(sessionId);
 
-        // Fermer le client WebSocket
+        // Fermer le client WebSocket et interrompre une reconnexion en cours
+        reconnecting.remove(sessionId);
         OCPPWebSocketClient client = clients.remove(sessionId);
         if (client != null) {
             client.close();
@@ -184,6 +217,83 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
         log.info("Session {} disconnected", sessionId);
     }
 
+    /**
+     * Reconnecte une session dont la connexion a été perdue.
+     * <p>
+     * Le délai suit un backoff exponentiel plafonné avec gigue complète : après
+     * un redémarrage du CSMS, les sessions ne reviennent pas toutes au même
+     * instant. Une déconnexion volontaire a déjà retiré le client de la map et
+     * n'est donc pas reconnectée. Une seule chaîne de reconnexion existe par
+     * session : la fermeture d'un client créé par une tentative ne relance pas
+     * une seconde chaîne. La connexion elle-même s'exécute sur ocppExecutor,
+     * jamais sur le scheduler partagé par les heartbeats et MeterValues.
+     * </p>
+     *
+     * @param sessionId ID de la session
+     * @param code      code de fermeture WebSocket (-1 : jamais connectée)
+     * @param remote    fermeture initiée par le serveur
+     */
+    public void handleConnectionLost(String sessionId, int code, boolean remote) {
+        if (code == -1 || !clients.containsKey(sessionId) || !reconnecting.add(sessionId)) {
+            return;
+        }
+        stopHeartbeat(sessionId);
+        stopMeterValues(sessionId);
+        stopClockAlignedData(sessionId);
+        scheduleReconnect(sessionId);
+    }
+
+    private void scheduleReconnect(String sessionId) {
+        Session session = sessionService.findSession(sessionId).orElse(null);
+        if (session == null || !session.canReconnect()
+                || session.getReconnectAttempts() >= maxReconnectAttempts) {
+            reconnecting.remove(sessionId);
+            clients.remove(sessionId);
+            if (session != null) {
+                sessionService.addLog(sessionId, LogEntry.error("Reconnection abandoned"));
+            }
+            return;
+        }
+        int attempt = session.incrementReconnectAttempts();
+        long delay = new ReconnectBackoff(reconnectDelay, maxReconnectDelay, 2.0, ReconnectBackoff.Jitter.FULL)
+                .delayMs(attempt);
+        sessionService.addLog(sessionId, LogEntry.info(
+                "Reconnecting in " + delay + " ms (attempt " + attempt + "/" + maxReconnectAttempts + ")"));
+        log.info("Session {} reconnect attempt {} in {} ms", sessionId, attempt, delay);
+
+        scheduler.schedule(() -> {
+            // Déconnexion volontaire entre-temps
+            OCPPWebSocketClient stale = clients.remove(sessionId);
+            if (stale == null) {
+                reconnecting.remove(sessionId);
+                return;
+            }
+            CompletableFuture<Boolean> attemptResult;
+            try {
+                attemptResult = self.connect(sessionId);
+            } catch (RuntimeException e) {
+                // ocppExecutor saturé : compté comme un échec
+                attemptResult = CompletableFuture.failedFuture(e);
+            }
+            attemptResult.whenComplete((connected, error) -> {
+                if (Boolean.TRUE.equals(connected)) {
+                    reconnecting.remove(sessionId);
+                    if (!isConnected(sessionId)) {
+                        // Perdue avant la fin de la tentative : sa fermeture a été ignorée par le garde
+                        handleConnectionLost(sessionId, CloseFrame.ABNORMAL_CLOSE, true);
+                        return;
+                    }
+                    session.resetReconnectAttempts();
+                    sendBootNotification(sessionId);
+                } else if (reconnecting.contains(sessionId)) {
+                    // connect() a retiré le client en échec : le remettre pour la tentative suivante
+                    clients.putIfAbsent(sessionId, stale);
+                    scheduleReconnect(sessionId);
+                }
+            });
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
     /**
      * Vérifie si une session est connectée.
      *
@@ -436,11 +546,7 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
                 .meterValue((long) session.getMeterValue())
                 .build();
 
-        Map<String, Object> payload = handlerRegistry
-                .getHandlerOrThrow(OCPPAction.METER_VALUES)
-                .buildPayload(context);
-
-        return sendCall(sessionId, OCPPAction.METER_VALUES, payload);
+        return sendHandlerCall(sessionId, OCPPAction.METER_VALUES, context);
     }
 
     /**
@@ -482,6 +588,34 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
     public CompletableFuture<Map<String, Object>> sendCall(String sessionId,
                                                             OCPPAction action,
                                                             Map<String, Object> payload) {
+        return sendCall(sessionId, action, payload,
+                messageId -> frameEncoder.encodeCall(messageId, action.getValue(), payload));
+    }
+
+    /**
+     * Envoie un CALL construit par son handler : écrit directement dans la trame
+     * si le handler le permet, sinon via la map de {@code buildPayload}.
+     */
+    private CompletableFuture<Map<String, Object>> sendHandlerCall(String sessionId,
+                                                                    OCPPAction action,
+                                                                    OcppMessageContext context) {
+        OcppMessageHandler handler = handlerRegistry.getHandlerOrThrow(action);
+        if (handler instanceof StreamingPayloadHandler streaming) {
+            return sendCall(sessionId, action, null, messageId -> frameEncoder.encodeCall(
+                    messageId, action.getValue(), gen -> streaming.writePayload(context, gen)));
+        }
+        return sendCall(sessionId, action, handler.buildPayload(context));
+    }
+
+    /**
+     * Encode la trame une seule fois ; l'envoi, le log et le TNR la réutilisent.
+     *
+     * @param payload payload sous forme de map, null si écrit en streaming
+     */
+    private CompletableFuture<Map<String, Object>> sendCall(String sessionId,
+                                                             OCPPAction action,
+                                                             Map<String, Object> payload,
+                                                             Function<String, EncodedCall> encoder) {
         OCPPWebSocketClient client = clients.get(sessionId);
         if (client == null || !client.isOpen()) {
             return CompletableFuture.failedFuture(
@@ -492,22 +626,25 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
         CompletableFuture<Map<String, Object>> future = new CompletableFuture<>();
 
         // Construire le message OCPP-J
-        OCPPMessage message = OCPPMessage.createCall(action, payload);
-        message.setMessageId(messageId);
-
-        String json = String.format("[2,\"%s\",\"%s\",%s]",
-                messageId,
-                action.getValue(),
-                toJson(payload));
-
-        // Enregistrer le message
-        sessionService.addOcppMessage(sessionId, message);
+        EncodedCall call;
+        try {
+            call = encoder.apply(messageId);
+        } catch (OCPPException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-        // Ajouter un log visible pour le message envoyé
-        sessionService.addLog(sessionId, LogEntry.info("OCPP", ">> Sent " + action.getValue() + " " + toJson(payload)));
+        // Capturer l'échange ; historique et log de session en temps réel au niveau FULL uniquement
+        trafficCapture.recordCall(sessionId, call);
+        if (trafficCapture.isLive(sessionId)) {
+            OCPPMessage message = OCPPMessage.createCall(action, payload);
+            message.setMessageId(messageId);
+            message.setRawMessage(call.frame());
+            sessionService.addOcppMessage(sessionId, message);
+            sessionService.addLog(sessionId, LogEntry.info("OCPP", ">> Sent " + action.getValue() + " " + call.payloadJson()));
+        }
 
         // Enregistrer l'événement CALL sortant pour TNR (important pour le replay!)
-        recordOutgoingCall(sessionId, messageId, action.getValue(), payload);
+        recordOutgoingCall(sessionId, call, payload);
 
         // Stocker le future pour la réponse
         pendingRequests.put(messageId, future);
@@ -517,13 +654,18 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
             CompletableFuture<Map<String, Object>> pending = pendingRequests.remove(messageId);
             if (pending != null && !pending.isDone()) {
                 pending.completeExceptionally(new TimeoutException("OCPP timeout for " + action));
-                sessionService.addLog(sessionId, LogEntry.warn("OCPP", "!! Timeout waiting for " + action.getValue() + " response"));
+                trafficCapture.recordTimeout(sessionId, messageId, action.getValue());
+                if (trafficCapture.isLive(sessionId)) {
+                    sessionService.addLog(sessionId, LogEntry.warn("OCPP", "!! Timeout waiting for " + action.getValue() + " response"));
+                }
             }
         }, 30, TimeUnit.SECONDS);
 
         // Envoyer
-        client.send(json);
-        log.debug("Sent {} to session {}: {}", action, sessionId, json);
+        client.sendText(call.buffer());
+        if (log.isDebugEnabled()) {
+            log.debug("Sent {} to session {}: {}", action, sessionId, call.frame());
+        }
 
         return future;
     }
@@ -531,21 +673,22 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
     /**
      * Enregistre un CALL sortant pour TNR.
      * Permet de capturer les CALLs client pour un replay complet.
+     * Un payload écrit en streaming est relu depuis la trame déjà encodée.
      */
-    private void recordOutgoingCall(String sessionId, String messageId, String action, Map<String, Object> payload) {
+    private void recordOutgoingCall(String sessionId, EncodedCall call, Map<String, Object> payload) {
         if (tnrService != null && tnrService.isRecording()) {
             com.evse.simulator.model.TNREvent event = new com.evse.simulator.model.TNREvent();
             event.setTimestamp(System.currentTimeMillis());
             event.setSessionId(sessionId);
             event.setType("ocpp_call");
-            event.setAction(action);
+            event.setAction(call.action());
             event.setPayload(java.util.Map.of(
                 "direction", "outgoing",
-                "messageId", messageId,
-                "payload", payload
+                "messageId", call.messageId(),
+                "payload", payload != null ? payload : frameEncoder.decodePayload(call)
             ));
             tnrService.recordEvent(event);
-            log.debug("TNR: Recorded outgoing CALL {} [{}]", action, messageId);
+            log.debug("TNR: Recorded outgoing CALL {} [{}]", call.action(), call.messageId());
         }
     }
 
@@ -562,17 +705,18 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
             future.complete(payload);
 
             // Enregistrer la réponse
-            OCPPMessage response = OCPPMessage.builder()
-                    .messageId(messageId)
-                    .messageType(OCPPMessageType.CALL_RESULT)
-                    .payload(payload)
-                    .direction(OCPPMessage.Direction.INCOMING)
-                    .responseStatus(OCPPMessage.ResponseStatus.ACCEPTED)
-                    .build();
-            sessionService.addOcppMessage(sessionId, response);
-
-            // Ajouter un log visible pour la réponse
-            sessionService.addLog(sessionId, LogEntry.success("OCPP", "<< RESULT " + toJson(payload)));
+            trafficCapture.recordResult(sessionId, messageId, payload);
+            if (trafficCapture.isLive(sessionId)) {
+                OCPPMessage response = OCPPMessage.builder()
+                        .messageId(messageId)
+                        .messageType(OCPPMessageType.CALL_RESULT)
+                        .payload(payload)
+                        .direction(OCPPMessage.Direction.INCOMING)
+                        .responseStatus(OCPPMessage.ResponseStatus.ACCEPTED)
+                        .build();
+                sessionService.addOcppMessage(sessionId, response);
+                sessionService.addLog(sessionId, LogEntry.success("OCPP", "<< RESULT " + toJson(payload)));
+            }
         }
     }
 
@@ -591,12 +735,13 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
             future.completeExceptionally(new OCPPException(errorCode, errorDescription, sessionId));
 
             // Enregistrer l'erreur
-            OCPPMessage error = OCPPMessage.createCallError(messageId, errorCode, errorDescription, null);
-            error.setDirection(OCPPMessage.Direction.INCOMING);
-            sessionService.addOcppMessage(sessionId, error);
-
-            // Ajouter un log visible pour l'erreur
-            sessionService.addLog(sessionId, LogEntry.error("OCPP", "<< ERROR [" + errorCode + "] " + errorDescription));
+            trafficCapture.recordError(sessionId, messageId, errorCode, errorDescription);
+            if (trafficCapture.isLive(sessionId)) {
+                OCPPMessage error = OCPPMessage.createCallError(messageId, errorCode, errorDescription, null);
+                error.setDirection(OCPPMessage.Direction.INCOMING);
+                sessionService.addOcppMessage(sessionId, error);
+                sessionService.addLog(sessionId, LogEntry.error("OCPP", "<< ERROR [" + errorCode + "] " + errorDescription));
+            }
         }
     }
 
@@ -872,12 +1017,8 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
                 .readingContext(CONTEXT_CLOCK_ALIGNED)
                 .build();
 
-        Map<String, Object> payload = handlerRegistry
-                .getHandlerOrThrow(OCPPAction.METER_VALUES)
-                .buildPayload(context);
-
         log.info("[ClockAligned] Session {}: Sending MeterValues at aligned time", sessionId);
-        return sendCall(sessionId, OCPPAction.METER_VALUES, payload);
+        return sendHandlerCall(sessionId, OCPPAction.METER_VALUES, context);
     }
 
     /**
@@ -1036,6 +1177,15 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
                 log.warn("[SIM] Session {}: Error getting SCP limit: {}", sessionId, e.getMessage());
             }
 
+            // Budget site (load management local) : remonter la demande, appliquer l'allocation du dernier tick
+            boolean siteLimited = false;
+            siteLoadManager.reportDemand(session, Math.min(cnlPowerKw, physLimPowerKw));
+            OptionalDouble siteAllocationKw = siteLoadManager.getAllocatedKw(sessionId);
+            if (siteAllocationKw.isPresent() && siteAllocationKw.getAsDouble() < setpointKw) {
+                setpointKw = siteAllocationKw.getAsDouble();
+                siteLimited = true;
+            }
+
             // ═══════════════════════════════════════════════════════════════════
             // APPLIQUER LES FORMULES Import / Offered
             // ═══════════════════════════════════════════════════════════════════
@@ -1043,7 +1193,7 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
             // powerImport = MIN(setpoint, CNL, physLim) - puissance réellement consommée
             powerKw = Math.min(setpointKw, Math.min(cnlPowerKw, physLimPowerKw));
             if (setpointKw < physLimPowerKw && setpointKw <= powerKw) {
-                limitedBy = "scp";
+                limitedBy = siteLimited ? "site" : "scp";
             } else if (cnlPowerKw < physLimPowerKw) {
                 limitedBy = "vehicle/cnl";
             } else {
@@ -1119,14 +1269,7 @@ public class OCPPService implements com.evse.simulator.domain.service.OCPPServic
     // =========================================================================
 
     private String toJson(Map<String, Object> map) {
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper =
-                    new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.registerModule(new com.fasterxml.jackson.datatype.jsr310.JavaTimeModule());
-            return mapper.writeValueAsString(map);
-        } catch (Exception e) {
-            return "{}";
-        }
+        return frameEncoder.toJson(map);
     }
 
     /**
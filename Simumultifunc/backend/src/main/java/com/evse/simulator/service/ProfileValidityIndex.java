@@ -0,0 +1,122 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.service.ChargingProfileValidityEvent.Transition;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Index des échéances de validité des profils de charge.
+ * <p>
+ * File ordonnée par date d'échéance (activation à validFrom, expiration à validTo
+ * ou en fin de schedule) : le traitement périodique ne lit que la tête de file, son
+ * coût dépend des échéances dues et non du nombre total de profils. Les profils
+ * remplacés ou supprimés retirent leurs échéances.
+ * </p>
+ */
+final class ProfileValidityIndex {
+
+    /**
+     * Échéance d'un profil ; {@code seq} départage les échéances simultanées.
+     */
+    record Deadline(LocalDateTime due, long seq, String sessionId, int connectorId,
+                    ChargingProfile profile, Transition transition) implements Comparable<Deadline> {
+
+        @Override
+        public int compareTo(Deadline other) {
+            int byDue = due.compareTo(other.due);
+            return byDue != 0 ? byDue : Long.compare(seq, other.seq);
+        }
+    }
+
+    private final TreeSet<Deadline> queue = new TreeSet<>();
+    private final Map<ChargingProfile, List<Deadline>> byProfile = new IdentityHashMap<>();
+    private final Set<ChargingProfile> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+    private long sequence;
+
+    /**
+     * Enregistre les échéances d'un profil.
+     *
+     * @param activation début de validité futur, ou {@code null} si déjà actif
+     * @param expiry     fin de validité, ou {@code null} si illimité
+     */
+    synchronized void register(String sessionId, int connectorId, ChargingProfile profile,
+                               LocalDateTime activation, LocalDateTime expiry) {
+        unregister(profile);
+        List<Deadline> deadlines = new ArrayList<>(2);
+        if (activation != null) {
+            deadlines.add(new Deadline(activation, sequence++, sessionId, connectorId, profile, Transition.ACTIVATED));
+            pending.add(profile);
+        }
+        if (expiry != null) {
+            deadlines.add(new Deadline(expiry, sequence++, sessionId, connectorId, profile, Transition.EXPIRED));
+        }
+        if (!deadlines.isEmpty()) {
+            queue.addAll(deadlines);
+            byProfile.put(profile, deadlines);
+        }
+    }
+
+    synchronized void unregister(ChargingProfile profile) {
+        List<Deadline> deadlines = byProfile.remove(profile);
+        if (deadlines != null) {
+            deadlines.forEach(queue::remove);
+        }
+        pending.remove(profile);
+    }
+
+    synchronized void unregisterSession(String sessionId) {
+        List<ChargingProfile> sessionProfiles = queue.stream()
+                .filter(d -> d.sessionId().equals(sessionId))
+                .map(Deadline::profile)
+                .distinct()
+                .toList();
+        sessionProfiles.forEach(this::unregister);
+    }
+
+    synchronized void clear() {
+        queue.clear();
+        byProfile.clear();
+        pending.clear();
+    }
+
+    /**
+     * Retire et retourne les échéances atteintes, dans l'ordre.
+     */
+    synchronized List<Deadline> pollDue(LocalDateTime now) {
+        List<Deadline> due = new ArrayList<>();
+        while (!queue.isEmpty() && !queue.first().due().isAfter(now)) {
+            Deadline deadline = queue.pollFirst();
+            due.add(deadline);
+            if (deadline.transition() == Transition.ACTIVATED) {
+                pending.remove(deadline.profile());
+            }
+            List<Deadline> remaining = byProfile.get(deadline.profile());
+            if (remaining != null) {
+                remaining.remove(deadline);
+                if (remaining.isEmpty()) {
+                    byProfile.remove(deadline.profile());
+                }
+            }
+        }
+        return due;
+    }
+
+    /**
+     * @return true si le profil attend son validFrom
+     */
+    synchronized boolean isPending(ChargingProfile profile) {
+        return pending.contains(profile);
+    }
+
+    synchronized int size() {
+        return queue.size();
+    }
+}
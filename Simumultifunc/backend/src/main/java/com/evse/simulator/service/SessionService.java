@@ -5,6 +5,7 @@ import com.evse.simulator.exception.SessionNotFoundException;
 import com.evse.simulator.model.*;
 import com.evse.simulator.model.enums.ChargerType;
 import com.evse.simulator.model.enums.SessionState;
+import com.evse.simulator.ocpp.capture.OcppTrafficCapture;
 import com.evse.simulator.repository.DataRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,7 @@ public class SessionService implements com.evse.simulator.domain.service.Session
 
     private final DataRepository repository;
     private final BroadcastService broadcaster;
+    private final OcppTrafficCapture trafficCapture;
 
     // =========================================================================
     // CRUD Operations
@@ -193,6 +195,8 @@ public class SessionService implements com.evse.simulator.domain.service.Session
         }
 
         repository.deleteSession(id);
+        broadcaster.forgetSession(id);
+        trafficCapture.remove(id);
         log.info("Deleted session: {}", id);
     }
 
@@ -456,7 +460,11 @@ public class SessionService implements com.evse.simulator.domain.service.Session
                 .filter(s -> !s.isConnected())
                 .collect(Collectors.toList());
 
-        toDelete.forEach(s -> repository.deleteSession(s.getId()));
+        toDelete.forEach(s -> {
+            repository.deleteSession(s.getId());
+            broadcaster.forgetSession(s.getId());
+            trafficCapture.remove(s.getId());
+        });
 
         log.info("Deleted {} disconnected sessions", toDelete.size());
         return toDelete.size();
@@ -0,0 +1,648 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.model.ChargingProfile.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Moteur d'évaluation Smart Charging OCPP 1.6, unique pour tout le simulateur.
+ * <p>
+ * Applique les règles OCPP (validité, plus haut stackLevel par purpose, période
+ * active, MIN des purposes) et convertit les limites en Watts. Utilisé par
+ * {@link ChargingProfileManager} (stockage des profils), {@link SmartChargingService}
+ * (handlers OCPP, TNR, {@link ChargingSimulator}) et le client WebSocket pour
+ * GetCompositeSchedule : tous lisent la même limite pour un même connecteur.
+ * </p>
+ * <p>
+ * Les profils d'un connecteur sont compilés en {@link ChargingProfileTimeline} à la
+ * première lecture après modification. La limite résolue est mise en cache jusqu'au
+ * prochain point de rupture : les lectures d'un même tick (simulateur, boucle OCPP,
+ * API) ne déclenchent qu'une seule évaluation.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SmartChargingEngine {
+
+    /**
+     * Horizon de compilation en présence de profils récurrents (couvre une récurrence hebdomadaire).
+     */
+    private static final Duration RECURRING_HORIZON = Duration.ofDays(8);
+
+    private final Clock clock;
+
+    // État partagé par connecteur: sessionId -> connectorId -> timeline
+    private final Map<String, Map<Integer, ChargingProfileTimeline>> timelines = new ConcurrentHashMap<>();
+
+    public SmartChargingEngine() {
+        this(Clock.systemDefaultZone());
+    }
+
+    SmartChargingEngine(Clock clock) {
+        this.clock = clock;
+    }
+
+    LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    // =========================================================================
+    // Limite effective
+    // =========================================================================
+
+    /**
+     * Limite effective d'un connecteur, servie depuis le cache tant que l'instant
+     * courant reste dans le segment de timeline évalué.
+     *
+     * @param sessionId   ID de la session (charge point)
+     * @param connectorId ID du connecteur
+     * @param profiles    profils du connecteur et du connecteur 0, lus à la compilation
+     * @param phaseType   Type de phase ("AC_MONO", "AC_TRI", "DC")
+     * @param voltageV    Tension en Volts
+     * @return Limite effective en Watts
+     */
+    public EffectiveLimit getEffectiveLimit(String sessionId, int connectorId,
+                                            Supplier<List<ChargingProfile>> profiles,
+                                            String phaseType, double voltageV) {
+        LocalDateTime now = now();
+        ChargingProfileTimeline timeline = getTimeline(sessionId, connectorId, profiles, now);
+
+        ChargingProfileTimeline.Resolved cached = timeline.cached(phaseType, voltageV, now);
+        if (cached != null) {
+            return withNextPeriod(cached, now);
+        }
+
+        ChargingProfileTimeline.Segment segment = timeline.segmentAt(now);
+        if (segment == null) {
+            return EffectiveLimit.noLimit();
+        }
+
+        ChargingProfileTimeline.Candidate limiting = limitingCandidate(segment.candidates(), phaseType, voltageV);
+        EffectiveLimit result = toEffectiveLimit(limiting, phaseType, voltageV, now);
+        if (limiting != null) {
+            log.debug("[SCP] EffectiveLimit: session={}, connector={}, limit={} W, source={}, valid until {}",
+                    sessionId, connectorId, result.limitW(), result.source().getValue(), segment.to());
+        }
+
+        timeline.cache(new ChargingProfileTimeline.Resolved(phaseType, voltageV, segment, result,
+                limiting != null ? limiting.profile() : null));
+        return result;
+    }
+
+    /**
+     * Évaluation directe à un instant, sans timeline ni cache. Référence des
+     * règles appliquées par la timeline compilée.
+     */
+    EffectiveLimit evaluate(List<ChargingProfile> profiles, LocalDateTime time,
+                            String phaseType, double voltageV) {
+        ChargingProfileTimeline.Candidate limiting =
+                limitingCandidate(evaluateCandidates(profiles, time), phaseType, voltageV);
+        return toEffectiveLimit(limiting, phaseType, voltageV, time);
+    }
+
+    private ChargingProfileTimeline.Candidate limitingCandidate(List<ChargingProfileTimeline.Candidate> candidates,
+                                                                String phaseType, double voltageV) {
+        double minLimitW = Double.MAX_VALUE;
+        ChargingProfileTimeline.Candidate limiting = null;
+        for (ChargingProfileTimeline.Candidate candidate : candidates) {
+            double limitW = toWatts(candidate, phaseType, voltageV);
+            if (limitW < minLimitW) {
+                minLimitW = limitW;
+                limiting = candidate;
+            }
+        }
+        return limiting;
+    }
+
+    private EffectiveLimit toEffectiveLimit(ChargingProfileTimeline.Candidate limiting,
+                                            String phaseType, double voltageV, LocalDateTime now) {
+        if (limiting == null) {
+            return EffectiveLimit.noLimit();
+        }
+        ChargingProfile profile = limiting.profile();
+        ChargingSchedulePeriod activePeriod = limiting.period();
+        return new EffectiveLimit(
+                toWatts(limiting, phaseType, voltageV),
+                activePeriod.getLimit(),
+                profile.getChargingSchedule().getChargingRateUnit(),
+                profile.getChargingProfilePurpose(),
+                profile.getChargingProfileId(),
+                profile.getStackLevel(),
+                activePeriod.getStartPeriod(),
+                getNextPeriodInfo(profile, now)
+        );
+    }
+
+    /**
+     * Recalcule le délai avant la prochaine période d'une limite en cache.
+     */
+    private EffectiveLimit withNextPeriod(ChargingProfileTimeline.Resolved cached, LocalDateTime now) {
+        EffectiveLimit limit = cached.limit();
+        if (limit.nextPeriod() == null) {
+            return limit;
+        }
+        return new EffectiveLimit(limit.limitW(), limit.limitRaw(), limit.unit(), limit.source(),
+                limit.profileId(), limit.stackLevel(), limit.currentPeriodStart(),
+                getNextPeriodInfo(cached.limitingProfile(), now));
+    }
+
+    private double toWatts(ChargingProfileTimeline.Candidate candidate, String phaseType, double voltageV) {
+        return convertToWatts(candidate.period().getLimit(),
+                candidate.profile().getChargingSchedule().getChargingRateUnit(),
+                candidate.period().getNumberPhases(),
+                phaseType,
+                voltageV);
+    }
+
+    // =========================================================================
+    // Timelines
+    // =========================================================================
+
+    private ChargingProfileTimeline getTimeline(String sessionId, int connectorId,
+                                                Supplier<List<ChargingProfile>> profiles, LocalDateTime now) {
+        // Récupérer la map avant de lire les profils : une invalidation concurrente la détache
+        Map<Integer, ChargingProfileTimeline> sessionTimelines =
+                timelines.computeIfAbsent(sessionId, k -> new ConcurrentHashMap<>());
+        // Lecture des profils et compilation sous le verrou de l'entrée : un invalidate()
+        // concurrent du connecteur attend la fin et retire la timeline, jamais l'inverse
+        return sessionTimelines.compute(connectorId, (id, timeline) -> {
+            if (timeline != null && !timeline.isExpired(now)) {
+                return timeline;
+            }
+            ChargingProfileTimeline compiled = compileTimeline(profiles.get(), now);
+            log.debug("[SCP] Timeline compiled: session={}, connector={}, segments={}",
+                    sessionId, connectorId, compiled.size());
+            return compiled;
+        });
+    }
+
+    /**
+     * Invalide la timeline d'un connecteur, ou de toute la session pour le connecteur 0.
+     */
+    public void invalidate(String sessionId, int connectorId) {
+        if (connectorId == 0) {
+            timelines.remove(sessionId);
+            return;
+        }
+        Map<Integer, ChargingProfileTimeline> sessionTimelines = timelines.get(sessionId);
+        if (sessionTimelines != null) {
+            sessionTimelines.remove(connectorId);
+        }
+    }
+
+    public void invalidateAll() {
+        timelines.clear();
+    }
+
+    /**
+     * Compile des profils en segments constants à partir de {@code now}. Chaque
+     * segment est évalué une fois à son début avec les règles de {@link #evaluate}.
+     */
+    ChargingProfileTimeline compileTimeline(List<ChargingProfile> profiles, LocalDateTime now) {
+        if (profiles.isEmpty()) {
+            return new ChargingProfileTimeline(List.of(), null);
+        }
+
+        boolean recurring = profiles.stream()
+                .anyMatch(p -> p.getChargingProfileKind() == ChargingProfileKind.RECURRING);
+        LocalDateTime horizon = recurring ? now.plus(RECURRING_HORIZON) : null;
+
+        NavigableSet<LocalDateTime> breakpoints = new TreeSet<>();
+        breakpoints.add(now);
+        for (ChargingProfile profile : profiles) {
+            addBreakpoints(profile, now, horizon, breakpoints);
+        }
+
+        NavigableSet<LocalDateTime> window = horizon != null
+                ? breakpoints.subSet(now, true, horizon, false)
+                : breakpoints.tailSet(now, true);
+        List<LocalDateTime> points = new ArrayList<>(window);
+
+        List<ChargingProfileTimeline.Segment> segments = new ArrayList<>();
+        for (int i = 0; i < points.size(); i++) {
+            LocalDateTime from = points.get(i);
+            LocalDateTime to = i + 1 < points.size() ? points.get(i + 1) : horizon;
+            List<ChargingProfileTimeline.Candidate> candidates = evaluateCandidates(profiles, from);
+
+            // Fusionner avec le segment précédent si les profils retenus sont identiques
+            if (!segments.isEmpty()) {
+                ChargingProfileTimeline.Segment previous = segments.get(segments.size() - 1);
+                if (sameCandidates(previous.candidates(), candidates)) {
+                    segments.set(segments.size() - 1,
+                            new ChargingProfileTimeline.Segment(previous.from(), to, previous.candidates()));
+                    continue;
+                }
+            }
+            segments.add(new ChargingProfileTimeline.Segment(from, to, candidates));
+        }
+        return new ChargingProfileTimeline(segments, horizon);
+    }
+
+    /**
+     * Instants où l'évaluation d'un profil peut changer. Les fins sont décalées
+     * comme dans {@link #isProfileValid} (isAfter) et {@link #getActivePeriod}
+     * (secondes écoulées tronquées).
+     */
+    private void addBreakpoints(ChargingProfile profile, LocalDateTime now, LocalDateTime horizon,
+                                NavigableSet<LocalDateTime> breakpoints) {
+        if (profile.getValidFrom() != null) {
+            breakpoints.add(profile.getValidFrom());
+        }
+        if (profile.getValidTo() != null) {
+            breakpoints.add(profile.getValidTo().plusNanos(1));
+        }
+
+        ChargingSchedule schedule = profile.getChargingSchedule();
+        if (schedule == null || schedule.getChargingSchedulePeriod() == null) {
+            return;
+        }
+
+        if (profile.getChargingProfileKind() == ChargingProfileKind.RECURRING) {
+            if (schedule.getStartSchedule() == null) {
+                return; // Toujours en première période
+            }
+            Duration recurrence = recurrence(profile);
+            LocalDateTime occurrence = calculateRecurringStart(profile, now);
+            while (occurrence.isBefore(horizon)) {
+                breakpoints.add(occurrence);
+                addScheduleBreakpoints(schedule, occurrence, breakpoints);
+                occurrence = occurrence.plus(recurrence);
+            }
+            return;
+        }
+
+        addScheduleBreakpoints(schedule, getScheduleStartTime(profile, now), breakpoints);
+    }
+
+    private void addScheduleBreakpoints(ChargingSchedule schedule, LocalDateTime scheduleStart,
+                                        NavigableSet<LocalDateTime> breakpoints) {
+        for (ChargingSchedulePeriod period : schedule.getChargingSchedulePeriod()) {
+            breakpoints.add(scheduleStart.plusSeconds(period.getStartPeriod()));
+        }
+        if (schedule.getDuration() != null) {
+            LocalDateTime scheduleEnd = scheduleStart.plusSeconds(schedule.getDuration());
+            breakpoints.add(scheduleEnd.plusNanos(1));
+            breakpoints.add(scheduleEnd.plusSeconds(1));
+        }
+    }
+
+    /**
+     * Profils retenus à un instant : valides, plus haut stackLevel par purpose, avec une période active.
+     */
+    private List<ChargingProfileTimeline.Candidate> evaluateCandidates(List<ChargingProfile> profiles,
+                                                                      LocalDateTime time) {
+        Map<ChargingProfilePurpose, ChargingProfile> highestByPurpose = new EnumMap<>(ChargingProfilePurpose.class);
+        for (ChargingProfile profile : profiles) {
+            if (!isProfileValid(profile, time)) {
+                continue;
+            }
+            ChargingProfile existing = highestByPurpose.get(profile.getChargingProfilePurpose());
+            if (existing == null || profile.getStackLevel() > existing.getStackLevel()) {
+                highestByPurpose.put(profile.getChargingProfilePurpose(), profile);
+            }
+        }
+
+        List<ChargingProfileTimeline.Candidate> candidates = new ArrayList<>(highestByPurpose.size());
+        for (ChargingProfile profile : highestByPurpose.values()) {
+            ChargingSchedulePeriod period = getActivePeriod(profile, time);
+            if (period != null) {
+                candidates.add(new ChargingProfileTimeline.Candidate(profile, period));
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean sameCandidates(List<ChargingProfileTimeline.Candidate> a,
+                                          List<ChargingProfileTimeline.Candidate> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i).profile() != b.get(i).profile() || a.get(i).period() != b.get(i).period()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // =========================================================================
+    // Règles OCPP 1.6
+    // =========================================================================
+
+    /**
+     * Récupère la période active d'un profil.
+     */
+    private ChargingSchedulePeriod getActivePeriod(ChargingProfile profile, LocalDateTime now) {
+        if (profile.getChargingSchedule() == null ||
+                profile.getChargingSchedule().getChargingSchedulePeriod() == null ||
+                profile.getChargingSchedule().getChargingSchedulePeriod().isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime scheduleStart = getScheduleStartTime(profile, now);
+        long elapsedSeconds = Duration.between(scheduleStart, now).getSeconds();
+
+        if (elapsedSeconds < 0) {
+            return null; // Schedule pas encore démarré
+        }
+
+        // Vérifier la durée du schedule
+        Integer duration = profile.getChargingSchedule().getDuration();
+        if (duration != null && elapsedSeconds > duration) {
+            return null; // Schedule terminé
+        }
+
+        // Trouver la période active (la dernière dont startPeriod <= elapsedSeconds)
+        ChargingSchedulePeriod activePeriod = null;
+        for (ChargingSchedulePeriod period : profile.getChargingSchedule().getChargingSchedulePeriod()) {
+            if (period.getStartPeriod() <= elapsedSeconds) {
+                activePeriod = period;
+            } else {
+                break;
+            }
+        }
+
+        return activePeriod;
+    }
+
+    /**
+     * Détermine le temps de début du schedule selon le type de profil.
+     * <p>
+     * Pour les profils ABSOLUTE avec un startSchedule périmé (startSchedule + duration
+     * avant la réception), appliedAt sert de référence : un CSMS qui renvoie un profil
+     * ancien le rafraîchit au lieu de le voir expiré d'emblée.
+     * </p>
+     */
+    LocalDateTime getScheduleStartTime(ChargingProfile profile, LocalDateTime now) {
+        LocalDateTime appliedAt = profile.getAppliedAt();
+        switch (profile.getChargingProfileKind()) {
+            case RELATIVE -> {
+                if (profile.getEffectiveStartTime() != null) {
+                    return profile.getEffectiveStartTime();
+                }
+                return appliedAt != null ? appliedAt : now;
+            }
+            case RECURRING -> {
+                return calculateRecurringStart(profile, now);
+            }
+            default -> {
+                LocalDateTime startSchedule = profile.getChargingSchedule().getStartSchedule();
+                if (startSchedule != null) {
+                    Integer duration = profile.getChargingSchedule().getDuration();
+                    if (duration != null && appliedAt != null
+                            && startSchedule.plusSeconds(duration).isBefore(appliedAt)) {
+                        return appliedAt;
+                    }
+                    return startSchedule;
+                }
+                // Sans startSchedule, le schedule démarre quand le profil devient valide
+                if (profile.getValidFrom() != null) {
+                    return profile.getValidFrom();
+                }
+                return appliedAt != null ? appliedAt : now;
+            }
+        }
+    }
+
+    /**
+     * Calcule le début de l'occurrence courante d'un profil récurrent.
+     */
+    private LocalDateTime calculateRecurringStart(ChargingProfile profile, LocalDateTime now) {
+        LocalDateTime startSchedule = profile.getChargingSchedule().getStartSchedule();
+        if (startSchedule == null) {
+            return now;
+        }
+
+        Duration recurrence = recurrence(profile);
+        Duration sinceStart = Duration.between(startSchedule, now);
+        if (sinceStart.isNegative()) {
+            return startSchedule;
+        }
+
+        long periodsElapsed = sinceStart.toSeconds() / recurrence.toSeconds();
+        return startSchedule.plus(recurrence.multipliedBy(periodsElapsed));
+    }
+
+    private static Duration recurrence(ChargingProfile profile) {
+        return profile.getRecurrencyKind() == RecurrencyKind.DAILY ? Duration.ofDays(1) : Duration.ofDays(7);
+    }
+
+    /**
+     * Vérifie si un profil est valide (dans sa période de validité).
+     */
+    boolean isProfileValid(ChargingProfile profile, LocalDateTime now) {
+        if (profile.getValidFrom() != null && now.isBefore(profile.getValidFrom())) {
+            return false;
+        }
+        if (profile.getValidTo() != null && now.isAfter(profile.getValidTo())) {
+            return false;
+        }
+        // Durée des profils Absolute et Relative
+        LocalDateTime scheduleEnd = getScheduleEndTime(profile);
+        return scheduleEnd == null || !now.isAfter(scheduleEnd);
+    }
+
+    /**
+     * Fin du schedule (début + duration) des profils Absolute et Relative, {@code null} sinon.
+     */
+    LocalDateTime getScheduleEndTime(ChargingProfile profile) {
+        ChargingSchedule schedule = profile.getChargingSchedule();
+        if (profile.getChargingProfileKind() == ChargingProfileKind.RECURRING
+                || schedule == null || schedule.getDuration() == null) {
+            return null;
+        }
+        LocalDateTime scheduleStart = getScheduleStartTime(profile, profile.getAppliedAt());
+        return scheduleStart != null ? scheduleStart.plusSeconds(schedule.getDuration()) : null;
+    }
+
+    /**
+     * Récupère les infos sur la prochaine période.
+     */
+    private NextPeriodInfo getNextPeriodInfo(ChargingProfile profile, LocalDateTime now) {
+        if (profile.getChargingSchedule() == null ||
+                profile.getChargingSchedule().getChargingSchedulePeriod() == null) {
+            return null;
+        }
+
+        LocalDateTime scheduleStart = getScheduleStartTime(profile, now);
+        long elapsedSeconds = Duration.between(scheduleStart, now).getSeconds();
+
+        for (ChargingSchedulePeriod period : profile.getChargingSchedule().getChargingSchedulePeriod()) {
+            if (period.getStartPeriod() > elapsedSeconds) {
+                return new NextPeriodInfo(
+                        period.getStartPeriod(),
+                        period.getLimit(),
+                        (int) (period.getStartPeriod() - elapsedSeconds)
+                );
+            }
+        }
+
+        return null;
+    }
+
+    // =========================================================================
+    // Conversions
+    // =========================================================================
+
+    /**
+     * Convertit une limite en Watts. En AC, {@code numberPhases} de la période prime
+     * sur le type de phase ; une tension supérieure à 300 V est lue comme phase-phase.
+     */
+    static double convertToWatts(double limit, ChargingRateUnit unit,
+                                 Integer numberPhases, String phaseType, double voltageV) {
+        if (unit == ChargingRateUnit.W) {
+            return limit;
+        }
+        if (isDc(phaseType)) {
+            // P = V × I (tension variable selon SoC)
+            return voltageV * limit;
+        }
+        // P = n × V(phase-neutre) × I, cos(φ) ≈ 1
+        int phases = numberPhases != null ? numberPhases : getDefaultPhases(phaseType);
+        return phases * phaseNeutralVoltage(voltageV) * limit;
+    }
+
+    static double convertWattsToAmps(double watts, String phaseType, double voltageV) {
+        if (isDc(phaseType)) {
+            return watts / voltageV;
+        }
+        return watts / (getDefaultPhases(phaseType) * phaseNeutralVoltage(voltageV));
+    }
+
+    private static boolean isDc(String phaseType) {
+        return phaseType != null && phaseType.equalsIgnoreCase("DC");
+    }
+
+    private static double phaseNeutralVoltage(double voltageV) {
+        return voltageV < 300 ? voltageV : voltageV / Math.sqrt(3);
+    }
+
+    private static int getDefaultPhases(String phaseType) {
+        if (phaseType == null) return 3;
+        return switch (phaseType.toUpperCase()) {
+            case "AC_MONO", "AC_1" -> 1;
+            default -> 3;
+        };
+    }
+
+    // =========================================================================
+    // GetCompositeSchedule
+    // =========================================================================
+
+    /**
+     * Calcule le schedule composite (fusionné) d'un connecteur en découpant sa timeline.
+     *
+     * @param duration   Durée demandée en secondes
+     * @param outputUnit Unité de sortie (A ou W)
+     * @return Schedule composite, ou {@code null} sans profil applicable
+     */
+    public CompositeSchedule getCompositeSchedule(String sessionId, int connectorId,
+                                                  Supplier<List<ChargingProfile>> profiles,
+                                                  int duration, ChargingRateUnit outputUnit,
+                                                  String phaseType, double voltageV) {
+        LocalDateTime now = now();
+        ChargingProfileTimeline timeline = getTimeline(sessionId, connectorId, profiles, now);
+
+        if (timeline.isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime end = now.plusSeconds(duration);
+        List<CompositeSchedulePeriod> compositePeriods = new ArrayList<>();
+        double previousLimit = Double.NaN;
+
+        for (ChargingProfileTimeline.Segment segment : timeline.slice(now, end)) {
+            ChargingProfileTimeline.Candidate limiting = limitingCandidate(segment.candidates(), phaseType, voltageV);
+            if (limiting == null) {
+                previousLimit = Double.NaN;
+                continue;
+            }
+
+            double limitW = toWatts(limiting, phaseType, voltageV);
+            double outputLimit = outputUnit == ChargingRateUnit.W ?
+                    limitW :
+                    convertWattsToAmps(limitW, phaseType, voltageV);
+            if (outputLimit == previousLimit) {
+                continue;
+            }
+
+            int startOffset = segment.from().isAfter(now)
+                    ? (int) Duration.between(now, segment.from()).getSeconds()
+                    : 0;
+            compositePeriods.add(new CompositeSchedulePeriod(startOffset, outputLimit));
+            previousLimit = outputLimit;
+        }
+
+        if (compositePeriods.isEmpty()) {
+            return null;
+        }
+
+        return new CompositeSchedule(connectorId, now, duration, outputUnit, compositePeriods);
+    }
+
+    // =========================================================================
+    // DTOs
+    // =========================================================================
+
+    /**
+     * Représente la limite effective calculée.
+     */
+    public record EffectiveLimit(
+            double limitW,
+            double limitRaw,
+            ChargingRateUnit unit,
+            ChargingProfilePurpose source,
+            int profileId,
+            int stackLevel,
+            int currentPeriodStart,
+            NextPeriodInfo nextPeriod
+    ) {
+        public static EffectiveLimit noLimit() {
+            return new EffectiveLimit(Double.MAX_VALUE, 0, ChargingRateUnit.W, null, -1, -1, 0, null);
+        }
+
+        public boolean hasLimit() {
+            return limitW < Double.MAX_VALUE;
+        }
+
+        public double getLimitKw() {
+            return limitW / 1000.0;
+        }
+    }
+
+    /**
+     * Info sur la prochaine période.
+     */
+    public record NextPeriodInfo(
+            int startPeriod,
+            double limit,
+            int secondsUntilStart
+    ) {}
+
+    /**
+     * Schedule composite.
+     */
+    public record CompositeSchedule(
+            int connectorId,
+            LocalDateTime scheduleStart,
+            int duration,
+            ChargingRateUnit chargingRateUnit,
+            List<CompositeSchedulePeriod> chargingSchedulePeriod
+    ) {}
+
+    /**
+     * Période dans le schedule composite.
+     */
+    public record CompositeSchedulePeriod(
+            int startPeriod,
+            double limit
+    ) {}
+}
@@ -79,6 +79,43 @@ public class TNRService implements com.evse.simulator.domain.service.TNRService
         return detail;
     }
 
+    /**
+     * Récupère les métadonnées d'une exécution sans charger ses événements.
+     */
+    public ExecutionMeta getExecutionMeta(String executionId) {
+        ExecutionDetail detail = executions.get(executionId);
+        int eventCount;
+        if (detail != null) {
+            eventCount = detail.events != null ? detail.events.size() : 0;
+        } else {
+            detail = repository.findTNRExecutionById(executionId)
+                    .orElseThrow(() -> new IllegalArgumentException("Execution not found: " + executionId));
+            // Comptage côté stockage : les événements ne sont pas chargés
+            eventCount = (int) repository.countTNRExecutionEvents(executionId);
+        }
+        ExecutionMeta meta = new ExecutionMeta();
+        meta.setId(detail.id);
+        meta.setScenarioName(detail.scenarioName);
+        meta.setExecutedAt(detail.executedAt);
+        meta.setEventCount(eventCount);
+        meta.setSignature(detail.signature);
+        return meta;
+    }
+
+    /**
+     * Récupère une page d'événements d'une exécution (mémoire, puis repository).
+     */
+    public List<TNREvent> getExecutionEvents(String executionId, int offset, int limit) {
+        ExecutionDetail detail = executions.get(executionId);
+        if (detail == null) {
+            return repository.findTNRExecutionEvents(executionId, offset, limit);
+        }
+        if (detail.events == null || offset >= detail.events.size()) {
+            return List.of();
+        }
+        return detail.events.subList(offset, Math.min(detail.events.size(), offset + limit));
+    }
+
     /**
      * Enregistre un événement TNR.
      */
@@ -1,23 +1,29 @@
 package com.evse.simulator.service;
 
 import com.evse.simulator.domain.service.TNRService;
-import com.evse.simulator.model.ExecutionDetail;
+import com.evse.simulator.model.ExecutionMeta;
 import com.evse.simulator.model.TNRDifference;
 import com.evse.simulator.model.TNREvent;
 import com.evse.simulator.model.TnrPlusCompareResult;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.evse.simulator.tnr.diff.EventEditScript;
+import com.evse.simulator.tnr.diff.EventPageSource;
+import com.evse.simulator.tnr.diff.FieldDiff;
+import com.evse.simulator.tnr.diff.JsonPayloadDiffer;
+import com.evse.simulator.tnr.diff.StreamingEventDiff;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.JsonNodeFactory;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.Data;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service de comparaison avancée pour TNR+.
  * Compare deux exécutions TNR et génère un rapport de différences.
+ * <p>
+ * Les événements sont lus page par page depuis TNRService (mémoire, fichier
+ * JSON ou MongoDB) et alignés en flux : la mémoire utilisée ne dépend que de
+ * la fenêtre d'alignement et du nombre de différences conservées.
+ * </p>
  */
 @Service
 public class TnrPlusDiffService {
@@ -38,6 +44,9 @@ public class TnrPlusDiffService {
         private boolean strictOrder = true;   // compare par index
         private boolean allowExtras = true;   // tolère des items en plus
         private double numberTolerance = 0.0; // écarte diffs numériques si |a-b| <= tolérance
+        private int window = StreamingEventDiff.DEFAULT_WINDOW; // fenêtre d'alignement (ordre non strict)
+        private int pageSize = EventPageSource.DEFAULT_PAGE_SIZE;
+        private int maxDifferences = 5000;    // différences détaillées conservées
     }
 
     /**
@@ -49,176 +58,97 @@ public class TnrPlusDiffService {
      * @return résultat de la comparaison
      */
     public TnrPlusCompareResult compare(String baselineId, String currentId, DiffOptions opts) throws Exception {
-        // Récupère les exécutions via TNRService
-        ExecutionDetail a = tnr.getExecution(baselineId);
-        ExecutionDetail b = tnr.getExecution(currentId);
-
-        List<JsonNode> A = normalizeEvents(a.events, opts);
-        List<JsonNode> B = normalizeEvents(b.events, opts);
-
-        List<TNRDifference> diffs = new ArrayList<>();
-        int max = Math.max(A.size(), B.size());
-
-        for (int i = 0; i < max; i++) {
-            JsonNode ea = i < A.size() ? A.get(i) : null;
-            JsonNode eb = i < B.size() ? B.get(i) : null;
-
-            if (ea == null && eb != null) {
-                TNRDifference d = new TNRDifference();
-                d.setEventIndex(i);
-                d.setPath("/");
-                d.setType("extra");
-                d.setExpected(null);
-                d.setActual(mapper.convertValue(eb, Object.class));
-                diffs.add(d);
-                continue;
-            }
-            if (ea != null && eb == null) {
-                TNRDifference d = new TNRDifference();
-                d.setEventIndex(i);
-                d.setPath("/");
-                d.setType("missing");
-                d.setExpected(mapper.convertValue(ea, Object.class));
-                d.setActual(null);
-                diffs.add(d);
-                continue;
-            }
-            // Diff profond champ par champ
-            diffNode(i, "", ea, eb, diffs, opts);
-        }
-
-        boolean signaturesEqual = Objects.equals(a.signature, b.signature);
+        ExecutionMeta a = tnr.getExecutionMeta(baselineId);
+        ExecutionMeta b = tnr.getExecutionMeta(currentId);
+
+        JsonPayloadDiffer differ = new JsonPayloadDiffer(mapper, new HashSet<>(opts.getIgnoreKeys()),
+                opts.getNumberTolerance(), opts.isAllowExtras());
+        // Ordre strict : appariement par index ; sinon alignement Myers fenêtré
+        int window = opts.isStrictOrder() ? 0 : opts.getWindow();
+        StreamingEventDiff<TNREvent> engine = new StreamingEventDiff<>(
+                TnrPlusDiffService::eventKey, differ::diff, window);
+
+        DiffCollector collector = new DiffCollector(opts.getMaxDifferences());
+        StreamingEventDiff.Stats stats = engine.diff(
+                EventPageSource.paged((offset, limit) -> tnr.getExecutionEvents(baselineId, offset, limit),
+                        opts.getPageSize()),
+                EventPageSource.paged((offset, limit) -> tnr.getExecutionEvents(currentId, offset, limit),
+                        opts.getPageSize()),
+                collector);
+
+        boolean signaturesEqual = Objects.equals(a.getSignature(), b.getSignature());
 
         return TnrPlusCompareResult.builder()
                 .baselineId(baselineId)
                 .currentId(currentId)
                 .signatureMatch(signaturesEqual)
-                .totalEventsBaseline(A.size())
-                .totalEventsCurrent(B.size())
-                .differencesCount(diffs.size())
-                .differences(diffs)
+                .totalEventsBaseline((int) stats.baselineCount())
+                .totalEventsCurrent((int) stats.comparedCount())
+                .differencesCount(collector.total)
+                .differences(collector.diffs)
+                .editScript(collector.script.build(stats, window))
                 .build();
     }
 
     /* ------------ Implémentation ------------ */
 
-    private List<JsonNode> normalizeEvents(List<TNREvent> list, DiffOptions opts) {
-        if (list == null) return List.of();
-        return list.stream().map(ev -> {
-            // Map -> JsonNode puis nettoyage des clés ignorées
-            ObjectNode n = mapper.valueToTree(ev);
-            removeKeysDeep(n, new HashSet<>(opts.getIgnoreKeys()));
-            return n;
-        }).collect(Collectors.toList());
+    private static String eventKey(TNREvent ev) {
+        return ev.getType() + ":" + ev.getAction();
     }
 
-    private void removeKeysDeep(ObjectNode obj, Set<String> ignore) {
-        Iterator<String> it = obj.fieldNames();
-        List<String> toRemove = new ArrayList<>();
-        while (it.hasNext()) {
-            String k = it.next();
-            if (ignore.contains(k)) {
-                toRemove.add(k);
-            } else {
-                JsonNode v = obj.get(k);
-                if (v.isObject()) {
-                    removeKeysDeep((ObjectNode) v, ignore);
-                } else if (v.isArray()) {
-                    for (JsonNode e : v) {
-                        if (e.isObject()) {
-                            removeKeysDeep((ObjectNode) e, ignore);
-                        }
-                    }
-                }
-            }
-        }
-        toRemove.forEach(obj::remove);
-    }
+    /**
+     * Traduit le script d'édition en différences TNR+ (plafonnées).
+     */
+    private class DiffCollector implements StreamingEventDiff.Listener<TNREvent> {
 
-    private void diffNode(int idx, String path, JsonNode a, JsonNode b,
-                          List<TNRDifference> out, DiffOptions opts) {
-        if (a == null && b == null) return;
+        private final int max;
+        private final EventEditScript.Collector<TNREvent> script;
+        private final List<TNRDifference> diffs = new ArrayList<>();
+        private int total;
 
-        if (a == null || b == null) {
-            TNRDifference d = new TNRDifference();
-            d.setEventIndex(idx);
-            d.setPath(ptr(path));
-            d.setType(a == null ? "extra" : "missing");
-            d.setExpected(a == null ? null : mapper.convertValue(a, Object.class));
-            d.setActual(b == null ? null : mapper.convertValue(b, Object.class));
-            out.add(d);
-            return;
+        DiffCollector(int max) {
+            this.max = max;
+            this.script = new EventEditScript.Collector<>(TnrPlusDiffService::eventKey, max);
         }
 
-        if (a.isNumber() && b.isNumber() && opts.getNumberTolerance() > 0) {
-            double da = a.asDouble();
-            double db = b.asDouble();
-            if (Math.abs(da - db) <= opts.getNumberTolerance()) return; // ignoré
+        @Override
+        public void onEqual(long baselineIndex, long comparedIndex, int length) {
+            script.onEqual(baselineIndex, comparedIndex, length);
         }
 
-        if (a.getNodeType() != b.getNodeType()) {
-            TNRDifference d = new TNRDifference();
-            d.setEventIndex(idx);
-            d.setPath(ptr(path));
-            d.setType("different");
-            d.setExpected(mapper.convertValue(a, Object.class));
-            d.setActual(mapper.convertValue(b, Object.class));
-            out.add(d);
-            return;
+        @Override
+        public void onModify(long baselineIndex, TNREvent baseline, long comparedIndex, TNREvent compared,
+                             List<FieldDiff> fieldDiffs) {
+            script.onModify(baselineIndex, baseline, comparedIndex, compared, fieldDiffs);
+            for (FieldDiff f : fieldDiffs) {
+                add((int) baselineIndex, f.path(), f.kind(), f.expected(), f.actual());
+            }
         }
 
-        switch (a.getNodeType()) {
-            case OBJECT -> {
-                Set<String> keys = new TreeSet<>();
-                a.fieldNames().forEachRemaining(keys::add);
-                b.fieldNames().forEachRemaining(keys::add);
-                for (String k : keys) {
-                    diffNode(idx, path + "/" + escape(k),
-                            a.get(k) == null ? JsonNodeFactory.instance.nullNode() : a.get(k),
-                            b.get(k) == null ? JsonNodeFactory.instance.nullNode() : b.get(k),
-                            out, opts);
-                }
-            }
-            case ARRAY -> {
-                int sizeA = a.size(), sizeB = b.size();
-                int n = Math.max(sizeA, sizeB);
-                for (int i = 0; i < n; i++) {
-                    JsonNode ea = i < sizeA ? a.get(i) : null;
-                    JsonNode eb = i < sizeB ? b.get(i) : null;
-                    if (ea == null || eb == null) {
-                        if (!opts.isAllowExtras()) {
-                            TNRDifference d = new TNRDifference();
-                            d.setEventIndex(idx);
-                            d.setPath(ptr(path + "/" + i));
-                            d.setType(ea == null ? "extra" : "missing");
-                            d.setExpected(ea == null ? null : mapper.convertValue(ea, Object.class));
-                            d.setActual(eb == null ? null : mapper.convertValue(eb, Object.class));
-                            out.add(d);
-                        }
-                        continue;
-                    }
-                    diffNode(idx, path + "/" + i, ea, eb, out, opts);
-                }
-            }
-            default -> {
-                if (!a.equals(b)) {
-                    TNRDifference d = new TNRDifference();
-                    d.setEventIndex(idx);
-                    d.setPath(ptr(path));
-                    d.setType("different");
-                    d.setExpected(mapper.convertValue(a, Object.class));
-                    d.setActual(mapper.convertValue(b, Object.class));
-                    out.add(d);
-                }
-            }
+        @Override
+        public void onDelete(long baselineIndex, TNREvent baseline) {
+            script.onDelete(baselineIndex, baseline);
+            add((int) baselineIndex, "/", "missing", mapper.convertValue(baseline, Object.class), null);
         }
-    }
 
-    private String ptr(String p) {
-        return p.isEmpty() ? "/" : p;
-    }
+        @Override
+        public void onInsert(long comparedIndex, TNREvent compared) {
+            script.onInsert(comparedIndex, compared);
+            add((int) comparedIndex, "/", "extra", null, mapper.convertValue(compared, Object.class));
+        }
 
-    private String escape(String s) {
-        return s.replace("~", "~0").replace("/", "~1");
+        private void add(int index, String path, String type, Object expected, Object actual) {
+            total++;
+            if (diffs.size() >= max) {
+                return;
+            }
+            TNRDifference d = new TNRDifference();
+            d.setEventIndex(index);
+            d.setPath(path);
+            d.setType(type);
+            d.setExpected(expected);
+            d.setActual(actual);
+            diffs.add(d);
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,41 @@
 package com.evse.simulator.service;
 
 import com.evse.simulator.model.*;
-import lombok.RequiredArgsConstructor;
+import com.evse.simulator.websocket.broadcast.BroadcastCoalescer;
+import com.evse.simulator.websocket.broadcast.SessionDelta;
+import com.evse.simulator.websocket.broadcast.SessionStreamRouter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import java.util.concurrent.Executor;
-
 /**
  * Service de diffusion WebSocket via STOMP.
  * <p>
  * Gère la diffusion temps réel des mises à jour vers les clients connectés.
+ * Les mises à jour passent par le {@link BroadcastCoalescer} : elles sont
+ * fusionnées par trame (la dernière gagne pour une session), les sessions
+ * sont envoyées en deltas par champ et les destinations sans abonné ne sont
+ * pas sérialisées. Les sessions sont aussi diffusées dans les fenêtres
+ * paginées {@code /topic/sessions-viewport/{clé}} (voir {@link SessionStreamRouter}).
  * </p>
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class WebSocketBroadcaster implements com.evse.simulator.domain.service.BroadcastService {
 
     private final SimpMessagingTemplate messagingTemplate;
 
-    @Qualifier("websocketExecutor")
-    private final Executor websocketExecutor;
+    private final BroadcastCoalescer coalescer;
+
+    private final SessionStreamRouter sessionRouter;
+
+    public WebSocketBroadcaster(SimpMessagingTemplate messagingTemplate,
+                                BroadcastCoalescer coalescer,
+                                SessionStreamRouter sessionRouter) {
+        this.messagingTemplate = messagingTemplate;
+        this.coalescer = coalescer;
+        this.sessionRouter = sessionRouter;
+    }
 
     // =========================================================================
     // Destinations STOMP
@@ -39,23 +50,27 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
     private static final String TOPIC_ALL_SESSIONS = "/topic/sessions";
     private static final String TOPIC_ML_ANOMALY = "/topic/ml/anomalies";
 
+    // Motifs des topics pour les compteurs du coalesceur
+    private static final String KEY_SESSION = "/topic/sessions/{id}";
+    private static final String KEY_SESSION_LOGS = "/topic/sessions/{id}/logs";
+    private static final String KEY_SESSION_CHART = "/topic/sessions/{id}/chart";
+    private static final String KEY_SESSION_OCPP = "/topic/sessions/{id}/ocpp";
+
     // =========================================================================
     // Diffusion des sessions
     // =========================================================================
 
     /**
      * Diffuse une mise à jour de session.
+     * <p>
+     * Fusionnée par trame ; envoyée en {@link SessionDelta} si
+     * {@code broadcast.session-deltas} est actif, sinon en session complète.
+     * </p>
      *
      * @param session la session mise à jour
      */
-    @Async("websocketExecutor")
     public void broadcastSession(Session session) {
-        try {
-            messagingTemplate.convertAndSend(TOPIC_SESSION + session.getId(), session);
-            log.trace("Broadcast session update: {}", session.getId());
-        } catch (Exception e) {
-            log.error("Failed to broadcast session {}: {}", session.getId(), e.getMessage());
-        }
+        coalescer.submitLatest(KEY_SESSION, TOPIC_SESSION + session.getId(), session, sessionRouter);
     }
 
     /**
@@ -63,14 +78,19 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      *
      * @param sessions liste des sessions
      */
-    @Async("websocketExecutor")
     public void broadcastAllSessions(java.util.List<Session> sessions) {
-        try {
-            messagingTemplate.convertAndSend(TOPIC_ALL_SESSIONS, sessions);
-            log.trace("Broadcast all sessions: {} sessions", sessions.size());
-        } catch (Exception e) {
-            log.error("Failed to broadcast all sessions: {}", e.getMessage());
-        }
+        coalescer.submitLatest(TOPIC_ALL_SESSIONS, TOPIC_ALL_SESSIONS, sessions);
+    }
+
+    /**
+     * Oublie l'état diffusé d'une session supprimée.
+     *
+     * @param sessionId ID de la session
+     */
+    @Override
+    public void forgetSession(String sessionId) {
+        sessionRouter.forget(sessionId);
+        coalescer.forget(TOPIC_SESSION + sessionId);
     }
 
     /**
@@ -79,15 +99,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      * @param sessionId ID de la session
      * @param log entrée de log
      */
-    @Async("websocketExecutor")
     public void broadcastLog(String sessionId, LogEntry log) {
-        try {
-            String destination = String.format(TOPIC_SESSION_LOGS, sessionId);
-            messagingTemplate.convertAndSend(destination, log);
-        } catch (Exception e) {
-            WebSocketBroadcaster.log.error("Failed to broadcast log for session {}: {}",
-                    sessionId, e.getMessage());
-        }
+        coalescer.submitQueued(KEY_SESSION_LOGS, String.format(TOPIC_SESSION_LOGS, sessionId), log);
     }
 
     /**
@@ -96,15 +109,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      * @param sessionId ID de la session
      * @param chartData données du graphique
      */
-    @Async("websocketExecutor")
     public void broadcastChartData(String sessionId, ChartData chartData) {
-        try {
-            String destination = String.format(TOPIC_SESSION_CHART, sessionId);
-            messagingTemplate.convertAndSend(destination, chartData);
-        } catch (Exception e) {
-            log.error("Failed to broadcast chart data for session {}: {}",
-                    sessionId, e.getMessage());
-        }
+        coalescer.submitQueued(KEY_SESSION_CHART, String.format(TOPIC_SESSION_CHART, sessionId), chartData);
     }
 
     /**
@@ -113,15 +119,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      * @param sessionId ID de la session
      * @param message message OCPP
      */
-    @Async("websocketExecutor")
     public void broadcastOcppMessage(String sessionId, OCPPMessage message) {
-        try {
-            String destination = String.format(TOPIC_SESSION_OCPP, sessionId);
-            messagingTemplate.convertAndSend(destination, message);
-        } catch (Exception e) {
-            log.error("Failed to broadcast OCPP message for session {}: {}",
-                    sessionId, e.getMessage());
-        }
+        coalescer.submitQueued(KEY_SESSION_OCPP, String.format(TOPIC_SESSION_OCPP, sessionId), message);
     }
 
     // =========================================================================
@@ -133,14 +132,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      *
      * @param metrics métriques de performance
      */
-    @Async("websocketExecutor")
     public void broadcastMetrics(PerformanceMetrics metrics) {
-        try {
-            messagingTemplate.convertAndSend(TOPIC_METRICS, metrics);
-            log.trace("Broadcast metrics");
-        } catch (Exception e) {
-            log.error("Failed to broadcast metrics: {}", e.getMessage());
-        }
+        coalescer.submitLatest(TOPIC_METRICS, TOPIC_METRICS, metrics);
     }
 
     /**
@@ -148,13 +141,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      *
      * @param stats statistiques
      */
-    @Async("websocketExecutor")
     public void broadcastPerformanceStats(Object stats) {
-        try {
-            messagingTemplate.convertAndSend(TOPIC_PERFORMANCE, stats);
-        } catch (Exception e) {
-            log.error("Failed to broadcast performance stats: {}", e.getMessage());
-        }
+        coalescer.submitLatest(TOPIC_PERFORMANCE, TOPIC_PERFORMANCE, stats);
     }
 
     // =========================================================================
@@ -166,14 +154,8 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      *
      * @param anomaly données de l'anomalie
      */
-    @Async("websocketExecutor")
     public void broadcastMLAnomaly(Object anomaly) {
-        try {
-            messagingTemplate.convertAndSend(TOPIC_ML_ANOMALY, anomaly);
-            log.debug("Broadcast ML anomaly");
-        } catch (Exception e) {
-            log.error("Failed to broadcast ML anomaly: {}", e.getMessage());
-        }
+        coalescer.submitQueued(TOPIC_ML_ANOMALY, TOPIC_ML_ANOMALY, anomaly);
     }
 
     /**
@@ -181,7 +163,6 @@ public class WebSocketBroadcaster implements com.evse.simulator.domain.service.B
      *
      * @param anomalies liste des anomalies
      */
-    @Async("websocketExecutor")
     public void broadcastMLAnomalies(java.util.List<?> anomalies) {
         anomalies.forEach(this::broadcastMLAnomaly);
     }
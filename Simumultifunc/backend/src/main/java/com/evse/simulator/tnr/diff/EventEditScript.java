@@ -0,0 +1,143 @@
+package com.evse.simulator.tnr.diff;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Script d'édition compact entre deux exécutions.
+ * <p>
+ * Les suites d'événements identiques sont encodées en une seule opération
+ * EQUAL (index de départ + longueur). Seules les opérations MODIFY portent
+ * les différences de champs. Le nombre d'opérations conservées est plafonné,
+ * les compteurs restent exacts.
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventEditScript {
+
+    public enum OpType {
+        EQUAL,
+        MODIFY,
+        DELETE,
+        INSERT
+    }
+
+    @Builder.Default
+    private List<EditOp> ops = new ArrayList<>();
+    private long baselineCount;
+    private long comparedCount;
+    private long equalCount;
+    private long modifiedCount;
+    private long deletedCount;
+    private long insertedCount;
+    private long editDistance;
+    private int windowSize;
+    private int windows;
+    private boolean truncated;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EditOp {
+        private OpType type;
+        private long baselineIndex;
+        private long comparedIndex;
+        private int length;
+        private String key;
+        private List<FieldDiff> fieldDiffs;
+    }
+
+    /**
+     * Listener qui construit le script en plafonnant les opérations conservées.
+     *
+     * @param <T> type d'événement
+     */
+    public static class Collector<T> implements StreamingEventDiff.Listener<T> {
+
+        private final Function<T, String> keyFunction;
+        private final int maxOps;
+        private final EventEditScript script = new EventEditScript();
+
+        public Collector(Function<T, String> keyFunction, int maxOps) {
+            this.keyFunction = keyFunction;
+            this.maxOps = maxOps;
+            this.script.ops = new ArrayList<>();
+        }
+
+        @Override
+        public void onEqual(long baselineIndex, long comparedIndex, int length) {
+            add(EditOp.builder()
+                    .type(OpType.EQUAL)
+                    .baselineIndex(baselineIndex)
+                    .comparedIndex(comparedIndex)
+                    .length(length)
+                    .build());
+        }
+
+        @Override
+        public void onModify(long baselineIndex, T baseline, long comparedIndex, T compared,
+                             List<FieldDiff> fieldDiffs) {
+            add(EditOp.builder()
+                    .type(OpType.MODIFY)
+                    .baselineIndex(baselineIndex)
+                    .comparedIndex(comparedIndex)
+                    .length(1)
+                    .key(keyFunction.apply(baseline))
+                    .fieldDiffs(fieldDiffs)
+                    .build());
+        }
+
+        @Override
+        public void onDelete(long baselineIndex, T baseline) {
+            add(EditOp.builder()
+                    .type(OpType.DELETE)
+                    .baselineIndex(baselineIndex)
+                    .comparedIndex(-1)
+                    .length(1)
+                    .key(keyFunction.apply(baseline))
+                    .build());
+        }
+
+        @Override
+        public void onInsert(long comparedIndex, T compared) {
+            add(EditOp.builder()
+                    .type(OpType.INSERT)
+                    .baselineIndex(-1)
+                    .comparedIndex(comparedIndex)
+                    .length(1)
+                    .key(keyFunction.apply(compared))
+                    .build());
+        }
+
+        private void add(EditOp op) {
+            if (script.ops.size() < maxOps) {
+                script.ops.add(op);
+            } else {
+                script.truncated = true;
+            }
+        }
+
+        /**
+         * Finalise le script avec les statistiques du diff.
+         */
+        public EventEditScript build(StreamingEventDiff.Stats stats, int windowSize) {
+            script.baselineCount = stats.baselineCount();
+            script.comparedCount = stats.comparedCount();
+            script.equalCount = stats.equalCount();
+            script.modifiedCount = stats.modifiedCount();
+            script.deletedCount = stats.deletedCount();
+            script.insertedCount = stats.insertedCount();
+            script.editDistance = stats.editDistance();
+            script.windowSize = windowSize;
+            script.windows = stats.windows();
+            return script;
+        }
+    }
+}
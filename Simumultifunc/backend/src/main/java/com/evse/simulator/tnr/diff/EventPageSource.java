@@ -0,0 +1,89 @@
+package com.evse.simulator.tnr.diff;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Source d'événements lue page par page.
+ * <p>
+ * Permet au moteur de diff de parcourir une exécution stockée (fichier JSON,
+ * MongoDB, mémoire) sans jamais la charger entièrement.
+ * Une page vide signale la fin de la source.
+ * </p>
+ *
+ * @param <T> type d'événement
+ */
+@FunctionalInterface
+public interface EventPageSource<T> {
+
+    /**
+     * Taille de page par défaut.
+     */
+    int DEFAULT_PAGE_SIZE = 500;
+
+    /**
+     * Récupère la page suivante.
+     *
+     * @return événements suivants, liste vide en fin de source
+     */
+    List<T> nextPage();
+
+    /**
+     * Lecture paginée par offset (repository).
+     *
+     * @param <T> type d'événement
+     */
+    @FunctionalInterface
+    interface Pager<T> {
+        List<T> fetch(int offset, int limit);
+    }
+
+    /**
+     * Crée une source à partir d'un accès paginé (offset, limit).
+     */
+    static <T> EventPageSource<T> paged(Pager<T> pager, int pageSize) {
+        int[] offset = {0};
+        boolean[] exhausted = {false};
+        return () -> {
+            if (exhausted[0]) {
+                return List.of();
+            }
+            List<T> page = pager.fetch(offset[0], pageSize);
+            if (page == null || page.isEmpty()) {
+                exhausted[0] = true;
+                return List.of();
+            }
+            offset[0] += page.size();
+            if (page.size() < pageSize) {
+                exhausted[0] = true;
+            }
+            return page;
+        };
+    }
+
+    /**
+     * Crée une source à partir d'une liste déjà en mémoire (vues, pas de copie).
+     */
+    static <T> EventPageSource<T> ofList(List<T> events, int pageSize) {
+        if (events == null) {
+            return List::of;
+        }
+        return paged((offset, limit) -> offset >= events.size()
+                ? List.of()
+                : events.subList(offset, Math.min(events.size(), offset + limit)), pageSize);
+    }
+
+    /**
+     * Crée une source à partir d'un itérateur (flux filtré, curseur...).
+     */
+    static <T> EventPageSource<T> ofIterator(Iterator<T> iterator, int pageSize) {
+        return () -> {
+            List<T> page = new ArrayList<>(pageSize);
+            while (page.size() < pageSize && iterator.hasNext()) {
+                page.add(iterator.next());
+            }
+            return page;
+        };
+    }
+}
@@ -0,0 +1,16 @@
+package com.evse.simulator.tnr.diff;
+
+/**
+ * Différence sur un champ du payload JSON de deux événements appariés.
+ *
+ * @param path     chemin JSON Pointer du champ (ex: /meterValue/0/sampledValue/0/value)
+ * @param kind     type de différence : missing, extra, different
+ * @param expected valeur de la baseline
+ * @param actual   valeur comparée
+ */
+public record FieldDiff(
+        String path,
+        String kind,
+        Object expected,
+        Object actual
+) {}
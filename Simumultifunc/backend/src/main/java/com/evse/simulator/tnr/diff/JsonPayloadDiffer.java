@@ -0,0 +1,134 @@
+package com.evse.simulator.tnr.diff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Diff champ par champ entre deux payloads JSON.
+ * <p>
+ * Les clés ignorées sont écartées pendant le parcours (pas de copie du payload),
+ * les nombres peuvent être comparés avec une tolérance.
+ * </p>
+ */
+public class JsonPayloadDiffer {
+
+    private final ObjectMapper mapper;
+    private final Set<String> ignoreKeys;
+    private final double numberTolerance;
+    private final boolean allowExtras;
+
+    /**
+     * @param mapper          mapper utilisé pour convertir les valeurs rapportées
+     * @param ignoreKeys      clés ignorées à toute profondeur
+     * @param numberTolerance écart numérique toléré (0 = égalité stricte)
+     * @param allowExtras     tolère les éléments de tableau en plus/en moins
+     */
+    public JsonPayloadDiffer(ObjectMapper mapper, Set<String> ignoreKeys,
+                             double numberTolerance, boolean allowExtras) {
+        this.mapper = mapper;
+        this.ignoreKeys = ignoreKeys != null ? ignoreKeys : Set.of();
+        this.numberTolerance = numberTolerance;
+        this.allowExtras = allowExtras;
+    }
+
+    /**
+     * Compare deux valeurs quelconques (Map, POJO, JsonNode).
+     */
+    public List<FieldDiff> diff(Object expected, Object actual) {
+        if (expected == null && actual == null) {
+            return List.of();
+        }
+        return diff(toNode(expected), toNode(actual));
+    }
+
+    /**
+     * Compare deux nœuds JSON.
+     */
+    public List<FieldDiff> diff(JsonNode expected, JsonNode actual) {
+        List<FieldDiff> out = new ArrayList<>();
+        diffNode("", expected, actual, out);
+        return out;
+    }
+
+    private JsonNode toNode(Object value) {
+        if (value == null) {
+            return JsonNodeFactory.instance.nullNode();
+        }
+        if (value instanceof JsonNode node) {
+            return node;
+        }
+        return mapper.valueToTree(value);
+    }
+
+    private void diffNode(String path, JsonNode a, JsonNode b, List<FieldDiff> out) {
+        if (a == null && b == null) return;
+
+        if (a == null || b == null) {
+            out.add(new FieldDiff(ptr(path), a == null ? "extra" : "missing", value(a), value(b)));
+            return;
+        }
+
+        if (a.isNumber() && b.isNumber() && numberTolerance > 0) {
+            if (Math.abs(a.asDouble() - b.asDouble()) <= numberTolerance) return;
+        }
+
+        if (a.getNodeType() != b.getNodeType()) {
+            out.add(new FieldDiff(ptr(path), "different", value(a), value(b)));
+            return;
+        }
+
+        switch (a.getNodeType()) {
+            case OBJECT -> {
+                Set<String> keys = new TreeSet<>();
+                a.fieldNames().forEachRemaining(keys::add);
+                b.fieldNames().forEachRemaining(keys::add);
+                for (String k : keys) {
+                    if (ignoreKeys.contains(k)) continue;
+                    diffNode(path + "/" + escape(k),
+                            a.get(k) == null ? JsonNodeFactory.instance.nullNode() : a.get(k),
+                            b.get(k) == null ? JsonNodeFactory.instance.nullNode() : b.get(k),
+                            out);
+                }
+            }
+            case ARRAY -> {
+                int sizeA = a.size(), sizeB = b.size();
+                int n = Math.max(sizeA, sizeB);
+                for (int i = 0; i < n; i++) {
+                    JsonNode ea = i < sizeA ? a.get(i) : null;
+                    JsonNode eb = i < sizeB ? b.get(i) : null;
+                    if (ea == null || eb == null) {
+                        if (!allowExtras) {
+                            out.add(new FieldDiff(ptr(path + "/" + i), ea == null ? "extra" : "missing",
+                                    value(ea), value(eb)));
+                        }
+                        continue;
+                    }
+                    diffNode(path + "/" + i, ea, eb, out);
+                }
+            }
+            default -> {
+                if (!a.equals(b)) {
+                    out.add(new FieldDiff(ptr(path), "different", value(a), value(b)));
+                }
+            }
+        }
+    }
+
+    private Object value(JsonNode node) {
+        return node == null ? null : mapper.convertValue(node, Object.class);
+    }
+
+    private String ptr(String p) {
+        return p.isEmpty() ? "/" : p;
+    }
+
+    private String escape(String s) {
+        return s.replace("~", "~0").replace("/", "~1");
+    }
+}
@@ -0,0 +1,497 @@
+package com.evse.simulator.tnr.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Moteur de diff en flux entre deux séquences d'événements.
+ * <p>
+ * Aligne les événements sur leur clé (type:action) avec l'algorithme de Myers,
+ * appliqué sur une fenêtre glissante : seule la fenêtre courante des deux
+ * sources est en mémoire, quelle que soit la taille des enregistrements.
+ * Les paires alignées sont ensuite comparées champ par champ.
+ * </p>
+ * <p>
+ * Après chaque fenêtre, le script est validé jusqu'au dernier événement
+ * aligné ; la queue non alignée est reprise dans la fenêtre suivante.
+ * Un bloc de changements plus grand que la fenêtre est donc rapporté comme
+ * suppressions + insertions au lieu d'être réaligné.
+ * </p>
+ * <p>
+ * Avec une fenêtre de 0, les événements sont appariés par index (ordre strict).
+ * </p>
+ *
+ * @param <T> type d'événement
+ */
+public class StreamingEventDiff<T> {
+
+    /**
+     * Taille de fenêtre d'alignement par défaut (événements par source).
+     */
+    public static final int DEFAULT_WINDOW = 1024;
+
+    private static final byte OP_EQUAL = 0;
+    private static final byte OP_DELETE = 1;
+    private static final byte OP_INSERT = 2;
+
+    /**
+     * Récepteur du script d'édition, appelé dans l'ordre des séquences.
+     */
+    public interface Listener<T> {
+
+        /** Suite d'événements identiques (clé et payload). */
+        void onEqual(long baselineIndex, long comparedIndex, int length);
+
+        /** Événements alignés dont le payload diffère. */
+        void onModify(long baselineIndex, T baseline, long comparedIndex, T compared, List<FieldDiff> fieldDiffs);
+
+        /** Événement de la baseline absent de l'exécution comparée. */
+        void onDelete(long baselineIndex, T baseline);
+
+        /** Événement en plus dans l'exécution comparée. */
+        void onInsert(long comparedIndex, T compared);
+    }
+
+    /**
+     * Statistiques d'un diff.
+     *
+     * @param editDistance distance d'édition sur les clés (substitution = 1)
+     */
+    public record Stats(
+            long baselineCount,
+            long comparedCount,
+            long equalCount,
+            long modifiedCount,
+            long deletedCount,
+            long insertedCount,
+            long editDistance,
+            int windows
+    ) {
+        /**
+         * Similarité (0-100) dérivée de la distance d'édition.
+         */
+        public double similarityPercent() {
+            long max = Math.max(baselineCount, comparedCount);
+            if (max == 0) return 100;
+            return (1.0 - (double) editDistance / max) * 100;
+        }
+    }
+
+    private final Function<T, String> keyFunction;
+    private final BiFunction<T, T, List<FieldDiff>> payloadDiffer;
+    private final int window;
+
+    /**
+     * @param keyFunction   clé d'alignement d'un événement
+     * @param payloadDiffer différences de champs entre deux événements alignés (vide = identiques)
+     * @param window        taille de fenêtre, 0 pour un appariement par index
+     */
+    public StreamingEventDiff(Function<T, String> keyFunction,
+                              BiFunction<T, T, List<FieldDiff>> payloadDiffer,
+                              int window) {
+        if (window < 0) {
+            throw new IllegalArgumentException("window must be >= 0: " + window);
+        }
+        this.keyFunction = keyFunction;
+        this.payloadDiffer = payloadDiffer;
+        this.window = window;
+    }
+
+    /**
+     * Compare deux sources et pousse le script d'édition vers le listener.
+     *
+     * @return statistiques du diff
+     */
+    public Stats diff(EventPageSource<T> baseline, EventPageSource<T> compared, Listener<T> listener) {
+        Emitter<T> emitter = new Emitter<>(listener, payloadDiffer);
+        Map<String, Integer> keyCodes = new HashMap<>();
+        Buffer<T> a = new Buffer<>(baseline);
+        Buffer<T> b = new Buffer<>(compared);
+        int windows = 0;
+
+        if (window == 0) {
+            windows = diffByIndex(a, b, emitter);
+        } else {
+            while (true) {
+                a.fill(window, keyFunction, keyCodes);
+                b.fill(window, keyFunction, keyCodes);
+                if (a.size == 0 && b.size == 0) {
+                    break;
+                }
+                windows++;
+                diffWindow(a, b, emitter);
+            }
+        }
+        emitter.flush();
+
+        return new Stats(a.offset, b.offset, emitter.equal, emitter.modified,
+                emitter.deleted, emitter.inserted, emitter.distance, windows);
+    }
+
+    /**
+     * Appariement strict par index.
+     */
+    private int diffByIndex(Buffer<T> a, Buffer<T> b, Emitter<T> emitter) {
+        int pages = 0;
+        int pageSize = EventPageSource.DEFAULT_PAGE_SIZE;
+        while (true) {
+            a.fill(pageSize, null, null);
+            b.fill(pageSize, null, null);
+            if (a.size == 0 && b.size == 0) {
+                return pages;
+            }
+            pages++;
+            int n = Math.min(a.size, pageSize);
+            int m = Math.min(b.size, pageSize);
+            int common = Math.min(n, m);
+            for (int i = 0; i < common; i++) {
+                String keyA = keyFunction.apply(a.get(i));
+                String keyB = keyFunction.apply(b.get(i));
+                emitter.pair(a.offset + i, a.get(i), b.offset + i, b.get(i),
+                        Objects.equals(keyA, keyB) ? null : new FieldDiff("/", "different", keyA, keyB));
+            }
+            // Queue : uniquement quand l'autre source est épuisée
+            int consumeA = common;
+            int consumeB = common;
+            if (b.exhausted && b.size == common) {
+                for (int i = common; i < n; i++) {
+                    emitter.delete(a.offset + i, a.get(i));
+                }
+                consumeA = n;
+            }
+            if (a.exhausted && a.size == common) {
+                for (int j = common; j < m; j++) {
+                    emitter.insert(b.offset + j, b.get(j));
+                }
+                consumeB = m;
+            }
+            a.drop(consumeA);
+            b.drop(consumeB);
+        }
+    }
+
+    /**
+     * Aligne la fenêtre courante et valide le script jusqu'au dernier ancrage.
+     */
+    private void diffWindow(Buffer<T> a, Buffer<T> b, Emitter<T> emitter) {
+        int n = Math.min(a.size, window);
+        int m = Math.min(b.size, window);
+        boolean last = a.exhausted && b.exhausted && a.size <= window && b.size <= window;
+
+        // Préfixe commun : cas nominal de deux exécutions identiques, sans Myers
+        int prefix = 0;
+        while (prefix < n && prefix < m && a.codes[prefix] == b.codes[prefix]) {
+            prefix++;
+        }
+
+        OpList ops = new OpList(n + m);
+        for (int i = 0; i < prefix; i++) {
+            ops.add(OP_EQUAL, i, i);
+        }
+        if (!myers(a.codes, prefix, n, b.codes, prefix, m, ops)) {
+            // Fenêtre sans alignement exploitable : tout est remplacé
+            for (int i = prefix; i < n; i++) ops.add(OP_DELETE, i, -1);
+            for (int j = prefix; j < m; j++) ops.add(OP_INSERT, -1, j);
+        }
+
+        int commit = ops.size;
+        if (!last) {
+            int lastEqual = ops.lastIndexOf(OP_EQUAL);
+            if (lastEqual >= 0) {
+                commit = lastEqual + 1;
+            }
+        }
+
+        int consumedA = 0;
+        int consumedB = 0;
+        for (int k = 0; k < commit; k++) {
+            int i = ops.a[k];
+            int j = ops.b[k];
+            switch (ops.type[k]) {
+                case OP_EQUAL -> {
+                    emitter.pair(a.offset + i, a.get(i), b.offset + j, b.get(j), null);
+                    consumedA++;
+                    consumedB++;
+                }
+                case OP_DELETE -> {
+                    emitter.delete(a.offset + i, a.get(i));
+                    consumedA++;
+                }
+                default -> {
+                    emitter.insert(b.offset + j, b.get(j));
+                    consumedB++;
+                }
+            }
+        }
+        a.drop(consumedA);
+        b.drop(consumedB);
+    }
+
+    /**
+     * Myers O((N+M)D) sur a[aFrom..aTo) et b[bFrom..bTo).
+     * La trace ne conserve que les diagonales atteintes (somme des 2d+1),
+     * bornée par le plafond de distance égal à la fenêtre.
+     *
+     * @return false si la distance dépasse le plafond
+     */
+    private boolean myers(int[] a, int aFrom, int aTo, int[] b, int bFrom, int bTo, OpList out) {
+        int n = aTo - aFrom;
+        int m = bTo - bFrom;
+        if (n == 0 && m == 0) {
+            return true;
+        }
+        int maxD = Math.min(n + m, window);
+        List<int[]> trace = new ArrayList<>();
+        boolean found = false;
+
+        for (int d = 0; d <= maxD && !found; d++) {
+            int[] v = new int[2 * d + 1];
+            int[] prev = d > 0 ? trace.get(d - 1) : null;
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (d == 0) {
+                    x = 0;
+                } else if (k == -d || (k != d && prev[k - 1 + d - 1] < prev[k + 1 + d - 1])) {
+                    x = prev[k + 1 + d - 1];
+                } else {
+                    x = prev[k - 1 + d - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && a[aFrom + x] == b[bFrom + y]) {
+                    x++;
+                    y++;
+                }
+                v[k + d] = x;
+                if (x >= n && y >= m) {
+                    found = true;
+                    break;
+                }
+            }
+            trace.add(v);
+        }
+        if (!found) {
+            return false;
+        }
+
+        // Remontée de la trace (ordre inverse)
+        OpList reversed = new OpList(n + m);
+        int x = n;
+        int y = m;
+        for (int d = trace.size() - 1; d > 0; d--) {
+            int[] prev = trace.get(d - 1);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && prev[k - 1 + d - 1] < prev[k + 1 + d - 1])) ? k + 1 : k - 1;
+            int prevX = prev[prevK + d - 1];
+            int prevY = prevX - prevK;
+            while (x > prevX && y > prevY) {
+                reversed.add(OP_EQUAL, aFrom + x - 1, bFrom + y - 1);
+                x--;
+                y--;
+            }
+            if (x == prevX) {
+                reversed.add(OP_INSERT, -1, bFrom + prevY);
+            } else {
+                reversed.add(OP_DELETE, aFrom + prevX, -1);
+            }
+            x = prevX;
+            y = prevY;
+        }
+        while (x > 0 && y > 0) {
+            reversed.add(OP_EQUAL, aFrom + x - 1, bFrom + y - 1);
+            x--;
+            y--;
+        }
+        for (int k = reversed.size - 1; k >= 0; k--) {
+            out.add(reversed.type[k], reversed.a[k], reversed.b[k]);
+        }
+        return true;
+    }
+
+    // =========================================================================
+    // Structures internes
+    // =========================================================================
+
+    /**
+     * Fenêtre de lecture d'une source, avec les codes de clés associés.
+     */
+    private static final class Buffer<T> {
+        private final EventPageSource<T> source;
+        private final List<T> items = new ArrayList<>();
+        private int[] codes = new int[0];
+        private int codedCount;
+        private int size;
+        private long offset;
+        private boolean exhausted;
+
+        Buffer(EventPageSource<T> source) {
+            this.source = source;
+        }
+
+        T get(int i) {
+            return items.get(i);
+        }
+
+        void fill(int target, Function<T, String> keyFunction, Map<String, Integer> keyCodes) {
+            while (size < target && !exhausted) {
+                List<T> page = source.nextPage();
+                if (page == null || page.isEmpty()) {
+                    exhausted = true;
+                    break;
+                }
+                items.addAll(page);
+                size = items.size();
+            }
+            if (keyFunction != null) {
+                if (codes.length < size) {
+                    int[] grown = new int[Math.max(size, codes.length * 2)];
+                    System.arraycopy(codes, 0, grown, 0, codes.length);
+                    codes = grown;
+                }
+                for (int i = codedCount; i < size; i++) {
+                    codes[i] = keyCodes.computeIfAbsent(keyFunction.apply(items.get(i)), k -> keyCodes.size());
+                }
+                codedCount = size;
+            }
+        }
+
+        void drop(int count) {
+            if (count <= 0) return;
+            items.subList(0, count).clear();
+            if (codedCount > 0) {
+                System.arraycopy(codes, count, codes, 0, codedCount - count);
+                codedCount -= count;
+            }
+            size = items.size();
+            offset += count;
+        }
+    }
+
+    /**
+     * Liste compacte d'opérations (type, index a, index b).
+     */
+    private static final class OpList {
+        private byte[] type;
+        private int[] a;
+        private int[] b;
+        private int size;
+
+        OpList(int capacity) {
+            int c = Math.max(capacity, 8);
+            type = new byte[c];
+            a = new int[c];
+            b = new int[c];
+        }
+
+        void add(byte t, int i, int j) {
+            if (size == type.length) {
+                int c = size * 2;
+                type = Arrays.copyOf(type, c);
+                a = Arrays.copyOf(a, c);
+                b = Arrays.copyOf(b, c);
+            }
+            type[size] = t;
+            a[size] = i;
+            b[size] = j;
+            size++;
+        }
+
+        int lastIndexOf(byte t) {
+            for (int k = size - 1; k >= 0; k--) {
+                if (type[k] == t) return k;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Regroupe les égalités consécutives et calcule la distance d'édition par bloc.
+     */
+    private static final class Emitter<T> {
+        private final Listener<T> listener;
+        private final BiFunction<T, T, List<FieldDiff>> payloadDiffer;
+
+        private long runA = -1;
+        private long runB = -1;
+        private int runLength;
+        private long hunkDeletes;
+        private long hunkInserts;
+
+        private long equal;
+        private long modified;
+        private long deleted;
+        private long inserted;
+        private long distance;
+
+        Emitter(Listener<T> listener, BiFunction<T, T, List<FieldDiff>> payloadDiffer) {
+            this.listener = listener;
+            this.payloadDiffer = payloadDiffer;
+        }
+
+        /**
+         * @param keyDiff différence de clé (appariement par index), null si les clés sont égales
+         */
+        void pair(long i, T x, long j, T y, FieldDiff keyDiff) {
+            closeHunk();
+            List<FieldDiff> fields = payloadDiffer.apply(x, y);
+            if (keyDiff != null && (fields == null || fields.isEmpty())) {
+                fields = List.of(keyDiff);
+            }
+            if (fields == null || fields.isEmpty()) {
+                if (runLength > 0 && runA + runLength == i && runB + runLength == j) {
+                    runLength++;
+                } else {
+                    flushRun();
+                    runA = i;
+                    runB = j;
+                    runLength = 1;
+                }
+                equal++;
+            } else {
+                flushRun();
+                listener.onModify(i, x, j, y, fields);
+                modified++;
+                if (keyDiff != null) {
+                    distance++;
+                }
+            }
+        }
+
+        void delete(long i, T x) {
+            flushRun();
+            listener.onDelete(i, x);
+            deleted++;
+            hunkDeletes++;
+        }
+
+        void insert(long j, T y) {
+            flushRun();
+            listener.onInsert(j, y);
+            inserted++;
+            hunkInserts++;
+        }
+
+        void flush() {
+            flushRun();
+            closeHunk();
+        }
+
+        private void flushRun() {
+            if (runLength > 0) {
+                listener.onEqual(runA, runB, runLength);
+                runLength = 0;
+            }
+        }
+
+        private void closeHunk() {
+            distance += Math.max(hunkDeletes, hunkInserts);
+            hunkDeletes = 0;
+            hunkInserts = 0;
+        }
+    }
+}
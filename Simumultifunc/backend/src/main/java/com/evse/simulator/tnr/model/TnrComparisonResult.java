@@ -1,5 +1,6 @@
 package com.evse.simulator.tnr.model;
 
+import com.evse.simulator.tnr.diff.EventEditScript;
 import lombok.*;
 
 import java.time.Instant;
@@ -31,6 +32,8 @@ public class TnrComparisonResult {
     private Instant comparedAt;
     private long durationMs;
     private List<TnrDifference> differences;
+    private long totalDifferences;
+    private EventEditScript editScript;
     private Verdict verdict;
     private String summary;
     private ComparisonOptions options;
@@ -1,14 +1,22 @@
 package com.evse.simulator.tnr.service;
 
+import com.evse.simulator.tnr.diff.EventEditScript;
+import com.evse.simulator.tnr.diff.EventPageSource;
+import com.evse.simulator.tnr.diff.FieldDiff;
+import com.evse.simulator.tnr.diff.JsonPayloadDiffer;
+import com.evse.simulator.tnr.diff.StreamingEventDiff;
 import com.evse.simulator.tnr.model.*;
 import com.evse.simulator.tnr.model.TnrComparisonResult.ComparisonOptions;
 import com.evse.simulator.tnr.model.TnrComparisonResult.Verdict;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
 
 /**
  * Service de comparaison d'exécutions TNR.
@@ -19,14 +27,25 @@ import java.util.*;
  * - Les latences
  * - Les erreurs
  * </p>
+ * <p>
+ * La séquence est alignée par {@link StreamingEventDiff} sur une fenêtre
+ * glissante : la mémoire reste bornée même pour des enregistrements de
+ * plusieurs centaines de milliers d'événements.
+ * </p>
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TnrComparisonService {
 
+    /**
+     * Nombre maximum de différences détaillées conservées dans le résultat.
+     */
+    private static final int MAX_REPORTED_DIFFERENCES = 1000;
+
     private final TnrSignatureService signatureService;
     private final TnrRecordingService recordingService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Compare deux exécutions TNR.
@@ -50,7 +69,9 @@ public class TnrComparisonService {
         TnrExecution compared = recordingService.getExecution(comparedId)
                 .orElseThrow(() -> new IllegalArgumentException("Compared execution not found: " + comparedId));
 
-        return compareExecutions(baseline, compared, options, startTime);
+        // Événements lus page par page depuis le stockage des exécutions
+        return compareSources(baseline, pagedEvents(baselineId), compared, pagedEvents(comparedId),
+                options, startTime);
     }
 
     /**
@@ -61,28 +82,56 @@ public class TnrComparisonService {
         if (options == null) {
             options = ComparisonOptions.defaults();
         }
+        return compareSources(
+                baseline, EventPageSource.ofList(baseline.getEvents(), EventPageSource.DEFAULT_PAGE_SIZE),
+                compared, EventPageSource.ofList(compared.getEvents(), EventPageSource.DEFAULT_PAGE_SIZE),
+                options, startTime);
+    }
+
+    private EventPageSource<TnrEvent> pagedEvents(String executionId) {
+        return EventPageSource.paged((offset, limit) -> recordingService.getExecutionEvents(executionId, offset, limit),
+                EventPageSource.DEFAULT_PAGE_SIZE);
+    }
 
-        // Filtrer les événements selon les options
-        List<TnrEvent> baselineEvents = filterEvents(baseline.getEvents(), options);
-        List<TnrEvent> comparedEvents = filterEvents(compared.getEvents(), options);
+    /**
+     * Compare deux sources d'événements en un seul passage chacune : filtrage,
+     * signatures et alignement se font page par page.
+     */
+    private TnrComparisonResult compareSources(TnrExecution baseline, EventPageSource<TnrEvent> baselineSource,
+                                               TnrExecution compared, EventPageSource<TnrEvent> comparedSource,
+                                               ComparisonOptions options, long startTime) {
+        FilteredSource baselineEvents = new FilteredSource(baselineSource, options);
+        FilteredSource comparedEvents = new FilteredSource(comparedSource, options);
+
+        DifferenceCollector collector = new DifferenceCollector();
+        StreamingEventDiff.Stats stats;
+        EventEditScript editScript;
+        if (options.isIgnoreOrder()) {
+            // Comparaison par ensemble : un alignement de séquence serait ignoré, il n'est pas calculé
+            stats = compareAsMultisets(baselineEvents, comparedEvents, collector);
+            editScript = null;
+        } else {
+            StreamingEventDiff<TnrEvent> engine = new StreamingEventDiff<>(
+                    TnrComparisonService::eventKey, payloadDiffer(options), StreamingEventDiff.DEFAULT_WINDOW);
+            stats = engine.diff(baselineEvents, comparedEvents, collector);
+            editScript = collector.script.build(stats, StreamingEventDiff.DEFAULT_WINDOW);
+        }
 
-        // Comparer les signatures
-        String baselineSig = signatureService.computeSignature(baselineEvents);
-        String comparedSig = signatureService.computeSignature(comparedEvents);
+        // Signatures calculées pendant la lecture
+        String baselineSig = baselineEvents.signature.signature();
+        String comparedSig = comparedEvents.signature.signature();
         boolean signatureMatch = signatureService.signaturesMatch(baselineSig, comparedSig);
 
-        String baselineCritSig = signatureService.computeCriticalSignature(baselineEvents);
-        String comparedCritSig = signatureService.computeCriticalSignature(comparedEvents);
+        String baselineCritSig = baselineEvents.criticalSignature.signature();
+        String comparedCritSig = comparedEvents.criticalSignature.signature();
         boolean criticalMatch = signatureService.signaturesMatch(baselineCritSig, comparedCritSig);
 
-        // Détecter les différences
-        List<TnrDifference> differences = detectDifferences(baselineEvents, comparedEvents, options);
-
-        // Calculer la similarité
-        double similarity = signatureService.computeSimilarity(baselineEvents, comparedEvents);
+        // Similarité dérivée de la distance d'édition (pas de matrice N x M)
+        double similarity = stats.similarityPercent();
 
         // Déterminer le verdict
-        Verdict verdict = determineVerdict(signatureMatch, criticalMatch, differences, similarity);
+        Verdict verdict = determineVerdict(signatureMatch, criticalMatch,
+                collector.total, collector.hasCritical, similarity);
 
         TnrComparisonResult result = TnrComparisonResult.builder()
                 .baselineId(baseline.getId())
@@ -91,9 +140,11 @@ public class TnrComparisonService {
                 .comparedName(compared.getScenarioName())
                 .signatureMatch(signatureMatch)
                 .criticalSignatureMatch(criticalMatch)
-                .baselineEventCount(baselineEvents.size())
-                .comparedEventCount(comparedEvents.size())
-                .differences(differences)
+                .baselineEventCount((int) baselineEvents.count)
+                .comparedEventCount((int) comparedEvents.count)
+                .differences(collector.differences)
+                .totalDifferences(collector.total)
+                .editScript(editScript)
                 .similarityPercent(similarity)
                 .comparedAt(Instant.now())
                 .durationMs(System.currentTimeMillis() - startTime)
@@ -104,176 +155,203 @@ public class TnrComparisonService {
         result.setSummary(result.generateSummary());
 
         log.info("TNR comparison completed: {} vs {} -> {} ({} differences)",
-                baseline.getId(), compared.getId(), verdict, differences.size());
+                baseline.getId(), compared.getId(), verdict, collector.total);
 
         return result;
     }
 
     /**
-     * Filtre les événements selon les options.
+     * Source filtrée selon les options, qui compte les événements retenus et
+     * alimente leurs signatures au passage.
      */
-    private List<TnrEvent> filterEvents(List<TnrEvent> events, ComparisonOptions options) {
-        if (events == null) return List.of();
-
-        return events.stream()
-                .filter(e -> {
-                    // Filtrer les types ignorés
-                    if (e.getType() != null && options.getIgnoredEventTypes().contains(e.getType())) {
-                        return false;
-                    }
+    private final class FilteredSource implements EventPageSource<TnrEvent> {
 
-                    // Filtrer les actions ignorées
-                    if (e.getAction() != null && options.getIgnoredActions().contains(e.getAction())) {
-                        return false;
-                    }
+        private final EventPageSource<TnrEvent> source;
+        private final ComparisonOptions options;
+        private final TnrSignatureService.Accumulator signature = signatureService.newSignature();
+        private final TnrSignatureService.Accumulator criticalSignature = signatureService.newCriticalSignature();
+        private long count;
 
-                    // Filtrer les heartbeats si demandé
-                    if (options.isIgnoreHeartbeats() && "Heartbeat".equalsIgnoreCase(e.getAction())) {
-                        return false;
-                    }
+        FilteredSource(EventPageSource<TnrEvent> source, ComparisonOptions options) {
+            this.source = source;
+            this.options = options;
+        }
 
-                    // Filtrer les événements non critiques si demandé
-                    if (options.isCriticalOnly() && !e.isCritical()) {
-                        return false;
+        @Override
+        public List<TnrEvent> nextPage() {
+            while (true) {
+                List<TnrEvent> page = source.nextPage();
+                if (page.isEmpty()) {
+                    return List.of();
+                }
+                List<TnrEvent> kept = new ArrayList<>(page.size());
+                for (TnrEvent event : page) {
+                    if (accept(event, options)) {
+                        kept.add(event);
+                        signature.add(event);
+                        criticalSignature.add(event);
                     }
-
-                    return true;
-                })
-                .toList();
+                }
+                count += kept.size();
+                // Une page vide marquerait la fin : on lit la suivante
+                if (!kept.isEmpty()) {
+                    return kept;
+                }
+            }
+        }
     }
 
     /**
-     * Détecte les différences entre deux séquences d'événements.
+     * Filtre les événements selon les options.
      */
-    private List<TnrDifference> detectDifferences(List<TnrEvent> baseline, List<TnrEvent> compared,
-                                                    ComparisonOptions options) {
-        List<TnrDifference> differences = new ArrayList<>();
+    private static boolean accept(TnrEvent e, ComparisonOptions options) {
+        // Filtrer les types ignorés
+        if (e.getType() != null && options.getIgnoredEventTypes().contains(e.getType())) {
+            return false;
+        }
 
-        if (options.isIgnoreOrder()) {
-            // Comparaison par ensemble (ignore l'ordre)
-            detectSetDifferences(baseline, compared, differences);
-        } else {
-            // Comparaison séquentielle
-            detectSequentialDifferences(baseline, compared, differences, options);
+        // Filtrer les actions ignorées
+        if (e.getAction() != null && options.getIgnoredActions().contains(e.getAction())) {
+            return false;
         }
 
-        return differences;
+        // Filtrer les heartbeats si demandé
+        if (options.isIgnoreHeartbeats() && "Heartbeat".equalsIgnoreCase(e.getAction())) {
+            return false;
+        }
+
+        // Filtrer les événements non critiques si demandé
+        return !options.isCriticalOnly() || e.isCritical();
     }
 
     /**
-     * Détection des différences en mode séquentiel.
+     * Construit le comparateur de payloads pour deux événements alignés.
      */
-    private void detectSequentialDifferences(List<TnrEvent> baseline, List<TnrEvent> compared,
-                                               List<TnrDifference> differences, ComparisonOptions options) {
-        int maxLen = Math.max(baseline.size(), compared.size());
-
-        for (int i = 0; i < maxLen; i++) {
-            TnrEvent baseEvent = i < baseline.size() ? baseline.get(i) : null;
-            TnrEvent compEvent = i < compared.size() ? compared.get(i) : null;
-
-            if (baseEvent == null) {
-                // Événement en plus dans la version comparée
-                differences.add(TnrDifference.extra(i, compEvent));
-            } else if (compEvent == null) {
-                // Événement manquant dans la version comparée
-                differences.add(TnrDifference.missing(i, baseEvent));
-            } else if (!eventsMatch(baseEvent, compEvent, options)) {
-                // Événements différents
-                if (!typeAndActionMatch(baseEvent, compEvent)) {
-                    differences.add(TnrDifference.typeChanged(i, baseEvent, compEvent));
-                } else {
-                    // Même type/action mais payload différent
-                    differences.add(TnrDifference.modified(i, baseEvent, compEvent, "payload"));
-                }
-            }
+    private BiFunction<TnrEvent, TnrEvent, List<FieldDiff>> payloadDiffer(
+            ComparisonOptions options) {
+        if (options.isIgnorePayloads()) {
+            return (base, comp) -> List.of();
         }
+        JsonPayloadDiffer differ = new JsonPayloadDiffer(objectMapper, Set.of(),
+                options.getNumericTolerance(), options.isIgnoreExtraFields());
+        return (base, comp) -> payloadsMatch(base.getPayload(), comp.getPayload())
+                ? List.of()
+                : differ.diff(base.getPayload(), comp.getPayload());
     }
 
     /**
-     * Détection des différences en mode ensemble (ignore l'ordre).
+     * Convertit le script d'édition en différences TNR (plafonnées).
      */
-    private void detectSetDifferences(List<TnrEvent> baseline, List<TnrEvent> compared,
-                                        List<TnrDifference> differences) {
-        // Créer des "clés" pour chaque événement
-        Map<String, Integer> baselineCounts = new HashMap<>();
-        Map<String, Integer> comparedCounts = new HashMap<>();
-
-        for (TnrEvent e : baseline) {
-            String key = eventKey(e);
-            baselineCounts.merge(key, 1, Integer::sum);
+    private static final class DifferenceCollector implements StreamingEventDiff.Listener<TnrEvent> {
+
+        private final EventEditScript.Collector<TnrEvent> script;
+        private final List<TnrDifference> differences = new ArrayList<>();
+        private long total;
+        private boolean hasCritical;
+
+        DifferenceCollector() {
+            this.script = new EventEditScript.Collector<>(
+                    TnrComparisonService::eventKey, MAX_REPORTED_DIFFERENCES);
         }
 
-        for (TnrEvent e : compared) {
-            String key = eventKey(e);
-            comparedCounts.merge(key, 1, Integer::sum);
+        @Override
+        public void onEqual(long baselineIndex, long comparedIndex, int length) {
+            script.onEqual(baselineIndex, comparedIndex, length);
         }
 
-        // Détecter les événements manquants
-        int index = 0;
-        for (Map.Entry<String, Integer> entry : baselineCounts.entrySet()) {
-            int baseCount = entry.getValue();
-            int compCount = comparedCounts.getOrDefault(entry.getKey(), 0);
-
-            if (compCount < baseCount) {
-                for (int i = 0; i < baseCount - compCount; i++) {
-                    TnrEvent fakeEvent = TnrEvent.builder()
-                            .type("unknown")
-                            .action(entry.getKey())
-                            .build();
-                    differences.add(TnrDifference.missing(index++, fakeEvent));
-                }
-            }
+        @Override
+        public void onModify(long baselineIndex, TnrEvent baseline, long comparedIndex, TnrEvent compared,
+                             List<FieldDiff> fieldDiffs) {
+            script.onModify(baselineIndex, baseline, comparedIndex, compared, fieldDiffs);
+            String paths = fieldDiffs.stream().limit(5).map(FieldDiff::path)
+                    .collect(Collectors.joining(", "));
+            report(TnrDifference.modified((int) baselineIndex, baseline, compared,
+                    "payload (" + paths + (fieldDiffs.size() > 5 ? ", ..." : "") + ")"));
         }
 
-        // Détecter les événements en plus
-        for (Map.Entry<String, Integer> entry : comparedCounts.entrySet()) {
-            int compCount = entry.getValue();
-            int baseCount = baselineCounts.getOrDefault(entry.getKey(), 0);
-
-            if (compCount > baseCount) {
-                for (int i = 0; i < compCount - baseCount; i++) {
-                    TnrEvent fakeEvent = TnrEvent.builder()
-                            .type("unknown")
-                            .action(entry.getKey())
-                            .build();
-                    differences.add(TnrDifference.extra(index++, fakeEvent));
-                }
+        @Override
+        public void onDelete(long baselineIndex, TnrEvent baseline) {
+            script.onDelete(baselineIndex, baseline);
+            report(TnrDifference.missing((int) baselineIndex, baseline));
+        }
+
+        @Override
+        public void onInsert(long comparedIndex, TnrEvent compared) {
+            script.onInsert(comparedIndex, compared);
+            report(TnrDifference.extra((int) comparedIndex, compared));
+        }
+
+        private void report(TnrDifference difference) {
+            total++;
+            hasCritical |= difference.isCritical();
+            if (differences.size() < MAX_REPORTED_DIFFERENCES) {
+                differences.add(difference);
             }
         }
     }
 
     /**
-     * Crée une clé unique pour un événement.
+     * Comparaison en mode ensemble (ignore l'ordre) : occurrences de chaque
+     * clé type:action, sans garder les événements.
      */
-    private String eventKey(TnrEvent event) {
-        return (event.getType() != null ? event.getType() : "") + ":" +
-               (event.getAction() != null ? event.getAction() : "");
-    }
+    private StreamingEventDiff.Stats compareAsMultisets(EventPageSource<TnrEvent> baseline,
+                                                        EventPageSource<TnrEvent> compared,
+                                                        DifferenceCollector collector) {
+        Map<String, Long> baselineCounts = countKeys(baseline);
+        Map<String, Long> comparedCounts = countKeys(compared);
 
-    /**
-     * Vérifie si deux événements correspondent.
-     */
-    private boolean eventsMatch(TnrEvent base, TnrEvent comp, ComparisonOptions options) {
-        if (!typeAndActionMatch(base, comp)) {
-            return false;
+        // Détecter les événements manquants
+        long matched = 0;
+        long missing = 0;
+        long extra = 0;
+        int index = 0;
+        for (Map.Entry<String, Long> entry : baselineCounts.entrySet()) {
+            long baseCount = entry.getValue();
+            long compCount = comparedCounts.getOrDefault(entry.getKey(), 0L);
+            matched += Math.min(baseCount, compCount);
+            for (long i = compCount; i < baseCount; i++) {
+                missing++;
+                collector.report(TnrDifference.missing(index++, keyEvent(entry.getKey())));
+            }
         }
 
-        // Si on ignore les payloads, c'est suffisant
-        if (options.isIgnorePayloads()) {
-            return true;
+        // Détecter les événements en plus
+        for (Map.Entry<String, Long> entry : comparedCounts.entrySet()) {
+            long compCount = entry.getValue();
+            long baseCount = baselineCounts.getOrDefault(entry.getKey(), 0L);
+            for (long i = baseCount; i < compCount; i++) {
+                extra++;
+                collector.report(TnrDifference.extra(index++, keyEvent(entry.getKey())));
+            }
+        }
+
+        return new StreamingEventDiff.Stats(matched + missing, matched + extra, matched, 0,
+                missing, extra, missing + extra, 0);
+    }
+
+    private static Map<String, Long> countKeys(EventPageSource<TnrEvent> source) {
+        Map<String, Long> counts = new HashMap<>();
+        for (List<TnrEvent> page = source.nextPage(); !page.isEmpty(); page = source.nextPage()) {
+            for (TnrEvent event : page) {
+                counts.merge(eventKey(event), 1L, Long::sum);
+            }
         }
+        return counts;
+    }
 
-        // Comparer les payloads
-        return payloadsMatch(base.getPayload(), comp.getPayload());
+    private static TnrEvent keyEvent(String key) {
+        return TnrEvent.builder()
+                .type("unknown")
+                .action(key)
+                .build();
     }
 
     /**
-     * Vérifie si type et action correspondent.
+     * Crée une clé unique pour un événement.
      */
-    private boolean typeAndActionMatch(TnrEvent base, TnrEvent comp) {
-        boolean typeMatch = Objects.equals(base.getType(), comp.getType());
-        boolean actionMatch = Objects.equals(base.getAction(), comp.getAction());
-        return typeMatch && actionMatch;
+    private static String eventKey(TnrEvent event) {
+        return (event.getType() != null ? event.getType() : "") + ":" +
+               (event.getAction() != null ? event.getAction() : "");
     }
 
     /**
@@ -291,8 +369,8 @@ public class TnrComparisonService {
      * Détermine le verdict de la comparaison.
      */
     private Verdict determineVerdict(boolean signatureMatch, boolean criticalMatch,
-                                       List<TnrDifference> differences, double similarity) {
-        if (signatureMatch && differences.isEmpty()) {
+                                       long differenceCount, boolean hasCriticalDiffs, double similarity) {
+        if (signatureMatch && differenceCount == 0) {
             return Verdict.IDENTICAL;
         }
 
@@ -302,7 +380,6 @@ public class TnrComparisonService {
         }
 
         // Vérifier s'il y a des différences critiques
-        boolean hasCriticalDiffs = differences.stream().anyMatch(TnrDifference::isCritical);
         if (hasCriticalDiffs) {
             return Verdict.REGRESSION;
         }
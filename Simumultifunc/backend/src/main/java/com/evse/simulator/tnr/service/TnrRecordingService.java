@@ -220,6 +220,18 @@ public class TnrRecordingService {
         return Optional.ofNullable(completedExecutions.get(executionId));
     }
 
+    /**
+     * Récupère une page d'événements d'une exécution, vide au-delà de la fin.
+     */
+    public List<TnrEvent> getExecutionEvents(String executionId, int offset, int limit) {
+        TnrExecution execution = completedExecutions.get(executionId);
+        if (execution == null || execution.getEvents() == null || offset >= execution.getEvents().size()) {
+            return List.of();
+        }
+        List<TnrEvent> events = execution.getEvents();
+        return events.subList(offset, Math.min(events.size(), offset + limit));
+    }
+
     /**
      * Récupère toutes les exécutions.
      */
@@ -24,6 +24,11 @@ public class TnrSignatureService {
 
     private static final String HASH_ALGORITHM = "SHA-256";
 
+    private static final Set<TnrEventCategory> CRITICAL_CATEGORIES = EnumSet.of(
+            TnrEventCategory.TRANSACTION,
+            TnrEventCategory.AUTHENTICATION,
+            TnrEventCategory.ERROR);
+
     /**
      * Calcule la signature complète d'une liste d'événements.
      *
@@ -34,20 +39,81 @@ public class TnrSignatureService {
         if (events == null || events.isEmpty()) {
             return "empty";
         }
+        Accumulator signature = newSignature();
+        events.forEach(signature::add);
+        return signature.signature();
+    }
 
-        StringBuilder sb = new StringBuilder();
-        for (TnrEvent ev : events) {
-            sb.append(ev.getType() != null ? ev.getType() : "null")
-              .append(":")
-              .append(ev.getAction() != null ? ev.getAction() : "null")
-              .append(":")
-              .append(ev.getDirection() != null ? ev.getDirection() : "")
-              .append(":")
-              .append(computePayloadHash(ev.getPayload()))
-              .append(";");
+    /**
+     * Signature complète calculée au fil des événements (exécution lue page par page).
+     */
+    public Accumulator newSignature() {
+        return new Accumulator(null);
+    }
+
+    /**
+     * Signature des événements critiques calculée au fil des événements.
+     */
+    public Accumulator newCriticalSignature() {
+        return new Accumulator(CRITICAL_CATEGORIES);
+    }
+
+    /**
+     * Signature alimentée événement par événement : ni liste filtrée ni chaîne
+     * géante en mémoire. Même résultat que {@link #computeSignature(List)} sur
+     * les événements retenus.
+     */
+    public final class Accumulator {
+
+        private final Set<TnrEventCategory> categories;
+        private final MessageDigest digest;
+        private final StringBuilder token = new StringBuilder(128);
+        private int fallbackHash;
+        private long count;
+
+        private Accumulator(Set<TnrEventCategory> categories) {
+            this.categories = categories;
+            MessageDigest sha;
+            try {
+                sha = MessageDigest.getInstance(HASH_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                log.error("SHA-256 algorithm not available", e);
+                sha = null;
+            }
+            this.digest = sha;
         }
 
-        return sha256Hex(sb.toString());
+        public void add(TnrEvent ev) {
+            if (categories != null && !categories.contains(ev.getCategory())) {
+                return;
+            }
+            count++;
+            token.setLength(0);
+            appendSignatureToken(token, ev);
+            if (digest != null) {
+                digest.update(token.toString().getBytes(StandardCharsets.UTF_8));
+            } else {
+                fallbackHash = 31 * fallbackHash + token.toString().hashCode();
+            }
+        }
+
+        public String signature() {
+            if (count == 0) {
+                return "empty";
+            }
+            return digest != null ? bytesToHex(digest.digest()) : Integer.toHexString(fallbackHash);
+        }
+    }
+
+    private void appendSignatureToken(StringBuilder sb, TnrEvent ev) {
+        sb.append(ev.getType() != null ? ev.getType() : "null")
+          .append(":")
+          .append(ev.getAction() != null ? ev.getAction() : "null")
+          .append(":")
+          .append(ev.getDirection() != null ? ev.getDirection() : "")
+          .append(":")
+          .append(computePayloadHash(ev.getPayload()))
+          .append(";");
     }
 
     /**
@@ -62,12 +128,9 @@ public class TnrSignatureService {
             return "empty";
         }
 
-        Set<TnrEventCategory> categorySet = new HashSet<>(Arrays.asList(categories));
-        List<TnrEvent> filtered = events.stream()
-                .filter(e -> categorySet.contains(e.getCategory()))
-                .collect(Collectors.toList());
-
-        return computeSignature(filtered);
+        Accumulator signature = new Accumulator(new HashSet<>(Arrays.asList(categories)));
+        events.forEach(signature::add);
+        return signature.signature();
     }
 
     /**
@@ -78,10 +141,12 @@ public class TnrSignatureService {
      * @return signature des événements critiques
      */
     public String computeCriticalSignature(List<TnrEvent> events) {
-        return computePartialSignature(events,
-                TnrEventCategory.TRANSACTION,
-                TnrEventCategory.AUTHENTICATION,
-                TnrEventCategory.ERROR);
+        if (events == null || events.isEmpty()) {
+            return "empty";
+        }
+        Accumulator signature = newCriticalSignature();
+        events.forEach(signature::add);
+        return signature.signature();
     }
 
     /**
@@ -190,55 +255,4 @@ public class TnrSignatureService {
         if (sig1 == null || sig2 == null) return false;
         return sig1.equals(sig2);
     }
-
-    /**
-     * Calcule le pourcentage de similarité entre deux séquences d'événements.
-     * Utilise l'algorithme de Levenshtein sur les actions.
-     *
-     * @param events1 première séquence
-     * @param events2 deuxième séquence
-     * @return pourcentage de similarité (0-100)
-     */
-    public double computeSimilarity(List<TnrEvent> events1, List<TnrEvent> events2) {
-        if (events1 == null || events2 == null) return 0;
-        if (events1.isEmpty() && events2.isEmpty()) return 100;
-        if (events1.isEmpty() || events2.isEmpty()) return 0;
-
-        List<String> seq1 = events1.stream()
-                .map(e -> e.getType() + ":" + e.getAction())
-                .collect(Collectors.toList());
-        List<String> seq2 = events2.stream()
-                .map(e -> e.getType() + ":" + e.getAction())
-                .collect(Collectors.toList());
-
-        int distance = levenshteinDistance(seq1, seq2);
-        int maxLen = Math.max(seq1.size(), seq2.size());
-
-        return (1.0 - (double) distance / maxLen) * 100;
-    }
-
-    /**
-     * Calcule la distance de Levenshtein entre deux listes.
-     */
-    private int levenshteinDistance(List<String> s1, List<String> s2) {
-        int m = s1.size();
-        int n = s2.size();
-
-        int[][] dp = new int[m + 1][n + 1];
-
-        for (int i = 0; i <= m; i++) dp[i][0] = i;
-        for (int j = 0; j <= n; j++) dp[0][j] = j;
-
-        for (int i = 1; i <= m; i++) {
-            for (int j = 1; j <= n; j++) {
-                int cost = s1.get(i - 1).equals(s2.get(j - 1)) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost
-                );
-            }
-        }
-
-        return dp[m][n];
-    }
 }
@@ -1,12 +1,11 @@
 package com.evse.simulator.tte.config;
 
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
-
 /**
  * Configuration pour l'intégration TTE.
  */
@@ -14,14 +13,12 @@ import java.time.Duration;
 public class TTEConfig {
 
     /**
-     * RestTemplate configuré pour les appels API.
-     * Timeout par défaut de 30 secondes.
+     * RestTemplate partagé pour les appels divers (smart charging, tâches planifiées).
+     * Adossé au client HTTP sortant : connexions réutilisées, timeout du module OTHER.
+     * Les services TTE et GPM utilisent leur propre template (module TTE / GPM).
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder
-                .setConnectTimeout(Duration.ofSeconds(30))
-                .setReadTimeout(Duration.ofSeconds(30))
-                .build();
+    public RestTemplate restTemplate(OutboundHttpClient outboundHttpClient) {
+        return outboundHttpClient.restTemplate(OutboundModule.OTHER);
     }
 }
@@ -46,6 +46,11 @@ public class TTEProperties {
      */
     private Api api = new Api();
 
+    /**
+     * Cache des tarifications de transactions
+     */
+    private Pricing pricing = new Pricing();
+
     /**
      * Get the active Cognito configuration.
      * Returns the selected profile or falls back to default cognito config.
@@ -211,4 +216,32 @@ public class TTEProperties {
             return testUrl;
         }
     }
+
+    @Data
+    public static class Pricing {
+        /**
+         * Durée de validité d'une transaction trouvée (secondes)
+         */
+        private int cacheTtlSeconds = 30;
+
+        /**
+         * Durée pendant laquelle une transaction absente n'est pas recherchée à nouveau (secondes)
+         */
+        private int negativeTtlSeconds = 10;
+
+        /**
+         * Transactions demandées par page à /evportal/api/tx
+         */
+        private int pageSize = 50;
+
+        /**
+         * Pages lues au plus par un préchargement
+         */
+        private int prefetchMaxPages = 20;
+
+        /**
+         * Transactions indexées au plus, tous environnements (les plus anciennes sont évincées)
+         */
+        private int maxIndexedTransactions = 10_000;
+    }
 }
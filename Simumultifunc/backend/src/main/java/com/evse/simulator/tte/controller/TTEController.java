@@ -2,6 +2,7 @@ package com.evse.simulator.tte.controller;
 
 import com.evse.simulator.tte.model.ChargingProfileRequest;
 import com.evse.simulator.tte.model.ChargingProfileResponse;
+import com.evse.simulator.tte.model.PricingCacheStats;
 import com.evse.simulator.tte.model.PricingData;
 import com.evse.simulator.tte.model.TokenInfo;
 import com.evse.simulator.tte.service.CognitoTokenService;
@@ -113,6 +114,38 @@ public class TTEController {
         }
     }
 
+    @GetMapping("/pricing/cache/stats")
+    @Operation(summary = "Statistiques du cache de tarification (taux de hit, appels évités)")
+    public ResponseEntity<PricingCacheStats> getPricingCacheStats() {
+        return ResponseEntity.ok(tteApiService.getPricingCacheStats());
+    }
+
+    @PostMapping("/pricing/prefetch")
+    @Operation(summary = "Précharge toutes les transactions d'un environnement dans le cache")
+    public ResponseEntity<Map<String, Object>> prefetchPricing(@RequestParam(required = false) String csmsUrl) {
+        if (!tteApiService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        try {
+            int count = tteApiService.prefetchTransactions(csmsUrl);
+            return ResponseEntity.ok(Map.of(
+                    "indexedTransactions", count,
+                    "cache", tteApiService.getPricingCacheStats()
+            ));
+        } catch (Exception e) {
+            log.error("Failed to prefetch TTE transactions: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @DeleteMapping("/pricing/cache")
+    @Operation(summary = "Vide le cache de tarification")
+    public ResponseEntity<Void> clearPricingCache() {
+        tteApiService.clearPricingCache();
+        return ResponseEntity.noContent().build();
+    }
+
     // =========================================================================
     // Smart Charging API
     // =========================================================================
@@ -0,0 +1,71 @@
+package com.evse.simulator.tte.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statistiques du cache des tarifications de transactions TTE.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PricingCacheStats {
+
+    /**
+     * Recherches de tarification reçues
+     */
+    private long lookups;
+
+    /**
+     * Transactions servies depuis l'index local
+     */
+    private long hits;
+
+    /**
+     * Transactions absentes servies depuis le cache négatif
+     */
+    private long negativeHits;
+
+    /**
+     * Recherches ayant nécessité une lecture de l'API (propre ou partagée)
+     */
+    private long misses;
+
+    /**
+     * Recherches ayant attendu une lecture déjà en cours
+     */
+    private long coalesced;
+
+    /**
+     * Pages lues sur l'API pour des recherches
+     */
+    private long remoteCalls;
+
+    /**
+     * Pages lues par les préchargements
+     */
+    private long prefetchCalls;
+
+    /**
+     * Appels distants évités (une recherche coûtait un appel)
+     */
+    private long remoteCallsSaved;
+
+    /**
+     * Part des recherches servies sans lecture de l'API
+     */
+    private double hitRate;
+
+    /**
+     * Transactions indexées, tous environnements
+     */
+    private int indexedTransactions;
+
+    /**
+     * Transactions absentes mémorisées
+     */
+    private int negativeEntries;
+}
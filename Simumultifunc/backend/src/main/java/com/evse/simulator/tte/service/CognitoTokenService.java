@@ -1,51 +1,41 @@
 package com.evse.simulator.tte.service;
 
+import com.evse.simulator.http.OAuthTokenManager;
+import com.evse.simulator.http.OutboundModule;
+import com.evse.simulator.http.TokenSource;
 import com.evse.simulator.tte.config.TTEProperties;
 import com.evse.simulator.tte.model.TokenInfo;
-import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.PostConstruct;
-import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Service de gestion du token Cognito AWS pour l'API TTE.
  * <p>
  * Fonctionnalités:
- * - Cache du token avec gestion d'expiration
- * - Renouvellement automatique avant expiration
- * - Thread-safe avec ReentrantLock
+ * - Un token en cache par profil Cognito ({@link OAuthTokenManager})
+ * - Lecture sans verrou, renouvellement en arrière-plan avant expiration
+ * - Un seul renouvellement à la fois, partagé par les appels qui reçoivent un 401
  * - Jamais d'exposition du token ou des secrets dans les logs
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CognitoTokenService {
 
-    private final TTEProperties properties;
-    private final RestTemplate restTemplate;
-
-    // Token cache
-    private String cachedToken;
-    private Instant tokenExpiresAt;
-    private Instant tokenObtainedAt;
+    /**
+     * L'API TTE peut limiter les tokens à 1h même si Cognito annonce une durée plus longue.
+     */
+    private static final int MAX_TOKEN_LIFETIME_SECONDS = 3600;
 
-    // Thread safety
-    private final ReentrantLock lock = new ReentrantLock();
+    private final TTEProperties properties;
+    private final OAuthTokenManager tokenManager;
 
-    // Stats
-    private int refreshCount = 0;
-    private int errorCount = 0;
-    private String lastError;
+    public CognitoTokenService(TTEProperties properties, OAuthTokenManager tokenManager) {
+        this.properties = properties;
+        this.tokenManager = tokenManager;
+    }
 
     @PostConstruct
     public void init() {
@@ -83,32 +73,23 @@ public class CognitoTokenService {
         if (!isConfigured()) {
             throw new IllegalStateException("TTE Cognito is not configured");
         }
+        return tokenManager.getToken(tokenSource());
+    }
 
-        lock.lock();
-        try {
-            if (isTokenValid()) {
-                return cachedToken;
-            }
-            return refreshToken();
-        } finally {
-            lock.unlock();
-        }
+    /**
+     * Token à utiliser après un 401 sur une requête envoyée à {@code requestSentAt}.
+     * Les appels rejetés en même temps partagent un seul renouvellement.
+     */
+    public String refreshAfterUnauthorized(Instant requestSentAt) {
+        return tokenManager.onUnauthorized(tokenSource(), requestSentAt);
     }
 
     /**
-     * Invalide le token actuel pour forcer un renouvellement.
-     * Utilisé lors du changement de profil Cognito.
+     * Invalide le token du profil actif pour forcer un renouvellement.
+     * Utilisé lors du changement de profil ou de credentials Cognito.
      */
     public void invalidateToken() {
-        lock.lock();
-        try {
-            cachedToken = null;
-            tokenExpiresAt = null;
-            tokenObtainedAt = null;
-            log.info("Token invalidated - will refresh on next request");
-        } finally {
-            lock.unlock();
-        }
+        tokenManager.invalidate(tokenKey());
     }
 
     /**
@@ -125,57 +106,11 @@ public class CognitoTokenService {
      * @throws RuntimeException si le renouvellement échoue
      */
     public String refreshToken() {
-        lock.lock();
+        log.debug("Refreshing TTE Cognito token using profile: {}", properties.getActiveProfile());
         try {
-            TTEProperties.Cognito activeCognito = properties.getActiveCognito();
-            log.debug("Refreshing TTE Cognito token using profile: {}", properties.getActiveProfile());
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-            MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-            body.add("grant_type", "client_credentials");
-            body.add("client_id", activeCognito.getClientId());
-            body.add("client_secret", activeCognito.getClientSecret());
-
-            HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(body, headers);
-
-            ResponseEntity<TokenResponse> response = restTemplate.postForEntity(
-                    activeCognito.getTokenUrl(),
-                    request,
-                    TokenResponse.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                TokenResponse tokenResponse = response.getBody();
-
-                cachedToken = tokenResponse.getAccessToken();
-                tokenObtainedAt = Instant.now();
-
-                // Cognito peut retourner une durée longue (6h = 21600s), mais l'API TTE
-                // peut limiter à 1h. On utilise le min entre la valeur Cognito et 3600s (1h)
-                // pour éviter les problèmes de token invalide côté API.
-                int cognitoExpiresIn = tokenResponse.getExpiresIn();
-                int effectiveExpiresIn = Math.min(cognitoExpiresIn, 3600); // Max 1 heure
-                tokenExpiresAt = tokenObtainedAt.plusSeconds(effectiveExpiresIn);
-                refreshCount++;
-                lastError = null;
-
-                log.info("TTE token refreshed successfully. Cognito says {}s, using {}s (refresh #{})",
-                        cognitoExpiresIn, effectiveExpiresIn, refreshCount);
-
-                return cachedToken;
-            } else {
-                throw new RuntimeException("Invalid response from Cognito: " + response.getStatusCode());
-            }
-
-        } catch (RestClientException e) {
-            errorCount++;
-            lastError = e.getMessage();
-            log.error("Failed to refresh TTE token: {}", e.getMessage());
-            throw new RuntimeException("Failed to refresh TTE token", e);
-        } finally {
-            lock.unlock();
+            return tokenManager.refresh(tokenSource()).value();
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Failed to refresh TTE token", e.getCause() != null ? e.getCause() : e);
         }
     }
 
@@ -183,16 +118,17 @@ public class CognitoTokenService {
      * Retourne les informations sur le token SANS exposer le token lui-même.
      */
     public TokenInfo getTokenInfo() {
+        var stats = tokenManager.getStats(tokenKey());
         return TokenInfo.builder()
                 .configured(isConfigured())
                 .enabled(properties.isEnabled())
                 .hasValidToken(isTokenValid())
-                .tokenObtainedAt(tokenObtainedAt)
-                .tokenExpiresAt(tokenExpiresAt)
+                .tokenObtainedAt(stats.map(OAuthTokenManager.TokenStats::obtainedAt).orElse(null))
+                .tokenExpiresAt(stats.map(OAuthTokenManager.TokenStats::expiresAt).orElse(null))
                 .secondsRemaining(getSecondsRemaining())
-                .refreshCount(refreshCount)
-                .errorCount(errorCount)
-                .lastError(lastError)
+                .refreshCount(stats.map(s -> (int) s.refreshes()).orElse(0))
+                .errorCount(stats.map(s -> (int) s.failures()).orElse(0))
+                .lastError(stats.map(OAuthTokenManager.TokenStats::lastError).orElse(null))
                 .activeProfile(properties.getActiveProfile())
                 .availableProfiles(getAvailableProfileNames())
                 .build();
@@ -224,40 +160,32 @@ public class CognitoTokenService {
      * Un token est considéré invalide s'il expire dans moins de X secondes (buffer).
      */
     public boolean isTokenValid() {
-        if (cachedToken == null || tokenExpiresAt == null) {
-            return false;
-        }
-
-        Instant expiryWithBuffer = tokenExpiresAt.minusSeconds(
-                properties.getCognito().getTokenExpiryBufferSeconds()
-        );
-
-        return Instant.now().isBefore(expiryWithBuffer);
+        return tokenManager.getCachedToken(tokenKey())
+                .map(token -> Instant.now().isBefore(token.expiresAt().minusSeconds(
+                        properties.getCognito().getTokenExpiryBufferSeconds())))
+                .orElse(false);
     }
 
     /**
      * Retourne le nombre de secondes avant expiration.
      */
     public long getSecondsRemaining() {
-        if (tokenExpiresAt == null) {
-            return 0;
-        }
-        long remaining = tokenExpiresAt.getEpochSecond() - Instant.now().getEpochSecond();
-        return Math.max(0, remaining);
+        return tokenManager.getCachedToken(tokenKey())
+                .map(token -> Math.max(0, token.expiresAt().getEpochSecond() - Instant.now().getEpochSecond()))
+                .orElse(0L);
     }
 
     /**
-     * DTO pour la réponse Cognito.
+     * Clé du cache : un token par profil Cognito.
      */
-    @Data
-    private static class TokenResponse {
-        @JsonProperty("access_token")
-        private String accessToken;
-
-        @JsonProperty("expires_in")
-        private int expiresIn;
+    private String tokenKey() {
+        return "tte:" + properties.getActiveProfile();
+    }
 
-        @JsonProperty("token_type")
-        private String tokenType;
+    private TokenSource tokenSource() {
+        TTEProperties.Cognito cognito = properties.getActiveCognito();
+        return new TokenSource(tokenKey(), OutboundModule.TTE, cognito.getTokenUrl(), cognito.getClientId(),
+                cognito.getClientSecret(), MAX_TOKEN_LIFETIME_SECONDS,
+                properties.getCognito().getTokenExpiryBufferSeconds());
     }
 }
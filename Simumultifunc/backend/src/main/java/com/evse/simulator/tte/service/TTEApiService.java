@@ -1,11 +1,14 @@
 package com.evse.simulator.tte.service;
 
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundModule;
 import com.evse.simulator.tte.config.TTEProperties;
 import com.evse.simulator.tte.model.ChargingProfileRequest;
 import com.evse.simulator.tte.model.ChargingProfileResponse;
+import com.evse.simulator.tte.model.PricingCacheStats;
 import com.evse.simulator.tte.model.PricingData;
 import com.fasterxml.jackson.databind.JsonNode;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
@@ -13,6 +16,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -22,12 +26,19 @@ import java.util.Map;
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class TTEApiService {
 
     private final TTEProperties properties;
     private final CognitoTokenService tokenService;
     private final RestTemplate restTemplate;
+    private final TransactionPricingIndex pricingIndex;
+
+    public TTEApiService(TTEProperties properties, CognitoTokenService tokenService, OutboundHttpClient httpClient) {
+        this.properties = properties;
+        this.tokenService = tokenService;
+        this.restTemplate = httpClient.restTemplate(OutboundModule.TTE);
+        this.pricingIndex = new TransactionPricingIndex(properties::getPricing, this::listTransactions);
+    }
 
     // =========================================================================
     // Pricing API
@@ -37,71 +48,88 @@ public class TTEApiService {
      * Récupère les informations de tarification pour une transaction.
      * Utilise l'endpoint /evportal/api/tx pour lister les transactions et filtre par transactionId.
      * L'URL TTE est sélectionnée automatiquement selon l'URL CSMS de la session (test ou pp).
+     * <p>
+     * Les listes lues sont indexées localement ({@link TransactionPricingIndex}) :
+     * les interrogations répétées (polling UI de nombreuses sessions) ne rappellent
+     * pas l'API tant que le cache est valide.
+     * </p>
      *
      * @param chargePointId OCPP ID du Charge Point
      * @param transactionId ID de la transaction OCPP
      * @param csmsUrl       URL WebSocket OCPP de la session (pour déterminer l'environnement)
-     * @return Données de tarification
+     * @return Données de tarification, null si la transaction n'est pas connue de TTE
      */
     public PricingData getTransactionPricing(String chargePointId, Integer transactionId, String csmsUrl) {
         // Sélectionner l'URL TTE selon l'environnement de la session
         String baseUrl = properties.getApi().getUrlForEnvironment(csmsUrl);
-        String url = buildUrlWithBase(baseUrl, "/evportal/api/tx?limit=50&skip=0");
-
-        log.info("Getting transactions from TTE API (env detected from: {}) -> {}",
-                 csmsUrl != null ? csmsUrl.substring(0, Math.min(50, csmsUrl.length())) + "..." : "null",
-                 baseUrl);
-        log.debug("TTE API URL: {}", url);
+        if (transactionId == null) {
+            return null;
+        }
 
         try {
-            ResponseEntity<JsonNode> response = executeWithRetry(
-                    url,
-                    HttpMethod.GET,
-                    null,
-                    JsonNode.class
-            );
-
-            JsonNode body = response.getBody();
-            if (body == null) {
-                log.warn("Empty response from TTE API");
+            JsonNode tx = pricingIndex.lookup(baseUrl, chargePointId, transactionId);
+            if (tx == null) {
                 return null;
             }
+            return mapToPricingData(tx, chargePointId, transactionId);
+        } catch (Exception e) {
+            log.error("Failed to get pricing for CP {}, transactionId {}: {}",
+                    chargePointId, transactionId, e.getMessage());
+            throw new RuntimeException("Failed to get transaction pricing", e);
+        }
+    }
 
-            // Le response peut être un array ou un objet avec un champ "data" ou "transactions"
-            JsonNode transactions = body;
-            if (body.has("data")) {
-                transactions = body.get("data");
-            } else if (body.has("transactions")) {
-                transactions = body.get("transactions");
-            }
+    /**
+     * Précharge toutes les transactions d'un environnement dans le cache de tarification.
+     *
+     * @param csmsUrl URL WebSocket OCPP (pour déterminer l'environnement)
+     * @return nombre de transactions indexées
+     */
+    public int prefetchTransactions(String csmsUrl) {
+        return pricingIndex.prefetch(properties.getApi().getUrlForEnvironment(csmsUrl));
+    }
 
-            if (!transactions.isArray()) {
-                log.warn("Unexpected TTE API response format: {}", body.toString().substring(0, Math.min(200, body.toString().length())));
-                return null;
-            }
+    /**
+     * Statistiques du cache de tarification.
+     */
+    public PricingCacheStats getPricingCacheStats() {
+        return pricingIndex.stats();
+    }
 
-            // Chercher la transaction correspondante
-            for (JsonNode tx : transactions) {
-                Integer txId = tx.has("transactionId") ? tx.get("transactionId").asInt() : null;
-                String cpId = tx.has("chargePointId") ? tx.get("chargePointId").asText() :
-                              (tx.has("cpId") ? tx.get("cpId").asText() : null);
-
-                // Match par transactionId (et optionnellement cpId)
-                if (txId != null && txId.equals(transactionId)) {
-                    log.info("Found transaction {} in TTE API response", transactionId);
-                    return mapToPricingData(tx, chargePointId, transactionId);
-                }
-            }
+    /**
+     * Vide le cache de tarification.
+     */
+    public void clearPricingCache() {
+        pricingIndex.clear();
+    }
 
-            log.warn("Transaction {} not found in TTE API response ({} transactions checked)",
-                     transactionId, transactions.size());
-            return null;
+    /**
+     * Lit une page de /evportal/api/tx.
+     * Le response peut être un array ou un objet avec un champ "data" ou "transactions".
+     */
+    private JsonNode listTransactions(String baseUrl, int limit, int skip) {
+        String url = buildUrlWithBase(baseUrl, "/evportal/api/tx?limit=" + limit + "&skip=" + skip);
+        log.debug("Getting transactions from TTE API: {}", url);
+
+        ResponseEntity<JsonNode> response = executeWithRetry(url, HttpMethod.GET, null, JsonNode.class);
+        JsonNode body = response.getBody();
+        if (body == null) {
+            log.warn("Empty response from TTE API");
+            return JsonNodeFactory.instance.arrayNode();
+        }
 
-        } catch (Exception e) {
-            log.error("Failed to get pricing for CP {}, transactionId {}: {}",
-                    chargePointId, transactionId, e.getMessage());
-            throw new RuntimeException("Failed to get transaction pricing", e);
+        JsonNode transactions = body;
+        if (body.has("data")) {
+            transactions = body.get("data");
+        } else if (body.has("transactions")) {
+            transactions = body.get("transactions");
+        }
+
+        if (!transactions.isArray()) {
+            log.warn("Unexpected TTE API response format: {}", body.toString().substring(0, Math.min(200, body.toString().length())));
+            return JsonNodeFactory.instance.arrayNode();
         }
+        return transactions;
     }
 
     /**
@@ -284,21 +312,23 @@ public class TTEApiService {
      * Exécute une requête avec retry automatique sur erreur 401.
      */
     private <T> ResponseEntity<T> executeWithRetry(String url, HttpMethod method, Object body, Class<T> responseType) {
+        Instant sentAt = Instant.now();
         try {
-            return execute(url, method, body, responseType);
+            return execute(url, method, body, responseType, tokenService.getValidToken());
         } catch (HttpClientErrorException.Unauthorized e) {
             log.warn("Received 401, refreshing token and retrying...");
-            tokenService.refreshToken();
-            return execute(url, method, body, responseType);
+            // Un seul renouvellement pour tous les appels rejetés avec le même token
+            return execute(url, method, body, responseType, tokenService.refreshAfterUnauthorized(sentAt));
         }
     }
 
     /**
      * Exécute une requête HTTP avec le token Bearer.
      */
-    private <T> ResponseEntity<T> execute(String url, HttpMethod method, Object body, Class<T> responseType) {
+    private <T> ResponseEntity<T> execute(String url, HttpMethod method, Object body, Class<T> responseType,
+                                          String token) {
         HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(tokenService.getValidToken());
+        headers.setBearerAuth(token);
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<?> entity = body != null ? new HttpEntity<>(body, headers) : new HttpEntity<>(headers);
@@ -350,6 +380,7 @@ public class TTEApiService {
         return Map.of(
                 "available", isAvailable(),
                 "tokenInfo", tokenService.getTokenInfo(),
+                "pricingCache", getPricingCacheStats(),
                 "apiBaseUrl", properties.getApi().getBaseUrl()
         );
     }
@@ -0,0 +1,275 @@
+package com.evse.simulator.tte.service;
+
+import com.evse.simulator.tte.config.TTEProperties;
+import com.evse.simulator.tte.model.PricingCacheStats;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Index local des transactions TTE ({@code /evportal/api/tx}), par environnement.
+ * <p>
+ * Une liste de transactions lue sur l'API indexe toutes ses transactions : les
+ * recherches suivantes, quelle que soit la transaction, sont servies localement
+ * tant que l'entrée a moins de {@code cacheTtlSeconds}. Au-delà, la première
+ * page est relue ; une transaction indexée qui n'y figure plus est recherchée
+ * dans les pages suivantes (au plus {@code prefetchMaxPages}), jamais servie
+ * périmée. Une transaction absente est mémorisée par (environnement,
+ * chargePointId, transactionId) pendant {@code negativeTtlSeconds}. Les
+ * recherches simultanées d'un même environnement partagent une seule lecture de
+ * la première page. L'index est borné à {@code maxIndexedTransactions} entrées.
+ * </p>
+ */
+@Slf4j
+class TransactionPricingIndex {
+
+    /**
+     * Lecture d'une page de transactions.
+     *
+     * @return tableau JSON des transactions, vide si aucune
+     */
+    @FunctionalInterface
+    interface PageLoader {
+        JsonNode load(String baseUrl, int limit, int skip);
+    }
+
+    private record TxKey(String baseUrl, int transactionId) {}
+
+    private record PricingKey(String baseUrl, String chargePointId, int transactionId) {}
+
+    private record Indexed(JsonNode transaction, long loadedAt) {}
+
+    private final Supplier<TTEProperties.Pricing> config;
+    private final PageLoader loader;
+
+    private final Map<TxKey, Indexed> index = new ConcurrentHashMap<>();
+    private final Map<PricingKey, Long> negatives = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> listings = new ConcurrentHashMap<>();
+    private final Map<String, Long> listedAt = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder remoteCalls = new LongAdder();
+    private final LongAdder prefetchCalls = new LongAdder();
+
+    TransactionPricingIndex(Supplier<TTEProperties.Pricing> config, PageLoader loader) {
+        this.config = config;
+        this.loader = loader;
+    }
+
+    /**
+     * @return la transaction TTE, null si elle n'est pas (encore) connue de l'API
+     */
+    JsonNode lookup(String baseUrl, String chargePointId, int transactionId) {
+        lookups.increment();
+        TTEProperties.Pricing settings = config.get();
+        long now = System.nanoTime();
+
+        PricingKey pricingKey = new PricingKey(baseUrl, chargePointId, transactionId);
+        Long negativeUntil = negatives.get(pricingKey);
+        if (negativeUntil != null) {
+            if (now - negativeUntil < 0) {
+                negativeHits.increment();
+                return null;
+            }
+            negatives.remove(pricingKey, negativeUntil);
+        }
+
+        TxKey txKey = new TxKey(baseUrl, transactionId);
+        Indexed indexed = index.get(txKey);
+        if (indexed != null && isFresh(indexed, now, settings)) {
+            hits.increment();
+            return indexed.transaction();
+        }
+
+        misses.increment();
+        Long lastListing = listedAt.get(baseUrl);
+        boolean recentlyListed = lastListing != null
+                && now - lastListing < TimeUnit.SECONDS.toNanos(settings.getNegativeTtlSeconds());
+        if (!recentlyListed) {
+            listFirstPage(baseUrl, settings);
+        }
+        indexed = index.get(txKey);
+        if (indexed != null && !isFresh(indexed, now, settings)) {
+            // Indexée mais absente de la première page relue : plus ancienne, ou supprimée
+            indexed = searchOlderPages(baseUrl, txKey, now, settings);
+        }
+        if (indexed != null) {
+            return indexed.transaction();
+        }
+
+        negatives.put(pricingKey, System.nanoTime() + TimeUnit.SECONDS.toNanos(settings.getNegativeTtlSeconds()));
+        trim(settings);
+        log.debug("Transaction {} not found in TTE transactions of {}", transactionId, baseUrl);
+        return null;
+    }
+
+    /**
+     * Lit toutes les pages de transactions d'un environnement (au plus
+     * {@code prefetchMaxPages}) et les indexe.
+     *
+     * @return nombre de transactions indexées
+     */
+    int prefetch(String baseUrl) {
+        TTEProperties.Pricing settings = config.get();
+        int pageSize = Math.max(1, settings.getPageSize());
+        int count = 0;
+        for (int page = 0; page < Math.max(1, settings.getPrefetchMaxPages()); page++) {
+            prefetchCalls.increment();
+            JsonNode transactions = loader.load(baseUrl, pageSize, page * pageSize);
+            count += indexPage(baseUrl, transactions);
+            if (page == 0) {
+                listedAt.put(baseUrl, System.nanoTime());
+            }
+            if (transactions.size() < pageSize) {
+                break;
+            }
+        }
+        trim(settings);
+        log.info("Prefetched {} TTE transactions from {}", count, baseUrl);
+        return count;
+    }
+
+    void clear() {
+        index.clear();
+        negatives.clear();
+        listedAt.clear();
+    }
+
+    PricingCacheStats stats() {
+        long lookupCount = lookups.sum();
+        long hitCount = hits.sum();
+        long negativeHitCount = negativeHits.sum();
+        long remote = remoteCalls.sum();
+        return PricingCacheStats.builder()
+                .lookups(lookupCount)
+                .hits(hitCount)
+                .negativeHits(negativeHitCount)
+                .misses(misses.sum())
+                .coalesced(coalesced.sum())
+                .remoteCalls(remote)
+                .prefetchCalls(prefetchCalls.sum())
+                .remoteCallsSaved(Math.max(0, lookupCount - remote - prefetchCalls.sum()))
+                .hitRate(lookupCount > 0 ? (double) (hitCount + negativeHitCount) / lookupCount : 0.0)
+                .indexedTransactions(index.size())
+                .negativeEntries(negatives.size())
+                .build();
+    }
+
+    /**
+     * Lit la première page (transactions les plus récentes) ; une lecture déjà en
+     * cours pour cet environnement est attendue plutôt que relancée.
+     */
+    private void listFirstPage(String baseUrl, TTEProperties.Pricing settings) {
+        CompletableFuture<Void> listing = new CompletableFuture<>();
+        CompletableFuture<Void> inProgress = listings.putIfAbsent(baseUrl, listing);
+        if (inProgress != null) {
+            coalesced.increment();
+            try {
+                inProgress.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+            }
+            return;
+        }
+
+        try {
+            remoteCalls.increment();
+            indexPage(baseUrl, loader.load(baseUrl, Math.max(1, settings.getPageSize()), 0));
+            listedAt.put(baseUrl, System.nanoTime());
+            trim(settings);
+            listing.complete(null);
+        } catch (RuntimeException e) {
+            listing.completeExceptionally(e);
+            throw e;
+        } finally {
+            listings.remove(baseUrl, listing);
+        }
+    }
+
+    /**
+     * Entrée lue pendant cette recherche, ou depuis moins de {@code cacheTtlSeconds}.
+     */
+    private static boolean isFresh(Indexed indexed, long now, TTEProperties.Pricing settings) {
+        return indexed.loadedAt() - now >= 0
+                || now - indexed.loadedAt() < TimeUnit.SECONDS.toNanos(settings.getCacheTtlSeconds());
+    }
+
+    /**
+     * Lit les pages suivant la première jusqu'à trouver la transaction ; une
+     * entrée périmée absente de toutes les pages lues est évincée.
+     */
+    private Indexed searchOlderPages(String baseUrl, TxKey txKey, long now, TTEProperties.Pricing settings) {
+        int pageSize = Math.max(1, settings.getPageSize());
+        for (int page = 1; page < Math.max(1, settings.getPrefetchMaxPages()); page++) {
+            remoteCalls.increment();
+            JsonNode transactions = loader.load(baseUrl, pageSize, page * pageSize);
+            indexPage(baseUrl, transactions);
+            Indexed indexed = index.get(txKey);
+            if (indexed != null && isFresh(indexed, now, settings)) {
+                trim(settings);
+                return indexed;
+            }
+            if (transactions.size() < pageSize) {
+                break;
+            }
+        }
+        index.computeIfPresent(txKey, (key, indexed) -> isFresh(indexed, now, settings) ? indexed : null);
+        trim(settings);
+        return null;
+    }
+
+    /**
+     * Borne l'index et le cache négatif : entrées expirées d'abord, puis les
+     * transactions lues le plus anciennement.
+     */
+    private void trim(TTEProperties.Pricing settings) {
+        int max = Math.max(1, settings.getMaxIndexedTransactions());
+        if (index.size() <= max && negatives.size() <= max) {
+            return;
+        }
+        long now = System.nanoTime();
+        long ttl = TimeUnit.SECONDS.toNanos(settings.getCacheTtlSeconds());
+        index.values().removeIf(indexed -> now - indexed.loadedAt() >= ttl);
+        negatives.values().removeIf(until -> now - until >= 0);
+        int excess = index.size() - max;
+        if (excess > 0) {
+            index.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().loadedAt()))
+                    .limit(excess)
+                    .toList()
+                    .forEach(entry -> index.remove(entry.getKey(), entry.getValue()));
+        }
+        excess = negatives.size() - max;
+        if (excess > 0) {
+            negatives.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(excess)
+                    .toList()
+                    .forEach(entry -> negatives.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private int indexPage(String baseUrl, JsonNode transactions) {
+        long loadedAt = System.nanoTime();
+        int count = 0;
+        for (JsonNode tx : transactions) {
+            if (tx.hasNonNull("transactionId")) {
+                index.put(new TxKey(baseUrl, tx.get("transactionId").asInt()), new Indexed(tx, loadedAt));
+                count++;
+            }
+        }
+        return count;
+    }
+}
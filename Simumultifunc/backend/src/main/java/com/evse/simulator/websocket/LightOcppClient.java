@@ -0,0 +1,342 @@
+package com.evse.simulator.websocket;
+
+import com.evse.simulator.exception.OCPPException;
+import com.evse.simulator.model.LightSession;
+import com.evse.simulator.model.enums.ConnectorStatus;
+import com.evse.simulator.model.enums.SessionState;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client OCPP 1.6 minimal d'une {@link LightSession} de test de charge.
+ * <p>
+ * Contrairement à {@link OCPPWebSocketClient}, il ne journalise ni ne
+ * capture les messages, n'a pas de routeur ni d'{@link ObjectMapper} propre
+ * (un seul, partagé, pour lire les réponses) et n'arme pas le contrôle de
+ * connexion perdue de Java-WebSocket, qui crée un thread par client. Comme
+ * l'impose OCPP-J, un seul CALL est en vol à la fois : la corrélation tient
+ * dans un identifiant et un futur, les CALL suivants (MeterValues pendant le
+ * flux de démarrage, StopTransaction à l'arrêt du test) attendent leur tour
+ * dans une file FIFO créée au premier CALL mis en attente. Les CALL du CSMS
+ * reçoivent un CALLERROR NotSupported.
+ * </p>
+ */
+@Slf4j
+public class LightOcppClient extends WebSocketClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SUBPROTOCOL = "ocpp1.6";
+
+    private final LightSession session;
+    private final long callTimeoutMs;
+
+    // Gardés par this
+    private int nextMessageId;
+    private String pendingId;
+    private CompletableFuture<JsonNode> pending;
+    private ArrayDeque<QueuedCall> waiting;
+
+    /**
+     * @param bearerToken   jeton d'authentification, null si aucun
+     * @param callTimeoutMs délai au-delà duquel un CALL sans réponse échoue
+     */
+    public LightOcppClient(LightSession session, String bearerToken, long callTimeoutMs)
+            throws URISyntaxException {
+        super(endpoint(session.getUrl(), session.getCpId()), OCPPWebSocketClient.createOcppDraft(SUBPROTOCOL));
+        this.session = session;
+        this.callTimeoutMs = callTimeoutMs;
+        setConnectionLostTimeout(0);
+
+        if ("wss".equalsIgnoreCase(getURI().getScheme())) {
+            try {
+                setSocketFactory(OCPPWebSocketClient.createTrustAllSSLFactory());
+            } catch (Exception e) {
+                log.error("Failed to configure SSL for light session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+        if (bearerToken != null && !bearerToken.isBlank()) {
+            addHeader("Authorization", "Bearer " + bearerToken);
+        }
+    }
+
+    /**
+     * URL WebSocket de la borne : le cpId est ajouté s'il ne termine pas déjà l'URL.
+     */
+    static URI endpoint(String url, String cpId) throws URISyntaxException {
+        if (url == null) {
+            throw new URISyntaxException("null", "CSMS URL is required");
+        }
+        String wsUrl = url;
+        if (!wsUrl.endsWith(cpId)) {
+            wsUrl += (wsUrl.endsWith("/") ? "" : "/") + cpId;
+        }
+        return new URI(wsUrl);
+    }
+
+    public LightSession getSession() {
+        return session;
+    }
+
+    /**
+     * Ouvre la connexion.
+     *
+     * @return true si la connexion est établie dans le délai
+     */
+    public boolean open(long timeoutMs) throws InterruptedException {
+        session.setState(SessionState.CONNECTING);
+        boolean connected = connectBlocking(timeoutMs, TimeUnit.MILLISECONDS);
+        if (!connected) {
+            session.setState(SessionState.DISCONNECTED);
+        }
+        return connected;
+    }
+
+    // =========================================================================
+    // Flux OCPP 1.6
+    // =========================================================================
+
+    public CompletableFuture<JsonNode> sendBootNotification() {
+        return call("BootNotification",
+                "{\"chargePointVendor\":\"EVSE Simulator\",\"chargePointModel\":\"SimuCP-1\"}")
+                .thenApply(response -> {
+                    if ("Accepted".equals(response.path("status").asText())) {
+                        session.setState(SessionState.BOOT_ACCEPTED);
+                    }
+                    return response;
+                });
+    }
+
+    public CompletableFuture<JsonNode> sendStatusNotification(ConnectorStatus status) {
+        return call("StatusNotification", "{\"connectorId\":1,\"errorCode\":\"NoError\",\"status\":\""
+                + status.getValue() + "\",\"timestamp\":\"" + Instant.now() + "\"}");
+    }
+
+    public CompletableFuture<JsonNode> sendAuthorize() {
+        session.setState(SessionState.AUTHORIZING);
+        return call("Authorize", "{\"idTag\":" + quote(session.getIdTag()) + "}")
+                .thenApply(response -> {
+                    boolean accepted = isAccepted(response);
+                    session.setAuthorized(accepted);
+                    session.setState(accepted ? SessionState.AUTHORIZED : SessionState.PLUGGED);
+                    return response;
+                });
+    }
+
+    public CompletableFuture<JsonNode> sendStartTransaction() {
+        session.setState(SessionState.STARTING);
+        return call("StartTransaction", "{\"connectorId\":1,\"idTag\":" + quote(session.getIdTag())
+                + ",\"meterStart\":0,\"timestamp\":\"" + Instant.now() + "\"}")
+                .thenApply(response -> {
+                    if (isAccepted(response)) {
+                        session.startCharging(response.path("transactionId").asInt());
+                    } else {
+                        session.setState(SessionState.AUTHORIZED);
+                    }
+                    return response;
+                });
+    }
+
+    public CompletableFuture<JsonNode> sendMeterValues() {
+        Instant now = Instant.now();
+        long meter = session.meterWh(now.toEpochMilli());
+        long powerW = session.isCharging() ? (long) (session.getChargerType().getMaxPowerKw() * 1000) : 0;
+        StringBuilder payload = new StringBuilder(320).append("{\"connectorId\":1");
+        if (session.hasTransaction()) {
+            payload.append(",\"transactionId\":").append(session.getTransactionId());
+        }
+        payload.append(",\"meterValue\":[{\"timestamp\":\"").append(now).append("\",\"sampledValue\":[")
+               .append("{\"value\":\"").append(meter)
+               .append("\",\"context\":\"Sample.Periodic\",\"measurand\":\"Energy.Active.Import.Register\",\"unit\":\"Wh\"},")
+               .append("{\"value\":\"").append(powerW)
+               .append("\",\"context\":\"Sample.Periodic\",\"measurand\":\"Power.Active.Import\",\"unit\":\"W\"}]}]}");
+        return call("MeterValues", payload.toString());
+    }
+
+    public CompletableFuture<JsonNode> sendStopTransaction() {
+        if (!session.hasTransaction()) {
+            return CompletableFuture.failedFuture(new OCPPException("No active transaction"));
+        }
+        session.stopCharging();
+        session.setState(SessionState.STOPPING);
+        Instant now = Instant.now();
+        return call("StopTransaction", "{\"idTag\":" + quote(session.getIdTag())
+                + ",\"meterStop\":" + session.meterWh(now.toEpochMilli())
+                + ",\"timestamp\":\"" + now + "\",\"reason\":\"Local\",\"transactionId\":"
+                + session.getTransactionId() + "}")
+                .thenApply(response -> {
+                    session.setState(SessionState.FINISHING);
+                    return response;
+                });
+    }
+
+    // =========================================================================
+    // OCPP-J
+    // =========================================================================
+
+    /**
+     * Envoie un CALL et attend sa réponse. Si un CALL est déjà en vol, celui-ci
+     * est envoyé à sa suite, dans l'ordre d'appel.
+     *
+     * @return payload du CALLRESULT ; échoue sur CALLERROR, délai dépassé
+     *         (attente dans la file comprise) ou fermeture
+     */
+    public CompletableFuture<JsonNode> call(String action, String payloadJson) {
+        CompletableFuture<JsonNode> future = new CompletableFuture<JsonNode>()
+                .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
+        String messageId = null;
+        synchronized (this) {
+            if (pending == null) {
+                messageId = begin(future);
+            } else {
+                if (waiting == null) {
+                    waiting = new ArrayDeque<>(2);
+                }
+                waiting.add(new QueuedCall(action, payloadJson, future));
+            }
+        }
+        // Enregistré hors verrou : un futur déjà expiré libère aussitôt sa place
+        future.whenComplete((response, error) -> release(future));
+        if (messageId != null) {
+            transmit(messageId, action, payloadJson, future);
+        }
+        return future;
+    }
+
+    /**
+     * Met le futur en vol ; appelé sous le verrou.
+     */
+    private String begin(CompletableFuture<JsonNode> future) {
+        String messageId = Integer.toString(++nextMessageId);
+        pendingId = messageId;
+        pending = future;
+        session.countMessage();
+        return messageId;
+    }
+
+    private void transmit(String messageId, String action, String payloadJson, CompletableFuture<JsonNode> future) {
+        try {
+            send("[2,\"" + messageId + "\",\"" + action + "\"," + payloadJson + "]");
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Libère la place du CALL terminé et envoie le suivant encore attendu.
+     */
+    private void release(CompletableFuture<JsonNode> future) {
+        QueuedCall next = null;
+        String messageId = null;
+        synchronized (this) {
+            if (pending != future) {
+                return;
+            }
+            pending = null;
+            pendingId = null;
+            while (waiting != null && !waiting.isEmpty()) {
+                QueuedCall queued = waiting.poll();
+                if (!queued.future().isDone()) {
+                    next = queued;
+                    messageId = begin(queued.future());
+                    break;
+                }
+            }
+        }
+        if (next != null) {
+            transmit(messageId, next.action(), next.payloadJson(), next.future());
+        }
+    }
+
+    private synchronized CompletableFuture<JsonNode> take(String messageId) {
+        return pending != null && messageId.equals(pendingId) ? pending : null;
+    }
+
+    @Override
+    public void onOpen(ServerHandshake handshake) {
+        session.setState(SessionState.CONNECTED);
+        session.setLastError(null);
+    }
+
+    @Override
+    public void onMessage(String message) {
+        JsonNode frame;
+        try {
+            frame = MAPPER.readTree(message);
+        } catch (Exception e) {
+            log.debug("Invalid frame for light session {}: {}", session.getId(), e.getMessage());
+            return;
+        }
+        if (!frame.isArray() || frame.size() < 3) {
+            return;
+        }
+        String messageId = frame.get(1).asText();
+        switch (frame.get(0).asInt()) {
+            case 2 -> send("[4,\"" + messageId + "\",\"NotSupported\",\"Light load-test session\",{}]");
+            case 3 -> {
+                CompletableFuture<JsonNode> future = take(messageId);
+                if (future != null) {
+                    future.complete(frame.get(2));
+                }
+            }
+            case 4 -> {
+                CompletableFuture<JsonNode> future = take(messageId);
+                if (future != null) {
+                    future.completeExceptionally(new OCPPException(frame.get(2).asText(),
+                            frame.path(3).asText()));
+                }
+            }
+            default -> log.debug("Unknown message type for light session {}: {}", session.getId(), message);
+        }
+    }
+
+    @Override
+    public void onClose(int code, String reason, boolean remote) {
+        session.setState(SessionState.DISCONNECTED);
+        if (remote) {
+            session.setLastError("Closed by CSMS (code " + code + ")");
+        }
+        List<CompletableFuture<JsonNode>> failed = new ArrayList<>();
+        synchronized (this) {
+            if (waiting != null) {
+                waiting.forEach(queued -> failed.add(queued.future()));
+                waiting.clear();
+            }
+            if (pending != null) {
+                failed.add(pending);
+            }
+        }
+        failed.forEach(future -> future.completeExceptionally(new OCPPException("Connection closed")));
+    }
+
+    @Override
+    public void onError(Exception ex) {
+        log.debug("WebSocket error for light session {}: {}", session.getId(), ex.getMessage());
+        session.setLastError(ex.getMessage());
+    }
+
+    private record QueuedCall(String action, String payloadJson, CompletableFuture<JsonNode> future) {
+    }
+
+    private static boolean isAccepted(JsonNode response) {
+        return "Accepted".equals(response.path("idTagInfo").path("status").asText());
+    }
+
+    private static String quote(String value) {
+        if (value == null) {
+            return "null";
+        }
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
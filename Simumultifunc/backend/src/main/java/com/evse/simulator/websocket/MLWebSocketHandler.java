@@ -1,7 +1,9 @@
 package com.evse.simulator.websocket;
 
+import com.evse.simulator.websocket.broadcast.NativeSessionGroup;
+import com.evse.simulator.websocket.broadcast.PayloadCodec;
+import com.evse.simulator.websocket.broadcast.WireFormat;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
@@ -10,24 +12,28 @@ import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handler WebSocket natif pour les notifications ML temps réel.
  * Gère les connexions et diffuse les anomalies détectées.
+ * Les clients peuvent négocier le format CBOR (sous-protocole {@code cbor}).
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class MLWebSocketHandler extends TextWebSocketHandler {
 
     private final ObjectMapper objectMapper;
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final NativeSessionGroup sessions;
+
+    public MLWebSocketHandler(ObjectMapper objectMapper, PayloadCodec payloadCodec) {
+        this.objectMapper = objectMapper;
+        this.sessions = new NativeSessionGroup("ML WebSocket", payloadCodec);
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.put(session.getId(), session);
-        log.info("[ML WebSocket] Connection established: {}", session.getId());
+        WireFormat format = sessions.add(session);
+        log.info("[ML WebSocket] Connection established: {} ({})", session.getId(), format);
 
         // Envoyer un message de connexion
         Map<String, Object> connectionMsg = Map.of(
@@ -35,12 +41,12 @@ public class MLWebSocketHandler extends TextWebSocketHandler {
             "message", "Connected to ML WebSocket",
             "sessionId", session.getId()
         );
-        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(connectionMsg)));
+        sessions.send(session, connectionMsg);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessions.remove(session.getId());
+        sessions.remove(session);
         log.info("[ML WebSocket] Connection closed: {} ({})", session.getId(), status);
     }
 
@@ -60,7 +66,7 @@ public class MLWebSocketHandler extends TextWebSocketHandler {
                     "type", "pong",
                     "timestamp", System.currentTimeMillis()
                 );
-                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(pong)));
+                sessions.send(session, pong);
             }
         } catch (Exception e) {
             log.error("[ML WebSocket] Error handling message: {}", e.getMessage());
@@ -71,7 +77,7 @@ public class MLWebSocketHandler extends TextWebSocketHandler {
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("[ML WebSocket] Transport error for session {}: {}",
             session.getId(), exception.getMessage());
-        sessions.remove(session.getId());
+        sessions.remove(session);
     }
 
     /**
@@ -84,36 +90,24 @@ public class MLWebSocketHandler extends TextWebSocketHandler {
             return;
         }
 
-        try {
-            Map<String, Object> message = Map.of(
-                "type", "ML_ANOMALY",
-                "data", anomaly,
-                "timestamp", System.currentTimeMillis()
-            );
-            String json = objectMapper.writeValueAsString(message);
-            TextMessage textMessage = new TextMessage(json);
-
-            sessions.values().forEach(session -> {
-                try {
-                    if (session.isOpen()) {
-                        session.sendMessage(textMessage);
-                    }
-                } catch (Exception e) {
-                    log.error("[ML WebSocket] Failed to send to session {}: {}",
-                        session.getId(), e.getMessage());
-                }
-            });
-
-            log.debug("[ML WebSocket] Broadcasted anomaly to {} clients", sessions.size());
-        } catch (Exception e) {
-            log.error("[ML WebSocket] Failed to serialize anomaly: {}", e.getMessage());
-        }
+        Map<String, Object> message = Map.of(
+            "type", "ML_ANOMALY",
+            "data", anomaly,
+            "timestamp", System.currentTimeMillis()
+        );
+        // Sérialisé une fois par format, quel que soit le nombre de clients
+        int delivered = sessions.broadcast(message);
+        log.debug("[ML WebSocket] Broadcasted anomaly to {} clients", delivered);
     }
 
     /**
      * Retourne le nombre de clients connectés.
      */
     public int getConnectedCount() {
-        return (int) sessions.values().stream().filter(WebSocketSession::isOpen).count();
+        return sessions.getOpenCount();
+    }
+
+    public NativeSessionGroup.Stats getBroadcastStats() {
+        return sessions.getStats();
     }
 }
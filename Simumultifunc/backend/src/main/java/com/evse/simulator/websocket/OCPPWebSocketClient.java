@@ -11,13 +11,15 @@ import com.evse.simulator.model.TNREvent;
 import com.evse.simulator.model.enums.SessionState;
 import com.evse.simulator.ocpp.v16.Ocpp16MessageRouter;
 import com.evse.simulator.service.ChargingProfileManager;
-import com.evse.simulator.service.ChargingProfileManager.EffectiveLimit;
+import com.evse.simulator.service.SmartChargingEngine;
+import com.evse.simulator.service.SmartChargingEngine.EffectiveLimit;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.framing.TextFrame;
 import org.java_websocket.handshake.ServerHandshake;
 import org.java_websocket.protocols.IProtocol;
 import org.java_websocket.protocols.Protocol;
@@ -27,6 +29,7 @@ import javax.net.ssl.SSLSocketFactory;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -132,7 +135,7 @@ public class OCPPWebSocketClient extends WebSocketClient {
      * Creates a Draft_6455 with the specified OCPP subprotocol.
      * This is essential for proper WebSocket handshake with CSMS servers.
      */
-    private static Draft_6455 createOcppDraft(String subprotocol) {
+    static Draft_6455 createOcppDraft(String subprotocol) {
         // Create protocol with the OCPP subprotocol name
         IProtocol protocol = new Protocol(subprotocol);
         // Draft_6455 with the protocol list - server will select from these
@@ -143,7 +146,7 @@ public class OCPPWebSocketClient extends WebSocketClient {
      * Crée une SSLSocketFactory qui accepte tous les certificats.
      * Note: À utiliser uniquement en développement/test.
      */
-    private static SSLSocketFactory createTrustAllSSLFactory() throws Exception {
+    static SSLSocketFactory createTrustAllSSLFactory() throws Exception {
         TrustManager[] trustAllCerts = new TrustManager[]{
                 new X509TrustManager() {
                     @Override
@@ -443,6 +446,16 @@ public class OCPPWebSocketClient extends WebSocketClient {
         }
     }
 
+    /**
+     * Envoie une trame texte déjà encodée en UTF-8, sans chaîne intermédiaire.
+     * Le buffer est copié (et masqué) dans la trame sortante avant le retour.
+     */
+    public void sendText(ByteBuffer utf8) {
+        TextFrame frame = new TextFrame();
+        frame.setPayload(utf8);
+        sendFrame(frame);
+    }
+
     // =========================================================================
     // Smart Charging Handlers
     // =========================================================================
@@ -586,7 +599,7 @@ public class OCPPWebSocketClient extends WebSocketClient {
                 chargingRateUnit = "W";
             }
 
-            ChargingProfileManager.CompositeSchedule composite = chargingProfileManager.getCompositeSchedule(
+            SmartChargingEngine.CompositeSchedule composite = chargingProfileManager.getCompositeSchedule(
                     session.getId(),
                     connectorId,
                     duration,
@@ -605,7 +618,7 @@ public class OCPPWebSocketClient extends WebSocketClient {
                 schedule.put("chargingRateUnit", composite.chargingRateUnit().getValue());
 
                 List<Map<String, Object>> periods = new ArrayList<>();
-                for (ChargingProfileManager.CompositeSchedulePeriod period : composite.chargingSchedulePeriod()) {
+                for (SmartChargingEngine.CompositeSchedulePeriod period : composite.chargingSchedulePeriod()) {
                     Map<String, Object> p = new HashMap<>();
                     p.put("startPeriod", period.startPeriod());
                     p.put("limit", period.limit());
@@ -743,6 +756,8 @@ public class OCPPWebSocketClient extends WebSocketClient {
                 "reason", reason != null ? reason : "",
                 "remote", remote
         ), null);
+
+        ocppService.handleConnectionLost(session.getId(), code, remote);
     }
 
     @Override
@@ -1,7 +1,10 @@
 package com.evse.simulator.websocket;
 
+import com.evse.simulator.performance.csms.MockCsmsService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
 
@@ -10,12 +13,17 @@ import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Handler WebSocket pour les connexions OCPP.
+ * Les trames recues sont traitees par le CSMS simule ({@link MockCsmsService}) ;
+ * enregistre par {@link com.evse.simulator.config.OcppWebSocketConfig}.
  */
+@Slf4j
 @Component
+@ConditionalOnProperty(name = "performance.mock-csms.enabled", havingValue = "true")
 @RequiredArgsConstructor
 public class OCPPWebSocketHandler implements WebSocketHandler {
 
     private final ObjectMapper objectMapper;
+    private final MockCsmsService mockCsms;
     private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
 
     @Override
@@ -28,9 +36,12 @@ public class OCPPWebSocketHandler implements WebSocketHandler {
     public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) {
         try {
             String payload = message.getPayload().toString();
-            System.out.println("OCPP Message received: " + payload);
+            String reply = mockCsms.getResponder().answer(chargePointId(session), payload);
+            if (reply != null) {
+                session.sendMessage(new TextMessage(reply));
+            }
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("OCPP reply failed for session {}: {}", session.getId(), e.getMessage());
         }
     }
 
@@ -49,12 +60,17 @@ public class OCPPWebSocketHandler implements WebSocketHandler {
         return false;
     }
 
+    private static String chargePointId(WebSocketSession session) {
+        String path = session.getUri() != null ? session.getUri().getPath() : "";
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
     private void sendMessage(WebSocketSession session, Object message) {
         try {
             String json = objectMapper.writeValueAsString(message);
             session.sendMessage(new TextMessage(json));
         } catch (Exception e) {
-            e.printStackTrace();
+            log.warn("OCPP send failed for session {}: {}", session.getId(), e.getMessage());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package com.evse.simulator.websocket;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delai avant reconnexion : exponentiel, plafonne et gigue.
+ * <p>
+ * Avec la gigue complete ({@link Jitter#FULL}), le delai est tire
+ * uniformement entre 0 et {@code min(max, initial * multiplier^(tentative-1))} :
+ * des milliers de points de charge coupes au meme instant ne reviennent pas
+ * tous ensemble a chaque palier, la vague de reconnexion est etalee.
+ * </p>
+ */
+public final class ReconnectBackoff {
+
+    /**
+     * Gigue appliquee au delai exponentiel.
+     */
+    public enum Jitter {
+        /** Delai exponentiel exact (vagues synchronisees) */
+        NONE,
+        /** Uniforme entre 0 et le delai exponentiel */
+        FULL,
+        /** Moitie fixe, moitie uniforme */
+        EQUAL
+    }
+
+    private final long initialDelayMs;
+    private final long maxDelayMs;
+    private final double multiplier;
+    private final Jitter jitter;
+
+    public ReconnectBackoff(long initialDelayMs, long maxDelayMs, double multiplier, Jitter jitter) {
+        this.initialDelayMs = Math.max(1, initialDelayMs);
+        this.maxDelayMs = Math.max(this.initialDelayMs, maxDelayMs);
+        this.multiplier = Math.max(1.0, multiplier);
+        this.jitter = jitter != null ? jitter : Jitter.FULL;
+    }
+
+    /**
+     * Delai avant la tentative {@code attempt} (a partir de 1).
+     */
+    public long delayMs(int attempt) {
+        return delayMs(attempt, ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Delai avant la tentative {@code attempt}, {@code random} uniforme dans [0, 1).
+     */
+    public long delayMs(int attempt, double random) {
+        long ceiling = ceilingMs(attempt);
+        return switch (jitter) {
+            case NONE -> ceiling;
+            case FULL -> (long) (ceiling * random);
+            case EQUAL -> ceiling / 2 + (long) (ceiling / 2.0 * random);
+        };
+    }
+
+    /**
+     * Delai exponentiel plafonne, avant gigue.
+     */
+    public long ceilingMs(int attempt) {
+        double delay = initialDelayMs * Math.pow(multiplier, Math.max(0, attempt - 1));
+        return delay >= maxDelayMs ? maxDelayMs : (long) delay;
+    }
+}
@@ -1,5 +1,8 @@
 package com.evse.simulator.websocket;
 
+import com.evse.simulator.websocket.broadcast.NativeSessionGroup;
+import com.evse.simulator.websocket.broadcast.PayloadCodec;
+import com.evse.simulator.websocket.broadcast.WireFormat;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
@@ -7,28 +10,30 @@ import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 /**
  * Handler WebSocket pour les sessions de simulation.
  * Gère les connexions WebSocket natives (non-STOMP).
+ * Les clients peuvent négocier le format CBOR (voir {@link NativeSessionGroup}).
  */
 @Slf4j
 @Component
 public class SessionWebSocketHandler extends TextWebSocketHandler {
 
-    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final NativeSessionGroup sessions;
+
+    public SessionWebSocketHandler(PayloadCodec payloadCodec) {
+        this.sessions = new NativeSessionGroup("Session WebSocket", payloadCodec);
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        sessions.put(session.getId(), session);
-        log.info("WebSocket connection established: {}", session.getId());
+        WireFormat format = sessions.add(session);
+        log.info("WebSocket connection established: {} ({})", session.getId(), format);
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
-        sessions.remove(session.getId());
+        sessions.remove(session);
         log.info("WebSocket connection closed: {}", session.getId());
     }
 
@@ -40,28 +45,31 @@ public class SessionWebSocketHandler extends TextWebSocketHandler {
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         log.error("WebSocket transport error", exception);
-        sessions.remove(session.getId());
+        sessions.remove(session);
     }
 
     /**
-     * Envoie un message à toutes les sessions connectées.
+     * Envoie un message texte déjà sérialisé à toutes les sessions connectées.
      */
     public void broadcast(String message) {
-        sessions.values().forEach(session -> {
-            try {
-                if (session.isOpen()) {
-                    session.sendMessage(new TextMessage(message));
-                }
-            } catch (Exception e) {
-                log.error("Failed to send message to session {}: {}", session.getId(), e.getMessage());
-            }
-        });
+        sessions.broadcastText(message);
+    }
+
+    /**
+     * Envoie un payload à toutes les sessions connectées, sérialisé une fois par format.
+     */
+    public void broadcast(Object payload) {
+        sessions.broadcast(payload);
     }
 
     /**
      * Récupère le nombre de sessions actives.
      */
     public int getActiveSessionCount() {
-        return (int) sessions.values().stream().filter(WebSocketSession::isOpen).count();
+        return sessions.getOpenCount();
+    }
+
+    public NativeSessionGroup.Stats getBroadcastStats() {
+        return sessions.getStats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,297 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.evse.simulator.config.BroadcastProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipeline de diffusion STOMP par trames.
+ * <p>
+ * Les producteurs déposent leurs mises à jour sans bloquer ; toutes les
+ * {@code broadcast.frame-interval-ms} millisecondes, chaque destination est vidée :
+ * </p>
+ * <ul>
+ *   <li>destinations "latest" (session, métriques) : seule la dernière valeur est envoyée ;</li>
+ *   <li>destinations "queued" (logs, OCPP, graphiques) : tous les messages sont envoyés
+ *       dans l'ordre, dans la limite de {@code max-queued-per-destination} ;</li>
+ *   <li>les destinations sans abonné (voir {@link SubscriptionTracker}) sont vidées sans sérialisation.</li>
+ * </ul>
+ * <p>
+ * La conversion du payload (ex: delta de session) est faite au moment de l'envoi,
+ * donc une seule fois par trame et par destination. Une {@link Route} permet de
+ * remplacer la détection d'intérêt, la conversion et la livraison pour une famille
+ * de destinations (ex: sessions diffusées aussi dans des fenêtres paginées).
+ * </p>
+ * <p>
+ * Chaque destination existe aussi en variante CBOR ({@code destination + ".cbor"}) :
+ * le payload y est encodé une seule fois en octets puis diffusé par le broker
+ * à tous les abonnés de la variante. Les trames STOMP binaires nécessitent
+ * l'endpoint WebSocket natif (/ws-native), SockJS ne transportant que du texte.
+ * </p>
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BroadcastCoalescer {
+
+    /**
+     * En-tête STOMP indiquant l'encodage du corps binaire.
+     */
+    public static final String ENCODING_HEADER = "x-encoding";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SubscriptionTracker subscriptions;
+    private final BroadcastProperties properties;
+    private final PayloadCodec codec;
+
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Map<String, TopicCounters> counters = new ConcurrentHashMap<>();
+    private final List<Runnable> frameListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Acheminement spécifique d'une famille de destinations.
+     */
+    public interface Route {
+
+        /**
+         * @return true si la destination doit être convertie et livrée dans cette trame
+         */
+        boolean hasInterest(String destination);
+
+        /**
+         * Convertit le payload au moment de l'envoi (null = rien à envoyer).
+         */
+        Object encode(Object payload);
+
+        /**
+         * Livre le payload converti.
+         */
+        void deliver(String destination, Object encoded);
+    }
+
+    /**
+     * Destination en attente d'envoi.
+     */
+    private static final class Slot {
+        final String destination;
+        final TopicCounters counters;
+        final Route route;
+        final AtomicReference<Object> latest = new AtomicReference<>();
+        final ConcurrentLinkedQueue<Object> queue = new ConcurrentLinkedQueue<>();
+        final AtomicInteger queued = new AtomicInteger();
+
+        Slot(String destination, TopicCounters counters, Route route) {
+            this.destination = destination;
+            this.counters = counters;
+            this.route = route;
+        }
+
+        boolean isEmpty() {
+            return latest.get() == null && queued.get() == 0;
+        }
+    }
+
+    /**
+     * Dépose une valeur fusionnable : une valeur plus récente remplace la précédente
+     * si la trame n'est pas encore partie.
+     *
+     * @param topic       motif du topic (clé des compteurs)
+     * @param destination destination STOMP
+     * @param payload     valeur à diffuser
+     */
+    public void submitLatest(String topic, String destination, Object payload) {
+        submitLatest(topic, destination, payload, directRoute);
+    }
+
+    /**
+     * Dépose une valeur fusionnable acheminée par une route spécifique.
+     */
+    public void submitLatest(String topic, String destination, Object payload, Route route) {
+        Slot slot = slot(topic, destination, route);
+        slot.counters.submitted();
+        if (slot.latest.getAndSet(payload) != null) {
+            slot.counters.coalesced();
+        }
+    }
+
+    /**
+     * Dépose un message non fusionnable (flux ordonné, borné).
+     * Sans abonné, le message n'est même pas mis en file.
+     */
+    public void submitQueued(String topic, String destination, Object payload) {
+        Slot slot = slot(topic, destination, directRoute);
+        slot.counters.submitted();
+        if (properties.isSkipUnsubscribed() && !directRoute.hasInterest(destination)) {
+            slot.counters.skippedNoSubscriber(1);
+            return;
+        }
+        slot.queue.offer(payload);
+        if (slot.queued.incrementAndGet() > properties.getMaxQueuedPerDestination()
+                && slot.queue.poll() != null) {
+            slot.queued.decrementAndGet();
+            slot.counters.dropped(1);
+        }
+    }
+
+    /**
+     * Oublie une destination et ses sous-destinations (ex: /topic/sessions/{id} et /topic/sessions/{id}/logs).
+     */
+    public void forget(String destination) {
+        String prefix = destination + "/";
+        slots.keySet().removeIf(d -> d.equals(destination) || d.startsWith(prefix));
+    }
+
+    /**
+     * Enregistre un traitement exécuté à la fin de chaque trame.
+     */
+    public void addFrameListener(Runnable listener) {
+        frameListeners.add(listener);
+    }
+
+    /**
+     * Envoie une trame : vide toutes les destinations en attente.
+     */
+    @Scheduled(fixedDelayString = "${broadcast.frame-interval-ms:250}")
+    public void flush() {
+        for (Slot slot : slots.values()) {
+            if (slot.isEmpty()) {
+                continue;
+            }
+            if (properties.isSkipUnsubscribed() && !slot.route.hasInterest(slot.destination)) {
+                discard(slot);
+                continue;
+            }
+            Object latest = slot.latest.getAndSet(null);
+            if (latest != null) {
+                send(slot, slot.route.encode(latest));
+            }
+            Object next;
+            while ((next = slot.queue.poll()) != null) {
+                slot.queued.decrementAndGet();
+                send(slot, next);
+            }
+        }
+        for (Runnable listener : frameListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Broadcast frame listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void discard(Slot slot) {
+        long count = slot.latest.getAndSet(null) != null ? 1 : 0;
+        while (slot.queue.poll() != null) {
+            slot.queued.decrementAndGet();
+            count++;
+        }
+        slot.counters.skippedNoSubscriber(count);
+    }
+
+    private void send(Slot slot, Object payload) {
+        if (payload == null) {
+            slot.counters.unchanged();
+            return;
+        }
+        try {
+            slot.route.deliver(slot.destination, payload);
+            slot.counters.sent();
+        } catch (Exception e) {
+            slot.counters.failed();
+            log.error("Failed to broadcast to {}: {}", slot.destination, e.getMessage());
+        }
+    }
+
+    private Slot slot(String topic, String destination, Route route) {
+        Slot slot = slots.get(destination);
+        if (slot == null) {
+            TopicCounters topicCounters = counters.computeIfAbsent(topic, t -> new TopicCounters());
+            slot = slots.computeIfAbsent(destination, d -> new Slot(d, topicCounters, route));
+        }
+        return slot;
+    }
+
+    /**
+     * Route par défaut : abonnés directs (JSON et/ou CBOR), payload inchangé, envoi au broker.
+     */
+    private final Route directRoute = new Route() {
+        @Override
+        public boolean hasInterest(String destination) {
+            return subscriptions.hasSubscribers(destination) || hasCompactSubscribers(destination);
+        }
+
+        @Override
+        public Object encode(Object payload) {
+            return payload;
+        }
+
+        @Override
+        public void deliver(String destination, Object encoded) {
+            if (subscriptions.hasSubscribers(destination)) {
+                messagingTemplate.convertAndSend(destination, encoded);
+            }
+            if (hasCompactSubscribers(destination)) {
+                sendCompact(destination, encoded);
+            }
+        }
+    };
+
+    /**
+     * @return true si la variante CBOR de la destination a au moins un abonné
+     */
+    boolean hasCompactSubscribers(String destination) {
+        return properties.isCompactEncoding()
+                && subscriptions.hasSubscribers(destination + WireFormat.CBOR.getDestinationSuffix());
+    }
+
+    /**
+     * Envoie le payload encodé en CBOR sur la variante {@code .cbor} de la destination.
+     * Le type application/octet-stream force une trame WebSocket binaire côté STOMP.
+     */
+    void sendCompact(String destination, Object payload) {
+        try {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+            accessor.setNativeHeader(ENCODING_HEADER, WireFormat.CBOR.getProtocol());
+            accessor.setLeaveMutable(true);
+            byte[] bytes = codec.encode(payload, WireFormat.CBOR);
+            messagingTemplate.send(destination + WireFormat.CBOR.getDestinationSuffix(),
+                    MessageBuilder.createMessage(bytes, accessor.getMessageHeaders()));
+        } catch (Exception e) {
+            log.error("Failed to broadcast CBOR to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    /**
+     * @return compteurs par topic, triés par motif
+     */
+    public Map<String, TopicCounters.TopicStats> getTopicStats() {
+        Map<String, TopicCounters.TopicStats> stats = new TreeMap<>();
+        counters.forEach((topic, c) -> stats.put(topic, c.snapshot()));
+        return stats;
+    }
+
+    /**
+     * @return nombre de destinations suivies
+     */
+    public int getTrackedDestinations() {
+        return slots.size();
+    }
+}
@@ -0,0 +1,40 @@
+package com.evse.simulator.websocket.broadcast;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * Handshake WebSocket contrôlant la compression permessage-deflate (RFC 7692).
+ * <p>
+ * Le conteneur (Tomcat) accepte permessage-deflate dès que le client le propose ;
+ * ce handler permet de la retirer de la négociation quand
+ * {@code broadcast.permessage-deflate=false} (CPU serveur contraint, réseau local).
+ * </p>
+ */
+public class CompressionHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean permessageDeflate;
+
+    public CompressionHandshakeHandler(boolean permessageDeflate) {
+        this.permessageDeflate = permessageDeflate;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                 List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        List<WebSocketExtension> extensions =
+                super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions);
+        if (permessageDeflate) {
+            return extensions;
+        }
+        return extensions.stream()
+                .filter(extension -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+                .toList();
+    }
+}
@@ -0,0 +1,178 @@
+package com.evse.simulator.websocket.broadcast;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Groupe de sessions WebSocket natives (non-STOMP) recevant une même diffusion.
+ * <p>
+ * Chaque session déclare son format à la connexion (sous-protocole {@code cbor}
+ * ou paramètre {@code ?format=cbor}, JSON sinon). Un payload diffusé est sérialisé
+ * une seule fois par format, puis envoyé à toutes les sessions. Les envois passent
+ * par un {@link ConcurrentWebSocketSessionDecorator} : un client lent est mis en
+ * tampon puis fermé au lieu de bloquer la diffusion.
+ * </p>
+ */
+@Slf4j
+public class NativeSessionGroup {
+
+    private static final int SEND_TIME_LIMIT_MS = 10_000;
+    private static final int SEND_BUFFER_LIMIT = 512 * 1024;
+
+    private final String name;
+    private final PayloadCodec codec;
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder encodings = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder jsonBytes = new LongAdder();
+    private final LongAdder cborBytes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private record Member(WebSocketSession session, WireFormat format) {}
+
+    /**
+     * Compteurs du groupe.
+     *
+     * @param sessions     sessions connectées
+     * @param cborSessions sessions en CBOR
+     * @param broadcasts   diffusions
+     * @param encodings    sérialisations effectuées (au plus une par format et par diffusion)
+     * @param messagesSent messages envoyés
+     * @param jsonBytes    octets envoyés en JSON (avant permessage-deflate)
+     * @param cborBytes    octets envoyés en CBOR (avant permessage-deflate)
+     * @param failures     échecs d'envoi
+     */
+    public record Stats(int sessions, long cborSessions, long broadcasts, long encodings,
+                        long messagesSent, long jsonBytes, long cborBytes, long failures) {}
+
+    public NativeSessionGroup(String name, PayloadCodec codec) {
+        this.name = name;
+        this.codec = codec;
+    }
+
+    /**
+     * Ajoute une session et détermine son format.
+     */
+    public WireFormat add(WebSocketSession session) {
+        WireFormat format = formatOf(session);
+        WebSocketSession concurrent =
+                new ConcurrentWebSocketSessionDecorator(session, SEND_TIME_LIMIT_MS, SEND_BUFFER_LIMIT);
+        members.put(session.getId(), new Member(concurrent, format));
+        return format;
+    }
+
+    public void remove(WebSocketSession session) {
+        members.remove(session.getId());
+    }
+
+    /**
+     * Diffuse un payload : une sérialisation par format utilisé, un envoi par session.
+     *
+     * @return nombre de sessions atteintes
+     */
+    public int broadcast(Object payload) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        broadcasts.increment();
+        PayloadCodec.Prepared prepared = codec.prepare(payload);
+        int delivered = 0;
+        for (Member member : members.values()) {
+            try {
+                if (send(member, prepared.message(member.format()))) {
+                    delivered++;
+                }
+            } catch (Exception e) {
+                failures.increment();
+                log.error("[{}] Failed to send to session {}: {}", name, member.session().getId(), e.getMessage());
+            }
+        }
+        encodings.add(prepared.encodings());
+        return delivered;
+    }
+
+    /**
+     * Diffuse un texte déjà sérialisé (un seul message partagé, envoyé tel quel à toutes les sessions).
+     *
+     * @return nombre de sessions atteintes
+     */
+    public int broadcastText(String text) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        broadcasts.increment();
+        TextMessage message = new TextMessage(text);
+        int delivered = 0;
+        for (Member member : members.values()) {
+            try {
+                if (send(member, message)) {
+                    delivered++;
+                }
+            } catch (Exception e) {
+                failures.increment();
+                log.error("[{}] Failed to send to session {}: {}", name, member.session().getId(), e.getMessage());
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Envoie un payload à une seule session du groupe, dans son format.
+     */
+    public void send(WebSocketSession session, Object payload) throws Exception {
+        Member member = members.get(session.getId());
+        if (member == null) {
+            return;
+        }
+        send(member, codec.prepare(payload).message(member.format()));
+    }
+
+    private boolean send(Member member, WebSocketMessage<?> message) throws Exception {
+        if (!member.session().isOpen()) {
+            return false;
+        }
+        member.session().sendMessage(message);
+        messagesSent.increment();
+        (member.format() == WireFormat.CBOR ? cborBytes : jsonBytes).add(message.getPayloadLength());
+        return true;
+    }
+
+    private static WireFormat formatOf(WebSocketSession session) {
+        if (session.getAcceptedProtocol() != null && !session.getAcceptedProtocol().isEmpty()) {
+            return WireFormat.fromProtocol(session.getAcceptedProtocol());
+        }
+        if (session.getUri() != null) {
+            String format = UriComponentsBuilder.fromUri(session.getUri()).build()
+                    .getQueryParams().getFirst("format");
+            return WireFormat.fromProtocol(format);
+        }
+        return WireFormat.JSON;
+    }
+
+    /**
+     * @return nombre de sessions ouvertes
+     */
+    public int getOpenCount() {
+        return (int) members.values().stream().filter(m -> m.session().isOpen()).count();
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    public Stats getStats() {
+        long cbor = members.values().stream().filter(m -> m.format() == WireFormat.CBOR).count();
+        return new Stats(members.size(), cbor, broadcasts.sum(), encodings.sum(),
+                messagesSent.sum(), jsonBytes.sum(), cborBytes.sum(), failures.sum());
+    }
+}
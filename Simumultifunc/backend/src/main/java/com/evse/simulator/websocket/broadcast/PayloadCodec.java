@@ -0,0 +1,95 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Sérialisation des payloads diffusés, en JSON compact ou en CBOR.
+ * <p>
+ * Les deux formats partagent la configuration du mapper principal (dates,
+ * inclusion NON_NULL) ; l'indentation est désactivée pour la diffusion.
+ * </p>
+ */
+@Component
+public class PayloadCodec {
+
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter cborWriter;
+
+    public PayloadCodec(ObjectMapper objectMapper) {
+        this.jsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        this.cborWriter = cborMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    /**
+     * Encode un payload dans le format demandé.
+     */
+    public byte[] encode(Object payload, WireFormat format) throws JsonProcessingException {
+        return format == WireFormat.CBOR
+                ? cborWriter.writeValueAsBytes(payload)
+                : jsonWriter.writeValueAsBytes(payload);
+    }
+
+    /**
+     * Prépare un payload pour une diffusion à plusieurs abonnés.
+     */
+    public Prepared prepare(Object payload) {
+        return new Prepared(payload);
+    }
+
+    /**
+     * Payload sérialisé au plus une fois par format, quel que soit le nombre d'abonnés.
+     */
+    public final class Prepared {
+
+        private final Object payload;
+        private final Map<WireFormat, byte[]> encoded = new EnumMap<>(WireFormat.class);
+        private TextMessage textMessage;
+
+        private Prepared(Object payload) {
+            this.payload = payload;
+        }
+
+        public synchronized byte[] bytes(WireFormat format) throws JsonProcessingException {
+            byte[] bytes = encoded.get(format);
+            if (bytes == null) {
+                bytes = encode(payload, format);
+                encoded.put(format, bytes);
+            }
+            return bytes;
+        }
+
+        /**
+         * Message texte (JSON, partagé) ou binaire (CBOR). Le message binaire est
+         * recréé à chaque appel autour des mêmes octets : son ByteBuffer est consommé
+         * par l'envoi et ne peut pas être partagé entre sessions.
+         */
+        public synchronized WebSocketMessage<?> message(WireFormat format) throws JsonProcessingException {
+            if (format == WireFormat.CBOR) {
+                return new BinaryMessage(bytes(format));
+            }
+            if (textMessage == null) {
+                textMessage = new TextMessage(bytes(format));
+            }
+            return textMessage;
+        }
+
+        /**
+         * @return nombre de sérialisations effectuées
+         */
+        public synchronized int encodings() {
+            return encoded.size();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mise à jour de session diffusée sur /topic/sessions/{id}.
+ * <p>
+ * Si {@code full} est vrai, {@code changes} contient l'état complet (hors logs,
+ * messages OCPP et points de graphique, diffusés sur leurs propres topics).
+ * Sinon seuls les champs modifiés depuis le message {@code seq - 1} sont présents,
+ * et {@code removed} liste les champs devenus nuls.
+ * </p>
+ *
+ * @param sessionId identifiant de la session
+ * @param seq       numéro de séquence par session (un trou impose d'attendre le prochain snapshot)
+ * @param full      snapshot complet
+ * @param changes   champs modifiés (nom JSON → valeur)
+ * @param removed   champs supprimés
+ */
+public record SessionDelta(
+        String sessionId,
+        long seq,
+        boolean full,
+        Map<String, JsonNode> changes,
+        List<String> removed
+) {}
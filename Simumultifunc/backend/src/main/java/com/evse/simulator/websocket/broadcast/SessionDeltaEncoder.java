@@ -0,0 +1,130 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.evse.simulator.model.Session;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Calcule les deltas par champ entre deux diffusions d'une même session.
+ * <p>
+ * La session est projetée en arbre JSON sans ses collections volumineuses
+ * (logs, messages OCPP, points de graphique), puis comparée champ de premier
+ * niveau par champ de premier niveau avec le dernier état envoyé.
+ * Un snapshot complet est émis au premier envoi, tous les {@code snapshotEvery}
+ * messages, et après {@link #reset(String)}.
+ * </p>
+ */
+public class SessionDeltaEncoder {
+
+    /**
+     * Collections diffusées sur /logs, /ocpp et /chart : exclues des deltas.
+     */
+    @JsonIgnoreProperties({"logs", "ocppMessages", "socData", "powerData"})
+    private abstract static class StreamedCollectionsMixin {
+    }
+
+    private final ObjectMapper mapper;
+    private final int snapshotEvery;
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    private static final class Baseline {
+        ObjectNode last;
+        long seq;
+        int sinceSnapshot;
+    }
+
+    public SessionDeltaEncoder(ObjectMapper mapper, int snapshotEvery) {
+        this.mapper = mapper.copy().addMixIn(Session.class, StreamedCollectionsMixin.class);
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+    }
+
+    /**
+     * Encode l'état courant de la session.
+     *
+     * @return le delta à envoyer, ou null si rien n'a changé depuis le dernier envoi
+     */
+    public SessionDelta encode(Session session) {
+        ObjectNode current = mapper.valueToTree(session);
+        Baseline baseline = baselines.computeIfAbsent(session.getId(), id -> new Baseline());
+
+        synchronized (baseline) {
+            if (baseline.last == null || baseline.sinceSnapshot >= snapshotEvery) {
+                baseline.last = current;
+                baseline.sinceSnapshot = 0;
+                return new SessionDelta(session.getId(), ++baseline.seq, true, toMap(current), List.of());
+            }
+
+            Map<String, JsonNode> changes = new LinkedHashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (!field.getValue().equals(baseline.last.get(field.getKey()))) {
+                    changes.put(field.getKey(), field.getValue());
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            baseline.last.fieldNames().forEachRemaining(name -> {
+                if (!current.has(name)) {
+                    removed.add(name);
+                }
+            });
+
+            if (changes.isEmpty() && removed.isEmpty()) {
+                return null;
+            }
+            baseline.last = current;
+            baseline.sinceSnapshot++;
+            return new SessionDelta(session.getId(), ++baseline.seq, false, changes, removed);
+        }
+    }
+
+    /**
+     * Construit un snapshot complet sans modifier l'état envoyé, avec le numéro de
+     * séquence courant : le delta suivant de la session s'y enchaîne.
+     */
+    public SessionDelta snapshot(Session session) {
+        ObjectNode current = mapper.valueToTree(session);
+        Baseline baseline = baselines.get(session.getId());
+        long seq = 0;
+        if (baseline != null) {
+            synchronized (baseline) {
+                seq = baseline.seq;
+            }
+        }
+        return new SessionDelta(session.getId(), seq, true, toMap(current), List.of());
+    }
+
+    /**
+     * Force un snapshot complet au prochain envoi.
+     */
+    public void reset(String sessionId) {
+        Baseline baseline = baselines.get(sessionId);
+        if (baseline != null) {
+            synchronized (baseline) {
+                baseline.last = null;
+            }
+        }
+    }
+
+    /**
+     * Oublie l'état envoyé d'une session supprimée.
+     */
+    public void forget(String sessionId) {
+        baselines.remove(sessionId);
+    }
+
+    private static Map<String, JsonNode> toMap(ObjectNode node) {
+        Map<String, JsonNode> map = new LinkedHashMap<>();
+        node.fields().forEachRemaining(e -> map.put(e.getKey(), e.getValue()));
+        return map;
+    }
+}
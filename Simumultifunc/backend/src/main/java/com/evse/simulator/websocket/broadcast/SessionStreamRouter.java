@@ -0,0 +1,276 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.evse.simulator.config.BroadcastProperties;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.repository.DataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Route des mises à jour de session : /topic/sessions/{id} et fenêtres paginées.
+ * <p>
+ * Une session n'est encodée que si un abonné la reçoit, directement ou parce
+ * qu'elle figure dans une fenêtre {@code /topic/sessions-viewport/{clé}}. Le delta
+ * est calculé une seule fois puis distribué au topic de la session et à chaque
+ * fenêtre qui la contient ; les fenêtres reçoivent une {@link SessionViewportFrame}
+ * par trame. Comme pour la route par défaut du {@link BroadcastCoalescer},
+ * topics de session et fenêtres existent aussi en variante CBOR ({@code .cbor}).
+ * </p>
+ * <p>
+ * Les fenêtres offset/limit portent sur la liste des sessions triée par date de
+ * création puis identifiant ; leur composition est recalculée à chaque changement
+ * d'abonnement et toutes les {@code broadcast.viewport-refresh-ms}.
+ * </p>
+ */
+@Component
+@Slf4j
+public class SessionStreamRouter implements BroadcastCoalescer.Route {
+
+    private static final String TOPIC_SESSION = "/topic/sessions/";
+    private static final String CBOR_SUFFIX = WireFormat.CBOR.getDestinationSuffix();
+
+    private static final Comparator<Session> VIEWPORT_ORDER = Comparator
+            .comparing(Session::getCreatedAt, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Session::getId, Comparator.nullsLast(Comparator.<String>naturalOrder()));
+
+    private final SubscriptionTracker subscriptions;
+    private final DataRepository repository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final BroadcastProperties properties;
+    private final SessionDeltaEncoder encoder;
+    private final BroadcastCoalescer coalescer;
+
+    // état des fenêtres (modifié uniquement sur le thread de trame)
+    private final Map<String, ViewportState> viewports = new ConcurrentHashMap<>();
+    private volatile Map<String, List<ViewportState>> membership = Map.of();
+    private long appliedVersion = -1;
+    private long lastRefreshMs;
+    private volatile boolean dirty;
+
+    private final LongAdder directDeliveries = new LongAdder();
+    private final LongAdder viewportOnlyDeliveries = new LongAdder();
+    private final LongAdder viewportFrames = new LongAdder();
+
+    /**
+     * Fenêtre et deltas accumulés pendant la trame.
+     */
+    private static final class ViewportState {
+        final SubscriptionTracker.SessionViewport viewport;
+        List<String> ids = List.of();
+        int total;
+        boolean idsChanged;
+        final List<SessionDelta> pending = new ArrayList<>();
+
+        ViewportState(SubscriptionTracker.SessionViewport viewport) {
+            this.viewport = viewport;
+        }
+    }
+
+    /**
+     * Compteurs de la route des sessions.
+     *
+     * @param viewports              fenêtres actives
+     * @param sessionsInViewports    sessions visibles dans au moins une fenêtre
+     * @param directDeliveries       deltas envoyés sur /topic/sessions/{id}
+     * @param viewportOnlyDeliveries deltas encodés uniquement pour des fenêtres
+     * @param viewportFrames         trames envoyées aux fenêtres
+     */
+    public record Stats(int viewports, int sessionsInViewports, long directDeliveries,
+                        long viewportOnlyDeliveries, long viewportFrames) {}
+
+    public SessionStreamRouter(SubscriptionTracker subscriptions,
+                               DataRepository repository,
+                               SimpMessagingTemplate messagingTemplate,
+                               BroadcastProperties properties,
+                               ObjectMapper objectMapper,
+                               BroadcastCoalescer coalescer) {
+        this.subscriptions = subscriptions;
+        this.repository = repository;
+        this.messagingTemplate = messagingTemplate;
+        this.properties = properties;
+        this.encoder = new SessionDeltaEncoder(objectMapper, properties.getSnapshotEvery());
+        this.coalescer = coalescer;
+        subscriptions.addSubscribeListener(this::onSubscribe);
+        coalescer.addFrameListener(this::flushViewports);
+    }
+
+    // =========================================================================
+    // BroadcastCoalescer.Route
+    // =========================================================================
+
+    @Override
+    public boolean hasInterest(String destination) {
+        return subscriptions.hasSubscribers(destination)
+                || coalescer.hasCompactSubscribers(destination)
+                || membership.containsKey(sessionIdOf(destination));
+    }
+
+    @Override
+    public Object encode(Object payload) {
+        Session session = (Session) payload;
+        return properties.isSessionDeltas() ? encoder.encode(session) : session;
+    }
+
+    @Override
+    public void deliver(String destination, Object encoded) {
+        boolean direct = false;
+        if (subscriptions.hasSubscribers(destination)) {
+            messagingTemplate.convertAndSend(destination, encoded);
+            direct = true;
+        }
+        if (coalescer.hasCompactSubscribers(destination)) {
+            coalescer.sendCompact(destination, encoded);
+            direct = true;
+        }
+        if (direct) {
+            directDeliveries.increment();
+        } else {
+            viewportOnlyDeliveries.increment();
+        }
+        List<ViewportState> states = membership.get(sessionIdOf(destination));
+        if (states != null) {
+            SessionDelta delta = encoded instanceof SessionDelta d ? d : encoder.snapshot((Session) encoded);
+            for (ViewportState state : states) {
+                state.pending.add(delta);
+            }
+        }
+    }
+
+    /**
+     * Oublie l'état diffusé d'une session supprimée.
+     */
+    public void forget(String sessionId) {
+        encoder.forget(sessionId);
+        dirty = true;
+    }
+
+    // =========================================================================
+    // Fenêtres
+    // =========================================================================
+
+    /**
+     * Nouvel abonné direct à une session : le prochain envoi sera un snapshot complet.
+     */
+    private void onSubscribe(String destination) {
+        String base = destination.endsWith(CBOR_SUFFIX)
+                ? destination.substring(0, destination.length() - CBOR_SUFFIX.length())
+                : destination;
+        if (base.startsWith(TOPIC_SESSION) && base.indexOf('/', TOPIC_SESSION.length()) < 0) {
+            encoder.reset(base.substring(TOPIC_SESSION.length()));
+        }
+    }
+
+    /**
+     * Fin de trame : recalcule les fenêtres si besoin et envoie les deltas accumulés.
+     */
+    void flushViewports() {
+        refreshIfNeeded();
+        for (ViewportState state : viewports.values()) {
+            if (state.pending.isEmpty() && !state.idsChanged) {
+                continue;
+            }
+            SubscriptionTracker.SessionViewport viewport = state.viewport;
+            SessionViewportFrame frame = new SessionViewportFrame(viewport.offset(), viewport.limit(),
+                    state.total, state.idsChanged ? state.ids : null, List.copyOf(state.pending));
+            state.pending.clear();
+            state.idsChanged = false;
+            try {
+                String destination = viewport.destination();
+                if (destination.endsWith(CBOR_SUFFIX)) {
+                    coalescer.sendCompact(destination.substring(0, destination.length() - CBOR_SUFFIX.length()), frame);
+                } else {
+                    messagingTemplate.convertAndSend(destination, frame);
+                }
+                viewportFrames.increment();
+            } catch (Exception e) {
+                log.error("Failed to broadcast viewport {}: {}", viewport.destination(), e.getMessage());
+            }
+        }
+    }
+
+    private void refreshIfNeeded() {
+        long version = subscriptions.getViewportVersion();
+        long now = System.currentTimeMillis();
+        boolean due = !viewports.isEmpty() && now - lastRefreshMs >= properties.getViewportRefreshMs();
+        if (version == appliedVersion && !dirty && !due) {
+            return;
+        }
+        appliedVersion = version;
+        lastRefreshMs = now;
+        dirty = false;
+
+        List<SubscriptionTracker.SessionViewport> active = new ArrayList<>(subscriptions.getViewports());
+        if (active.isEmpty()) {
+            viewports.clear();
+            membership = Map.of();
+            return;
+        }
+
+        List<Session> sessions = new ArrayList<>(repository.findAllSessions());
+        sessions.sort(VIEWPORT_ORDER);
+        Map<String, Session> byId = new HashMap<>();
+        for (Session session : sessions) {
+            byId.put(session.getId(), session);
+        }
+
+        viewports.keySet().retainAll(active.stream().map(SubscriptionTracker.SessionViewport::key).toList());
+        Map<String, List<ViewportState>> newMembership = new HashMap<>();
+        for (SubscriptionTracker.SessionViewport viewport : active) {
+            ViewportState state = viewports.get(viewport.key());
+            if (state == null || !state.viewport.equals(viewport)) {
+                state = new ViewportState(viewport);
+                viewports.put(viewport.key(), state);
+            }
+            List<String> ids = resolve(viewport, sessions, byId);
+            if (!ids.equals(state.ids)) {
+                // Snapshot des sessions qui entrent dans la fenêtre
+                for (String id : ids) {
+                    if (!state.ids.contains(id)) {
+                        state.pending.add(encoder.snapshot(byId.get(id)));
+                    }
+                }
+                state.ids = ids;
+                state.idsChanged = true;
+            }
+            if (state.total != sessions.size()) {
+                state.total = sessions.size();
+                state.idsChanged = true;
+            }
+            for (String id : ids) {
+                newMembership.computeIfAbsent(id, k -> new ArrayList<>(1)).add(state);
+            }
+        }
+        membership = newMembership;
+    }
+
+    private static List<String> resolve(SubscriptionTracker.SessionViewport viewport,
+                                        List<Session> sessions, Map<String, Session> byId) {
+        if (!viewport.ids().isEmpty()) {
+            return viewport.ids().stream().filter(byId::containsKey).toList();
+        }
+        int from = Math.min(viewport.offset(), sessions.size());
+        int to = Math.min(from + viewport.limit(), sessions.size());
+        return sessions.subList(from, to).stream().map(Session::getId).filter(Objects::nonNull).toList();
+    }
+
+    private static String sessionIdOf(String destination) {
+        return destination.startsWith(TOPIC_SESSION) ? destination.substring(TOPIC_SESSION.length()) : destination;
+    }
+
+    public Stats getStats() {
+        return new Stats(viewports.size(), membership.size(), directDeliveries.sum(),
+                viewportOnlyDeliveries.sum(), viewportFrames.sum());
+    }
+}
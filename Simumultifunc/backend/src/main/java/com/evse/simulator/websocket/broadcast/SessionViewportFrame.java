@@ -0,0 +1,20 @@
+package com.evse.simulator.websocket.broadcast;
+
+import java.util.List;
+
+/**
+ * Trame envoyée sur une fenêtre {@code /topic/sessions-viewport/{clé}}.
+ *
+ * @param offset   index de départ de la fenêtre dans la liste triée des sessions
+ * @param limit    taille demandée
+ * @param total    nombre total de sessions
+ * @param ids      composition de la fenêtre, présente uniquement quand elle change
+ * @param sessions snapshots (nouvelles sessions de la fenêtre) et deltas de la trame
+ */
+public record SessionViewportFrame(
+        int offset,
+        int limit,
+        int total,
+        List<String> ids,
+        List<SessionDelta> sessions
+) {}
@@ -0,0 +1,240 @@
+package com.evse.simulator.websocket.broadcast;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Registre des abonnements STOMP actifs, alimenté par les événements
+ * SUBSCRIBE / UNSUBSCRIBE / DISCONNECT.
+ * <p>
+ * Le broadcaster le consulte avant toute sérialisation : une destination sans
+ * abonné n'est jamais convertie. Les abonnements à
+ * {@value #VIEWPORT_PREFIX}{clé} déclarent une fenêtre sur la liste des sessions
+ * (en-têtes STOMP {@code offset}/{@code limit}, ou {@code ids} séparés par des virgules).
+ * </p>
+ */
+@Component
+@Slf4j
+public class SubscriptionTracker {
+
+    /**
+     * Préfixe des destinations de fenêtre paginée sur les sessions.
+     */
+    public static final String VIEWPORT_PREFIX = "/topic/sessions-viewport/";
+
+    static final int DEFAULT_VIEWPORT_LIMIT = 50;
+    static final int MAX_VIEWPORT_LIMIT = 500;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    // session STOMP → (id d'abonnement → destination)
+    private final Map<String, Map<String, String>> subscriptionsBySession = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+    private final Set<String> patternDestinations = ConcurrentHashMap.newKeySet();
+    private final Map<String, SessionViewport> viewports = new ConcurrentHashMap<>();
+
+    private final List<Consumer<String>> subscribeListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong viewportVersion = new AtomicLong();
+    private final LongAdder subscribeEvents = new LongAdder();
+    private final LongAdder unsubscribeEvents = new LongAdder();
+
+    /**
+     * Fenêtre déclarée par un abonné sur la liste des sessions.
+     *
+     * @param key         clé unique (session STOMP + id d'abonnement)
+     * @param destination destination de la fenêtre
+     * @param offset      index de départ dans la liste triée des sessions
+     * @param limit       nombre de sessions
+     * @param ids         sessions explicitement demandées (prioritaire sur offset/limit si non vide)
+     */
+    public record SessionViewport(String key, String destination, int offset, int limit, List<String> ids) {}
+
+    /**
+     * Instantané du registre.
+     */
+    public record Stats(int destinations, int subscriptions, int viewports,
+                        long subscribeEvents, long unsubscribeEvents) {}
+
+    // =========================================================================
+    // Événements STOMP
+    // =========================================================================
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        String destination = accessor.getDestination();
+        if (sessionId == null || subscriptionId == null || destination == null) {
+            return;
+        }
+        subscribeEvents.increment();
+        String previous = subscriptionsBySession
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, destination);
+        if (previous != null) {
+            release(sessionId, subscriptionId, previous);
+        }
+        // Compteur et index des motifs modifiés ensemble, sous le verrou de l'entrée
+        subscriberCounts.compute(destination, (d, count) -> {
+            if (count == null) {
+                count = new AtomicInteger();
+                if (pathMatcher.isPattern(d)) {
+                    patternDestinations.add(d);
+                }
+            }
+            count.incrementAndGet();
+            return count;
+        });
+        if (destination.startsWith(VIEWPORT_PREFIX)) {
+            SessionViewport viewport = parseViewport(sessionId + ":" + subscriptionId, destination, accessor);
+            viewports.put(viewport.key(), viewport);
+            viewportVersion.incrementAndGet();
+            log.debug("Viewport subscribed: {}", viewport);
+        }
+        for (Consumer<String> listener : subscribeListeners) {
+            listener.accept(destination);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        Map<String, String> subscriptions = sessionId != null ? subscriptionsBySession.get(sessionId) : null;
+        if (subscriptions == null || subscriptionId == null) {
+            return;
+        }
+        unsubscribeEvents.increment();
+        String destination = subscriptions.remove(subscriptionId);
+        if (destination != null) {
+            release(sessionId, subscriptionId, destination);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = subscriptionsBySession.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, destination) ->
+                    release(event.getSessionId(), subscriptionId, destination));
+        }
+    }
+
+    private void release(String sessionId, String subscriptionId, String destination) {
+        subscriberCounts.compute(destination, (d, count) -> {
+            if (count == null || count.decrementAndGet() > 0) {
+                return count;
+            }
+            patternDestinations.remove(d);
+            return null;
+        });
+        if (viewports.remove(sessionId + ":" + subscriptionId) != null) {
+            viewportVersion.incrementAndGet();
+        }
+    }
+
+    private SessionViewport parseViewport(String key, String destination, StompHeaderAccessor accessor) {
+        int offset = Math.max(0, parseInt(accessor.getFirstNativeHeader("offset"), 0));
+        int limit = Math.min(MAX_VIEWPORT_LIMIT,
+                Math.max(1, parseInt(accessor.getFirstNativeHeader("limit"), DEFAULT_VIEWPORT_LIMIT)));
+        String idsHeader = accessor.getFirstNativeHeader("ids");
+        Set<String> ids = new LinkedHashSet<>();
+        if (idsHeader != null && !idsHeader.isBlank()) {
+            Arrays.stream(idsHeader.split(","))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .limit(MAX_VIEWPORT_LIMIT)
+                    .forEach(ids::add);
+        }
+        return new SessionViewport(key, destination, offset, limit, List.copyOf(ids));
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    // =========================================================================
+    // Requêtes
+    // =========================================================================
+
+    /**
+     * Enregistre un traitement appelé avec la destination de chaque nouvel abonnement.
+     */
+    public void addSubscribeListener(Consumer<String> listener) {
+        subscribeListeners.add(listener);
+    }
+
+    /**
+     * @return true si au moins un abonné reçoit la destination (directement ou via un motif)
+     */
+    public boolean hasSubscribers(String destination) {
+        if (subscriberCounts.containsKey(destination)) {
+            return true;
+        }
+        if (patternDestinations.isEmpty()) {
+            return false;
+        }
+        for (String pattern : patternDestinations) {
+            if (pathMatcher.match(pattern, destination)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return fenêtres de sessions actives
+     */
+    public Collection<SessionViewport> getViewports() {
+        return new ArrayList<>(viewports.values());
+    }
+
+    /**
+     * @return version incrémentée à chaque ajout/retrait de fenêtre
+     */
+    public long getViewportVersion() {
+        return viewportVersion.get();
+    }
+
+    /**
+     * @return destinations actuellement abonnées
+     */
+    public List<String> getDestinations() {
+        return new ArrayList<>(subscriberCounts.keySet());
+    }
+
+    public Stats getStats() {
+        int subscriptions = subscriptionsBySession.values().stream().mapToInt(Map::size).sum();
+        return new Stats(subscriberCounts.size(), subscriptions, viewports.size(),
+                subscribeEvents.sum(), unsubscribeEvents.sum());
+    }
+}
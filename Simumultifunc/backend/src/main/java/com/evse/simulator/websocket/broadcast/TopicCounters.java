@@ -0,0 +1,87 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs de diffusion d'un topic (motif de destination, ex: /topic/sessions/{id}/logs).
+ */
+public class TopicCounters {
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skippedNoSubscriber = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    void submitted() {
+        submitted.increment();
+    }
+
+    void coalesced() {
+        coalesced.increment();
+    }
+
+    void dropped(long count) {
+        dropped.add(count);
+    }
+
+    void skippedNoSubscriber(long count) {
+        skippedNoSubscriber.add(count);
+    }
+
+    void unchanged() {
+        unchanged.increment();
+    }
+
+    void sent() {
+        sent.increment();
+    }
+
+    void failed() {
+        failed.increment();
+    }
+
+    public TopicStats snapshot() {
+        return new TopicStats(submitted.sum(), coalesced.sum(), dropped.sum(),
+                skippedNoSubscriber.sum(), unchanged.sum(), sent.sum(), failed.sum());
+    }
+
+    /**
+     * Instantané des compteurs d'un topic.
+     *
+     * @param submitted           mises à jour reçues
+     * @param coalesced           mises à jour remplacées par une plus récente dans la même trame
+     * @param dropped             messages abandonnés (file pleine)
+     * @param skippedNoSubscriber messages ignorés faute d'abonné
+     * @param unchanged           deltas vides non envoyés
+     * @param sent                messages effectivement envoyés au broker
+     * @param failed              échecs d'envoi
+     */
+    public record TopicStats(
+            long submitted,
+            long coalesced,
+            long dropped,
+            long skippedNoSubscriber,
+            long unchanged,
+            long sent,
+            long failed
+    ) {
+
+        /**
+         * Conversions évitées : mises à jour fusionnées, abandonnées, sans abonné ou inchangées.
+         */
+        @JsonProperty("serializationsAvoided")
+        public long serializationsAvoided() {
+            return coalesced + dropped + skippedNoSubscriber + unchanged;
+        }
+
+        @JsonProperty("avoidedPercent")
+        public double avoidedPercent() {
+            return submitted == 0 ? 0.0 : serializationsAvoided() * 100.0 / submitted;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.evse.simulator.websocket.broadcast;
+
+/**
+ * Encodage des flux dashboard.
+ * <p>
+ * Négocié par sous-protocole WebSocket ({@code Sec-WebSocket-Protocol: cbor}) sur les
+ * endpoints natifs, ou par suffixe de destination ({@code /topic/metrics.cbor}) en STOMP.
+ * </p>
+ */
+public enum WireFormat {
+
+    JSON("json", "application/json", ""),
+    CBOR("cbor", "application/cbor", ".cbor");
+
+    private final String protocol;
+    private final String contentType;
+    private final String destinationSuffix;
+
+    WireFormat(String protocol, String contentType, String destinationSuffix) {
+        this.protocol = protocol;
+        this.contentType = contentType;
+        this.destinationSuffix = destinationSuffix;
+    }
+
+    public String getProtocol() {
+        return protocol;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getDestinationSuffix() {
+        return destinationSuffix;
+    }
+
+    /**
+     * @return le format du sous-protocole accepté, JSON par défaut
+     */
+    public static WireFormat fromProtocol(String protocol) {
+        return CBOR.protocol.equalsIgnoreCase(protocol) ? CBOR : JSON;
+    }
+}
@@ -0,0 +1,111 @@
+package com.evse.simulator.gpm.loadmanagement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de l'arbre de budget site (mvn test -Pbenchmark).
+ * <p>
+ * {@value #FEEDERS} départs × {@value #CHARGE_POINTS} bornes × {@value #CONNECTORS}
+ * connecteurs (50 000 sessions). Chaque tick modifie la demande de
+ * {@value #CHANGED_PER_TICK} connecteurs (1 %) puis réalloue. Compare l'allocation
+ * complète (arbre neuf) à l'allocation incrémentale, site non saturé puis saturé.
+ * </p>
+ */
+@Tag("benchmark")
+class PowerBudgetTreeBenchmarkTest {
+
+    private static final int FEEDERS = 20;
+    private static final int CHARGE_POINTS = 625;
+    private static final int CONNECTORS = 4;
+    private static final int CHANGED_PER_TICK = 500;
+    private static final int TICKS = 50;
+
+    @Test
+    @DisplayName("50k connecteurs : allocation complète vs incrémentale")
+    void fullVersusIncremental() {
+        System.out.printf("%n=== %d connecteurs, %d modifiés/tick, %d ticks ===%n",
+                FEEDERS * CHARGE_POINTS * CONNECTORS, CHANGED_PER_TICK, TICKS);
+        System.out.printf("%-12s %-14s %12s %14s%n", "site", "allocation", "ms/tick", "nœuds/tick");
+
+        run("non saturé", 0, 0);
+        run("saturé", 20_000_000, 1_200_000);
+    }
+
+    private static void run(String label, double siteMaxW, double feederMaxW) {
+        // Préchauffage JIT
+        for (int i = 0; i < 3; i++) {
+            tick(build(siteMaxW, feederMaxW, new Random(i)), new Random(i), true);
+        }
+
+        Random random = new Random(7);
+        PowerBudgetTree tree = build(siteMaxW, feederMaxW, random);
+        int nodes = tree.size();
+
+        long fullNs = 0;
+        for (int t = 0; t < 5; t++) {
+            PowerBudgetTree fresh = build(siteMaxW, feederMaxW, new Random(t));
+            long start = System.nanoTime();
+            assertThat(fresh.allocate()).isEqualTo(nodes);
+            fullNs += System.nanoTime() - start;
+        }
+        fullNs /= 5;
+
+        tree.allocate();
+        long incrementalNs = 0;
+        long visited = 0;
+        for (int t = 0; t < TICKS; t++) {
+            long[] result = tick(tree, random, false);
+            incrementalNs += result[0];
+            visited += result[1];
+        }
+
+        System.out.printf("%-12s %-14s %12.2f %14d%n", label, "complète", fullNs / 1e6, nodes);
+        System.out.printf("%-12s %-14s %12.2f %14d%n", label, "incrémentale",
+                incrementalNs / 1e6 / TICKS, visited / TICKS);
+
+        assertThat(visited / TICKS).isLessThanOrEqualTo(nodes);
+        if (siteMaxW <= 0) {
+            assertThat(visited / TICKS).isLessThan(nodes / 10);
+        }
+    }
+
+    /**
+     * @return durée de l'allocation (ns) et nombre de nœuds recalculés
+     */
+    private static long[] tick(PowerBudgetTree tree, Random random, boolean warmup) {
+        for (int i = 0; i < CHANGED_PER_TICK; i++) {
+            tree.setDemand(connectorId(random.nextInt(FEEDERS), random.nextInt(CHARGE_POINTS),
+                    random.nextInt(CONNECTORS)), random.nextInt(22_000));
+        }
+        long start = System.nanoTime();
+        int visited = warmup ? tree.allocate() + tree.allocate() : tree.allocate();
+        return new long[]{System.nanoTime() - start, visited};
+    }
+
+    private static PowerBudgetTree build(double siteMaxW, double feederMaxW, Random random) {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", siteMaxW, AllocationPolicy.FAIR_SHARE);
+        for (int f = 0; f < FEEDERS; f++) {
+            tree.addNode("f" + f, PowerNode.Type.FEEDER, "SITE", feederMaxW);
+            for (int cp = 0; cp < CHARGE_POINTS; cp++) {
+                String chargePoint = "f" + f + "-cp" + cp;
+                tree.addNode(chargePoint, PowerNode.Type.CHARGE_POINT, "f" + f, 22_000);
+                for (int c = 0; c < CONNECTORS; c++) {
+                    String id = connectorId(f, cp, c);
+                    tree.addNode(id, PowerNode.Type.CONNECTOR, chargePoint, 0);
+                    tree.setDemand(id, 7_000 + random.nextInt(15_000));
+                }
+            }
+        }
+        return tree;
+    }
+
+    private static String connectorId(int feeder, int chargePoint, int connector) {
+        return "f" + feeder + "-cp" + chargePoint + "-c" + connector;
+    }
+}
@@ -0,0 +1,176 @@
+package com.evse.simulator.gpm.loadmanagement;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PowerBudgetTreeTest {
+
+    @Test
+    @DisplayName("Partage équitable : les petites demandes sont servies, le reliquat est partagé")
+    void fairShareRedistributesUnusedPower() {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", 100_000, AllocationPolicy.FAIR_SHARE);
+        tree.addNode("f1", PowerNode.Type.FEEDER, "SITE", 0);
+        connector(tree, "a", "f1", 10_000);
+        connector(tree, "b", "f1", 50_000);
+        connector(tree, "c", "f1", 50_000);
+
+        tree.allocate();
+
+        assertThat(tree.getNode("a").getAllocatedW()).isEqualTo(10_000);
+        assertThat(tree.getNode("b").getAllocatedW()).isEqualTo(45_000);
+        assertThat(tree.getNode("c").getAllocatedW()).isEqualTo(45_000);
+        assertThat(tree.getRoot().getAllocatedW()).isEqualTo(100_000);
+    }
+
+    @Test
+    @DisplayName("La capacité d'un départ borne ses connecteurs, le reste du site va aux autres départs")
+    void feederCapLimitsSubtree() {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", 100_000, AllocationPolicy.FAIR_SHARE);
+        tree.addNode("f1", PowerNode.Type.FEEDER, "SITE", 30_000);
+        tree.addNode("f2", PowerNode.Type.FEEDER, "SITE", 0);
+        connector(tree, "a", "f1", 40_000);
+        connector(tree, "b", "f1", 40_000);
+        connector(tree, "c", "f2", 100_000);
+
+        tree.allocate();
+
+        assertThat(tree.getNode("f1").getAllocatedW()).isEqualTo(30_000);
+        assertThat(tree.getNode("a").getAllocatedW()).isEqualTo(15_000);
+        assertThat(tree.getNode("b").getAllocatedW()).isEqualTo(15_000);
+        assertThat(tree.getNode("c").getAllocatedW()).isEqualTo(70_000);
+    }
+
+    @Test
+    @DisplayName("Priorité : la priorité haute est servie d'abord, la basse reçoit le reliquat")
+    void priorityServesHigherFirst() {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", 50_000, AllocationPolicy.PRIORITY);
+        connector(tree, "low", "SITE", 40_000);
+        connector(tree, "high", "SITE", 40_000);
+        tree.setPriority("high", 1);
+
+        tree.allocate();
+
+        assertThat(tree.getNode("high").getAllocatedW()).isEqualTo(40_000);
+        assertThat(tree.getNode("low").getAllocatedW()).isEqualTo(10_000);
+
+        tree.setPolicy(AllocationPolicy.FAIR_SHARE);
+        tree.allocate();
+
+        assertThat(tree.getNode("high").getAllocatedW()).isEqualTo(25_000);
+        assertThat(tree.getNode("low").getAllocatedW()).isEqualTo(25_000);
+    }
+
+    @Test
+    @DisplayName("Allocation incrémentale : seul le chemin modifié est recalculé")
+    void incrementalAllocationRecomputesChangedPathOnly() {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", 0, AllocationPolicy.FAIR_SHARE);
+        build(tree, 4, 10, 2, 0, new Random(1));
+
+        assertThat(tree.allocate()).isEqualTo(tree.size());
+        assertThat(tree.allocate()).isZero();
+
+        tree.setDemand("f0-cp0-c0", 5_000);
+        tree.setDemand("f0-cp0-c0", 5_000);
+
+        // site → départ → borne → connecteur, les frères non saturés gardent leur part
+        assertThat(tree.allocate()).isEqualTo(4);
+        assertThat(tree.getNode("f0-cp0-c0").getAllocatedW()).isEqualTo(5_000);
+    }
+
+    @Test
+    @DisplayName("Allocation incrémentale identique à un recalcul complet, site saturé")
+    void incrementalMatchesFullRecompute() {
+        Random random = new Random(42);
+        PowerBudgetTree incremental = new PowerBudgetTree("SITE", 400_000, AllocationPolicy.PRIORITY);
+        build(incremental, 4, 10, 2, 150_000, random);
+        incremental.allocate();
+
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 5; i++) {
+                String id = "f" + random.nextInt(4) + "-cp" + random.nextInt(10) + "-c" + random.nextInt(2);
+                incremental.setDemand(id, random.nextInt(22_000));
+            }
+            incremental.setPriority("f" + random.nextInt(4) + "-cp" + random.nextInt(10), random.nextInt(3));
+            incremental.allocate();
+
+            PowerBudgetTree full = copy(incremental);
+            full.allocate();
+            for (int f = 0; f < 4; f++) {
+                for (int cp = 0; cp < 10; cp++) {
+                    for (int c = 0; c < 2; c++) {
+                        String id = "f" + f + "-cp" + cp + "-c" + c;
+                        assertThat(incremental.getNode(id).getAllocatedW())
+                                .isCloseTo(full.getNode(id).getAllocatedW(), within(1e-6));
+                    }
+                }
+            }
+            assertThat(incremental.getRoot().getAllocatedW()).isLessThanOrEqualTo(400_000 + 1e-6);
+        }
+    }
+
+    @Test
+    @DisplayName("Retirer un connecteur libère sa part pour ses frères")
+    void removeNodeReleasesPower() {
+        PowerBudgetTree tree = new PowerBudgetTree("SITE", 20_000, AllocationPolicy.FAIR_SHARE);
+        connector(tree, "a", "SITE", 20_000);
+        connector(tree, "b", "SITE", 20_000);
+        tree.allocate();
+        assertThat(tree.getNode("a").getAllocatedW()).isEqualTo(10_000);
+
+        assertThat(tree.removeNode("b")).isTrue();
+        tree.allocate();
+
+        assertThat(tree.getNode("a").getAllocatedW()).isEqualTo(20_000);
+        assertThat(tree.contains("b")).isFalse();
+        assertThatThrownBy(() -> tree.addNode("x", PowerNode.Type.CONNECTOR, "unknown", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void connector(PowerBudgetTree tree, String id, String parentId, double demandW) {
+        tree.addNode(id, PowerNode.Type.CONNECTOR, parentId, 0);
+        tree.setDemand(id, demandW);
+    }
+
+    private static void build(PowerBudgetTree tree, int feeders, int chargePoints, int connectors, double feederMaxW,
+                              Random random) {
+        for (int f = 0; f < feeders; f++) {
+            String feeder = "f" + f;
+            tree.addNode(feeder, PowerNode.Type.FEEDER, tree.getRoot().getId(), feederMaxW);
+            for (int cp = 0; cp < chargePoints; cp++) {
+                String chargePoint = feeder + "-cp" + cp;
+                tree.addNode(chargePoint, PowerNode.Type.CHARGE_POINT, feeder, 0);
+                for (int c = 0; c < connectors; c++) {
+                    connector(tree, chargePoint + "-c" + c, chargePoint, 7_000 + random.nextInt(15_000));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copie structure, capacités, priorités et demandes dans un arbre neuf (jamais alloué).
+     */
+    private static PowerBudgetTree copy(PowerBudgetTree source) {
+        PowerNode root = source.getRoot();
+        PowerBudgetTree copy = new PowerBudgetTree(root.getId(), root.getMaxPowerW(), source.getPolicy());
+        copyChildren(root, copy);
+        return copy;
+    }
+
+    private static void copyChildren(PowerNode parent, PowerBudgetTree copy) {
+        for (PowerNode child : parent.getChildren()) {
+            copy.addNode(child.getId(), child.getType(), parent.getId(), child.getMaxPowerW());
+            copy.setPriority(child.getId(), child.getPriority());
+            copy.setWeight(child.getId(), child.getWeight());
+            if (child.getChildren().isEmpty()) {
+                copy.setDemand(child.getId(), child.getDemandW());
+            }
+            copyChildren(child, copy);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.evse.simulator.gpm.service;
+
+import com.evse.simulator.gpm.config.SiteLoadProperties;
+import com.evse.simulator.gpm.dto.SiteLoadResponse;
+import com.evse.simulator.model.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SiteLoadManagerTest {
+
+    private final SiteLoadProperties properties = new SiteLoadProperties();
+    private final SiteLoadManager manager = new SiteLoadManager(properties);
+
+    @Test
+    @DisplayName("Désactivé : la lecture d'état ne crée pas l'arbre")
+    void statusDoesNotBuildTreeWhenDisabled() {
+        SiteLoadResponse status = manager.getStatus(null);
+
+        assertThat(status.isEnabled()).isFalse();
+        assertThat(status.getNodes()).isZero();
+        assertThat(status.getRoot()).isNull();
+        assertThat(manager.getStatus("feeder-0")).isNull();
+    }
+
+    @Test
+    @DisplayName("Demandes prises en compte au tick, allocation publiée pour la boucle de charge")
+    void publishesAllocationsAfterTick() {
+        properties.setEnabled(true);
+        properties.setSiteMaxPowerKw(100);
+        properties.setFeeders(1);
+        properties.setFeederMaxPowerKw(0);
+
+        manager.reportDemand(session("s1", "CP-1"), 80);
+        manager.reportDemand(session("s2", "CP-2"), 80);
+        assertThat(manager.getAllocatedKw("s1")).isEmpty();
+
+        manager.allocate();
+
+        assertThat(manager.getAllocatedKw("s1").getAsDouble()).isEqualTo(50.0);
+        assertThat(manager.getAllocatedKw("s2").getAsDouble()).isEqualTo(50.0);
+
+        // Nouvelle demande : l'allocation publiée reste celle du dernier tick
+        manager.reportDemand(session("s2", "CP-2"), 20);
+        assertThat(manager.getAllocatedKw("s2").getAsDouble()).isEqualTo(50.0);
+        manager.allocate();
+        assertThat(manager.getAllocatedKw("s1").getAsDouble()).isEqualTo(80.0);
+        assertThat(manager.getAllocatedKw("s2").getAsDouble()).isEqualTo(20.0);
+        assertThat(manager.getStatus(null).getConnectors()).isEqualTo(2);
+    }
+
+    private static Session session(String id, String cpId) {
+        return Session.builder().id(id).cpId(cpId).build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.evse.simulator.http;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    @DisplayName("Au-delà de la limite, les appelants attendent et sont servis dans l'ordre")
+    void queuesBeyondLimit() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        assertThat(limiter.acquire(1000)).isCompleted();
+        assertThat(limiter.acquire(1000)).isCompleted();
+
+        CompletableFuture<Void> third = limiter.acquire(1000);
+        CompletableFuture<Void> fourth = limiter.acquire(1000);
+        assertThat(third).isNotDone();
+        assertThat(limiter.queued()).isEqualTo(2);
+
+        limiter.release();
+        assertThat(third).isCompleted();
+        assertThat(fourth).isNotDone();
+        assertThat(limiter.inFlight()).isEqualTo(2);
+
+        limiter.release();
+        limiter.release();
+        limiter.release();
+        assertThat(fourth).isCompleted();
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un appelant expiré est sauté sans consommer de créneau")
+    void expiredWaiterIsSkipped() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        limiter.acquire(1000);
+
+        CompletableFuture<Void> expired = limiter.acquire(10);
+        assertThatThrownBy(expired::join).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(limiter.queued()).isZero();
+
+        CompletableFuture<Void> next = limiter.acquire(1000);
+        limiter.release();
+        assertThat(next).isCompleted();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,133 @@
+package com.evse.simulator.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OAuthTokenManagerTest {
+
+    private HttpServer server;
+    private final AtomicInteger issued = new AtomicInteger();
+    private volatile int expiresIn = 3600;
+    private volatile int status = 200;
+
+    private OAuthTokenManager manager;
+    private TokenSource source;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(4));
+        server.createContext("/oauth2/token", exchange -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = status == 200
+                    ? ("{\"access_token\":\"token-" + issued.incrementAndGet() + "\",\"expires_in\":" + expiresIn
+                    + ",\"token_type\":\"Bearer\"}").getBytes(StandardCharsets.UTF_8)
+                    : "{\"error\":\"invalid_client\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        String tokenUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/oauth2/token";
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        manager = new OAuthTokenManager(new OutboundHttpClient(properties, new RestTemplateBuilder()), properties);
+        source = new TokenSource("tte:default", OutboundModule.TTE, tokenUrl, "client", "secret", 0, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Appels simultanés sans token : un seul renouvellement partagé")
+    void concurrentCallersShareOneRefresh() {
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> manager.getToken(source)));
+        }
+
+        assertThat(calls).allSatisfy(call -> assertThat(call.join()).isEqualTo("token-1"));
+        assertThat(issued.get()).isEqualTo(1);
+        assertThat(manager.getToken(source)).isEqualTo("token-1");
+        assertThat(manager.getStats("tte:default")).hasValueSatisfying(stats -> {
+            assertThat(stats.refreshes()).isEqualTo(1);
+            assertThat(stats.valid()).isTrue();
+        });
+    }
+
+    @Test
+    @DisplayName("401 : renouvellement unique, les requêtes plus anciennes réutilisent le nouveau token")
+    void unauthorizedRefreshesOnce() {
+        assertThat(manager.getToken(source)).isEqualTo("token-1");
+        Instant sentAt = Instant.now();
+
+        List<CompletableFuture<String>> rejected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rejected.add(CompletableFuture.supplyAsync(() -> manager.onUnauthorized(source, sentAt)));
+        }
+
+        assertThat(rejected).allSatisfy(call -> assertThat(call.join()).isEqualTo("token-2"));
+        assertThat(issued.get()).isEqualTo(2);
+        assertThat(manager.getStats("tte:default").orElseThrow().unauthorizedRefreshes()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Renouvellement en arrière-plan avant expiration d'un token utilisé")
+    void refreshesAheadOfExpiry() throws InterruptedException {
+        expiresIn = 2;
+        assertThat(manager.getToken(source)).isEqualTo("token-1");
+
+        // Token court : renouvelé à mi-vie, sans appel bloquant
+        long deadline = System.currentTimeMillis() + 5000;
+        // Le token est compté à l'émission, avant sa mise en cache : attendre le cache
+        while ("token-1".equals(manager.getCachedToken("tte:default").orElseThrow().value())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(issued.get()).isGreaterThanOrEqualTo(2);
+        assertThat(manager.getCachedToken("tte:default").orElseThrow().value()).isNotEqualTo("token-1");
+    }
+
+    @Test
+    @DisplayName("Profils distincts en cache, échecs comptés sans exposer le token")
+    void profilesAndFailures() {
+        TokenSource other = new TokenSource("tte:pp", OutboundModule.TTE, source.tokenUrl(), "other", "secret", 0, 0);
+        assertThat(manager.getToken(source)).isEqualTo("token-1");
+        assertThat(manager.getToken(other)).isEqualTo("token-2");
+        assertThat(manager.getToken(source)).isEqualTo("token-1");
+
+        status = 400;
+        assertThatThrownBy(() -> manager.refresh(other)).isInstanceOf(RuntimeException.class);
+
+        OAuthTokenManager.TokenStats stats = manager.getStats("tte:pp").orElseThrow();
+        assertThat(stats.failures()).isEqualTo(1);
+        assertThat(stats.lastError()).contains("HTTP 400");
+        // L'ancien token reste servi tant qu'il n'a pas expiré
+        assertThat(manager.getToken(other)).isEqualTo("token-2");
+        assertThat(manager.getStats()).extracting(OAuthTokenManager.TokenStats::key)
+                .containsExactly("tte:default", "tte:pp");
+    }
+}
@@ -0,0 +1,131 @@
+package com.evse.simulator.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.StreamUtils;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboundHttpClientTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger current = new AtomicInteger();
+    private final AtomicInteger peak = new AtomicInteger();
+
+    private OutboundHttpClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/slow", exchange -> {
+            peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            current.decrementAndGet();
+            byte[] body = "{\"status_code\":1000}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/missing", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        OutboundHttpProperties properties = new OutboundHttpProperties();
+        OutboundHttpProperties.EndpointConfig ocpi = new OutboundHttpProperties.EndpointConfig();
+        ocpi.setMaxConcurrentPerHost(2);
+        properties.getModules().put(OutboundModule.OCPI, ocpi);
+        client = new OutboundHttpClient(properties, new RestTemplateBuilder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("Requêtes asynchrones limitées par hôte, métriques par partenaire")
+    void limitsConcurrencyPerHost() {
+        List<CompletableFuture<OutboundResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(client.sendAsync(OutboundRequest.get(OutboundModule.OCPI, baseUrl + "/slow")
+                    .partner("CPO-1").build()));
+        }
+        futures.forEach(future -> assertThat(future.join().statusCode()).isEqualTo(200));
+        assertThat(peak.get()).isEqualTo(2);
+
+        OutboundHttpMetrics.Snapshot stats = client.getStats().get(0);
+        assertThat(stats.module()).isEqualTo(OutboundModule.OCPI);
+        assertThat(stats.partner()).isEqualTo("CPO-1");
+        assertThat(stats.requests()).isEqualTo(6);
+        assertThat(stats.p50Ms()).isGreaterThanOrEqualTo(100);
+        assertThat(client.getHostLoads()).allSatisfy(load -> assertThat(load.inFlight()).isZero());
+    }
+
+    @Test
+    @DisplayName("Erreurs HTTP et timeouts comptés séparément")
+    void countsHttpErrorsAndTimeouts() throws Exception {
+        OutboundResponse missing = client.send(OutboundRequest.get(OutboundModule.TTE, baseUrl + "/missing").build());
+        assertThat(missing.statusCode()).isEqualTo(404);
+
+        assertThatThrownBy(() -> client.send(OutboundRequest.get(OutboundModule.TTE, baseUrl + "/slow")
+                .timeoutMs(20).build()))
+                .isInstanceOf(HttpTimeoutException.class);
+
+        OutboundHttpMetrics.Snapshot stats = client.getStats().get(0);
+        assertThat(stats.partner()).isEqualTo("127.0.0.1");
+        assertThat(stats.requests()).isEqualTo(2);
+        assertThat(stats.httpErrors()).isEqualTo(1);
+        assertThat(stats.failures()).isEqualTo(1);
+        assertThat(stats.timeouts()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("RestTemplate adossé au client partagé")
+    void restTemplateUsesSharedClient() {
+        String body = client.restTemplate(OutboundModule.GPM).getForObject(baseUrl + "/slow", String.class);
+        assertThat(body).contains("1000");
+        assertThat(client.getStats()).singleElement()
+                .satisfies(stats -> assertThat(stats.module()).isEqualTo(OutboundModule.GPM));
+    }
+
+    @Test
+    @DisplayName("RestTemplate : créneau conservé jusqu'à la fermeture de la réponse")
+    void restTemplateHoldsSlotUntilResponseClosed() {
+        String body = client.restTemplate(OutboundModule.GPM).execute(baseUrl + "/slow", HttpMethod.GET, null,
+                response -> {
+                    assertThat(client.getHostLoads()).singleElement()
+                            .satisfies(load -> assertThat(load.inFlight()).isEqualTo(1));
+                    return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+                });
+
+        assertThat(body).contains("1000");
+        assertThat(client.getHostLoads()).singleElement()
+                .satisfies(load -> assertThat(load.inFlight()).isZero());
+        assertThat(client.getStats()).singleElement()
+                .satisfies(stats -> assertThat(stats.requests()).isEqualTo(1));
+    }
+}
@@ -0,0 +1,215 @@
+package com.evse.simulator.ocpi.crawler;
+
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundHttpProperties;
+import com.evse.simulator.ocpi.OCPIModule;
+import com.evse.simulator.ocpi.service.OCPIClientService;
+import com.evse.simulator.ocpi.service.PartnerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Crawl against a local mock OCPI partner.
+ */
+class OCPICrawlerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Instant DAY = Instant.parse("2025-03-01T00:00:00Z");
+
+    private HttpServer server;
+    private String baseUrl;
+    private OCPICrawler crawler;
+
+    private final List<ObjectNode> locations = new ArrayList<>();
+    private final List<ObjectNode> cdrs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < 1050; i++) {
+            ObjectNode location = object("LOC-" + (i == 500 ? 499 : i), DAY.plusSeconds(i));
+            location.put("publish", true).put("city", "Paris").put("country", "FRA").put("time_zone", "Europe/Paris");
+            location.putObject("coordinates").put("latitude", "48.85").put("longitude", "2.35");
+            if (i != 7) {
+                location.put("address", i + " rue de Rivoli");
+            }
+            locations.add(location);
+        }
+        for (int i = 0; i < 300; i++) {
+            ObjectNode cdr = object("CDR-" + i, DAY.plusSeconds(i * 240L));
+            cdr.put("start_date_time", DAY.toString()).put("end_date_time", DAY.toString())
+                    .put("auth_method", "WHITELIST").put("currency", "EUR")
+                    .put("total_energy", 12.5).put("total_time", 1.5);
+            cdr.putObject("cdr_token").put("uid", "TOKEN");
+            cdr.putObject("cdr_location").put("id", "LOC-1");
+            cdr.putArray("charging_periods");
+            cdr.putObject("total_cost").put("excl_vat", 4.2);
+            cdrs.add(cdr);
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(8));
+        // Locations : X-Total-Count, limite plafonnée à 100
+        server.createContext("/ocpi/2.2.1/locations", exchange -> servePage(exchange, locations, 100, true));
+        // CDRs : uniquement Link, limite plafonnée à 50
+        server.createContext("/ocpi/2.2.1/cdrs", exchange -> servePage(exchange, cdrs, 50, false));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/ocpi/2.2.1";
+
+        PartnerService partnerService = mock(PartnerService.class);
+        when(partnerService.getPartner(anyString())).thenReturn(Optional.empty());
+        when(partnerService.getEndpointUrl("CPO", OCPIModule.LOCATIONS)).thenReturn(baseUrl + "/locations");
+        when(partnerService.getEndpointUrl("CPO", OCPIModule.CDRS)).thenReturn(baseUrl + "/cdrs");
+
+        OutboundHttpClient httpClient = new OutboundHttpClient(new OutboundHttpProperties(), new RestTemplateBuilder());
+        crawler = new OCPICrawler(new OCPIClientService(partnerService, httpClient), partnerService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    @DisplayName("X-Total-Count : pages restantes en parallèle, objets validés au fil de l'eau")
+    void crawlsAllOffsetsInParallel() throws InterruptedException {
+        CrawlReport report = crawler.crawl(CrawlRequest.builder()
+                .partnerId("CPO")
+                .module(OCPIModule.LOCATIONS)
+                .pageSize(500)
+                .concurrency(4)
+                .build());
+
+        assertThat(report.getStatus()).isEqualTo(CrawlReport.Status.COMPLETED);
+        assertThat(report.getObjects()).isEqualTo(1050);
+        assertThat(report.getPages()).isEqualTo(11);
+        assertThat(report.getReportedTotal()).isEqualTo(1050);
+        assertThat(report.getInvalidObjects()).isEqualTo(2);
+        assertThat(report.getDuplicates()).isEqualTo(1);
+        assertThat(report.getIssueCounts()).containsEntry("missing address", 1L).containsEntry("duplicate", 1L);
+        assertThat(report.getErrors()).isEmpty();
+        assertThat(report.getObjectsPerSecond()).isPositive();
+        assertThat(report.getBytes()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Link seul : fenêtres de dates parcourues en parallèle")
+    void followsLinksPerDateWindow() throws InterruptedException {
+        CrawlReport report = crawler.crawl(CrawlRequest.builder()
+                .partnerId("CPO")
+                .module(OCPIModule.CDRS)
+                .pageSize(50)
+                .dateFrom(DAY)
+                .dateTo(DAY.plusSeconds(86_400))
+                .partitions(4)
+                .build());
+
+        assertThat(report.getStatus()).isEqualTo(CrawlReport.Status.COMPLETED);
+        assertThat(report.getObjects()).isEqualTo(300);
+        assertThat(report.getInvalidObjects()).isZero();
+        assertThat(report.getReportedTotal()).isEqualTo(-1);
+        // 90 + 90 + 90 + 30 CDRs par fenêtre de 6 h, pages de 50
+        assertThat(report.getPages()).isEqualTo(7);
+    }
+
+    private static ObjectNode object(String id, Instant lastUpdated) {
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("country_code", "FR").put("party_id", "TCB").put("id", id)
+                .put("last_updated", lastUpdated.toString());
+        return node;
+    }
+
+    @Test
+    @DisplayName("Crawls terminés : seuls les 20 derniers rapports sont conservés")
+    void keepsOnlyRecentFinishedCrawls() throws InterruptedException {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(crawler.crawl(CrawlRequest.builder()
+                    .partnerId("CPO")
+                    .module(OCPIModule.CDRS)
+                    .pageSize(50)
+                    .maxObjects(10)
+                    .build()).getId());
+        }
+
+        assertThat(crawler.getReports()).hasSize(21);
+        assertThat(crawler.getReport(ids.get(0))).isEmpty();
+        assertThat(crawler.getReport(ids.get(24))).isPresent();
+    }
+
+    private void servePage(HttpExchange exchange, List<ObjectNode> all, int maxLimit, boolean withTotal)
+            throws IOException {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+        int limit = Math.min(Integer.parseInt(query.getOrDefault("limit", "" + maxLimit)), maxLimit);
+        Instant from = query.containsKey("date_from") ? Instant.parse(query.get("date_from")) : Instant.MIN;
+        Instant to = query.containsKey("date_to") ? Instant.parse(query.get("date_to")) : Instant.MAX;
+
+        List<ObjectNode> matching = all.stream()
+                .filter(o -> {
+                    Instant updated = Instant.parse(o.get("last_updated").asText());
+                    return !updated.isBefore(from) && updated.isBefore(to);
+                })
+                .toList();
+        List<ObjectNode> page = matching.subList(Math.min(offset, matching.size()),
+                Math.min(offset + limit, matching.size()));
+
+        ObjectNode body = MAPPER.createObjectNode();
+        ArrayNode data = body.putArray("data");
+        page.forEach(data::add);
+        body.put("status_code", 1000).put("timestamp", Instant.now().toString());
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.getResponseHeaders().add("X-Limit", String.valueOf(maxLimit));
+        if (withTotal) {
+            exchange.getResponseHeaders().add("X-Total-Count", String.valueOf(matching.size()));
+        }
+        if (offset + limit < matching.size()) {
+            String path = "http://127.0.0.1:" + server.getAddress().getPort() + exchange.getRequestURI().getPath();
+            String next = path + "?offset=" + (offset + limit) + "&limit=" + limit
+                    + (query.containsKey("date_from") ? "&date_from=" + query.get("date_from") : "")
+                    + (query.containsKey("date_to") ? "&date_to=" + query.get("date_to") : "");
+            exchange.getResponseHeaders().add("Link", "<" + next + ">; rel=\"next\"");
+        }
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
@@ -0,0 +1,95 @@
+package com.evse.simulator.ocpp.capture;
+
+import com.evse.simulator.config.JacksonConfig;
+import com.evse.simulator.config.OcppProperties;
+import com.evse.simulator.model.LogEntry;
+import com.evse.simulator.model.OCPPMessage;
+import com.evse.simulator.model.enums.OCPPMessageType;
+import com.evse.simulator.ocpp.codec.OcppFrameEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcppTrafficCaptureTest {
+
+    private final OcppProperties properties = new OcppProperties();
+    private final OcppFrameEncoder encoder = new OcppFrameEncoder(new JacksonConfig().objectMapper());
+    private final OcppTrafficCapture capture = new OcppTrafficCapture(properties, encoder);
+
+    @Test
+    @DisplayName("SAMPLED : un CALL sur dix conservé avec son payload et sa réponse")
+    void sampledKeepsOneCallInTen() {
+        capture.setLevel("s1", CaptureLevel.SAMPLED);
+        for (int i = 0; i < 20; i++) {
+            capture.recordCall("s1", encoder.encodeCall("m" + i, "MeterValues", Map.of("connectorId", 1)));
+            capture.recordResult("s1", "m" + i, Map.of());
+        }
+
+        List<OCPPMessage> messages = capture.getMessages("s1", 100);
+        assertThat(messages).hasSize(40);
+        assertThat(messages).filteredOn(m -> m.getMessageType() == OCPPMessageType.CALL && m.getRawMessage() != null)
+                .extracting(OCPPMessage::getMessageId)
+                .containsExactly("m0", "m10");
+        assertThat(messages).filteredOn(m -> m.getMessageType() == OCPPMessageType.CALL_RESULT && m.getPayload() != null)
+                .extracting(OCPPMessage::getMessageId)
+                .containsExactly("m0", "m10");
+        assertThat(messages.get(0).getPayload()).containsEntry("connectorId", 1);
+    }
+
+    @Test
+    @DisplayName("Les erreurs sont conservées quel que soit le niveau, sauf OFF")
+    void errorsAlwaysKept() {
+        capture.setLevel("s1", CaptureLevel.HEADERS);
+        capture.recordCall("s1", encoder.encodeCall("m1", "Authorize", Map.of("idTag", "TAG")));
+        capture.recordError("s1", "m1", "InternalError", "boom");
+
+        List<OCPPMessage> messages = capture.getMessages("s1", 10);
+        assertThat(messages.get(0).getRawMessage()).isNull();
+        assertThat(messages.get(1).getErrorCode()).isEqualTo("InternalError");
+        assertThat(messages.get(1).getErrorDescription()).isEqualTo("boom");
+
+        capture.setLevel("s2", CaptureLevel.OFF);
+        capture.recordCall("s2", encoder.encodeCall("m1", "Authorize", Map.of()));
+        capture.recordError("s2", "m1", "InternalError", "boom");
+        assertThat(capture.getStats("s2").captured()).isZero();
+    }
+
+    @Test
+    @DisplayName("Tampon circulaire borné, logs matérialisés à la lecture")
+    void ringBufferIsBounded() {
+        properties.getCapture().setBufferSize(5);
+        for (int i = 0; i < 12; i++) {
+            capture.recordCall("s1", encoder.encodeCall("m" + i, "Heartbeat", Map.of()));
+        }
+        capture.recordTimeout("s1", "m11", "Heartbeat");
+
+        OcppTrafficCapture.Stats stats = capture.getStats("s1");
+        assertThat(stats.level()).isEqualTo(CaptureLevel.FULL);
+        assertThat(stats.captured()).isEqualTo(13);
+        assertThat(stats.retained()).isEqualTo(5);
+
+        assertThat(capture.getMessages("s1", 100)).extracting(OCPPMessage::getMessageId)
+                .containsExactly("m8", "m9", "m10", "m11");
+        assertThat(capture.getLogs("s1", 2)).extracting(LogEntry::getMessage)
+                .containsExactly(">> Sent Heartbeat {}", "!! Timeout waiting for Heartbeat response");
+    }
+
+    @Test
+    @DisplayName("Session supprimée : ni les lectures ni les réponses tardives ne recréent son entrée")
+    void removedSessionIsNotRecreated() {
+        capture.setLevel("s1", CaptureLevel.FULL);
+        capture.recordCall("s1", encoder.encodeCall("m1", "Heartbeat", Map.of()));
+        capture.remove("s1");
+
+        capture.recordResult("s1", "m1", Map.of());
+        capture.recordError("s1", "m1", "InternalError", "boom");
+        capture.recordTimeout("s1", "m1", "Heartbeat");
+        assertThat(capture.getMessages("s1", 10)).isEmpty();
+        assertThat(capture.getLogs("s1", 10)).isEmpty();
+        assertThat(capture.getStats("s1").captured()).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.evse.simulator.ocpp.codec;
+
+import com.evse.simulator.config.JacksonConfig;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.ocpp.handler.MeterValuesHandler;
+import com.evse.simulator.ocpp.handler.OcppMessageContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark de l'encodage MeterValues (mvn test -Pbenchmark).
+ * <p>
+ * Messages encodés par seconde sur un thread, AC triphasé (13 valeurs) :
+ * map du handler sérialisée deux fois avec un mapper par appel (ancien
+ * {@code OCPPService.toJson}, trame puis log), map sérialisée une fois dans la
+ * trame, et écriture directe du payload dans la trame.
+ * </p>
+ */
+@Tag("benchmark")
+class MeterValuesEncodingBenchmarkTest {
+
+    private static final int ITERATIONS = 50_000;
+
+    private final OcppFrameEncoder encoder = new OcppFrameEncoder(new JacksonConfig().objectMapper());
+    private final MeterValuesHandler handler = new MeterValuesHandler();
+
+    @Test
+    @DisplayName("MeterValues encodés par seconde : map + double sérialisation vs streaming")
+    void meterValuesPerSecond() {
+        OcppMessageContext context = context();
+
+        ToIntFunction<String> legacy = messageId -> {
+            Map<String, Object> payload = handler.buildPayload(context);
+            String frame = String.format("[2,\"%s\",\"%s\",%s]", messageId, "MeterValues", legacyToJson(payload));
+            String logLine = ">> Sent MeterValues " + legacyToJson(payload);
+            return frame.length() + logLine.length();
+        };
+        ToIntFunction<String> map = messageId -> {
+            EncodedCall call = encoder.encodeCall(messageId, "MeterValues", handler.buildPayload(context));
+            return call.bytes().length + (">> Sent MeterValues " + call.payloadJson()).length();
+        };
+        ToIntFunction<String> streaming = messageId -> {
+            EncodedCall call = encoder.encodeCall(messageId, "MeterValues", gen -> handler.writePayload(context, gen));
+            return call.bytes().length + (">> Sent MeterValues " + call.payloadJson()).length();
+        };
+
+        // Préchauffage JIT
+        for (int i = 0; i < 3; i++) {
+            run(legacy, ITERATIONS / 10);
+            run(map, ITERATIONS);
+            run(streaming, ITERATIONS);
+        }
+
+        double legacyRate = run(legacy, ITERATIONS / 10);
+        double mapRate = run(map, ITERATIONS);
+        double streamingRate = run(streaming, ITERATIONS);
+
+        System.out.printf("%n=== MeterValues AC_TRI, %d messages ===%n", ITERATIONS);
+        System.out.printf("%-38s %14s%n", "encodage (trame + log)", "messages/s");
+        System.out.printf("%-38s %,14.0f%n", "map, 2 sérialisations (ancien)", legacyRate);
+        System.out.printf("%-38s %,14.0f%n", "map, 1 sérialisation", mapRate);
+        System.out.printf("%-38s %,14.0f%n", "streaming", streamingRate);
+
+        assertThat(streamingRate).isGreaterThan(legacyRate);
+        assertThat(streamingRate).isGreaterThan(mapRate);
+    }
+
+    private static double run(ToIntFunction<String> encode, int iterations) {
+        String[] ids = new String[256];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = UUID.randomUUID().toString();
+        }
+        long chars = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            chars += encode.applyAsInt(ids[i & 255]);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(chars).isPositive();
+        return iterations / (elapsed / 1e9);
+    }
+
+    private static String legacyToJson(Map<String, Object> map) {
+        try {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.registerModule(new JavaTimeModule());
+            return mapper.writeValueAsString(map);
+        } catch (Exception e) {
+            return "{}";
+        }
+    }
+
+    private static OcppMessageContext context() {
+        Session session = Session.builder()
+                .chargerType(ChargerType.AC_TRI)
+                .voltage(400)
+                .currentPowerKw(21.734)
+                .offeredPowerKw(22)
+                .offeredCurrentA(31.8)
+                .temperature(28)
+                .build();
+        return OcppMessageContext.builder()
+                .sessionId("bench")
+                .session(session)
+                .connectorId(1)
+                .transactionId(42)
+                .meterValue(123_456L)
+                .build();
+    }
+}
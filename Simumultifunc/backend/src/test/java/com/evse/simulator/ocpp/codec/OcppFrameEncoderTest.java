@@ -0,0 +1,110 @@
+package com.evse.simulator.ocpp.codec;
+
+import com.evse.simulator.config.JacksonConfig;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.ocpp.handler.MeterValuesHandler;
+import com.evse.simulator.ocpp.handler.OcppMessageContext;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OcppFrameEncoderTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private final OcppFrameEncoder encoder = new OcppFrameEncoder(objectMapper);
+    private final MeterValuesHandler handler = new MeterValuesHandler();
+
+    @Test
+    @DisplayName("Virgule fixe : même rendu que String.format en Locale.ROOT")
+    void fixedPointMatchesStringFormat() {
+        Random random = new Random(3);
+        double[] edges = {0, -0.0, -0.001, 0.005, 0.125, 1.5, 2.5, -2.5, 99.9951, 1e-9, 123456789.126,
+                Double.NaN, Double.POSITIVE_INFINITY, 1e300};
+        for (double value : edges) {
+            for (int decimals = 0; decimals <= 3; decimals++) {
+                assertThat(FixedPointFormat.format(value, decimals))
+                        .as("%s / %d", value, decimals)
+                        .isEqualTo(String.format(Locale.ROOT, "%." + decimals + "f", value));
+            }
+        }
+        for (int i = 0; i < 100_000; i++) {
+            double value = (random.nextDouble() - 0.2) * Math.pow(10, random.nextInt(7));
+            assertThat(FixedPointFormat.format(value, 2))
+                    .as("%s", value)
+                    .isEqualTo(String.format(Locale.ROOT, "%.2f", value));
+        }
+    }
+
+    @Test
+    @DisplayName("MeterValues en streaming : même JSON que la map du handler")
+    void streamedMeterValuesMatchMapPayload() throws Exception {
+        for (ChargerType type : new ChargerType[]{ChargerType.AC_TRI, ChargerType.AC_MONO, ChargerType.DC}) {
+            OcppMessageContext context = context(type);
+
+            EncodedCall streamed = encoder.encodeCall("msg-1", "MeterValues",
+                    gen -> handler.writePayload(context, gen));
+            EncodedCall fromMap = encoder.encodeCall("msg-1", "MeterValues", handler.buildPayload(context));
+
+            JsonNode streamedFrame = objectMapper.readTree(streamed.frame());
+            assertThat(streamedFrame.get(0).asInt()).isEqualTo(2);
+            assertThat(streamedFrame.get(1).asText()).isEqualTo("msg-1");
+            assertThat(streamedFrame.get(2).asText()).isEqualTo("MeterValues");
+            assertThat(withoutTimestamp(streamedFrame.get(3)))
+                    .isEqualTo(withoutTimestamp(objectMapper.readTree(fromMap.frame()).get(3)));
+            assertThat(objectMapper.readTree(streamed.payloadJson())).isEqualTo(streamedFrame.get(3));
+        }
+    }
+
+    @Test
+    @DisplayName("Trame compacte, payload extrait et relu sans resérialisation")
+    void encodesCompactFrame() {
+        EncodedCall call = encoder.encodeCall("id-42", "Heartbeat", Map.of());
+        assertThat(call.frame()).isEqualTo("[2,\"id-42\",\"Heartbeat\",{}]");
+        assertThat(call.payloadJson()).isEqualTo("{}");
+
+        EncodedCall status = encoder.encodeCall("id-43", "StatusNotification",
+                Map.of("connectorId", 1, "status", "Chargé"));
+        assertThat(status.frame()).doesNotContain("\n");
+        assertThat(encoder.decodePayload(status)).containsEntry("status", "Chargé").containsEntry("connectorId", 1);
+
+        // Position du payload en octets : juste même avec un identifiant non ASCII
+        EncodedCall accented = encoder.encodeCall("id-é€", "DataTransfer", Map.of("data", "ü"));
+        assertThat(accented.frame()).isEqualTo("[2,\"id-é€\",\"DataTransfer\",{\"data\":\"ü\"}]");
+        assertThat(accented.payloadJson()).isEqualTo("{\"data\":\"ü\"}");
+        assertThat(accented.buffer().remaining()).isEqualTo(accented.frame().getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    private static OcppMessageContext context(ChargerType type) {
+        Session session = Session.builder()
+                .chargerType(type)
+                .voltage(type.isDC() ? 400 : 230)
+                .currentPowerKw(10.837)
+                .offeredPowerKw(11)
+                .offeredCurrentA(15.876)
+                .temperature(31.4)
+                .build();
+        return OcppMessageContext.builder()
+                .sessionId("s1")
+                .session(session)
+                .connectorId(1)
+                .transactionId(1234)
+                .meterValue(15_432L)
+                .build();
+    }
+
+    private static JsonNode withoutTimestamp(JsonNode payload) {
+        JsonNode copy = payload.deepCopy();
+        ((ObjectNode) copy.get("meterValue").get(0)).remove("timestamp");
+        return copy;
+    }
+}
@@ -0,0 +1,43 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.model.PerfConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ArrivalScheduleTest {
+
+    @Test
+    @DisplayName("Arrivées constantes : intervalle fixe sur une échelle absolue")
+    void constantArrivals() {
+        ArrivalSchedule schedule = new ArrivalSchedule(PerfConfig.ArrivalMode.CONSTANT, 3, 1_000, new Random(1));
+
+        assertThat(schedule.next()).isEqualTo(1_000);
+        assertThat(schedule.next()).isEqualTo(1_000 + 333_333_333);
+        assertThat(schedule.next()).isEqualTo(1_000 + 666_666_666);
+        // Pas de dérive cumulée : 3 arrivées par seconde exactement
+        assertThat(schedule.next()).isBetween(1_000_000_999L, 1_000_001_000L);
+    }
+
+    @Test
+    @DisplayName("Arrivées de Poisson : débit moyen conforme à la cible")
+    void poissonArrivals() {
+        ArrivalSchedule schedule = new ArrivalSchedule(PerfConfig.ArrivalMode.POISSON, 200, 0, new Random(42));
+
+        long previous = schedule.next();
+        int count = 20_000;
+        long last = previous;
+        for (int i = 0; i < count; i++) {
+            last = schedule.next();
+            assertThat(last).isGreaterThanOrEqualTo(previous);
+            previous = last;
+        }
+
+        double achievedRate = count / (last / 1e9);
+        assertThat(achievedRate).isCloseTo(200, within(6.0));
+    }
+}
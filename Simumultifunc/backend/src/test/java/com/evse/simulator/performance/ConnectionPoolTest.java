@@ -0,0 +1,67 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.config.MockCsmsProperties;
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConnectionPoolTest {
+
+    private MockCsmsService csms;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockCsmsProperties properties = new MockCsmsProperties();
+        properties.setPort(0);
+        csms = new MockCsmsService(properties);
+        csms.start(0);
+        pool = new ConnectionPool("ws://localhost:" + csms.getPort() + "/ocpp", "TX", 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.closeAll().get(5, TimeUnit.SECONDS);
+        csms.stop();
+    }
+
+    @Test
+    @DisplayName("transactionId du StartTransaction.conf retenu pour les trames suivantes")
+    void keepsGrantedTransactionId() throws Exception {
+        pool.startConnections();
+        awaitTrue(() -> !pool.getConnections().isEmpty());
+        PerfWebSocketClient client = pool.getConnections().values().iterator().next();
+        awaitTrue(client::isBootAccepted);
+        assertThat(client.getTransactionId()).isZero();
+
+        client.sendCall(OcppFrames.START_TRANSACTION, "PERF-TAG", 0);
+        awaitTrue(() -> client.getTransactionId() > 0);
+        long first = client.getTransactionId();
+
+        // Un MeterValues ne touche pas a la transaction en cours
+        client.sendCall(OcppFrames.METER_VALUES, null, 500);
+        awaitTrue(() -> client.getPendingRequests() == 0);
+        assertThat(client.getTransactionId()).isEqualTo(first);
+
+        client.sendCall(OcppFrames.STOP_TRANSACTION, "PERF-TAG", 500);
+        client.sendCall(OcppFrames.START_TRANSACTION, "PERF-TAG", 0);
+        awaitTrue(() -> client.getTransactionId() != first);
+        assertThat(client.getTransactionId()).isGreaterThan(first);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
@@ -0,0 +1,76 @@
+package com.evse.simulator.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark mono-thread de la construction des trames (mvn test -Pbenchmark) :
+ * trames/s par coeur des gabarits precompiles, comparees a la construction
+ * par {@code String.format}, {@code UUID} et {@code Instant.now()}.
+ */
+@Tag("benchmark")
+class FrameTemplateBenchmarkTest {
+
+    private static final long WARMUP_MS = 2_000;
+    private static final long MEASURE_MS = 5_000;
+
+    private long sink;
+
+    @Test
+    @DisplayName("Trames/s par cœur : gabarits précompilés contre String.format")
+    void framesPerSecondPerCore() {
+        double templated = measure(this::templated);
+        double formatted = measure(this::formatted);
+
+        System.out.printf("%n=== Construction de trames StopTransaction (1 thread) ===%n");
+        System.out.printf("%-22s %14.0f trames/s%n", "gabarit", templated);
+        System.out.printf("%-22s %14.0f trames/s%n", "String.format", formatted);
+        System.out.printf("%-22s %14.1fx%n", "gain", templated / formatted);
+
+        assertThat(sink).isNotZero();
+        assertThat(templated).isGreaterThan(formatted);
+    }
+
+    private void templated(long i) {
+        ByteBuffer frame = OcppFrames.STOP_TRANSACTION.render(i, "PERF-TAG", i * 10, i);
+        sink += frame.limit();
+    }
+
+    private void formatted(long i) {
+        String payload = String.format(
+                "{\"idTag\":\"%s\",\"meterStop\":%d,\"timestamp\":\"%s\",\"transactionId\":%d}",
+                "PERF-TAG", i * 10, Instant.now().toString(), i);
+        String frame = "[2,\"" + UUID.randomUUID() + "\",\"StopTransaction\"," + payload + "]";
+        sink += frame.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static double measure(LongConsumer build) {
+        long i = 0;
+        long warmupEnd = System.nanoTime() + WARMUP_MS * 1_000_000;
+        while (System.nanoTime() < warmupEnd) {
+            for (int n = 0; n < 1_000; n++) {
+                build.accept(i++);
+            }
+        }
+        long frames = 0;
+        long start = System.nanoTime();
+        long end = start + MEASURE_MS * 1_000_000;
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            for (int n = 0; n < 1_000; n++) {
+                build.accept(i++);
+            }
+            frames += 1_000;
+        }
+        return frames / ((now - start) / 1e9);
+    }
+}
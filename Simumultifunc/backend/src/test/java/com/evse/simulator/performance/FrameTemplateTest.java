@@ -0,0 +1,70 @@
+package com.evse.simulator.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class FrameTemplateTest {
+
+    @Test
+    @DisplayName("Emplacements remplis : identifiant, badge, compteur, transaction et horodatage")
+    void rendersSlots() {
+        String frame = OcppFrames.STOP_TRANSACTION.toString(42, "TAG-01", 12_345, 7_001);
+        String prefix = "[2,\"42\",\"StopTransaction\",{\"idTag\":\"TAG-01\",\"meterStop\":12345,\"timestamp\":\"";
+        String suffix = "\",\"transactionId\":7001}]";
+
+        assertThat(frame).startsWith(prefix).endsWith(suffix);
+        // Horodatage de la seconde courante, sans fraction
+        Instant timestamp = Instant.parse(frame.substring(prefix.length(), frame.length() - suffix.length()));
+        assertThat(timestamp.getNano()).isZero();
+        assertThat(timestamp.getEpochSecond()).isCloseTo(Instant.now().getEpochSecond(), within(2L));
+
+        OcppEnvelope envelope = OcppEnvelope.parse(frame);
+        assertThat(envelope.numericId()).isEqualTo(42);
+        assertThat(envelope.action(frame)).isEqualTo("StopTransaction");
+    }
+
+    @Test
+    @DisplayName("Valeurs limites : zéro, négatif, badge hors ASCII")
+    void rendersEdgeValues() {
+        assertThat(OcppFrames.HEARTBEAT.toString(0, null, 0, 0)).isEqualTo("[2,\"0\",\"Heartbeat\",{}]");
+        assertThat(OcppFrames.STOP_TRANSACTION.toString(Long.MAX_VALUE, "BADGE-É", -5, 0))
+                .startsWith("[2,\"" + Long.MAX_VALUE + "\",")
+                .contains("\"idTag\":\"BADGE-É\",\"meterStop\":-5,");
+    }
+
+    @Test
+    @DisplayName("MeterValues : une valeur échantillonnée par mesurande demandée")
+    void meterValuesSizes() {
+        String single = OcppFrames.METER_VALUES.toString(1, null, 700, 12);
+        String large = OcppFrames.meterValues(20).toString(1, null, 700, 12);
+
+        assertThat(single).contains("\"value\":\"700\"").contains("\"transactionId\":12,");
+        assertThat(single.split("\"measurand\"", -1)).hasSize(2);
+        assertThat(large.split("\"measurand\"", -1)).hasSize(21);
+        assertThat(large).contains("\"phase\":\"L2\"");
+        assertThat(OcppFrames.meterValues(20)).isSameAs(OcppFrames.meterValues(20));
+    }
+
+    @Test
+    @DisplayName("transactionId lu dans le StartTransaction.conf, -1 s'il est absent")
+    void readsTransactionId() {
+        String conf = "[3,\"5\",{\"idTagInfo\":{\"status\":\"Accepted\"},\"transactionId\": 314}]";
+        String boot = "[3,\"6\",{\"status\":\"Accepted\",\"interval\":300}]";
+
+        assertThat(OcppEnvelope.parse(conf).transactionId(conf)).isEqualTo(314);
+        assertThat(OcppEnvelope.parse(boot).transactionId(boot)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Emplacement inconnu refusé à la compilation du gabarit")
+    void rejectsUnknownSlot() {
+        assertThatThrownBy(() -> FrameTemplate.call(PerfAction.HEARTBEAT, "{\"x\":\"${nope}\"}"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
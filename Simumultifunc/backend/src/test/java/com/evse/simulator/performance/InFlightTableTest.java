@@ -0,0 +1,51 @@
+package com.evse.simulator.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InFlightTableTest {
+
+    private final List<PerfAction> expired = new ArrayList<>();
+
+    @Test
+    @DisplayName("Réponse corrélée à sa requête, latence propre à l'action")
+    void completesByMessageId() {
+        InFlightTable table = new InFlightTable(8);
+        long boot = table.register(PerfAction.BOOT_NOTIFICATION, 1_000, expired::add);
+        long authorize = table.register(PerfAction.AUTHORIZE, 2_000, expired::add);
+
+        InFlightTable.Completed completed = table.complete(authorize, 7_000);
+        assertThat(completed.action()).isEqualTo(PerfAction.AUTHORIZE);
+        assertThat(completed.latencyNanos()).isEqualTo(5_000);
+
+        // Réponse en double ou identifiant inconnu : ignorés
+        assertThat(table.complete(authorize, 8_000)).isNull();
+        assertThat(table.complete(-1, 8_000)).isNull();
+
+        assertThat(table.complete(boot, 9_000).latencyNanos()).isEqualTo(8_000);
+        assertThat(table.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Requêtes sans réponse expirées après le délai, ou écrasées quand la table est pleine")
+    void expiresAndEvicts() {
+        InFlightTable table = new InFlightTable(4);
+        long first = table.register(PerfAction.HEARTBEAT, 0, expired::add);
+        for (int i = 1; i < 4; i++) {
+            table.register(PerfAction.METER_VALUES, i * 1_000, expired::add);
+        }
+        table.register(PerfAction.STOP_TRANSACTION, 10_000, expired::add);
+
+        assertThat(expired).containsExactly(PerfAction.HEARTBEAT);
+        assertThat(table.complete(first, 11_000)).isNull();
+
+        table.expire(12_000, 10_000, expired::add);
+        assertThat(expired).containsExactly(PerfAction.HEARTBEAT, PerfAction.METER_VALUES, PerfAction.METER_VALUES);
+        assertThat(table.size()).isEqualTo(2);
+    }
+}
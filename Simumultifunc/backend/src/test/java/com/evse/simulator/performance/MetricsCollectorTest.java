@@ -0,0 +1,101 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PersonaMetrics;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsCollectorTest {
+
+    @Test
+    @DisplayName("Fenêtre entre deux états : seules les mesures du palier sont retenues")
+    void snapshotWindow() {
+        MetricsCollector collector = new MetricsCollector(10);
+        collector.recordResponse(PerfAction.BOOT_NOTIFICATION, 900_000);
+        collector.incrementMessagesSent();
+
+        MetricsCollector.Snapshot before = collector.snapshot();
+        collector.recordResponse(PerfAction.BOOT_NOTIFICATION, 20_000);
+        collector.recordResponse(PerfAction.HEARTBEAT, 5_000);
+        collector.recordTimeout(PerfAction.HEARTBEAT);
+        collector.recordCallError(PerfAction.HEARTBEAT, "InternalError", 1_000);
+        collector.incrementMessagesSent();
+        collector.incrementMessagesSent();
+
+        MetricsCollector.Snapshot window = collector.snapshot().since(before);
+
+        assertThat(window.messagesSent()).isEqualTo(2);
+        assertThat(window.responses()).isEqualTo(2);
+        assertThat(window.timeouts()).isEqualTo(1);
+        assertThat(window.callErrors()).isEqualTo(1);
+        assertThat(window.bootLatency().getTotalCount()).isEqualTo(1);
+        // Le boot lent d'avant la fenetre n'apparait pas dans ses percentiles
+        assertThat(window.bootLatency().getMaxValue()).isLessThan(25_000);
+        assertThat(window.messageLatency().getTotalCount()).isEqualTo(2);
+        assertThat(collector.getCallErrorCounts()).containsEntry("InternalError", 1L);
+    }
+
+    @Test
+    @DisplayName("Export puis fusion : compteurs et histogrammes de deux agents cumulés")
+    void exportMergeRoundTrip() {
+        MetricsCollector first = new MetricsCollector(10);
+        first.recordResponse(PerfAction.HEARTBEAT, 2_000);
+        first.recordCallError(PerfAction.HEARTBEAT, "NotImplemented", 1_000);
+        first.incrementMessagesSent();
+        MetricsCollector second = new MetricsCollector(10);
+        second.recordResponse(PerfAction.HEARTBEAT, 80_000);
+        second.recordTimeout(PerfAction.HEARTBEAT);
+        second.incrementMessagesSent();
+        second.incrementMessagesSent();
+
+        MetricsCollector merged = new MetricsCollector(20);
+        merged.merge(first.export());
+        merged.merge(second.export());
+
+        MetricsCollector.Snapshot total = merged.snapshot();
+        assertThat(total.messagesSent()).isEqualTo(3);
+        assertThat(total.responses()).isEqualTo(2);
+        assertThat(total.timeouts()).isEqualTo(1);
+        assertThat(total.callErrors()).isEqualTo(1);
+        assertThat(total.messageLatency().getTotalCount()).isEqualTo(2);
+        assertThat(total.messageLatency().getMaxValue()).isGreaterThanOrEqualTo(79_000);
+        assertThat(merged.getCallErrorCounts()).containsEntry("NotImplemented", 1L);
+    }
+
+    @Test
+    @DisplayName("Fusion par profil : compteurs additionnés, percentiles recalculés sur l'histogramme fusionné")
+    void mergePersonaMetrics() {
+        MetricsExport first = personaExport(PersonaMetrics.builder().persona("fleet").behavior("FLEET")
+                .chargePoints(10).messagesSent(100).responses(2).timeouts(1).build(), 1_000, 1_000);
+        MetricsExport second = personaExport(PersonaMetrics.builder().persona("fleet").behavior("FLEET")
+                .chargePoints(5).messagesSent(50).responses(1).build(), 100_000);
+
+        List<PersonaMetrics> merged = MetricsCollector.mergePersonaMetrics(List.of(first, second));
+
+        assertThat(merged).singleElement().satisfies(persona -> {
+            assertThat(persona.getChargePoints()).isEqualTo(15);
+            assertThat(persona.getMessagesSent()).isEqualTo(150);
+            assertThat(persona.getResponses()).isEqualTo(3);
+            assertThat(persona.getTimeouts()).isEqualTo(1);
+            assertThat(persona.getLatencyAvgMs()).isBetween(33.0, 35.0);
+            assertThat(persona.getLatencyP99Ms()).isBetween(99.0, 101.0);
+        });
+    }
+
+    private static MetricsExport personaExport(PersonaMetrics persona, long... latenciesMicros) {
+        Histogram latency = new Histogram(1, 60_000_000, 3);
+        for (long value : latenciesMicros) {
+            latency.recordValue(value);
+        }
+        Map<String, String> histograms = new LinkedHashMap<>();
+        histograms.put("persona." + persona.getPersona(), MetricsCollector.encode(latency));
+        return MetricsExport.builder().histograms(histograms).personaMetrics(List.of(persona)).build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.config.MockCsmsProperties;
+import com.evse.simulator.performance.archive.PerfRunArchive;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import com.evse.simulator.performance.history.MetricsHistoryStore;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PerformanceEngineTest {
+
+    private MockCsmsService csms;
+    private PerfRunArchive archive;
+    private PerformanceEngine engine;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockCsmsProperties properties = new MockCsmsProperties();
+        properties.setPort(0);
+        csms = new MockCsmsService(properties);
+        csms.start(0);
+        archive = mock(PerfRunArchive.class);
+        engine = new PerformanceEngine(mock(MetricsHistoryStore.class), csms, archive);
+    }
+
+    @AfterEach
+    void tearDown() {
+        csms.stop();
+    }
+
+    @Test
+    @DisplayName("Test arrêté pendant le maintien : attente interrompue, archivé une seule fois en STOPPED")
+    void stoppedRunIsNotCompletedAfterwards() throws Exception {
+        List<PerfResult> completions = new ArrayList<>();
+        engine.setCompletionCallback(completions::add);
+        engine.startTest(PerfConfig.builder()
+                .ocppUrl("ws://localhost:" + csms.getPort() + "/ocpp")
+                .cpIdPrefix("STOP")
+                .idTag("PERF-TAG")
+                .targetConnections(1)
+                .rampUpSeconds(1)
+                .holdSeconds(60)
+                .scenarioType(PerfConfig.ScenarioType.CONNECTION)
+                .build());
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (csms.getResponder().getAnswered() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        engine.stopTest();
+        // Le maintien de 60 s se termine des l'arret : plus aucun thread n'attend dans le moteur
+        deadline = System.currentTimeMillis() + 2_000;
+        while (threadWaitingInEngine() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(threadWaitingInEngine()).isFalse();
+        Thread.sleep(200);
+
+        ArgumentCaptor<PerfResult> archived = ArgumentCaptor.forClass(PerfResult.class);
+        verify(archive, times(1)).archive(archived.capture(), any(), anyString());
+        assertThat(archived.getValue().getStatus()).isEqualTo(PerfStatus.STOPPED);
+        assertThat(engine.getStatus()).isEqualTo(PerfStatus.STOPPED);
+        assertThat(completions).isEmpty();
+    }
+
+    private static boolean threadWaitingInEngine() {
+        return Thread.getAllStackTraces().entrySet().stream()
+                .filter(entry -> entry.getKey() != Thread.currentThread())
+                .flatMap(entry -> Arrays.stream(entry.getValue()))
+                .anyMatch(frame -> frame.getClassName().startsWith(PerformanceEngine.class.getName()));
+    }
+}
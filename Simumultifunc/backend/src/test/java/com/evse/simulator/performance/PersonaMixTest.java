@@ -0,0 +1,58 @@
+package com.evse.simulator.performance;
+
+import com.evse.simulator.performance.model.PerfPersona;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PersonaMixTest {
+
+    private static final List<PerfPersona> PERSONAS = List.of(
+            PerfPersona.builder().name("idle").weight(70).behavior(PerfPersona.Behavior.IDLE).build(),
+            PerfPersona.builder().name("ac").weight(20).behavior(PerfPersona.Behavior.SESSION).build(),
+            PerfPersona.builder().name("dc").weight(10).behavior(PerfPersona.Behavior.SESSION).build(),
+            PerfPersona.builder().name("unused").weight(0).build());
+
+    @Test
+    @DisplayName("Répartition conforme aux poids sur 25 000 points de charge")
+    void followsWeights() {
+        PersonaMix mix = new PersonaMix(PERSONAS, 42);
+        int[] counts = new int[PERSONAS.size()];
+        for (int i = 0; i < 25_000; i++) {
+            counts[mix.assign(String.format("PERF-%06d", i))]++;
+        }
+
+        assertThat(counts[0] / 25_000.0).isCloseTo(0.70, within(0.02));
+        assertThat(counts[1] / 25_000.0).isCloseTo(0.20, within(0.02));
+        assertThat(counts[2] / 25_000.0).isCloseTo(0.10, within(0.02));
+        assertThat(counts[3]).isZero();
+    }
+
+    @Test
+    @DisplayName("Même graine : mêmes profils et mêmes tirages par point de charge")
+    void reproducibleWithSeed() {
+        PersonaMix first = new PersonaMix(PERSONAS, 7);
+        PersonaMix second = new PersonaMix(PERSONAS, 7);
+
+        for (int i = 0; i < 100; i++) {
+            String cpId = "PERF-" + i;
+            assertThat(second.assign(cpId)).isEqualTo(first.assign(cpId));
+            assertThat(second.randomFor(cpId).nextLong()).isEqualTo(first.randomFor(cpId).nextLong());
+        }
+        assertThat(new PersonaMix(PERSONAS, 8).randomFor("PERF-1").nextLong())
+                .isNotEqualTo(first.randomFor("PERF-1").nextLong());
+    }
+
+    @Test
+    @DisplayName("Profils absents ou de poids nul refusés")
+    void rejectsEmptyMix() {
+        assertThatThrownBy(() -> new PersonaMix(List.of(), 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PersonaMix(List.of(PerfPersona.builder().weight(0).build()), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
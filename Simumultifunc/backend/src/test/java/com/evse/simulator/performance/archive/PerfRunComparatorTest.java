@@ -0,0 +1,97 @@
+package com.evse.simulator.performance.archive;
+
+import com.evse.simulator.performance.MetricsCollector;
+import com.evse.simulator.performance.PerfAction;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfRunComparison;
+import com.evse.simulator.performance.model.PerfRunComparison.PercentileDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.RateDiff;
+import com.evse.simulator.performance.model.PerfRunComparison.Verdict;
+import com.evse.simulator.performance.model.PerfRunRecord;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerfRunComparatorTest {
+
+    @Test
+    @DisplayName("Latence nettement plus haute sur beaucoup d'échantillons : régression signalée")
+    void flagsSignificantLatencyRegression() {
+        PerfRunRecord baseline = run("base", 20_000, 10_000, 1);
+        PerfRunRecord candidate = run("cand", 20_000, 13_000, 2);
+
+        PerfRunComparison comparison = PerfRunComparator.compare(baseline, candidate, 5);
+
+        PercentileDiff p50 = find(comparison, "message", 50);
+        assertThat(p50.isSignificant()).isTrue();
+        assertThat(p50.getDeltaPercent()).isGreaterThan(20);
+        assertThat(p50.getCandidateLowMs()).isGreaterThan(p50.getBaselineHighMs());
+        assertThat(p50.getVerdict()).isEqualTo(Verdict.REGRESSED);
+        assertThat(comparison.isRegressed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Même distribution : aucun écart signalé, même en queue de distribution")
+    void sameDistributionIsUnchanged() {
+        PerfRunComparison comparison = PerfRunComparator.compare(
+                run("base", 20_000, 10_000, 3), run("cand", 20_000, 10_000, 4), 5);
+
+        assertThat(comparison.getPercentiles())
+                .allSatisfy(diff -> assertThat(diff.getVerdict()).isEqualTo(Verdict.UNCHANGED));
+        assertThat(comparison.isRegressed()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Trop peu d'échantillons : intervalle large, écart non significatif")
+    void smallSamplesAreNotSignificant() {
+        PerfRunComparison comparison = PerfRunComparator.compare(
+                run("base", 10, 10_000, 5), run("cand", 10, 11_000, 6), 5);
+
+        assertThat(find(comparison, "message", 99).isSignificant()).isFalse();
+        assertThat(find(comparison, "message", 99).getVerdict()).isEqualTo(Verdict.UNCHANGED);
+    }
+
+    @Test
+    @DisplayName("Taux d'erreur : test sur deux proportions")
+    void errorRateProportionTest() {
+        RateDiff worse = PerfRunComparator.proportion("errorRate", 10, 10_000, 60, 10_000, 5);
+        RateDiff noise = PerfRunComparator.proportion("errorRate", 10, 10_000, 12, 10_000, 5);
+
+        assertThat(worse.getZScore()).isGreaterThan(1.96);
+        assertThat(worse.getVerdict()).isEqualTo(Verdict.REGRESSED);
+        assertThat(noise.isSignificant()).isFalse();
+        assertThat(noise.getVerdict()).isEqualTo(Verdict.UNCHANGED);
+    }
+
+    /**
+     * Test archive dont les latences suivent une loi exponentielle de moyenne donnee.
+     */
+    private static PerfRunRecord run(String id, int samples, long meanMicros, long seed) {
+        MetricsCollector collector = new MetricsCollector(10);
+        Random random = new Random(seed);
+        for (int i = 0; i < samples; i++) {
+            long latency = 1 + (long) (-Math.log(1 - random.nextDouble()) * meanMicros);
+            collector.recordResponse(PerfAction.HEARTBEAT, latency);
+            collector.incrementMessagesSent();
+            collector.incrementMessagesReceived();
+        }
+        PerfResult result = PerfResult.builder()
+                .testId(id)
+                .duration(Duration.ofSeconds(60))
+                .totalMessagesSent(samples)
+                .totalMessagesReceived(samples)
+                .build();
+        return PerfRunRecord.builder().id(id).result(result).metrics(collector.export()).build();
+    }
+
+    private static PercentileDiff find(PerfRunComparison comparison, String histogram, double percentile) {
+        return comparison.getPercentiles().stream()
+                .filter(diff -> diff.getHistogram().equals(histogram) && diff.getPercentile() == percentile)
+                .findFirst()
+                .orElseThrow();
+    }
+}
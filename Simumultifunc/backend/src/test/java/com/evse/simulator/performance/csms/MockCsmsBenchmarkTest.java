@@ -0,0 +1,93 @@
+package com.evse.simulator.performance.csms;
+
+import com.evse.simulator.performance.ConnectionPool;
+import com.evse.simulator.performance.ConnectionPool.MessageEvent;
+import com.evse.simulator.performance.ConnectionPool.PerfWebSocketClient;
+import com.evse.simulator.performance.PerfAction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark du simulateur contre le CSMS simule (mvn test -Pbenchmark).
+ * <p>
+ * {@value #CONNECTIONS} clients du pool de performance gardent chacun
+ * {@value #WINDOW} Heartbeats en vol : chaque reponse declenche l'envoi du
+ * suivant. Le debit mesure est celui de l'aller-retour complet, simulateur
+ * et CSMS sur la meme machine ; le seuil croit avec le nombre de coeurs
+ * (55 000 a 74 000 msg/s mesures sur 1 vCPU).
+ * </p>
+ */
+@Tag("benchmark")
+class MockCsmsBenchmarkTest {
+
+    private static final int CONNECTIONS = 200;
+    private static final int WINDOW = 16;
+    private static final long WARMUP_MS = 3_000;
+    private static final long MEASURE_MS = 10_000;
+    private static final double MIN_MESSAGES_PER_SECOND = 100_000;
+    private static final double MIN_MESSAGES_PER_SECOND_PER_CORE = 40_000;
+
+    @Test
+    @DisplayName("Débit aller-retour pool de performance / CSMS simulé")
+    void roundTripThroughput() throws Exception {
+        MockCsmsResponder responder = new MockCsmsResponder(new MockCsmsBehavior());
+        MockCsmsServer server = new MockCsmsServer(0, Runtime.getRuntime().availableProcessors(), responder);
+        server.startAndWait(5000);
+        ConnectionPool pool = new ConnectionPool("ws://localhost:" + server.getPort() + "/ocpp",
+                "BENCH", CONNECTIONS, 1000);
+        LongAdder responses = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            pool.setMessageCallback(event -> {
+                if (event.kind != MessageEvent.Kind.RESPONSE || !running.get()) {
+                    return;
+                }
+                PerfWebSocketClient client = pool.getConnections().get(event.cpId);
+                if (client == null) {
+                    return;
+                }
+                int burst = event.action == PerfAction.BOOT_NOTIFICATION ? WINDOW : 1;
+                for (int i = 0; i < burst; i++) {
+                    client.sendCall(PerfAction.HEARTBEAT, "{}");
+                }
+                responses.increment();
+            });
+            pool.startConnections();
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (pool.getActiveCount() < CONNECTIONS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(pool.getActiveCount()).isEqualTo(CONNECTIONS);
+
+            Thread.sleep(WARMUP_MS);
+            long before = responses.sum();
+            long start = System.nanoTime();
+            Thread.sleep(MEASURE_MS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double perSecond = (responses.sum() - before) / seconds;
+            running.set(false);
+            int cores = Runtime.getRuntime().availableProcessors();
+            double minPerSecond = Math.min(MIN_MESSAGES_PER_SECOND, MIN_MESSAGES_PER_SECOND_PER_CORE * cores);
+
+            System.out.printf("%n=== %d connexions x %d requetes en vol ===%n", CONNECTIONS, WINDOW);
+            System.out.printf("%-22s %12.0f msg/s (aller-retour, %d coeurs, seuil %.0f)%n",
+                    "debit", perSecond, cores, minPerSecond);
+            System.out.printf("%-22s %12d%n", "trames recues CSMS", responder.getReceived());
+
+            assertThat(responder.getInvalidFrames()).isZero();
+            assertThat(perSecond).isGreaterThan(minPerSecond);
+        } finally {
+            running.set(false);
+            pool.stop();
+            pool.closeAll().get(10, TimeUnit.SECONDS);
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.evse.simulator.performance.csms;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MockCsmsResponderTest {
+
+    @Test
+    @DisplayName("Réponses par défaut : boot accepté, transactions numérotées, payload vide sinon")
+    void cannedResponses() {
+        MockCsmsResponder responder = new MockCsmsResponder(new MockCsmsBehavior());
+
+        assertThat(responder.answer("CP-1", "[2,\"1\",\"BootNotification\",{\"chargePointVendor\":\"V\"}]"))
+                .startsWith("[3,\"1\",{\"status\":\"Accepted\",\"currentTime\":\"")
+                .endsWith("\"interval\":300}]");
+        assertThat(responder.answer("CP-1", "[2,\"2\",\"StartTransaction\",{}]"))
+                .isEqualTo("[3,\"2\",{\"transactionId\":1,\"idTagInfo\":{\"status\":\"Accepted\"}}]");
+        assertThat(responder.answer("CP-1", "[2,\"3\",\"StartTransaction\",{}]")).contains("\"transactionId\":2");
+        assertThat(responder.answer("CP-1", "[2,\"4\",\"MeterValues\",{}]")).isEqualTo("[3,\"4\",{}]");
+        assertThat(responder.getCallsByAction()).containsEntry("StartTransaction", 2L);
+    }
+
+    @Test
+    @DisplayName("Actions inconnues regroupées : un compteur par action OCPP 1.6 au plus")
+    void unknownActionsShareOneCounter() {
+        MockCsmsResponder responder = new MockCsmsResponder(new MockCsmsBehavior());
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(responder.answer("CP-1", "[2,\"" + i + "\",\"Custom" + i + "\",{}]"))
+                    .isEqualTo("[3,\"" + i + "\",{}]");
+        }
+        responder.answer("CP-1", "[2,\"h\",\"Heartbeat\",{}]");
+
+        assertThat(responder.getCallsByAction())
+                .containsOnly(Map.entry(MockCsmsResponder.OTHER_ACTION, 1_000L), Map.entry("Heartbeat", 1L));
+    }
+
+    @Test
+    @DisplayName("Modèles de réponse et injection d'erreurs")
+    void templatesAndErrors() {
+        MockCsmsBehavior behavior = MockCsmsBehavior.builder()
+                .responses(Map.of("Authorize", "{\"idTagInfo\":{\"status\":\"Blocked\"},\"cp\":\"{{cpId}}\"}"))
+                .build();
+        MockCsmsResponder responder = new MockCsmsResponder(behavior);
+
+        assertThat(responder.answer("CP-7", "[2,\"a\",\"Authorize\",{\"idTag\":\"T\"}]"))
+                .isEqualTo("[3,\"a\",{\"idTagInfo\":{\"status\":\"Blocked\"},\"cp\":\"CP-7\"}]");
+
+        responder.setBehavior(MockCsmsBehavior.builder().errorRatePercent(100).errorCode("NotSupported").build());
+        assertThat(responder.answer("CP-7", "[2,\"b\",\"Heartbeat\",{}]"))
+                .isEqualTo("[4,\"b\",\"NotSupported\",\"Injected error\",{}]");
+        assertThat(responder.getInjectedErrors()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Réponses aux CALL du CSMS comptées sans être répondues")
+    void serverCalls() {
+        MockCsmsResponder responder = new MockCsmsResponder(null);
+
+        String call = responder.call("SetChargingProfile", null);
+        assertThat(call).startsWith("[2,\"csms-1\",\"SetChargingProfile\",{\"connectorId\":1");
+        assertThat(responder.answer("CP-1", "[3,\"csms-1\",{\"status\":\"Accepted\"}]")).isNull();
+        assertThat(responder.getCallReplies()).isEqualTo(1);
+        assertThat(responder.answer("CP-1", "garbage")).isNull();
+        assertThat(responder.getInvalidFrames()).isEqualTo(1);
+        assertThatThrownBy(() -> responder.call("Reset", null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Latence uniforme tirée dans ses bornes")
+    void uniformLatency() {
+        MockCsmsResponder responder = new MockCsmsResponder(MockCsmsBehavior.builder()
+                .latencyMode(MockCsmsBehavior.LatencyMode.UNIFORM).latencyMs(2).latencyMaxMs(5).build());
+        for (int i = 0; i < 1000; i++) {
+            assertThat(responder.sampleDelayNanos()).isBetween(2_000_000L, 5_000_000L);
+        }
+        responder.setBehavior(new MockCsmsBehavior());
+        assertThat(responder.sampleDelayNanos()).isZero();
+    }
+}
@@ -0,0 +1,102 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.http.OutboundHttpClient;
+import com.evse.simulator.http.OutboundHttpProperties;
+import com.evse.simulator.performance.MetricsCollector;
+import com.evse.simulator.performance.PerfAction;
+import com.evse.simulator.performance.archive.PerfRunArchive;
+import com.evse.simulator.performance.model.MetricsExport;
+import com.evse.simulator.performance.model.PerfConfig;
+import com.evse.simulator.performance.model.PerfResult;
+import com.evse.simulator.performance.model.PerfStatus;
+import com.evse.simulator.performance.model.PersonaMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class DistributedPerfCoordinatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private HttpServer agent;
+    private String agentUrl;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        agent = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        agent.createContext(DistributedPerfCoordinator.AGENT_PATH, exchange -> {
+            byte[] body = "POST".equals(exchange.getRequestMethod())
+                    ? "{}".getBytes(StandardCharsets.UTF_8)
+                    : objectMapper.writeValueAsBytes(report(exchange.getRequestURI().getPath()));
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        agent.start();
+        agentUrl = "http://127.0.0.1:" + agent.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        agent.stop(0);
+    }
+
+    @Test
+    @DisplayName("Test distribué terminé : résultat et histogrammes fusionnés archivés")
+    void archivesMergedRun() {
+        PerfRunArchive archive = mock(PerfRunArchive.class);
+        DistributedPerfCoordinator coordinator = new DistributedPerfCoordinator(
+                new OutboundHttpClient(new OutboundHttpProperties(), new RestTemplateBuilder()), objectMapper, archive);
+
+        DistributedRun run = coordinator.start(DistributedRunRequest.builder()
+                .config(PerfConfig.builder()
+                        .cpIdPrefix("DIST")
+                        .targetConnections(4)
+                        .rampUpSeconds(1)
+                        .scenarioType(PerfConfig.ScenarioType.WORKLOAD)
+                        .build())
+                .agents(List.of(agentUrl, agentUrl))
+                .build());
+
+        ArgumentCaptor<PerfResult> result = ArgumentCaptor.forClass(PerfResult.class);
+        ArgumentCaptor<MetricsExport> metrics = ArgumentCaptor.forClass(MetricsExport.class);
+        verify(archive, timeout(10_000)).archive(result.capture(), metrics.capture(), anyString());
+
+        assertThat(result.getValue().getTestId()).isEqualTo(run.getRunId());
+        assertThat(result.getValue().getStatus()).isEqualTo(PerfStatus.COMPLETED);
+        assertThat(metrics.getValue().getMessagesSent()).isEqualTo(2);
+        assertThat(metrics.getValue().getHistograms()).containsKeys("message", "persona.idle");
+        assertThat(metrics.getValue().getPersonaMetrics()).singleElement()
+                .satisfies(persona -> assertThat(persona.getChargePoints()).isEqualTo(4));
+    }
+
+    private static AgentReport report(String path) {
+        MetricsCollector collector = new MetricsCollector(2);
+        collector.incrementMessagesSent();
+        collector.recordResponse(PerfAction.HEARTBEAT, 1_500);
+        MetricsExport export = collector.export();
+        export.getHistograms().put("persona.idle", export.getHistograms().get("message"));
+        export.setPersonaMetrics(List.of(PersonaMetrics.builder().persona("idle").chargePoints(2).build()));
+        return AgentReport.builder()
+                .runId(path.substring(path.lastIndexOf('/') + 1))
+                .status(PerfStatus.COMPLETED)
+                .successfulConnections(2)
+                .metrics(export)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.evse.simulator.performance.distributed;
+
+import com.evse.simulator.performance.model.PerfConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ShardPlannerTest {
+
+    private static PerfConfig config(int connections) {
+        return PerfConfig.builder()
+                .cpIdPrefix("PERF")
+                .targetConnections(connections)
+                .transactionsPerSecond(100)
+                .meterValuesPerSecond(1000)
+                .scenarioType(PerfConfig.ScenarioType.OPEN_LOAD)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Plages d'index contiguës et débits proportionnels aux connexions")
+    void splitsContiguousRanges() {
+        List<PerfConfig> shards = ShardPlanner.split(config(10_001), 4);
+
+        assertThat(shards).extracting(PerfConfig::getTargetConnections).containsExactly(2501, 2500, 2500, 2500);
+        assertThat(shards).extracting(PerfConfig::getCpIndexOffset).containsExactly(0, 2501, 5001, 7501);
+        assertThat(shards.stream().mapToDouble(PerfConfig::getTransactionsPerSecond).sum()).isCloseTo(100, within(1e-9));
+        assertThat(shards.stream().mapToDouble(PerfConfig::getMeterValuesPerSecond).sum()).isCloseTo(1000, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Graine commune à toutes les tranches")
+    void sharesSeed() {
+        List<PerfConfig> drawn = ShardPlanner.split(config(100), 3);
+        assertThat(drawn.get(0).getSeed()).isNotNull();
+        assertThat(drawn).extracting(PerfConfig::getSeed).containsOnly(drawn.get(0).getSeed());
+
+        PerfConfig seeded = config(100).toBuilder().seed(42L).build();
+        assertThat(ShardPlanner.split(seeded, 2)).extracting(PerfConfig::getSeed).containsOnly(42L);
+    }
+
+    @Test
+    @DisplayName("Scénario CAPACITY et agents trop nombreux refusés")
+    void rejectsInvalidSplits() {
+        PerfConfig capacity = config(100).toBuilder().scenarioType(PerfConfig.ScenarioType.CAPACITY).build();
+        assertThatThrownBy(() -> ShardPlanner.split(capacity, 2)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardPlanner.split(config(2), 3)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardPlanner.split(config(2), 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
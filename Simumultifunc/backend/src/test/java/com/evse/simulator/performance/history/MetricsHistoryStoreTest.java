@@ -0,0 +1,91 @@
+package com.evse.simulator.performance.history;
+
+import com.evse.simulator.config.MetricsProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsHistoryStoreTest {
+
+    private static final long T0 = 1_700_000_000L;
+
+    private MetricsProperties properties;
+    private MetricsHistoryStore store;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MetricsProperties();
+        properties.getHistory().setFineRetentionSeconds(60);
+        properties.getHistory().setCoarseRetentionSeconds(600);
+        properties.getHistory().setMaxSeries(2);
+        store = new MetricsHistoryStore(properties);
+    }
+
+    @Test
+    @DisplayName("Le cumul 10 s agrège les échantillons 1 s")
+    void coarseRollup() {
+        for (int i = 0; i < 20; i++) {
+            store.record("sim.activeSessions", Instant.ofEpochSecond(T0 + i), i);
+        }
+
+        MetricsHistoryStore.Range fine = store.query("sim.activeSessions",
+                Instant.ofEpochSecond(T0), Instant.ofEpochSecond(T0 + 19), null);
+        assertThat(fine.resolutionSeconds()).isEqualTo(1);
+        assertThat(fine.points()).hasSize(20);
+
+        MetricsHistoryStore.Range coarse = store.query("sim.activeSessions",
+                Instant.ofEpochSecond(T0), Instant.ofEpochSecond(T0 + 19), 10);
+        assertThat(coarse.resolutionSeconds()).isEqualTo(10);
+        assertThat(coarse.points()).hasSize(2);
+        assertThat(coarse.points().get(0).count()).isEqualTo(10);
+        assertThat(coarse.points().get(0).avg()).isEqualTo(4.5);
+        assertThat(coarse.points().get(1).min()).isEqualTo(10);
+        assertThat(coarse.points().get(1).max()).isEqualTo(19);
+        assertThat(coarse.aggregate().count()).isEqualTo(20);
+        assertThat(coarse.aggregate().last()).isEqualTo(19);
+    }
+
+    @Test
+    @DisplayName("La mémoire est fixe : les cases anciennes sont réutilisées")
+    void ringWrapsAround() {
+        MetricRing ring = new MetricRing(1, 60);
+        for (int i = 0; i < 150; i++) {
+            ring.record(T0 + i, i);
+        }
+        ring.record(T0, 999); // trop ancien, ignoré
+
+        List<MetricsHistoryStore.Point> points = ring.query(T0, T0 + 200);
+        assertThat(ring.getCapacity()).isEqualTo(60);
+        assertThat(points).hasSize(60);
+        assertThat(points.get(0).timestamp()).isEqualTo(Instant.ofEpochSecond(T0 + 90));
+        assertThat(points.get(59).last()).isEqualTo(149);
+    }
+
+    @Test
+    @DisplayName("Une plage hors de la résolution fine bascule sur le cumul")
+    void fallsBackToCoarse() {
+        for (int i = 0; i < 300; i++) {
+            store.record("perf.activeConnections", Instant.ofEpochSecond(T0 + i), 1);
+        }
+
+        MetricsHistoryStore.Range range = store.query("perf.activeConnections",
+                Instant.ofEpochSecond(T0), Instant.ofEpochSecond(T0 + 299), null);
+        assertThat(range.resolutionSeconds()).isEqualTo(10);
+        assertThat(range.aggregate().count()).isEqualTo(300);
+    }
+
+    @Test
+    @DisplayName("Le nombre de séries est borné")
+    void seriesLimit() {
+        store.recordAll("sim", Instant.ofEpochSecond(T0), Map.of("a", 1, "b", 2, "c", 3));
+
+        assertThat(store.getMetricNames()).hasSize(2);
+        assertThat(store.getStats().maxSeries()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,147 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.model.ChargingProfile.*;
+import com.evse.simulator.service.SmartChargingEngine.CompositeSchedule;
+import com.evse.simulator.service.SmartChargingEngine.EffectiveLimit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChargingProfileManagerTest {
+
+    private static final String SESSION = "session-1";
+
+    private final List<Object> events = new ArrayList<>();
+    private ChargingProfileManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new ChargingProfileManager(events::add, new SmartChargingEngine());
+    }
+
+    @Test
+    @DisplayName("La limite effective suit la période active et est recalculée après modification")
+    void effectiveLimitFollowsTimeline() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(10);
+        manager.setChargingProfile(SESSION, 1, profile(1, ChargingProfilePurpose.TX_DEFAULT_PROFILE, 0, start,
+                period(0, 10_000), period(3600, 5_000)));
+
+        EffectiveLimit first = manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400);
+        EffectiveLimit cached = manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400);
+        assertThat(first.limitW()).isEqualTo(10_000);
+        assertThat(cached.limitW()).isEqualTo(10_000);
+        assertThat(cached.nextPeriod().startPeriod()).isEqualTo(3600);
+
+        // Profil du connecteur 0 plus restrictif : s'applique aussi au connecteur 1
+        manager.setChargingProfile(SESSION, 0, profile(2, ChargingProfilePurpose.CHARGE_POINT_MAX_PROFILE, 0, start,
+                period(0, 7_000)));
+        EffectiveLimit limited = manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400);
+        assertThat(limited.limitW()).isEqualTo(7_000);
+        assertThat(limited.source()).isEqualTo(ChargingProfilePurpose.CHARGE_POINT_MAX_PROFILE);
+
+        manager.clearChargingProfile(SESSION, 2, null, null, null);
+        assertThat(manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400).limitW()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("Le stackLevel le plus élevé d'un purpose masque les autres")
+    void highestStackLevelWins() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(10);
+        manager.setChargingProfile(SESSION, 1, profile(1, ChargingProfilePurpose.TX_PROFILE, 0, start,
+                period(0, 4_000)));
+        manager.setChargingProfile(SESSION, 1, profile(2, ChargingProfilePurpose.TX_PROFILE, 1, start,
+                period(0, 9_000)));
+
+        EffectiveLimit limit = manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400);
+        assertThat(limit.limitW()).isEqualTo(9_000);
+        assertThat(limit.profileId()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Le schedule composite découpe la timeline sur la durée demandée")
+    void compositeScheduleSlicesTimeline() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(10);
+        manager.setChargingProfile(SESSION, 1, profile(1, ChargingProfilePurpose.TX_DEFAULT_PROFILE, 0, start,
+                period(0, 10_000), period(600, 5_000), period(7200, 2_000)));
+
+        CompositeSchedule composite = manager.getCompositeSchedule(SESSION, 1, 3600, "W", "AC_TRI", 400);
+
+        assertThat(composite.chargingSchedulePeriod()).hasSize(2);
+        assertThat(composite.chargingSchedulePeriod().get(0).startPeriod()).isZero();
+        assertThat(composite.chargingSchedulePeriod().get(0).limit()).isEqualTo(10_000);
+        assertThat(composite.chargingSchedulePeriod().get(1).startPeriod()).isBetween(588, 590);
+        assertThat(composite.chargingSchedulePeriod().get(1).limit()).isEqualTo(5_000);
+    }
+
+    @Test
+    @DisplayName("Un profil expiré est retiré à son échéance et un événement est publié")
+    void expiredProfileIsRemovedAtDeadline() {
+        LocalDateTime start = LocalDateTime.now().minusSeconds(10);
+        ChargingProfile expiring = profile(1, ChargingProfilePurpose.TX_PROFILE, 0, start, period(0, 4_000));
+        expiring.setValidTo(LocalDateTime.now().minusSeconds(1));
+        manager.setChargingProfile(SESSION, 1, expiring);
+        manager.setChargingProfile(SESSION, 1, profile(2, ChargingProfilePurpose.TX_DEFAULT_PROFILE, 0, start,
+                period(0, 11_000)));
+
+        assertThat(manager.processValidityDeadlines()).isEqualTo(1);
+
+        assertThat(manager.getActiveProfiles(SESSION, 1)).extracting(ChargingProfile::getChargingProfileId)
+                .containsExactly(2);
+        assertThat(manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400).limitW()).isEqualTo(11_000);
+        assertThat(events).singleElement().isInstanceOfSatisfying(ChargingProfileValidityEvent.class, event -> {
+            assertThat(event.chargingProfileId()).isEqualTo(1);
+            assertThat(event.transition()).isEqualTo(ChargingProfileValidityEvent.Transition.EXPIRED);
+        });
+        assertThat(manager.processValidityDeadlines()).isZero();
+    }
+
+    @Test
+    @DisplayName("Un profil au validFrom futur n'est pas actif avant son échéance")
+    void pendingProfileIsNotActive() {
+        ChargingProfile future = profile(1, ChargingProfilePurpose.TX_PROFILE, 0,
+                LocalDateTime.now().minusSeconds(10), period(0, 4_000));
+        future.setValidFrom(LocalDateTime.now().plusHours(1));
+        manager.setChargingProfile(SESSION, 1, future);
+
+        assertThat(manager.getActiveProfiles(SESSION, 1)).isEmpty();
+        assertThat(manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400).hasLimit()).isFalse();
+        assertThat(manager.processValidityDeadlines()).isZero();
+    }
+
+    @Test
+    @DisplayName("Sans profil, aucune limite")
+    void noProfile() {
+        assertThat(manager.getEffectiveLimit(SESSION, 1, "AC_TRI", 400).hasLimit()).isFalse();
+        assertThat(manager.getCompositeSchedule(SESSION, 1, 3600, "W", "AC_TRI", 400)).isNull();
+    }
+
+    private static ChargingProfile profile(int id, ChargingProfilePurpose purpose, int stackLevel,
+                                           LocalDateTime start, ChargingSchedulePeriod... periods) {
+        ChargingSchedule schedule = new ChargingSchedule();
+        schedule.setStartSchedule(start);
+        schedule.setChargingRateUnit(ChargingRateUnit.W);
+        schedule.setChargingSchedulePeriod(List.of(periods));
+
+        ChargingProfile profile = new ChargingProfile();
+        profile.setChargingProfileId(id);
+        profile.setChargingProfilePurpose(purpose);
+        profile.setChargingProfileKind(ChargingProfileKind.ABSOLUTE);
+        profile.setStackLevel(stackLevel);
+        profile.setChargingSchedule(schedule);
+        return profile;
+    }
+
+    private static ChargingSchedulePeriod period(int startPeriod, double limit) {
+        ChargingSchedulePeriod period = new ChargingSchedulePeriod();
+        period.setStartPeriod(startPeriod);
+        period.setLimit(limit);
+        return period;
+    }
+}
@@ -0,0 +1,63 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile.ChargingProfilePurpose;
+import com.evse.simulator.model.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chargement du contexte complet (services proxifiés par @EnableAsync) et
+ * réception des événements de validité des profils de charge. Stockage JSON,
+ * sans MongoDB embarqué ni création d'index au démarrage.
+ */
+@SpringBootTest(properties = {
+        "spring.autoconfigure.exclude=de.flapdoodle.embed.mongo.spring.autoconfigure.EmbeddedMongoAutoConfiguration",
+        "spring.data.mongodb.auto-index-creation=false"
+})
+@ActiveProfiles("test")
+class ChargingProfileValidityListenerTest {
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Test
+    @DisplayName("Expiration du dernier profil : toute la limite SCP de la session est effacée")
+    void expiredProfileClearsScpLimit() {
+        Session session = sessionService.createSession(Session.builder()
+                .title("SCP listener")
+                .url("ws://localhost:8080/ocpp")
+                .cpId("SCP-LISTENER")
+                .build());
+        session.setScpLimitKw(11.0);
+        session.setScpLimitA(16.0);
+        session.setScpProfileId(7);
+        session.setScpPurpose("TxDefaultProfile");
+        session.setScpStackLevel(2);
+        session.setScpNextPeriodSeconds(60);
+        session.setScpNextLimitKw(7.4);
+
+        publisher.publishEvent(new ChargingProfileValidityEvent(session.getId(), 1, 7,
+                ChargingProfilePurpose.TX_DEFAULT_PROFILE, ChargingProfileValidityEvent.Transition.EXPIRED,
+                LocalDateTime.now()));
+
+        Session updated = sessionService.findSession(session.getId()).orElseThrow();
+        assertThat(updated.getScpLimitKw()).isZero();
+        assertThat(updated.getScpLimitA()).isZero();
+        assertThat(updated.getScpProfileId()).isNull();
+        assertThat(updated.getScpPurpose()).isNull();
+        assertThat(updated.getScpStackLevel()).isZero();
+        assertThat(updated.getScpNextPeriodSeconds()).isNull();
+        assertThat(updated.getScpNextLimitKw()).isNull();
+    }
+}
@@ -36,7 +36,7 @@ class MeterValuesIntervalVerificationTest {
                 .id(SESSION_ID)
                 .title("Test Session")
                 .url("ws://localhost:8080/ocpp")
-                .chargerType(ChargerType.AC)
+                .chargerType(ChargerType.AC_MONO)
                 .state(SessionState.CHARGING)
                 .meterValuesInterval(60)
                 .build();
@@ -0,0 +1,139 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.model.ChargingProfile.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark du moteur Smart Charging (mvn test -Pbenchmark).
+ * <p>
+ * {@value #CONNECTORS} connecteurs portant chacun {@value #PROFILES_PER_CONNECTOR}
+ * profils empilés. Un tick lit la limite deux fois par connecteur (simulateur puis
+ * boucle OCPP). Compare l'évaluation directe à chaque lecture (ancien comportement
+ * des deux services) à la lecture du cache partagé, compilation comprise.
+ * </p>
+ */
+@Tag("benchmark")
+class SmartChargingEngineBenchmarkTest {
+
+    private static final int CONNECTORS = 10_000;
+    private static final int PROFILES_PER_CONNECTOR = 5;
+    private static final int TICKS = 20;
+    private static final int READS_PER_TICK = 2;
+
+    @Test
+    @DisplayName("Lectures de limite par tick : évaluation directe vs cache partagé")
+    void cachedVersusDirect() {
+        SmartChargingEngine engine = new SmartChargingEngine();
+        List<List<ChargingProfile>> stacks = new ArrayList<>(CONNECTORS);
+        LocalDateTime start = LocalDateTime.now().minusMinutes(5);
+        for (int c = 0; c < CONNECTORS; c++) {
+            stacks.add(stack(c, start));
+        }
+
+        // Préchauffage JIT
+        for (int i = 0; i < 3; i++) {
+            readDirect(engine, stacks);
+            readCached(engine, stacks);
+        }
+        engine.invalidateAll();
+
+        long compileStart = System.nanoTime();
+        readCached(engine, stacks);
+        long compileNs = System.nanoTime() - compileStart;
+
+        long directStart = System.nanoTime();
+        double directSum = 0;
+        for (int t = 0; t < TICKS; t++) {
+            directSum += readDirect(engine, stacks);
+        }
+        long directNs = System.nanoTime() - directStart;
+
+        long cachedStart = System.nanoTime();
+        double cachedSum = 0;
+        for (int t = 0; t < TICKS; t++) {
+            cachedSum += readCached(engine, stacks);
+        }
+        long cachedNs = System.nanoTime() - cachedStart;
+
+        long reads = (long) TICKS * READS_PER_TICK * CONNECTORS;
+        System.out.printf("%n=== %d connecteurs x %d profils, %d ticks x %d lectures ===%n",
+                CONNECTORS, PROFILES_PER_CONNECTOR, TICKS, READS_PER_TICK);
+        System.out.printf("%-22s %12.1f ms%n", "compilation initiale", compileNs / 1e6);
+        System.out.printf("%-22s %12.1f ns/lecture %10.1f ms/tick%n", "évaluation directe",
+                (double) directNs / reads, directNs / 1e6 / TICKS);
+        System.out.printf("%-22s %12.1f ns/lecture %10.1f ms/tick%n", "cache partagé",
+                (double) cachedNs / reads, cachedNs / 1e6 / TICKS);
+
+        assertThat(cachedSum).isEqualTo(directSum);
+        assertThat(cachedNs).isLessThan(directNs);
+    }
+
+    private static double readDirect(SmartChargingEngine engine, List<List<ChargingProfile>> stacks) {
+        double sum = 0;
+        LocalDateTime now = engine.now();
+        for (List<ChargingProfile> stack : stacks) {
+            for (int r = 0; r < READS_PER_TICK; r++) {
+                sum += engine.evaluate(stack, now, "AC_TRI", 230).limitW();
+            }
+        }
+        return sum;
+    }
+
+    private static double readCached(SmartChargingEngine engine, List<List<ChargingProfile>> stacks) {
+        double sum = 0;
+        for (int c = 0; c < stacks.size(); c++) {
+            List<ChargingProfile> stack = stacks.get(c);
+            for (int r = 0; r < READS_PER_TICK; r++) {
+                sum += engine.getEffectiveLimit("cp-" + (c / 5), 1 + c % 5, () -> stack, "AC_TRI", 230).limitW();
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * ChargePointMax, deux TxDefault et deux TxProfile empilés, périodes horaires.
+     */
+    private static List<ChargingProfile> stack(int connector, LocalDateTime start) {
+        ChargingProfilePurpose[] purposes = {
+                ChargingProfilePurpose.CHARGE_POINT_MAX_PROFILE,
+                ChargingProfilePurpose.TX_DEFAULT_PROFILE,
+                ChargingProfilePurpose.TX_DEFAULT_PROFILE,
+                ChargingProfilePurpose.TX_PROFILE,
+                ChargingProfilePurpose.TX_PROFILE
+        };
+        List<ChargingProfile> profiles = new ArrayList<>(PROFILES_PER_CONNECTOR);
+        for (int i = 0; i < PROFILES_PER_CONNECTOR; i++) {
+            List<ChargingSchedulePeriod> periods = new ArrayList<>();
+            for (int p = 0; p < 4; p++) {
+                ChargingSchedulePeriod period = new ChargingSchedulePeriod();
+                period.setStartPeriod(p * 3600);
+                period.setLimit(8 + (connector + i + p) % 24);
+                periods.add(period);
+            }
+            ChargingSchedule schedule = new ChargingSchedule();
+            schedule.setStartSchedule(start);
+            schedule.setChargingRateUnit(ChargingRateUnit.A);
+            schedule.setChargingSchedulePeriod(periods);
+
+            ChargingProfile profile = new ChargingProfile();
+            profile.setChargingProfileId(connector * PROFILES_PER_CONNECTOR + i);
+            profile.setChargingProfilePurpose(purposes[i]);
+            profile.setChargingProfileKind(ChargingProfileKind.ABSOLUTE);
+            profile.setStackLevel(i % 2);
+            profile.setChargingSchedule(schedule);
+            profile.setAppliedAt(start);
+            profile.setValidTo(start.plusDays(1));
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+}
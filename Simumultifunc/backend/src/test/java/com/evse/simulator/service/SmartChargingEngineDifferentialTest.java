@@ -0,0 +1,226 @@
+package com.evse.simulator.service;
+
+import com.evse.simulator.model.ChargingProfile;
+import com.evse.simulator.model.ChargingProfile.*;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.service.SmartChargingEngine.EffectiveLimit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test différentiel : la timeline compilée et son cache donnent les mêmes limites
+ * que l'évaluation directe, instant par instant, sur des piles de profils aléatoires.
+ */
+class SmartChargingEngineDifferentialTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 3, 2, 8, 0);
+    private static final String[] PHASE_TYPES = {"AC_MONO", "AC_TRI", "DC"};
+
+    private final MutableClock clock = new MutableClock(T0);
+
+    @Test
+    @DisplayName("Timeline en cache et évaluation directe donnent des limites identiques")
+    void compiledTimelineMatchesReference() {
+        Random random = new Random(42);
+
+        for (int stack = 0; stack < 300; stack++) {
+            SmartChargingEngine engine = new SmartChargingEngine(clock);
+            clock.set(T0);
+            List<ChargingProfile> profiles = randomStack(random);
+            String phaseType = PHASE_TYPES[random.nextInt(PHASE_TYPES.length)];
+            double voltage = random.nextBoolean() ? 230 : 400;
+
+            // Instants croissants sur ~30 h, souvent alignés sur les points de rupture
+            LocalDateTime time = T0;
+            for (int step = 0; step < 400; step++) {
+                time = time.plusSeconds(random.nextInt(600)).plusNanos(random.nextBoolean() ? 0 : 500_000_000);
+                clock.set(time);
+
+                EffectiveLimit cached = engine.getEffectiveLimit("s", 1, () -> profiles, phaseType, voltage);
+                EffectiveLimit reference = engine.evaluate(profiles, time, phaseType, voltage);
+
+                assertThat(cached.limitW()).as("stack %d à %s", stack, time).isEqualTo(reference.limitW());
+                assertThat(cached.profileId()).as("stack %d à %s", stack, time).isEqualTo(reference.profileId());
+                assertThat(cached.source()).isEqualTo(reference.source());
+                assertThat(cached.currentPeriodStart()).isEqualTo(reference.currentPeriodStart());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("SmartChargingService et ChargingProfileManager lisent la même limite")
+    void facadesAgree() {
+        SmartChargingEngine engine = new SmartChargingEngine();
+        ChargingProfileManager manager = new ChargingProfileManager(event -> {}, engine);
+        Session session = Session.builder().id("cp-1").connectorId(1).phaseType("AC_TRI").voltage(230).build();
+        SessionService sessionService = mock(SessionService.class);
+        when(sessionService.getSession("cp-1")).thenReturn(session);
+        SmartChargingService service = new SmartChargingService(sessionService, manager);
+
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        assertThat(service.setChargingProfile(0, "cp-1",
+                profile(1, ChargingProfilePurpose.CHARGE_POINT_MAX_PROFILE, 0, ChargingRateUnit.A, start, 32))).isEqualTo("Accepted");
+        // TxProfile posé hors du service (RemoteStartTransaction) : visible par les deux façades
+        manager.setChargingProfile("cp-1", 1, profile(2, ChargingProfilePurpose.TX_PROFILE, 0, ChargingRateUnit.A, start, 16));
+
+        double managerKw = manager.getEffectiveLimit("cp-1", 1, "AC_TRI", 230).getLimitKw();
+        assertThat(service.getCurrentLimit("cp-1")).isEqualTo(managerKw);
+        assertThat(managerKw).isCloseTo(3 * 230 * 16 / 1000.0, within(1e-9));
+    }
+
+    @Test
+    @DisplayName("Invalidation pendant une compilation : la timeline périmée n'est pas conservée")
+    void invalidateDuringCompilationWins() throws Exception {
+        SmartChargingEngine engine = new SmartChargingEngine(clock);
+        clock.set(T0);
+        AtomicReference<List<ChargingProfile>> stored = new AtomicReference<>(List.of(
+                profile(1, ChargingProfilePurpose.TX_PROFILE, 0, ChargingRateUnit.A, T0.minusMinutes(1), 16)));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch updated = new CountDownLatch(1);
+        Supplier<List<ChargingProfile>> slowRead = () -> {
+            List<ChargingProfile> snapshot = stored.get();
+            reading.countDown();
+            try {
+                updated.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return snapshot;
+        };
+
+        CompletableFuture<EffectiveLimit> compiling = CompletableFuture.supplyAsync(
+                () -> engine.getEffectiveLimit("s", 1, slowRead, "AC_TRI", 230));
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        // SetChargingProfile pendant la compilation : nouveau profil puis invalidation
+        stored.set(List.of(profile(2, ChargingProfilePurpose.TX_PROFILE, 0, ChargingRateUnit.A, T0.minusMinutes(1), 8)));
+        CompletableFuture<Void> invalidation = CompletableFuture.runAsync(() -> engine.invalidate("s", 1));
+        Thread.sleep(50);
+        updated.countDown();
+        compiling.get(5, TimeUnit.SECONDS);
+        invalidation.get(5, TimeUnit.SECONDS);
+
+        EffectiveLimit limit = engine.getEffectiveLimit("s", 1, stored::get, "AC_TRI", 230);
+        assertThat(limit.profileId()).isEqualTo(2);
+        assertThat(limit.limitW()).isCloseTo(3 * 230 * 8, within(1e-9));
+    }
+
+    private static List<ChargingProfile> randomStack(Random random) {
+        int count = 1 + random.nextInt(5);
+        List<ChargingProfile> profiles = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ChargingProfilePurpose purpose = ChargingProfilePurpose.values()[random.nextInt(3)];
+            ChargingRateUnit unit = random.nextBoolean() ? ChargingRateUnit.A : ChargingRateUnit.W;
+            ChargingProfile profile = profile(i + 1, purpose, random.nextInt(3), unit,
+                    T0.plusSeconds(random.nextInt(7200) - 3600), 0);
+
+            List<ChargingSchedulePeriod> periods = new ArrayList<>();
+            int startPeriod = 0;
+            for (int p = 0, n = 1 + random.nextInt(3); p < n; p++) {
+                ChargingSchedulePeriod period = new ChargingSchedulePeriod();
+                period.setStartPeriod(startPeriod);
+                period.setLimit(unit == ChargingRateUnit.A ? 6 + random.nextInt(26) : 1_000 + random.nextInt(21) * 1_000);
+                if (random.nextInt(4) == 0) {
+                    period.setNumberPhases(1 + random.nextInt(3));
+                }
+                periods.add(period);
+                startPeriod += 60 + random.nextInt(3600);
+            }
+            profile.getChargingSchedule().setChargingSchedulePeriod(periods);
+
+            switch (random.nextInt(4)) {
+                case 0 -> profile.setChargingProfileKind(ChargingProfileKind.RELATIVE);
+                case 1 -> {
+                    profile.setChargingProfileKind(ChargingProfileKind.RECURRING);
+                    profile.setRecurrencyKind(RecurrencyKind.DAILY);
+                }
+                case 2 -> profile.getChargingSchedule().setStartSchedule(null);
+                default -> { }
+            }
+            if (random.nextBoolean()) {
+                profile.getChargingSchedule().setDuration(600 + random.nextInt(14_400));
+            }
+            if (random.nextInt(3) == 0) {
+                profile.setValidFrom(T0.plusSeconds(random.nextInt(36_000)));
+            }
+            if (random.nextInt(3) == 0) {
+                profile.setValidTo(T0.plusSeconds(random.nextInt(72_000)));
+            }
+            profile.setAppliedAt(T0);
+            if (profile.getChargingProfileKind() == ChargingProfileKind.RELATIVE) {
+                profile.setEffectiveStartTime(T0);
+            }
+            profiles.add(profile);
+        }
+        return profiles;
+    }
+
+    private static ChargingProfile profile(int id, ChargingProfilePurpose purpose, int stackLevel,
+                                           ChargingRateUnit unit, LocalDateTime start, double limit) {
+        ChargingSchedulePeriod period = new ChargingSchedulePeriod();
+        period.setStartPeriod(0);
+        period.setLimit(limit);
+
+        ChargingSchedule schedule = new ChargingSchedule();
+        schedule.setStartSchedule(start);
+        schedule.setChargingRateUnit(unit);
+        schedule.setChargingSchedulePeriod(new ArrayList<>(List.of(period)));
+
+        ChargingProfile profile = new ChargingProfile();
+        profile.setChargingProfileId(id);
+        profile.setChargingProfilePurpose(purpose);
+        profile.setChargingProfileKind(ChargingProfileKind.ABSOLUTE);
+        profile.setStackLevel(stackLevel);
+        profile.setChargingSchedule(schedule);
+        return profile;
+    }
+
+    /**
+     * Horloge réglable pour rejouer une séquence d'instants.
+     */
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            this.instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.evse.simulator.tnr.diff;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Tests unitaires du moteur de diff en flux des exécutions TNR.
+ * <p>
+ * Vérifie l'alignement Myers fenêtré, les diffs de champs JSON et
+ * l'appariement par index. Le benchmark sur enregistrements synthétiques
+ * est tagué "benchmark" (mvn test -Pbenchmark).
+ * </p>
+ */
+class StreamingEventDiffTest {
+
+    private final JsonPayloadDiffer differ =
+            new JsonPayloadDiffer(new ObjectMapper(), Set.of("timestamp"), 0.0, true);
+
+    record Ev(String action, Map<String, Object> payload) {}
+
+    private StreamingEventDiff<Ev> engine(int window) {
+        return new StreamingEventDiff<>(Ev::action, (a, b) -> differ.diff(a.payload(), b.payload()), window);
+    }
+
+    private static Ev ev(String action, Object... kv) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            payload.put((String) kv[i], kv[i + 1]);
+        }
+        return new Ev(action, payload);
+    }
+
+    private EventEditScript run(List<Ev> baseline, List<Ev> compared, int window, int pageSize) {
+        EventEditScript.Collector<Ev> collector = new EventEditScript.Collector<>(Ev::action, 10_000);
+        StreamingEventDiff.Stats stats = engine(window).diff(
+                EventPageSource.ofList(baseline, pageSize),
+                EventPageSource.ofList(compared, pageSize),
+                collector);
+        return collector.build(stats, window);
+    }
+
+    @Test
+    @DisplayName("Exécutions identiques : une seule opération EQUAL")
+    void identical_shouldProduceSingleEqualRun() {
+        List<Ev> events = List.of(ev("BootNotification"), ev("Authorize"), ev("StartTransaction"));
+
+        EventEditScript script = run(events, events, 16, 2);
+
+        assertThat(script.getOps()).hasSize(1);
+        assertThat(script.getOps().get(0).getType()).isEqualTo(EventEditScript.OpType.EQUAL);
+        assertThat(script.getOps().get(0).getLength()).isEqualTo(3);
+        assertThat(script.getEditDistance()).isZero();
+    }
+
+    @Test
+    @DisplayName("Événement inséré : pas de décalage en cascade")
+    void insertion_shouldBeAlignedWithoutCascade() {
+        List<Ev> baseline = List.of(ev("Boot"), ev("Authorize"), ev("Start"), ev("MeterValues"), ev("Stop"));
+        List<Ev> compared = List.of(ev("Boot"), ev("Heartbeat"), ev("Authorize"), ev("Start"),
+                ev("MeterValues"), ev("Stop"));
+
+        EventEditScript script = run(baseline, compared, 16, 2);
+
+        assertThat(script.getInsertedCount()).isEqualTo(1);
+        assertThat(script.getDeletedCount()).isZero();
+        assertThat(script.getModifiedCount()).isZero();
+        assertThat(script.getEqualCount()).isEqualTo(5);
+        assertThat(script.getOps())
+                .filteredOn(op -> op.getType() == EventEditScript.OpType.INSERT)
+                .singleElement()
+                .satisfies(op -> {
+                    assertThat(op.getComparedIndex()).isEqualTo(1);
+                    assertThat(op.getKey()).isEqualTo("Heartbeat");
+                });
+    }
+
+    @Test
+    @DisplayName("Payload modifié : différences par champ JSON, clés ignorées")
+    void modifiedPayload_shouldReportFieldDiffs() {
+        List<Ev> baseline = List.of(ev("MeterValues", "value", 10.5, "unit", "kWh", "timestamp", "t1"));
+        List<Ev> compared = List.of(ev("MeterValues", "value", 11.0, "unit", "kWh", "timestamp", "t2"));
+
+        EventEditScript script = run(baseline, compared, 16, 10);
+
+        assertThat(script.getModifiedCount()).isEqualTo(1);
+        EventEditScript.EditOp op = script.getOps().get(0);
+        assertThat(op.getType()).isEqualTo(EventEditScript.OpType.MODIFY);
+        assertThat(op.getFieldDiffs())
+                .singleElement()
+                .satisfies(f -> {
+                    assertThat(f.path()).isEqualTo("/value");
+                    assertThat(f.kind()).isEqualTo("different");
+                    assertThat(f.expected()).isEqualTo(10.5);
+                    assertThat(f.actual()).isEqualTo(11.0);
+                });
+    }
+
+    @Test
+    @DisplayName("Fenêtre 0 : appariement strict par index")
+    void zeroWindow_shouldPairByIndex() {
+        List<Ev> baseline = List.of(ev("Boot"), ev("Authorize"), ev("Start"));
+        List<Ev> compared = List.of(ev("Boot"), ev("Start"));
+
+        EventEditScript script = run(baseline, compared, 0, 2);
+
+        assertThat(script.getEqualCount()).isEqualTo(1);
+        assertThat(script.getModifiedCount()).isEqualTo(1);
+        assertThat(script.getDeletedCount()).isEqualTo(1);
+        assertThat(script.getInsertedCount()).isZero();
+        assertThat(script.getOps()).extracting(EventEditScript.EditOp::getType)
+                .containsExactly(EventEditScript.OpType.EQUAL, EventEditScript.OpType.MODIFY,
+                        EventEditScript.OpType.DELETE);
+    }
+
+    @Test
+    @DisplayName("Petite fenêtre : chaque événement est couvert une fois, dans l'ordre")
+    void smallWindow_shouldCoverBothSequencesInOrder() {
+        Random random = new Random(42);
+        String[] actions = {"Boot", "Authorize", "Start", "MeterValues", "Stop"};
+        List<Ev> baseline = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            baseline.add(ev(actions[random.nextInt(actions.length)]));
+        }
+        List<Ev> compared = new ArrayList<>(baseline);
+        for (int k = 0; k < 40; k++) {
+            int pos = random.nextInt(compared.size());
+            if (k % 2 == 0) {
+                compared.add(pos, ev("DataTransfer"));
+            } else {
+                compared.remove(pos);
+            }
+        }
+
+        long[] next = {0, 0};
+        StreamingEventDiff.Stats stats = engine(64).diff(
+                EventPageSource.ofList(baseline, 50),
+                EventPageSource.ofList(compared, 37),
+                new StreamingEventDiff.Listener<>() {
+                    @Override
+                    public void onEqual(long i, long j, int length) {
+                        assertThat(i).isEqualTo(next[0]);
+                        assertThat(j).isEqualTo(next[1]);
+                        for (int k = 0; k < length; k++) {
+                            assertThat(baseline.get((int) i + k).action())
+                                    .isEqualTo(compared.get((int) j + k).action());
+                        }
+                        next[0] += length;
+                        next[1] += length;
+                    }
+
+                    @Override
+                    public void onModify(long i, Ev a, long j, Ev b, List<FieldDiff> fieldDiffs) {
+                        fail("no payload differences expected");
+                    }
+
+                    @Override
+                    public void onDelete(long i, Ev a) {
+                        assertThat(i).isEqualTo(next[0]++);
+                    }
+
+                    @Override
+                    public void onInsert(long j, Ev b) {
+                        assertThat(j).isEqualTo(next[1]++);
+                    }
+                });
+
+        assertThat(next[0]).isEqualTo(baseline.size());
+        assertThat(next[1]).isEqualTo(compared.size());
+        assertThat(stats.editDistance()).isLessThanOrEqualTo(40);
+        assertThat(stats.similarityPercent()).isGreaterThan(97.0);
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Benchmark : 500k événements synthétiques, mémoire bornée")
+    void benchmark_largeSyntheticRecording() {
+        int size = 500_000;
+        Random random = new Random(7);
+        String[] actions = {"Authorize", "StartTransaction", "MeterValues", "MeterValues", "MeterValues",
+                "StopTransaction", "StatusNotification"};
+        // Sources générées à la volée : aucune des deux exécutions n'est matérialisée
+        long seed = random.nextLong();
+        EventPageSource<Ev> baseline = syntheticSource(size, seed, actions, -1);
+        EventPageSource<Ev> compared = syntheticSource(size, seed, actions, 997);
+
+        Runtime rt = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = rt.totalMemory() - rt.freeMemory();
+        long start = System.nanoTime();
+
+        EventEditScript.Collector<Ev> collector = new EventEditScript.Collector<>(Ev::action, 1_000);
+        StreamingEventDiff.Stats stats = engine(StreamingEventDiff.DEFAULT_WINDOW).diff(baseline, compared, collector);
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        long heapAfter = rt.totalMemory() - rt.freeMemory();
+        System.out.printf("StreamingEventDiff: %d vs %d events in %d ms (%.0f events/s), "
+                        + "windows=%d, modified=%d, inserted=%d, deleted=%d, heap delta=%d KB%n",
+                stats.baselineCount(), stats.comparedCount(), elapsedMs,
+                (stats.baselineCount() + stats.comparedCount()) * 1000.0 / Math.max(1, elapsedMs),
+                stats.windows(), stats.modifiedCount(), stats.insertedCount(), stats.deletedCount(),
+                (heapAfter - heapBefore) / 1024);
+
+        assertThat(stats.baselineCount()).isEqualTo(size);
+        assertThat(stats.modifiedCount()).isPositive();
+        assertThat(collector.build(stats, StreamingEventDiff.DEFAULT_WINDOW).isTruncated()).isTrue();
+    }
+
+    /**
+     * Source synthétique déterministe ; tous les {@code every} événements,
+     * la valeur mesurée change et un StatusNotification est inséré.
+     */
+    private static EventPageSource<Ev> syntheticSource(int size, long seed, String[] actions, int every) {
+        Random random = new Random(seed);
+        int[] produced = {0};
+        return () -> {
+            List<Ev> page = new ArrayList<>(EventPageSource.DEFAULT_PAGE_SIZE);
+            while (page.size() < EventPageSource.DEFAULT_PAGE_SIZE && produced[0] < size) {
+                int i = produced[0]++;
+                String action = actions[random.nextInt(actions.length)];
+                double value = i * 0.5;
+                if (every > 0 && i % every == 0) {
+                    value += 1;
+                    page.add(ev("StatusNotification", "status", "Charging"));
+                }
+                page.add(ev(action, "connectorId", 1, "value", value, "timestamp", "t" + i));
+            }
+            return page;
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.evse.simulator.tnr.service;
+
+import com.evse.simulator.tnr.model.TnrComparisonResult;
+import com.evse.simulator.tnr.model.TnrComparisonResult.ComparisonOptions;
+import com.evse.simulator.tnr.model.TnrEvent;
+import com.evse.simulator.tnr.model.TnrExecution;
+import com.evse.simulator.tnr.model.enums.TnrEventCategory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TnrComparisonServiceTest {
+
+    private final TnrSignatureService signatureService = new TnrSignatureService();
+    private final TnrComparisonService service = new TnrComparisonService(
+            signatureService, new TnrRecordingService(signatureService), new ObjectMapper());
+
+    @Test
+    @DisplayName("Ordre ignoré : comparaison par ensemble, sans alignement de séquence")
+    void ignoreOrderComparesMultisets() {
+        ComparisonOptions options = ComparisonOptions.defaults();
+        options.setIgnoreOrder(true);
+
+        TnrComparisonResult reordered = service.compareExecutions(
+                execution("base", event("BootNotification"), event("Authorize"), event("StartTransaction")),
+                execution("cand", event("StartTransaction"), event("BootNotification"), event("Authorize")),
+                options, System.currentTimeMillis());
+        assertThat(reordered.getTotalDifferences()).isZero();
+        assertThat(reordered.getEditScript()).isNull();
+        assertThat(reordered.getSimilarityPercent()).isEqualTo(100.0);
+
+        TnrComparisonResult changed = service.compareExecutions(
+                execution("base", event("Authorize"), event("StartTransaction")),
+                execution("cand", event("StartTransaction"), event("StartTransaction")),
+                options, System.currentTimeMillis());
+        assertThat(changed.getTotalDifferences()).isEqualTo(2);
+        assertThat(changed.getDifferences()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Pages entièrement filtrées : la lecture continue, signatures calculées au fil de l'eau")
+    void filteredPagesDoNotEndTheSource() {
+        List<TnrEvent> withHeartbeats = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            withHeartbeats.add(event("Heartbeat"));
+        }
+        List<TnrEvent> meterValues = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            meterValues.add(event("MeterValues", "value", i));
+        }
+        withHeartbeats.addAll(meterValues);
+
+        TnrComparisonResult result = service.compareExecutions(
+                execution("base", withHeartbeats.toArray(new TnrEvent[0])),
+                execution("cand", meterValues.toArray(new TnrEvent[0])),
+                ComparisonOptions.defaults(), System.currentTimeMillis());
+
+        assertThat(result.getBaselineEventCount()).isEqualTo(10);
+        assertThat(result.getComparedEventCount()).isEqualTo(10);
+        assertThat(result.isSignatureMatch()).isTrue();
+        assertThat(result.getVerdict()).isEqualTo(TnrComparisonResult.Verdict.IDENTICAL);
+    }
+
+    private static TnrExecution execution(String id, TnrEvent... events) {
+        return TnrExecution.builder()
+                .id(id)
+                .scenarioName("scenario")
+                .events(List.of(events))
+                .build();
+    }
+
+    private static TnrEvent event(String action, Object... payload) {
+        return TnrEvent.builder()
+                .type("ocpp")
+                .category(TnrEventCategory.OCPP_REQUEST)
+                .action(action)
+                .payload(payload.length == 2 ? Map.of((String) payload[0], payload[1]) : null)
+                .build();
+    }
+}
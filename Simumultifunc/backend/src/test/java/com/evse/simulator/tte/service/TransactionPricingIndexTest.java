@@ -0,0 +1,148 @@
+package com.evse.simulator.tte.service;
+
+import com.evse.simulator.tte.config.TTEProperties;
+import com.evse.simulator.tte.model.PricingCacheStats;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionPricingIndexTest {
+
+    private static final String ENV = "https://evplatform.evcharge-pp.totalenergies.com";
+
+    private final TTEProperties.Pricing settings = new TTEProperties.Pricing();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final List<Integer> skips = new ArrayList<>();
+    /** Transactions connues de l'API, les plus récentes en premier. */
+    private volatile int transactionCount = 120;
+    private volatile String price = "4.20";
+
+    private TransactionPricingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        settings.setPageSize(50);
+        index = new TransactionPricingIndex(() -> settings, this::loadPage);
+    }
+
+    private JsonNode loadPage(String baseUrl, int limit, int skip) {
+        calls.incrementAndGet();
+        synchronized (skips) {
+            skips.add(skip);
+        }
+        try {
+            Thread.sleep(30);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ArrayNode page = JsonNodeFactory.instance.arrayNode();
+        for (int i = skip; i < Math.min(skip + limit, transactionCount); i++) {
+            page.addObject()
+                    .put("transactionId", transactionCount - i)
+                    .put("chargePointId", "CP-" + (transactionCount - i))
+                    .put("totalPrice", price)
+                    .put("currency", "EUR");
+        }
+        return page;
+    }
+
+    @Test
+    @DisplayName("Recherches simultanées : une seule lecture de l'API, puis servies par l'index")
+    void coalescesConcurrentLookups() {
+        List<CompletableFuture<JsonNode>> lookups = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int txId = 120 - i;
+            lookups.add(CompletableFuture.supplyAsync(() -> index.lookup(ENV, "CP-" + txId, txId)));
+        }
+        lookups.forEach(CompletableFuture::join);
+
+        assertThat(lookups).allSatisfy(lookup -> assertThat(lookup.join()).isNotNull());
+        assertThat(calls.get()).isEqualTo(1);
+
+        // Autre transaction de la même page : aucun appel distant
+        assertThat(index.lookup(ENV, "CP-80", 80).get("transactionId").asInt()).isEqualTo(80);
+        assertThat(calls.get()).isEqualTo(1);
+
+        PricingCacheStats stats = index.stats();
+        assertThat(stats.getLookups()).isEqualTo(21);
+        assertThat(stats.getRemoteCalls()).isEqualTo(1);
+        assertThat(stats.getRemoteCallsSaved()).isEqualTo(20);
+        assertThat(stats.getIndexedTransactions()).isEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Transaction absente : cache négatif, pas de nouvel appel avant expiration")
+    void cachesMisses() {
+        assertThat(index.lookup(ENV, "CP-999", 999)).isNull();
+        assertThat(index.lookup(ENV, "CP-999", 999)).isNull();
+        assertThat(index.lookup(ENV, "CP-998", 998)).isNull();
+
+        assertThat(calls.get()).isEqualTo(1);
+        PricingCacheStats stats = index.stats();
+        assertThat(stats.getNegativeHits()).isEqualTo(1);
+        assertThat(stats.getNegativeEntries()).isEqualTo(2);
+        assertThat(stats.getHitRate()).isGreaterThan(0.3);
+    }
+
+    @Test
+    @DisplayName("Préchargement : toutes les pages lues une fois et indexées")
+    void prefetchIndexesAllPages() {
+        assertThat(index.prefetch(ENV)).isEqualTo(120);
+        assertThat(skips).containsExactly(0, 50, 100);
+
+        // Transaction hors de la première page, servie sans appel
+        assertThat(index.lookup(ENV, "CP-3", 3)).isNotNull();
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(index.stats().getPrefetchCalls()).isEqualTo(3);
+        assertThat(index.stats().getRemoteCallsSaved()).isZero();
+    }
+
+    @Test
+    @DisplayName("Expiration : la transaction est relue après le TTL")
+    void expiresEntries() {
+        settings.setCacheTtlSeconds(0);
+        settings.setNegativeTtlSeconds(0);
+
+        assertThat(index.lookup(ENV, "CP-120", 120)).isNotNull();
+        assertThat(index.lookup(ENV, "CP-120", 120)).isNotNull();
+        assertThat(calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Expiration : transaction sortie de la première page relue dans les suivantes, jamais servie périmée")
+    void expiredEntryMissingFromFirstPageIsSearchedInOlderPages() {
+        settings.setCacheTtlSeconds(0);
+        settings.setNegativeTtlSeconds(0);
+        assertThat(index.lookup(ENV, "CP-120", 120).get("totalPrice").asText()).isEqualTo("4.20");
+
+        // 50 nouvelles transactions : la 120 passe en deuxième page, son prix a changé
+        transactionCount = 170;
+        price = "5.00";
+        assertThat(index.lookup(ENV, "CP-120", 120).get("totalPrice").asText()).isEqualTo("5.00");
+        assertThat(skips).containsExactly(0, 0, 50);
+
+        // Transaction supprimée de l'API : évincée, plus servie
+        transactionCount = 0;
+        assertThat(index.lookup(ENV, "CP-120", 120)).isNull();
+    }
+
+    @Test
+    @DisplayName("Taille de l'index bornée par maxIndexedTransactions")
+    void capsIndexSize() {
+        settings.setMaxIndexedTransactions(60);
+
+        assertThat(index.prefetch(ENV)).isEqualTo(120);
+
+        assertThat(index.stats().getIndexedTransactions()).isLessThanOrEqualTo(60);
+    }
+}
@@ -0,0 +1,89 @@
+package com.evse.simulator.websocket;
+
+import com.evse.simulator.config.MockCsmsProperties;
+import com.evse.simulator.model.LightSession;
+import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.model.enums.ConnectorStatus;
+import com.evse.simulator.performance.csms.MockCsmsBehavior;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LightOcppClientTest {
+
+    private MockCsmsService csms;
+    private LightOcppClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockCsmsProperties properties = new MockCsmsProperties();
+        properties.setPort(0);
+        csms = new MockCsmsService(properties);
+        csms.start(0);
+        MockCsmsBehavior behavior = new MockCsmsBehavior();
+        behavior.setLatencyMode(MockCsmsBehavior.LatencyMode.FIXED);
+        behavior.setLatencyMs(20);
+        csms.updateBehavior(behavior);
+
+        LightSession session = new LightSession("perf-1700000000000-00001", "PERF-00001", "PERF-TAG",
+                "ws://localhost:" + csms.getPort() + "/ocpp", 1, ChargerType.AC_TRI, "PERF_TEST", 50.0, 80.0);
+        client = new LightOcppClient(session, null, 5_000);
+        assertThat(client.open(5_000)).isTrue();
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        csms.stop();
+    }
+
+    @Test
+    @DisplayName("MeterValues pendant le flux de démarrage : mis en file, aucun CALL rejeté")
+    void meterValuesDuringStartFlowAreQueued() throws Exception {
+        List<CompletableFuture<JsonNode>> calls = new ArrayList<>();
+        calls.add(client.sendBootNotification());
+        calls.add(client.sendStatusNotification(ConnectorStatus.AVAILABLE));
+        List<CompletableFuture<JsonNode>> meterValues = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            meterValues.add(CompletableFuture.supplyAsync(client::sendMeterValues).thenCompose(future -> future));
+        }
+        calls.add(client.sendAuthorize());
+        calls.add(client.sendStartTransaction());
+        calls.add(client.sendStatusNotification(ConnectorStatus.CHARGING));
+        calls.addAll(meterValues);
+
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertThat(client.getSession().isCharging()).isTrue();
+        assertThat(client.getSession().getMessageCount()).isEqualTo(10);
+        assertThat(csms.getResponder().getCallsByAction()).containsEntry("MeterValues", 5L);
+
+        // StopTransaction envoyé pendant un MeterValues en vol, comme à l'arrêt du test
+        CompletableFuture<JsonNode> inFlight = client.sendMeterValues();
+        client.sendStopTransaction().get(5, TimeUnit.SECONDS);
+        assertThat(inFlight).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Fermeture : le CALL en vol et la file échouent")
+    void closeFailsPendingAndQueuedCalls() {
+        CompletableFuture<JsonNode> boot = client.sendBootNotification();
+        CompletableFuture<JsonNode> queued = client.sendMeterValues();
+
+        client.close();
+
+        assertThatThrownBy(() -> boot.get(5, TimeUnit.SECONDS)).hasMessageContaining("Connection closed");
+        assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).hasMessageContaining("Connection closed");
+    }
+}
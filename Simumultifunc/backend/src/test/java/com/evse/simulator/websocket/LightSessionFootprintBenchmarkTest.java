@@ -0,0 +1,144 @@
+package com.evse.simulator.websocket;
+
+import com.evse.simulator.config.MockCsmsProperties;
+import com.evse.simulator.model.ChartPoint;
+import com.evse.simulator.model.LightSession;
+import com.evse.simulator.model.LogEntry;
+import com.evse.simulator.model.OCPPMessage;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.model.enums.ChargerType;
+import com.evse.simulator.model.enums.ConnectorStatus;
+import com.evse.simulator.model.enums.OCPPAction;
+import com.evse.simulator.performance.csms.MockCsmsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Empreinte heap des sessions de test de charge (mvn test -Pbenchmark).
+ * <p>
+ * Compare une {@link Session} complète remplie comme après une heure de charge
+ * (500 logs, 500 points par graphique, 500 messages OCPP) à une
+ * {@link LightSession}, puis mesure une session légère connectée au CSMS
+ * simulé après BootNotification et StartTransaction. Affiche le nombre de
+ * sessions tenant dans un heap de 2 Gio.
+ * </p>
+ */
+@Tag("benchmark")
+class LightSessionFootprintBenchmarkTest {
+
+    private static final long HEAP_BUDGET_BYTES = 2L << 30;
+    private static final int FULL_SESSIONS = 1_000;
+    private static final int LIGHT_SESSIONS = 50_000;
+    private static final int CONNECTED_SESSIONS = 1_000;
+    private static final int HISTORY = 500;
+    // Tampons et threads Java-WebSocket des deux côtés compris, CSMS simulé dans le même heap (88 Kio mesurés)
+    private static final long CONNECTED_TARGET_BYTES = 96 * 1024;
+
+    @Test
+    @DisplayName("Heap par session : Session complète contre LightSession")
+    void stateFootprint() throws Exception {
+        long before = usedHeap();
+        List<Session> full = new ArrayList<>(FULL_SESSIONS);
+        for (int i = 0; i < FULL_SESSIONS; i++) {
+            full.add(fullSession(i));
+        }
+        long fullBytes = (usedHeap() - before) / FULL_SESSIONS;
+
+        before = usedHeap();
+        List<LightSession> light = new ArrayList<>(LIGHT_SESSIONS);
+        for (int i = 0; i < LIGHT_SESSIONS; i++) {
+            LightSession session = lightSession(i, "ws://localhost/ocpp");
+            session.startCharging(i + 1);
+            light.add(session);
+        }
+        long lightBytes = (usedHeap() - before) / LIGHT_SESSIONS;
+
+        System.out.printf("%n=== Heap par session (hors connexion) ===%n");
+        System.out.printf("%-14s %10d o/session %12d sessions/2 Gio%n", "Session", fullBytes,
+                HEAP_BUDGET_BYTES / Math.max(1, fullBytes));
+        System.out.printf("%-14s %10d o/session %12d sessions/2 Gio%n", "LightSession", lightBytes,
+                HEAP_BUDGET_BYTES / Math.max(1, lightBytes));
+
+        assertThat(full).hasSize(FULL_SESSIONS);
+        assertThat(light).hasSize(LIGHT_SESSIONS);
+        assertThat(lightBytes).isLessThan(LightSession.HEAP_TARGET_BYTES);
+        assertThat(fullBytes).isGreaterThan(lightBytes * 100);
+    }
+
+    @Test
+    @DisplayName("Heap par session légère connectée au CSMS simulé")
+    void connectedFootprint() throws Exception {
+        MockCsmsProperties properties = new MockCsmsProperties();
+        properties.setPort(0);
+        MockCsmsService csms = new MockCsmsService(properties);
+        csms.start(0);
+        List<LightOcppClient> clients = new ArrayList<>(CONNECTED_SESSIONS);
+        try {
+            String url = "ws://localhost:" + csms.getPort() + "/ocpp";
+            long before = usedHeap();
+            for (int i = 0; i < CONNECTED_SESSIONS; i++) {
+                LightOcppClient client = new LightOcppClient(lightSession(i, url), null, 10_000);
+                clients.add(client);
+                assertThat(client.open(10_000)).isTrue();
+                client.sendBootNotification().get(10, TimeUnit.SECONDS);
+                client.sendStatusNotification(ConnectorStatus.CHARGING).get(10, TimeUnit.SECONDS);
+                client.sendStartTransaction().get(10, TimeUnit.SECONDS);
+            }
+            long connectedBytes = (usedHeap() - before) / CONNECTED_SESSIONS;
+
+            System.out.printf("%n=== Heap par session légère connectée (client + CSMS simulé) ===%n");
+            System.out.printf("%-14s %10d o/session %12d sessions/2 Gio%n", "connectée", connectedBytes,
+                    HEAP_BUDGET_BYTES / Math.max(1, connectedBytes));
+
+            assertThat(clients).allMatch(client -> client.getSession().isCharging());
+            assertThat(connectedBytes).isLessThan(CONNECTED_TARGET_BYTES);
+        } finally {
+            clients.forEach(LightOcppClient::close);
+            csms.stop();
+        }
+    }
+
+    private static LightSession lightSession(int index, String url) {
+        return new LightSession(String.format("perf-1700000000000-%05d", index),
+                String.format("PERF-%05d", index), "PERF-TAG", url, index,
+                ChargerType.AC_TRI, "PERF_TEST", 50.0, 80.0);
+    }
+
+    private static Session fullSession(int index) {
+        Session session = Session.builder()
+                .id(String.format("perf-1700000000000-%05d", index))
+                .title("Perf #" + index)
+                .url("ws://localhost/ocpp")
+                .cpId(String.format("PERF-%05d", index))
+                .vehicleProfile("PERF_TEST")
+                .idTag("PERF-TAG")
+                .build();
+        for (int n = 0; n < HISTORY; n++) {
+            session.addLog(LogEntry.info("OCPP", "MeterValues sent: " + (n * 61) + " Wh"));
+            session.addSocDataPoint(ChartPoint.of(50.0 + n * 0.06));
+            session.addPowerDataPoint(ChartPoint.of(22.0));
+            session.addOcppMessage(OCPPMessage.createCall(OCPPAction.METER_VALUES,
+                    Map.of("connectorId", 1, "transactionId", index + 1, "value", String.valueOf(n * 61))));
+        }
+        return session;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
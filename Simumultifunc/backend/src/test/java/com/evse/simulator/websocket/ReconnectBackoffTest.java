@@ -0,0 +1,45 @@
+package com.evse.simulator.websocket;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReconnectBackoffTest {
+
+    @Test
+    @DisplayName("Palier exponentiel plafonné au délai maximal")
+    void ceilingGrowsAndCaps() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 30000, 2.0, ReconnectBackoff.Jitter.NONE);
+
+        assertThat(backoff.ceilingMs(1)).isEqualTo(1000);
+        assertThat(backoff.ceilingMs(2)).isEqualTo(2000);
+        assertThat(backoff.ceilingMs(5)).isEqualTo(16000);
+        assertThat(backoff.ceilingMs(6)).isEqualTo(30000);
+        assertThat(backoff.ceilingMs(100)).isEqualTo(30000);
+        assertThat(backoff.delayMs(3, 0.7)).isEqualTo(4000);
+    }
+
+    @Test
+    @DisplayName("Gigue complète : délai entre 0 et le palier")
+    void fullJitterSpreadsOverWholeCeiling() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 60000, 2.0, ReconnectBackoff.Jitter.FULL);
+
+        assertThat(backoff.delayMs(4, 0.0)).isZero();
+        assertThat(backoff.delayMs(4, 0.5)).isEqualTo(4000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(backoff.delayMs(4)).isBetween(0L, 8000L);
+        }
+    }
+
+    @Test
+    @DisplayName("Gigue égale : au moins la moitié du palier")
+    void equalJitterKeepsHalfCeiling() {
+        ReconnectBackoff backoff = new ReconnectBackoff(1000, 60000, 2.0, ReconnectBackoff.Jitter.EQUAL);
+
+        assertThat(backoff.delayMs(2, 0.0)).isEqualTo(1000);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(backoff.delayMs(2)).isBetween(1000L, 2000L);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.evse.simulator.config.BroadcastProperties;
+import com.evse.simulator.model.Session;
+import com.evse.simulator.repository.DataRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests du pipeline de diffusion par trames et des deltas de session.
+ */
+class BroadcastCoalescerTest {
+
+    private SimpMessagingTemplate template;
+    private SubscriptionTracker tracker;
+    private BroadcastProperties properties;
+    private BroadcastCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        template = mock(SimpMessagingTemplate.class);
+        tracker = mock(SubscriptionTracker.class);
+        when(tracker.hasSubscribers(anyString())).thenReturn(true);
+        when(tracker.hasSubscribers(endsWith(".cbor"))).thenReturn(false);
+        properties = new BroadcastProperties();
+        properties.setMaxQueuedPerDestination(3);
+        coalescer = new BroadcastCoalescer(template, tracker, properties,
+                new PayloadCodec(new ObjectMapper().registerModule(new JavaTimeModule())));
+    }
+
+    @Test
+    @DisplayName("Plusieurs mises à jour dans une trame : seule la dernière est envoyée")
+    void latest_shouldCoalesceWithinFrame() {
+        for (int i = 0; i < 5; i++) {
+            coalescer.submitLatest("/topic/metrics", "/topic/metrics", i);
+        }
+
+        coalescer.flush();
+
+        verify(template, times(1)).convertAndSend("/topic/metrics", (Object) 4);
+        TopicCounters.TopicStats stats = coalescer.getTopicStats().get("/topic/metrics");
+        assertThat(stats.submitted()).isEqualTo(5);
+        assertThat(stats.coalesced()).isEqualTo(4);
+        assertThat(stats.sent()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("File bornée : les plus anciens messages sont abandonnés")
+    void queued_shouldDropOldestBeyondLimit() {
+        for (int i = 0; i < 5; i++) {
+            coalescer.submitQueued("/topic/sessions/{id}/logs", "/topic/sessions/s1/logs", "log" + i);
+        }
+
+        coalescer.flush();
+
+        ArgumentCaptor<Object> payloads = ArgumentCaptor.forClass(Object.class);
+        verify(template, times(3)).convertAndSend(eq("/topic/sessions/s1/logs"), payloads.capture());
+        assertThat(payloads.getAllValues()).containsExactly("log2", "log3", "log4");
+        assertThat(coalescer.getTopicStats().get("/topic/sessions/{id}/logs").dropped()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Destination sans abonné : aucune conversion ni envoi")
+    void unsubscribed_shouldSkipSerialization() {
+        BroadcastCoalescer.Route route = mock(BroadcastCoalescer.Route.class);
+        when(route.hasInterest("/topic/sessions/s1")).thenReturn(false);
+
+        coalescer.submitLatest("/topic/sessions/{id}", "/topic/sessions/s1", new Object(), route);
+        coalescer.flush();
+
+        verify(route, never()).encode(any());
+        verify(route, never()).deliver(anyString(), any());
+        TopicCounters.TopicStats stats = coalescer.getTopicStats().get("/topic/sessions/{id}");
+        assertThat(stats.skippedNoSubscriber()).isEqualTo(1);
+        assertThat(stats.avoidedPercent()).isEqualTo(100.0);
+    }
+
+    @Test
+    @DisplayName("Variante CBOR : encodée une fois et envoyée en binaire")
+    void compactVariant_shouldSendBinaryOnce() {
+        when(tracker.hasSubscribers("/topic/metrics")).thenReturn(false);
+        when(tracker.hasSubscribers("/topic/metrics.cbor")).thenReturn(true);
+
+        coalescer.submitLatest("/topic/metrics", "/topic/metrics", Map.of("activeSessions", 12));
+        coalescer.flush();
+
+        ArgumentCaptor<Message<?>> message = ArgumentCaptor.forClass(Message.class);
+        verify(template, times(1)).send(eq("/topic/metrics.cbor"), message.capture());
+        verify(template, never()).convertAndSend(anyString(), any(Object.class));
+        assertThat(message.getValue().getPayload()).isInstanceOf(byte[].class);
+        assertThat(message.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE))
+                .hasToString("application/octet-stream");
+    }
+
+    @Test
+    @DisplayName("Topic de session suivi uniquement en CBOR : delta encodé et envoyé en binaire")
+    void sessionRoute_shouldServeCompactSubscribers() {
+        when(tracker.hasSubscribers("/topic/sessions/s1")).thenReturn(false);
+        when(tracker.hasSubscribers("/topic/sessions/s1.cbor")).thenReturn(true);
+        SessionStreamRouter router = new SessionStreamRouter(tracker, mock(DataRepository.class), template,
+                properties, new ObjectMapper().registerModule(new JavaTimeModule()), coalescer);
+
+        coalescer.submitLatest("/topic/sessions/{id}", "/topic/sessions/s1",
+                Session.builder().id("s1").cpId("CP-1").build(), router);
+        coalescer.flush();
+
+        ArgumentCaptor<Message<?>> message = ArgumentCaptor.forClass(Message.class);
+        verify(template, times(1)).send(eq("/topic/sessions/s1.cbor"), message.capture());
+        verify(template, never()).convertAndSend(anyString(), any(Object.class));
+        assertThat(message.getValue().getPayload()).isInstanceOf(byte[].class);
+        assertThat(router.getStats().directDeliveries()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Delta de session : snapshot initial puis champs modifiés uniquement")
+    void sessionDelta_shouldContainOnlyChangedFields() {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        SessionDeltaEncoder encoder = new SessionDeltaEncoder(mapper, 10);
+        Session session = Session.builder().id("s1").cpId("CP-1").soc(20.0).build();
+
+        SessionDelta first = encoder.encode(session);
+        session.setSoc(21.5);
+        SessionDelta second = encoder.encode(session);
+        SessionDelta third = encoder.encode(session);
+
+        assertThat(first.full()).isTrue();
+        assertThat(first.changes()).containsKey("cpId").doesNotContainKey("logs");
+        assertThat(second.full()).isFalse();
+        assertThat(second.seq()).isEqualTo(2);
+        assertThat(second.changes()).containsKeys("soc", "metrics").doesNotContainKey("cpId");
+        assertThat(second.changes().get("soc").asDouble()).isEqualTo(21.5);
+        assertThat(third).isNull();
+    }
+}
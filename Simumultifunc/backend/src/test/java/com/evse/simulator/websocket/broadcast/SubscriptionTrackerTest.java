@@ -0,0 +1,111 @@
+package com.evse.simulator.websocket.broadcast;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests du registre d'abonnements STOMP.
+ */
+class SubscriptionTrackerTest {
+
+    private final SubscriptionTracker tracker = new SubscriptionTracker();
+
+    private static Message<byte[]> frame(StompCommand command, String session, String subscription,
+                                         String destination, Map<String, String> nativeHeaders) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(session);
+        accessor.setSubscriptionId(subscription);
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        nativeHeaders.forEach(accessor::setNativeHeader);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private void subscribe(String session, String subscription, String destination, Map<String, String> headers) {
+        tracker.onSubscribe(new SessionSubscribeEvent(this,
+                frame(StompCommand.SUBSCRIBE, session, subscription, destination, headers)));
+    }
+
+    @Test
+    @DisplayName("Abonnement, désabonnement et déconnexion mettent à jour les destinations")
+    void subscribeUnsubscribeDisconnect() {
+        subscribe("ws1", "sub-1", "/topic/sessions/s1", Map.of());
+        subscribe("ws2", "sub-1", "/topic/sessions/s1", Map.of());
+        subscribe("ws2", "sub-2", "/topic/sessions/*/logs", Map.of());
+
+        assertThat(tracker.hasSubscribers("/topic/sessions/s1")).isTrue();
+        assertThat(tracker.hasSubscribers("/topic/sessions/s9/logs")).isTrue();
+        assertThat(tracker.hasSubscribers("/topic/sessions/s2")).isFalse();
+
+        tracker.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                frame(StompCommand.UNSUBSCRIBE, "ws1", "sub-1", null, Map.of())));
+        assertThat(tracker.hasSubscribers("/topic/sessions/s1")).isTrue();
+
+        Message<byte[]> disconnect = frame(StompCommand.DISCONNECT, "ws2", null, null, Map.of());
+        tracker.onDisconnect(new SessionDisconnectEvent(this, disconnect, "ws2", CloseStatus.NORMAL));
+        assertThat(tracker.hasSubscribers("/topic/sessions/s1")).isFalse();
+        assertThat(tracker.hasSubscribers("/topic/sessions/s9/logs")).isFalse();
+        assertThat(tracker.getStats().subscriptions()).isZero();
+    }
+
+    @Test
+    @DisplayName("Abonnements et désabonnements concurrents : aucun abonné perdu")
+    void concurrentChurnKeepsCounts() {
+        String[] destinations = {"/topic/sessions/s1", "/topic/sessions/*/logs"};
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            String session = "ws" + t;
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    String destination = destinations[i % 2];
+                    subscribe(session, "churn", destination, Map.of());
+                    tracker.onUnsubscribe(new SessionUnsubscribeEvent(this,
+                            frame(StompCommand.UNSUBSCRIBE, session, "churn", null, Map.of())));
+                }
+                subscribe(session, "last", destinations[1], Map.of());
+            }));
+        }
+        workers.forEach(CompletableFuture::join);
+
+        assertThat(tracker.hasSubscribers("/topic/sessions/s1")).isFalse();
+        assertThat(tracker.hasSubscribers("/topic/sessions/s9/logs")).isTrue();
+        assertThat(tracker.getStats().destinations()).isEqualTo(1);
+        assertThat(tracker.getStats().subscriptions()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("Fenêtre de sessions : en-têtes offset/limit et ids")
+    void viewportHeaders() {
+        long version = tracker.getViewportVersion();
+
+        subscribe("ws1", "sub-1", SubscriptionTracker.VIEWPORT_PREFIX + "grid", Map.of("offset", "100", "limit", "50"));
+        subscribe("ws2", "sub-1", SubscriptionTracker.VIEWPORT_PREFIX + "pinned", Map.of("ids", "s3, s1"));
+
+        assertThat(tracker.getViewportVersion()).isEqualTo(version + 2);
+        assertThat(tracker.getViewports())
+                .extracting(SubscriptionTracker.SessionViewport::destination,
+                        SubscriptionTracker.SessionViewport::offset,
+                        SubscriptionTracker.SessionViewport::limit)
+                .contains(org.assertj.core.groups.Tuple.tuple(SubscriptionTracker.VIEWPORT_PREFIX + "grid", 100, 50));
+        assertThat(tracker.getViewports())
+                .filteredOn(v -> v.destination().endsWith("pinned"))
+                .singleElement()
+                .satisfies(v -> assertThat(v.ids()).containsExactly("s3", "s1"));
+    }
+}
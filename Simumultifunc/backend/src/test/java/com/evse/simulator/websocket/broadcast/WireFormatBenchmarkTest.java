@@ -0,0 +1,133 @@
+package com.evse.simulator.websocket.broadcast;
+
+import com.evse.simulator.config.JacksonConfig;
+import com.evse.simulator.model.ChartData;
+import com.evse.simulator.model.ChartPoint;
+import com.evse.simulator.model.PerformanceMetrics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Benchmark des formats de diffusion dashboard (mvn test -Pbenchmark).
+ * <p>
+ * Une trame = métriques globales + un point de graphique par session.
+ * Compare, pour 1k et 10k sessions et {@value #SUBSCRIBERS} abonnés :
+ * JSON sérialisé par abonné (ancien comportement), JSON sérialisé une fois,
+ * CBOR sérialisé une fois, et la taille après deflate (estimation de
+ * permessage-deflate sans contexte partagé).
+ * </p>
+ */
+@Tag("benchmark")
+class WireFormatBenchmarkTest {
+
+    private static final int SUBSCRIBERS = 20;
+    private static final int FRAMES_PER_SECOND = 4;
+    private static final int ITERATIONS = 20;
+
+    private final PayloadCodec codec = new PayloadCodec(new JacksonConfig().objectMapper());
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    private record Measure(String name, long bytesPerFrame, long deflatedBytesPerFrame, double cpuMsPerFrame) {}
+
+    @ParameterizedTest(name = "{0} sessions")
+    @ValueSource(ints = {1_000, 10_000})
+    @DisplayName("Octets/s et CPU par diffusion selon le format")
+    void compareWireFormats(int sessions) throws Exception {
+        Map<String, Object> frame = frame(sessions);
+
+        // Préchauffage JIT
+        for (int i = 0; i < 5; i++) {
+            codec.prepare(frame).bytes(WireFormat.JSON);
+            codec.prepare(frame).bytes(WireFormat.CBOR);
+        }
+
+        List<Measure> measures = new ArrayList<>();
+        measures.add(measure("JSON par abonné", frame, WireFormat.JSON, SUBSCRIBERS));
+        measures.add(measure("JSON une fois", frame, WireFormat.JSON, 1));
+        measures.add(measure("CBOR une fois", frame, WireFormat.CBOR, 1));
+
+        System.out.printf("%n=== %d sessions, %d abonnés, %d trames/s ===%n", sessions, SUBSCRIBERS, FRAMES_PER_SECOND);
+        System.out.printf("%-18s %14s %16s %18s %14s%n",
+                "format", "octets/trame", "deflate/trame", "débit total (o/s)", "CPU ms/trame");
+        for (Measure m : measures) {
+            System.out.printf("%-18s %14d %16d %18d %14.2f%n", m.name(), m.bytesPerFrame(),
+                    m.deflatedBytesPerFrame(),
+                    m.bytesPerFrame() * SUBSCRIBERS * FRAMES_PER_SECOND, m.cpuMsPerFrame());
+        }
+
+        Measure perSubscriber = measures.get(0);
+        Measure jsonOnce = measures.get(1);
+        Measure cborOnce = measures.get(2);
+        assertThat(cborOnce.bytesPerFrame()).isLessThan(jsonOnce.bytesPerFrame());
+        assertThat(jsonOnce.cpuMsPerFrame()).isLessThan(perSubscriber.cpuMsPerFrame());
+    }
+
+    /**
+     * Mesure une trame diffusée à {@link #SUBSCRIBERS} abonnés avec {@code encodings}
+     * sérialisations (1 = serialize-once, SUBSCRIBERS = une par abonné).
+     */
+    private Measure measure(String name, Object frame, WireFormat format, int encodings) throws Exception {
+        long bytes = 0;
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            PayloadCodec.Prepared prepared = null;
+            for (int s = 0; s < SUBSCRIBERS; s++) {
+                if (prepared == null || encodings > 1) {
+                    prepared = codec.prepare(frame);
+                }
+                bytes = prepared.bytes(format).length;
+            }
+        }
+        double cpuMs = (threads.getCurrentThreadCpuTime() - cpuStart) / 1e6 / ITERATIONS;
+        return new Measure(name, bytes, deflatedSize(codec.encode(frame, format)), cpuMs);
+    }
+
+    private static long deflatedSize(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(bytes);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        byte[] buffer = new byte[64 * 1024];
+        while (!deflater.finished()) {
+            int n = deflater.deflate(buffer);
+            out.write(buffer, 0, n);
+        }
+        deflater.end();
+        return out.size();
+    }
+
+    private static Map<String, Object> frame(int sessions) {
+        List<ChartData> charts = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            charts.add(ChartData.builder()
+                    .sessionId("session-" + i)
+                    .socPoint(ChartPoint.of(20 + (i % 60) + 0.37))
+                    .powerPoint(ChartPoint.of(7.4 + (i % 15) * 1.3))
+                    .build());
+        }
+        PerformanceMetrics metrics = PerformanceMetrics.builder()
+                .totalSessions(sessions)
+                .activeSessions(sessions)
+                .chargingSessions(sessions * 3 / 4)
+                .messagesSent(sessions * 120L)
+                .messagesReceived(sessions * 118L)
+                .averageLatencyMs(42.7)
+                .p95LatencyMs(88.1)
+                .p99LatencyMs(143.9)
+                .totalPowerKw(sessions * 11.2)
+                .build();
+        return Map.of("metrics", metrics, "charts", charts);
+    }
+}